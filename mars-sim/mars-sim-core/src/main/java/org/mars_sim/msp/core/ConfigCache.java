@@ -0,0 +1,276 @@
+/**
+ * Mars Simulation Project
+ * ConfigCache.java
+ * @version 3.08 2015-08-12
+ */
+package org.mars_sim.msp.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A cache of the loaded simulation configuration, so later starts with the same
+ * configuration files skip parsing and validating the XML.
+ * The configuration is serialized, as it is in saved simulations, into a file named
+ * by a hash of the XML and DTD files it was loaded from, the build and the serialized
+ * form of the configuration classes. A cache file that is for other files, of another
+ * build or can't be read is ignored, and the XML is parsed.
+ */
+final class ConfigCache {
+
+	private static Logger logger = Logger.getLogger(ConfigCache.class.getName());
+
+	private static final String CACHE_PREFIX = "config-";
+	private static final String CACHE_SUFFIX = ".cache";
+	private static final int MAGIC = 0x4D534346;
+	/** The version of the cache file format. */
+	private static final int VERSION = 1;
+	/** The number of cache files kept. */
+	private static final int MAX_CACHE_FILES = 4;
+
+	/**
+	 * Private constructor for utility class.
+	 */
+	private ConfigCache() {
+	}
+
+	/**
+	 * Gets the key of a set of configuration files, a hash of the XML files and their DTDs,
+	 * the build and the serialized form of the configuration classes.
+	 * @param filenames the configuration file names, without path or extension.
+	 * @return the key.
+	 * @throws IOException if a file cannot be read.
+	 */
+	static byte[] getKey(String[] filenames) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		digest.update(ByteBuffer.allocate(4).putInt(VERSION).array());
+		digest.update(Simulation.BUILD_VERSION.getBytes("UTF-8"));
+		updateClass(digest, SimulationConfig.class, new HashSet<Class<?>>());
+		byte[] buffer = new byte[8192];
+		for (String filename : filenames) {
+			for (String path : new String[] { "/conf/" + filename + ".xml", "/conf/dtd/" + filename + ".dtd" }) {
+				digest.update(path.getBytes("UTF-8"));
+				InputStream stream = ConfigCache.class.getResourceAsStream(path);
+				// A missing DTD is hashed as empty.
+				if (stream == null) continue;
+				try {
+					int length;
+					while ((length = stream.read(buffer)) > 0) {
+						digest.update(buffer, 0, length);
+					}
+				}
+				finally {
+					stream.close();
+				}
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * Hashes the serialized form of a class, and of the simulation classes it holds, so a
+	 * cache file written with other configuration classes in the same build isn't read.
+	 * @param digest the digest of the key.
+	 * @param type the class.
+	 * @param hashed the classes already hashed.
+	 */
+	private static void updateClass(MessageDigest digest, Class<?> type, Set<Class<?>> hashed)
+			throws IOException {
+		while (type.isArray()) type = type.getComponentType();
+		if (!type.getName().startsWith("org.mars_sim.") || !hashed.add(type)) return;
+
+		ObjectStreamClass descriptor = ObjectStreamClass.lookup(type);
+		if (descriptor != null) {
+			digest.update(descriptor.getName().getBytes("UTF-8"));
+			digest.update(ByteBuffer.allocate(8).putLong(descriptor.getSerialVersionUID()).array());
+			for (ObjectStreamField field : descriptor.getFields()) {
+				digest.update((field.getName() + ' ' + field.getType().getName()).getBytes("UTF-8"));
+				updateClass(digest, field.getType(), hashed);
+			}
+		}
+		// Nested classes held in collections, and fields of the superclass.
+		for (Class<?> nested : type.getDeclaredClasses()) {
+			updateClass(digest, nested, hashed);
+		}
+		if (type.getSuperclass() != null) {
+			updateClass(digest, type.getSuperclass(), hashed);
+		}
+	}
+
+	/**
+	 * Gets the cache file of a key.
+	 */
+	private static File getFile(File cacheDirectory, byte[] key) {
+		return new File(cacheDirectory, String.format("%s%016x%s", CACHE_PREFIX,
+				ByteBuffer.wrap(key).getLong(), CACHE_SUFFIX));
+	}
+
+	/**
+	 * Reads the configuration from a cache directory.
+	 * @param cacheDirectory the cache directory.
+	 * @param key the key of the configuration files.
+	 * @return the configuration, or null if it isn't in the cache.
+	 */
+	static SimulationConfig read(File cacheDirectory, byte[] key) {
+		File file = getFile(cacheDirectory, key);
+		if (!file.isFile()) return null;
+
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, raf.length());
+				byte[] fileKey = new byte[key.length];
+				if ((buffer.remaining() < 12 + key.length) || (buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)
+						|| (buffer.getInt() != key.length) || !Arrays.equals(get(buffer, fileKey), key)) {
+					logger.log(Level.INFO, "Ignoring cached configuration " + file + " for other configuration files.");
+					return null;
+				}
+
+				ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer));
+				SimulationConfig result = (SimulationConfig) in.readObject();
+				in.close();
+				// Mark as recently used.
+				file.setLastModified(System.currentTimeMillis());
+				return result;
+			}
+			finally {
+				raf.close();
+			}
+		}
+		catch (IOException | ClassNotFoundException | ClassCastException e) {
+			logger.log(Level.WARNING, "Cannot read cached configuration " + file + ", parsing configuration files", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Reads bytes from a buffer.
+	 * @return the bytes.
+	 */
+	private static byte[] get(ByteBuffer buffer, byte[] bytes) {
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Writes the configuration to a cache directory.
+	 * @param cacheDirectory the cache directory.
+	 * @param key the key of the configuration files.
+	 * @param config the configuration.
+	 */
+	static void write(File cacheDirectory, byte[] key, SimulationConfig config) {
+		try {
+			if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs())
+				throw new IOException("Cannot create cache directory " + cacheDirectory);
+			File file = getFile(cacheDirectory, key);
+			// A temporary file of its own, as simulations started together may write the same cache file.
+			File tempFile = File.createTempFile(CACHE_PREFIX, ".tmp", cacheDirectory);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(key.length);
+				out.write(key);
+				ObjectOutputStream oos = new ObjectOutputStream(out);
+				oos.writeObject(config);
+				oos.flush();
+			}
+			catch (IOException e) {
+				out.close();
+				tempFile.delete();
+				throw e;
+			}
+			finally {
+				out.close();
+			}
+			if (!tempFile.renameTo(file) && (!file.delete() || !tempFile.renameTo(file))) {
+				tempFile.delete();
+				throw new IOException("Cannot rename " + tempFile + " to " + file);
+			}
+			pruneCache(cacheDirectory);
+		}
+		catch (IOException e) {
+			logger.log(Level.WARNING, "Cannot cache configuration in " + cacheDirectory, e);
+		}
+	}
+
+	/**
+	 * Deletes the least recently used cache files beyond the number kept.
+	 */
+	private static void pruneCache(File cacheDirectory) {
+		File[] files = cacheDirectory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(CACHE_PREFIX) && name.endsWith(CACHE_SUFFIX);
+			}
+		});
+		if ((files == null) || (files.length <= MAX_CACHE_FILES)) return;
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File file1, File file2) {
+				return Long.compare(file2.lastModified(), file1.lastModified());
+			}
+		});
+		for (int x = MAX_CACHE_FILES; x < files.length; x++) {
+			files[x].delete();
+		}
+	}
+
+	/**
+	 * An input stream reading the rest of a byte buffer.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0) return 0;
+			if (!buffer.hasRemaining()) return -1;
+			int result = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, result);
+			return result;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -55,14 +56,15 @@ implements Serializable {
     private AmountResourceStorage resourceStorage = new AmountResourceStorage();
 
     // Cache capacity variables.
-    private transient Map<AmountResource, Double> amountResourceCapacityCache = null;
-    private transient Map<AmountResource, Boolean> amountResourceCapacityCacheDirty = null;
-    private transient Map<AmountResource, Double> amountResourceContainersCapacityCache = null;
-    private transient Map<AmountResource, Boolean> amountResourceContainersCapacityCacheDirty = null;
-    private transient Map<AmountResource, Double> amountResourceStoredCache = null;
-    private transient Map<AmountResource, Boolean> amountResourceStoredCacheDirty = null;
-    private transient Map<AmountResource, Double> amountResourceContainersStoredCache = null;
-    private transient Map<AmountResource, Boolean> amountResourceContainersStoredCacheDirty = null;
+    // Amount resource caches are indexed by resource ID.
+    private transient double[] amountResourceCapacityCache = null;
+    private transient boolean[] amountResourceCapacityCacheDirty = null;
+    private transient double[] amountResourceContainersCapacityCache = null;
+    private transient boolean[] amountResourceContainersCapacityCacheDirty = null;
+    private transient double[] amountResourceStoredCache = null;
+    private transient boolean[] amountResourceStoredCacheDirty = null;
+    private transient double[] amountResourceContainersStoredCache = null;
+    private transient boolean[] amountResourceContainersStoredCacheDirty = null;
     private transient Set<AmountResource> allStoredAmountResourcesCache = null;
     private transient boolean allStoredAmountResourcesCacheDirty = true;
     private transient double totalAmountResourcesStoredCache;
@@ -1059,6 +1061,9 @@ implements Serializable {
             }
 
             containedUnits.add(unit);
+            if (owner != null) {
+                owner.unitStored(unit);
+            }
             unit.setContainerUnit(owner);
 
             // Try to empty amount resources into parent if container.
@@ -1112,6 +1117,9 @@ implements Serializable {
             if (containedUnits.contains(unit)) {
 
                 containedUnits.remove(unit);
+                if (owner != null) {
+                    owner.unitRetrieved(unit);
+                }
 
                 // Update owner
                 if (owner != null) {
@@ -1199,18 +1207,14 @@ implements Serializable {
      */
     private synchronized void initializeAmountResourceCapacityCache() {
 
-        Collection<AmountResource> resources = AmountResource.getAmountResources();
-        amountResourceCapacityCache = new HashMap<AmountResource, Double>();
-        amountResourceCapacityCacheDirty = new HashMap<AmountResource, Boolean>();
-        amountResourceContainersCapacityCache = new HashMap<AmountResource, Double>();
-        amountResourceContainersCapacityCacheDirty = new HashMap<AmountResource, Boolean>();
+        int size = AmountResource.getNumAmountResources();
+        amountResourceCapacityCache = new double[size];
+        amountResourceCapacityCacheDirty = new boolean[size];
+        amountResourceContainersCapacityCache = new double[size];
+        amountResourceContainersCapacityCacheDirty = new boolean[size];
 
-        for (AmountResource resource : resources) {
-            amountResourceCapacityCache.put(resource, 0D);
-            amountResourceCapacityCacheDirty.put(resource, true);
-            amountResourceContainersCapacityCache.put(resource, 0D);
-            amountResourceContainersCapacityCacheDirty.put(resource, true);
-        }
+        Arrays.fill(amountResourceCapacityCacheDirty, true);
+        Arrays.fill(amountResourceContainersCapacityCacheDirty, true);
     }
 
     /**
@@ -1225,7 +1229,7 @@ implements Serializable {
             initializeAmountResourceCapacityCache();
         }
 
-        return amountResourceCapacityCacheDirty.get(resource);
+        return amountResourceCapacityCacheDirty[resource.getID()];
     }
 
     /**
@@ -1239,7 +1243,7 @@ implements Serializable {
             initializeAmountResourceCapacityCache();
         }
 
-        amountResourceCapacityCacheDirty.put(resource, true);
+        amountResourceCapacityCacheDirty[resource.getID()] = true;
     }
 
     /**
@@ -1253,12 +1257,9 @@ implements Serializable {
             initializeAmountResourceCapacityCache();
         }
 
-        for (AmountResource amountResource : AmountResource.getAmountResources()) {
-            setAmountResourceCapacityCacheDirty(amountResource);
-
-            if (containersDirty) {
-                amountResourceContainersCapacityCacheDirty.put(amountResource, true);
-            }
+        Arrays.fill(amountResourceCapacityCacheDirty, true);
+        if (containersDirty) {
+            Arrays.fill(amountResourceContainersCapacityCacheDirty, true);
         }
 
         // Set owner unit's amount resource capacity cache as dirty (if any).
@@ -1288,7 +1289,7 @@ implements Serializable {
             updateAmountResourceCapacityCache(resource);
         }
 
-        return amountResourceCapacityCache.get(resource);
+        return amountResourceCapacityCache[resource.getID()];
     }
 
     /**
@@ -1302,6 +1303,7 @@ implements Serializable {
             initializeAmountResourceCapacityCache();
         }
 
+        int id = resource.getID();
         // Determine local resource capacity.
         double capacity = 0D;
         if (resourceStorage != null) {
@@ -1310,7 +1312,7 @@ implements Serializable {
 
         // Determine capacity for all contained units.
         double containedCapacity = 0D;
-        if (amountResourceContainersCapacityCacheDirty.get(resource)) {
+        if (amountResourceContainersCapacityCacheDirty[id]) {
             if (containedUnits != null) {
                 for (Unit unit : containedUnits) {
                     if (unit instanceof Container) {
@@ -1318,11 +1320,11 @@ implements Serializable {
                     }
                 }
             }
-            amountResourceContainersCapacityCache.put(resource, containedCapacity);
-            amountResourceContainersCapacityCacheDirty.put(resource, false);
+            amountResourceContainersCapacityCache[id] = containedCapacity;
+            amountResourceContainersCapacityCacheDirty[id] = false;
         }
         else {
-            containedCapacity = amountResourceContainersCapacityCache.get(resource);
+            containedCapacity = amountResourceContainersCapacityCache[id];
         }
 
         // Determine stored resources for all contained units.
@@ -1330,7 +1332,7 @@ implements Serializable {
         if (amountResourceContainersStoredCache == null) {
             initializeAmountResourceStoredCache();
         }
-        if (amountResourceContainersStoredCacheDirty.get(resource)) {
+        if (amountResourceContainersStoredCacheDirty[id]) {
             if (containedUnits != null) {
                 for (Unit unit : containedUnits) {
                     if (unit instanceof Container) {
@@ -1338,11 +1340,11 @@ implements Serializable {
                     }
                 }
             }
-            amountResourceContainersStoredCache.put(resource,  containedStored);
-            amountResourceContainersStoredCacheDirty.put(resource, false);
+            amountResourceContainersStoredCache[id] = containedStored;
+            amountResourceContainersStoredCacheDirty[id] = false;
         }
         else {
-            containedStored = amountResourceContainersStoredCache.get(resource);
+            containedStored = amountResourceContainersStoredCache[id];
         }
 
         // Limit container capacity to this inventory's remaining general capacity.
@@ -1355,26 +1357,22 @@ implements Serializable {
 
         capacity += containedCapacity;
 
-        amountResourceCapacityCache.put(resource, capacity);
-        amountResourceCapacityCacheDirty.put(resource, false);
+        amountResourceCapacityCache[id] = capacity;
+        amountResourceCapacityCacheDirty[id] = false;
     }
 
     /**
      * Initializes the amount resource stored cache.
      */
     private synchronized void initializeAmountResourceStoredCache() {
-        Collection<AmountResource> resources = AmountResource.getAmountResources();
-        amountResourceStoredCache = new HashMap<AmountResource, Double>();
-        amountResourceStoredCacheDirty = new HashMap<AmountResource, Boolean>();
-        amountResourceContainersStoredCache = new HashMap<AmountResource, Double>();
-        amountResourceContainersStoredCacheDirty = new HashMap<AmountResource, Boolean>();
+        int size = AmountResource.getNumAmountResources();
+        amountResourceStoredCache = new double[size];
+        amountResourceStoredCacheDirty = new boolean[size];
+        amountResourceContainersStoredCache = new double[size];
+        amountResourceContainersStoredCacheDirty = new boolean[size];
 
-        for (AmountResource resource : resources) {
-            amountResourceStoredCache.put(resource, 0D);
-            amountResourceStoredCacheDirty.put(resource, true);
-            amountResourceContainersStoredCache.put(resource, 0D);
-            amountResourceContainersStoredCacheDirty.put(resource, true);
-        }
+        Arrays.fill(amountResourceStoredCacheDirty, true);
+        Arrays.fill(amountResourceContainersStoredCacheDirty, true);
     }
 
     /**
@@ -1389,7 +1387,7 @@ implements Serializable {
             initializeAmountResourceStoredCache();
         }
 
-        return amountResourceStoredCacheDirty.get(resource);
+        return amountResourceStoredCacheDirty[resource.getID()];
     }
 
     /**
@@ -1403,7 +1401,7 @@ implements Serializable {
             initializeAmountResourceStoredCache();
         }
 
-        amountResourceStoredCacheDirty.put(resource, true);
+        amountResourceStoredCacheDirty[resource.getID()] = true;
     }
 
     /**
@@ -1417,12 +1415,9 @@ implements Serializable {
             initializeAmountResourceStoredCache();
         }
 
-        for (AmountResource amountResource : AmountResource.getAmountResources()) {
-            setAmountResourceStoredCacheDirty(amountResource);
-
-            if (containersDirty) {
-                amountResourceContainersStoredCacheDirty.put(amountResource, true);
-            }
+        Arrays.fill(amountResourceStoredCacheDirty, true);
+        if (containersDirty) {
+            Arrays.fill(amountResourceContainersStoredCacheDirty, true);
         }
 
         // Set owner unit's amount resource stored cache as dirty (if any).
@@ -1451,7 +1446,7 @@ implements Serializable {
         if (!allowDirty && isAmountResourceStoredCacheDirty(resource)) {
             updateAmountResourceStoredCache(resource);
         }
-        return amountResourceStoredCache.get(resource);
+        return amountResourceStoredCache[resource.getID()];
     }
 
     /**
@@ -1460,6 +1455,7 @@ implements Serializable {
      */
     private void updateAmountResourceStoredCache(AmountResource resource) {
 
+        int id = resource.getID();
         double stored = 0D;
 
         if (resourceStorage != null) {
@@ -1467,7 +1463,7 @@ implements Serializable {
         }
 
         double containerStored = 0D;
-        if (amountResourceContainersStoredCacheDirty.get(resource)) {
+        if (amountResourceContainersStoredCacheDirty[id]) {
             if (containedUnits != null) {
                 for (Unit unit : containedUnits) {
                     if (unit instanceof Container) {
@@ -1475,17 +1471,17 @@ implements Serializable {
                     }
                 }
             }
-            amountResourceContainersStoredCache.put(resource, containerStored);
-            amountResourceContainersStoredCacheDirty.put(resource, false);
+            amountResourceContainersStoredCache[id] = containerStored;
+            amountResourceContainersStoredCacheDirty[id] = false;
         }
         else {
-            containerStored = amountResourceContainersStoredCache.get(resource);
+            containerStored = amountResourceContainersStoredCache[id];
         }
 
         stored += containerStored;
 
-        amountResourceStoredCache.put(resource, stored);
-        amountResourceStoredCacheDirty.put(resource, false);
+        amountResourceStoredCache[id] = stored;
+        amountResourceStoredCacheDirty[id] = false;
     }
 
     /**
@@ -1786,14 +1782,14 @@ implements Serializable {
         containedItemResources = null;
         if (resourceStorage != null) resourceStorage.destroy();
         resourceStorage = null;
-        if (amountResourceCapacityCache != null) amountResourceCapacityCache.clear();
         amountResourceCapacityCache = null;
-        if (amountResourceCapacityCacheDirty != null) amountResourceCapacityCacheDirty.clear();
         amountResourceCapacityCacheDirty = null;
-        if (amountResourceStoredCache != null) amountResourceStoredCache.clear();
+        amountResourceContainersCapacityCache = null;
+        amountResourceContainersCapacityCacheDirty = null;
         amountResourceStoredCache = null;
-        if (amountResourceStoredCacheDirty != null) amountResourceStoredCacheDirty.clear();
         amountResourceStoredCacheDirty = null;
+        amountResourceContainersStoredCache = null;
+        amountResourceContainersStoredCacheDirty = null;
         if (allStoredAmountResourcesCache != null) allStoredAmountResourcesCache.clear();
         allStoredAmountResourcesCache = null;
     }
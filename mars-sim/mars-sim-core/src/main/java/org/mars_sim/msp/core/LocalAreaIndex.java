@@ -0,0 +1,354 @@
+/**
+ * Mars Simulation Project
+ * LocalAreaIndex.java
+ * @version 3.08 2015-07-28
+ */
+
+package org.mars_sim.msp.core;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A spatial index of the local bounded objects (buildings, construction sites and vehicles)
+ * at a coordinate location.
+ * Objects are bucketed by their bounding rectangles in a uniform grid. Queries only run the
+ * exact rotated rectangle tests for objects in the grid cells the query overlaps.
+ * An index is immutable once built and is replaced when objects are added, moved or removed.
+ */
+class LocalAreaIndex {
+
+    /** The smallest grid cell size (meters). */
+    private static final double MIN_CELL_SIZE = 10D;
+
+    /** The maximum number of grid cells along each axis. */
+    private static final int MAX_CELLS = 128;
+
+    /** Overlap (meters) below which shapes are considered only touching. */
+    private static final double TOUCHING_DISTANCE = .0000001D;
+
+    /** Source of unique index versions. */
+    private static final AtomicLong versions = new AtomicLong();
+
+    // Data members
+    private final long version;
+    private final Set<LocalBoundedObject> objectSet;
+    private final LocalBoundedObject[] objects;
+    /** Rotated corners of each object as x0, y0, x1, y1, x2, y2, x3, y3. */
+    private final double[][] corners;
+    /** Rotated outline of each object for point containment. */
+    private final Path2D[] outlines;
+    /** Bounding rectangle of each object as min X, min Y, max X, max Y. */
+    private final double[][] bounds;
+
+    private final double gridMinX;
+    private final double gridMinY;
+    private final double cellSize;
+    private final int gridWidth;
+    private final int gridHeight;
+    /** Indexes of the objects overlapping each grid cell. */
+    private final int[][] cells;
+
+    /**
+     * Constructor.
+     * @param localObjects the local bounded objects at the location.
+     */
+    LocalAreaIndex(Collection<? extends LocalBoundedObject> localObjects) {
+
+        version = versions.incrementAndGet();
+        objectSet = Collections.unmodifiableSet(new LinkedHashSet<LocalBoundedObject>(localObjects));
+        objects = objectSet.toArray(new LocalBoundedObject[objectSet.size()]);
+        corners = new double[objects.length][];
+        outlines = new Path2D[objects.length];
+        bounds = new double[objects.length][];
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int x = 0; x < objects.length; x++) {
+            LocalBoundedObject object = objects[x];
+            corners[x] = getCorners(object.getXLocation(), object.getYLocation(), object.getWidth(),
+                    object.getLength(), object.getFacing());
+            outlines[x] = createOutline(corners[x]);
+            bounds[x] = getBounds(corners[x]);
+            minX = Math.min(minX, bounds[x][0]);
+            minY = Math.min(minY, bounds[x][1]);
+            maxX = Math.max(maxX, bounds[x][2]);
+            maxY = Math.max(maxY, bounds[x][3]);
+        }
+
+        if (objects.length == 0) {
+            gridMinX = 0D;
+            gridMinY = 0D;
+            cellSize = MIN_CELL_SIZE;
+            gridWidth = 0;
+            gridHeight = 0;
+            cells = new int[0][];
+            return;
+        }
+
+        gridMinX = minX;
+        gridMinY = minY;
+        cellSize = Math.max(MIN_CELL_SIZE, Math.max(maxX - minX, maxY - minY) / MAX_CELLS);
+        gridWidth = getCell(maxX, gridMinX) + 1;
+        gridHeight = getCell(maxY, gridMinY) + 1;
+
+        // Count then fill the object indexes in each cell.
+        int[] counts = new int[gridWidth * gridHeight];
+        for (int x = 0; x < objects.length; x++) {
+            for (int j = getCell(bounds[x][1], gridMinY); j <= getCell(bounds[x][3], gridMinY); j++) {
+                for (int i = getCell(bounds[x][0], gridMinX); i <= getCell(bounds[x][2], gridMinX); i++) {
+                    counts[(j * gridWidth) + i]++;
+                }
+            }
+        }
+        cells = new int[counts.length][];
+        for (int c = 0; c < counts.length; c++) {
+            cells[c] = new int[counts[c]];
+            counts[c] = 0;
+        }
+        for (int x = 0; x < objects.length; x++) {
+            for (int j = getCell(bounds[x][1], gridMinY); j <= getCell(bounds[x][3], gridMinY); j++) {
+                for (int i = getCell(bounds[x][0], gridMinX); i <= getCell(bounds[x][2], gridMinX); i++) {
+                    int c = (j * gridWidth) + i;
+                    cells[c][counts[c]++] = x;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the unique version of this index.
+     * A new version is created whenever the index for a location is rebuilt.
+     * @return version.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the indexed objects.
+     * @return read-only set of local bounded objects.
+     */
+    Set<LocalBoundedObject> getObjects() {
+        return objectSet;
+    }
+
+    /**
+     * Checks if a point location is outside all indexed objects.
+     * @param xLoc the X location.
+     * @param yLoc the Y location.
+     * @return true if location doesn't collide with anything.
+     */
+    boolean isLocationFree(double xLoc, double yLoc) {
+
+        if ((gridWidth == 0) || (xLoc < gridMinX) || (yLoc < gridMinY)) {
+            return true;
+        }
+        int i = getCell(xLoc, gridMinX);
+        int j = getCell(yLoc, gridMinY);
+        if ((i >= gridWidth) || (j >= gridHeight)) {
+            return true;
+        }
+
+        int[] cell = cells[(j * gridWidth) + i];
+        for (int x = 0; x < cell.length; x++) {
+            if (outlines[cell[x]].contains(xLoc, yLoc)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if a convex polygon overlaps no indexed objects.
+     * @param exclude an object to ignore (may be null).
+     * @param polygon the polygon corners as x0, y0, x1, y1, ...
+     * @return true if polygon doesn't collide with anything.
+     */
+    boolean isPolygonFree(Object exclude, double[] polygon) {
+
+        if (gridWidth == 0) {
+            return true;
+        }
+
+        double[] polygonBounds = getBounds(polygon);
+        int minI = Math.max(0, getCell(polygonBounds[0], gridMinX));
+        int minJ = Math.max(0, getCell(polygonBounds[1], gridMinY));
+        int maxI = Math.min(gridWidth - 1, getCell(polygonBounds[2], gridMinX));
+        int maxJ = Math.min(gridHeight - 1, getCell(polygonBounds[3], gridMinY));
+        if ((minI > maxI) || (minJ > maxJ)) {
+            return true;
+        }
+
+        // Objects can span several cells so only test each one once.
+        boolean[] tested = null;
+        if ((minI != maxI) || (minJ != maxJ)) {
+            tested = new boolean[objects.length];
+        }
+
+        for (int j = minJ; j <= maxJ; j++) {
+            for (int i = minI; i <= maxI; i++) {
+                int[] cell = cells[(j * gridWidth) + i];
+                for (int c = 0; c < cell.length; c++) {
+                    int x = cell[c];
+                    if (tested != null) {
+                        if (tested[x]) {
+                            continue;
+                        }
+                        tested[x] = true;
+                    }
+                    if ((objects[x] != exclude) && boundsOverlap(bounds[x], polygonBounds) &&
+                            polygonsOverlap(corners[x], polygon)) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the grid cell index along one axis.
+     */
+    private int getCell(double value, double gridMin) {
+        return (int) Math.floor((value - gridMin) / cellSize);
+    }
+
+    /**
+     * Gets the corners of a rectangle rotated about its center.
+     * @param xLoc the center X location.
+     * @param yLoc the center Y location.
+     * @param width the width.
+     * @param length the length.
+     * @param facing the facing (degrees clockwise from North).
+     * @return corners as x0, y0, x1, y1, x2, y2, x3, y3.
+     */
+    static double[] getCorners(double xLoc, double yLoc, double width, double length, double facing) {
+        double minX = xLoc - (width / 2D);
+        double minY = yLoc - (length / 2D);
+        double[] result = new double[] {
+            minX, minY,
+            minX + width, minY,
+            minX + width, minY + length,
+            minX, minY + length
+        };
+        AffineTransform at = AffineTransform.getRotateInstance(Math.toRadians(facing), xLoc, yLoc);
+        at.transform(result, 0, result, 0, 4);
+        return result;
+    }
+
+    /**
+     * Creates a closed outline path from polygon corners.
+     */
+    private static Path2D createOutline(double[] polygon) {
+        Path2D result = new Path2D.Double();
+        result.moveTo(polygon[0], polygon[1]);
+        for (int x = 2; x < polygon.length; x += 2) {
+            result.lineTo(polygon[x], polygon[x + 1]);
+        }
+        result.closePath();
+        return result;
+    }
+
+    /**
+     * Gets the bounding rectangle of polygon corners.
+     * @return bounds as min X, min Y, max X, max Y.
+     */
+    private static double[] getBounds(double[] polygon) {
+        double[] result = new double[] {
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY
+        };
+        for (int x = 0; x < polygon.length; x += 2) {
+            result[0] = Math.min(result[0], polygon[x]);
+            result[1] = Math.min(result[1], polygon[x + 1]);
+            result[2] = Math.max(result[2], polygon[x]);
+            result[3] = Math.max(result[3], polygon[x + 1]);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if two bounding rectangles overlap.
+     */
+    private static boolean boundsOverlap(double[] bounds1, double[] bounds2) {
+        return (bounds1[0] <= bounds2[2]) && (bounds2[0] <= bounds1[2]) &&
+                (bounds1[1] <= bounds2[3]) && (bounds2[1] <= bounds1[3]);
+    }
+
+    /**
+     * Checks if two convex polygons overlap with a non-zero area,
+     * using the separating axis theorem.
+     * @param polygon1 the first polygon's corners.
+     * @param polygon2 the second polygon's corners.
+     * @return true if the polygons overlap.
+     */
+    static boolean polygonsOverlap(double[] polygon1, double[] polygon2) {
+        return !hasSeparatingAxis(polygon1, polygon2) && !hasSeparatingAxis(polygon2, polygon1);
+    }
+
+    /**
+     * Checks if any edge normal of the first polygon separates the two polygons.
+     */
+    private static boolean hasSeparatingAxis(double[] polygon1, double[] polygon2) {
+        int size = polygon1.length;
+        for (int x = 0; x < size; x += 2) {
+            double edgeX = polygon1[(x + 2) % size] - polygon1[x];
+            double edgeY = polygon1[(x + 3) % size] - polygon1[x + 1];
+            double edgeLength = Math.hypot(edgeX, edgeY);
+            if (edgeLength == 0D) {
+                continue;
+            }
+            double axisX = -edgeY / edgeLength;
+            double axisY = edgeX / edgeLength;
+
+            double min1 = Double.POSITIVE_INFINITY;
+            double max1 = Double.NEGATIVE_INFINITY;
+            for (int y = 0; y < size; y += 2) {
+                double projection = (polygon1[y] * axisX) + (polygon1[y + 1] * axisY);
+                min1 = Math.min(min1, projection);
+                max1 = Math.max(max1, projection);
+            }
+
+            double min2 = Double.POSITIVE_INFINITY;
+            double max2 = Double.NEGATIVE_INFINITY;
+            for (int y = 0; y < polygon2.length; y += 2) {
+                double projection = (polygon2[y] * axisX) + (polygon2[y + 1] * axisY);
+                min2 = Math.min(min2, projection);
+                max2 = Math.max(max2, projection);
+            }
+
+            if ((Math.min(max1, max2) - Math.max(min1, min2)) <= TOUCHING_DISTANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the polygon corners of a rectangle.
+     * @param rectangle the rectangle.
+     * @return corners as x0, y0, x1, y1, x2, y2, x3, y3.
+     */
+    static double[] getCorners(Rectangle2D rectangle) {
+        return getCorners(rectangle.getCenterX(), rectangle.getCenterY(), rectangle.getWidth(),
+                rectangle.getHeight(), 0D);
+    }
+
+    @Override
+    public String toString() {
+        return "LocalAreaIndex v" + version + " " + objects.length + " objects, " +
+                gridWidth + "x" + gridHeight + " cells " + Arrays.toString(new double[] { gridMinX, gridMinY, cellSize });
+    }
+}
@@ -8,16 +8,14 @@
 package org.mars_sim.msp.core;
 
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.mars_sim.msp.core.structure.Settlement;
 import org.mars_sim.msp.core.structure.building.Building;
@@ -36,11 +34,16 @@ public class LocalAreaUtil {
     /** A very small distance (meters) for measuring how close two locations are. */
     private static final double VERY_SMALL_DISTANCE = .00001D;
     
-    /** Cache for total area containing obstacles for a given coordinate location. */
-    private static final Map<Coordinates, Area> obstacleAreaCache = new HashMap<Coordinates, Area>();
+    /** Width (meters) of the thin rectangle representing a line path. */
+    private static final double LINE_PATH_WIDTH = .001D;
     
-    /** Time stamps for obstacle area cache. */
-    private static final Map<Coordinates, String> obstacleAreaTimestamps = new HashMap<Coordinates, String>();
+    /** 
+     * Cache of obstacle indexes for coordinate locations.
+     * Entries are removed when a building, construction site or vehicle at the location 
+     * is added, moved or removed.
+     */
+    private static final ConcurrentHashMap<Coordinates, LocalAreaIndex> obstacleIndexCache = 
+            new ConcurrentHashMap<Coordinates, LocalAreaIndex>();
     
     /**
      * Private empty constructor for utility class.
@@ -188,25 +191,61 @@ public class LocalAreaUtil {
      */
     public static boolean checkLocationCollision(double xLoc, double yLoc, Coordinates coordinates) {
         
-        boolean result = true;
+        return getObstacleIndex(coordinates, true).isLocationFree(xLoc, yLoc);
+    }
+    
+    /**
+     * Gets a set of local bounded objects at a given coordinate location.
+     * @param coordinates the coordinate location.
+     * @return set of local bounded objects at location (may be empty).
+     */
+    public static Set<LocalBoundedObject> getAllLocalBoundedObjectsAtLocation(Coordinates coordinates) {
         
-        Iterator<LocalBoundedObject> i = getAllLocalBoundedObjectsAtLocation(coordinates).iterator();
-        while (i.hasNext() && result) {
-            LocalBoundedObject object = i.next();
-            if (checkLocationWithinLocalBoundedObject(xLoc, yLoc, object)) {
-                result = false;
-            }
+        return new HashSet<LocalBoundedObject>(getObstacleIndex(coordinates, true).getObjects());
+    }
+    
+    /**
+     * Gets the version of the obstacle index at a coordinate location.
+     * The version changes whenever a building, construction site or vehicle at the location 
+     * is added, moved or removed, so it can be used to validate cached results.
+     * @param coordinates the coordinate location.
+     * @return obstacle index version.
+     */
+    public static long getObstacleVersion(Coordinates coordinates) {
+        
+        return getObstacleIndex(coordinates, true).getVersion();
+    }
+    
+    /**
+     * Gets the obstacle index for a coordinate location.
+     * @param coordinates the coordinate location.
+     * @param useCache true if a cached index can be used.
+     * @return obstacle index.
+     */
+    private static LocalAreaIndex getObstacleIndex(Coordinates coordinates, boolean useCache) {
+        
+        if (!useCache) {
+            return new LocalAreaIndex(findAllLocalBoundedObjectsAtLocation(coordinates));
+        }
+        
+        LocalAreaIndex result = obstacleIndexCache.get(coordinates);
+        if (result == null) {
+            // Unit coordinates are changed in place so cache a copy as the key.
+            // Building in computeIfAbsent means a removal for a concurrent change waits 
+            // for the build, so a stale index is never left in the cache.
+            result = obstacleIndexCache.computeIfAbsent(new Coordinates(coordinates), 
+                    c -> new LocalAreaIndex(findAllLocalBoundedObjectsAtLocation(c)));
         }
         
         return result;
     }
     
     /**
-     * Gets a set of local bounded objects at a given coordinate location.
+     * Finds all local bounded objects at a given coordinate location.
      * @param coordinates the coordinate location.
      * @return set of local bounded objects at location (may be empty).
      */
-    public static Set<LocalBoundedObject> getAllLocalBoundedObjectsAtLocation(Coordinates coordinates) {
+    private static Set<LocalBoundedObject> findAllLocalBoundedObjectsAtLocation(Coordinates coordinates) {
         
         Set<LocalBoundedObject> result = new HashSet<LocalBoundedObject>();
         
@@ -252,18 +291,12 @@ public class LocalAreaUtil {
      */
     public static boolean checkLocationWithinLocalBoundedObject(double xLoc, double yLoc, 
             LocalBoundedObject object) {
-        boolean result = false;
-        
         Rectangle2D rect = new Rectangle2D.Double(object.getXLocation() - 
                 (object.getWidth() / 2D), object.getYLocation() - 
                 (object.getLength() / 2D), object.getWidth(), object.getLength());
         Path2D path = getPathFromRectangleRotation(rect, object.getFacing());
-        Area area = new Area(path);
-        if (area.contains(xLoc, yLoc)) {
-            result = true;
-        }
         
-        return result;
+        return path.contains(xLoc, yLoc);
     }
     
     /**
@@ -318,16 +351,10 @@ public class LocalAreaUtil {
     public static boolean checkObjectCollision(Object object, double width, double length, 
             double xLoc, double yLoc, double facing, Coordinates coordinates) {
         
-        boolean result = true;
-        
-        // Create path for object.
-        Rectangle2D objectRect = new Rectangle2D.Double(xLoc - (width / 2D), 
-                yLoc - (length / 2D), width, length);
-        Path2D objectPath = getPathFromRectangleRotation(objectRect, facing);
+        // Create polygon for object.
+        double[] objectPolygon = LocalAreaIndex.getCorners(xLoc, yLoc, width, length, facing);
         
-        result = checkPathCollision(object, objectPath, coordinates, false);
-        
-        return result;
+        return checkPolygonCollision(object, objectPolygon, coordinates, false);
     }
     
     /**
@@ -340,14 +367,10 @@ public class LocalAreaUtil {
      */
     public static boolean checkLinePathCollision(Line2D line, Coordinates coordinates, boolean useCache) {
         
-        boolean result = true;
-        
-        // Create line path
-        Path2D linePath = createLinePath(line);
+        // Create line polygon.
+        double[] linePolygon = createLinePolygon(line);
         
-        result = checkPathCollision(null, linePath, coordinates, useCache);
-        
-        return result;
+        return checkPolygonCollision(null, linePolygon, coordinates, useCache);
     }
     
     public static Set<Point2D> getLinePathCollisionPoints(Line2D line, LocalBoundedObject object) {
@@ -414,27 +437,18 @@ public class LocalAreaUtil {
     }
     
     /**
-     * Create a thin (1 mm wide) rectangle path representing a line.
+     * Create a thin (1 mm wide) rectangle polygon representing a line.
      * @param line the line.
-     * @return rectangle path for the line.
+     * @return rectangle corners for the line.
      */
-    private static Path2D createLinePath(Line2D line) {
+    private static double[] createLinePolygon(Line2D line) {
         
-        // Make rectangle width 1mm.
-        double width = .001D;
         double length = line.getP1().distance(line.getP2());
         double centerX = (line.getX1() + line.getX2()) / 2D;
         double centerY = (line.getY1() + line.getY2()) / 2D;
-        
-        double x1 = centerX - (width / 2D);
-        double y1 = centerY - (length / 2D);
-        Rectangle2D lineRect = new Rectangle2D.Double(x1, y1, width, length);
-        
         double facing = getDirection(line.getP1(), line.getP2());
         
-        Path2D rectPath = getPathFromRectangleRotation(lineRect, facing);
-        
-        return rectPath;
+        return LocalAreaIndex.getCorners(centerX, centerY, LINE_PATH_WIDTH, length, facing);
     }
     
     /**
@@ -461,95 +475,36 @@ public class LocalAreaUtil {
     }
     
     /**
-     * Checks if a path collides with an existing building, construction site, or vehicle at a location.
+     * Checks if a polygon collides with an existing building, construction site, or vehicle at a location.
      * @param object the object being checked (may be null if no object).
-     * @param path the path to check.
+     * @param polygon the convex polygon corners to check.
      * @param coordinates the global coordinate location to check.
      * @param useCache true if caching should be used.
-     * @return true if path doesn't collide with anything.
+     * @return true if polygon doesn't collide with anything.
      */
-    private static boolean checkPathCollision(Object object, Path2D path, Coordinates coordinates, boolean useCache) {
-        
-        boolean result = true;
-        
-        // Check if obstacle area has been cached for this coordinate location if using cache.
-        boolean cached = false;
-        Area obstacleArea = null;
-        if (useCache && obstacleAreaCache.containsKey(coordinates)) {
-            String currentTimestamp = Simulation.instance().getMasterClock().getMarsClock().getDateTimeStamp();
-            String cachedTimestamp = obstacleAreaTimestamps.get(coordinates);
-            if (currentTimestamp.equals(cachedTimestamp)) {
-                cached = true;
-                obstacleArea = obstacleAreaCache.get(coordinates);
-            }
-        }
-        
-        if (!cached) {
-            // Add all obstacle areas at location together to create a total obstacle area.
-            Iterator<LocalBoundedObject> i = getAllLocalBoundedObjectsAtLocation(coordinates).iterator();
-            while (i.hasNext()) {
-                LocalBoundedObject lbo = i.next();
-                if (lbo != object) {
-                    Rectangle2D objectRect = new Rectangle2D.Double(lbo.getXLocation() - 
-                            (lbo.getWidth() / 2D), lbo.getYLocation() - 
-                            (lbo.getLength() / 2D), lbo.getWidth(), lbo.getLength());
-                    Path2D objectPath = getPathFromRectangleRotation(objectRect, 
-                            lbo.getFacing());
-                    Area objectArea = new Area(objectPath);
-                    if (obstacleArea == null) {
-                        obstacleArea = objectArea;
-                    }
-                    else {
-                        obstacleArea.add(objectArea);
-                    }
-                }
-            }
-        }
-        
-        if (obstacleArea != null) {
-            // Check for intersection of obstacle and path bounding rectangles first (faster).
-            Rectangle2D pathBounds = path.getBounds2D();
-            Rectangle2D obstacleBounds = obstacleArea.getBounds2D();
-            if (pathBounds.intersects(obstacleBounds)) {
-                // If rectangles intersect, check for collision of path and obstacle areas (slower).
-                Area pathArea = new Area(path);
-                result = !doAreasCollide(pathArea, obstacleArea);
-            }
-        }
+    private static boolean checkPolygonCollision(Object object, double[] polygon, Coordinates coordinates, 
+            boolean useCache) {
         
-        // Store cached obstacle area for location with current timestamp if needed.
-        if (useCache && !cached && (obstacleArea != null)) {
-            obstacleAreaCache.put(coordinates, obstacleArea);
-            String currentTimestamp = Simulation.instance().getMasterClock().getMarsClock().getDateTimeStamp();
-            obstacleAreaTimestamps.put(coordinates, currentTimestamp);
-        }
-        
-        return result;
+        return getObstacleIndex(coordinates, useCache).isPolygonFree(object, polygon);
     }
     
     /**
-     * Clear the obstacle area cache and time stamps.
+     * Clear the obstacle index cache for all locations.
      */
     public static void clearObstacleCache() {
-        if (obstacleAreaCache != null) {
-            obstacleAreaCache.clear();
-        }
-        if (obstacleAreaTimestamps != null) {
-            obstacleAreaTimestamps.clear();
-        }
+        obstacleIndexCache.clear();
     }
     
     /**
-     * Checks if two areas collide.
-     * @param area1 the first area.
-     * @param area2 the second area.
-     * @return true if areas collide.
+     * Clear the obstacle index cache for a location.
+     * Should be called when a building, construction site or vehicle at the location 
+     * is added, moved or removed.
+     * @param coordinates the coordinate location (may be null).
      */
-    private static boolean doAreasCollide(Area area1, Area area2) {
-        
-        Area collide = new Area(area1);
-        collide.intersect(area2);
-        return !collide.isEmpty();
+    public static void clearObstacleCache(Coordinates coordinates) {
+        if (coordinates != null) {
+            obstacleIndexCache.remove(coordinates);
+        }
     }
     
     /**
@@ -9,20 +9,148 @@ package org.mars_sim.msp.core;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The RandomUtil class is a library of various random-related
  * methods.
+ * Random numbers are drawn from independent streams derived from one master seed.
+ * A unit being updated draws from its own stream (see {@link #bindStream(Unit)}),
+ * and any other code draws from a stream of the current thread, so runs with the same
+ * seed repeat regardless of how many threads update units, and threads never share
+ * a generator.
  */
 public final class RandomUtil {
 
-	// Random generator.
-	//	private final static Random random = new Random();
+	/** The seed all streams are derived from. */
+	private static volatile long masterSeed = mix(System.nanoTime() ^ System.currentTimeMillis());
+
+	/** Incremented when the master seed changes so existing streams are replaced. */
+	private static volatile int generation;
+
+	/** Numbers the threads drawing numbers, so threads with the same name get different streams. */
+	private static final AtomicLong THREAD_COUNTER = new AtomicLong();
+
+	/** The streams of the current thread. */
+	private static final ThreadLocal<ThreadStreams> threadStreams = new ThreadLocal<ThreadStreams>() {
+		@Override
+		protected ThreadStreams initialValue() {
+			return new ThreadStreams();
+		}
+	};
+
+	/**
+	 * Private constructor for utility class.
+	 */
+	private RandomUtil() {
+	}
+
+	/**
+	 * Seeds the random generator so a simulation run can be repeated.
+	 * All unit and thread streams are derived again from the new seed.
+	 * @param seed the random seed.
+	 */
+	public static synchronized void setSeed(long seed) {
+		masterSeed = mix(seed);
+		generation++;
+	}
+
+	/**
+	 * Makes the current thread draw from a unit's stream until the stream is restored.
+	 * @param unit the unit.
+	 * @return the previously bound stream, to pass to {@link #restoreStream(MersenneTwisterFast)}.
+	 */
+	public static MersenneTwisterFast bindStream(Unit unit) {
+		ThreadStreams streams = threadStreams.get();
+		MersenneTwisterFast previous = streams.bound;
+		streams.bound = getStream(unit);
+		return previous;
+	}
+
 	/**
+	 * Restores the stream bound to the current thread before a {@link #bindStream(Unit)}.
+	 * @param previous the previously bound stream or null if none.
+	 */
+	public static void restoreStream(MersenneTwisterFast previous) {
+		threadStreams.get().bound = previous;
+	}
+
+	/**
+	 * Gets a unit's random stream, deriving it from the master seed if needed.
+	 * @param unit the unit.
+	 * @return random stream.
+	 */
+	static MersenneTwisterFast getStream(Unit unit) {
+		MersenneTwisterFast result = unit.getRandomStream(generation);
+		if (result == null) {
+			int currentGeneration = generation;
+			result = createStream(unit.getClass().getName() + ":" + unit.getName());
+			unit.setRandomStream(result, currentGeneration);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the stream the current thread draws from.
+	 * @return random stream.
+	 */
+	private static MersenneTwisterFast getRandom() {
+		ThreadStreams streams = threadStreams.get();
+		if (streams.bound != null) {
+			return streams.bound;
+		}
+		if (streams.generation != generation) {
+			streams.generation = generation;
+			streams.own = createStream("thread:" + streams.id);
+		}
+		return streams.own;
+	}
+
+	/**
+	 * Creates a stream for a key, independent of the streams of other keys.
 	 * MersenneTwisterFast provides a fast, much "more" random than the linear congruential
 	 * of the java.util.Random 
+	 * @param key the stream key.
+	 * @return random stream.
 	 */
-	private final static MersenneTwisterFast random = new MersenneTwisterFast();
+	static MersenneTwisterFast createStream(String key) {
+		// 64 bit FNV-1a hash of the key, so keys with equal String hash codes still differ.
+		long hash = 0xcbf29ce484222325L;
+		for (int x = 0; x < key.length(); x++) {
+			hash ^= key.charAt(x);
+			hash *= 0x100000001b3L;
+		}
+		long seed1 = mix(masterSeed ^ hash);
+		long seed2 = mix(seed1 + 0x9e3779b97f4a7c15L);
+		return new MersenneTwisterFast(new int[] { (int) (seed1 >>> 32), (int) seed1,
+				(int) (seed2 >>> 32), (int) seed2 });
+	}
+
+	/**
+	 * Scrambles a 64 bit value (the SplitMix64 finalizer).
+	 * @param value the value.
+	 * @return scrambled value.
+	 */
+	private static long mix(long value) {
+		long z = value + 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * The streams of a thread.
+	 */
+	private static final class ThreadStreams {
+		/** The number of the thread, which its own stream is derived from. */
+		private final long id = THREAD_COUNTER.getAndIncrement();
+		/** The unit stream bound to the thread, or null if none. */
+		private MersenneTwisterFast bound;
+		/** The thread's own stream. */
+		private MersenneTwisterFast own;
+		/** The generation the thread's own stream was derived in. */
+		private int generation = -1;
+	}
 
 	/**
 	 * Returns true if given number is less than a random percentage. 
@@ -30,7 +158,7 @@ public final class RandomUtil {
 	 * @return true if random percent is less than percentage limit
 	 */
 	public static boolean lessThanRandPercent(int randomLimit) {
-		int rand = random.nextInt(100) + 1;
+		int rand = getRandom().nextInt(100) + 1;
 		return rand < randomLimit;
 	}
 
@@ -40,7 +168,7 @@ public final class RandomUtil {
 	 * @return true if random percent is less than percentage limit
 	 */
 	public static boolean lessThanRandPercent(double randomLimit) {
-		double rand = random.nextDouble() * 100D;
+		double rand = getRandom().nextDouble() * 100D;
 		return rand < randomLimit;
 	}
 
@@ -52,7 +180,7 @@ public final class RandomUtil {
 	 */
 	public static int getRandomInt(int ceiling) {
 		if (ceiling < 0) throw new IllegalArgumentException(Msg.getString("RandomUtil.log.ceilingMustBePositive") + ceiling); //$NON-NLS-1$
-		return random.nextInt(ceiling + 1);
+		return getRandom().nextInt(ceiling + 1);
 	}
 
 	/**Returns a random int number from a given base number
@@ -63,7 +191,7 @@ public final class RandomUtil {
 	 */
 	public static int getRandomInt(int base, int ceiling) {
 		if (ceiling < base) throw new IllegalArgumentException(Msg.getString("RandomUtil.log.ceilingMustGreaterBase")); //$NON-NLS-1$
-		return random.nextInt(ceiling - base + 1) + base;
+		return getRandom().nextInt(ceiling - base + 1) + base;
 	}
 
 	/**Returns a random double number from 0 
@@ -72,7 +200,7 @@ public final class RandomUtil {
 	 * @return the random number
 	 */
 	public static double getRandomDouble(double ceiling) {
-		return random.nextDouble() * ceiling;
+		return getRandom().nextDouble() * ceiling;
 	}
 
 	/** 
@@ -7,6 +7,9 @@
  */
 package org.mars_sim.msp.core;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -21,9 +24,8 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
+import org.mars_sim.msp.core.events.HistoricalEventArchive;
 import org.mars_sim.msp.core.events.HistoricalEventManager;
 import org.mars_sim.msp.core.interplanetary.transport.TransportManager;
 import org.mars_sim.msp.core.malfunction.MalfunctionFactory;
@@ -31,12 +33,15 @@ import org.mars_sim.msp.core.mars.Mars;
 import org.mars_sim.msp.core.person.ai.mission.MissionManager;
 import org.mars_sim.msp.core.person.ai.social.RelationshipManager;
 import org.mars_sim.msp.core.person.medical.MedicalManager;
+import org.mars_sim.msp.core.save.AutosaveWriter;
+import org.mars_sim.msp.core.save.SaveFormat;
+import org.mars_sim.msp.core.save.SaveFormats;
 import org.mars_sim.msp.core.science.ScientificStudyManager;
 import org.mars_sim.msp.core.structure.goods.CreditManager;
 import org.mars_sim.msp.core.time.ClockListener;
 import org.mars_sim.msp.core.time.MasterClock;
-import org.mars_sim.msp.core.time.SystemDateTime;
 import org.mars_sim.msp.core.time.UpTimer;
+import org.mars_sim.msp.mapdata.MapDataUtil;
 /**
  * The Simulation class is the primary singleton class in the MSP simulation.
  * It's capable of creating a new simulation or loading/saving an existing one.
@@ -78,6 +83,25 @@ implements ClockListener, Serializable {
             File.separator +
             Msg.getString("Simulation.defaultDir.autosave"); //$NON-NLS-1$
 
+    /** Cache directory, for data computed from the configuration. */
+    public final static String CACHE_DIR =
+            System.getProperty("user.home") + //$NON-NLS-1$
+            File.separator +
+            Msg.getString("Simulation.defaultFolder") + //$NON-NLS-1$
+            File.separator +
+            Msg.getString("Simulation.defaultDir.cache"); //$NON-NLS-1$
+
+    /**
+     * Event archive directory, for the historical events of the latest simulation run,
+     * in a subdirectory named after the run.
+     */
+    public final static String EVENT_ARCHIVE_DIR =
+            System.getProperty("user.home") + //$NON-NLS-1$
+            File.separator +
+            Msg.getString("Simulation.defaultFolder") + //$NON-NLS-1$
+            File.separator +
+            Msg.getString("Simulation.defaultDir.events"); //$NON-NLS-1$
+
     @SuppressWarnings("restriction")
     public final static String WINDOW_TITLE = Msg.getString(
             "Simulation.title", Simulation.VERSION
@@ -98,6 +122,9 @@ implements ClockListener, Serializable {
 
     private boolean defaultLoad = false;
 
+    /** true if autosaves serialize a snapshot and write it in the background. */
+    private static boolean snapshotAutosave = true;
+
     private boolean initialSimulationCreated = false;
 
     /** Eager Initialization Singleton instance. */
@@ -152,6 +179,9 @@ implements ClockListener, Serializable {
 
     private transient ExecutorService simExecutor;
 
+    /** Writes autosave snapshots in the background. */
+    private transient AutosaveWriter autosaveWriter;
+
     // Intransient data members (stored in save file)
     /** Planet Mars. */
     private Mars mars;
@@ -178,6 +208,7 @@ implements ClockListener, Serializable {
     /** constructor. */
     public Simulation() {
         //logger.info("Simulation's constructor is on " + Thread.currentThread().getName() + " Thread");
+        MapDataUtil.instance().setCacheDirectory(SimulationConfig.getCacheDirectory());
         initializeTransientData();
     }
 
@@ -219,6 +250,7 @@ implements ClockListener, Serializable {
 
         // Initialize intransient data members.
         simulation.initializeIntransientData();
+        simulation.openEventArchive();
 
         // Initialize transient data members.
         //simulation.initializeTransientData(); // done in the constructor already (MultiplayerClient needs HistoricalEnventManager)
@@ -244,7 +276,41 @@ implements ClockListener, Serializable {
     private void initializeTransientData() {
         //logger.info("Simulation's initializeTransientData() is on " + Thread.currentThread().getName() + " Thread");
 
-    	eventManager = new HistoricalEventManager();
+    	if (eventManager == null) {
+    		eventManager = new HistoricalEventManager();
+    	}
+    	if (autosaveWriter == null) {
+    		autosaveWriter = new AutosaveWriter(new File(AUTOSAVE_DIR), DEFAULT_EXTENSION,
+    				AutosaveWriter.DEFAULT_MAX_AUTOSAVES);
+    	}
+    }
+
+    /**
+     * Opens the archive of historical events of the simulation run if configured.
+     * The archives of other runs are deleted.
+     */
+    private void openEventArchive() {
+        if (!SimulationConfig.instance().getArchiveEvents()) return;
+
+        File root = new File(EVENT_ARCHIVE_DIR);
+        File directory = new File(root, eventManager.getRunId());
+        try {
+            // Including an archive from before archives were kept by run.
+            HistoricalEventArchive.delete(root);
+            File[] runs = root.listFiles();
+            if (runs != null) {
+                for (File run : runs) {
+                    if (run.isDirectory() && !run.equals(directory)) {
+                        HistoricalEventArchive.delete(run);
+                        run.delete();
+                    }
+                }
+            }
+            eventManager.setArchive(new HistoricalEventArchive(directory));
+        }
+        catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot open event archive in " + directory, e);
+        }
     }
 
     /**
@@ -446,9 +512,10 @@ implements ClockListener, Serializable {
     private void readFromFile(File file) throws ClassNotFoundException, IOException {
 
         //ObjectInputStream p = new ObjectInputStream(new FileInputStream(file));
-        FileInputStream fin = new FileInputStream(file);
-        GZIPInputStream gis = new GZIPInputStream(fin);
-        ObjectInputStream ois = new ObjectInputStream(gis);
+        BufferedInputStream fin = new BufferedInputStream(new FileInputStream(file));
+        SaveFormat format = SaveFormats.detectFormat(fin);
+        ObjectInputStream ois = new ObjectInputStream(format.createInputStream(fin));
+        logger.config("Loading " + format.getName() + " format save file " + file.getName());
 
         // Destroy old simulation.
         if (instance().initialSimulationCreated) {
@@ -468,34 +535,42 @@ implements ClockListener, Serializable {
         creditManager = (CreditManager) ois.readObject();
         unitManager = (UnitManager) ois.readObject();
         masterClock = (MasterClock) ois.readObject();
+        try {
+            eventManager = (HistoricalEventManager) ois.readObject();
+        }
+        catch (EOFException e) {
+            // Saved before the event manager was saved, so it starts a new run.
+            eventManager = null;
+        }
         ois.close();
 
         // Initialize transient data.
         initializeTransientData();
+        openEventArchive();
 
         instance().initialSimulationCreated = true;
     }
 
     /**
      * Saves a simulation instance to a save file.
-     * @param file the file to be saved to.
+     * In snapshot autosave mode, autosaves only pause the simulation while it is
+     * serialized in memory and are written to the file in the background.
+     * @param file the file to be saved to, or null for the default file. Autosaves
+     * ignore it and are always written to a new file in the autosave directory.
      * @throws Exception if simulation could not be saved.
      */
     public void saveSimulation(File file, boolean isAutosave) throws IOException {
         //logger.config(Msg.getString("Simulation.log.saveSimTo") + file); //$NON-NLS-1$
 
-        Simulation simulation = instance();
-        simulation.pause();
-
         // Use default file path if file is null.
         /* [landrus, 27.11.09]: use the home dir instead of unknown relative paths. Also check if the dirs
          * exist */
-        if (file == null) {
+        // Autosaves are rotated, so they must not go where other saves are.
+        if (isAutosave || (file == null)) {
             // 2015-01-08 Added isAutosave
             if (isAutosave) {
-                String autosaveFilename = new SystemDateTime().getDateTimeStr() + "_Build_" + BUILD_VERSION + DEFAULT_EXTENSION;
-                file = new File(AUTOSAVE_DIR, autosaveFilename);
-                logger.info("Autosaving into " + autosaveFilename);
+                file = autosaveWriter.getAutosaveFile(BUILD_VERSION);
+                logger.info("Autosaving into " + file.getName());
             }
 
             else
@@ -511,33 +586,32 @@ implements ClockListener, Serializable {
         //else if file != null
             // file should already have the correct dir, name and extension, no need to change it
 
+        if (isAutosave && snapshotAutosave) {
+            autosaveSnapshot(file);
+            return;
+        }
 
+        Simulation simulation = instance();
+        simulation.pause();
 
         //ObjectOutputStream p = null;
         ObjectOutputStream oos = null;
+        SaveFormat format = SaveFormats.getDefaultFormat();
+        long startTime = System.nanoTime();
 
         try {
             //oos = new ObjectOutputStream(new FileOutputStream(file));
             FileOutputStream fos = new FileOutputStream(file);
-            GZIPOutputStream gz = new GZIPOutputStream(fos);
-            oos = new ObjectOutputStream(gz);
-
-            // Store the intransient objects.
-            oos.writeObject(SimulationConfig.instance());
-            oos.writeObject(malfunctionFactory);
-            oos.writeObject(mars);
-            oos.writeObject(missionManager);
-            oos.writeObject(relationshipManager);
-            oos.writeObject(medicalManager);
-            oos.writeObject(scientificStudyManager);
-            oos.writeObject(transportManager);
-            oos.writeObject(creditManager);
-            oos.writeObject(unitManager);
-            oos.writeObject(masterClock);
+            oos = new ObjectOutputStream(format.createOutputStream(fos));
+
+            writeSimulation(oos);
 
             oos.flush();
             oos.close();
             oos = null;
+
+            logger.info("Saved " + format.getName() + " format file " + file.getName() + " (" +
+                    (file.length() / 1024L) + " KB) in " + ((System.nanoTime() - startTime) / 1000000L) + " ms");
         } catch (IOException e){
             logger.log(Level.WARNING, Msg.getString("Simulation.log.saveError"), e); //$NON-NLS-1$
             throw e;
@@ -548,6 +622,98 @@ implements ClockListener, Serializable {
         }
 
         simulation.unpause();
+
+        if (isAutosave) {
+            autosaveWriter.rotate();
+        }
+    }
+
+    /**
+     * Autosaves the simulation by serializing a snapshot of it in memory between
+     * clock pulses, then writing the snapshot to a file in the background.
+     * @param file the autosave file.
+     * @throws IOException if the snapshot could not be serialized.
+     */
+    private void autosaveSnapshot(File file) throws IOException {
+        if (autosaveWriter.isWriting()) {
+            // Don't hold more than one snapshot in memory.
+            autosaveWriter.skip(file);
+            return;
+        }
+
+        Simulation simulation = instance();
+        simulation.pause();
+        long startTime = System.nanoTime();
+        ByteArrayOutputStream snapshot = null;
+        try {
+            snapshot = masterClock.runAtPulseBoundary(() -> {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024 * 1024);
+                ObjectOutputStream oos = new ObjectOutputStream(bytes);
+                writeSimulation(oos);
+                oos.close();
+                return bytes;
+            });
+        }
+        catch (IOException e) {
+            logger.log(Level.WARNING, Msg.getString("Simulation.log.saveError"), e); //$NON-NLS-1$
+            throw e;
+        }
+        catch (Exception e) {
+            logger.log(Level.WARNING, Msg.getString("Simulation.log.saveError"), e); //$NON-NLS-1$
+            throw new IOException(e);
+        }
+        finally {
+            simulation.unpause();
+        }
+
+        long pauseTime = (System.nanoTime() - startTime) / 1000000L;
+        autosaveWriter.write(snapshot, file, SaveFormats.getDefaultFormat(), pauseTime);
+    }
+
+    /**
+     * Writes the intransient simulation objects to a stream.
+     * @param oos the object output stream.
+     * @throws IOException if error writing.
+     */
+    private void writeSimulation(ObjectOutputStream oos) throws IOException {
+        // Store the intransient objects.
+        oos.writeObject(SimulationConfig.instance());
+        oos.writeObject(malfunctionFactory);
+        oos.writeObject(mars);
+        oos.writeObject(missionManager);
+        oos.writeObject(relationshipManager);
+        oos.writeObject(medicalManager);
+        oos.writeObject(scientificStudyManager);
+        oos.writeObject(transportManager);
+        oos.writeObject(creditManager);
+        oos.writeObject(unitManager);
+        oos.writeObject(masterClock);
+        oos.writeObject(eventManager);
+    }
+
+    /**
+     * Sets if autosaves serialize a snapshot and write it in the background
+     * rather than pausing the simulation until the file is written.
+     * @param value true for snapshot autosaves.
+     */
+    public static void setSnapshotAutosave(boolean value) {
+        snapshotAutosave = value;
+    }
+
+    /**
+     * Checks if autosaves serialize a snapshot and write it in the background.
+     * @return true for snapshot autosaves.
+     */
+    public static boolean isSnapshotAutosave() {
+        return snapshotAutosave;
+    }
+
+    /**
+     * Gets the background autosave writer, which reports autosave pause and write times.
+     * @return autosave writer.
+     */
+    public AutosaveWriter getAutosaveWriter() {
+        return autosaveWriter;
     }
 
     public void pause() {
@@ -6,10 +6,20 @@
  */
 package org.mars_sim.msp.core;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,7 +33,9 @@ import org.mars_sim.msp.core.malfunction.MalfunctionConfig;
 import org.mars_sim.msp.core.manufacture.ManufactureConfig;
 import org.mars_sim.msp.core.mars.LandmarkConfig;
 import org.mars_sim.msp.core.mars.MineralMapConfig;
+import org.mars_sim.msp.core.mars.WeatherGrid;
 import org.mars_sim.msp.core.person.PersonConfig;
+import org.mars_sim.msp.core.person.ai.mission.MissionPlanner;
 import org.mars_sim.msp.core.person.medical.MedicalConfig;
 import org.mars_sim.msp.core.resource.AmountResourceConfig;
 import org.mars_sim.msp.core.resource.PartConfig;
@@ -38,6 +50,8 @@ import org.mars_sim.msp.core.vehicle.VehicleConfig;
 
 /**
  * Loads the simulation configuration XML files as DOM documents.
+ * The loaded configuration can be cached in a directory, see {@link #setCacheDirectory(File)},
+ * so later starts with the same files load it from there rather than parsing the XML again.
  * Provides simulation configuration.
  * Provides access to other simulation subset configuration classes.
  */
@@ -73,12 +87,30 @@ public class SimulationConfig implements Serializable {
 	public static final String FOODPRODUCTION_FILE = "foodProduction";
 	public static final String MEAL_FILE = "meals";
 	public static final String ROBOT_FILE = "robots";
+
+	/** All the configuration files, in the order their configuration is created. */
+	private static final String[] CONFIG_FILES = new String[] {
+		SIMULATION_FILE, RESOURCE_FILE, PART_FILE, PART_PACKAGE_FILE, PEOPLE_FILE, MEDICAL_FILE,
+		LANDMARK_FILE, MINERAL_MAP_FILE, MALFUNCTION_FILE, CROP_FILE, VEHICLE_FILE, BUILDING_FILE,
+		RESUPPLY_FILE, SETTLEMENT_FILE, MANUFACTURE_FILE, CONSTRUCTION_FILE, FOODPRODUCTION_FILE,
+		MEAL_FILE, ROBOT_FILE
+	};
 	
 	// Simulation element names.
 	private static final String TIME_CONFIGURATION = "time-configuration";
 	private static final String TIME_RATIO = "time-ratio";
 	private static final String EARTH_START_DATE_TIME = "earth-start-date-time";
 	private static final String MARS_START_DATE_TIME = "mars-start-date-time";
+	private static final String UNIT_UPDATE_CONFIGURATION = "unit-update-configuration";
+	private static final String PARALLEL_UPDATE = "parallel-update";
+	private static final String UPDATE_THREADS = "update-threads";
+	private static final String MISSION_PLANNER_CONFIGURATION = "mission-planner-configuration";
+	private static final String REFRESH_BUDGET = "refresh-budget";
+	private static final String REFRESH_INTERVAL = "refresh-interval";
+	private static final String WEATHER_CONFIGURATION = "weather-configuration";
+	private static final String GRID_RESOLUTION = "grid-resolution";
+	private static final String EVENT_CONFIGURATION = "event-configuration";
+	private static final String ARCHIVE_EVENTS = "archive-events";
 
 	/* ---------------------------------------------------------------------------------------------------- *
 	 * Static Members
@@ -87,6 +119,9 @@ public class SimulationConfig implements Serializable {
 	/** Singleton instance. */
 	private static SimulationConfig instance = new SimulationConfig();
 
+	/** The directory the loaded configuration is cached in, or null if not cached. */
+	private static File cacheDirectory;
+
 	/* ---------------------------------------------------------------------------------------------------- *
 	 * Members
 	 * ---------------------------------------------------------------------------------------------------- */
@@ -157,6 +192,25 @@ public class SimulationConfig implements Serializable {
 		instance.loadDefaultConfiguration();
 	}
 
+	/**
+	 * Gets the directory the loaded configuration is cached in.
+	 * @return the cache directory, or null if not cached.
+	 */
+	public static File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	/**
+	 * Sets the directory the loaded configuration is cached in, and loaded from when the
+	 * configuration files are unchanged. Data computed from the configuration, such as the
+	 * decoded map colors, is cached there too. Nothing is cached unless it is set, so tests
+	 * don't use the cache of the installed application.
+	 * @param cacheDirectory the cache directory, or null for none.
+	 */
+	public static void setCacheDirectory(File cacheDirectory) {
+		SimulationConfig.cacheDirectory = cacheDirectory;
+	}
+
 	/* ---------------------------------------------------------------------------------------------------- *
 	 * Getter
 	 * ---------------------------------------------------------------------------------------------------- */
@@ -210,6 +264,97 @@ public class SimulationConfig implements Serializable {
 		return startDate;
 	}
 
+	/**
+	 * Checks if units should be updated in parallel across settlements.
+	 * Defaults to false (sequential) if not in configuration.
+	 * @return true if parallel.
+	 */
+	public boolean getParallelUnitUpdate() {
+		Element unitUpdateConfig = simulationDoc.getRootElement().getChild(UNIT_UPDATE_CONFIGURATION);
+		if (unitUpdateConfig == null) return false;
+		Element parallelUpdate = unitUpdateConfig.getChild(PARALLEL_UPDATE);
+		return Boolean.parseBoolean(parallelUpdate.getAttributeValue(VALUE));
+	}
+
+	/**
+	 * Gets the number of threads used to update units in parallel.
+	 * Defaults to 0 (one per available processor) if not in configuration.
+	 * @return number of threads.
+	 * @throws Exception if number of threads is not valid.
+	 */
+	public int getUnitUpdateThreads() {
+		Element unitUpdateConfig = simulationDoc.getRootElement().getChild(UNIT_UPDATE_CONFIGURATION);
+		if (unitUpdateConfig == null) return 0;
+		Element updateThreads = unitUpdateConfig.getChild(UPDATE_THREADS);
+		int threads = Integer.parseInt(updateThreads.getAttributeValue(VALUE));
+		if (threads < 0) throw new IllegalStateException("Unit update threads cannot be negative.");
+
+		return threads;
+	}
+
+	/**
+	 * Gets the number of mission opportunities the mission planner refreshes per settlement
+	 * each time pulse.
+	 * Defaults to {@link MissionPlanner#DEFAULT_REFRESH_BUDGET} if not in configuration.
+	 * @return refresh budget.
+	 * @throws Exception if refresh budget is not valid.
+	 */
+	public int getMissionPlannerRefreshBudget() {
+		Element plannerConfig = simulationDoc.getRootElement().getChild(MISSION_PLANNER_CONFIGURATION);
+		if (plannerConfig == null) return MissionPlanner.DEFAULT_REFRESH_BUDGET;
+		Element refreshBudget = plannerConfig.getChild(REFRESH_BUDGET);
+		int budget = Integer.parseInt(refreshBudget.getAttributeValue(VALUE));
+		if (budget < 0) throw new IllegalStateException("Mission planner refresh budget cannot be negative.");
+
+		return budget;
+	}
+
+	/**
+	 * Gets the time before the mission planner refreshes a mission opportunity.
+	 * Defaults to {@link MissionPlanner#DEFAULT_REFRESH_INTERVAL} if not in configuration.
+	 * @return refresh interval (millisols).
+	 * @throws Exception if refresh interval is not valid.
+	 */
+	public double getMissionPlannerRefreshInterval() {
+		Element plannerConfig = simulationDoc.getRootElement().getChild(MISSION_PLANNER_CONFIGURATION);
+		if (plannerConfig == null) return MissionPlanner.DEFAULT_REFRESH_INTERVAL;
+		Element refreshInterval = plannerConfig.getChild(REFRESH_INTERVAL);
+		double interval = Double.parseDouble(refreshInterval.getAttributeValue(VALUE));
+		if (interval < 0D) throw new IllegalStateException("Mission planner refresh interval cannot be negative.");
+
+		return interval;
+	}
+
+	/**
+	 * Gets the spacing of the grid the weather is computed on.
+	 * Defaults to {@link WeatherGrid#DEFAULT_RESOLUTION} if not in configuration.
+	 * @return resolution (degrees).
+	 * @throws Exception if resolution is not valid.
+	 */
+	public double getWeatherGridResolution() {
+		Element weatherConfig = simulationDoc.getRootElement().getChild(WEATHER_CONFIGURATION);
+		if (weatherConfig == null) return WeatherGrid.DEFAULT_RESOLUTION;
+		Element gridResolution = weatherConfig.getChild(GRID_RESOLUTION);
+		double resolution = Double.parseDouble(gridResolution.getAttributeValue(VALUE));
+		if ((resolution < WeatherGrid.MIN_RESOLUTION) || (resolution > WeatherGrid.MAX_RESOLUTION))
+			throw new IllegalStateException("Weather grid resolution must be from " + WeatherGrid.MIN_RESOLUTION
+					+ " to " + WeatherGrid.MAX_RESOLUTION + " degrees.");
+
+		return resolution;
+	}
+
+	/**
+	 * Checks if all historical events should be archived on disk.
+	 * Defaults to false if not in configuration.
+	 * @return true if archived.
+	 */
+	public boolean getArchiveEvents() {
+		Element eventConfig = simulationDoc.getRootElement().getChild(EVENT_CONFIGURATION);
+		if (eventConfig == null) return false;
+		Element archiveEvents = eventConfig.getChild(ARCHIVE_EVENTS);
+		return Boolean.parseBoolean(archiveEvents.getAttributeValue(VALUE));
+	}
+
 	/**
 	 * Gets the part config subset.
 	 * @return part config
@@ -365,36 +510,128 @@ public class SimulationConfig implements Serializable {
 	 * ---------------------------------------------------------------------------------------------------- */
 
 	private void loadDefaultConfiguration() {
+		File cacheDirectory = SimulationConfig.cacheDirectory;
+		byte[] cacheKey = null;
+		if (cacheDirectory != null) {
+			try {
+				cacheKey = ConfigCache.getKey(CONFIG_FILES);
+				SimulationConfig cached = ConfigCache.read(cacheDirectory, cacheKey);
+				if (cached != null) {
+					loadConfiguration(cached);
+					return;
+				}
+			}
+			catch (IOException e) {
+				logger.log(Level.WARNING, "Cannot hash configuration files, not caching configuration", e);
+			}
+		}
+
 		try {
+			Map<String, Document> docs = parseXMLFiles(CONFIG_FILES);
+
 			// Load simulation document
-			simulationDoc = parseXMLFileAsJDOMDocument(SIMULATION_FILE, true);
+			simulationDoc = docs.get(SIMULATION_FILE);
 
 			// Load subset configuration classes.
-			resourceConfig = new AmountResourceConfig(parseXMLFileAsJDOMDocument(RESOURCE_FILE, true));
-			partConfig = new PartConfig(parseXMLFileAsJDOMDocument(PART_FILE, true));
-			partPackageConfig = new PartPackageConfig(parseXMLFileAsJDOMDocument(PART_PACKAGE_FILE, true));
-			personConfig = new PersonConfig(parseXMLFileAsJDOMDocument(PEOPLE_FILE, true));
-			medicalConfig = new MedicalConfig(parseXMLFileAsJDOMDocument(MEDICAL_FILE, true));
-			landmarkConfig = new LandmarkConfig(parseXMLFileAsJDOMDocument(LANDMARK_FILE, true));
-			mineralMapConfig = new MineralMapConfig(parseXMLFileAsJDOMDocument(MINERAL_MAP_FILE, true));
-			malfunctionConfig = new MalfunctionConfig(parseXMLFileAsJDOMDocument(MALFUNCTION_FILE, true));
-			cropConfig = new CropConfig(parseXMLFileAsJDOMDocument(CROP_FILE, true));
-			vehicleConfig = new VehicleConfig(parseXMLFileAsJDOMDocument(VEHICLE_FILE, true));
-			buildingConfig = new BuildingConfig(parseXMLFileAsJDOMDocument(BUILDING_FILE, true));
-			resupplyConfig = new ResupplyConfig(parseXMLFileAsJDOMDocument(RESUPPLY_FILE, true), partPackageConfig);
-			settlementConfig = new SettlementConfig(parseXMLFileAsJDOMDocument(SETTLEMENT_FILE, true), partPackageConfig);
-			manufactureConfig = new ManufactureConfig(parseXMLFileAsJDOMDocument(MANUFACTURE_FILE, true));
-			constructionConfig = new ConstructionConfig(parseXMLFileAsJDOMDocument(CONSTRUCTION_FILE, true));
+			resourceConfig = new AmountResourceConfig(docs.get(RESOURCE_FILE));
+			partConfig = new PartConfig(docs.get(PART_FILE));
+			partPackageConfig = new PartPackageConfig(docs.get(PART_PACKAGE_FILE));
+			personConfig = new PersonConfig(docs.get(PEOPLE_FILE));
+			medicalConfig = new MedicalConfig(docs.get(MEDICAL_FILE));
+			landmarkConfig = new LandmarkConfig(docs.get(LANDMARK_FILE));
+			mineralMapConfig = new MineralMapConfig(docs.get(MINERAL_MAP_FILE));
+			malfunctionConfig = new MalfunctionConfig(docs.get(MALFUNCTION_FILE));
+			cropConfig = new CropConfig(docs.get(CROP_FILE));
+			vehicleConfig = new VehicleConfig(docs.get(VEHICLE_FILE));
+			buildingConfig = new BuildingConfig(docs.get(BUILDING_FILE));
+			resupplyConfig = new ResupplyConfig(docs.get(RESUPPLY_FILE), partPackageConfig);
+			settlementConfig = new SettlementConfig(docs.get(SETTLEMENT_FILE), partPackageConfig);
+			manufactureConfig = new ManufactureConfig(docs.get(MANUFACTURE_FILE));
+			constructionConfig = new ConstructionConfig(docs.get(CONSTRUCTION_FILE));
 			// 2014-11-23 Added Food Production
-			foodProductionConfig = new FoodProductionConfig(parseXMLFileAsJDOMDocument(FOODPRODUCTION_FILE, true));
+			foodProductionConfig = new FoodProductionConfig(docs.get(FOODPRODUCTION_FILE));
 			// 2014-12-06 Added mealConfig
-			mealConfig = new MealConfig(parseXMLFileAsJDOMDocument(MEAL_FILE, true));
+			mealConfig = new MealConfig(docs.get(MEAL_FILE));
 			// 2015-01-21 Added robotConfig
-			robotConfig = new RobotConfig(parseXMLFileAsJDOMDocument(ROBOT_FILE, true));
+			robotConfig = new RobotConfig(docs.get(ROBOT_FILE));
 			
 		} catch (Exception e) {
 			logger.log(Level.SEVERE,"Error creating simulation config: " + e.getMessage());
 			e.printStackTrace();
+			return;
+		}
+
+		if (cacheKey != null) {
+			ConfigCache.write(cacheDirectory, cacheKey, this);
+		}
+	}
+
+	/**
+	 * Takes the configuration of another instance, loaded from the cache.
+	 * @param config the other configuration.
+	 */
+	private void loadConfiguration(SimulationConfig config) {
+		simulationDoc = config.simulationDoc;
+		resourceConfig = config.resourceConfig;
+		partConfig = config.partConfig;
+		partPackageConfig = config.partPackageConfig;
+		personConfig = config.personConfig;
+		medicalConfig = config.medicalConfig;
+		landmarkConfig = config.landmarkConfig;
+		mineralMapConfig = config.mineralMapConfig;
+		malfunctionConfig = config.malfunctionConfig;
+		cropConfig = config.cropConfig;
+		vehicleConfig = config.vehicleConfig;
+		buildingConfig = config.buildingConfig;
+		resupplyConfig = config.resupplyConfig;
+		settlementConfig = config.settlementConfig;
+		manufactureConfig = config.manufactureConfig;
+		constructionConfig = config.constructionConfig;
+		foodProductionConfig = config.foodProductionConfig;
+		mealConfig = config.mealConfig;
+		robotConfig = config.robotConfig;
+	}
+
+	/**
+	 * Parses XML files into DOM documents, in parallel.
+	 * @param filenames the paths of the files.
+	 * @return DOM documents by file name.
+	 * @throws Exception if XML could not be parsed or a file could not be found.
+	 */
+	private static Map<String, Document> parseXMLFiles(String[] filenames) throws IOException, JDOMException {
+		int threads = Math.min(filenames.length, Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Document>> futures = new ArrayList<Future<Document>>(filenames.length);
+			for (final String filename : filenames) {
+				futures.add(executor.submit(new Callable<Document>() {
+					@Override
+					public Document call() throws IOException, JDOMException {
+						return parseXMLFileAsJDOMDocument(filename, true);
+					}
+				}));
+			}
+
+			Map<String, Document> result = new HashMap<String, Document>(filenames.length);
+			for (int x = 0; x < filenames.length; x++) {
+				try {
+					result.put(filenames[x], futures.get(x).get());
+				}
+				catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException) throw (IOException) cause;
+					if (cause instanceof JDOMException) throw (JDOMException) cause;
+					throw new IllegalStateException(cause);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted parsing " + filenames[x], e);
+				}
+			}
+			return result;
+		}
+		finally {
+			executor.shutdownNow();
 		}
 	}
 
@@ -43,6 +43,10 @@ implements Serializable, Comparable<Unit> {
 	private Unit containerUnit;
 	/** Unit listeners. */
 	private transient List<UnitListener> listeners;// = Collections.synchronizedList(new ArrayList<UnitListener>());
+	/** The unit's random stream, derived again after loading. */
+	private transient MersenneTwisterFast randomStream;
+	/** The RandomUtil seed generation the random stream was derived in. */
+	private transient int randomGeneration;
 
 	/**
 	 * Constructor.
@@ -80,6 +84,25 @@ implements Serializable, Comparable<Unit> {
 		return Simulation.instance().getUnitManager();
 	}
 
+	/**
+	 * Gets the unit's random stream.
+	 * @param generation the current RandomUtil seed generation.
+	 * @return random stream or null if none derived in the generation.
+	 */
+	MersenneTwisterFast getRandomStream(int generation) {
+		return (randomGeneration == generation) ? randomStream : null;
+	}
+
+	/**
+	 * Sets the unit's random stream.
+	 * @param randomStream the random stream.
+	 * @param generation the RandomUtil seed generation it was derived in.
+	 */
+	void setRandomStream(MersenneTwisterFast randomStream, int generation) {
+		this.randomStream = randomStream;
+		randomGeneration = generation;
+	}
+
 	/**
 	 * Gets the unit's name
 	 * @return the unit's name
@@ -183,6 +206,20 @@ implements Serializable, Comparable<Unit> {
 		fireUnitUpdate(UnitEventType.CONTAINER_UNIT_EVENT, containerUnit);
 	}
 
+	/**
+	 * Called by the unit's inventory when a unit is stored in it.
+	 * @param unit the stored unit.
+	 */
+	protected void unitStored(Unit unit) {
+	}
+
+	/**
+	 * Called by the unit's inventory when a unit is retrieved from it.
+	 * @param unit the retrieved unit.
+	 */
+	protected void unitRetrieved(Unit unit) {
+	}
+
 	/**
 	 * Gets the unit's mass including inventory mass.
 	 * @return mass of unit and inventory
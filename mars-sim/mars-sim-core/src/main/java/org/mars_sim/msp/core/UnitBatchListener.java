@@ -0,0 +1,20 @@
+/**
+ * Mars Simulation Project
+ * UnitBatchListener.java
+ * @version 3.08 2015-08-06
+ */
+package org.mars_sim.msp.core;
+
+import java.util.List;
+
+/**
+ * A listener for batches of coalesced unit events from a {@link UnitEventBus}.
+ */
+public interface UnitBatchListener {
+
+	/**
+	 * Catch a batch of unit update events.
+	 * @param events the unit events, at most one for each unit and event type.
+	 */
+	public void unitUpdates(List<UnitEvent> events);
+}
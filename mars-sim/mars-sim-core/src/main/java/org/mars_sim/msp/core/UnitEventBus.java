@@ -0,0 +1,263 @@
+/**
+ * Mars Simulation Project
+ * UnitEventBus.java
+ * @version 3.08 2015-08-06
+ */
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The UnitEventBus sits between the units and a listener that can't keep up with every
+ * unit event, such as a table model that has to repaint on the event dispatch thread.
+ * Events posted within a frame are coalesced so only the last event for each unit and
+ * event type is kept, and the frame's events are delivered to the listener as one batch
+ * through the delivery executor. A new frame only starts once the previous batch has
+ * been delivered, so the listener receives at most one batch per frame at the refresh rate.
+ */
+public class UnitEventBus
+implements UnitListener {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(UnitEventBus.class.getName());
+
+	/** The default refresh rate (frames per second). */
+	public static final double DEFAULT_REFRESH_RATE = 10D;
+
+	private static final double NANOSECONDS_PER_SECOND = 1000000000D;
+
+	/** The timer starting the frames of all buses. */
+	private static final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "unit-event-bus");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/** The refresh rate of new buses (frames per second). */
+	private static volatile double defaultRefreshRate = DEFAULT_REFRESH_RATE;
+
+	// Data members
+	/** The listener receiving the batches. */
+	private final UnitBatchListener listener;
+	/** The executor delivering the batches to the listener. */
+	private final Executor executor;
+	/** The events of the current frame, in the order they were first posted. */
+	private final Map<EventKey, UnitEvent> pending;
+	/** The refresh rate (frames per second). */
+	private volatile double refreshRate;
+	/** True if the end of the current frame is scheduled. */
+	private boolean flushScheduled;
+	/** True while a batch is waiting on or being delivered by the executor. */
+	private boolean delivering;
+	/** True once the bus has been destroyed. */
+	private boolean destroyed;
+
+	/**
+	 * Constructor with the default refresh rate.
+	 * @param listener the listener receiving the batches.
+	 * @param executor the executor delivering the batches, such as the event dispatch thread.
+	 */
+	public UnitEventBus(UnitBatchListener listener, Executor executor) {
+		this(listener, executor, defaultRefreshRate);
+	}
+
+	/**
+	 * Constructor.
+	 * @param listener the listener receiving the batches.
+	 * @param executor the executor delivering the batches, such as the event dispatch thread.
+	 * @param refreshRate the refresh rate (frames per second).
+	 */
+	public UnitEventBus(UnitBatchListener listener, Executor executor, double refreshRate) {
+		if (listener == null) throw new IllegalArgumentException("listener is null");
+		if (executor == null) throw new IllegalArgumentException("executor is null");
+		this.listener = listener;
+		this.executor = executor;
+		setRefreshRate(refreshRate);
+		pending = new LinkedHashMap<EventKey, UnitEvent>();
+	}
+
+	/**
+	 * Gets the refresh rate of new buses.
+	 * @return refresh rate (frames per second).
+	 */
+	public static double getDefaultRefreshRate() {
+		return defaultRefreshRate;
+	}
+
+	/**
+	 * Sets the refresh rate of new buses.
+	 * @param refreshRate the refresh rate (frames per second).
+	 */
+	public static void setDefaultRefreshRate(double refreshRate) {
+		checkRefreshRate(refreshRate);
+		defaultRefreshRate = refreshRate;
+	}
+
+	/**
+	 * Gets the refresh rate.
+	 * @return refresh rate (frames per second).
+	 */
+	public double getRefreshRate() {
+		return refreshRate;
+	}
+
+	/**
+	 * Sets the refresh rate. Takes effect from the next frame.
+	 * @param refreshRate the refresh rate (frames per second).
+	 */
+	public void setRefreshRate(double refreshRate) {
+		checkRefreshRate(refreshRate);
+		this.refreshRate = refreshRate;
+	}
+
+	private static void checkRefreshRate(double refreshRate) {
+		if (!(refreshRate > 0D) || Double.isInfinite(refreshRate))
+			throw new IllegalArgumentException("refresh rate must be positive: " + refreshRate);
+	}
+
+	/**
+	 * Catch unit update event.
+	 * @param event the unit event.
+	 */
+	@Override
+	public void unitUpdate(UnitEvent event) {
+		post(event);
+	}
+
+	/**
+	 * Posts a unit event to the current frame, replacing any event of the same type
+	 * from the same unit.
+	 * @param event the unit event.
+	 */
+	public synchronized void post(UnitEvent event) {
+		if (destroyed) return;
+		pending.put(new EventKey(event), event);
+		scheduleFlush();
+	}
+
+	/**
+	 * Gets the number of events waiting for the end of the frame.
+	 * @return number of events.
+	 */
+	public synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Takes the events of the current frame.
+	 * @return the coalesced events, in the order they were first posted.
+	 */
+	synchronized List<UnitEvent> drain() {
+		List<UnitEvent> result = new ArrayList<UnitEvent>(pending.values());
+		pending.clear();
+		return result;
+	}
+
+	/**
+	 * Schedules the end of the current frame if there are events and no frame or
+	 * delivery is already under way. Must be called holding the bus lock.
+	 */
+	private void scheduleFlush() {
+		if (!flushScheduled && !delivering && !destroyed && !pending.isEmpty()) {
+			flushScheduled = true;
+			long period = Math.round(NANOSECONDS_PER_SECOND / refreshRate);
+			scheduler.schedule(new Runnable() {
+				@Override
+				public void run() {
+					flush();
+				}
+			}, period, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Ends the current frame, handing its events to the executor as one batch.
+	 */
+	void flush() {
+		final List<UnitEvent> batch;
+		synchronized (this) {
+			flushScheduled = false;
+			if (destroyed || delivering || pending.isEmpty()) return;
+			batch = drain();
+			delivering = true;
+		}
+
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						listener.unitUpdates(batch);
+					}
+					catch (RuntimeException e) {
+						logger.log(Level.SEVERE, "Error delivering unit events", e);
+					}
+					finally {
+						delivered();
+					}
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			logger.log(Level.SEVERE, "Error delivering unit events", e);
+			delivered();
+		}
+	}
+
+	/**
+	 * Starts the next frame once a batch has been delivered.
+	 */
+	private synchronized void delivered() {
+		delivering = false;
+		scheduleFlush();
+	}
+
+	/**
+	 * Prepares the bus for deletion. Pending events are dropped.
+	 */
+	public synchronized void destroy() {
+		destroyed = true;
+		pending.clear();
+	}
+
+	/**
+	 * The key events are coalesced on: the source unit and the event type.
+	 */
+	private static final class EventKey {
+
+		private final Object source;
+		private final UnitEventType type;
+
+		private EventKey(UnitEvent event) {
+			source = event.getSource();
+			type = event.getType();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof EventKey)) return false;
+			EventKey key = (EventKey) o;
+			return (source == key.source) && (type == key.type);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = System.identityHashCode(source);
+			return (31 * result) + ((type != null) ? type.hashCode() : 0);
+		}
+	}
+}
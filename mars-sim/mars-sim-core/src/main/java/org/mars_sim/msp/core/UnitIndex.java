@@ -0,0 +1,73 @@
+/**
+ * Mars Simulation Project
+ * UnitIndex.java
+ * @version 3.08 2015-07-25
+ */
+
+package org.mars_sim.msp.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An incrementally maintained index of units of one type.
+ * Reads go through a read-only view of a copy-on-write list, so iterating
+ * needs no lock and getting the view or its size allocates nothing.
+ * Units are kept in the order they were added.
+ */
+public class UnitIndex<T extends Unit> {
+
+	// Data members
+	private CopyOnWriteArrayList<T> units;
+	private Collection<T> view;
+
+	/**
+	 * Constructor.
+	 */
+	public UnitIndex() {
+		units = new CopyOnWriteArrayList<T>();
+		view = Collections.unmodifiableCollection(units);
+	}
+
+	/**
+	 * Adds a unit if it isn't already in the index.
+	 * @param unit the unit to add.
+	 * @return true if added.
+	 */
+	public boolean add(T unit) {
+		return units.addIfAbsent(unit);
+	}
+
+	/**
+	 * Removes a unit from the index.
+	 * @param unit the unit to remove.
+	 * @return true if removed.
+	 */
+	public boolean remove(Unit unit) {
+		return units.remove(unit);
+	}
+
+	/**
+	 * Gets a read-only view of the indexed units.
+	 * @return collection of units.
+	 */
+	public Collection<T> getView() {
+		return view;
+	}
+
+	/**
+	 * Gets the number of indexed units.
+	 * @return number of units.
+	 */
+	public int size() {
+		return units.size();
+	}
+
+	/**
+	 * Removes all units from the index.
+	 */
+	public void clear() {
+		units.clear();
+	}
+}
@@ -6,6 +6,8 @@
  */
 package org.mars_sim.msp.core;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -14,7 +16,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -94,6 +98,20 @@ public class UnitManager implements Serializable {
 
 	private Settlement firstSettlement;
 
+	/** The engine passing time to units. */
+	private transient UnitUpdateEngine updateEngine;
+
+	// Unit indexes, rebuilt from the unit collection when loaded.
+	private transient UnitIndex<Settlement> settlementIndex;
+	private transient UnitIndex<Person> personIndex;
+	private transient UnitIndex<Robot> robotIndex;
+	private transient UnitIndex<Vehicle> vehicleIndex;
+	private transient UnitIndex<Equipment> equipmentIndex;
+	/** People indexed by their associated settlement. */
+	private transient ConcurrentMap<Settlement, UnitIndex<Person>> associatedPersonIndex;
+	/** Robots indexed by their associated settlement. */
+	private transient ConcurrentMap<Settlement, UnitIndex<Robot>> associatedRobotIndex;
+
 	/**
 	 * Constructor.
 	 */
@@ -105,10 +123,45 @@ public class UnitManager implements Serializable {
 		listeners = Collections.synchronizedList(new ArrayList<UnitManagerListener>());
 		equipmentNumberMap = new HashMap<String, Integer>();
 		vehicleNumberMap = new HashMap<String, Integer>();
+		initializeIndexes();
 
 		masterClock = Simulation.instance().getMasterClock();
 	}
 
+	/**
+	 * Creates the empty unit indexes.
+	 */
+	private void initializeIndexes() {
+		settlementIndex = new UnitIndex<Settlement>();
+		personIndex = new UnitIndex<Person>();
+		robotIndex = new UnitIndex<Robot>();
+		vehicleIndex = new UnitIndex<Vehicle>();
+		equipmentIndex = new UnitIndex<Equipment>();
+		associatedPersonIndex = new ConcurrentHashMap<Settlement, UnitIndex<Person>>();
+		associatedRobotIndex = new ConcurrentHashMap<Settlement, UnitIndex<Robot>>();
+
+		// Local area obstacles are indexed from these units.
+		LocalAreaUtil.clearObstacleCache();
+	}
+
+	/**
+	 * Implementing readObject method for serialization.
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		in.defaultReadObject();
+
+		// Rebuild the unit indexes.
+		initializeIndexes();
+		Iterator<Unit> i = units.iterator();
+		while (i.hasNext()) {
+			indexUnit(i.next());
+		}
+	}
+
 	/**
 	 * Constructs initial units.
 	 *
@@ -218,6 +271,7 @@ public class UnitManager implements Serializable {
 	public void addUnit(Unit unit) {
 		if (!units.contains(unit)) {
 			units.add(unit);
+			indexUnit(unit);
 			Iterator<Unit> i = unit.getInventory().getContainedUnits().iterator();
 			while (i.hasNext()) {
 				addUnit(i.next());
@@ -237,12 +291,150 @@ public class UnitManager implements Serializable {
 	public void removeUnit(Unit unit) {
 		if (units.contains(unit)) {
 			units.remove(unit);
+			unindexUnit(unit);
 
 			// Fire unit manager event.
 			fireUnitManagerUpdate(UnitManagerEventType.REMOVE_UNIT, unit);
 		}
 	}
 
+	/**
+	 * Adds a unit to the indexes for its type.
+	 *
+	 * @param unit
+	 *            the unit to index.
+	 */
+	private void indexUnit(Unit unit) {
+		if (unit instanceof Settlement) {
+			settlementIndex.add((Settlement) unit);
+			LocalAreaUtil.clearObstacleCache(unit.getCoordinates());
+		} else if (unit instanceof Person) {
+			Person person = (Person) unit;
+			personIndex.add(person);
+			if (person.getAssociatedSettlement() != null) {
+				getAssociatedIndex(associatedPersonIndex, person.getAssociatedSettlement()).add(person);
+			}
+		} else if (unit instanceof Robot) {
+			Robot robot = (Robot) unit;
+			robotIndex.add(robot);
+			if (robot.getAssociatedSettlement() != null) {
+				getAssociatedIndex(associatedRobotIndex, robot.getAssociatedSettlement()).add(robot);
+			}
+		} else if (unit instanceof Vehicle) {
+			if (!((Vehicle) unit).isSalvaged()) {
+				vehicleIndex.add((Vehicle) unit);
+			}
+			LocalAreaUtil.clearObstacleCache(unit.getCoordinates());
+		} else if (unit instanceof Equipment) {
+			if (!((Equipment) unit).isSalvaged()) {
+				equipmentIndex.add((Equipment) unit);
+			}
+		}
+	}
+
+	/**
+	 * Removes a unit from all indexes.
+	 *
+	 * @param unit
+	 *            the unit to remove.
+	 */
+	private void unindexUnit(Unit unit) {
+		if (unit instanceof Settlement) {
+			settlementIndex.remove(unit);
+			associatedPersonIndex.remove(unit);
+			associatedRobotIndex.remove(unit);
+			LocalAreaUtil.clearObstacleCache(unit.getCoordinates());
+		} else if (unit instanceof Person) {
+			personIndex.remove(unit);
+			Settlement settlement = ((Person) unit).getAssociatedSettlement();
+			if (settlement != null) {
+				getAssociatedIndex(associatedPersonIndex, settlement).remove(unit);
+			}
+		} else if (unit instanceof Robot) {
+			robotIndex.remove(unit);
+			Settlement settlement = ((Robot) unit).getAssociatedSettlement();
+			if (settlement != null) {
+				getAssociatedIndex(associatedRobotIndex, settlement).remove(unit);
+			}
+		} else if (unit instanceof Vehicle) {
+			vehicleIndex.remove(unit);
+			LocalAreaUtil.clearObstacleCache(unit.getCoordinates());
+		} else if (unit instanceof Equipment) {
+			equipmentIndex.remove(unit);
+		}
+	}
+
+	/**
+	 * Gets the index of units associated with a settlement, creating it if needed.
+	 *
+	 * @param indexes
+	 *            map of settlements to their indexes.
+	 * @param settlement
+	 *            the settlement.
+	 * @return unit index.
+	 */
+	private static <T extends Unit> UnitIndex<T> getAssociatedIndex(ConcurrentMap<Settlement, UnitIndex<T>> indexes,
+			Settlement settlement) {
+		UnitIndex<T> result = indexes.get(settlement);
+		if (result == null) {
+			UnitIndex<T> newIndex = new UnitIndex<T>();
+			result = indexes.putIfAbsent(settlement, newIndex);
+			if (result == null) {
+				result = newIndex;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Updates the indexes when a unit is salvaged. Salvaged vehicles and
+	 * equipment are no longer returned by {@link #getVehicles()} and
+	 * {@link #getEquipment()}.
+	 *
+	 * @param unit
+	 *            the salvaged unit.
+	 */
+	public void updateSalvagedUnit(Unit unit) {
+		if (unit instanceof Vehicle) {
+			vehicleIndex.remove(unit);
+			LocalAreaUtil.clearObstacleCache(unit.getCoordinates());
+		} else if (unit instanceof Equipment) {
+			equipmentIndex.remove(unit);
+		}
+	}
+
+	/**
+	 * Updates the indexes when a person or robot changes its associated
+	 * settlement.
+	 *
+	 * @param unit
+	 *            the person or robot.
+	 * @param oldSettlement
+	 *            the previous associated settlement or null if none.
+	 * @param newSettlement
+	 *            the new associated settlement or null if none.
+	 */
+	public void updateAssociatedSettlement(Unit unit, Settlement oldSettlement, Settlement newSettlement) {
+		if (!units.contains(unit)) {
+			return;
+		}
+		if (unit instanceof Person) {
+			if (oldSettlement != null) {
+				getAssociatedIndex(associatedPersonIndex, oldSettlement).remove(unit);
+			}
+			if (newSettlement != null) {
+				getAssociatedIndex(associatedPersonIndex, newSettlement).add((Person) unit);
+			}
+		} else if (unit instanceof Robot) {
+			if (oldSettlement != null) {
+				getAssociatedIndex(associatedRobotIndex, oldSettlement).remove(unit);
+			}
+			if (newSettlement != null) {
+				getAssociatedIndex(associatedRobotIndex, newSettlement).add((Robot) unit);
+			}
+		}
+	}
+
 	/**
 	 * Gets a new name for a unit.
 	 *
@@ -1517,12 +1709,9 @@ public class UnitManager implements Serializable {
 	 * @throws Exception
 	 *             if error during time passing.
 	 */
-	void timePassing(double time) {
+	public void timePassing(double time) {
 
-		Iterator<Unit> i = units.iterator();
-		while (i.hasNext()) {
-			i.next().timePassing(time);
-		}
+		getUpdateEngine().timePassing(units, time);
 /*
 		if (masterClock == null)
 			masterClock = Simulation.instance().getMasterClock();
@@ -1539,28 +1728,39 @@ public class UnitManager implements Serializable {
 */
 	}
 
+	/**
+	 * Gets the engine passing time to units.
+	 *
+	 * @return unit update engine
+	 */
+	public UnitUpdateEngine getUpdateEngine() {
+		if (updateEngine == null) {
+			SimulationConfig config = SimulationConfig.instance();
+			updateEngine = new UnitUpdateEngine(config.getParallelUnitUpdate(), config.getUnitUpdateThreads());
+		}
+		return updateEngine;
+	}
+
 	/**
 	 * Get number of settlements
 	 *
 	 * @return the number of settlements
 	 */
 	public int getSettlementNum() {
-		return CollectionUtils.getSettlement(units).size();
+		return settlementIndex.size();
 	}
 
 	/**
 	 * Get settlements in virtual Mars
 	 *
-	 * @return Collection of settlements
+	 * @return read-only Collection of settlements
 	 */
 	public Collection<Settlement> getSettlements() {
-		return CollectionUtils.getSettlement(units);
+		return settlementIndex.getView();
 	}
 
 	public Settlement getASettlement() {
-		List<Settlement> list = new ArrayList<>();
-		list.addAll(getSettlements());
-		return list.get(0);
+		return settlementIndex.getView().iterator().next();
 	}
 
 	public Settlement getFirstSettlement() {
@@ -1573,16 +1773,16 @@ public class UnitManager implements Serializable {
 	 * @return the number of vehicles
 	 */
 	public int getVehicleNum() {
-		return CollectionUtils.getVehicle(units).size();
+		return vehicleIndex.size();
 	}
 
 	/**
 	 * Get vehicles in virtual Mars
 	 *
-	 * @return Collection of vehicles
+	 * @return read-only Collection of vehicles
 	 */
 	public Collection<Vehicle> getVehicles() {
-		return CollectionUtils.getVehicle(units);
+		return vehicleIndex.getView();
 	}
 
 	/**
@@ -1591,16 +1791,32 @@ public class UnitManager implements Serializable {
 	 * @return the number of people
 	 */
 	public int getPeopleNum() {
-		return CollectionUtils.getPerson(units).size();
+		return personIndex.size();
 	}
 
 	/**
 	 * Get people in virtual Mars
 	 *
-	 * @return Collection of people
+	 * @return read-only Collection of people
 	 */
 	public Collection<Person> getPeople() {
-		return CollectionUtils.getPerson(units);
+		return personIndex.getView();
+	}
+
+	/**
+	 * Get people associated with a settlement, even if they are out on
+	 * missions.
+	 *
+	 * @param settlement
+	 *            the associated settlement.
+	 * @return read-only Collection of people
+	 */
+	public Collection<Person> getPeople(Settlement settlement) {
+		UnitIndex<Person> index = associatedPersonIndex.get(settlement);
+		if (index == null) {
+			return Collections.emptyList();
+		}
+		return index.getView();
 	}
 
 	/**
@@ -1609,16 +1825,32 @@ public class UnitManager implements Serializable {
 	 * @return the number of Robots
 	 */
 	public int getRobotsNum() {
-		return CollectionUtils.getRobot(units).size();
+		return robotIndex.size();
 	}
 
 	/**
 	 * Get Robots in virtual Mars
 	 *
-	 * @return Collection of Robots
+	 * @return read-only Collection of Robots
 	 */
 	public Collection<Robot> getRobots() {
-		return CollectionUtils.getRobot(units);
+		return robotIndex.getView();
+	}
+
+	/**
+	 * Get Robots associated with a settlement, even if they are out on
+	 * missions.
+	 *
+	 * @param settlement
+	 *            the associated settlement.
+	 * @return read-only Collection of Robots
+	 */
+	public Collection<Robot> getRobots(Settlement settlement) {
+		UnitIndex<Robot> index = associatedRobotIndex.get(settlement);
+		if (index == null) {
+			return Collections.emptyList();
+		}
+		return index.getView();
 	}
 
 	/**
@@ -1627,16 +1859,16 @@ public class UnitManager implements Serializable {
 	 * @return number
 	 */
 	public int getEquipmentNum() {
-		return CollectionUtils.getEquipment(units).size();
+		return equipmentIndex.size();
 	}
 
 	/**
 	 * Get a collection of equipment.
 	 *
-	 * @return collection
+	 * @return read-only collection
 	 */
 	public Collection<Equipment> getEquipment() {
-		return CollectionUtils.getEquipment(units);
+		return equipmentIndex.getView();
 	}
 
 	/**
@@ -1736,6 +1968,14 @@ public class UnitManager implements Serializable {
 		units.clear();
 		units = null;
 
+		settlementIndex.clear();
+		personIndex.clear();
+		robotIndex.clear();
+		vehicleIndex.clear();
+		equipmentIndex.clear();
+		associatedPersonIndex.clear();
+		associatedRobotIndex.clear();
+
 		settlementNames.clear();
 		settlementNames = null;
 		vehicleNames.clear();
@@ -1750,5 +1990,9 @@ public class UnitManager implements Serializable {
 		equipmentNumberMap = null;
 		vehicleNumberMap.clear();
 		vehicleNumberMap = null;
+		if (updateEngine != null) {
+			updateEngine.destroy();
+			updateEngine = null;
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,302 @@
+/**
+ * Mars Simulation Project
+ * UnitUpdateEngine.java
+ * @version 3.08 2015-07-24
+ */
+
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.robot.Robot;
+import org.mars_sim.msp.core.structure.Settlement;
+
+/**
+ * The UnitUpdateEngine passes time to all units in a time pulse.
+ * Each pulse is split into {@link UnitUpdatePhase}s that are run one after the other.
+ * Within a phase, units are partitioned by the settlement (or free-standing unit such as
+ * a vehicle out on the surface) they are located at, and the partitions are run across a
+ * ForkJoin pool. In sequential mode, the same phases and partitions are run in order on the
+ * calling thread.
+ */
+public class UnitUpdateEngine {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(UnitUpdateEngine.class.getName());
+
+	private static final double NANOSECONDS_PER_MILLISECOND = 1000000D;
+
+	// Data members
+	/** True if partitions are updated in parallel. */
+	private volatile boolean parallel;
+	/** The number of worker threads, or 0 for one per available processor. */
+	private int threads;
+	/** The number of pulses run. */
+	private long pulses;
+	/** The pool running the partitions. */
+	private ForkJoinPool pool;
+
+	/** Wall time (ns) of each phase in the last pulse. */
+	private Map<UnitUpdatePhase, Long> lastPhaseTimes;
+	/** Total wall time (ns) of each phase over all pulses. */
+	private Map<UnitUpdatePhase, Long> totalPhaseTimes;
+
+	/**
+	 * Constructor.
+	 * @param parallel true if partitions should be updated in parallel.
+	 * @param threads the number of worker threads, or 0 for one per available processor.
+	 */
+	public UnitUpdateEngine(boolean parallel, int threads) {
+		if (threads < 0) throw new IllegalArgumentException("threads cannot be negative: " + threads);
+		this.parallel = parallel;
+		this.threads = threads;
+
+		lastPhaseTimes = new EnumMap<UnitUpdatePhase, Long>(UnitUpdatePhase.class);
+		totalPhaseTimes = new EnumMap<UnitUpdatePhase, Long>(UnitUpdatePhase.class);
+		for (UnitUpdatePhase phase : UnitUpdatePhase.values()) {
+			lastPhaseTimes.put(phase, 0L);
+			totalPhaseTimes.put(phase, 0L);
+		}
+	}
+
+	/**
+	 * Passes time to a collection of units, phase by phase.
+	 * @param units the units to update.
+	 * @param time the amount time passing (in millisols)
+	 */
+	public void timePassing(Collection<Unit> units, double time) {
+
+		Map<UnitUpdatePhase, Map<Unit, List<Unit>>> phases = partition(units);
+
+		for (UnitUpdatePhase phase : UnitUpdatePhase.values()) {
+			long startTime = System.nanoTime();
+
+			Collection<List<Unit>> partitions = phases.get(phase).values();
+			if (parallel && (partitions.size() > 1)) {
+				getPool().invoke(new PhaseTask(partitions, time));
+			}
+			else {
+				Iterator<List<Unit>> i = partitions.iterator();
+				while (i.hasNext()) {
+					runPartition(i.next(), time);
+				}
+			}
+
+			long phaseTime = System.nanoTime() - startTime;
+			lastPhaseTimes.put(phase, phaseTime);
+			totalPhaseTimes.put(phase, totalPhaseTimes.get(phase) + phaseTime);
+		}
+
+		pulses++;
+
+		if (logger.isLoggable(Level.FINEST)) {
+			StringBuilder message = new StringBuilder("Unit update pulse #").append(pulses)
+					.append(" phase times (ms):");
+			for (UnitUpdatePhase phase : UnitUpdatePhase.values()) {
+				message.append(' ').append(phase).append('=')
+						.append(String.format("%.3f", getLastPhaseTime(phase)));
+			}
+			logger.finest(message.toString());
+		}
+	}
+
+	/**
+	 * Sorts units into phases and each phase into partitions.
+	 * Iteration order follows the order of the unit collection so runs are repeatable.
+	 * @param units the units to sort.
+	 * @return map of phases to partitions keyed by their location.
+	 */
+	private Map<UnitUpdatePhase, Map<Unit, List<Unit>>> partition(Collection<Unit> units) {
+		Map<UnitUpdatePhase, Map<Unit, List<Unit>>> result =
+				new EnumMap<UnitUpdatePhase, Map<Unit, List<Unit>>>(UnitUpdatePhase.class);
+		for (UnitUpdatePhase phase : UnitUpdatePhase.values()) {
+			result.put(phase, new LinkedHashMap<Unit, List<Unit>>());
+		}
+
+		Iterator<Unit> i = units.iterator();
+		while (i.hasNext()) {
+			Unit unit = i.next();
+			Map<Unit, List<Unit>> partitions = result.get(UnitUpdatePhase.getPhase(unit));
+			Unit key = getPartitionKey(unit);
+			List<Unit> partition = partitions.get(key);
+			if (partition == null) {
+				partition = new ArrayList<Unit>();
+				partitions.put(key, partition);
+			}
+			partition.add(unit);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the unit a unit's partition is keyed by.
+	 * This is the topmost container of the unit (the settlement it is at or the vehicle
+	 * it is in), the associated settlement of a person or robot outside, or else the unit itself.
+	 * @param unit the unit.
+	 * @return partition key unit.
+	 */
+	static Unit getPartitionKey(Unit unit) {
+		Unit result = unit.getTopContainerUnit();
+		if (result == null) {
+			if (unit instanceof Person) result = ((Person) unit).getAssociatedSettlement();
+			else if (unit instanceof Robot) result = ((Robot) unit).getAssociatedSettlement();
+		}
+		if (result == null) result = unit;
+		return result;
+	}
+
+	/**
+	 * Passes time to each unit in a partition in order.
+	 * Each unit draws random numbers from its own stream while it is updated.
+	 * @param partition the units.
+	 * @param time the amount time passing (in millisols)
+	 */
+	private static void runPartition(List<Unit> partition, double time) {
+		for (int x = 0; x < partition.size(); x++) {
+			Unit unit = partition.get(x);
+			MersenneTwisterFast previous = RandomUtil.bindStream(unit);
+			try {
+				unit.timePassing(time);
+			}
+			finally {
+				RandomUtil.restoreStream(previous);
+			}
+		}
+	}
+
+	/**
+	 * Gets the worker pool, creating it if needed.
+	 * @return pool.
+	 */
+	private synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			int size = threads;
+			if (size == 0) size = Runtime.getRuntime().availableProcessors();
+			pool = new ForkJoinPool(size);
+		}
+		return pool;
+	}
+
+	/**
+	 * Checks if partitions are updated in parallel.
+	 * @return true if parallel, false if sequential.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets if partitions are updated in parallel or sequentially on the calling thread.
+	 * @param parallel true if parallel.
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Gets the number of pulses run.
+	 * @return number of pulses.
+	 */
+	public long getPulses() {
+		return pulses;
+	}
+
+	/**
+	 * Gets the wall time a phase took in the last pulse.
+	 * @param phase the update phase.
+	 * @return time (milliseconds).
+	 */
+	public double getLastPhaseTime(UnitUpdatePhase phase) {
+		return lastPhaseTimes.get(phase) / NANOSECONDS_PER_MILLISECOND;
+	}
+
+	/**
+	 * Gets the average wall time a phase has taken per pulse.
+	 * @param phase the update phase.
+	 * @return time (milliseconds).
+	 */
+	public double getAveragePhaseTime(UnitUpdatePhase phase) {
+		if (pulses == 0L) return 0D;
+		return totalPhaseTimes.get(phase) / NANOSECONDS_PER_MILLISECOND / pulses;
+	}
+
+	/**
+	 * Gets the total wall time a phase has taken over all pulses.
+	 * @param phase the update phase.
+	 * @return time (milliseconds).
+	 */
+	public double getTotalPhaseTime(UnitUpdatePhase phase) {
+		return totalPhaseTimes.get(phase) / NANOSECONDS_PER_MILLISECOND;
+	}
+
+	/**
+	 * Prepare object for garbage collection.
+	 */
+	public synchronized void destroy() {
+		if (pool != null) {
+			pool.shutdownNow();
+			pool = null;
+		}
+		lastPhaseTimes.clear();
+		totalPhaseTimes.clear();
+	}
+
+	/**
+	 * Runs the partitions of one phase across the pool.
+	 */
+	private static class PhaseTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private Collection<List<Unit>> partitions;
+		private double time;
+
+		private PhaseTask(Collection<List<Unit>> partitions, double time) {
+			this.partitions = partitions;
+			this.time = time;
+		}
+
+		@Override
+		protected void compute() {
+			List<PartitionTask> tasks = new ArrayList<PartitionTask>(partitions.size());
+			Iterator<List<Unit>> i = partitions.iterator();
+			while (i.hasNext()) {
+				tasks.add(new PartitionTask(i.next(), time));
+			}
+			invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * Runs the units of one partition in order.
+	 */
+	private static class PartitionTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private List<Unit> partition;
+		private double time;
+
+		private PartitionTask(List<Unit> partition, double time) {
+			this.partition = partition;
+			this.time = time;
+		}
+
+		@Override
+		protected void compute() {
+			runPartition(partition, time);
+		}
+	}
+}
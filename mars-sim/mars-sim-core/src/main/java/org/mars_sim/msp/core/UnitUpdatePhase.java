@@ -0,0 +1,51 @@
+/**
+ * Mars Simulation Project
+ * UnitUpdatePhase.java
+ * @version 3.08 2015-07-24
+ */
+
+package org.mars_sim.msp.core;
+
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.robot.Robot;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.vehicle.Vehicle;
+
+/**
+ * The phases a time pulse is split into when units are updated.
+ * Phases are run in declaration order, one after the other.
+ */
+public enum UnitUpdatePhase {
+
+	/** Settlements, including their buildings, power grid and thermal system. */
+	SETTLEMENT ("UnitUpdatePhase.settlement"), //$NON-NLS-1$
+	/** People and robots. */
+	AGENT ("UnitUpdatePhase.agent"), //$NON-NLS-1$
+	/** Vehicles. */
+	VEHICLE ("UnitUpdatePhase.vehicle"), //$NON-NLS-1$
+	/** Equipment and any other unit. */
+	EQUIPMENT ("UnitUpdatePhase.equipment"); //$NON-NLS-1$
+
+	private String msgKey;
+
+	/** hidden constructor. */
+	private UnitUpdatePhase(String msgKey) {
+		this.msgKey = msgKey;
+	}
+
+	public String getMsgKey() {
+		return this.msgKey;
+	}
+
+	/**
+	 * Gets the phase a unit is updated in.
+	 * @param unit the unit.
+	 * @return update phase.
+	 */
+	public static UnitUpdatePhase getPhase(Unit unit) {
+		if (unit instanceof Settlement) return SETTLEMENT;
+		else if ((unit instanceof Person) || (unit instanceof Robot)) return AGENT;
+		else if (unit instanceof Vehicle) return VEHICLE;
+		else return EQUIPMENT;
+	}
+}
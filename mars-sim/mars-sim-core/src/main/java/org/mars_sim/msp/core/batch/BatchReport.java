@@ -0,0 +1,194 @@
+/**
+ * Mars Simulation Project
+ * BatchReport.java
+ * @version 3.08 2015-07-31
+ */
+package org.mars_sim.msp.core.batch;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The throughput measured over a batch run of the simulation.
+ */
+public class BatchReport {
+
+    private static final double NANOSECONDS_PER_SECOND = 1000000000D;
+    private static final double NANOSECONDS_PER_MILLISECOND = 1000000D;
+    private static final double BYTES_PER_MEGABYTE = 1024D * 1024D;
+
+    // Data members
+    private long seed;
+    private int sols;
+    private long pulses;
+    private double simSeconds;
+    private long wallTime;
+    private long allocatedBytes;
+    private Map<String, Long> subsystemTimes = new LinkedHashMap<String, Long>();
+    private Map<String, Long> subsystemAllocations = new LinkedHashMap<String, Long>();
+    private Map<String, Double> unitPhaseTimes = new LinkedHashMap<String, Double>();
+
+    /**
+     * Constructor.
+     * @param seed the random seed of the run.
+     * @param sols the number of sols run.
+     */
+    BatchReport(long seed, int sols) {
+        this.seed = seed;
+        this.sols = sols;
+    }
+
+    /**
+     * Adds time and allocation to a subsystem.
+     * @param subsystem the subsystem name.
+     * @param time the wall time (ns).
+     * @param allocated the bytes allocated, or negative if not measured.
+     */
+    void addSubsystem(String subsystem, long time, long allocated) {
+        Long total = subsystemTimes.get(subsystem);
+        subsystemTimes.put(subsystem, (total == null) ? time : (total + time));
+        if (allocated >= 0L) {
+            Long totalAllocated = subsystemAllocations.get(subsystem);
+            subsystemAllocations.put(subsystem, (totalAllocated == null) ? allocated : (totalAllocated + allocated));
+        }
+    }
+
+    void setUnitPhaseTime(String phase, double time) {
+        unitPhaseTimes.put(phase, time);
+    }
+
+    void setPulses(long pulses) {
+        this.pulses = pulses;
+    }
+
+    void setSimSeconds(double simSeconds) {
+        this.simSeconds = simSeconds;
+    }
+
+    void setWallTime(long wallTime) {
+        this.wallTime = wallTime;
+    }
+
+    void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Gets the random seed the run used.
+     * @return seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the number of sols run.
+     * @return sols.
+     */
+    public int getSols() {
+        return sols;
+    }
+
+    /**
+     * Gets the number of time pulses run.
+     * @return pulses.
+     */
+    public long getPulses() {
+        return pulses;
+    }
+
+    /**
+     * Gets the simulated time passed.
+     * @return simulated time (sec).
+     */
+    public double getSimSeconds() {
+        return simSeconds;
+    }
+
+    /**
+     * Gets the wall clock time the run took.
+     * @return wall time (ms).
+     */
+    public double getWallTime() {
+        return wallTime / NANOSECONDS_PER_MILLISECOND;
+    }
+
+    /**
+     * Gets the simulated seconds run per wall clock second.
+     * @return throughput.
+     */
+    public double getSimSecondsPerWallSecond() {
+        return (wallTime > 0L) ? simSeconds / (wallTime / NANOSECONDS_PER_SECOND) : 0D;
+    }
+
+    /**
+     * Gets the bytes allocated by all threads during the run.
+     * @return bytes, or -1 if the JVM does not measure allocation.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Gets the allocation rate over the run.
+     * @return allocation rate (MB per wall second), or -1 if not measured.
+     */
+    public double getAllocationRate() {
+        if ((allocatedBytes < 0L) || (wallTime == 0L)) {
+            return -1D;
+        }
+        return allocatedBytes / BYTES_PER_MEGABYTE / (wallTime / NANOSECONDS_PER_SECOND);
+    }
+
+    /**
+     * Gets the wall time each subsystem took, in update order.
+     * @return map of subsystem names to times (ms).
+     */
+    public Map<String, Double> getSubsystemTimes() {
+        Map<String, Double> result = new LinkedHashMap<String, Double>();
+        for (Map.Entry<String, Long> entry : subsystemTimes.entrySet()) {
+            result.put(entry.getKey(), entry.getValue() / NANOSECONDS_PER_MILLISECOND);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Gets the bytes each subsystem allocated on the batch thread.
+     * @return map of subsystem names to bytes.
+     */
+    public Map<String, Long> getSubsystemAllocations() {
+        return Collections.unmodifiableMap(subsystemAllocations);
+    }
+
+    /**
+     * Gets the wall time each unit update phase took.
+     * @return map of phase names to times (ms).
+     */
+    public Map<String, Double> getUnitPhaseTimes() {
+        return Collections.unmodifiableMap(unitPhaseTimes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("Batch run: %d sols, %d pulses, seed %d%n", sols, pulses, seed));
+        result.append(String.format("  wall time             %12.1f ms%n", getWallTime()));
+        result.append(String.format("  sim-sec per wall-sec  %12.1f%n", getSimSecondsPerWallSecond()));
+        if (allocatedBytes >= 0L) {
+            result.append(String.format("  allocation rate       %12.1f MB/s%n", getAllocationRate()));
+        }
+        result.append(String.format("  %-24s %12s %8s %14s%n", "subsystem", "time (ms)", "share", "allocated (MB)"));
+        for (Map.Entry<String, Long> entry : subsystemTimes.entrySet()) {
+            Long allocated = subsystemAllocations.get(entry.getKey());
+            result.append(String.format("  %-24s %12.1f %7.1f%% %14s%n", entry.getKey(),
+                    entry.getValue() / NANOSECONDS_PER_MILLISECOND,
+                    (wallTime > 0L) ? (100D * entry.getValue() / wallTime) : 0D,
+                    (allocated == null) ? "-" : String.format("%.1f", allocated / BYTES_PER_MEGABYTE)));
+        }
+        for (Map.Entry<String, Double> entry : unitPhaseTimes.entrySet()) {
+            result.append(String.format("    units: %-15s %12.1f%n", entry.getKey(), entry.getValue()));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Mars Simulation Project
+ * BatchRunner.java
+ * @version 3.08 2015-07-31
+ */
+package org.mars_sim.msp.core.batch;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.logging.Logger;
+
+import org.mars_sim.msp.core.Msg;
+import org.mars_sim.msp.core.RandomUtil;
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.UnitUpdateEngine;
+import org.mars_sim.msp.core.UnitUpdatePhase;
+import org.mars_sim.msp.core.time.MarsClock;
+import org.mars_sim.msp.core.time.MasterClock;
+
+/**
+ * Runs the simulation headless for a number of sols as fast as the CPU allows.
+ * Unlike the master clock thread, the batch runner doesn't sleep between pulses or
+ * scale them by the time ratio; it passes fixed length time pulses to each simulation
+ * subsystem in turn and measures the time and allocation of each.
+ * Run with: java org.mars_sim.msp.core.batch.BatchRunner [sols] [seed] [pulse millisols]
+ */
+public class BatchRunner {
+
+    private static Logger logger = Logger.getLogger(BatchRunner.class.getName());
+
+    /** The default time pulse (millisols). */
+    public static final double DEFAULT_TIME_PULSE = 1D;
+
+    /** The default random seed. */
+    public static final long DEFAULT_SEED = 2015L;
+
+    private static final double MILLISOLS_PER_SOL = 1000D;
+
+    private static final String MARS = "mars";
+    private static final String MISSIONS = "missions";
+    private static final String UNITS = "units";
+    private static final String SCIENCE = "scientific studies";
+    private static final String TRANSPORT = "transport";
+
+    // Data members
+    private long seed;
+    private double timePulse;
+    private ThreadMXBean threadBean;
+    private boolean measureAllocation;
+
+    /**
+     * Constructor with the default seed and time pulse.
+     */
+    public BatchRunner() {
+        this(DEFAULT_SEED, DEFAULT_TIME_PULSE);
+    }
+
+    /**
+     * Constructor.
+     * @param seed the random seed.
+     * @param timePulse the length of each time pulse (millisols).
+     */
+    public BatchRunner(long seed, double timePulse) {
+        if (timePulse <= 0D) {
+            throw new IllegalArgumentException("timePulse must be positive: " + timePulse);
+        }
+        this.seed = seed;
+        this.timePulse = timePulse;
+
+        threadBean = ManagementFactory.getThreadMXBean();
+        measureAllocation = (threadBean instanceof com.sun.management.ThreadMXBean)
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported();
+        if (measureAllocation) {
+            ((com.sun.management.ThreadMXBean) threadBean).setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Creates a new headless simulation seeded with the runner's random seed.
+     * The simulation clock is not started.
+     * @throws Exception if the simulation configuration could not be loaded.
+     */
+    public void createSimulation() throws Exception {
+        RandomUtil.setSeed(seed);
+        Simulation.setUseGUI(false);
+        SimulationConfig.loadConfig();
+        Simulation.createNewSimulation();
+    }
+
+    /**
+     * Runs the current simulation for a number of sols.
+     * The simulation clock must not be running.
+     * @param sols the number of sols.
+     * @return report of the run.
+     */
+    public BatchReport run(int sols) {
+        if (sols < 1) {
+            throw new IllegalArgumentException("sols must be at least 1: " + sols);
+        }
+
+        Simulation simulation = Simulation.instance();
+        MasterClock masterClock = simulation.getMasterClock();
+        if (masterClock == null) {
+            throw new IllegalStateException("No simulation has been created.");
+        }
+        MarsClock marsClock = masterClock.getMarsClock();
+        UnitUpdateEngine updateEngine = simulation.getUnitManager().getUpdateEngine();
+
+        RandomUtil.setSeed(seed);
+
+        BatchReport report = new BatchReport(seed, sols);
+        double[] startPhaseTimes = new double[UnitUpdatePhase.values().length];
+        for (UnitUpdatePhase phase : UnitUpdatePhase.values()) {
+            startPhaseTimes[phase.ordinal()] = updateEngine.getTotalPhaseTime(phase);
+        }
+
+        long pulses = (long) Math.ceil(sols * MILLISOLS_PER_SOL / timePulse);
+        double pulseSeconds = MarsClock.convertMillisolsToSeconds(timePulse);
+        long startAllocated = getTotalAllocatedBytes();
+        long startTime = System.nanoTime();
+
+        for (long x = 0; x < pulses; x++) {
+            masterClock.getEarthClock().addTime(pulseSeconds);
+            marsClock.addTime(timePulse);
+
+            long time = System.nanoTime();
+            long allocated = getThreadAllocatedBytes();
+            simulation.getMars().timePassing(timePulse);
+            time = measure(report, MARS, time, allocated);
+            allocated = getThreadAllocatedBytes();
+
+            simulation.getMissionManager().timePassing(timePulse);
+            time = measure(report, MISSIONS, time, allocated);
+            allocated = getThreadAllocatedBytes();
+
+            simulation.getUnitManager().timePassing(timePulse);
+            time = measure(report, UNITS, time, allocated);
+            allocated = getThreadAllocatedBytes();
+
+            simulation.getScientificStudyManager().updateStudies();
+            time = measure(report, SCIENCE, time, allocated);
+            allocated = getThreadAllocatedBytes();
+
+            simulation.getTransportManager().timePassing(timePulse);
+            measure(report, TRANSPORT, time, allocated);
+        }
+
+        long wallTime = System.nanoTime() - startTime;
+        report.setPulses(pulses);
+        report.setSimSeconds(pulses * pulseSeconds);
+        report.setWallTime(wallTime);
+        report.setAllocatedBytes(measureAllocation ? (getTotalAllocatedBytes() - startAllocated) : -1L);
+        for (UnitUpdatePhase phase : UnitUpdatePhase.values()) {
+            report.setUnitPhaseTime(Msg.getString(phase.getMsgKey()),
+                    updateEngine.getTotalPhaseTime(phase) - startPhaseTimes[phase.ordinal()]);
+        }
+
+        logger.info("Batch run of " + sols + " sols at " + Math.round(report.getSimSecondsPerWallSecond())
+                + " sim-sec per wall-sec");
+        return report;
+    }
+
+    /**
+     * Adds the time and allocation since a start point to a subsystem.
+     * @return the current time (ns).
+     */
+    private long measure(BatchReport report, String subsystem, long startTime, long startAllocated) {
+        long time = System.nanoTime();
+        long allocated = measureAllocation ? (getThreadAllocatedBytes() - startAllocated) : -1L;
+        report.addSubsystem(subsystem, time - startTime, allocated);
+        return time;
+    }
+
+    /**
+     * Gets the bytes allocated by the current thread.
+     */
+    private long getThreadAllocatedBytes() {
+        if (!measureAllocation) {
+            return 0L;
+        }
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+    }
+
+    /**
+     * Gets the bytes allocated by all live threads, including unit update workers.
+     */
+    private long getTotalAllocatedBytes() {
+        if (!measureAllocation) {
+            return 0L;
+        }
+        long total = 0L;
+        long[] allocated = ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(
+                threadBean.getAllThreadIds());
+        for (long bytes : allocated) {
+            if (bytes > 0L) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the random seed.
+     * @return seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the time pulse length.
+     * @return time pulse (millisols).
+     */
+    public double getTimePulse() {
+        return timePulse;
+    }
+
+    /**
+     * Creates a simulation and runs it headless, printing the report.
+     * @param args optional number of sols, random seed and time pulse (millisols).
+     */
+    public static void main(String[] args) throws Exception {
+        int sols = (args.length > 0) ? Integer.parseInt(args[0]) : 1;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        double timePulse = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_TIME_PULSE;
+
+        BatchRunner runner = new BatchRunner(seed, timePulse);
+        runner.createSimulation();
+        System.out.print(runner.run(sols));
+        System.exit(0);
+    }
+}
@@ -11,6 +11,7 @@ import java.io.Serializable;
 
 import org.mars_sim.msp.core.Coordinates;
 import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.UnitManager;
 import org.mars_sim.msp.core.malfunction.MalfunctionManager;
 import org.mars_sim.msp.core.malfunction.Malfunctionable;
 import org.mars_sim.msp.core.manufacture.Salvagable;
@@ -82,6 +83,8 @@ implements Serializable, Malfunctionable, Salvagable {
 	public void startSalvage(SalvageProcessInfo info, Settlement settlement) {
 		salvageInfo = new SalvageInfo(this, info, settlement);
 		isSalvaged = true;
+		UnitManager unitManager = getUnitManager();
+		if (unitManager != null) unitManager.updateSalvagedUnit(this);
 	}
 
 	/**
@@ -209,14 +209,9 @@ implements LifeSupportType, Serializable, Malfunctionable {
 	public double getTemperature() {
 		double result = NORMAL_TEMP
 				* (malfunctionManager.getTemperatureModifier() / 100D);
-		double ambient = 0;
-		if (weather == null) {
+		if (weather == null)
 			weather = Simulation.instance().getMars().getWeather();
-			// For the first time calling, use calculateTemperature()
-			ambient = weather.calculateTemperature(getCoordinates());
-		}
-		else
-			ambient = weather.getTemperature(getCoordinates());
+		double ambient = weather.getTemperature(getCoordinates());
 
 		// the temperature of the suit will not be lower than the ambient temperature
 		if (result < ambient) {
@@ -10,6 +10,7 @@ package org.mars_sim.msp.core.equipment;
 import org.mars_sim.msp.core.Coordinates;
 import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.UnitManager;
 import org.mars_sim.msp.core.manufacture.Salvagable;
 import org.mars_sim.msp.core.manufacture.SalvageInfo;
 import org.mars_sim.msp.core.manufacture.SalvageProcessInfo;
@@ -104,6 +105,8 @@ implements Salvagable {
 	public void startSalvage(SalvageProcessInfo info, Settlement settlement) {
 		salvageInfo = new SalvageInfo(this, info, settlement);
 		isSalvaged = true;
+		UnitManager unitManager = getUnitManager();
+		if (unitManager != null) unitManager.updateSalvagedUnit(this);
 	}
 
 	/**
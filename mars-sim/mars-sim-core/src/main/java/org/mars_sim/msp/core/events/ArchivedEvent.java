@@ -0,0 +1,28 @@
+/**
+ * Mars Simulation Project
+ * ArchivedEvent.java
+ * @version 3.08 2015-08-08
+ */
+package org.mars_sim.msp.core.events;
+
+import org.mars_sim.msp.core.person.EventType;
+
+/**
+ * A historical event read back from a {@link HistoricalEventArchive}.
+ * The source of an archived event is the name of the original source, and its
+ * sequence number is its position in the archive.
+ */
+public class ArchivedEvent
+extends HistoricalEvent {
+
+	/**
+	 * Constructor.
+	 * @param category {@link HistoricalEventCategory} Category of event.
+	 * @param type {@link EventType} Type of event.
+	 * @param source The name of the source of the event.
+	 * @param description Long description of event.
+	 */
+	ArchivedEvent(HistoricalEventCategory category, EventType type, String source, String description) {
+		super(category, type, source, description);
+	}
+}
@@ -29,8 +29,10 @@ public abstract class HistoricalEvent {
 	private EventType type;
 	/** TODO Long description of historical events should be internationalizable. */
 	private String description;
-	/** Time event occurred. */
-	private MarsClock timestamp;
+	/** Time event occurred (total millisols), or NaN if not registered with a running clock. */
+	private double timestamp = Double.NaN;
+	/** The number of the event in the order registered, or -1 if not registered. */
+	private long sequence = -1L;
 	/** Source of event may be null. */
 	private Object source;
 
@@ -54,12 +56,21 @@ public abstract class HistoricalEvent {
 
 	/**
 	 * Set the timestamp for this event.
+	 * @param timestamp the time (total millisols).
 	 * @see org.mars_sim.msp.core.events.HistoricalEventManager#registerNewEvent(HistoricalEvent)
 	 */
-	void setTimestamp(MarsClock timestamp) {
+	void setTimestamp(double timestamp) {
 		this.timestamp = timestamp;
 	}
 
+	/**
+	 * Set the sequence number of this event.
+	 * @see org.mars_sim.msp.core.events.HistoricalEventManager#registerNewEvent(HistoricalEvent)
+	 */
+	void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+
 	/**
 	 * Get description.
 	 * @return Description
@@ -78,12 +89,29 @@ public abstract class HistoricalEvent {
 
 	/**
 	 * Get event time.
-	 * @return Time the event happened
+	 * @return Time the event happened, or null if not known.
 	 */
 	public MarsClock getTimestamp() {
+		if (Double.isNaN(timestamp)) return null;
+		return MarsClock.getMarsClock(timestamp);
+	}
+
+	/**
+	 * Get event time as a number.
+	 * @return Time the event happened (total millisols), or NaN if not known.
+	 */
+	public double getTotalMillisols() {
 		return timestamp;
 	}
 
+	/**
+	 * Gets the number of the event in the order registered with the event manager.
+	 * @return sequence number, or -1 if not registered.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
 	/**
 	 * Get the type of event.
 	 * @return String representing the type.
@@ -0,0 +1,377 @@
+/**
+ * Mars Simulation Project
+ * HistoricalEventArchive.java
+ * @version 3.08 2015-08-08
+ */
+package org.mars_sim.msp.core.events;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.person.EventType;
+
+/**
+ * An append-only archive of historical events on disk, so the history of a run
+ * isn't lost once events drop out of the event manager's buffer.
+ * Events are appended to memory-mapped segment files in a directory. When a segment
+ * is full a new one is started. Archived events are read back as {@link ArchivedEvent}s,
+ * with the name of their source rather than the source itself.<br/>
+ * <br/>
+ * Each record is the record length, the timestamp, the category and type ordinals, then
+ * the source name and description as UTF-8 strings.
+ */
+public class HistoricalEventArchive {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(HistoricalEventArchive.class.getName());
+
+	/** The default segment file size (bytes). */
+	public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+	private static final String SEGMENT_PREFIX = "events-";
+	private static final String SEGMENT_SUFFIX = ".seg";
+	private static final int MAGIC = 0x4D455641;
+	private static final int VERSION = 1;
+	/** The segment header: magic number and version. */
+	private static final int HEADER_SIZE = 8;
+	/** The fixed part of a record after the length: timestamp, category and type. */
+	private static final int RECORD_FIXED_SIZE = 8 + 1 + 2;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// Data members
+	/** The directory holding the segment files. */
+	private File directory;
+	/** The size of a segment file (bytes). */
+	private int segmentSize;
+	/** The segments, oldest first. */
+	private List<Segment> segments;
+	/** The number of archived events. */
+	private long size;
+	/** True once closed. */
+	private boolean closed;
+
+	/**
+	 * Opens an archive with the default segment size, loading any segments already in the directory.
+	 * @param directory the directory holding the segment files.
+	 * @throws IOException if the archive cannot be opened.
+	 */
+	public HistoricalEventArchive(File directory) throws IOException {
+		this(directory, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Opens an archive, loading any segments already in the directory.
+	 * @param directory the directory holding the segment files.
+	 * @param segmentSize the size of new segment files (bytes).
+	 * @throws IOException if the archive cannot be opened.
+	 */
+	public HistoricalEventArchive(File directory, int segmentSize) throws IOException {
+		if (segmentSize < 1024) throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Cannot create event archive directory " + directory);
+
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		segments = new ArrayList<Segment>();
+
+		File[] files = listSegments(directory);
+		Arrays.sort(files);
+		for (File file : files) {
+			Segment segment = Segment.open(file, size);
+			segments.add(segment);
+			size += segment.count;
+		}
+		if (size > 0L) logger.info("Loaded " + size + " archived events from " + directory);
+	}
+
+	/**
+	 * Deletes the segment files of an archive, which must not be open.
+	 * @param directory the directory holding the segment files.
+	 * @throws IOException if a segment file cannot be deleted.
+	 */
+	public static void delete(File directory) throws IOException {
+		File[] files = listSegments(directory);
+		if (files == null) return;
+		for (File file : files) {
+			if (!file.delete()) throw new IOException("Cannot delete event archive segment " + file);
+		}
+	}
+
+	private static File[] listSegments(File directory) {
+		return directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+			}
+		});
+	}
+
+	/**
+	 * Gets the directory holding the segment files.
+	 * @return directory.
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Gets the number of archived events.
+	 * @return number of events.
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of segment files.
+	 * @return number of segments.
+	 */
+	public synchronized int getSegmentNum() {
+		return segments.size();
+	}
+
+	/**
+	 * Appends an event to the archive.
+	 * @param event the event.
+	 * @throws IOException if the event cannot be written.
+	 */
+	public synchronized void append(HistoricalEvent event) throws IOException {
+		if (closed) throw new IOException("Event archive is closed");
+
+		byte[] source = getSourceName(event.getSource()).getBytes(UTF8);
+		byte[] description = ((event.getDescription() != null) ? event.getDescription() : "").getBytes(UTF8);
+		int length = RECORD_FIXED_SIZE + 4 + source.length + 4 + description.length;
+		if ((HEADER_SIZE + 4 + length) > segmentSize)
+			throw new IOException("Event too large for segment: " + length + " bytes");
+
+		Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+		if ((segment == null) || (segment.buffer.remaining() < (4 + length))) {
+			segment = Segment.create(new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX,
+					segments.size(), SEGMENT_SUFFIX)), segmentSize, size);
+			segments.add(segment);
+		}
+
+		ByteBuffer buffer = segment.buffer;
+		int offset = buffer.position();
+		try {
+			buffer.putInt(length);
+			buffer.putDouble(event.getTotalMillisols());
+			buffer.put((byte) ((event.getCategory() != null) ? event.getCategory().ordinal() : -1));
+			buffer.putShort((short) ((event.getType() != null) ? event.getType().ordinal() : -1));
+			buffer.putInt(source.length);
+			buffer.put(source);
+			buffer.putInt(description.length);
+			buffer.put(description);
+		}
+		catch (BufferOverflowException e) {
+			throw new IOException("Event archive segment overflow", e);
+		}
+		segment.addOffset(offset);
+		size++;
+	}
+
+	/**
+	 * Removes the most recent archived events, so a number of events remain.
+	 * @param newSize the number of events kept.
+	 * @throws IOException if a segment file cannot be deleted.
+	 */
+	public synchronized void truncate(long newSize) throws IOException {
+		if (closed) throw new IOException("Event archive is closed");
+		if ((newSize < 0L) || (newSize > size))
+			throw new IllegalArgumentException("Size: " + newSize + ", archived: " + size);
+
+		while (!segments.isEmpty()) {
+			int last = segments.size() - 1;
+			Segment segment = segments.get(last);
+			if (segment.firstNumber < newSize) {
+				segment.truncate((int) (newSize - segment.firstNumber));
+				break;
+			}
+			// Cleared as well, in case the file is still mapped and can't be deleted.
+			segment.truncate(0);
+			segments.remove(last);
+			if (!segment.file.delete()) throw new IOException("Cannot delete event archive segment " + segment.file);
+		}
+		size = newSize;
+	}
+
+	/**
+	 * Gets an archived event.
+	 * @param index the index of the event, with 0 the most recent.
+	 * @return the event.
+	 * @throws IndexOutOfBoundsException if there is no such event.
+	 */
+	public synchronized ArchivedEvent getEvent(long index) {
+		if ((index < 0L) || (index >= size)) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		long number = size - 1L - index;
+
+		// Find the segment holding the event.
+		int low = 0;
+		int high = segments.size() - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (segments.get(middle).firstNumber <= number) low = middle;
+			else high = middle - 1;
+		}
+		Segment segment = segments.get(low);
+		return segment.read((int) (number - segment.firstNumber), number);
+	}
+
+	/**
+	 * Gets a page of archived events.
+	 * @param index the index of the first event, with 0 the most recent.
+	 * @param count the maximum number of events.
+	 * @return the events, most recent first.
+	 */
+	public synchronized List<ArchivedEvent> getEvents(long index, int count) {
+		List<ArchivedEvent> result = new ArrayList<ArchivedEvent>();
+		for (long x = index; (x < size) && (x < index + count); x++) {
+			result.add(getEvent(x));
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the archived events to disk.
+	 */
+	public synchronized void flush() {
+		for (Segment segment : segments) segment.buffer.force();
+	}
+
+	/**
+	 * Writes the archived events to disk and closes the archive.
+	 */
+	public synchronized void close() {
+		if (!closed) {
+			flush();
+			segments.clear();
+			closed = true;
+		}
+	}
+
+	private static String getSourceName(Object source) {
+		if (source == null) return "";
+		else if (source instanceof Unit) return ((Unit) source).getName();
+		else return source.toString();
+	}
+
+	/**
+	 * A memory-mapped segment file.
+	 */
+	private static final class Segment {
+
+		/** The segment file. */
+		private File file;
+		/** The mapped file, positioned at the end of the last record. */
+		private MappedByteBuffer buffer;
+		/** The archive number of the first event in the segment. */
+		private long firstNumber;
+		/** The offsets of the records. */
+		private int[] offsets = new int[256];
+		/** The number of records. */
+		private int count;
+
+		private static Segment create(File file, int size, long firstNumber) throws IOException {
+			Segment segment = new Segment();
+			segment.file = file;
+			segment.buffer = map(file, size);
+			segment.buffer.putInt(MAGIC);
+			segment.buffer.putInt(VERSION);
+			segment.firstNumber = firstNumber;
+			return segment;
+		}
+
+		private static Segment open(File file, long firstNumber) throws IOException {
+			Segment segment = new Segment();
+			segment.file = file;
+			segment.buffer = map(file, (int) file.length());
+			if ((segment.buffer.capacity() < HEADER_SIZE) || (segment.buffer.getInt() != MAGIC))
+				throw new IOException("Not an event archive segment: " + file);
+			int version = segment.buffer.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported event archive version " + version + " in " + file);
+			segment.firstNumber = firstNumber;
+
+			// Find the records, up to the first empty length.
+			while (segment.buffer.remaining() >= 4) {
+				int offset = segment.buffer.position();
+				int length = segment.buffer.getInt();
+				if ((length <= 0) || (length > segment.buffer.remaining())) {
+					segment.buffer.position(offset);
+					break;
+				}
+				segment.buffer.position(offset + 4 + length);
+				segment.addOffset(offset);
+			}
+			return segment;
+		}
+
+		private static MappedByteBuffer map(File file, int size) throws IOException {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				FileChannel channel = raf.getChannel();
+				// The mapping stays valid after the channel is closed.
+				return channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+			}
+			finally {
+				raf.close();
+			}
+		}
+
+		/**
+		 * Removes the records after a number, clearing them so they aren't found when reopened.
+		 */
+		private void truncate(int records) {
+			if (records >= count) return;
+			int end = buffer.position();
+			int start = offsets[records];
+			for (int x = start; x < end; x++) buffer.put(x, (byte) 0);
+			buffer.position(start);
+			count = records;
+		}
+
+		private void addOffset(int offset) {
+			if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+			offsets[count++] = offset;
+		}
+
+		private ArchivedEvent read(int record, long number) {
+			// Read through a duplicate so the append position isn't moved.
+			ByteBuffer in = buffer.duplicate();
+			in.position(offsets[record] + 4);
+			double timestamp = in.getDouble();
+			int category = in.get();
+			int type = in.getShort();
+			String source = readString(in);
+			String description = readString(in);
+
+			HistoricalEventCategory[] categories = HistoricalEventCategory.values();
+			EventType[] types = EventType.values();
+			ArchivedEvent event = new ArchivedEvent(
+					((category >= 0) && (category < categories.length)) ? categories[category] : null,
+					((type >= 0) && (type < types.length)) ? types[type] : null,
+					source, description);
+			event.setTimestamp(timestamp);
+			event.setSequence(number);
+			return event;
+		}
+
+		private static String readString(ByteBuffer in) {
+			byte[] bytes = new byte[in.getInt()];
+			in.get(bytes);
+			return new String(bytes, UTF8);
+		}
+	}
+}
@@ -1,20 +1,37 @@
 /**
  * Mars Simulation Project
  * HistoricalEventManager.java
- * @version 3.07 2014-10-31
+ * @version 3.08 2015-08-08
  * @author Barry Evans
  */
 
 package org.mars_sim.msp.core.events;
 
 import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.robot.Robot;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.building.Building;
 import org.mars_sim.msp.core.time.MarsClock;
 import org.mars_sim.msp.core.time.MasterClock;
+import org.mars_sim.msp.core.vehicle.Vehicle;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This class provides a manager that maintains a model of the events that
@@ -25,8 +42,17 @@ import java.util.List;
  * most recent event first.
  * It should be noted that the throughput of new events of the manager can be
  * in the order of 100 event per simulation tick.
+ * The most recent events are held in a fixed size ring buffer, indexed by category,
+ * settlement and unit. Older events are only kept if an archive is set.
+ * Only the position of the simulation run in its archive is saved, not the events.
  */
-public class HistoricalEventManager {
+public class HistoricalEventManager implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(HistoricalEventManager.class.getName());
 
 	/**
 	 * This defines the maximum number of events that are stored.
@@ -34,21 +60,84 @@ public class HistoricalEventManager {
 	 */
 	private final static int TRANSIENT_EVENTS = 1000;
 
-	private List<HistoricalEventListener> listeners = new ArrayList<HistoricalEventListener>();
-	private List<HistoricalEvent> events = new LinkedList<HistoricalEvent>();
-	private MarsClock mainClock;
+	private transient List<HistoricalEventListener> listeners;
+	/** The stored events, as a ring buffer. */
+	private transient HistoricalEvent[] events;
+	/** The settlement each stored event was indexed under, by buffer slot. */
+	private transient Settlement[] eventSettlements;
+	/** The number of events registered, also the sequence number of the next event. */
+	private long registeredNum;
+	/** The number of stored events. */
+	private transient int size;
+	/** The sequence numbers of the stored events in each category. */
+	private transient Map<HistoricalEventCategory, SequenceQueue> categoryIndex;
+	/** The sequence numbers of the stored events of each settlement. */
+	private transient Map<Settlement, SequenceQueue> settlementIndex;
+	/** The sequence numbers of the stored events with a unit as their source. */
+	private transient Map<Unit, SequenceQueue> unitIndex;
+	/** The archive of all events, or null if none. */
+	private transient HistoricalEventArchive archive;
+	/** Identifies the simulation run, so its archive is kept apart from other runs. */
+	private String runId;
+	/** The sequence number of the last archived event, or -1 if none. */
+	private long archivedSequence = -1L;
+	/** The number of events in the archive once the last archived event was written. */
+	private long archiveSize;
+	private transient MarsClock mainClock;
 	//private static int count;
 	/**
 	 * Create a new EventManager that represents a particular simulation.
 	 */
 	public HistoricalEventManager() {
+		this(TRANSIENT_EVENTS);
+	}
+
+	/**
+	 * Create a new EventManager storing a number of events.
+	 * @param capacity the maximum number of events stored.
+	 */
+	HistoricalEventManager(int capacity) {
 		//System.out.println("HistoricalEventManager's constructor is on " + Thread.currentThread().getName() + " Thread");
-		// The main clock is not initialized until the simulation start
-		this.mainClock = null;
+		if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		runId = UUID.randomUUID().toString();
+		init(capacity);
 		//count++;
 		//System.out.println("HistoricalEventManager.java : constructor : count is " + count);
 	}
 
+	/**
+	 * Initializes the transient data, with no events stored.
+	 * @param capacity the maximum number of events stored.
+	 */
+	private void init(int capacity) {
+		// The main clock is not initialized until the simulation start
+		this.mainClock = null;
+		listeners = new CopyOnWriteArrayList<HistoricalEventListener>();
+		events = new HistoricalEvent[capacity];
+		eventSettlements = new Settlement[capacity];
+		categoryIndex = new EnumMap<HistoricalEventCategory, SequenceQueue>(HistoricalEventCategory.class);
+		settlementIndex = new HashMap<Settlement, SequenceQueue>();
+		unitIndex = new HashMap<Unit, SequenceQueue>();
+	}
+
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		init(TRANSIENT_EVENTS);
+	}
+
+	/**
+	 * Gets the identifier of the simulation run, which stays the same when the
+	 * simulation is saved and loaded.
+	 * @return run identifier.
+	 */
+	public String getRunId() {
+		return runId;
+	}
+
 	/**
 	 * Add a historical event listener
 	 * @param newListener listener to add.
@@ -65,13 +154,95 @@ public class HistoricalEventManager {
 		if (listeners.contains(oldListener)) listeners.remove(oldListener);
 	}
 
+	/**
+	 * Sets the archive that all registered events are also written to.
+	 * Events archived after the last event archived by this manager, by a later run
+	 * from the same saved simulation, are removed first. Then the stored events not yet
+	 * archived are written to it, so the most recent archived events are always the
+	 * stored events.
+	 * @param archive the archive, or null for none.
+	 */
+	public synchronized void setArchive(HistoricalEventArchive archive) {
+		this.archive = archive;
+		if (archive == null) return;
+
+		if (archive.size() > archiveSize) {
+			try {
+				archive.truncate(archiveSize);
+			}
+			catch (IOException e) {
+				logger.log(Level.SEVERE, "Cannot truncate event archive, archiving stopped", e);
+				this.archive = null;
+				return;
+			}
+		}
+
+		long first = Math.max(registeredNum - size, archivedSequence + 1L);
+		for (long sequence = first; (sequence < registeredNum) && (this.archive != null); sequence++) {
+			archiveEvent(getEventBySequence(sequence));
+		}
+	}
+
+	/**
+	 * Gets the archive that all registered events are also written to.
+	 * @return the archive, or null if none.
+	 */
+	public synchronized HistoricalEventArchive getArchive() {
+		return archive;
+	}
+
 	/**
 	 * Get the event at a specified index.
 	 * @param index Index of event to retrieve.
 	 * @return Historical event.
 	 */
-	public HistoricalEvent getEvent(int index) {
-		return events.get(index);
+	public synchronized HistoricalEvent getEvent(int index) {
+		if ((index < 0) || (index >= size)) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		return getEventBySequence(registeredNum - 1L - index);
+	}
+
+	/**
+	 * Gets a stored event from its sequence number.
+	 */
+	private HistoricalEvent getEventBySequence(long sequence) {
+		return events[(int) (sequence % events.length)];
+	}
+
+	/**
+	 * Gets the stored events in a category.
+	 * @param category the event category.
+	 * @return list of events, most recent first.
+	 */
+	public synchronized List<HistoricalEvent> getEvents(HistoricalEventCategory category) {
+		return getEvents(categoryIndex.get(category));
+	}
+
+	/**
+	 * Gets the stored events of a settlement, including those of its buildings and of
+	 * the people and robots associated with it.
+	 * @param settlement the settlement.
+	 * @return list of events, most recent first.
+	 */
+	public synchronized List<HistoricalEvent> getEvents(Settlement settlement) {
+		return getEvents(settlementIndex.get(settlement));
+	}
+
+	/**
+	 * Gets the stored events with a unit as their source.
+	 * @param unit the unit.
+	 * @return list of events, most recent first.
+	 */
+	public synchronized List<HistoricalEvent> getEvents(Unit unit) {
+		return getEvents(unitIndex.get(unit));
+	}
+
+	private List<HistoricalEvent> getEvents(SequenceQueue sequences) {
+		if (sequences == null) return new ArrayList<HistoricalEvent>(0);
+		List<HistoricalEvent> result = new ArrayList<HistoricalEvent>(sequences.size());
+		for (int x = sequences.size() - 1; x >= 0; x--) {
+			result.add(getEventBySequence(sequences.get(x)));
+		}
+		return result;
 	}
 
 	/**
@@ -82,8 +253,6 @@ public class HistoricalEventManager {
 	// include any kind of events
 	public void registerNewEvent(HistoricalEvent newEvent) {
 
-		MarsClock timestamp;
-
 		// TODO: for debugging the NullPointerException when calling registerNewEvent()
         if (newEvent == null) {
             throw new IllegalStateException("newEvent is null");
@@ -92,65 +261,196 @@ public class HistoricalEventManager {
 		//System.out.println("HistoricalEventManager.java : calling registerNewEvent() : newEvent is " + newEvent);
 		// check if event is MALFUNCTION or MEDICAL, save it for notification box display
 
-		// Make space for the new event.
-		if (events.size() >= TRANSIENT_EVENTS) {
-			int excess = events.size() - (TRANSIENT_EVENTS - 1);
-			removeEvents(events.size() - excess, excess);
-		}
-
 		MasterClock masterClock = Simulation.instance().getMasterClock();
 		if (masterClock != null) {
 			if (mainClock == null) mainClock = masterClock.getMarsClock();
-			 timestamp = (MarsClock) mainClock.clone();
+			newEvent.setTimestamp(MarsClock.getTotalMillisols(mainClock));
+		}
 
-			// TODO: for debugging the NullPointerException at newEvent.setTimestamp(timestamp);
-			 if (timestamp == null) {
-		            throw new IllegalStateException("timestamp is null");
-		        }
+		boolean removed;
+		synchronized (this) {
+			// Make space for the new event.
+			removed = (size == events.length);
+			if (removed) removeOldestEvent();
 
-			newEvent.setTimestamp(timestamp);
-		}
+			newEvent.setSequence(registeredNum);
+			int slot = (int) (registeredNum % events.length);
+			events[slot] = newEvent;
+			eventSettlements[slot] = getSettlement(newEvent.getSource());
+			size++;
+			addToIndex(categoryIndex, newEvent.getCategory(), registeredNum);
+			addToIndex(settlementIndex, eventSettlements[slot], registeredNum);
+			if (newEvent.getSource() instanceof Unit) addToIndex(unitIndex, (Unit) newEvent.getSource(), registeredNum);
+			registeredNum++;
 
+			if (archive != null) archiveEvent(newEvent);
+		}
 
-		events.add(0, newEvent);
+		if (removed) {
+			Iterator<HistoricalEventListener> iter = listeners.iterator();
+			while (iter.hasNext()) iter.next().eventsRemoved(events.length - 1, events.length);
+		}
 
 		Iterator<HistoricalEventListener> iter = listeners.iterator();
 		while (iter.hasNext()) iter.next().eventAdded(0, newEvent);
+	}
 
+	/**
+	 * Writes an event to the archive, stopping archiving if it cannot be written.
+	 */
+	private void archiveEvent(HistoricalEvent event) {
+		try {
+			archive.append(event);
+			archivedSequence = event.getSequence();
+			archiveSize = archive.size();
+		}
+		catch (IOException e) {
+			logger.log(Level.SEVERE, "Cannot archive event, archiving stopped", e);
+			archive = null;
+		}
 	}
 
 	/**
-	 * An event is removed from the list.
-	 * @param index Index of the event to be removed.
-	 * @param number Number to remove.
+	 * Removes the oldest event from the buffer and the indexes.
 	 */
-	private void removeEvents(int index, int number) {
+	private void removeOldestEvent() {
+		long sequence = registeredNum - size;
+		int slot = (int) (sequence % events.length);
+		HistoricalEvent event = events[slot];
 
-		// Remove the rows
-		for(int i = index; i < (index + number); i++) {
-			events.remove(i);
+		// The oldest event is at the front of each of its index queues.
+		removeFromIndex(categoryIndex, event.getCategory(), sequence);
+		removeFromIndex(settlementIndex, eventSettlements[slot], sequence);
+		if (event.getSource() instanceof Unit) removeFromIndex(unitIndex, (Unit) event.getSource(), sequence);
+
+		events[slot] = null;
+		eventSettlements[slot] = null;
+		size--;
+	}
+
+	private static <K> void addToIndex(Map<K, SequenceQueue> index, K key, long sequence) {
+		if (key == null) return;
+		SequenceQueue sequences = index.get(key);
+		if (sequences == null) {
+			sequences = new SequenceQueue();
+			index.put(key, sequences);
 		}
+		sequences.add(sequence);
+	}
 
-		Iterator<HistoricalEventListener> iter = listeners.iterator();
-		while(iter.hasNext()) iter.next().eventsRemoved(index, index + number);
+	private static <K> void removeFromIndex(Map<K, SequenceQueue> index, K key, long sequence) {
+		if (key == null) return;
+		SequenceQueue sequences = index.get(key);
+		if ((sequences != null) && !sequences.isEmpty() && (sequences.get(0) == sequence)) {
+			sequences.removeFirst();
+			if (sequences.isEmpty()) index.remove(key);
+		}
+	}
+
+	/**
+	 * Gets the settlement an event source belongs to.
+	 * @param source the event source.
+	 * @return the settlement or null if none.
+	 */
+	private static Settlement getSettlement(Object source) {
+		if (source instanceof Settlement) return (Settlement) source;
+		else if (source instanceof Building) return ((Building) source).getBuildingManager().getSettlement();
+		else if (source instanceof Person) return ((Person) source).getAssociatedSettlement();
+		else if (source instanceof Robot) return ((Robot) source).getAssociatedSettlement();
+		else if (source instanceof Vehicle) return ((Vehicle) source).getSettlement();
+		else return null;
 	}
 
 	/**
 	 * Get the number of events in the manager.
 	 * @return Stored event count.
 	 */
-	public int size() {
-		return events.size();
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of events registered, including those no longer stored.
+	 * @return number of events.
+	 */
+	public synchronized long getRegisteredNum() {
+		return registeredNum;
+	}
+
+	/**
+	 * Gets the number of archived events that are no longer stored.
+	 * @return number of events, or 0 if there is no archive.
+	 */
+	public synchronized long getArchivedNum() {
+		if (archive == null) return 0L;
+		return Math.max(0L, archive.size() - size);
+	}
+
+	/**
+	 * Gets a page of the archived events that are no longer stored.
+	 * @param index the index of the first event, with 0 the most recent event no longer stored.
+	 * @param count the maximum number of events.
+	 * @return the events, most recent first, or an empty list if there is no archive.
+	 */
+	public synchronized List<ArchivedEvent> getArchivedEvents(long index, int count) {
+		if (archive == null) return new ArrayList<ArchivedEvent>(0);
+		return archive.getEvents(size + index, count);
 	}
 
 	/**
 	 * Prepare object for garbage collection.
 	 */
-	public void destroy() {
+	public synchronized void destroy() {
 		listeners.clear();
 		listeners = null;
-		events.clear();
+		Arrays.fill(events, null);
 		events = null;
+		eventSettlements = null;
+		categoryIndex = null;
+		settlementIndex = null;
+		unitIndex = null;
+		if (archive != null) {
+			archive.close();
+			archive = null;
+		}
 		mainClock = null;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * A queue of event sequence numbers in increasing order, held in a growable ring buffer.
+	 */
+	private static final class SequenceQueue {
+
+		private long[] sequences = new long[8];
+		private int head;
+		private int count;
+
+		private void add(long sequence) {
+			if (count == sequences.length) {
+				long[] grown = new long[count * 2];
+				for (int x = 0; x < count; x++) grown[x] = get(x);
+				sequences = grown;
+				head = 0;
+			}
+			sequences[(head + count) % sequences.length] = sequence;
+			count++;
+		}
+
+		private long get(int index) {
+			return sequences[(head + index) % sequences.length];
+		}
+
+		private void removeFirst() {
+			head = (head + 1) % sequences.length;
+			count--;
+		}
+
+		private int size() {
+			return count;
+		}
+
+		private boolean isEmpty() {
+			return count == 0;
+		}
+	}
+}
@@ -619,7 +619,7 @@ implements Serializable, Transportable {
         }
         else if (hasLifeSupport) {
             // Try to put building next to another inhabitable building.
-            List<Building> inhabitableBuildings = settlement.getBuildingManager().getBuildings(BuildingFunction.LIFE_SUPPORT);
+            List<Building> inhabitableBuildings = new ArrayList<Building>(settlement.getBuildingManager().getBuildings(BuildingFunction.LIFE_SUPPORT));
             Collections.shuffle(inhabitableBuildings);
             Iterator<Building> i = inhabitableBuildings.iterator();
             while (i.hasNext()) {
@@ -704,7 +704,7 @@ implements Serializable, Transportable {
         int baseLevel = buildingConfig.getBaseLevel(newBuildingType);
 
         BuildingManager manager = settlement.getBuildingManager();
-        List<Building> inhabitableBuildings = manager.getBuildings(BuildingFunction.LIFE_SUPPORT);
+        List<Building> inhabitableBuildings = new ArrayList<Building>(manager.getBuildings(BuildingFunction.LIFE_SUPPORT));
         Collections.shuffle(inhabitableBuildings);
 
         // Try to find a connection between an inhabitable building without access to airlock and
@@ -0,0 +1,453 @@
+/**
+ * Mars Simulation Project
+ * MineralRaster.java
+ * @version 3.08 2015-08-10
+ */
+package org.mars_sim.msp.core.mars;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A raster of the concentration of each mineral of a mineral map, precomputed at the
+ * centers of the cells of a latitude/longitude grid. Looking up a location reads the
+ * four surrounding cells rather than checking every mineral concentration.<br/>
+ * <br/>
+ * Each mineral's raster is split into square tiles of byte concentrations, and tiles
+ * without any concentration aren't stored, as most of the surface has none of a given
+ * mineral. Rasters can be cached in files keyed by the concentrations they were
+ * computed from.
+ */
+class MineralRaster {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(MineralRaster.class.getName());
+
+	/** The default size of the raster cells (degrees). */
+	static final double DEFAULT_RESOLUTION = .1D;
+
+	/** The number of raster cells along the side of a tile, as a power of 2. */
+	private static final int TILE_SHIFT = 5;
+	private static final int TILE_SIZE = 1 << TILE_SHIFT;
+	private static final int TILE_MASK = TILE_SIZE - 1;
+
+	/** The byte value of a 100% concentration. */
+	private static final double FULL_CONCENTRATION = 255D;
+
+	private static final String CACHE_PREFIX = "minerals-";
+	private static final String CACHE_SUFFIX = ".raster";
+	/** The number of cache files kept. */
+	private static final int MAX_CACHE_FILES = 4;
+	private static final int MAGIC = 0x4D494E52;
+	private static final int VERSION = 1;
+
+	private static final double TWO_PI = 2D * Math.PI;
+
+	// Data members
+	/** The names of the minerals. */
+	private String[] mineralNames;
+	/** The size of the raster cells (radians). */
+	private double step;
+	/** The number of cells around the planet. */
+	private int width;
+	/** The number of cells from pole to pole. */
+	private int height;
+	/** The number of tiles around the planet. */
+	private int tileColumnNum;
+	/** The tiles of each mineral, null where there is no concentration. */
+	private byte[][][] tiles;
+
+	/**
+	 * Constructor for an empty raster.
+	 * @param mineralNames the names of the minerals.
+	 * @param resolution the size of the raster cells (degrees).
+	 */
+	private MineralRaster(String[] mineralNames, double resolution) {
+		if (!(resolution > 0D) || (resolution > 90D)) {
+			throw new IllegalArgumentException("Invalid mineral raster resolution: " + resolution);
+		}
+		this.mineralNames = mineralNames.clone();
+		width = (int) Math.round(360D / resolution);
+		height = (int) Math.round(180D / resolution);
+		step = Math.PI / height;
+		tileColumnNum = (width + TILE_MASK) >> TILE_SHIFT;
+		int tileRowNum = (height + TILE_MASK) >> TILE_SHIFT;
+		tiles = new byte[mineralNames.length][tileColumnNum * tileRowNum][];
+	}
+
+	/**
+	 * Computes the raster of a set of mineral concentrations.
+	 * Each concentration adds to the cells within its concentration as a distance (km)
+	 * of its location, falling linearly from the concentration at its location to none at
+	 * that distance, up to a total of 100%.
+	 * @param mineralNames the names of the minerals.
+	 * @param minerals the mineral of each concentration, as an index into the names.
+	 * @param phis the phi of each concentration (radians).
+	 * @param thetas the theta of each concentration (radians).
+	 * @param concentrations each concentration (0% - 100%).
+	 * @param resolution the size of the raster cells (degrees).
+	 * @return the raster.
+	 */
+	static MineralRaster create(String[] mineralNames, int[] minerals, double[] phis, double[] thetas,
+			double[] concentrations, double resolution) {
+		MineralRaster raster = new MineralRaster(mineralNames, resolution);
+		float[][][] totals = new float[mineralNames.length][raster.tiles[0].length][];
+
+		for (int x = 0; x < minerals.length; x++) {
+			double range = concentrations[x];
+			if (!(range > 0D)) continue;
+			raster.addConcentration(totals[minerals[x]], phis[x], thetas[x], range);
+		}
+
+		for (int mineral = 0; mineral < totals.length; mineral++) {
+			for (int tile = 0; tile < totals[mineral].length; tile++) {
+				float[] total = totals[mineral][tile];
+				if (total != null) raster.tiles[mineral][tile] = quantize(total);
+			}
+		}
+		return raster;
+	}
+
+	/**
+	 * Adds the effect of a mineral concentration to the cells it reaches.
+	 */
+	private void addConcentration(float[][] total, double phi, double theta, double concentration) {
+		double angle = concentration / Mars.MARS_RADIUS_KM;
+		int firstRow = Math.max(0, (int) Math.floor((phi - angle) / step - .5D));
+		int lastRow = Math.min(height - 1, (int) Math.ceil((phi + angle) / step - .5D));
+
+		// The widest longitude difference within the range, unless it covers a pole.
+		int firstColumn = 0;
+		int columnNum = width;
+		if ((phi - angle > 0D) && (phi + angle < Math.PI)) {
+			double thetaRange = Math.asin(Math.min(1D, Math.sin(angle) / Math.sin(phi)));
+			firstColumn = (int) Math.floor((theta - thetaRange) / step - .5D);
+			columnNum = Math.min(width, (int) Math.ceil((theta + thetaRange) / step - .5D) - firstColumn + 1);
+		}
+
+		double sinPhi = Math.sin(phi);
+		for (int row = firstRow; row <= lastRow; row++) {
+			double rowPhi = (row + .5D) * step;
+			double sinDiffPhi = Math.sin((rowPhi - phi) / 2D);
+			double cosProduct = sinPhi * Math.sin(rowPhi);
+			for (int x = 0; x < columnNum; x++) {
+				int column = Math.floorMod(firstColumn + x, width);
+				double sinDiffTheta = Math.sin(((column + .5D) * step - theta) / 2D);
+				// The haversine formula, as Mars is a sphere and the angles are small.
+				double haversine = sinDiffPhi * sinDiffPhi + cosProduct * sinDiffTheta * sinDiffTheta;
+				double distance = 2D * Math.asin(Math.min(1D, Math.sqrt(haversine))) * Mars.MARS_RADIUS_KM;
+				if (distance < concentration) {
+					double effect = (1D - (distance / concentration)) * concentration;
+					int tile = getTile(row, column);
+					if (total[tile] == null) total[tile] = new float[TILE_SIZE * TILE_SIZE];
+					int cell = getTileCell(row, column);
+					total[tile][cell] = (float) Math.min(100D, total[tile][cell] + effect);
+				}
+			}
+		}
+	}
+
+	private static byte[] quantize(float[] total) {
+		byte[] result = new byte[total.length];
+		for (int x = 0; x < total.length; x++) {
+			result[x] = (byte) Math.round(total[x] / 100D * FULL_CONCENTRATION);
+		}
+		return result;
+	}
+
+	private int getTile(int row, int column) {
+		return (row >> TILE_SHIFT) * tileColumnNum + (column >> TILE_SHIFT);
+	}
+
+	private static int getTileCell(int row, int column) {
+		return ((row & TILE_MASK) << TILE_SHIFT) | (column & TILE_MASK);
+	}
+
+	/**
+	 * Gets the names of the minerals.
+	 * @return array of names.
+	 */
+	String[] getMineralNames() {
+		return mineralNames.clone();
+	}
+
+	/**
+	 * Gets the name of a mineral.
+	 * @param mineral the index of the mineral.
+	 * @return name.
+	 */
+	String getMineralName(int mineral) {
+		return mineralNames[mineral];
+	}
+
+	/**
+	 * Gets the number of minerals.
+	 * @return number of minerals.
+	 */
+	int getMineralNum() {
+		return mineralNames.length;
+	}
+
+	/**
+	 * Gets the index of a mineral.
+	 * @param mineralName the name of the mineral, in any case.
+	 * @return the index or -1 if not in the raster.
+	 */
+	int getMineralIndex(String mineralName) {
+		for (int x = 0; x < mineralNames.length; x++) {
+			if (mineralNames[x].equalsIgnoreCase(mineralName)) return x;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the concentration of a mineral at a location, interpolated between the
+	 * surrounding cells.
+	 * @param mineral the index of the mineral.
+	 * @param phi the phi of the location (radians).
+	 * @param theta the theta of the location (radians).
+	 * @return percentage concentration (0 to 100.0)
+	 */
+	double getConcentration(int mineral, double phi, double theta) {
+		byte[][] mineralTiles = tiles[mineral];
+
+		double y = phi / step - .5D;
+		int row = (int) Math.floor(y);
+		y -= row;
+		int nextRow = row + 1;
+		if (row < 0) row = 0;
+		if (nextRow >= height) nextRow = height - 1;
+
+		double x = (theta % TWO_PI) / step - .5D;
+		if (x < 0D) x += width;
+		int column = (int) x;
+		x -= column;
+		if (column >= width) column -= width;
+		int nextColumn = (column + 1 == width) ? 0 : column + 1;
+
+		int value00 = getValue(mineralTiles, row, column);
+		int value01 = getValue(mineralTiles, row, nextColumn);
+		int value10 = getValue(mineralTiles, nextRow, column);
+		int value11 = getValue(mineralTiles, nextRow, nextColumn);
+		if ((value00 | value01 | value10 | value11) == 0) return 0D;
+
+		double top = value00 + x * (value01 - value00);
+		double bottom = value10 + x * (value11 - value10);
+		return (top + y * (bottom - top)) / FULL_CONCENTRATION * 100D;
+	}
+
+	private int getValue(byte[][] mineralTiles, int row, int column) {
+		byte[] tile = mineralTiles[getTile(row, column)];
+		return (tile != null) ? (tile[getTileCell(row, column)] & 0xFF) : 0;
+	}
+
+	/**
+	 * Gets the number of stored tiles, over all minerals.
+	 * @return number of tiles.
+	 */
+	int getStoredTileNum() {
+		int result = 0;
+		for (byte[][] mineralTiles : tiles) {
+			for (byte[] tile : mineralTiles) {
+				if (tile != null) result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the key of a set of mineral concentrations, to find their raster in a cache.
+	 * @return 64 bit key.
+	 */
+	static long getKey(String[] mineralNames, int[] minerals, double[] phis, double[] thetas,
+			double[] concentrations, double resolution) {
+		// 64 bit FNV-1a hash.
+		long hash = 0xcbf29ce484222325L;
+		hash = hash(hash, VERSION);
+		hash = hash(hash, Double.doubleToLongBits(resolution));
+		for (String name : mineralNames) {
+			for (int x = 0; x < name.length(); x++) hash = hash(hash, name.charAt(x));
+			hash = hash(hash, 0L);
+		}
+		for (int x = 0; x < minerals.length; x++) {
+			hash = hash(hash, minerals[x]);
+			hash = hash(hash, Double.doubleToLongBits(phis[x]));
+			hash = hash(hash, Double.doubleToLongBits(thetas[x]));
+			hash = hash(hash, Double.doubleToLongBits(concentrations[x]));
+		}
+		return hash;
+	}
+
+	private static long hash(long hash, long value) {
+		for (int x = 0; x < 8; x++) {
+			hash ^= (value >>> (x * 8)) & 0xFFL;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Gets the raster of a set of mineral concentrations from a cache directory,
+	 * or computes it and adds it to the cache.
+	 * @param cacheDirectory the cache directory, or null for none.
+	 * @return the raster.
+	 * @see #create(String[], int[], double[], double[], double[], double)
+	 */
+	static MineralRaster getRaster(File cacheDirectory, String[] mineralNames, int[] minerals,
+			double[] phis, double[] thetas, double[] concentrations, double resolution) {
+		if (cacheDirectory == null) {
+			return create(mineralNames, minerals, phis, thetas, concentrations, resolution);
+		}
+
+		long key = getKey(mineralNames, minerals, phis, thetas, concentrations, resolution);
+		File file = new File(cacheDirectory, String.format("%s%016x%s", CACHE_PREFIX, key, CACHE_SUFFIX));
+		if (file.isFile()) {
+			try {
+				MineralRaster raster = read(file, key);
+				// Mark as recently used.
+				file.setLastModified(System.currentTimeMillis());
+				return raster;
+			}
+			catch (IOException e) {
+				logger.log(Level.WARNING, "Cannot read cached mineral raster " + file + ", computing it again", e);
+			}
+		}
+
+		MineralRaster raster = create(mineralNames, minerals, phis, thetas, concentrations, resolution);
+		try {
+			if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs())
+				throw new IOException("Cannot create cache directory " + cacheDirectory);
+			File tempFile = new File(cacheDirectory, file.getName() + ".tmp");
+			raster.write(tempFile, key);
+			if (!tempFile.renameTo(file)) {
+				tempFile.delete();
+				throw new IOException("Cannot rename " + tempFile + " to " + file);
+			}
+			pruneCache(cacheDirectory);
+		}
+		catch (IOException e) {
+			logger.log(Level.WARNING, "Cannot cache mineral raster in " + cacheDirectory, e);
+		}
+		return raster;
+	}
+
+	/**
+	 * Deletes the least recently used raster files beyond the number kept.
+	 */
+	private static void pruneCache(File cacheDirectory) {
+		File[] files = cacheDirectory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(CACHE_PREFIX) && name.endsWith(CACHE_SUFFIX);
+			}
+		});
+		if ((files == null) || (files.length <= MAX_CACHE_FILES)) return;
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File file1, File file2) {
+				return Long.compare(file2.lastModified(), file1.lastModified());
+			}
+		});
+		for (int x = MAX_CACHE_FILES; x < files.length; x++) {
+			files[x].delete();
+		}
+	}
+
+	/**
+	 * Writes the raster to a file.
+	 * @param file the file.
+	 * @param key the key of the concentrations the raster was computed from.
+	 * @throws IOException if the file cannot be written.
+	 */
+	void write(File file, long key) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new GZIPOutputStream(new FileOutputStream(file))));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(key);
+			out.writeInt(width);
+			out.writeInt(height);
+			out.writeInt(mineralNames.length);
+			for (int mineral = 0; mineral < mineralNames.length; mineral++) {
+				out.writeUTF(mineralNames[mineral]);
+				byte[][] mineralTiles = tiles[mineral];
+				int count = 0;
+				for (byte[] tile : mineralTiles) {
+					if (tile != null) count++;
+				}
+				out.writeInt(count);
+				for (int x = 0; x < mineralTiles.length; x++) {
+					if (mineralTiles[x] != null) {
+						out.writeInt(x);
+						out.write(mineralTiles[x]);
+					}
+				}
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads a raster from a file.
+	 * @param file the file.
+	 * @param key the key of the concentrations the raster is expected to be computed from.
+	 * @return the raster.
+	 * @throws IOException if the file cannot be read or is for other concentrations.
+	 */
+	static MineralRaster read(File file, long key) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new GZIPInputStream(new FileInputStream(file))));
+		try {
+			if (in.readInt() != MAGIC) throw new IOException("Not a mineral raster: " + file);
+			int version = in.readInt();
+			if (version != VERSION) throw new IOException("Unsupported mineral raster version " + version);
+			if (in.readLong() != key) throw new IOException("Mineral raster is for other concentrations");
+			int width = in.readInt();
+			int height = in.readInt();
+			String[] names = new String[in.readInt()];
+			byte[][][] tiles = new byte[names.length][][];
+			for (int mineral = 0; mineral < names.length; mineral++) {
+				names[mineral] = in.readUTF();
+				tiles[mineral] = readTiles(in, width, height);
+			}
+
+			MineralRaster raster = new MineralRaster(names, 360D / width);
+			if ((raster.width != width) || (raster.height != height))
+				throw new IOException("Invalid mineral raster size " + width + " x " + height);
+			raster.tiles = tiles;
+			return raster;
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private static byte[][] readTiles(DataInputStream in, int width, int height) throws IOException {
+		int tileNum = ((width + TILE_MASK) >> TILE_SHIFT) * ((height + TILE_MASK) >> TILE_SHIFT);
+		byte[][] result = new byte[tileNum][];
+		int count = in.readInt();
+		for (int x = 0; x < count; x++) {
+			int index = in.readInt();
+			if ((index < 0) || (index >= tileNum)) throw new IOException("Invalid mineral raster tile " + index);
+			result[index] = new byte[TILE_SIZE * TILE_SIZE];
+			in.readFully(result[index]);
+		}
+		return result;
+	}
+}
@@ -231,9 +231,6 @@ implements Serializable {
         // If location is not in cache, calculate
         //if (!cosineSolarZenithAngleMap.containsKey(location)) {
 
-			double solar_time = marsClock.getMillisol() ;
-			//System.out.println("solar_time is " + (int) solar_time);
-
         	double result = 0;
 			//double lat = location.getPhi2LatRadian();
 			double lat =  1.5708 - location.getPhi() ;
@@ -262,33 +259,8 @@ implements Serializable {
 			// 3. https://en.wiki2.org/wiki/Analemma
 			// 4. http://www.planetary.org/blogs/emily-lakdawalla/2014/a-martian-analemma.html?referrer=https://www.google.com/
 
-			double equation_of_time_offset = 0;
 			computeL_s();
-			double Ls = L_s;
-			if (Ls == 57.7)
-				equation_of_time_offset = 0;
-			else if (Ls <= 90 )
-				equation_of_time_offset = 0.7106 * Ls - 41D; // slope = 41/57.7, b = -41
-			else if (Ls <= 180)
-				equation_of_time_offset =  0.1803 * Ls + 6.7277;
-			else if (Ls <= 190)
-				equation_of_time_offset =  39.1817;
-			else if (Ls == 258)
-				equation_of_time_offset = 39.1817 * Math.cos(90D/68D*(Ls-190)*DEGREE_TO_RADIAN);
-			else if (Ls <= 326)
-				equation_of_time_offset = -51D * Math.sin(90D/69D*(Ls-258)*DEGREE_TO_RADIAN);
-			else if (Ls <= 360)
-				equation_of_time_offset = -41D - 10 * Math.sin(90D/34D*(Ls-326)*DEGREE_TO_RADIAN);
-
-			double theta_offset = location.getTheta() * 159.1519;
-			// 159.1519 = 1000D / 2D / Math.PI  ; // convert theta (longitude) from radians to millisols;
-			//System.out.println(" theta_offset: " + theta_offset);
-
-			double EOT_in_millisol = equation_of_time_offset * 0.6759; // 0.6759 = 60D / SOLAR_DAY * 1000D; // convert from min to millisols
-			double modified_solar_time = theta_offset + solar_time + EOT_in_millisol ;
-			// The hour angle is measured from the true noon westward, represented by h = 2 * pi * t / P, t is time past noon in seconds
-			double h = 0.0063 * Math.abs(modified_solar_time - 500D);
-			// 0.0063 = 2D * Math.PI / 1000D;
+			double h = getHourAngle(location.getTheta());
 
 			computeSineSolarDeclinationAngle();
 			double d = getSolarDeclinationAngle();
@@ -305,6 +277,47 @@ implements Serializable {
 	}
 
 
+	/**
+	 * Gets the hour angle of the sun at a given longitude, from the current time and
+	 * the areocentric longitude as last computed.
+	 * @param theta the longitude (radians).
+	 * @return hour angle in radians (0 - PI).
+	 */
+	public double getHourAngle(double theta) {
+
+		if (marsClock == null)
+			marsClock = Simulation.instance().getMasterClock().getMarsClock();
+
+		double solar_time = marsClock.getMillisol() ;
+
+		double equation_of_time_offset = 0;
+		double Ls = L_s;
+		if (Ls == 57.7)
+			equation_of_time_offset = 0;
+		else if (Ls <= 90 )
+			equation_of_time_offset = 0.7106 * Ls - 41D; // slope = 41/57.7, b = -41
+		else if (Ls <= 180)
+			equation_of_time_offset =  0.1803 * Ls + 6.7277;
+		else if (Ls <= 190)
+			equation_of_time_offset =  39.1817;
+		else if (Ls == 258)
+			equation_of_time_offset = 39.1817 * Math.cos(90D/68D*(Ls-190)*DEGREE_TO_RADIAN);
+		else if (Ls <= 326)
+			equation_of_time_offset = -51D * Math.sin(90D/69D*(Ls-258)*DEGREE_TO_RADIAN);
+		else if (Ls <= 360)
+			equation_of_time_offset = -41D - 10 * Math.sin(90D/34D*(Ls-326)*DEGREE_TO_RADIAN);
+
+		double theta_offset = theta * 159.1519;
+		// 159.1519 = 1000D / 2D / Math.PI  ; // convert theta (longitude) from radians to millisols;
+		//System.out.println(" theta_offset: " + theta_offset);
+
+		double EOT_in_millisol = equation_of_time_offset * 0.6759; // 0.6759 = 60D / SOLAR_DAY * 1000D; // convert from min to millisols
+		double modified_solar_time = theta_offset + solar_time + EOT_in_millisol ;
+		// The hour angle is measured from the true noon westward, represented by h = 2 * pi * t / P, t is time past noon in seconds
+		// 0.0063 = 2D * Math.PI / 1000D;
+		return 0.0063 * Math.abs(modified_solar_time - 500D);
+	}
+
 	/**
 	 * Returns the instantaneous true anomaly or polar angle of Mars around the sun.
 	 * Angle is counter-clockwise starting at perigee.
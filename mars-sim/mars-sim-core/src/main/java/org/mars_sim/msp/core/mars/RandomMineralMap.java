@@ -27,6 +27,9 @@ import java.util.logging.Logger;
 
 /**
  * A randomly generated mineral map of Mars.
+ * The concentrations are rasterized when the map is created, so looking up a location
+ * doesn't depend on the number of concentrations. The raster is cached on disk between
+ * runs and computed again after loading a saved simulation.
  */
 public class RandomMineralMap implements Serializable, MineralMap {
 
@@ -47,6 +50,8 @@ public class RandomMineralMap implements Serializable, MineralMap {
 	
 	// List of all mineral concentrations.
 	private List<MineralConcentration> mineralConcentrations;
+	// The raster of the mineral concentrations.
+	private transient volatile MineralRaster raster;
 	
 	/**
 	 * Constructor
@@ -56,6 +61,60 @@ public class RandomMineralMap implements Serializable, MineralMap {
 		
 		// Determine mineral concentrations.
 		determineMineralConcentrations();
+		
+		raster = createRaster();
+	}
+	
+	/**
+	 * Gets the raster of the mineral concentrations, computing it if needed.
+	 * @return raster.
+	 */
+	private MineralRaster getRaster() {
+		MineralRaster result = raster;
+		if (result == null) {
+			synchronized (this) {
+				result = raster;
+				if (result == null) {
+					result = createRaster();
+					raster = result;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Rasterizes the mineral concentrations, or gets their raster from the cache.
+	 * @return raster.
+	 */
+	private MineralRaster createRaster() {
+		List<String> names = new ArrayList<String>(Arrays.asList(getMineralTypeNames()));
+		int size = mineralConcentrations.size();
+		int[] minerals = new int[size];
+		double[] phis = new double[size];
+		double[] thetas = new double[size];
+		double[] concentrations = new double[size];
+		for (int x = 0; x < size; x++) {
+			MineralConcentration concentration = mineralConcentrations.get(x);
+			int mineral = names.indexOf(concentration.getMineralType());
+			if (mineral < 0) {
+				// A mineral no longer in the configuration of a saved simulation.
+				mineral = names.size();
+				names.add(concentration.getMineralType());
+			}
+			minerals[x] = mineral;
+			phis[x] = concentration.getLocation().getPhi();
+			thetas[x] = concentration.getLocation().getTheta();
+			concentrations[x] = concentration.getConcentration();
+		}
+		
+		long startTime = System.currentTimeMillis();
+		MineralRaster result = MineralRaster.getRaster(SimulationConfig.getCacheDirectory(),
+				names.toArray(new String[names.size()]), minerals, phis, thetas, concentrations,
+				MineralRaster.DEFAULT_RESOLUTION);
+		logger.fine("Mineral raster of " + size + " concentrations ready in " 
+				+ (System.currentTimeMillis() - startTime) + " ms");
+		return result;
 	}
 	
 	/**
@@ -183,21 +242,17 @@ public class RandomMineralMap implements Serializable, MineralMap {
 		Map<String, Double> result = Collections.emptyMap();
 		boolean emptyMap = true;
 		
-		Iterator<MineralConcentration> i = mineralConcentrations.iterator();
-		while (i.hasNext()) {
-			MineralConcentration mineralConcentration = i.next();
-			double effect = getMineralConcentrationEffect(mineralConcentration, location);
-			if (effect > 0D) {
+		MineralRaster mineralRaster = getRaster();
+		double phi = location.getPhi();
+		double theta = location.getTheta();
+		for (int x = 0; x < mineralRaster.getMineralNum(); x++) {
+			double concentration = mineralRaster.getConcentration(x, phi, theta);
+			if (concentration > 0D) {
 				if (emptyMap) {
 					result = new HashMap<String, Double>();
 					emptyMap = false;
 				}
-				double totalConcentration = 0D;
-				if (result.containsKey(mineralConcentration.mineralType)) 
-					totalConcentration = result.get(mineralConcentration.mineralType);
-				totalConcentration += effect;
-				if (totalConcentration > 100D) totalConcentration = 100D;
-				result.put(mineralConcentration.mineralType, totalConcentration);
+				result.put(mineralRaster.getMineralName(x), concentration);
 			}
 		}
 		return result;
@@ -211,46 +266,10 @@ public class RandomMineralMap implements Serializable, MineralMap {
      */
 	public double getMineralConcentration(String mineralType,
 			Coordinates location) {
-		double result = 0D;
-		
-		Iterator<MineralConcentration> i = mineralConcentrations.iterator();
-		while (i.hasNext()) {
-			MineralConcentration mineralConcentration = i.next();
-			if (mineralConcentration.getMineralType().equalsIgnoreCase(mineralType)) {
-				result += getMineralConcentrationEffect(mineralConcentration, location);
-				if (result > 100D) result = 100D;
-			}
-		}
-		
-		return result;
-	}
-	
-	/**
-	 * Gets the effect of a given mineral concentration on a location.
-	 * @param concentration the mineral concentration.
-	 * @param location the location to affect.
-	 * @return concentration effect (0% - 100%).
-	 */
-	private double getMineralConcentrationEffect(MineralConcentration concentration, 
-			Coordinates location) {
-		double result = 0D;
-		
-		double concentrationPhi = concentration.getLocation().getPhi();
-		double concentrationTheta = concentration.getLocation().getTheta();
-		double phiDiff = Math.abs(location.getPhi() - concentrationPhi);
-		double thetaDiff = Math.abs(location.getTheta() - concentrationTheta);
-		double diffLimit = .04D;
-		if ((concentrationPhi < Math.PI / 7D) || concentrationPhi > Math.PI - (Math.PI / 7D))
-			diffLimit+= Math.abs(Math.cos(concentrationPhi));
-		if ((phiDiff < diffLimit) && (thetaDiff < diffLimit)) {
-			double distance = location.getDistance(concentration.getLocation());
-			double concentrationRange = concentration.getConcentration();
-			if (distance < concentrationRange) 
-				result = (1D - (distance / concentrationRange)) * 
-						concentration.getConcentration();
-		}
-		
-		return result;
+		MineralRaster mineralRaster = getRaster();
+		int mineral = mineralRaster.getMineralIndex(mineralType);
+		if (mineral < 0) return 0D;
+		return mineralRaster.getConcentration(mineral, location.getPhi(), location.getTheta());
 	}
 	
     /**
@@ -312,6 +331,7 @@ public class RandomMineralMap implements Serializable, MineralMap {
     public void destroy() {
         mineralConcentrations.clear();
         mineralConcentrations = null;
+        raster = null;
     }
 	
     /**
@@ -7,21 +7,18 @@
 package org.mars_sim.msp.core.mars;
 
 import org.mars_sim.msp.core.Coordinates;
-import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.SimulationConfig;
 import org.mars_sim.msp.core.person.ai.mission.Mining;
 import org.mars_sim.msp.core.person.ai.mission.Mission;
 import org.mars_sim.msp.core.person.ai.mission.MissionManager;
 import org.mars_sim.msp.core.structure.Settlement;
-import org.mars_sim.msp.core.time.MarsClock;
 
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -59,10 +56,14 @@ public class SurfaceFeatures implements Serializable {
     private Coordinates sunDirection;
     private Weather weather;
 
-	private Map<Coordinates, Double> opticalDepthMap = new ConcurrentHashMap<>();
-	//private Map<Coordinates, Double> totalSolarIrradianceMap = new ConcurrentHashMap<>();
-	private Map<Coordinates, Double> solarIrradianceMapCache;
-	private MarsClock solarIrradianceMapCacheTime;
+	/** The grid the weather is computed on. */
+	private WeatherGrid weatherGrid;
+	/** The solar irradiance at each node of the weather grid (W/m2). */
+	private float[] solarIrradianceField;
+	/** The optical depth at each node of the weather grid. */
+	private float[] opticalDepthField;
+	/** True once the solar irradiance field has been computed. */
+	private volatile boolean solarIrradianceComputed;
 
 
 	DecimalFormat fmt3 = new DecimalFormat("#0.000");
@@ -89,9 +90,9 @@ public class SurfaceFeatures implements Serializable {
             throw new IllegalStateException("Landmarks could not be loaded: " + e.getMessage(), e);
         }
 
-        if (solarIrradianceMapCache == null) {
-            solarIrradianceMapCache = new ConcurrentHashMap<Coordinates, Double>();
-        }
+        weatherGrid = new WeatherGrid(SimulationConfig.instance().getWeatherGridResolution());
+        solarIrradianceField = weatherGrid.createField(0F);
+        opticalDepthField = weatherGrid.createField((float) opticalDepthStartingValue);
 
         double a = OrbitInfo.SEMI_MAJOR_AXIS;
         factor = MEAN_SOLAR_IRRADIANCE * a * a;
@@ -185,223 +186,211 @@ public class SurfaceFeatures implements Serializable {
     }
 
     /**
-     * Calculate the solar irradiance at a particular location on Mars
+     * Gets the solar irradiance at a particular location on Mars, interpolated from
+     * the solar irradiance field.
      * @param location the coordinate location on Mars.
      * @return solar irradiance (W/m2)
      */
     public double getSolarIrradiance(Coordinates location) {
+        return weatherGrid.getValue(getSolarIrradianceField(), location);
+    }
 
-        MarsClock currentTime = Simulation.instance().getMasterClock().getMarsClock();
-        if (!currentTime.equals(solarIrradianceMapCacheTime)) {
-        	solarIrradianceMapCache.clear();
-            solarIrradianceMapCacheTime = (MarsClock) currentTime.clone();
-        }
-        // If location is not in cache, calculate solar irradiance.
-        if (!solarIrradianceMapCache.containsKey(location)) {
-            if (mars == null) {
-                mars = Simulation.instance().getMars();
+    /**
+     * Gets the solar irradiance field, computing it if it hasn't been yet.
+     * @return solar irradiance (W/m2) at each node of the weather grid.
+     */
+    float[] getSolarIrradianceField() {
+        if (!solarIrradianceComputed) {
+            synchronized (this) {
+                if (!solarIrradianceComputed) updateSolarIrradiance();
             }
-/*
-// Approach 1
-		double s1 = 0;
-        double L_s = mars.getOrbitInfo().getL_s();
-        double e = OrbitInfo.ECCENTRICITY;
-    	double z = mars.getOrbitInfo().getSolarZenithAngle(phi);
-    	double num =  1 + e * Math.cos( (L_s - 248) /180D * Math.PI);
-    	double den = 1 - e * e;
-    	s1 = MEAN_SOLAR_IRRADIANCE * Math.cos(z) * num / den * num / den  ;
-    	System.out.println("solar irradiance s1 is " + s1);
- */
+        }
+        return solarIrradianceField;
+    }
 
-// Approach 2 consists of 5 parts
-            // Part 1: get cosine solar zenith angle
-            double G_0 = 0;
-            double G_h = 0;
-            double G_bh = 0;
-            double G_dh = 0;
-            //G_0: direct solar irradiance at the top of the atmosphere
-            //G_h: global irradiance on a horizontal surface
-            //G_bh: direct beam irradiance on a horizontal surface
-            //G_dh: diffuse irradiance on a horizontal surface
-
-            if (orbitInfo == null)
-                orbitInfo = mars.getOrbitInfo();
-
-            double cos_z =  orbitInfo.getCosineSolarZenithAngle(location);
-            double z = Math.acos(cos_z);
+    /**
+     * Computes the solar irradiance and optical depth fields for the whole planet.
+     */
+    private synchronized void updateSolarIrradiance() {
+        if (mars == null)
+            mars = Simulation.instance().getMars();
+        if (orbitInfo == null)
+            orbitInfo = mars.getOrbitInfo();
+        if (weather == null)
+            weather = mars.getWeather();
+
+        // Part 1: get cosine solar zenith angle
+        // cos_z = sin(lat) * sin(d) + cos(lat) * cos(d) * cos(h), so the columns of a row
+        // only differ by the hour angle h of their longitude.
+        orbitInfo.computeL_s();
+        orbitInfo.computeSineSolarDeclinationAngle();
+        final double sineDeclination = orbitInfo.getSineSolarDeclinationAngle();
+        final double cosineDeclination = Math.cos(orbitInfo.getSolarDeclinationAngle());
+        final double[] cosineHourAngles = new double[weatherGrid.getColumnNum()];
+        for (int column = 0; column < cosineHourAngles.length; column++) {
+            cosineHourAngles[column] = Math.cos(orbitInfo.getHourAngle(weatherGrid.getTheta(column)));
+        }
 
-            if (z >= Math.PI/2D) {
-            	// Mar is in the so-called twilight zone
-            	// Set it to a maximum of 12 degree below the horizon
-            	// indirect sunlight such as diffuse/scattering/reflective sunlight will light up the Martian sky
-            	if (z <= Math.PI/2D + .1 )
-            		// twilight zone is defined as bwtween 0.1 to -0.1 in radians above and below the horizon
-            		G_h = Math.round( (-200*z +100*Math.PI + 20) * 100.00)/100.00; // keep a minimum of G_h at 20 W/m2 if the sun is within the twlight zone
-            	//G_h = Math.round((0.2094 + z)*100D);
-            	// This an arbitrary model set G_0 to 41.8879 W/ m-2 when Mars is at the horizon
+        // Part 2: get the new average solar irradiance as a result of the changing distance between Mars and Sun  with respect to the value of L_s.
+
+        // Note a: Because of Mars's orbital eccentricity, L_s advances somewhat unevenly with time, but can be evaluated
+        // as a trigonometric power series for the orbital eccentricity and the orbital mean anomaly measured with respect to the perihelion.
+        // The areocentric longitude at perihelion, L_s = 251.000 + 0.00645 * (year - 2000),
+        // indicates a near alignment of the planet's closest approach to the Sun in its orbit with its winter solstice season,
+
+        // Note b: In 2043, there is 35% (max is 45.4%) on average more sunlight at perihelion (L_s = 251.2774 deg) than at aphelion (L_s = 71.2774 deg)
+        // Equation: 135% * (.5 * sin (L_s - 251.2774 + 180 - 90) + .5 )
+
+        // Part 3: get the instantaneous radius and semi major axis
+        double r = orbitInfo.getDistanceToSun();
+        final double topFactor = factor / r / r;
+
+        // Part 4 : Absorption and Scattering of Solar Radiation and Optical Depth
+        // The daily variation of air pressure is the same everywhere for now.
+        final double newTau = 0.2237 * weather.getDailyVariationAirPressure(sunDirection);
+        // Initially, weather.getDailyVariationAirPressure() = 0.009773345677998181
+        final long seed = WeatherGrid.createNoiseSeed();
+
+        final float[] irradiance = solarIrradianceField;
+        weatherGrid.update(row -> {
+            double lat = 1.5708 - weatherGrid.getPhi(row);
+            double a = Math.sin(lat) * sineDeclination;
+            double b = Math.cos(lat) * cosineDeclination;
+            int cell = weatherGrid.getCell(row, 0);
+            for (int column = 0; column < cosineHourAngles.length; column++, cell++) {
+                irradiance[cell] = (float) computeSolarIrradiance(a + b * cosineHourAngles[column],
+                        topFactor, newTau, seed, cell);
             }
+        });
+        solarIrradianceComputed = true;
+    }
 
-            else {
-
-                // Part 2: get the new average solar irradiance as a result of the changing distance between Mars and Sun  with respect to the value of L_s.
-                //double L_s = orbitInfo.getL_s();
-
-                // Note a: Because of Mars's orbital eccentricity, L_s advances somewhat unevenly with time, but can be evaluated
-                // as a trigonometric power series for the orbital eccentricity and the orbital mean anomaly measured with respect to the perihelion.
-                // The areocentric longitude at perihelion, L_s = 251.000 + 0.00645 * (year - 2000),
-                // indicates a near alignment of the planet's closest approach to the Sun in its orbit with its winter solstice season,
-
-                // Note b: In 2043, there is 35% (max is 45.4%) on average more sunlight at perihelion (L_s = 251.2774 deg) than at aphelion (L_s = 71.2774 deg)
-                // Equation: 135% * (.5 * sin (L_s - 251.2774 + 180 - 90) + .5 )
-
-                // Part 3: get the instantaneous radius and semi major axis
-                double r =  orbitInfo.getDistanceToSun();
-
-                G_0 = cos_z * factor / r / r;
-
-                //if (G_0 <= 0)
-                //	G_0 = 0;
-
-                // Part 4 : Absorption and Scattering of Solar Radiation and Optical Depth
-
-                double tau;
-
-                if (weather == null)
-                    weather = Simulation.instance().getMars().getWeather();
-                double newTau =  0.2237 * weather.getDailyVariationAirPressure(location);
-                // System.out.println("DailyVariationAirPressure : " + weather.getDailyVariationAirPressure(location));
-                // Initially, weather.getDailyVariationAirPressure() = 0.009773345677998181
-
-                // Equation: tau = 0.2342 + 0.2247 * yestersolAirPressureVariation;
-                // the starting value for opticalDepth is 0.2342. See Ref below
-                if (opticalDepthMap.containsKey(location))
-                    tau = (opticalDepthMap.get(location) + opticalDepthStartingValue + newTau) / 1.9D;
-                else {
-                    tau = opticalDepthStartingValue + newTau;
-                }
-
-                // Reference :
-                // see Chapter 2.3.1 and equation (2.44,45) on page 63 from the book "Mars: Prospective Energy and Material Resources" by Badescu, Springer 2009.
-                // Optical depth is well correlated to the daily variation of surface pressure and to the standard deviation of daily surface pressure
-                // The lower the value of tau, the clearer the sky
-                // Note: tau has an "inverse" relationship with the daily global solar irradiance in Fig 2.8.
-
-                // Add randomness to optical depth
-                tau = tau + RandomUtil.getRandomDouble(.03) - RandomUtil.getRandomDouble(.03);
-                // Notes:
-                // (1) during relatively periods of clear sky, typical values for optical depth were between 0.2 and 0.5
-                // (2) typical observable range is between .32 and .52 (average is 42%).
-                // (3) From Viking data, at no time did the optical depth fall below 0.18,
-
-                // tau is usually between .1 and 6, Page 860, Table IV  of R. M. Haberlet Et al.
-      			if (tau > 6)
-      				tau = 6;
-      			if (tau < .1)
-      				tau = .1;
-
-                // TODO: Part 4a : reducing opacity of the Martian atmosphere due to local dust storm
-
-                // Note 1 : The extinction of radiation through the Martian atmosphere is caused mainly by suspended dust particles.
-                // Although dust particles are effective at scattering direct solar irradiance, a substantial amount of diffuse light is able to penetrate to the surface of the planet.
-                // The amount of PAR available on the Martian surface can then be calculated to be 42% of the total PAR to reach the surface.
-
-                // Note 2: Based on Viking observation, it's estimated approximately 100 local dust storms (each last a few days) can occur in a given Martian year
-                // Duration of a global dust storm is 35 - 70 sols. Local dust storms last a few days.
-
+    /**
+     * Calculates the solar irradiance at a node of the weather grid, and updates its optical depth.
+     * @param cos_z the cosine solar zenith angle.
+     * @param topFactor the solar irradiance at the top of the atmosphere with the sun at the zenith.
+     * @param newTau the optical depth from the daily variation of air pressure.
+     * @param seed the noise seed of the update.
+     * @param cell the node.
+     * @return solar irradiance (W/m2)
+     */
+    private double computeSolarIrradiance(double cos_z, double topFactor, double newTau, long seed, int cell) {
+        double G_0 = 0;
+        double G_h = 0;
+        double G_bh = 0;
+        double G_dh = 0;
+        //G_0: direct solar irradiance at the top of the atmosphere
+        //G_h: global irradiance on a horizontal surface
+        //G_bh: direct beam irradiance on a horizontal surface
+        //G_dh: diffuse irradiance on a horizontal surface
+
+        if (cos_z <= 0D) {
+            double z = Math.acos(cos_z);
+        	// Mar is in the so-called twilight zone
+        	// Set it to a maximum of 12 degree below the horizon
+        	// indirect sunlight such as diffuse/scattering/reflective sunlight will light up the Martian sky
+        	if (z <= Math.PI/2D + .1 )
+        		// twilight zone is defined as bwtween 0.1 to -0.1 in radians above and below the horizon
+        		G_h = Math.round( (-200*z +100*Math.PI + 20) * 100.00)/100.00; // keep a minimum of G_h at 20 W/m2 if the sun is within the twlight zone
+        	// This an arbitrary model set G_0 to 41.8879 W/ m-2 when Mars is at the horizon
+        	return G_h;
+        }
 
-      			// Note 3: TODO: Model how dust clouds, water/ice clouds, CO2 clouds affects tau differently
-      			// REFERENCE: http://www.sciencedirect.com/science/article/pii/S0019103514001559
-      			// The solar longitude (LS) 20 deg 136 deg period is also characterized by the presence of cirriform clouds at the Opportunity site,
-      			// especially near LS = 50 deg and 115 deg. In addition to water ice clouds, a water ice haze may also be present, and carbon dioxide clouds
-      			// may be present early in the season.
+        G_0 = cos_z * topFactor;
 
+        // Equation: tau = 0.2342 + 0.2247 * yestersolAirPressureVariation;
+        // the starting value for opticalDepth is 0.2342. See Ref below
+        double tau = (opticalDepthField[cell] + opticalDepthStartingValue + newTau) / 1.9D;
 
-                // Choice 1 : if using Beer's law : transmissivity = Math.exp(-tau/cos_z);
-                //G_bh = G_0 * cos_z * Math.exp(-tau/cos_z);
+        // Reference :
+        // see Chapter 2.3.1 and equation (2.44,45) on page 63 from the book "Mars: Prospective Energy and Material Resources" by Badescu, Springer 2009.
+        // Optical depth is well correlated to the daily variation of surface pressure and to the standard deviation of daily surface pressure
+        // The lower the value of tau, the clearer the sky
+        // Note: tau has an "inverse" relationship with the daily global solar irradiance in Fig 2.8.
 
-    	    	// Choice 2 : The pure scattering transmissivity = (1 + tau / 2 / cos_z)^ -1
+        // Add randomness to optical depth
+        tau = tau + .03 * WeatherGrid.getNoiseDifference(seed, cell);
+        // Notes:
+        // (1) during relatively periods of clear sky, typical values for optical depth were between 0.2 and 0.5
+        // (2) typical observable range is between .32 and .52 (average is 42%).
+        // (3) From Viking data, at no time did the optical depth fall below 0.18,
 
-     	    	G_bh = G_0 * cos_z / (1 + tau / 2 / cos_z);
+        // tau is usually between .1 and 6, Page 860, Table IV  of R. M. Haberlet Et al.
+        if (tau > 6)
+        	tau = 6;
+        if (tau < .1)
+        	tau = .1;
 
-      			// assuming the reflection from the surface is negligible
-    	    	// ref: http://www.uapress.arizona.edu/onlinebks/ResourcesNearEarthSpace/resources30.pdf
+        // TODO: Part 4a : reducing opacity of the Martian atmosphere due to local dust storm
 
+        // Note 1 : The extinction of radiation through the Martian atmosphere is caused mainly by suspended dust particles.
+        // Although dust particles are effective at scattering direct solar irradiance, a substantial amount of diffuse light is able to penetrate to the surface of the planet.
+        // The amount of PAR available on the Martian surface can then be calculated to be 42% of the total PAR to reach the surface.
 
-    	    	// Note: m(z), the air mass, is estimated as ~ 1/cos_z
+        // Note 2: Based on Viking observation, it's estimated approximately 100 local dust storms (each last a few days) can occur in a given Martian year
+        // Duration of a global dust storm is 35 - 70 sols. Local dust storms last a few days.
 
-                // save tau onto opticalDepthMap
-                opticalDepthMap.put(location, tau);
+        // Note 3: TODO: Model how dust clouds, water/ice clouds, CO2 clouds affects tau differently
+        // REFERENCE: http://www.sciencedirect.com/science/article/pii/S0019103514001559
+        // The solar longitude (LS) 20 deg 136 deg period is also characterized by the presence of cirriform clouds at the Opportunity site,
+        // especially near LS = 50 deg and 115 deg. In addition to water ice clouds, a water ice haze may also be present, and carbon dioxide clouds
+        // may be present early in the season.
 
+        // Choice 1 : if using Beer's law : transmissivity = Math.exp(-tau/cos_z);
+        //G_bh = G_0 * cos_z * Math.exp(-tau/cos_z);
 
-                // Note:  one can estimate m(z), the air mass, as ~ 1/cos_z
+        // Choice 2 : The pure scattering transmissivity = (1 + tau / 2 / cos_z)^ -1
+        G_bh = G_0 * cos_z / (1 + tau / 2 / cos_z);
 
-                // Part 5 : Diffuse solar irradiance.
-                // G_h = G_direct + G_diffuse
-                // On earth, the direct solar irradiance plays the major role of bringing in sunlight
-                // On Mars, the role of diffuse solar irradiance is more prominent than that on Earth.
+        // assuming the reflection from the surface is negligible
+        // ref: http://www.uapress.arizona.edu/onlinebks/ResourcesNearEarthSpace/resources30.pdf
 
-                // TODO: Modeling the diffuse effect of solar irradiance with formula
-                // Note: the value of G_dh to decrease more slowly when value cos_z is diminishing
-/*
-    	    	if (cos_z > .9)
-    	    		G_dh = G_bh / 6;
-    	    	else if (cos_z > .8)
-    	    		G_dh = G_bh / 4.8;
-    	    	else if (cos_z > .7)
-    	    		G_dh = G_bh / 3.7D;
-    	    	else if (cos_z > .6)
-    	    		G_dh = G_bh / 2.5;
-    	    	else if (cos_z > .5)
-    	    		G_dh = G_bh / 2.2D;
-    	    	else if (cos_z > .4)
-    	    		G_dh = G_bh / 1.8D;
-    	    	else if (cos_z > .3)
-    	    		G_dh = G_bh / 1.6D;
-    	    	else if (cos_z > .2)
-    	    		G_dh = G_bh / 1.4D;
-    	    	else if (cos_z > .1)
-    	    		G_dh = G_bh / 1.2D;
-    	    	else if (cos_z > .05)
-    	    		G_dh = G_bh;
-*/
-    	    	G_dh = G_bh *.3;
+        // Note: m(z), the air mass, is estimated as ~ 1/cos_z
 
-    	    	// Finally,
-    	    	G_h = G_bh + G_dh;
+        // save tau onto the optical depth field
+        opticalDepthField[cell] = (float) tau;
 
-    	    	if (G_h > SurfaceFeatures.MEAN_SOLAR_IRRADIANCE)
-    	    		G_h = SurfaceFeatures.MEAN_SOLAR_IRRADIANCE;
+        // Part 5 : Diffuse solar irradiance.
+        // G_h = G_direct + G_diffuse
+        // On earth, the direct solar irradiance plays the major role of bringing in sunlight
+        // On Mars, the role of diffuse solar irradiance is more prominent than that on Earth.
 
-    	    	else if (G_h < 20.94)
-    	    		G_h = 20.94;
+        // TODO: Modeling the diffuse effect of solar irradiance with formula
+        // Note: the value of G_dh to decrease more slowly when value cos_z is diminishing
+        G_dh = G_bh *.3;
 
-                //System.out.println(" radiusAndAxis : " + fmt3.format(radiusAndAxis)
-                //				+ "   cos_z : "+ fmt3.format(cos_z)
-                //				+ "   G_0 : " + fmt3.format(G_0)
-                //				+ "   G_bh : " + fmt3.format(G_bh)
-                //				+ "   G_dh : " + fmt3.format(G_dh)
-                //				+ "   G_h : " + fmt3.format(G_h));
+        // Finally,
+        G_h = G_bh + G_dh;
 
-                // TODO: Part 6 : calculate other components on Mars such as twilight and reflective irradiance
+        if (G_h > SurfaceFeatures.MEAN_SOLAR_IRRADIANCE)
+        	G_h = SurfaceFeatures.MEAN_SOLAR_IRRADIANCE;
+        else if (G_h < 20.94)
+        	G_h = 20.94;
 
-    	    	// Note: A lot of code use of this method depends on dark night time = 0 solar irradiance.  If we want to
-    	    	// have scattering produce > 0 irradiance at full night time, we need to modify code calling this method
-    	    	// as necessary for night time indication. - Scott
-            }
+        // TODO: Part 6 : calculate other components on Mars such as twilight and reflective irradiance
 
-            solarIrradianceMapCache.put(location, G_h);
-        }
+        // Note: A lot of code use of this method depends on dark night time = 0 solar irradiance.  If we want to
+        // have scattering produce > 0 irradiance at full night time, we need to modify code calling this method
+        // as necessary for night time indication. - Scott
 
-    	return solarIrradianceMapCache.get(location);
+        return G_h;
     }
 
+    /**
+     * Gets the optical depth of the atmosphere at a particular location on Mars.
+     * @param location the coordinate location on Mars.
+     * @return optical depth.
+     */
     public double getOpticalDepth(Coordinates location) {
-    	double result;
-    	if (opticalDepthMap.containsKey(location))
-    		result = opticalDepthMap.get(location);
-    	else
-    		result = opticalDepthStartingValue;
-    	return result;
+    	return weatherGrid.getValue(opticalDepthField, location);
+    }
+
+    /**
+     * Gets the grid the weather is computed on.
+     * @return weather grid.
+     */
+    public WeatherGrid getWeatherGrid() {
+        return weatherGrid;
     }
 
     /** Returns true if location is in a dark polar region.
@@ -409,6 +398,14 @@ public class SurfaceFeatures implements Serializable {
      *  @return true if location is in dark polar region
      */
     public boolean inDarkPolarRegion(Coordinates location) {
+        return inDarkPolarRegion(location.getPhi());
+    }
+
+    /** Returns true if a latitude is in a dark polar region.
+     *  @param phi the phi of the latitude (radians).
+     *  @return true if in dark polar region
+     */
+    boolean inDarkPolarRegion(double phi) {
 
         boolean result = false;
 
@@ -422,12 +419,12 @@ public class SurfaceFeatures implements Serializable {
 
         if (sunPhi < (Math.PI / 2D)) {
             darkPhi = Math.PI - ((Math.PI / 2D) - sunPhi);
-            if (location.getPhi() >= darkPhi) {
+            if (phi >= darkPhi) {
                 result = true;
             }
         } else {
             darkPhi = sunPhi - (Math.PI / 2D);
-            if (location.getPhi() < darkPhi) {
+            if (phi < darkPhi) {
                 result = true;
             }
         }
@@ -516,6 +513,9 @@ public class SurfaceFeatures implements Serializable {
 			solCache = newSol;
 		}
 */
+        // Update the solar irradiance for the whole planet.
+        updateSolarIrradiance();
+
         // Update any reserved explored locations.
         Iterator<ExploredLocation> i = exploredLocations.iterator();
         while (i.hasNext()) {
@@ -551,6 +551,9 @@ public class SurfaceFeatures implements Serializable {
         mars = null;
         missionManager = null;;
         sunDirection = null;
+        weatherGrid = null;
+        solarIrradianceField = null;
+        opticalDepthField = null;
         landmarks.clear();
         landmarks = null;
         mineralMap.destroy();
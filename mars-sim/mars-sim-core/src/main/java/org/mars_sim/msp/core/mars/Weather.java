@@ -8,6 +8,7 @@
 package org.mars_sim.msp.core.mars;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -70,8 +71,6 @@ implements Serializable {
 
 	private double viking_dt;
 
-	private double final_temperature = EXTREME_COLD;
-
 	private double TEMPERATURE_DELTA_PER_DEG_LAT = 0D;
 
 	private double dailyVariationAirPressure =  RandomUtil.getRandomDouble(.05); // tentatively only
@@ -84,10 +83,24 @@ implements Serializable {
 	private List<DailyWeather> todayWeather = new CopyOnWriteArrayList<>();
 	private List<Coordinates> coordinateList = new CopyOnWriteArrayList<>();
 
-	private transient Map<Coordinates, Double> temperatureCacheMap;
-	private transient Map<Coordinates, Double> airPressureCacheMap;
-	private transient Map<Coordinates, Double> windSpeedCacheMap;
-	private transient Map<Coordinates, Integer> windDirCacheMap;
+	/** The grid the weather is computed on, shared with the surface features. */
+	private WeatherGrid weatherGrid;
+	/** The temperature at each node of the weather grid (deg Celsius). */
+	private float[] temperatureField;
+	/** The air pressure at each node of the weather grid (kPa). */
+	private float[] airPressureField;
+	/** The wind speed at each node of the weather grid (m/s). */
+	private float[] windSpeedField;
+	/** The wind direction at each node of the weather grid (degrees). */
+	private float[] windDirectionField;
+	/** The terrain elevation at each node of the weather grid (km). */
+	private transient float[] elevationField;
+	/** True once the weather fields have been computed. */
+	private volatile boolean fieldsComputed;
+	/** The update interval the weather fields were last computed in. */
+	private int fieldInterval = -1;
+	/** The grid nodes in the coordinate list. */
+	private BitSet recordedCells;
 
 
 	private static Map<Integer, DustStorm> planetEncirclingDustStormMap = new ConcurrentHashMap<>();
@@ -131,13 +144,19 @@ implements Serializable {
 	}
 
 	/**
-	 * Checks if a location with certain coordinates already exists and add any new location
+	 * Checks if the grid node nearest a location is already recorded and add it if not.
 	 * @param location
 	 */
 	// 2015-03-17 Added computeAirDensity()
 	public void checkLocation(Coordinates location) {
-		if (!coordinateList.contains(location))
-			coordinateList.add(location);
+		checkFields();
+		int cell = weatherGrid.getNearestCell(location);
+		synchronized (recordedCells) {
+			if (!recordedCells.get(cell)) {
+				recordedCells.set(cell);
+				coordinateList.add(weatherGrid.getCoordinates(cell));
+			}
+		}
 	}
 
 	/**
@@ -163,154 +182,34 @@ implements Serializable {
 		return computeAirDensity(location);
 	}
 
-	/**
-	 * Gets the wind speed at a given location.
-	 * @return wind speed in m/s.
-	 */
-	// 2015-05-01 Added computeWindSpeed()
-	public double computeWindSpeed(Coordinates location) {
-		double result = 0;
-		//checkLocation(location);
-
-		double rand = RandomUtil.getRandomDouble(1) - RandomUtil.getRandomDouble(1);
-
-		if (windSpeedCacheMap == null)
-			windSpeedCacheMap = new ConcurrentHashMap<>();
-
-		if (windSpeedCacheMap.containsKey(location))
-			// TODO: get wind speed using theoretical model and/or empirical data
-			result = windSpeedCacheMap.get(location) + rand;
-		else {
-			result = rand;
-		}
-
-		if (result > 15)
-			result = 15;
-		if (result < 0)
-			result = 0;
-
-		windSpeedCacheMap.put(location, result);
-
-		return result;
-	}
-
 	/**
 	 * Gets the wind speed at a given location.
 	 * @return wind speed in m/s.
 	 */
 	// 2015-05-01 Added getWindSpeed()
 	public double getWindSpeed(Coordinates location) {
-		return computeWindSpeed(location);
+		checkFields();
+		return weatherGrid.getValue(windSpeedField, location);
 	}
 
+	/**
+	 * Gets the wind direction at a given location, from the nearest grid node.
+	 * @return wind direction in degrees.
+	 */
 	// 2015-05-01 Added getWindDirection()
 	public int getWindDirection(Coordinates location) {
-		return computeWindDirection(location);
-	}
-
-	// 2015-05-01 Added computeWindDirection()
-	public int computeWindDirection(Coordinates location) {
-		int result = 0;
-		//checkLocation(location);
-
-		int newDir = RandomUtil.getRandomInt(359);
-
-		if (windDirCacheMap == null)
-			windDirCacheMap = new ConcurrentHashMap<>();
-
-		if (windDirCacheMap.containsKey(location))
-			// TODO: should the ratio of the weight of the past direction and present direction of the wind be 9 to 1 ?
-			result = (windDirCacheMap.get(location) * 9 + newDir) / 10;
-		else {
-			result = newDir;
-		}
-
-		if (result > 360)
-			result = result - 360;
-
-		windDirCacheMap.put(location, result);
-
-		return result;
+		checkFields();
+		return (int) windDirectionField[weatherGrid.getNearestCell(location)];
 	}
 
 	/**
 	 * Computes the air pressure at a given location.
-	 * @return air pressure in Pa.
+	 * @return air pressure in kPa.
 	 */
 	// 2015-04-08 Added getAirPressure()
 	public double getAirPressure(Coordinates location) {
-		return getCachedAirPressure(location);
-	}
-
-	/**
-	 * Gets the cached air pressure at a given location.
-	 * @return air pressure in kPa.
-	 */
-	// 2015-03-06 Added getCachedAirPressure()
-	public double getCachedAirPressure(Coordinates location) {
 		checkLocation(location);
-/*
-		if (masterClock == null)
-			masterClock = Simulation.instance().getMasterClock();
-		if (marsClock == null)
-			marsClock = masterClock.getMarsClock();
-	    millisols =  (int) marsClock.getMillisol() ;
-		//System.out.println("oneTenthmillisols : " + oneTenthmillisols);
-*/
-	    // Lazy instantiation of airPressureCacheMap.
-	    if (airPressureCacheMap == null) {
-	        airPressureCacheMap = new ConcurrentHashMap<Coordinates, Double>();
-        }
-
-
-		if (millisols % MILLISOLS_PER_UPDATE == 1) {
-			//System.out.println("marsClock : "+ marsClock);
-			//System.out.println("millisols : "+ millisols);
-			double newP = calculateAirPressure(location);
-			airPressureCacheMap.put(location, newP);
-			//System.out.println("air pressure : "+cache);
-			return newP;
-		}
-		else {
-		    return getCachedReading(airPressureCacheMap, location);//, AIR_PRESSURE);
-		}
-	}
-
-	/**
-	 * Calculates the air pressure at a given location.
-	 * @return air pressure in kPa.
-	 */
-	public double calculateAirPressure(Coordinates location) {
-		// Get local elevation in meters.
-		if (terrainElevation == null)
-			terrainElevation = Simulation.instance().getMars().getSurfaceFeatures().getSurfaceTerrain();
-
-		double elevation = terrainElevation.getElevation(location) ; // in km since getElevation() return the value in km
-
-
-		// p = pressure0 * e(-((density0 * gravitation) / pressure0) * h)
-		//  Q: What are these enclosed values ==>  P = 0.009 * e(-(0.0155 * 3.0 / 0.009) * elevation)
-		//double pressure = SEA_LEVEL_AIR_PRESSURE * Math.exp(-1D *
-		//		SEA_LEVEL_AIR_DENSITY * SEA_LEVEL_GRAVITY / (SEA_LEVEL_AIR_PRESSURE * 1000)* elevation);
-
-		// why * 1000 ?
-
-		// elevation is in km. it should probably read
-		// double pressure = SEA_LEVEL_AIR_PRESSURE * Math.exp(-1D *
-		//		SEA_LEVEL_AIR_DENSITY * SEA_LEVEL_GRAVITY / (SEA_LEVEL_AIR_PRESSURE)* elevation * 1000);
-
-		// If using the precalculated values at http://www.grc.nasa.gov/WWW/k-12/airplane/atmosmrm.html for modeling Mars ,
-		// p = .699 * exp(-0.00009 * h) in kilo-pascal or kPa
-		double pressure2 = .699 * Math.exp(-0.00009 * elevation * 1000);
-		//System.out.println("elevation is " + elevation  + "   pressure2 is " + pressure2);
-
-		// Added randomness
-		double up = RandomUtil.getRandomDouble(.05);
-		double down = RandomUtil.getRandomDouble(.05);
-
-		pressure2 = pressure2 + up - down;
-
-		return pressure2;
+		return weatherGrid.getValue(airPressureField, location);
 	}
 
 	/**
@@ -318,44 +217,25 @@ implements Serializable {
 	 * @return temperature in deg Celsius.
 	 */
 	public double getTemperature(Coordinates location) {
-		return getCachedTemperature(location);
+		checkLocation(location);
+		return weatherGrid.getValue(temperatureField, location);
 	}
 
 	/**
-	 * Gets the cached temperature at a given location.
-	 * @return temperature in deg Celsius.
+	 * Computes the weather fields if they haven't been yet.
 	 */
-	public double getCachedTemperature(Coordinates location) {
-		checkLocation(location);
-/*
-		if (masterClock == null)
-			masterClock = Simulation.instance().getMasterClock();
-		if (marsClock == null)
-			marsClock = masterClock.getMarsClock();
-	    millisols =  (int) marsClock.getMillisol() ;
-*/
-	    // Lazy instantiation of temperatureCacheMap.
-	    if (temperatureCacheMap == null) {
-            temperatureCacheMap = new ConcurrentHashMap<Coordinates, Double>();
-        }
-
-		if (millisols % MILLISOLS_PER_UPDATE == 0) {
-			double newT = calculateTemperature(location);
-			temperatureCacheMap.put(location, newT);
-			//System.out.println("Weather.java: temperatureCache is " + temperatureCache);
-			return newT;
-		}
-		else {
-		    return getCachedReading(temperatureCacheMap, location);//, TEMPERATURE);
+	private void checkFields() {
+		if (!fieldsComputed) {
+			synchronized (this) {
+				if (!fieldsComputed) updateFields();
+			}
 		}
 	}
 
-
 	/**
-	 * Calculates the surface temperature at a given location.
-	 * @return temperature in Celsius.
+	 * Computes the temperature, air pressure and wind fields for the whole planet.
 	 */
-	public double calculateTemperature(Coordinates location) {
+	private synchronized void updateFields() {
 
 		if (surfaceFeatures == null)
 			surfaceFeatures = Simulation.instance().getMars().getSurfaceFeatures();
@@ -363,168 +243,136 @@ implements Serializable {
 		if (terrainElevation == null)
 			terrainElevation = surfaceFeatures.getSurfaceTerrain();
 
-		if (surfaceFeatures.inDarkPolarRegion(location)){
-			//known temperature for cold days at the pole
-			final_temperature = -150D + RandomUtil.getRandomDouble(3) - RandomUtil.getRandomDouble(3);
-
-		} else {
-			// 2015-01-28 We arrived at this temperature model based on Viking 1 & Opportunity Rover
-			// by assuming the temperature is the linear combination of the following factors:
-			// 1. Time of day, longitude and solar irradiance,
-			// 2. Terrain elevation,
-			// 3. Latitude,
-			// 4. Seasonal variation (dependent upon latitude)
-			// 5. Randomness
-			// 6. Wind speed
-			/*
-			if (masterClock == null)
-				masterClock = Simulation.instance().getMasterClock();
+		if (masterClock == null)
+			masterClock = Simulation.instance().getMasterClock();
 
+		if (marsClock == null)
 			marsClock = masterClock.getMarsClock();
 
-			// (1). Time of day, longitude (included inside in solar irradiance)
-			double theta = location.getTheta() / Math.PI * 500D; // convert theta in longitude in radian to millisols;
-			//System.out.println(" theta: " + theta);
-	        double time  = marsClock.getMillisol();
-	        double x_offset = time + theta - VIKING_LONGITUDE_OFFSET_IN_MILLISOLS ;
-	        double equatorial_temperature = 27.5D * Math.sin  ( Math.PI * x_offset / 500D) - 58.5D ;
-			equatorial_temperature = Math.round (equatorial_temperature * 100.0)/100.0;
-			System.out.println("factor : " + Math.sin  ( Math.PI * x_offset / 500D) + "\tequatorial T: "+ equatorial_temperature);
-			//System.out.print("Time: " + Math.round (time) + "  T: " + standard_temperature);
-*/
-			double light_factor = 0;
-			double sunlight = 0 ;
-			sunlight = surfaceFeatures.getSolarIrradiance(location);
-
-			//light_factor = 2D * ( sunlight / SurfaceFeatures.MEAN_SOLAR_IRRADIANCE - .5);
-			light_factor = sunlight / SurfaceFeatures.MEAN_SOLAR_IRRADIANCE;
-
-			// Equation below is modeled after Viking's data.
-			double equatorial_temperature = 27.5D * light_factor - 58.5D ;
-			equatorial_temperature = Math.round (equatorial_temperature * 100.0)/100.0;
-			//System.out.println("sunlight : " + sunlight + "\t\tequatorial T: "+ equatorial_temperature);
-
-
-		/*
-			// ...getSurfaceSunlight * (80D / 127D (max sun))
-			// if sun full we will get -40D the avg, if night or twilight we will get
-			// a smooth temperature change and in the night -120D
-		    temperature = temperature + surfaceFeatures.getSurfaceSunlight(location) * 80D;
-		*/
-
-			// (2). Terrain Elevation
-			// use http://www.grc.nasa.gov/WWW/k-12/airplane/atmosmrm.html for modeling Mars with precalculated values
-			// The lower atmosphere runs from the surface of Mars to 7,000 meters.
-			// 	T = -31 - 0.000998 * h
-			// The upper stratosphere model is used for altitudes above 7,000 meters.
-			// T = -23.4 - 0.00222 * h
-			double elevation =  terrainElevation.getElevation(location); // in km from getElevation(location)
-			double terrain_dt;
-
-			// Assume a typical temperature of -31 deg celsius
-			if (elevation < 7)
-				terrain_dt = - 0.000998 * elevation * 1000;
-			else // delta = -31 + 23.4 = 7.6
-				terrain_dt = 7.6 - 0.00222 * elevation * 1000;
-
-			terrain_dt = Math.round (terrain_dt * 100.0)/ 100.0;
-			//System.out.print("  terrain_dt: " + terrain_dt );
-
-
-			// (3). Latitude
-			double lat_degree = location.getPhi2Lat();
+		if (weatherGrid == null) {
+			weatherGrid = surfaceFeatures.getWeatherGrid();
+			temperatureField = weatherGrid.createField(0F);
+			airPressureField = weatherGrid.createField(0F);
+			windSpeedField = weatherGrid.createField(0F);
+			windDirectionField = weatherGrid.createField(0F);
+			recordedCells = new BitSet(weatherGrid.getCellNum());
+		}
 
-			//System.out.print("  degree: " + Math.round (degree * 10.0)/10.0 );
-			double lat_dt = -15D - 15D * Math.sin( 2D * lat_degree * Math.PI/180D + Math.PI/2D) ;
-			lat_dt = Math.round (lat_dt * 100.0)/ 100.0;
-			//System.out.println("  lat_dt: " + lat_dt );
+		if (elevationField == null) {
+			// The terrain doesn't change, so look it up once.
+			float[] elevation = weatherGrid.createField(0F);
+			for (int cell = 0; cell < elevation.length; cell++) {
+				elevation[cell] = (float) terrainElevation.getElevation(weatherGrid.getCoordinates(cell)); // in km
+			}
+			elevationField = elevation;
+		}
 
-			// (4). Seasonal variation
-			double lat_adjustment = TEMPERATURE_DELTA_PER_DEG_LAT * lat_degree; // an educated guess
-			//marsClock = masterClock.getMarsClock();
-			//System.out.println(marsClock);
-			int solElapsed = MarsClock.getSolOfYear(marsClock);
-			double seasonal_dt = lat_adjustment * Math.sin( 2 * Math.PI/1000D * ( solElapsed - 142));
-			seasonal_dt = Math.round (seasonal_dt * 100.0)/ 100.0;
-			//System.out.println("  seasonal_dt: " + seasonal_dt );
+		final float[] sunlight = surfaceFeatures.getSolarIrradianceField();
+		final int solElapsed = MarsClock.getSolOfYear(marsClock);
+		final long seed = WeatherGrid.createNoiseSeed();
+		final boolean first = !fieldsComputed;
+		weatherGrid.update(row -> updateRow(row, sunlight, solElapsed, seed, first));
+		fieldsComputed = true;
+	}
 
+	/**
+	 * Computes the temperature, air pressure and wind at the nodes of a row of the weather grid.
+	 * @param row the row.
+	 * @param sunlight the solar irradiance field.
+	 * @param solElapsed the sol of the year.
+	 * @param seed the noise seed of the update.
+	 * @param first true if there are no previous values.
+	 */
+	private void updateRow(int row, float[] sunlight, int solElapsed, long seed, boolean first) {
 
-			// (5). Add randomness
-			double up = RandomUtil.getRandomDouble(2);
-			double down = RandomUtil.getRandomDouble(2);
+		double phi = weatherGrid.getPhi(row);
+		boolean darkPolarRegion = surfaceFeatures.inDarkPolarRegion(phi);
 
-			// (6). Add Windspped
+		// 2015-01-28 We arrived at this temperature model based on Viking 1 & Opportunity Rover
+		// by assuming the temperature is the linear combination of the following factors:
+		// 1. Time of day, longitude and solar irradiance,
+		// 2. Terrain elevation,
+		// 3. Latitude,
+		// 4. Seasonal variation (dependent upon latitude)
+		// 5. Randomness
+		// 6. Wind speed
 
-			double wind_dt = 0;
-			if (windSpeedCacheMap == null)
-				windSpeedCacheMap = new ConcurrentHashMap<>();
+		// (3). Latitude
+		double lat_degree = Math.abs(90D - phi * 180D / Math.PI);
+		double lat_dt = -15D - 15D * Math.sin( 2D * lat_degree * Math.PI/180D + Math.PI/2D) ;
 
-			if (windSpeedCacheMap.containsKey(location))
-				wind_dt = windSpeedCacheMap.get(location) * 1.5D;
+		// (4). Seasonal variation
+		double lat_adjustment = TEMPERATURE_DELTA_PER_DEG_LAT * lat_degree; // an educated guess
+		double seasonal_dt = lat_adjustment * Math.sin( 2 * Math.PI/1000D * ( solElapsed - 142));
 
-			final_temperature = equatorial_temperature + viking_dt - lat_dt - terrain_dt + seasonal_dt - wind_dt + up - down;
+		int start = weatherGrid.getCell(row, 0);
+		int end = start + weatherGrid.getColumnNum();
+		for (int cell = start; cell < end; cell++) {
 
-			double previous_t = 0;
-			if (temperatureCacheMap == null) {
-			    temperatureCacheMap = new ConcurrentHashMap<Coordinates, Double>();
+			// Wind speed
+			// TODO: get wind speed using theoretical model and/or empirical data
+			double previousWindSpeed = windSpeedField[cell];
+			double windSpeed = previousWindSpeed + WeatherGrid.getNoiseDifference(seed + 2L, cell);
+			if (windSpeed > 15)
+				windSpeed = 15;
+			if (windSpeed < 0)
+				windSpeed = 0;
+			windSpeedField[cell] = (float) windSpeed;
+
+			// Wind direction
+			// TODO: should the ratio of the weight of the past direction and present direction of the wind be 9 to 1 ?
+			int newDir = (int) (WeatherGrid.getNoise(seed + 3L, cell) * 360D);
+			int windDir = first ? newDir : ((int) windDirectionField[cell] * 9 + newDir) / 10;
+			windDirectionField[cell] = windDir;
+
+			// Air pressure
+			// If using the precalculated values at http://www.grc.nasa.gov/WWW/k-12/airplane/atmosmrm.html for modeling Mars ,
+			// p = .699 * exp(-0.00009 * h) in kilo-pascal or kPa
+			double elevation = elevationField[cell];
+			airPressureField[cell] = (float) (.699 * Math.exp(-0.00009 * elevation * 1000)
+					+ .05 * WeatherGrid.getNoiseDifference(seed + 1L, cell));
+
+			// Temperature
+			double temperature;
+			if (darkPolarRegion) {
+				//known temperature for cold days at the pole
+				temperature = -150D + 3D * WeatherGrid.getNoiseDifference(seed, cell);
 			}
-
-			if (temperatureCacheMap.containsKey(location)) {
-				previous_t = temperatureCacheMap.get(location);
+			else {
+				// (1). Time of day, longitude and solar irradiance
+				double light_factor = sunlight[cell] / SurfaceFeatures.MEAN_SOLAR_IRRADIANCE;
+				// Equation below is modeled after Viking's data.
+				double equatorial_temperature = 27.5D * light_factor - 58.5D ;
+
+				// (2). Terrain Elevation
+				// use http://www.grc.nasa.gov/WWW/k-12/airplane/atmosmrm.html for modeling Mars with precalculated values
+				// The lower atmosphere runs from the surface of Mars to 7,000 meters.
+				// 	T = -31 - 0.000998 * h
+				// The upper stratosphere model is used for altitudes above 7,000 meters.
+				// T = -23.4 - 0.00222 * h
+				double terrain_dt;
+				// Assume a typical temperature of -31 deg celsius
+				if (elevation < 7)
+					terrain_dt = - 0.000998 * elevation * 1000;
+				else // delta = -31 + 23.4 = 7.6
+					terrain_dt = 7.6 - 0.00222 * elevation * 1000;
+
+				// (5). Add randomness
+				double random_dt = 2D * WeatherGrid.getNoiseDifference(seed, cell);
+
+				// (6). Add Windspeed
+				double wind_dt = previousWindSpeed * 1.5D;
+
+				temperature = equatorial_temperature + viking_dt - lat_dt - terrain_dt + seasonal_dt - wind_dt + random_dt;
+
+				// Smooth with the previous temperature.
+				if (!first)
+					temperature = (temperature + temperatureField[cell]) / 2D;
 			}
-
-			final_temperature = Math.round ((final_temperature + previous_t )/2.0 *100.0)/100.0;
-			//System.out.println("  final T: " + final_temperature );
+			temperatureField[cell] = (float) temperature;
 		}
-
-		//temperatureCacheMap.put(location, final_temperature);
-
-		return final_temperature;
 	}
 
-	/**
-	 * Clears weather-related parameter cache map to prevent excessive build-up of key-value sets
-	 */
-	// 2015-03-06 Added clearMap()
-    public synchronized void clearMap() {
-        if (temperatureCacheMap != null) {
-            temperatureCacheMap.clear();
-        }
-
-        if (airPressureCacheMap != null) {
-            airPressureCacheMap.clear();
-        }
-    }
-
-	/**
-	 * Provides the surface temperature /air pressure at a given location from the temperatureCacheMap.
-	 * If calling the given location for the first time from the cache map, call update temperature/air pressure instead
-	 * @return temperature or pressure
-	 */
-	// 2015-03-06 Added getCachedReading()
-    public double getCachedReading(Map<Coordinates, Double> map, Coordinates location) {//, int value) {
-    	double result;
-
-       	if (map.containsKey(location)) {
-       		result = map.get(location);
-    	}
-    	else {
-    		double cache = 0;
-    		//if (value == TEMPERATURE )
-    		if (map.equals(temperatureCacheMap))
-    			cache = calculateTemperature(location);
-    		//else if (value == AIR_PRESSURE )
-    		else  if (map.equals(airPressureCacheMap))
-    			cache = calculateAirPressure(location);
-
-			map.put(location, cache);
-
-    		result = cache;
-    	}
-		//System.out.println("air pressure cache : "+ result);
-    	return result;
-    }
-
 	/**
 	 * Time passing in the simulation.
 	 * @param time time in millisols
@@ -542,9 +390,17 @@ implements Serializable {
 
 		if (marsClock == null)
 			marsClock = masterClock.getMarsClock();
-	    // Sample a data point every 50 millisols, (compute the average) and store the data
 	    millisols =  (int) marsClock.getMillisol();
 
+	    // Update the weather fields for the whole planet once per update interval
+	    int interval = millisols / MILLISOLS_PER_UPDATE;
+	    if (interval != fieldInterval) {
+	    	fieldInterval = interval;
+	    	updateFields();
+	    }
+
+	    // Sample a data point every 50 millisols, (compute the average) and store the data
+
 	    if (millisols % 50 == 0) {
 	    	//List<DailyWeather> todayWeather = new CopyOnWriteArrayList<>();
 	    	//Iterator<Coordinates> list = coordinateList.iterator();
@@ -763,14 +619,13 @@ implements Serializable {
 		dailyRecordMap = null;
 		todayWeather = null;
 		coordinateList = null;
-		if (temperatureCacheMap != null) {
-		    temperatureCacheMap.clear();
-		    temperatureCacheMap = null;
-		}
-		if (airPressureCacheMap != null) {
-		    airPressureCacheMap.clear();
-		    airPressureCacheMap = null;
-		}
+		weatherGrid = null;
+		temperatureField = null;
+		airPressureField = null;
+		windSpeedField = null;
+		windDirectionField = null;
+		elevationField = null;
+		recordedCells = null;
 		marsClock = null;
 		surfaceFeatures = null;
 		terrainElevation = null;
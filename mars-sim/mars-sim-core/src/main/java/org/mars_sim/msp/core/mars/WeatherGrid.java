@@ -0,0 +1,268 @@
+/**
+ * Mars Simulation Project
+ * WeatherGrid.java
+ * @version 3.08 2015-08-09
+ */
+package org.mars_sim.msp.core.mars;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.mars_sim.msp.core.Coordinates;
+import org.mars_sim.msp.core.RandomUtil;
+
+/**
+ * A latitude/longitude grid covering the whole of Mars, for weather fields held in
+ * primitive arrays.
+ * The grid nodes are evenly spaced in phi from the north pole (row 0) to the south pole,
+ * and in theta from 0 around the planet, so a field is a row-major array of one value per
+ * node and its memory doesn't depend on how many locations are looked up. Fields are
+ * updated for the whole planet row by row, and read at any location by bilinear
+ * interpolation between the four surrounding nodes.
+ */
+public class WeatherGrid
+implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The default spacing of the grid nodes (degrees). */
+	public static final double DEFAULT_RESOLUTION = 2D;
+	/** The finest spacing of the grid nodes (degrees). */
+	public static final double MIN_RESOLUTION = .25D;
+	/** The coarsest spacing of the grid nodes (degrees). */
+	public static final double MAX_RESOLUTION = 30D;
+
+	/** The number of nodes from which rows are updated in parallel. */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	private static final double TWO_PI = 2D * Math.PI;
+
+	// Data members
+	/** The spacing of the grid nodes (degrees). */
+	private double resolution;
+	/** The number of rows, including both poles. */
+	private int rowNum;
+	/** The number of columns around the planet. */
+	private int columnNum;
+	/** The phi between rows (radians). */
+	private double phiStep;
+	/** The theta between columns (radians). */
+	private double thetaStep;
+
+	/**
+	 * Constructor.
+	 * @param resolution the spacing of the grid nodes (degrees).
+	 */
+	public WeatherGrid(double resolution) {
+		if (Double.isNaN(resolution) || (resolution < MIN_RESOLUTION) || (resolution > MAX_RESOLUTION)) {
+			throw new IllegalArgumentException("Weather grid resolution must be from " + MIN_RESOLUTION
+					+ " to " + MAX_RESOLUTION + " degrees: " + resolution);
+		}
+		this.resolution = resolution;
+		rowNum = (int) Math.round(180D / resolution) + 1;
+		columnNum = (int) Math.round(360D / resolution);
+		phiStep = Math.PI / (rowNum - 1);
+		thetaStep = TWO_PI / columnNum;
+	}
+
+	/**
+	 * Gets the spacing of the grid nodes.
+	 * @return resolution (degrees).
+	 */
+	public double getResolution() {
+		return resolution;
+	}
+
+	/**
+	 * Gets the number of rows, from the north pole to the south pole.
+	 * @return number of rows.
+	 */
+	public int getRowNum() {
+		return rowNum;
+	}
+
+	/**
+	 * Gets the number of columns around the planet.
+	 * @return number of columns.
+	 */
+	public int getColumnNum() {
+		return columnNum;
+	}
+
+	/**
+	 * Gets the number of grid nodes, which is the length of a field.
+	 * @return number of nodes.
+	 */
+	public int getCellNum() {
+		return rowNum * columnNum;
+	}
+
+	/**
+	 * Gets the phi of a row.
+	 * @param row the row.
+	 * @return phi (radians).
+	 */
+	public double getPhi(int row) {
+		return row * phiStep;
+	}
+
+	/**
+	 * Gets the theta of a column.
+	 * @param column the column.
+	 * @return theta (radians).
+	 */
+	public double getTheta(int column) {
+		return column * thetaStep;
+	}
+
+	/**
+	 * Gets the index of a grid node in a field.
+	 * @param row the row.
+	 * @param column the column.
+	 * @return index.
+	 */
+	public int getCell(int row, int column) {
+		return row * columnNum + column;
+	}
+
+	/**
+	 * Creates a field with a value at every grid node.
+	 * @param value the initial value.
+	 * @return the field.
+	 */
+	public float[] createField(float value) {
+		float[] field = new float[getCellNum()];
+		if (value != 0F) {
+			Arrays.fill(field, value);
+		}
+		return field;
+	}
+
+	/**
+	 * Updates fields for the whole planet by running an updater on every row.
+	 * Rows are updated in parallel on larger grids, so the updater must only write
+	 * the cells of the row it is given.
+	 * @param rowUpdater the updater, given the row to update.
+	 */
+	public void update(IntConsumer rowUpdater) {
+		IntStream rows = IntStream.range(0, rowNum);
+		if (getCellNum() >= PARALLEL_THRESHOLD) {
+			rows = rows.parallel();
+		}
+		rows.forEach(rowUpdater);
+	}
+
+	/**
+	 * Gets the value of a field at a location, interpolated between the surrounding grid nodes.
+	 * @param field the field.
+	 * @param location the location.
+	 * @return the value.
+	 */
+	public double getValue(float[] field, Coordinates location) {
+		return getValue(field, location.getPhi(), location.getTheta());
+	}
+
+	/**
+	 * Gets the value of a field at a location, interpolated between the surrounding grid nodes.
+	 * @param field the field.
+	 * @param phi the phi of the location (radians).
+	 * @param theta the theta of the location (radians).
+	 * @return the value.
+	 */
+	public double getValue(float[] field, double phi, double theta) {
+		double y = phi / phiStep;
+		int row;
+		if (y <= 0D) {
+			row = 0;
+			y = 0D;
+		}
+		else {
+			row = Math.min((int) y, rowNum - 2);
+			y = Math.min(y - row, 1D);
+		}
+
+		double x = normalizeTheta(theta) / thetaStep;
+		int column = Math.min((int) x, columnNum - 1);
+		x = x - column;
+		int nextColumn = (column + 1 == columnNum) ? 0 : column + 1;
+
+		int cell = row * columnNum;
+		int nextCell = cell + columnNum;
+		double top = field[cell + column] + x * (field[cell + nextColumn] - field[cell + column]);
+		double bottom = field[nextCell + column] + x * (field[nextCell + nextColumn] - field[nextCell + column]);
+		return top + y * (bottom - top);
+	}
+
+	/**
+	 * Gets the grid node nearest to a location.
+	 * @param location the location.
+	 * @return the index of the node.
+	 */
+	public int getNearestCell(Coordinates location) {
+		int row = (int) Math.round(location.getPhi() / phiStep);
+		row = Math.max(0, Math.min(row, rowNum - 1));
+		int column = (int) Math.round(normalizeTheta(location.getTheta()) / thetaStep);
+		if (column >= columnNum) {
+			column = 0;
+		}
+		return getCell(row, column);
+	}
+
+	/**
+	 * Gets the coordinates of a grid node.
+	 * @param cell the index of the node.
+	 * @return coordinates.
+	 */
+	public Coordinates getCoordinates(int cell) {
+		return new Coordinates(getPhi(cell / columnNum), getTheta(cell % columnNum));
+	}
+
+	private static double normalizeTheta(double theta) {
+		double result = theta % TWO_PI;
+		if (result < 0D) {
+			result += TWO_PI;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets a new seed for the noise of a field update.
+	 * The seed is drawn from the simulation random streams, so runs with the same seed
+	 * repeat however the update is split between threads.
+	 * @return seed.
+	 */
+	public static long createNoiseSeed() {
+		// The ceiling is inclusive, so draw from 0 to Integer.MAX_VALUE - 1, 31 bits each.
+		return ((long) RandomUtil.getRandomInt(Integer.MAX_VALUE - 1) << 31) ^ RandomUtil.getRandomInt(Integer.MAX_VALUE - 1);
+	}
+
+	/**
+	 * Gets the noise at a grid node, a hash of the seed and node rather than a draw from a
+	 * random stream so nodes can be updated in any order.
+	 * @param seed the seed of the field update.
+	 * @param cell the index of the node.
+	 * @return noise from 0 (inclusive) to 1 (exclusive).
+	 */
+	public static double getNoise(long seed, int cell) {
+		// The SplitMix64 finalizer.
+		long z = seed + (cell + 1L) * 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		z = z ^ (z >>> 31);
+		return (z >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Gets the difference of two noise values at a grid node, like subtracting one random
+	 * value from another.
+	 * @param seed the seed of the field update.
+	 * @param cell the index of the node.
+	 * @return noise from -1 to 1, most likely near 0.
+	 */
+	public static double getNoiseDifference(long seed, int cell) {
+		return getNoise(seed, cell) - getNoise(~seed, cell);
+	}
+}
@@ -23,6 +23,7 @@ import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.SimulationConfig;
 import org.mars_sim.msp.core.Unit;
 import org.mars_sim.msp.core.UnitEventType;
+import org.mars_sim.msp.core.UnitManager;
 import org.mars_sim.msp.core.person.ai.Mind;
 import org.mars_sim.msp.core.person.ai.job.Job;
 import org.mars_sim.msp.core.person.ai.job.JobHistory;
@@ -665,6 +666,10 @@ implements VehicleOperator, MissionMember, Serializable {
         if (associatedSettlement != newSettlement) {
             Settlement oldSettlement = associatedSettlement;
             associatedSettlement = newSettlement;
+            UnitManager unitManager = getUnitManager();
+            if (unitManager != null) {
+                unitManager.updateAssociatedSettlement(this, oldSettlement, newSettlement);
+            }
             fireUnitUpdate(UnitEventType.ASSOCIATED_SETTLEMENT_EVENT, associatedSettlement);
             if (oldSettlement != null) {
             	setBuriedSettlement(oldSettlement);
@@ -6,8 +6,11 @@
  */
 package org.mars_sim.msp.core.person;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,7 +20,9 @@ import org.jdom.Element;
 
 /**
  * Provides configuration information about people units.
- * Uses a JDOM document to get the information.
+ * The JDOM document is compiled into typed values when the configuration is loaded,
+ * so the getters don't walk the document or parse attributes, and the document
+ * isn't kept.
  */
 public class PersonConfig
 implements Serializable {
@@ -81,36 +86,159 @@ implements Serializable {
 	private static final String DESSERT = "favorite-dessert";
 	private static final String ACTIVITY = "favorite-activity";
 	
-	private Document personDoc;
 	private List<String> nameList;
+	/** The gender of each person name. */
+	private Map<String, PersonGender> nameGenders;
+	/** The percentage of each MBTI personality type. */
+	private Map<String, Double> personalityTypePercentages;
+	/** The configured people. */
+	private ConfiguredPerson[] configuredPeople;
+
+	// Compiled values
+	private double oxygenConsumptionRate;
+	private double waterConsumptionRate;
+	private double foodConsumptionRate;
+	private double dessertConsumptionRate;
+	private double oxygenDeprivationTime;
+	private double waterDeprivationTime;
+	private double foodDeprivationTime;
+	private double starvationStartTime;
+	private double minAirPressure;
+	private double decompressionTime;
+	private double minTemperature;
+	private double maxTemperature;
+	private double freezingTime;
+	private double stressBreakdownChance;
+	private double genderRatio;
 
 	/**
 	 * Constructor
 	 * @param personDoc the person congif DOM document.
 	 */
 	public PersonConfig(Document personDoc) {
-		this.personDoc = personDoc;
+		compile(personDoc);
 	}
 
 	/**
-	 * Gets a list of person names for settlers.
-	 * @return List of person names.
-	 * @throws Exception if person names could not be found.
+	 * Compiles the person configuration document.
+	 * @param personDoc the person config DOM document.
 	 */
-    @SuppressWarnings("unchecked")
-	public List<String> getPersonNameList() {
+	private void compile(Document personDoc) {
+		Element root = personDoc.getRootElement();
+		oxygenConsumptionRate = getValueAsDouble(root, OXYGEN_CONSUMPTION_RATE);
+		waterConsumptionRate = getValueAsDouble(root, WATER_CONSUMPTION_RATE);
+		foodConsumptionRate = getValueAsDouble(root, FOOD_CONSUMPTION_RATE);
+		dessertConsumptionRate = getValueAsDouble(root, DESSERT_CONSUMPTION_RATE);
+		oxygenDeprivationTime = getValueAsDouble(root, OXYGEN_DEPRIVATION_TIME);
+		waterDeprivationTime = getValueAsDouble(root, WATER_DEPRIVATION_TIME);
+		foodDeprivationTime = getValueAsDouble(root, FOOD_DEPRIVATION_TIME);
+		starvationStartTime = getValueAsDouble(root, STARVATION_START_TIME);
+		minAirPressure = getValueAsDouble(root, MIN_AIR_PRESSURE);
+		decompressionTime = getValueAsDouble(root, DECOMPRESSION_TIME);
+		minTemperature = getValueAsDouble(root, MIN_TEMPERATURE);
+		maxTemperature = getValueAsDouble(root, MAX_TEMPERATURE);
+		freezingTime = getValueAsDouble(root, FREEZING_TIME);
+		stressBreakdownChance = getValueAsDouble(root, STRESS_BREAKDOWN_CHANCE);
+		genderRatio = getValueAsDouble(root, GENDER_MALE_PERCENTAGE) / 100D;
+
+		compilePersonNames(root);
+		compilePersonalityTypes(root);
+		compileConfiguredPeople(root);
+	}
+
+	/**
+	 * Reads the configuration, compiling the document of a configuration saved before
+	 * it was compiled.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		alphaCrewName = (List<String>) fields.get("alphaCrewName", null);
+		alphaCrewGender = (List<String>) fields.get("alphaCrewGender", null);
+		alphaCrewPersonality = (List<String>) fields.get("alphaCrewPersonality", null);
+		alphaCrewJob = (List<String>) fields.get("alphaCrewJob", null);
+		alphaCrewFavoriteMainDish = (List<String>) fields.get("alphaCrewFavoriteMainDish", null);
+		alphaCrewFavoriteSideDish = (List<String>) fields.get("alphaCrewFavoriteSideDish", null);
+		alphaCrewFavoriteDessert = (List<String>) fields.get("alphaCrewFavoriteDessert", null);
+		alphaCrewFavoriteActivity = (List<String>) fields.get("alphaCrewFavoriteActivity", null);
+
+		if (fields.getObjectStreamClass().getField("personDoc") != null) {
+			compile((Document) fields.get("personDoc", null));
+			return;
+		}
+		nameList = (List<String>) fields.get("nameList", null);
+		nameGenders = (Map<String, PersonGender>) fields.get("nameGenders", null);
+		personalityTypePercentages = (Map<String, Double>) fields.get("personalityTypePercentages", null);
+		configuredPeople = (ConfiguredPerson[]) fields.get("configuredPeople", null);
+		oxygenConsumptionRate = fields.get("oxygenConsumptionRate", 0D);
+		waterConsumptionRate = fields.get("waterConsumptionRate", 0D);
+		foodConsumptionRate = fields.get("foodConsumptionRate", 0D);
+		dessertConsumptionRate = fields.get("dessertConsumptionRate", 0D);
+		oxygenDeprivationTime = fields.get("oxygenDeprivationTime", 0D);
+		waterDeprivationTime = fields.get("waterDeprivationTime", 0D);
+		foodDeprivationTime = fields.get("foodDeprivationTime", 0D);
+		starvationStartTime = fields.get("starvationStartTime", 0D);
+		minAirPressure = fields.get("minAirPressure", 0D);
+		decompressionTime = fields.get("decompressionTime", 0D);
+		minTemperature = fields.get("minTemperature", 0D);
+		maxTemperature = fields.get("maxTemperature", 0D);
+		freezingTime = fields.get("freezingTime", 0D);
+		stressBreakdownChance = fields.get("stressBreakdownChance", 0D);
+		genderRatio = fields.get("genderRatio", 0D);
+	}
+
+	/**
+	 * Compiles the person names and their genders.
+	 */
+	@SuppressWarnings("unchecked")
+	private void compilePersonNames(Element root) {
+		nameList = new ArrayList<String>();
+		nameGenders = new HashMap<String, PersonGender>();
+		Element personNameList = root.getChild(PERSON_NAME_LIST);
+		List<Element> personNames = personNameList.getChildren(PERSON_NAME);
+		for (Element nameElement : personNames) {
+			String personName = nameElement.getAttributeValue(VALUE);
+			nameList.add(personName);
+			// The last entry of a name gives its gender.
+			nameGenders.put(personName, PersonGender.valueOfIgnoreCase(nameElement.getAttributeValue(GENDER)));
+		}
+	}
 
-		if (nameList == null) {
-			nameList = new ArrayList<String>();
-			Element root = personDoc.getRootElement();
-			Element personNameList = root.getChild(PERSON_NAME_LIST);
-			List<Element> personNames = personNameList.getChildren(PERSON_NAME);
+	/**
+	 * Compiles the MBTI personality type percentages.
+	 */
+	@SuppressWarnings("unchecked")
+	private void compilePersonalityTypes(Element root) {
+		personalityTypePercentages = new HashMap<String, Double>();
+		Element personalityTypeList = root.getChild(PERSONALITY_TYPES);
+		List<Element> personalityTypes = personalityTypeList.getChildren(MBTI);
+		for (Element mbtiElement : personalityTypes) {
+			String type = mbtiElement.getAttributeValue(TYPE);
+			// The first entry of a type gives its percentage.
+			if (!personalityTypePercentages.containsKey(type))
+				personalityTypePercentages.put(type, Double.parseDouble(mbtiElement.getAttributeValue(PERCENTAGE)));
+		}
+	}
 
-			for (Element nameElement : personNames) {
-				nameList.add(nameElement.getAttributeValue(VALUE));
-			}
+	/**
+	 * Compiles the configured people.
+	 */
+	@SuppressWarnings("unchecked")
+	private void compileConfiguredPeople(Element root) {
+		Element personList = root.getChild(PERSON_LIST);
+		List<Element> personNodes = (personList != null) ? personList.getChildren(PERSON) : new ArrayList<Element>(0);
+		configuredPeople = new ConfiguredPerson[personNodes.size()];
+		for (int x = 0; x < configuredPeople.length; x++) {
+			configuredPeople[x] = new ConfiguredPerson(personNodes.get(x));
 		}
+	}
 
+	/**
+	 * Gets a list of person names for settlers.
+	 * @return List of person names.
+	 * @throws Exception if person names could not be found.
+	 */
+	public List<String> getPersonNameList() {
 		return nameList;
 	}
 
@@ -120,19 +248,9 @@ implements Serializable {
 	 * @return {@link PersonGender} the gender of the person name
 	 * @throws Exception if person names could not be found.
 	 */
-	@SuppressWarnings("unchecked")
 	public PersonGender getPersonGender(String name) {
-		PersonGender result = PersonGender.UNKNOWN;
-
-		Element root = personDoc.getRootElement();
-		Element personNameList = root.getChild(PERSON_NAME_LIST);
-		List<Element> personNames = personNameList.getChildren(PERSON_NAME);
-		for (Element nameElement : personNames ) {
-			String personName = nameElement.getAttributeValue(VALUE);
-			if (personName.equals(name)) result = PersonGender.valueOfIgnoreCase(nameElement.getAttributeValue(GENDER));
-		}
-
-		return result;
+		PersonGender result = nameGenders.get(name);
+		return (result != null) ? result : PersonGender.UNKNOWN;
 	}
 
 	/**
@@ -141,7 +259,7 @@ implements Serializable {
 	 * @throws Exception if consumption rate could not be found.
 	 */
 	public double getOxygenConsumptionRate() {
-		return getValueAsDouble(OXYGEN_CONSUMPTION_RATE);
+		return oxygenConsumptionRate;
 	}
 
 	/**
@@ -150,7 +268,7 @@ implements Serializable {
 	 * @throws Exception if consumption rate could not be found.
 	 */
 	public double getWaterConsumptionRate() {
-		return getValueAsDouble(WATER_CONSUMPTION_RATE);
+		return waterConsumptionRate;
 	}
 
 	/**
@@ -159,7 +277,7 @@ implements Serializable {
 	 * @throws Exception if consumption rate could not be found.
 	 */
 	public double getFoodConsumptionRate() {
-		return getValueAsDouble(FOOD_CONSUMPTION_RATE);
+		return foodConsumptionRate;
 	}
 
 	/**
@@ -168,7 +286,7 @@ implements Serializable {
 	 * @throws Exception if consumption rate could not be found.
 	 */
 	public double getDessertConsumptionRate() {
-		return getValueAsDouble(DESSERT_CONSUMPTION_RATE);
+		return dessertConsumptionRate;
 	}
 	
 	/**
@@ -177,7 +295,7 @@ implements Serializable {
 	 * @throws Exception if oxygen deprivation time could not be found.
 	 */
 	public double getOxygenDeprivationTime() {
-		return getValueAsDouble(OXYGEN_DEPRIVATION_TIME);
+		return oxygenDeprivationTime;
 	}
 
 	/**
@@ -186,7 +304,7 @@ implements Serializable {
 	 * @throws Exception if water deprivation time could not be found.
 	 */
 	public double getWaterDeprivationTime() {
-		return getValueAsDouble(WATER_DEPRIVATION_TIME);
+		return waterDeprivationTime;
 	}
 
 	/**
@@ -195,7 +313,7 @@ implements Serializable {
 	 * @throws Exception if food deprivation time could not be found.
 	 */
 	public double getFoodDeprivationTime() {
-		return getValueAsDouble(FOOD_DEPRIVATION_TIME);
+		return foodDeprivationTime;
 	}
 
 	/**
@@ -204,7 +322,7 @@ implements Serializable {
 	 * @throws Exception if starvation start time could not be found.
 	 */
 	public double getStarvationStartTime() {
-		return getValueAsDouble(STARVATION_START_TIME);
+		return starvationStartTime;
 	}
 
 	/**
@@ -213,7 +331,7 @@ implements Serializable {
 	 * @throws Exception if air pressure could not be found.
 	 */
 	public double getMinAirPressure() {
-		return getValueAsDouble(MIN_AIR_PRESSURE);
+		return minAirPressure;
 	}
 
 	/**
@@ -222,7 +340,7 @@ implements Serializable {
 	 * @throws Exception if decompression time could not be found.
 	 */
 	public double getDecompressionTime() {
-		return getValueAsDouble(DECOMPRESSION_TIME);
+		return decompressionTime;
 	}
 
 	/**
@@ -231,7 +349,7 @@ implements Serializable {
 	 * @throws Exception if min temperature cannot be found.
 	 */
 	public double getMinTemperature() {
-		return getValueAsDouble(MIN_TEMPERATURE);
+		return minTemperature;
 	}
 
 	/**
@@ -240,7 +358,7 @@ implements Serializable {
 	 * @throws Exception if max temperature cannot be found.
 	 */
 	public double getMaxTemperature() {
-		return getValueAsDouble(MAX_TEMPERATURE);
+		return maxTemperature;
 	}
 
 	/**
@@ -249,7 +367,7 @@ implements Serializable {
 	 * @throws Exception if freezing time could not be found.
 	 */
 	public double getFreezingTime() {
-		return getValueAsDouble(FREEZING_TIME);
+		return freezingTime;
 	}
 
 	/**
@@ -258,7 +376,7 @@ implements Serializable {
 	 * @throws Exception if stress breakdown time could not be found.
 	 */
 	public double getStressBreakdownChance() {
-		return getValueAsDouble(STRESS_BREAKDOWN_CHANCE);
+		return stressBreakdownChance;
 	}
 
 	/**
@@ -267,7 +385,7 @@ implements Serializable {
 	 * @throws Exception if gender ratio could not be found.
 	 */
 	public double getGenderRatio() {
-		return getValueAsDouble(GENDER_MALE_PERCENTAGE) / 100D;
+		return genderRatio;
 	}
 
 	/**
@@ -276,23 +394,9 @@ implements Serializable {
 	 * @return percentage
 	 * @throws Exception if personality type could not be found.
 	 */
-    @SuppressWarnings("unchecked")
 	public double getPersonalityTypePercentage(String personalityType) {
-		double result = 0D;
-
-		Element root = personDoc.getRootElement();
-		Element personalityTypeList = root.getChild(PERSONALITY_TYPES);
-		List<Element> personalityTypes = personalityTypeList.getChildren(MBTI);
-
-		for (Element mbtiElement : personalityTypes) {
-			String type = mbtiElement.getAttributeValue(TYPE);
-			if (type.equals(personalityType)){
-				result = Double.parseDouble(mbtiElement.getAttributeValue(PERCENTAGE));
-				break;
-			}
-		}
-
-		return result;
+		Double result = personalityTypePercentages.get(personalityType);
+		return (result != null) ? result : 0D;
 	}
 
 	/**
@@ -301,11 +405,7 @@ implements Serializable {
 	 * @throws Exception if error in XML parsing.
 	 */
 	public int getNumberOfConfiguredPeople() {
-		Element root = personDoc.getRootElement();
-		Element personList = root.getChild(PERSON_LIST);
-		List personNodes = personList.getChildren(PERSON);
-		if (personNodes != null) return personNodes.size();
-		else return 0;
+		return configuredPeople.length;
 	}
 
 	/**
@@ -318,7 +418,7 @@ implements Serializable {
 		if (alphaCrewName != null)
 			return alphaCrewName.get(index) ;
 		else 
-			return getValueAsString(index,NAME);
+			return configuredPeople[index].name;
 	}
 
 	/**
@@ -331,7 +431,7 @@ implements Serializable {
 		if (alphaCrewGender != null)
 			return PersonGender.valueOfIgnoreCase(alphaCrewGender.get(index)) ;
 		else 
-			return PersonGender.valueOfIgnoreCase(getValueAsString(index,GENDER));
+			return PersonGender.valueOfIgnoreCase(configuredPeople[index].gender);
 	}
 
 	/**
@@ -344,7 +444,7 @@ implements Serializable {
 		if (alphaCrewPersonality != null)
 			return alphaCrewPersonality.get(index) ;
 		else
-			return getValueAsString(index,PERSONALITY_TYPE);
+			return configuredPeople[index].personalityType;
 	}
 
 	/**
@@ -354,7 +454,7 @@ implements Serializable {
 	 * @throws Exception if error in XML parsing.
 	 */
 	public String getConfiguredPersonSettlement(int index) {
-		return getValueAsString(index,SETTLEMENT);
+		return configuredPeople[index].settlement;
 	}
 
 	/**
@@ -367,7 +467,7 @@ implements Serializable {
 		if (alphaCrewJob != null)
 			return alphaCrewJob.get(index) ;
 		else
-			return getValueAsString(index,JOB);
+			return configuredPeople[index].job;
 	}
 
 	public void setPersonName(int index, String value) {
@@ -412,67 +512,24 @@ implements Serializable {
 	 * @return map of natural attributes (empty map if not found).
 	 * @throws Exception if error in XML parsing.
 	 */
-    @SuppressWarnings("unchecked")
 	public Map<String, Integer> getNaturalAttributeMap(int index) {
-		Map<String, Integer> result = new HashMap<String, Integer>();
-		Element root = personDoc.getRootElement();
-		Element personList = root.getChild(PERSON_LIST);
-		Element personElement = (Element) personList.getChildren(PERSON).get(index);
-		List<Element> naturalAttributeListNodes = personElement.getChildren(NATURAL_ATTRIBUTE_LIST);
-
-		if ((naturalAttributeListNodes != null) && (naturalAttributeListNodes.size() > 0)) {
-			Element naturalAttributeList = naturalAttributeListNodes.get(0);
-			int attributeNum = naturalAttributeList.getChildren(NATURAL_ATTRIBUTE).size();
-
-			for (int x=0; x < attributeNum; x++) {
-				Element naturalAttributeElement = (Element) naturalAttributeList.getChildren(NATURAL_ATTRIBUTE).get(x);
-				String name = naturalAttributeElement.getAttributeValue(NAME);
-				Integer value = new Integer(naturalAttributeElement.getAttributeValue(VALUE));
-				result.put(name, value);
-			}
-		}
-		return result;
+		return new HashMap<String, Integer>(configuredPeople[index].naturalAttributes);
 	}
 
-	private String getValueAsString(int index, String param){
-		Element root = personDoc.getRootElement();
-		Element personList = root.getChild(PERSON_LIST);
-		Element personElement = (Element) personList.getChildren(PERSON).get(index);
-		return personElement.getAttributeValue(param);
-	}
-
-
-	private double getValueAsDouble(String child) {
-		Element root = personDoc.getRootElement();
+	private static double getValueAsDouble(Element root, String child) {
 		Element element = root.getChild(child);
-		String str = element.getAttributeValue(VALUE);
-		return Double.parseDouble(str);
+		if (element == null) throw new IllegalStateException(child + " could not be found in people.xml.");
+		return Double.parseDouble(element.getAttributeValue(VALUE));
 	}
+
 	/**
 	 * Gets a map of the configured person's skills.
 	 * @param index the person's index.
 	 * @return map of skills (empty map if not found).
 	 * @throws Exception if error in XML parsing.
 	 */
-    @SuppressWarnings("unchecked")
 	public Map<String, Integer> getSkillMap(int index) {
-		Map<String, Integer> result = new HashMap<String, Integer>();
-		Element root = personDoc.getRootElement();
-		// 2014-10-07 mkung: changed the people.xml element from "person-list" to "alpha-team"
-		Element personList = root.getChild(PERSON_LIST);
-		Element personElement = (Element) personList.getChildren(PERSON).get(index);
-		List<Element> skillListNodes = personElement.getChildren(SKILL_LIST);
-		if ((skillListNodes != null) && (skillListNodes.size() > 0)) {
-			Element skillList = skillListNodes.get(0);
-			int skillNum = skillList.getChildren(SKILL).size();
-			for (int x=0; x < skillNum; x++) {
-				Element skillElement = (Element) skillList.getChildren(SKILL).get(x);
-				String name = skillElement.getAttributeValue(NAME);
-				Integer level = new Integer(skillElement.getAttributeValue(LEVEL));
-				result.put(name, level);
-			}
-		}
-		return result;
+		return new HashMap<String, Integer>(configuredPeople[index].skills);
 	}
 
 	/**
@@ -482,24 +539,8 @@ implements Serializable {
 	 * (empty map if not found).
 	 * @throws Exception if error in XML parsing.
 	 */
-    @SuppressWarnings("unchecked")
 	public Map<String, Integer> getRelationshipMap(int index) {
-		Map<String, Integer> result = new HashMap<String, Integer>();
-		Element root = personDoc.getRootElement();
-		Element personList = root.getChild(PERSON_LIST);
-		Element personElement = (Element) personList.getChildren(PERSON).get(index);
-		List<Element> relationshipListNodes = personElement.getChildren(RELATIONSHIP_LIST);
-		if ((relationshipListNodes != null) && (relationshipListNodes.size() > 0)) {
-			Element relationshipList = relationshipListNodes.get(0);
-			int relationshipNum = relationshipList.getChildren(RELATIONSHIP).size();
-			for (int x=0; x < relationshipNum; x++) {
-				Element relationshipElement = (Element) relationshipList.getChildren(RELATIONSHIP).get(x);
-				String personName = relationshipElement.getAttributeValue(PERSON_NAME);
-				Integer opinion = new Integer(relationshipElement.getAttributeValue(OPINION));
-				result.put(personName, opinion);
-			}
-		}
-		return result;
+		return new HashMap<String, Integer>(configuredPeople[index].relationships);
 	}
 
 	
@@ -513,7 +554,7 @@ implements Serializable {
 		if (alphaCrewFavoriteMainDish != null)
 			return alphaCrewFavoriteMainDish.get(index) ;
 		else
-			return getValueAsString(index,MAIN_DISH);
+			return configuredPeople[index].favoriteMainDish;
 	}
 	
 	/**
@@ -526,7 +567,7 @@ implements Serializable {
 		if (alphaCrewFavoriteSideDish != null)
 			return alphaCrewFavoriteSideDish.get(index) ;
 		else
-			return getValueAsString(index,SIDE_DISH);
+			return configuredPeople[index].favoriteSideDish;
 	}
 
 	/**
@@ -539,7 +580,7 @@ implements Serializable {
 		if (alphaCrewFavoriteDessert != null)
 			return alphaCrewFavoriteDessert.get(index) ;
 		else
-			return getValueAsString(index,DESSERT);
+			return configuredPeople[index].favoriteDessert;
 	}
   
 	/**
@@ -552,18 +593,73 @@ implements Serializable {
 		if (alphaCrewFavoriteActivity != null)
 			return alphaCrewFavoriteActivity.get(index) ;
 		else
-			return getValueAsString(index,ACTIVITY);
+			return configuredPeople[index].favoriteActivity;
 	}
 	
     /**
      * Prepare object for garbage collection.
      */
     public void destroy() {
-        personDoc = null;
         if(nameList != null){
 
             nameList.clear();
             nameList = null;
         }
+        nameGenders = null;
+        personalityTypePercentages = null;
+        configuredPeople = null;
     }
+
+	/**
+	 * The compiled configuration of a person in the person list.
+	 */
+	private static final class ConfiguredPerson implements Serializable {
+
+		/** default serial id. */
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+		private final String gender;
+		private final String personalityType;
+		private final String settlement;
+		private final String job;
+		private final String favoriteMainDish;
+		private final String favoriteSideDish;
+		private final String favoriteDessert;
+		private final String favoriteActivity;
+		private final Map<String, Integer> naturalAttributes;
+		private final Map<String, Integer> skills;
+		private final Map<String, Integer> relationships;
+
+		private ConfiguredPerson(Element personElement) {
+			name = personElement.getAttributeValue(NAME);
+			gender = personElement.getAttributeValue(GENDER);
+			personalityType = personElement.getAttributeValue(PERSONALITY_TYPE);
+			settlement = personElement.getAttributeValue(SETTLEMENT);
+			job = personElement.getAttributeValue(JOB);
+			favoriteMainDish = personElement.getAttributeValue(MAIN_DISH);
+			favoriteSideDish = personElement.getAttributeValue(SIDE_DISH);
+			favoriteDessert = personElement.getAttributeValue(DESSERT);
+			favoriteActivity = personElement.getAttributeValue(ACTIVITY);
+			naturalAttributes = getIntegerMap(personElement, NATURAL_ATTRIBUTE_LIST, NATURAL_ATTRIBUTE, NAME, VALUE);
+			skills = getIntegerMap(personElement, SKILL_LIST, SKILL, NAME, LEVEL);
+			relationships = getIntegerMap(personElement, RELATIONSHIP_LIST, RELATIONSHIP, PERSON_NAME, OPINION);
+		}
+
+		/**
+		 * Gets the integer values of the entries in the first list element of a person.
+		 * @return unmodifiable map of values (empty map if none).
+		 */
+		@SuppressWarnings("unchecked")
+		private static Map<String, Integer> getIntegerMap(Element personElement, String listName,
+				String entryName, String keyName, String valueName) {
+			Element list = personElement.getChild(listName);
+			if (list == null) return Collections.emptyMap();
+			Map<String, Integer> result = new HashMap<String, Integer>();
+			for (Element entry : (List<Element>) list.getChildren(entryName)) {
+				result.put(entry.getAttributeValue(keyName), Integer.valueOf(entry.getAttributeValue(valueName)));
+			}
+			return Collections.unmodifiableMap(result);
+		}
+	}
 }
@@ -403,7 +403,7 @@ implements Serializable {
         double weightSum = 0D;
 
         if (tasks) {
-            taskWeights = taskManager.getTotalTaskProbability(false);
+            taskWeights = taskManager.getTotalTaskProbability(true);
             weightSum += taskWeights;
         }
 
@@ -1103,7 +1103,7 @@ implements Serializable {
             }
             else if (hasLifeSupport) {
                 // Try to put building next to another inhabitable building.
-                List<Building> inhabitableBuildings = settlement.getBuildingManager().getBuildings(BuildingFunction.LIFE_SUPPORT);
+                List<Building> inhabitableBuildings = new ArrayList<Building>(settlement.getBuildingManager().getBuildings(BuildingFunction.LIFE_SUPPORT));
                 Collections.shuffle(inhabitableBuildings);
                 Iterator<Building> i = inhabitableBuildings.iterator();
                 while (i.hasNext()) {
@@ -1166,7 +1166,7 @@ implements Serializable {
         boolean result = false;
         
         BuildingManager manager = settlement.getBuildingManager();
-        List<Building> inhabitableBuildings = manager.getBuildings(BuildingFunction.LIFE_SUPPORT);
+        List<Building> inhabitableBuildings = new ArrayList<Building>(manager.getBuildings(BuildingFunction.LIFE_SUPPORT));
         Collections.shuffle(inhabitableBuildings);
         
         BuildingConfig buildingConfig = SimulationConfig.instance().getBuildingConfiguration();
@@ -17,6 +17,7 @@ import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.person.LocationSituation;
 import org.mars_sim.msp.core.person.Person;
 import org.mars_sim.msp.core.person.ai.mission.meta.MetaMission;
 import org.mars_sim.msp.core.person.ai.mission.meta.MetaMissionUtil;
@@ -55,6 +56,10 @@ implements Serializable {
 	private transient Map<MetaMission, Double> missionProbCache;
 	private transient Map<MetaMission, Double> robotMissionProbCache;
 	private transient double totalProbCache;
+	/** The planner of settlement mission opportunities. */
+	private transient volatile MissionPlanner planner;
+	/** The estimated trades between settlements. */
+	private transient volatile TradeMatrix tradeMatrix;
 
 	/** 
 	 * Constructor.
@@ -154,6 +159,12 @@ implements Serializable {
 		if (!missions.contains(newMission)) {
 			missions.add(newMission);
 
+			// The new mission changes the opportunities of its settlement.
+			Settlement settlement = newMission.getAssociatedSettlement();
+			if ((settlement != null) && (planner != null)) {
+				planner.invalidate(settlement);
+			}
+
 			// Update listeners.
 			if (listeners == null) {
 				listeners = Collections.synchronizedList(new ArrayList<MissionManagerListener>());
@@ -406,8 +417,39 @@ implements Serializable {
 		}
 	}
 
+	/**
+	 * Gets the planner of settlement mission opportunities.
+	 * @return mission planner.
+	 */
+	public MissionPlanner getPlanner() {
+		if (planner == null) {
+			synchronized (this) {
+				if (planner == null) {
+					planner = new MissionPlanner();
+				}
+			}
+		}
+		return planner;
+	}
+
+	/**
+	 * Gets the matrix of estimated trades between settlements.
+	 * @return trade matrix.
+	 */
+	public TradeMatrix getTradeMatrix() {
+		if (tradeMatrix == null) {
+			synchronized (this) {
+				if (tradeMatrix == null) {
+					tradeMatrix = new TradeMatrix();
+				}
+			}
+		}
+		return tradeMatrix;
+	}
+
 	/**
 	 * Calculates and caches the probabilities.
+	 * Settlement probabilities are read from the mission planner's opportunity table.
 	 * @param person the person to check for.
 	 */
 	private void calculateProbability(Person person) {
@@ -418,11 +460,25 @@ implements Serializable {
 		// Clear total probabilities.
 		totalProbCache = 0D;
 
+		MarsClock currentTime = Simulation.instance().getMasterClock().getMarsClock();
+		Settlement settlement = null;
+		if (person.getLocationSituation() == LocationSituation.IN_SETTLEMENT) {
+			settlement = person.getSettlement();
+		}
+		MissionPlanner planner = getPlanner();
+
 		// Determine probabilities.
 		Iterator<MetaMission> i = MetaMissionUtil.getMetaMissions().iterator();
 		while (i.hasNext()) {
 			MetaMission metaMission = i.next();
-			double probability = metaMission.getProbability(person);
+			double probability;
+			if ((settlement != null) && planner.isPlanned(metaMission)) {
+				probability = metaMission.getProbability(person, planner.getSettlementProbability(
+						settlement, metaMission, MarsClock.getTotalMillisols(currentTime)));
+			}
+			else {
+				probability = metaMission.getProbability(person);
+			}
 			if ((probability >= 0D) && (!Double.isNaN(probability)) && (!Double.isInfinite(probability))) {
 				missionProbCache.put(metaMission, probability);
 				totalProbCache += probability;
@@ -491,6 +547,10 @@ implements Serializable {
 		while (i.hasNext()) {
 			i.next().timePassing(time);
 		}
+
+		// Refresh stale trades while the units aren't updating.
+		MarsClock currentTime = Simulation.instance().getMasterClock().getMarsClock();
+		getTradeMatrix().timePassing(time, MarsClock.getTotalMillisols(currentTime));
 	}
 
 	/**
@@ -517,6 +577,9 @@ implements Serializable {
 			robotMissionProbCache.clear();
 			robotMissionProbCache = null;
 		}
-		
+		if (tradeMatrix != null) {
+			tradeMatrix.destroy();
+			tradeMatrix = null;
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+/**
+ * Mars Simulation Project
+ * MissionPlanner.java
+ * @version 3.08 2015-08-03
+ */
+package org.mars_sim.msp.core.person.ai.mission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.person.ai.mission.meta.MetaMission;
+import org.mars_sim.msp.core.person.ai.mission.meta.MetaMissionUtil;
+import org.mars_sim.msp.core.structure.Settlement;
+
+/**
+ * Keeps a table of mission opportunities for each settlement, the settlement probabilities
+ * of the meta missions that have one. Those involve route, vehicle and inventory analysis,
+ * so rather than evaluating them every time a person looks for a mission, the planner
+ * refreshes them a few at a time as settlements update, and people read the table.
+ */
+public class MissionPlanner {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(MissionPlanner.class.getName());
+
+	/** The default number of opportunities refreshed per settlement per time pulse. */
+	public static final int DEFAULT_REFRESH_BUDGET = 1;
+
+	/** The default time (millisols) before an opportunity is refreshed. */
+	public static final double DEFAULT_REFRESH_INTERVAL = 250D;
+
+	// Data members
+	/** The meta missions with settlement probabilities. */
+	private MetaMission[] plannedMissions;
+	/** The opportunities of each settlement. */
+	private Map<Settlement, Opportunities> opportunities;
+	private volatile int refreshBudget;
+	private volatile double refreshInterval;
+	private AtomicLong refreshCount;
+
+	/**
+	 * Constructor.
+	 * The refresh budget and interval are read from the simulation configuration.
+	 */
+	public MissionPlanner() {
+		this(MetaMissionUtil.getMetaMissions());
+		SimulationConfig config = SimulationConfig.instance();
+		setRefreshBudget(config.getMissionPlannerRefreshBudget());
+		setRefreshInterval(config.getMissionPlannerRefreshInterval());
+	}
+
+	/**
+	 * Constructor with the meta missions to plan from.
+	 * @param metaMissions the meta missions, of which those with settlement probabilities are planned.
+	 */
+	MissionPlanner(List<MetaMission> metaMissions) {
+		List<MetaMission> planned = new ArrayList<MetaMission>();
+		Iterator<MetaMission> i = metaMissions.iterator();
+		while (i.hasNext()) {
+			MetaMission metaMission = i.next();
+			if (metaMission.hasSettlementProbability()) {
+				planned.add(metaMission);
+			}
+		}
+		plannedMissions = planned.toArray(new MetaMission[planned.size()]);
+		opportunities = new ConcurrentHashMap<Settlement, Opportunities>();
+		refreshBudget = DEFAULT_REFRESH_BUDGET;
+		refreshInterval = DEFAULT_REFRESH_INTERVAL;
+		refreshCount = new AtomicLong();
+	}
+
+	/**
+	 * Checks if the planner keeps opportunities for a meta mission.
+	 * @param metaMission the meta mission.
+	 * @return true if planned.
+	 */
+	public boolean isPlanned(MetaMission metaMission) {
+		return getIndex(metaMission) >= 0;
+	}
+
+	/**
+	 * Refreshes the settlement's oldest opportunities that are due, up to the refresh budget.
+	 * Called as the settlement updates, so settlements refresh in parallel when units are
+	 * updated in parallel.
+	 * @param settlement the settlement.
+	 * @param time the current time (total millisols).
+	 */
+	public void refresh(Settlement settlement, double time) {
+		Opportunities settlementOpportunities = getOpportunities(settlement);
+		synchronized (settlementOpportunities) {
+			for (int x = 0; x < refreshBudget; x++) {
+				int index = settlementOpportunities.getOldest();
+				if (settlementOpportunities.isDue(index, time, refreshInterval)) {
+					evaluate(settlement, settlementOpportunities, index, time);
+				}
+				else {
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the settlement probability of a meta mission from the table.
+	 * An opportunity that has never been evaluated is evaluated now.
+	 * @param settlement the settlement.
+	 * @param metaMission the planned meta mission.
+	 * @param time the current time (total millisols).
+	 * @return settlement probability.
+	 */
+	public double getSettlementProbability(Settlement settlement, MetaMission metaMission, double time) {
+		int index = getIndex(metaMission);
+		if (index < 0) {
+			throw new IllegalArgumentException(metaMission.getName() + " is not planned.");
+		}
+		Opportunities settlementOpportunities = getOpportunities(settlement);
+		synchronized (settlementOpportunities) {
+			if (!settlementOpportunities.isEvaluated(index)) {
+				evaluate(settlement, settlementOpportunities, index, time);
+			}
+			return settlementOpportunities.probabilities[index];
+		}
+	}
+
+	/**
+	 * Marks all of a settlement's opportunities for evaluation when they are next read,
+	 * such as when a mission starts from the settlement.
+	 * @param settlement the settlement.
+	 */
+	public void invalidate(Settlement settlement) {
+		Opportunities settlementOpportunities = opportunities.get(settlement);
+		if (settlementOpportunities != null) {
+			synchronized (settlementOpportunities) {
+				Arrays.fill(settlementOpportunities.refreshTimes, Double.NaN);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of opportunities refreshed per settlement per time pulse.
+	 * @return refresh budget.
+	 */
+	public int getRefreshBudget() {
+		return refreshBudget;
+	}
+
+	/**
+	 * Sets the number of opportunities refreshed per settlement per time pulse.
+	 * @param refreshBudget the refresh budget.
+	 */
+	public void setRefreshBudget(int refreshBudget) {
+		if (refreshBudget < 0) {
+			throw new IllegalArgumentException("refreshBudget cannot be negative: " + refreshBudget);
+		}
+		this.refreshBudget = refreshBudget;
+	}
+
+	/**
+	 * Gets the time before an opportunity is refreshed.
+	 * @return refresh interval (millisols).
+	 */
+	public double getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	/**
+	 * Sets the time before an opportunity is refreshed.
+	 * @param refreshInterval the refresh interval (millisols).
+	 */
+	public void setRefreshInterval(double refreshInterval) {
+		if (refreshInterval < 0D) {
+			throw new IllegalArgumentException("refreshInterval cannot be negative: " + refreshInterval);
+		}
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * Gets the number of opportunities evaluated since the planner was created.
+	 * @return number of evaluations.
+	 */
+	public long getRefreshCount() {
+		return refreshCount.get();
+	}
+
+	private int getIndex(MetaMission metaMission) {
+		for (int x = 0; x < plannedMissions.length; x++) {
+			if (plannedMissions[x] == metaMission) {
+				return x;
+			}
+		}
+		return -1;
+	}
+
+	private Opportunities getOpportunities(Settlement settlement) {
+		Opportunities result = opportunities.get(settlement);
+		if (result == null) {
+			Opportunities newOpportunities = new Opportunities(plannedMissions.length);
+			result = opportunities.putIfAbsent(settlement, newOpportunities);
+			if (result == null) {
+				result = newOpportunities;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates an opportunity. The caller holds the opportunities' lock.
+	 */
+	private void evaluate(Settlement settlement, Opportunities settlementOpportunities, int index, double time) {
+		MetaMission metaMission = plannedMissions[index];
+		double probability = metaMission.getSettlementProbability(settlement);
+		if ((probability < 0D) || Double.isNaN(probability) || Double.isInfinite(probability)) {
+			logger.severe(settlement.getName() + " bad mission probability: " + metaMission.getName() +
+					" probability: " + probability);
+			probability = 0D;
+		}
+		settlementOpportunities.probabilities[index] = probability;
+		settlementOpportunities.refreshTimes[index] = time;
+		refreshCount.incrementAndGet();
+	}
+
+	/**
+	 * The opportunity table of a settlement, indexed like the planned missions.
+	 */
+	private static class Opportunities {
+
+		private double[] probabilities;
+		/** The time each probability was evaluated, or NaN if it hasn't been. */
+		private double[] refreshTimes;
+
+		private Opportunities(int size) {
+			probabilities = new double[size];
+			refreshTimes = new double[size];
+			Arrays.fill(refreshTimes, Double.NaN);
+		}
+
+		private boolean isEvaluated(int index) {
+			return !Double.isNaN(refreshTimes[index]);
+		}
+
+		private boolean isDue(int index, double time, double interval) {
+			return (index >= 0) && (!isEvaluated(index) || ((time - refreshTimes[index]) >= interval));
+		}
+
+		/**
+		 * Gets the opportunity evaluated longest ago, unevaluated ones first.
+		 * @return index, or -1 if there are none.
+		 */
+		private int getOldest() {
+			int result = -1;
+			for (int x = 0; x < refreshTimes.length; x++) {
+				if (!isEvaluated(x)) {
+					return x;
+				}
+				if ((result < 0) || (refreshTimes[x] < refreshTimes[result])) {
+					result = x;
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -9,6 +9,7 @@ package org.mars_sim.msp.core.person.ai.mission;
 import java.awt.geom.Point2D;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -82,8 +83,10 @@ implements Serializable {
 	public static final double MAX_STARTING_PROBABILITY = 10D;
 
 	// Static cache for holding trade profit info.
-	public static final Map<Settlement, TradeProfitInfo> TRADE_PROFIT_CACHE = new HashMap<Settlement, TradeProfitInfo>();
-	public static final Map<Settlement, Settlement> TRADE_SETTLEMENT_CACHE = new HashMap<Settlement, Settlement>();
+	public static final Map<Settlement, TradeProfitInfo> TRADE_PROFIT_CACHE = Collections.synchronizedMap(
+			new HashMap<Settlement, TradeProfitInfo>());
+	public static final Map<Settlement, Settlement> TRADE_SETTLEMENT_CACHE = Collections.synchronizedMap(
+			new HashMap<Settlement, Settlement>());
 
 	// Data members.
 	private Settlement tradingSettlement;
@@ -131,6 +134,8 @@ implements Serializable {
                 TRADE_PROFIT_CACHE.remove(tradingSettlement);
                 TRADE_SETTLEMENT_CACHE.remove(getStartingSettlement());
                 TRADE_SETTLEMENT_CACHE.remove(tradingSettlement);
+                TradeUtil.invalidateTradeMatrix(getStartingSettlement());
+                TradeUtil.invalidateTradeMatrix(tradingSettlement);
             } 
             else {
                 endMission("Could not determine trading settlement.");
@@ -218,6 +223,8 @@ implements Serializable {
                 TRADE_PROFIT_CACHE.remove(tradingSettlement);
                 TRADE_SETTLEMENT_CACHE.remove(getStartingSettlement());
                 TRADE_SETTLEMENT_CACHE.remove(tradingSettlement);
+                TradeUtil.invalidateTradeMatrix(getStartingSettlement());
+                TradeUtil.invalidateTradeMatrix(tradingSettlement);
             } else {
                 endMission("Could not determine trading settlement.");
             }
@@ -303,6 +310,8 @@ implements Serializable {
                 TRADE_PROFIT_CACHE.remove(tradingSettlement);
                 TRADE_SETTLEMENT_CACHE.remove(getStartingSettlement());
                 TRADE_SETTLEMENT_CACHE.remove(tradingSettlement);
+                TradeUtil.invalidateTradeMatrix(getStartingSettlement());
+                TradeUtil.invalidateTradeMatrix(tradingSettlement);
             } else {
                 endMission("Could not determine trading settlement.");
             }
@@ -719,6 +728,8 @@ implements Serializable {
             addNavpoint(new NavPoint(getStartingSettlement().getCoordinates(), getStartingSettlement(),
                     getStartingSettlement().getName()));
             TRADE_PROFIT_CACHE.remove(getStartingSettlement());
+            TradeUtil.invalidateTradeMatrix(getStartingSettlement());
+            TradeUtil.invalidateTradeMatrix(tradingSettlement);
         }
     }
 //    private void performTradeNegotiatingPhase(Robot robot) {
@@ -0,0 +1,502 @@
+/**
+ * Mars Simulation Project
+ * TradeMatrix.java
+ * @version 3.08 2015-08-04
+ */
+package org.mars_sim.msp.core.person.ai.mission;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.goods.CreditManager;
+import org.mars_sim.msp.core.structure.goods.GoodsUtil;
+import org.mars_sim.msp.core.vehicle.Rover;
+
+/**
+ * Keeps the estimated trade opportunities between each pair of settlements.
+ * Estimating a trade prices every good at both settlements, so an opportunity is reused
+ * until either settlement's good values or their credit limit have changed and it is at
+ * least the minimum age, or until it reaches the maximum age. Stale opportunities are
+ * estimated again periodically, with pairs of settlements estimated in parallel.
+ */
+public class TradeMatrix {
+
+	/** default logger. */
+	private static Logger logger = Logger.getLogger(TradeMatrix.class.getName());
+
+	/** The default time (millisols) before an opportunity whose inputs have changed is estimated again. */
+	public static final double DEFAULT_MIN_AGE = 2000D;
+
+	/** The default time (millisols) before an opportunity is estimated again regardless. */
+	public static final double DEFAULT_MAX_AGE = 8000D;
+
+	/** The default time (millisols) between refreshes of the stale opportunities. */
+	public static final double DEFAULT_REFRESH_INTERVAL = 100D;
+
+	// Data members
+	/** The opportunities from each starting settlement to each trading settlement. */
+	private Map<Settlement, Map<Settlement, TradeOpportunity>> rows;
+	private volatile double minAge;
+	private volatile double maxAge;
+	private volatile double refreshInterval;
+	private double timeSinceRefresh;
+	private int threads;
+	private ExecutorService pool;
+	private AtomicLong estimateCount;
+
+	/**
+	 * Constructor.
+	 */
+	public TradeMatrix() {
+		this(0);
+	}
+
+	/**
+	 * Constructor with the number of refresh threads.
+	 * @param threads the number of threads, or 0 for the number of processors.
+	 */
+	public TradeMatrix(int threads) {
+		if (threads < 0) {
+			throw new IllegalArgumentException("threads cannot be negative: " + threads);
+		}
+		this.threads = threads;
+		rows = new ConcurrentHashMap<Settlement, Map<Settlement, TradeOpportunity>>();
+		minAge = DEFAULT_MIN_AGE;
+		maxAge = DEFAULT_MAX_AGE;
+		refreshInterval = DEFAULT_REFRESH_INTERVAL;
+		estimateCount = new AtomicLong();
+	}
+
+	/**
+	 * Gets the most profitable trade from a settlement to a settlement within range that
+	 * it doesn't have a current trade mission with. Opportunities that are missing or stale
+	 * are estimated on the calling thread.
+	 * @param startingSettlement the settlement to trade from.
+	 * @param rover the rover to carry the trade.
+	 * @param time the current time (total millisols).
+	 * @return the best trade opportunity, or null if none has a profit.
+	 */
+	public TradeOpportunity getBestOpportunity(Settlement startingSettlement, Rover rover, double time) {
+		CreditManager creditManager = Simulation.instance().getCreditManager();
+		TradeOpportunity result = null;
+		double bestProfit = 0D;
+
+		Iterator<Settlement> i = Simulation.instance().getUnitManager().getSettlements().iterator();
+		while (i.hasNext()) {
+			Settlement settlement = i.next();
+			if ((settlement != startingSettlement) && TradeUtil.isWithinTradeRange(startingSettlement, settlement, rover)
+					&& !TradeUtil.hasCurrentTradeMission(startingSettlement, settlement)) {
+				int creditLimit = TradeUtil.getCreditLimit(creditManager.getCredit(startingSettlement, settlement));
+				TradeOpportunity opportunity = getOpportunity(startingSettlement, settlement);
+				if (isStale(opportunity, rover, creditLimit, time)) {
+					// Estimating reads and fills the caches of both settlements, so estimates
+					// from settlements updating in parallel are made one at a time.
+					synchronized (this) {
+						opportunity = estimate(startingSettlement, rover, settlement, creditLimit, time);
+					}
+				}
+				if (opportunity.getProfit() > bestProfit) {
+					bestProfit = opportunity.getProfit();
+					result = opportunity;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the last estimated trade from one settlement to another.
+	 * @param startingSettlement the settlement to trade from.
+	 * @param tradingSettlement the settlement to trade to.
+	 * @return the trade opportunity, or null if none has been estimated.
+	 */
+	public TradeOpportunity getOpportunity(Settlement startingSettlement, Settlement tradingSettlement) {
+		Map<Settlement, TradeOpportunity> row = rows.get(startingSettlement);
+		if (row != null) {
+			return row.get(tradingSettlement);
+		}
+		return null;
+	}
+
+	/**
+	 * Marks the opportunities from and to a settlement for estimating again.
+	 * @param settlement the settlement.
+	 */
+	public void invalidate(Settlement settlement) {
+		rows.remove(settlement);
+		Iterator<Map<Settlement, TradeOpportunity>> i = rows.values().iterator();
+		while (i.hasNext()) {
+			i.next().remove(settlement);
+		}
+	}
+
+	/**
+	 * Refreshes the stale opportunities when the refresh interval has passed.
+	 * Called from the mission manager, before the units are updated.
+	 * @param time the amount of time passing (millisols).
+	 * @param currentTime the current time (total millisols).
+	 */
+	public void timePassing(double time, double currentTime) {
+		timeSinceRefresh += time;
+		if (timeSinceRefresh >= refreshInterval) {
+			timeSinceRefresh = 0D;
+			refresh(currentTime);
+		}
+	}
+
+	/**
+	 * Estimates again the stale opportunities of every settlement with an available rover.
+	 * Both directions of a settlement pair are estimated together, and the pairs are estimated
+	 * in rounds in which no settlement is in more than one pair, so each settlement's inventory
+	 * and goods manager are only used by one thread at a time.
+	 * The units must not be updating while the matrix refreshes.
+	 * @param time the current time (total millisols).
+	 */
+	public void refresh(double time) {
+		// Populate shared lazy caches before estimating in parallel.
+		GoodsUtil.getGoodsList();
+
+		CreditManager creditManager = Simulation.instance().getCreditManager();
+		List<Settlement> settlements = new ArrayList<Settlement>(
+				Simulation.instance().getUnitManager().getSettlements());
+		Map<Settlement, Rover> rovers = new HashMap<Settlement, Rover>(settlements.size());
+		for (Settlement settlement : settlements) {
+			rovers.put(settlement, (Rover) RoverMission.getVehicleWithGreatestRange(settlement, false));
+		}
+
+		List<PairRefresh> pairs = new ArrayList<PairRefresh>();
+		for (int x = 0; x < settlements.size(); x++) {
+			Settlement settlement1 = settlements.get(x);
+			for (int y = x + 1; y < settlements.size(); y++) {
+				Settlement settlement2 = settlements.get(y);
+				if (TradeUtil.hasCurrentTradeMission(settlement1, settlement2)) {
+					continue;
+				}
+				PairRefresh pair = new PairRefresh(settlement1, settlement2);
+				addIfStale(pair, settlement1, settlement2, rovers.get(settlement1), creditManager, time);
+				addIfStale(pair, settlement2, settlement1, rovers.get(settlement2), creditManager, time);
+				if (!pair.isEmpty()) {
+					pairs.add(pair);
+				}
+			}
+		}
+
+		for (List<PairRefresh> round : scheduleRounds(pairs)) {
+			runRound(round, time);
+		}
+	}
+
+	/**
+	 * Adds a direction of a settlement pair to refresh if it is within range and stale.
+	 */
+	private void addIfStale(PairRefresh pair, Settlement startingSettlement, Settlement tradingSettlement,
+			Rover rover, CreditManager creditManager, double time) {
+		if ((rover != null) && TradeUtil.isWithinTradeRange(startingSettlement, tradingSettlement, rover)) {
+			int creditLimit = TradeUtil.getCreditLimit(creditManager.getCredit(startingSettlement, tradingSettlement));
+			if (isStale(getOpportunity(startingSettlement, tradingSettlement), rover, creditLimit, time)) {
+				pair.add(startingSettlement, tradingSettlement, rover, creditLimit);
+			}
+		}
+	}
+
+	/**
+	 * Estimates the pairs of a round, in parallel if there is more than one.
+	 */
+	private void runRound(List<PairRefresh> round, final double time) {
+		if ((round.size() == 1) || (getThreads() == 1)) {
+			for (PairRefresh pair : round) {
+				runPair(pair, time);
+			}
+			return;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(round.size());
+		for (final PairRefresh pair : round) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					runPair(pair, time);
+					return null;
+				}
+			});
+		}
+		try {
+			getPool().invokeAll(tasks);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Estimates the stale directions of a settlement pair.
+	 */
+	private void runPair(PairRefresh pair, double time) {
+		for (int x = 0; x < pair.startingSettlements.size(); x++) {
+			Settlement startingSettlement = pair.startingSettlements.get(x);
+			Settlement tradingSettlement = pair.tradingSettlements.get(x);
+			try {
+				estimate(startingSettlement, pair.rovers.get(x), tradingSettlement, pair.creditLimits.get(x), time);
+			}
+			catch (Exception e) {
+				logger.log(Level.SEVERE, "Error estimating trade from " + startingSettlement.getName() +
+						" to " + tradingSettlement.getName(), e);
+			}
+		}
+	}
+
+	/**
+	 * Estimates a trade and puts it in the matrix.
+	 */
+	private TradeOpportunity estimate(Settlement startingSettlement, Rover rover, Settlement tradingSettlement,
+			int creditLimit, double time) {
+		TradeOpportunity result = TradeUtil.estimateTrade(startingSettlement, rover, tradingSettlement,
+				creditLimit, time);
+		getRow(startingSettlement).put(tradingSettlement, result);
+		estimateCount.incrementAndGet();
+		return result;
+	}
+
+	private Map<Settlement, TradeOpportunity> getRow(Settlement startingSettlement) {
+		Map<Settlement, TradeOpportunity> result = rows.get(startingSettlement);
+		if (result == null) {
+			Map<Settlement, TradeOpportunity> newRow = new ConcurrentHashMap<Settlement, TradeOpportunity>();
+			result = rows.putIfAbsent(startingSettlement, newRow);
+			if (result == null) {
+				result = newRow;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if an opportunity needs estimating again.
+	 * @param opportunity the opportunity, or null if none.
+	 * @param rover the rover to carry the trade.
+	 * @param creditLimit the current credit limit reached between the settlements.
+	 * @param time the current time (total millisols).
+	 * @return true if stale.
+	 */
+	private boolean isStale(TradeOpportunity opportunity, Rover rover, int creditLimit, double time) {
+		if (opportunity == null) {
+			return true;
+		}
+		return isStale(opportunity, rover,
+				opportunity.getStartingSettlement().getGoodsManager().getValuesVersion(),
+				opportunity.getTradingSettlement().getGoodsManager().getValuesVersion(),
+				creditLimit, time);
+	}
+
+	/**
+	 * Checks if an opportunity needs estimating again given the current inputs.
+	 * @param opportunity the opportunity.
+	 * @param rover the rover to carry the trade.
+	 * @param startingValuesVersion the starting settlement's good values version.
+	 * @param tradingValuesVersion the trading settlement's good values version.
+	 * @param creditLimit the credit limit reached between the settlements.
+	 * @param time the current time (total millisols).
+	 * @return true if stale.
+	 */
+	boolean isStale(TradeOpportunity opportunity, Rover rover, long startingValuesVersion,
+			long tradingValuesVersion, int creditLimit, double time) {
+		if (opportunity.getRover() != rover) {
+			return true;
+		}
+		double age = time - opportunity.getTime();
+		if (age >= maxAge) {
+			return true;
+		}
+		if (age < minAge) {
+			return false;
+		}
+		return (opportunity.getStartingValuesVersion() != startingValuesVersion) ||
+				(opportunity.getTradingValuesVersion() != tradingValuesVersion) ||
+				(opportunity.getCreditLimit() != creditLimit);
+	}
+
+	/**
+	 * Groups settlement pairs into rounds in which no settlement is in more than one pair,
+	 * keeping the pairs in order within each round.
+	 * @param pairs the settlement pairs.
+	 * @return the rounds.
+	 */
+	static List<List<PairRefresh>> scheduleRounds(Collection<PairRefresh> pairs) {
+		List<List<PairRefresh>> result = new ArrayList<List<PairRefresh>>();
+		List<PairRefresh> remaining = new ArrayList<PairRefresh>(pairs);
+		while (!remaining.isEmpty()) {
+			List<PairRefresh> round = new ArrayList<PairRefresh>();
+			Set<Settlement> scheduled = new HashSet<Settlement>();
+			Iterator<PairRefresh> i = remaining.iterator();
+			while (i.hasNext()) {
+				PairRefresh pair = i.next();
+				if (!scheduled.contains(pair.getSettlement1()) && !scheduled.contains(pair.getSettlement2())) {
+					scheduled.add(pair.getSettlement1());
+					scheduled.add(pair.getSettlement2());
+					round.add(pair);
+					i.remove();
+				}
+			}
+			result.add(round);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of threads refreshes run on.
+	 * @return number of threads.
+	 */
+	public int getThreads() {
+		if (threads == 0) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return threads;
+	}
+
+	/**
+	 * Gets the worker pool, creating it if needed.
+	 * @return pool.
+	 */
+	private synchronized ExecutorService getPool() {
+		if (pool == null) {
+			pool = Executors.newFixedThreadPool(getThreads(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "trade-matrix");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return pool;
+	}
+
+	/**
+	 * Gets the minimum time before an opportunity whose inputs have changed is estimated again.
+	 * @return minimum age (millisols).
+	 */
+	public double getMinAge() {
+		return minAge;
+	}
+
+	/**
+	 * Sets the minimum time before an opportunity whose inputs have changed is estimated again.
+	 * @param minAge the minimum age (millisols).
+	 */
+	public void setMinAge(double minAge) {
+		if (minAge < 0D) {
+			throw new IllegalArgumentException("minAge cannot be negative: " + minAge);
+		}
+		this.minAge = minAge;
+	}
+
+	/**
+	 * Gets the time before an opportunity is estimated again regardless of its inputs.
+	 * @return maximum age (millisols).
+	 */
+	public double getMaxAge() {
+		return maxAge;
+	}
+
+	/**
+	 * Sets the time before an opportunity is estimated again regardless of its inputs.
+	 * @param maxAge the maximum age (millisols).
+	 */
+	public void setMaxAge(double maxAge) {
+		if (maxAge < 0D) {
+			throw new IllegalArgumentException("maxAge cannot be negative: " + maxAge);
+		}
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Gets the time between refreshes of the stale opportunities.
+	 * @return refresh interval (millisols).
+	 */
+	public double getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	/**
+	 * Sets the time between refreshes of the stale opportunities.
+	 * @param refreshInterval the refresh interval (millisols).
+	 */
+	public void setRefreshInterval(double refreshInterval) {
+		if (refreshInterval < 0D) {
+			throw new IllegalArgumentException("refreshInterval cannot be negative: " + refreshInterval);
+		}
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * Gets the number of trades estimated since the matrix was created.
+	 * @return number of estimates.
+	 */
+	public long getEstimateCount() {
+		return estimateCount.get();
+	}
+
+	/**
+	 * Prepare object for garbage collection.
+	 */
+	public synchronized void destroy() {
+		if (pool != null) {
+			pool.shutdownNow();
+			pool = null;
+		}
+		rows.clear();
+	}
+
+	/**
+	 * The stale directions of a settlement pair.
+	 */
+	static class PairRefresh {
+
+		private Settlement settlement1;
+		private Settlement settlement2;
+		private List<Settlement> startingSettlements = new ArrayList<Settlement>(2);
+		private List<Settlement> tradingSettlements = new ArrayList<Settlement>(2);
+		private List<Rover> rovers = new ArrayList<Rover>(2);
+		private List<Integer> creditLimits = new ArrayList<Integer>(2);
+
+		PairRefresh(Settlement settlement1, Settlement settlement2) {
+			this.settlement1 = settlement1;
+			this.settlement2 = settlement2;
+		}
+
+		Settlement getSettlement1() {
+			return settlement1;
+		}
+
+		Settlement getSettlement2() {
+			return settlement2;
+		}
+
+		void add(Settlement startingSettlement, Settlement tradingSettlement, Rover rover, int creditLimit) {
+			startingSettlements.add(startingSettlement);
+			tradingSettlements.add(tradingSettlement);
+			rovers.add(rover);
+			creditLimits.add(creditLimit);
+		}
+
+		boolean isEmpty() {
+			return startingSettlements.isEmpty();
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Mars Simulation Project
+ * TradeOpportunity.java
+ * @version 3.08 2015-08-04
+ */
+package org.mars_sim.msp.core.person.ai.mission;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.goods.Good;
+import org.mars_sim.msp.core.vehicle.Rover;
+
+/**
+ * The estimated trade from one settlement to another with a given rover:
+ * the loads bought and sold, the revenue and the mission cost.
+ * Also records the inputs it was estimated from, so the trade matrix can tell when
+ * it needs to be estimated again.
+ */
+public class TradeOpportunity {
+
+	// Data members
+	private Settlement startingSettlement;
+	private Settlement tradingSettlement;
+	private Rover rover;
+	private Map<Good, Integer> buyLoad;
+	private Map<Good, Integer> sellLoad;
+	private double revenue;
+	private double cost;
+	private double time;
+	private long startingValuesVersion;
+	private long tradingValuesVersion;
+	private int creditLimit;
+
+	/**
+	 * Constructor.
+	 * @param startingSettlement the settlement trading from.
+	 * @param tradingSettlement the settlement trading to.
+	 * @param rover the rover to carry the trade goods.
+	 * @param buyLoad the goods bought from the trading settlement.
+	 * @param sellLoad the goods sold to the trading settlement.
+	 * @param revenue the trade revenue (value points).
+	 * @param cost the mission cost (value points).
+	 * @param time the time (total millisols) of the estimate.
+	 * @param startingValuesVersion the starting settlement's good values version.
+	 * @param tradingValuesVersion the trading settlement's good values version.
+	 * @param creditLimit the credit limit reached between the settlements.
+	 */
+	TradeOpportunity(Settlement startingSettlement, Settlement tradingSettlement, Rover rover,
+			Map<Good, Integer> buyLoad, Map<Good, Integer> sellLoad, double revenue, double cost,
+			double time, long startingValuesVersion, long tradingValuesVersion, int creditLimit) {
+		this.startingSettlement = startingSettlement;
+		this.tradingSettlement = tradingSettlement;
+		this.rover = rover;
+		this.buyLoad = Collections.unmodifiableMap(buyLoad);
+		this.sellLoad = Collections.unmodifiableMap(sellLoad);
+		this.revenue = revenue;
+		this.cost = cost;
+		this.time = time;
+		this.startingValuesVersion = startingValuesVersion;
+		this.tradingValuesVersion = tradingValuesVersion;
+		this.creditLimit = creditLimit;
+	}
+
+	/**
+	 * Gets the settlement trading from.
+	 * @return settlement.
+	 */
+	public Settlement getStartingSettlement() {
+		return startingSettlement;
+	}
+
+	/**
+	 * Gets the settlement trading to.
+	 * @return settlement.
+	 */
+	public Settlement getTradingSettlement() {
+		return tradingSettlement;
+	}
+
+	/**
+	 * Gets the rover the trade was estimated for.
+	 * @return rover.
+	 */
+	public Rover getRover() {
+		return rover;
+	}
+
+	/**
+	 * Gets the goods bought from the trading settlement.
+	 * @return unmodifiable map of goods and their number.
+	 */
+	public Map<Good, Integer> getBuyLoad() {
+		return buyLoad;
+	}
+
+	/**
+	 * Gets the goods sold to the trading settlement.
+	 * @return unmodifiable map of goods and their number.
+	 */
+	public Map<Good, Integer> getSellLoad() {
+		return sellLoad;
+	}
+
+	/**
+	 * Gets the estimated trade revenue.
+	 * @return revenue (value points).
+	 */
+	public double getRevenue() {
+		return revenue;
+	}
+
+	/**
+	 * Gets the estimated mission cost.
+	 * @return cost (value points).
+	 */
+	public double getCost() {
+		return cost;
+	}
+
+	/**
+	 * Gets the estimated trade profit, the revenue less the mission cost.
+	 * @return profit (value points).
+	 */
+	public double getProfit() {
+		return revenue - cost;
+	}
+
+	/**
+	 * Gets the time of the estimate.
+	 * @return time (total millisols).
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	long getStartingValuesVersion() {
+		return startingValuesVersion;
+	}
+
+	long getTradingValuesVersion() {
+		return tradingValuesVersion;
+	}
+
+	int getCreditLimit() {
+		return creditLimit;
+	}
+}
@@ -11,6 +11,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.Coordinates;
@@ -27,7 +28,6 @@ import org.mars_sim.msp.core.resource.AmountResource;
 import org.mars_sim.msp.core.resource.ItemResource;
 import org.mars_sim.msp.core.resource.Part;
 import org.mars_sim.msp.core.structure.Settlement;
-import org.mars_sim.msp.core.structure.goods.CreditManager;
 import org.mars_sim.msp.core.structure.goods.Good;
 import org.mars_sim.msp.core.structure.goods.GoodType;
 import org.mars_sim.msp.core.structure.goods.GoodsManager;
@@ -60,14 +60,17 @@ public final class TradeUtil {
 	/** Minimum number of repair parts to leave at settlement. */
 	private static final int MIN_REPAIR_PARTS = 20;
 
-	/** Performance cache for equipment goods. */
-	private final static Map <Class, Equipment> equipmentGoodCache = new HashMap<Class, Equipment>(5);
+	/** The credit limit reached when the starting settlement cannot buy from the trading settlement. */
+	static final int CREDIT_BUY_LIMIT = -1;
+
+	/** The credit limit reached when the starting settlement will not sell to the trading settlement. */
+	static final int CREDIT_SELL_LIMIT = 1;
 
-	/** Cache for the best trade settlement. */
-	public static Settlement bestTradeSettlementCache = null;
+	/** Performance cache for equipment goods. */
+	private final static Map <Class, Equipment> equipmentGoodCache = new ConcurrentHashMap<Class, Equipment>(5);
 
 	/** Cache for container types. */
-	private final static Map <Class, Equipment> containerTypeCache = new HashMap<Class, Equipment>(3);
+	private final static Map <Class, Equipment> containerTypeCache = new ConcurrentHashMap<Class, Equipment>(3);
 
 	/**
 	 * Private constructor for utility class.
@@ -82,36 +85,46 @@ public final class TradeUtil {
 	 * @throws Exception if error while getting best trade profit.
 	 */
 	public static double getBestTradeProfit(Settlement startingSettlement, Rover rover) {
-		double bestProfit = 0D;
-		Settlement bestSettlement = null;
-
-		Iterator<Settlement> i = Simulation.instance().getUnitManager().getSettlements().iterator();
-		while (i.hasNext()) {
-			Settlement settlement = i.next();
-			if (settlement != startingSettlement) {
-
-				boolean hasCurrentTradeMission = hasCurrentTradeMission(startingSettlement, settlement);
-
-				double settlementRange = settlement.getCoordinates().getDistance(startingSettlement.getCoordinates());
-				boolean withinRange = (settlementRange <= (rover.getRange() * .8D));
-
-				if (!hasCurrentTradeMission && withinRange) {
-					// double startTime = System.currentTimeMillis();
-					double profit = getEstimatedTradeProfit(startingSettlement, rover, settlement);
-					// double endTime = System.currentTimeMillis();
-					// logger.info("getEstimatedTradeProfit " + (endTime - startTime));
-					if (profit > bestProfit) {
-						bestProfit = profit;
-						bestSettlement = settlement;
-					}
-				}
-			}
+		TradeOpportunity opportunity = getBestTradeOpportunity(startingSettlement, rover);
+		if (opportunity != null) {
+			return opportunity.getProfit();
 		}
+		return 0D;
+	}
+
+	/**
+	 * Gets the most profitable trade from a settlement to a settlement within range that
+	 * it doesn't have a current trade mission with. Trades are read from the trade matrix,
+	 * which estimates them again only when they are stale.
+	 * @param startingSettlement the settlement to trade from.
+	 * @param rover the rover to carry the trade.
+	 * @return the best trade opportunity, or null if none has a profit.
+	 */
+	public static TradeOpportunity getBestTradeOpportunity(Settlement startingSettlement, Rover rover) {
+		MarsClock currentTime = Simulation.instance().getMasterClock().getMarsClock();
+		return Simulation.instance().getMissionManager().getTradeMatrix().getBestOpportunity(
+				startingSettlement, rover, MarsClock.getTotalMillisols(currentTime));
+	}
 
-		// Set settlement cache.
-		bestTradeSettlementCache = bestSettlement;
+	/**
+	 * Marks the trades from and to a settlement for estimating again, such as when
+	 * a trade mission starts from or reaches it.
+	 * @param settlement the settlement.
+	 */
+	public static void invalidateTradeMatrix(Settlement settlement) {
+		Simulation.instance().getMissionManager().getTradeMatrix().invalidate(settlement);
+	}
 
-		return bestProfit;
+	/**
+	 * Checks if a settlement is within a rover's trade range of another.
+	 * @param startingSettlement the settlement to trade from.
+	 * @param tradingSettlement the settlement to trade to.
+	 * @param rover the rover to carry the trade.
+	 * @return true if within range.
+	 */
+	static boolean isWithinTradeRange(Settlement startingSettlement, Settlement tradingSettlement, Rover rover) {
+		double settlementRange = tradingSettlement.getCoordinates().getDistance(startingSettlement.getCoordinates());
+		return (settlementRange <= (rover.getRange() * .8D));
 	}
 
 	/**
@@ -120,7 +133,7 @@ public final class TradeUtil {
 	 * @param settlement2 the second settlement.
 	 * @return true if current trade mission between settlements.
 	 */
-	private static boolean hasCurrentTradeMission(Settlement settlement1, Settlement settlement2) {
+	static boolean hasCurrentTradeMission(Settlement settlement1, Settlement settlement2) {
 		boolean result = false;
 
 		MissionManager manager = Simulation.instance().getMissionManager();
@@ -146,43 +159,38 @@ public final class TradeUtil {
 	}
 
 	/**
-	 * Gets the estimated trade profit from one settlement to another.
-	 * @param startingSettlement the settlement to trade from.
-	 * @param rover the rover to carry the trade goods.
-	 * @param tradingSettlement the settlement to trade to.
-	 * @return the trade profit (value points)
-	 * @throws Exception if error getting the estimated trade profit.
+	 * Gets which credit limit, if any, has been reached between two settlements.
+	 * @param credit the credit of the trading settlement with the starting settlement.
+	 * @return {@link #CREDIT_BUY_LIMIT} if the starting settlement cannot buy,
+	 * {@link #CREDIT_SELL_LIMIT} if it will not sell, or 0 if neither.
 	 */
-	private static double getEstimatedTradeProfit(Settlement startingSettlement, Rover rover,
-			Settlement tradingSettlement) {
-
-		// Determine estimated trade revenue.
-		double revenue = getEstimatedTradeRevenue(startingSettlement, rover, tradingSettlement);
-
-		// Determine estimated mission cost.
-		double distance = startingSettlement.getCoordinates().getDistance(tradingSettlement.getCoordinates()) * 2D;
-		double cost = getEstimatedMissionCost(startingSettlement, rover, distance);
-
-		return revenue - cost;
+	static int getCreditLimit(double credit) {
+		if (credit <= (SELL_CREDIT_LIMIT * -1D)) {
+			return CREDIT_BUY_LIMIT;
+		}
+		else if (credit >= SELL_CREDIT_LIMIT) {
+			return CREDIT_SELL_LIMIT;
+		}
+		return 0;
 	}
 
 	/**
-	 * Gets the estimated trade revenue from one settlement to another.
+	 * Estimates the trade from one settlement to another.
 	 * @param startingSettlement the settlement to trade from.
 	 * @param rover the rover to carry the trade goods.
 	 * @param tradingSettlement the settlement to trade to.
-	 * @return the trade revenue (value points).
-	 * @throws Exception if error getting the estimated trade revenue.
+	 * @param creditLimit the credit limit reached between the settlements.
+	 * @param time the current time (total millisols).
+	 * @return the trade opportunity.
 	 */
-	private static double getEstimatedTradeRevenue(Settlement startingSettlement, Rover rover,
-			Settlement tradingSettlement) {
+	static TradeOpportunity estimateTrade(Settlement startingSettlement, Rover rover,
+			Settlement tradingSettlement, int creditLimit, double time) {
 
-		// Get credit between starting settlement and trading settlement.
-		CreditManager creditManager = Simulation.instance().getCreditManager();
-		double credit = creditManager.getCredit(startingSettlement, tradingSettlement);
+		long startingVersion = startingSettlement.getGoodsManager().getValuesVersion();
+		long tradingVersion = tradingSettlement.getGoodsManager().getValuesVersion();
 
 		Map<Good, Integer> buyLoad = null;
-		if (credit > (TradeUtil.SELL_CREDIT_LIMIT * -1D)) {
+		if (creditLimit != CREDIT_BUY_LIMIT) {
 			// Determine desired buy load,
 			buyLoad = TradeUtil.getDesiredBuyLoad(startingSettlement, rover, tradingSettlement);
 		}
@@ -192,7 +200,7 @@ public final class TradeUtil {
 		}
 
 		Map<Good, Integer> sellLoad = null;
-		if (credit < TradeUtil.SELL_CREDIT_LIMIT) {
+		if (creditLimit != CREDIT_SELL_LIMIT) {
 			// Determine sell load.
 			sellLoad = TradeUtil.determineBestSellLoad(startingSettlement, rover, tradingSettlement);
 		}
@@ -209,9 +217,14 @@ public final class TradeUtil {
 		double buyingValueRemote = TradeUtil.determineLoadValue(buyLoad, tradingSettlement, false);
 		double buyingProfit = buyingValueHome - buyingValueRemote;
 
-		double totalProfit = sellingProfit + buyingProfit;
+		double revenue = sellingProfit + buyingProfit;
+
+		// Determine estimated mission cost.
+		double distance = startingSettlement.getCoordinates().getDistance(tradingSettlement.getCoordinates()) * 2D;
+		double cost = getEstimatedMissionCost(startingSettlement, rover, distance);
 
-		return totalProfit;
+		return new TradeOpportunity(startingSettlement, tradingSettlement, rover, buyLoad, sellLoad,
+				revenue, cost, time, startingVersion, tradingVersion, creditLimit);
 	}
 
 	/**
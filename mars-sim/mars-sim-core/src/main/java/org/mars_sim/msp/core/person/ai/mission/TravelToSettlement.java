@@ -8,6 +8,7 @@
 package org.mars_sim.msp.core.person.ai.mission;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -639,8 +640,8 @@ implements Serializable {
                 // Subtract modifier for average relationship with non-mission
                 // inhabitants of starting settlement.
                 if (getStartingSettlement() != null) {
-                    Collection<Person> startingInhabitants = getStartingSettlement()
-                            .getAllAssociatedPeople();
+                    Collection<Person> startingInhabitants = new ArrayList<Person>(
+                            getStartingSettlement().getAllAssociatedPeople());
                     Iterator<Person> i = startingInhabitants.iterator();
                     while (i.hasNext()) {
                         if (hasMember(i.next())) {
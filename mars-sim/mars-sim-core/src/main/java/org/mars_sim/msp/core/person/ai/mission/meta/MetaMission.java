@@ -9,6 +9,7 @@ package org.mars_sim.msp.core.person.ai.mission.meta;
 import org.mars_sim.msp.core.person.Person;
 import org.mars_sim.msp.core.person.ai.mission.Mission;
 import org.mars_sim.msp.core.robot.Robot;
+import org.mars_sim.msp.core.structure.Settlement;
 
 /**
  * Interface for a meta mission, responsible for determining mission probability 
@@ -38,4 +39,37 @@ public interface MetaMission {
      */
     public double getProbability(Person person);
     public double getProbability(Robot robot);
+
+    /**
+     * Checks if the probability splits into a settlement part, the same for everyone at
+     * the settlement, and a person part. The settlement part is precomputed by the
+     * mission planner.
+     * @return true if the meta mission has a settlement probability.
+     */
+    public default boolean hasSettlementProbability() {
+        return false;
+    }
+
+    /**
+     * Gets the weighted probability value of the mission starting from a settlement,
+     * before any modifiers for the person starting it.
+     * The mission planner only uses it if {@link #hasSettlementProbability()} is true.
+     * Meta missions without a settlement probability return zero.
+     * @param settlement the settlement the mission starts from.
+     * @return weighted probability value (0 -> positive value).
+     */
+    public default double getSettlementProbability(Settlement settlement) {
+        return 0D;
+    }
+
+    /**
+     * Gets the weighted probability value that a person in a settlement might perform
+     * this mission, given the settlement probability.
+     * @param person the person to perform the mission.
+     * @param settlementProbability the settlement probability.
+     * @return weighted probability value (0 -> positive value).
+     */
+    public default double getProbability(Person person, double settlementProbability) {
+        return getProbability(person);
+    }
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ import org.mars_sim.msp.core.person.ai.job.Job;
 import org.mars_sim.msp.core.person.ai.mission.Mission;
 import org.mars_sim.msp.core.person.ai.mission.RoverMission;
 import org.mars_sim.msp.core.person.ai.mission.Trade;
+import org.mars_sim.msp.core.person.ai.mission.TradeOpportunity;
 import org.mars_sim.msp.core.person.ai.mission.TradeUtil;
 import org.mars_sim.msp.core.person.ai.mission.VehicleMission;
 import org.mars_sim.msp.core.person.ai.mission.Trade.TradeProfitInfo;
@@ -52,7 +53,7 @@ public class TradeMeta implements MetaMission {
     @Override
     public double getProbability(Person person) {
         
-        double missionProbability = 0D;
+        double settlementProbability = 0D;
 
         // Check if person is in a settlement.
         if (person.getLocationSituation() == LocationSituation.IN_SETTLEMENT) {
@@ -60,9 +61,27 @@ public class TradeMeta implements MetaMission {
             // Check if mission is possible for person based on their circumstance.           
             Settlement settlement = person.getSettlement();
 
-            missionProbability = checkMission(settlement);
+            settlementProbability = checkMission(settlement);
         }
 
+        return getProbability(person, settlementProbability);
+    }
+
+    @Override
+    public boolean hasSettlementProbability() {
+        return true;
+    }
+
+    @Override
+    public double getSettlementProbability(Settlement settlement) {
+        return checkMission(settlement);
+    }
+
+    @Override
+    public double getProbability(Person person, double settlementProbability) {
+
+        double missionProbability = settlementProbability;
+
         // Job modifier.
         Job job = person.getMind().getJob();
         if (job != null) {
@@ -128,34 +147,18 @@ public class TradeMeta implements MetaMission {
 	    try {
 	        Rover rover = (Rover) RoverMission.getVehicleWithGreatestRange(settlement, false);
 	        if (rover != null) {
-	            // Only check every couple of Sols, else use cache.
-	            // Note: this method is very CPU intensive.
-	            boolean useCache = false;
+	            // Read the best trade from the trade matrix, which only estimates
+	            // trades again when their settlements' good values have changed.
 	            MarsClock currentTime = Simulation.instance().getMasterClock().getMarsClock();
-	            if (Trade.TRADE_PROFIT_CACHE.containsKey(settlement)) {
-	                TradeProfitInfo profitInfo = Trade.TRADE_PROFIT_CACHE.get(settlement);
-	                double timeDiff = MarsClock.getTimeDiff(currentTime, profitInfo.time);
-	                if (timeDiff < 2000D) {
-	                    tradeProfit = profitInfo.profit;
-	                    useCache = true;
-	                }
-	            }
-	            else {
-	                Trade.TRADE_PROFIT_CACHE.put(settlement, new TradeProfitInfo(tradeProfit,
-	                        (MarsClock) currentTime.clone()));
-	                useCache = true;
-	            }
-	
-	            if (!useCache) {
-	                double startTime = System.currentTimeMillis();
-	                tradeProfit = TradeUtil.getBestTradeProfit(settlement, rover);
-	                double endTime = System.currentTimeMillis();
-	                logger.info(settlement.getName() + " getBestTradeProfit: " + (endTime - startTime)
-	                        + " milliseconds - TP: " + (int) tradeProfit + " VP");
-	                Trade.TRADE_PROFIT_CACHE.put(settlement, new TradeProfitInfo(tradeProfit,
-	                        (MarsClock) currentTime.clone()));
-	                Trade.TRADE_SETTLEMENT_CACHE.put(settlement, TradeUtil.bestTradeSettlementCache);
+	            TradeOpportunity opportunity = TradeUtil.getBestTradeOpportunity(settlement, rover);
+	            Settlement tradingSettlement = null;
+	            if (opportunity != null) {
+	                tradeProfit = opportunity.getProfit();
+	                tradingSettlement = opportunity.getTradingSettlement();
 	            }
+	            Trade.TRADE_PROFIT_CACHE.put(settlement, new TradeProfitInfo(tradeProfit,
+	                    (MarsClock) currentTime.clone()));
+	            Trade.TRADE_SETTLEMENT_CACHE.put(settlement, tradingSettlement);
 	        }
 	    } catch (Exception e) {
 	        logger.log(Level.SEVERE, "Error finding vehicles at settlement.", e);
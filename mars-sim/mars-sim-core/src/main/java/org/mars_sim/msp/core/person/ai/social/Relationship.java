@@ -7,6 +7,8 @@
  */
 package org.mars_sim.msp.core.person.ai.social;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import org.mars_sim.msp.core.RandomUtil;
@@ -18,7 +20,8 @@ import org.mars_sim.msp.core.science.ScienceType;
 
 /**
  * The Relationship class represents a social relationship between
- * two people.
+ * two people. The two people's opinions of each other are held by the
+ * relationship manager's graph.
  */
 public class Relationship
 implements Serializable {
@@ -39,36 +42,55 @@ implements Serializable {
 
 	// Data members
 	private Person person1;
-	private double person1Opinion;
 	private Person person2;
-	private double person2Opinion;
+	/** The graph holding the two people's opinions. */
+	private RelationshipGraph graph;
+	/** The two people's opinions loaded from a save made before the graph held them. */
+	private transient double[] savedOpinions;
 
 	/**
 	 * Constructor.
+	 * @param graph the graph holding the two people's opinions.
 	 * @param person1 the first person in the relationship (order really isn't important)
 	 * @param person2 the second person in the relationship
-	 * @param startingRelationship the type of starting relationship (see static strings above)
-	 * @throws IllegalArgumentException if invalid parameters
 	 */
-	Relationship(Person person1, Person person2, String startingRelationship) throws IllegalArgumentException {
+	Relationship(RelationshipGraph graph, Person person1, Person person2) {
 
 		// Initialize data members
+		this.graph = graph;
 		this.person1 = person1;
 		this.person2 = person2;
+	}
+
+	/**
+	 * Gets the starting opinions two people have of each other.
+	 * @param person1 the first person in the relationship (order really isn't important)
+	 * @param person2 the second person in the relationship
+	 * @param startingRelationship the type of starting relationship (see static strings above)
+	 * @return person 1's opinion of person 2 and person 2's opinion of person 1, as values from 0 to 100.
+	 * @throws IllegalArgumentException if invalid parameters
+	 */
+	static double[] getStartingOpinions(Person person1, Person person2, String startingRelationship)
+			throws IllegalArgumentException {
+		double[] result = new double[2];
 
 		if (FIRST_IMPRESSION.equals(startingRelationship)) {
-			setPerson1Opinion(getFirstImpression(person1, person2));
-			setPerson2Opinion(getFirstImpression(person2, person1));
+			result[0] = getFirstImpression(person1, person2);
+			result[1] = getFirstImpression(person2, person1);
 		}
 		else if (EXISTING_RELATIONSHIP.equals(startingRelationship)) {
-			setPerson1Opinion(getExistingRelationship(person1, person2));
-			setPerson2Opinion(getExistingRelationship(person2, person1));
+			result[0] = getExistingRelationship(person1, person2);
+			result[1] = getExistingRelationship(person2, person1);
 		}
 		else if (COMMUNICATION_MEETING.equals(startingRelationship)) {
-			setPerson1Opinion(getCommunicationMeeting(person1, person2));
-			setPerson2Opinion(getCommunicationMeeting(person2, person1));
+			result[0] = getCommunicationMeeting(person1, person2);
+			result[1] = getCommunicationMeeting(person2, person1);
 		}
 		else throw new IllegalArgumentException("Invalid starting relationship type: " + startingRelationship);
+
+		result[0] = RelationshipGraph.clampOpinion(result[0]);
+		result[1] = RelationshipGraph.clampOpinion(result[1]);
+		return result;
 	}
 
 	/**
@@ -92,26 +114,6 @@ implements Serializable {
 		return result;
 	}
 
-	/**
-	 * Sets person 1's opinion of person 2
-	 * @param opinion person 1's opinion as a value from 0 to 100.
-	 */
-	private void setPerson1Opinion(double opinion) {
-		person1Opinion = opinion;
-		if (person1Opinion < 0D) person1Opinion = 0D;
-		if (person1Opinion > 100D) person1Opinion = 100D;
-	}
-
-	/**
-	 * Sets person 2's opinion of person 1
-	 * @param opinion person 2's opinion as a value from 0 to 100.
-	 */
-	private void setPerson2Opinion(double opinion) {
-		person2Opinion = opinion;
-		if (person2Opinion < 0D) person2Opinion = 0D;
-		if (person2Opinion > 100D) person2Opinion = 100D;
-	}
-
 	/**
 	 * Gets one of the two people's opinion of the other.
 	 * @param person the person to get an opinion from.
@@ -119,8 +121,8 @@ implements Serializable {
 	 * @throws IllegalArgumentException if person is not one of the two people in the relationship.
 	 */
 	public double getPersonOpinion(Person person) throws IllegalArgumentException {
-		if (person == person1) return person1Opinion;
-		else if (person == person2) return person2Opinion;
+		if (person == person1) return graph.getOpinion(person1, person2, 50D);
+		else if (person == person2) return graph.getOpinion(person2, person1, 50D);
 		else throw new IllegalArgumentException("Invalid person: " + person);
 	}
 
@@ -131,9 +133,18 @@ implements Serializable {
 	 * @throws IllegalArgumentException if person is not one of the two people in the relationship.
 	 */
 	public void setPersonOpinion(Person person, double opinion) throws IllegalArgumentException {
-		if (person == person1) setPerson1Opinion(opinion);
-		else if (person == person2) setPerson2Opinion(opinion);
-		else throw new IllegalArgumentException("Invalid person: " + person); 
+		if (person == person1) graph.setOpinion(person1, person2, opinion);
+		else if (person == person2) graph.setOpinion(person2, person1, opinion);
+		else throw new IllegalArgumentException("Invalid person: " + person);
+	}
+
+	/**
+	 * Gets the two people's opinions loaded from a save made before the graph held them.
+	 * @return person 1's opinion of person 2 and person 2's opinion of person 1, or null if not
+	 * loaded from such a save.
+	 */
+	double[] getSavedOpinions() {
+		return savedOpinions;
 	}
 
 	/**
@@ -142,7 +153,7 @@ implements Serializable {
 	 * @param impressionee the person who's the object of the impression.
 	 * @return the opinion of the impressioner as a value from 0 to 100.
 	 */
-	private double getFirstImpression(Person impressioner, Person impressionee) {
+	private static double getFirstImpression(Person impressioner, Person impressionee) {
 		double result = 0D;
 
 		// Random with bell curve around 50.
@@ -181,7 +192,7 @@ implements Serializable {
 	 * @param target the person who is the target of the relationship.
 	 * @return the person's opinion of the target as a value from 0 to 100.
 	 */
-	private double getExistingRelationship(Person person, Person target) {
+	private static double getExistingRelationship(Person person, Person target) {
 		double result = 0D;
 
 		// Random with bell curve around 50.
@@ -226,7 +237,7 @@ implements Serializable {
 	 * @param target the person who is the target of the relationship.
 	 * @return the person's opinion of the target as a value from 0 to 100.
 	 */
-	private double getCommunicationMeeting(Person person, Person target) {
+	private static double getCommunicationMeeting(Person person, Person target) {
 		double result = 0D;
 
 		// Default to 50 for now.
@@ -241,4 +252,17 @@ implements Serializable {
 
 		return result;
 	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		person1 = (Person) fields.get("person1", null);
+		person2 = (Person) fields.get("person2", null);
+		graph = (RelationshipGraph) fields.get("graph", null);
+		// Relationships used to hold the opinions, and were saved as the edges of a plexus graph.
+		if (fields.getObjectStreamClass().getField("person1Opinion") != null) {
+			savedOpinions = new double[] {
+				fields.get("person1Opinion", 50D), fields.get("person2Opinion", 50D)
+			};
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,336 @@
+/**
+ * Mars Simulation Project
+ * RelationshipGraph.java
+ * @version 3.08 2015-08-07
+ */
+package org.mars_sim.msp.core.person.ai.social;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mars_sim.msp.core.person.Person;
+
+/**
+ * The RelationshipGraph stores the relationships between people as adjacency arrays.
+ * Each person is given a dense int ID when first added. A person's neighbours are held
+ * as a sorted array of IDs, and the person's opinions of them in a parallel array of
+ * opinion values, so looking up a relationship is a binary search and walking a person's
+ * neighbours doesn't allocate.<br/>
+ * <br/>
+ * Each relationship is saved once, with both opinions, rather than as an object graph.
+ */
+class RelationshipGraph
+implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The ID of a person not in the graph. */
+	static final int NO_PERSON = -1;
+
+	/** The initial capacity of a person's neighbour arrays. */
+	private static final int INITIAL_DEGREE_CAPACITY = 4;
+	/** The initial capacity for people. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	// Data members
+	/** The people by ID. */
+	private transient List<Person> people;
+	/** The IDs of the people. */
+	private transient Map<Person, Integer> ids;
+	/** The sorted neighbour IDs of each person. */
+	private transient int[][] neighbours;
+	/** The opinion each person has of each of their neighbours. */
+	private transient double[][] opinions;
+	/** The number of neighbours of each person. */
+	private transient int[] degrees;
+	/** The number of relationships. */
+	private transient int relationshipNum;
+
+	/**
+	 * Constructor.
+	 */
+	RelationshipGraph() {
+		init(INITIAL_CAPACITY);
+	}
+
+	private void init(int capacity) {
+		people = new ArrayList<Person>(capacity);
+		ids = new IdentityHashMap<Person, Integer>(capacity);
+		neighbours = new int[capacity][];
+		opinions = new double[capacity][];
+		degrees = new int[capacity];
+		relationshipNum = 0;
+	}
+
+	/**
+	 * Gets the number of people in the graph.
+	 * @return number of people.
+	 */
+	synchronized int getPersonNum() {
+		return people.size();
+	}
+
+	/**
+	 * Gets the number of relationships in the graph.
+	 * @return number of relationships.
+	 */
+	synchronized int getRelationshipNum() {
+		return relationshipNum;
+	}
+
+	/**
+	 * Checks if a person is in the graph.
+	 * @param person the person.
+	 * @return true if in the graph.
+	 */
+	synchronized boolean containsPerson(Person person) {
+		return ids.containsKey(person);
+	}
+
+	/**
+	 * Gets the ID of a person.
+	 * @param person the person.
+	 * @return the ID or {@link #NO_PERSON} if not in the graph.
+	 */
+	synchronized int getId(Person person) {
+		Integer id = ids.get(person);
+		return (id != null) ? id : NO_PERSON;
+	}
+
+	/**
+	 * Gets the person with an ID.
+	 * @param id the ID.
+	 * @return the person.
+	 */
+	synchronized Person getPerson(int id) {
+		return people.get(id);
+	}
+
+	/**
+	 * Adds a person to the graph.
+	 * @param person the person.
+	 * @return the person's ID.
+	 */
+	synchronized int addPerson(Person person) {
+		Integer id = ids.get(person);
+		if (id != null) return id;
+
+		int newId = people.size();
+		if (newId == degrees.length) {
+			int capacity = degrees.length * 2;
+			neighbours = Arrays.copyOf(neighbours, capacity);
+			opinions = Arrays.copyOf(opinions, capacity);
+			degrees = Arrays.copyOf(degrees, capacity);
+		}
+		people.add(person);
+		ids.put(person, newId);
+		neighbours[newId] = new int[INITIAL_DEGREE_CAPACITY];
+		opinions[newId] = new double[INITIAL_DEGREE_CAPACITY];
+		return newId;
+	}
+
+	/**
+	 * Adds a relationship between two people in the graph.
+	 * Does nothing if they already have a relationship.
+	 * @param person1 the first person.
+	 * @param person2 the second person.
+	 * @param person1Opinion the first person's opinion of the second.
+	 * @param person2Opinion the second person's opinion of the first.
+	 * @return true if the relationship was added.
+	 */
+	synchronized boolean addRelationship(Person person1, Person person2, double person1Opinion,
+			double person2Opinion) {
+		int id1 = getId(person1);
+		int id2 = getId(person2);
+		if ((id1 == NO_PERSON) || (id2 == NO_PERSON) || (id1 == id2)) return false;
+		if (indexOf(id1, id2) >= 0) return false;
+
+		insert(id1, id2, person1Opinion);
+		insert(id2, id1, person2Opinion);
+		relationshipNum++;
+		return true;
+	}
+
+	/**
+	 * Inserts a neighbour into a person's sorted arrays.
+	 */
+	private void insert(int id, int neighbourId, double opinion) {
+		int degree = degrees[id];
+		int index = -(Arrays.binarySearch(neighbours[id], 0, degree, neighbourId) + 1);
+		if (degree == neighbours[id].length) {
+			neighbours[id] = Arrays.copyOf(neighbours[id], degree * 2);
+			opinions[id] = Arrays.copyOf(opinions[id], degree * 2);
+		}
+		System.arraycopy(neighbours[id], index, neighbours[id], index + 1, degree - index);
+		System.arraycopy(opinions[id], index, opinions[id], index + 1, degree - index);
+		neighbours[id][index] = neighbourId;
+		opinions[id][index] = clampOpinion(opinion);
+		degrees[id] = degree + 1;
+	}
+
+	/**
+	 * Gets the index of a neighbour in a person's arrays.
+	 * @return the index or a negative number if not a neighbour.
+	 */
+	private int indexOf(int id, int neighbourId) {
+		return Arrays.binarySearch(neighbours[id], 0, degrees[id], neighbourId);
+	}
+
+	/**
+	 * Checks if two people have a relationship.
+	 * @param person1 the first person.
+	 * @param person2 the second person.
+	 * @return true if they have a relationship.
+	 */
+	synchronized boolean hasRelationship(Person person1, Person person2) {
+		int id1 = getId(person1);
+		int id2 = getId(person2);
+		return (id1 != NO_PERSON) && (id2 != NO_PERSON) && (indexOf(id1, id2) >= 0);
+	}
+
+	/**
+	 * Gets the opinion a person has of another person.
+	 * @param person1 the person holding the opinion.
+	 * @param person2 the person the opinion is of.
+	 * @param defaultOpinion the opinion if they have no relationship.
+	 * @return opinion value from 0 to 100.
+	 */
+	synchronized double getOpinion(Person person1, Person person2, double defaultOpinion) {
+		int id1 = getId(person1);
+		int id2 = getId(person2);
+		if ((id1 == NO_PERSON) || (id2 == NO_PERSON)) return defaultOpinion;
+		int index = indexOf(id1, id2);
+		return (index >= 0) ? opinions[id1][index] : defaultOpinion;
+	}
+
+	/**
+	 * Sets the opinion a person has of another person they have a relationship with.
+	 * @param person1 the person holding the opinion.
+	 * @param person2 the person the opinion is of.
+	 * @param opinion opinion value, limited to 0 to 100.
+	 * @return true if the people have a relationship.
+	 */
+	synchronized boolean setOpinion(Person person1, Person person2, double opinion) {
+		int id1 = getId(person1);
+		int id2 = getId(person2);
+		if ((id1 == NO_PERSON) || (id2 == NO_PERSON)) return false;
+		int index = indexOf(id1, id2);
+		if (index < 0) return false;
+		opinions[id1][index] = clampOpinion(opinion);
+		return true;
+	}
+
+	/**
+	 * Gets the number of neighbours of a person.
+	 * @param id the person's ID.
+	 * @return number of neighbours.
+	 */
+	synchronized int getDegree(int id) {
+		return degrees[id];
+	}
+
+	/**
+	 * Gets a neighbour of a person.
+	 * @param id the person's ID.
+	 * @param index the neighbour index, from 0 to the person's degree.
+	 * @return the neighbour's ID.
+	 */
+	synchronized int getNeighbour(int id, int index) {
+		if (index >= degrees[id]) throw new IndexOutOfBoundsException("Index: " + index);
+		return neighbours[id][index];
+	}
+
+	/**
+	 * Gets a person's opinion of a neighbour.
+	 * @param id the person's ID.
+	 * @param index the neighbour index, from 0 to the person's degree.
+	 * @return opinion value from 0 to 100.
+	 */
+	synchronized double getNeighbourOpinion(int id, int index) {
+		if (index >= degrees[id]) throw new IndexOutOfBoundsException("Index: " + index);
+		return opinions[id][index];
+	}
+
+	/**
+	 * Gets the people a person has a relationship with.
+	 * @param person the person.
+	 * @return list of people, in the order they were added to the graph.
+	 */
+	synchronized List<Person> getNeighbours(Person person) {
+		int id = getId(person);
+		if (id == NO_PERSON) return new ArrayList<Person>(0);
+		int degree = degrees[id];
+		List<Person> result = new ArrayList<Person>(degree);
+		for (int x = 0; x < degree; x++) {
+			result.add(people.get(neighbours[id][x]));
+		}
+		return result;
+	}
+
+	/**
+	 * Limits an opinion to 0 to 100.
+	 * @param opinion the opinion.
+	 * @return the limited opinion.
+	 */
+	static double clampOpinion(double opinion) {
+		if (opinion < 0D) return 0D;
+		if (opinion > 100D) return 100D;
+		return opinion;
+	}
+
+	/**
+	 * Saves the people, then each relationship once as the pair of IDs, the higher
+	 * ID as the gap from the lower, and the two opinions.
+	 */
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		int personNum = people.size();
+		out.writeInt(personNum);
+		for (Person person : people) {
+			out.writeObject(person);
+		}
+		out.writeInt(relationshipNum);
+		for (int id = 0; id < personNum; id++) {
+			int degree = degrees[id];
+			// Neighbours are sorted, so the ones with a higher ID are at the end.
+			int start = -(Arrays.binarySearch(neighbours[id], 0, degree, id) + 1);
+			out.writeInt(degree - start);
+			for (int x = start; x < degree; x++) {
+				int neighbourId = neighbours[id][x];
+				out.writeInt(neighbourId - id);
+				out.writeDouble(opinions[id][x]);
+				out.writeDouble(opinions[neighbourId][indexOf(neighbourId, id)]);
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int personNum = in.readInt();
+		init(Math.max(personNum, INITIAL_CAPACITY));
+		for (int x = 0; x < personNum; x++) {
+			addPerson((Person) in.readObject());
+		}
+		int savedRelationshipNum = in.readInt();
+		for (int id = 0; id < personNum; id++) {
+			int count = in.readInt();
+			Person person = people.get(id);
+			for (int x = 0; x < count; x++) {
+				Person neighbour = people.get(id + in.readInt());
+				double opinion = in.readDouble();
+				double neighbourOpinion = in.readDouble();
+				addRelationship(person, neighbour, opinion, neighbourOpinion);
+			}
+		}
+		if (relationshipNum != savedRelationshipNum)
+			throw new IOException("Expected " + savedRelationshipNum + " relationships, read " + relationshipNum);
+	}
+}
@@ -7,12 +7,13 @@
  */
 package org.mars_sim.msp.core.person.ai.social;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,13 +24,7 @@ import org.mars_sim.msp.core.person.PhysicalCondition;
 import org.mars_sim.msp.core.person.ai.PersonalityType;
 import org.mars_sim.msp.core.structure.Settlement;
 
-import com.phoenixst.plexus.DefaultGraph;
-import com.phoenixst.plexus.EdgePredicate;
-import com.phoenixst.plexus.EdgePredicateFactory;
 import com.phoenixst.plexus.Graph;
-import com.phoenixst.plexus.GraphUtils;
-import com.phoenixst.plexus.NoSuchNodeException;
-import com.phoenixst.plexus.Traverser;
 
 /**
  * The RelationshipManager class keeps track of all the social
@@ -65,20 +60,26 @@ implements Serializable {
 	/** The base settler modifier per millisol as settlers are trained to get along with each other. */
 	private static final double SETTLER_MODIFIER = .02D;
 
+	/** The opinion of a person without a relationship. */
+	private static final double DEFAULT_OPINION = 50D;
+
 	/** The relationship graph. */
-	private Graph relationshipGraph;
+	private RelationshipGraph relationshipGraph;
 	int count = 0;
 
 	/**
 	 * Constructor
 	 */
-	public RelationshipManager() {}
+	public RelationshipManager() {
+		// Create new graph for relationships.
+		relationshipGraph = new RelationshipGraph();
+	}
 
 	// 2015-02-04 Added run()
 	public void run() {
 	   	//System.out.println("RelationshipManager's run() is on " + Thread.currentThread().getName() + " Thread");
 		// Create new graph for relationships.
-		relationshipGraph = new DefaultGraph();
+		if (relationshipGraph == null) relationshipGraph = new RelationshipGraph();
 	}
 
 	/**
@@ -110,8 +111,8 @@ implements Serializable {
 		if ((person == null) || (initialGroup == null))
 			throw new IllegalArgumentException("RelationshipManager.addPerson(): null parameter.");
 
-		if (!relationshipGraph.containsNode(person)) {
-			relationshipGraph.addNode(person);
+		if (!relationshipGraph.containsPerson(person)) {
+			relationshipGraph.addPerson(person);
 
 			Iterator<Person> i = initialGroup.iterator();
 			while (i.hasNext()) {
@@ -134,12 +135,11 @@ implements Serializable {
 	 * @param relationshipType the type of relationship (see Relationship static members)
 	 */
 	public void addRelationship(Person person1, Person person2, String relationshipType) {
-		try {
-			Relationship relationship = new Relationship(person1, person2, relationshipType);
-			relationshipGraph.addEdge(relationship, person1, person2, false);
-			count++;
+		if (relationshipGraph.containsPerson(person1) && relationshipGraph.containsPerson(person2)) {
+			double[] opinions = Relationship.getStartingOpinions(person1, person2, relationshipType);
+			if (relationshipGraph.addRelationship(person1, person2, opinions[0], opinions[1]))
+				count++;
 		}
-		catch (NoSuchNodeException e) {}
 	}
 
 	/**
@@ -149,8 +149,7 @@ implements Serializable {
 	 * @return true if the two people have a relationship
 	 */
 	public boolean hasRelationship(Person person1, Person person2) {
-		EdgePredicate edgePredicate = EdgePredicateFactory.createEqualsNodes(person1, person2, GraphUtils.UNDIRECTED_MASK);
-		return (relationshipGraph.getEdge(edgePredicate) != null);
+		return relationshipGraph.hasRelationship(person1, person2);
 	}
 
 	/**
@@ -162,8 +161,7 @@ implements Serializable {
 	public Relationship getRelationship(Person person1, Person person2) {
 		Relationship result = null;
 		if (hasRelationship(person1, person2)) {
-			EdgePredicate edgePredicate = EdgePredicateFactory.createEqualsNodes(person1, person2, GraphUtils.UNDIRECTED_MASK);
-			result = (Relationship) relationshipGraph.getEdge(edgePredicate).getUserObject();
+			result = new Relationship(relationshipGraph, person1, person2);
 		}
 		return result;
 	}
@@ -174,12 +172,10 @@ implements Serializable {
 	 * @return a list of the person's Relationship objects.
 	 */
 	public List<Relationship> getAllRelationships(Person person) {
-		List<Relationship> result = new ArrayList<Relationship>();
-		Traverser traverser = relationshipGraph.traverser(person, GraphUtils.UNDIRECTED_TRAVERSER_PREDICATE);
-		while (traverser.hasNext()) {
-			traverser.next();
-			Relationship relationship = (Relationship) traverser.getEdge().getUserObject();
-			result.add(relationship);
+		List<Person> knownPeople = relationshipGraph.getNeighbours(person);
+		List<Relationship> result = new ArrayList<Relationship>(knownPeople.size());
+		for (Person knownPerson : knownPeople) {
+			result.add(new Relationship(relationshipGraph, person, knownPerson));
 		}
 		return result;
 	}
@@ -190,13 +186,7 @@ implements Serializable {
 	 * @return a list of the people the person knows.
 	 */
 	public Collection<Person> getAllKnownPeople(Person person) {
-		Collection<Person> result = new ConcurrentLinkedQueue<Person>();
-		Traverser traverser = relationshipGraph.traverser(person, GraphUtils.UNDIRECTED_TRAVERSER_PREDICATE);
-		while (traverser.hasNext()) {
-			Person knownPerson = (Person) traverser.next();
-			result.add(knownPerson);
-		}
-		return result;
+		return relationshipGraph.getNeighbours(person);
 	}
 
 	/**
@@ -207,14 +197,7 @@ implements Serializable {
 	 * @return opinion value from 0 (enemy) to 50 (indifferent) to 100 (close friend).
 	 */
 	public double getOpinionOfPerson(Person person1, Person person2) {
-		double result = 50D;
-
-		if (hasRelationship(person1, person2)) {
-			Relationship relationship = getRelationship(person1, person2);
-			result = relationship.getPersonOpinion(person1);
-		}
-
-		return result;
+		return relationshipGraph.getOpinion(person1, person2, DEFAULT_OPINION);
 	}
 
 	/**
@@ -334,9 +317,9 @@ implements Serializable {
 				changeAmount*= stressChangeModifier;
 
 				// Change the person's opinion of the other person.
-				Relationship relationship = getRelationship(person, localPerson);
-				if (relationship != null)
-					relationship.setPersonOpinion(person, relationship.getPersonOpinion(person) + changeAmount);
+				if (hasRelationship(person, localPerson))
+					relationshipGraph.setOpinion(person, localPerson,
+							getOpinionOfPerson(person, localPerson) + changeAmount);
 				if(logger.isLoggable(Level.FINEST)){
 					logger.finest(person.getName() + " has changed opinion of " + localPerson.getName() + " by " + changeAmount);
 				}
@@ -362,6 +345,41 @@ implements Serializable {
 		condition.setStress(condition.getStress() + stressModifier);
 	}
 
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		count = fields.get("count", 0);
+		Object graph = fields.get("relationshipGraph", null);
+		if (graph instanceof Graph) {
+			// Saved before the relationships were held in a RelationshipGraph.
+			relationshipGraph = convertGraph((Graph) graph);
+		}
+		else {
+			relationshipGraph = (RelationshipGraph) graph;
+		}
+	}
+
+	/**
+	 * Converts a plexus graph of relationships, from a save made before the relationships were
+	 * held in a RelationshipGraph.
+	 * @param oldGraph the plexus graph with people as nodes and relationships as edges.
+	 * @return relationship graph.
+	 */
+	private static RelationshipGraph convertGraph(Graph oldGraph) {
+		RelationshipGraph result = new RelationshipGraph();
+		Iterator<?> i = oldGraph.nodes(null).iterator();
+		while (i.hasNext()) {
+			result.addPerson((Person) i.next());
+		}
+		Iterator<?> j = oldGraph.edges(null).iterator();
+		while (j.hasNext()) {
+			Relationship relationship = (Relationship) ((Graph.Edge) j.next()).getUserObject();
+			Person[] people = relationship.getPeople();
+			double[] opinions = relationship.getSavedOpinions();
+			result.addRelationship(people[0], people[1], opinions[0], opinions[1]);
+		}
+		return result;
+	}
+
 	/**
 	 * Prepare object for garbage collection.
 	 */
@@ -0,0 +1,463 @@
+/**
+ * Mars Simulation Project
+ * ObstacleAvoidancePathFinder.java
+ * @version 3.08 2015-07-27
+ */
+package org.mars_sim.msp.core.person.ai.task;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mars_sim.msp.core.Coordinates;
+
+/**
+ * A* path planning around obstacles for walking outside.
+ * Locations are searched on a grid with {@link WalkOutside#NEIGHBOR_DISTANCE} spacing,
+ * anchored at the starting location and bounded by the obstacle search limits.
+ * The open set is an indexed binary heap and scores are kept in primitive arrays
+ * that are reused between searches on the same thread.
+ * Found paths can be cached by location, start cell and goal cell.
+ */
+final class ObstacleAvoidancePathFinder {
+
+    /** The maximum number of grid locations searched. */
+    private static final int MAX_GRID_SIZE = 1000000;
+
+    /** The maximum number of cached paths. */
+    private static final int MAX_CACHED_PATHS = 256;
+
+    /** Cache cell size (meters) for start and goal locations. */
+    private static final double CACHE_CELL_SIZE = 1D;
+
+    /** Grid steps to the four neighbors: North, East, South and West. */
+    private static final int[] NEIGHBOR_X_STEPS = { 0, -1, 0, 1 };
+    private static final int[] NEIGHBOR_Y_STEPS = { 1, 0, -1, 0 };
+
+    /** The search context for each thread. */
+    private static final ThreadLocal<SearchContext> contexts = new ThreadLocal<SearchContext>() {
+        @Override
+        protected SearchContext initialValue() {
+            return new SearchContext();
+        }
+    };
+
+    /** Cached paths in least recently used order. */
+    private static final Map<PathKey, CachedPath> pathCache =
+            new LinkedHashMap<PathKey, CachedPath>(16, .75F, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PathKey, CachedPath> eldest) {
+            return size() > MAX_CACHED_PATHS;
+        }
+    };
+
+    /** True if found paths are cached. */
+    private static volatile boolean pathCacheEnabled = true;
+
+    /**
+     * Checks if a straight line path is free of obstacles.
+     */
+    interface PathChecker {
+
+        /**
+         * Checks if the line between two locations is free of obstacles.
+         * @return true if path free of obstacles.
+         */
+        boolean isPathClear(double x1, double y1, double x2, double y2);
+    }
+
+    /**
+     * Private constructor for utility class.
+     */
+    private ObstacleAvoidancePathFinder() {
+    }
+
+    /**
+     * Finds a path around obstacles using the A* path planning algorithm.
+     * http://en.wikipedia.org/wiki/A*
+     * @param startX the starting X location.
+     * @param startY the starting Y location.
+     * @param destinationX the destination X location.
+     * @param destinationY the destination Y location.
+     * @param searchLimits array of X max, X min, Y max, and Y min search limits.
+     * @param checker the obstacle path checker.
+     * @return path from start to destination as list of points or null if no path found.
+     */
+    static List<Point2D> findPath(double startX, double startY, double destinationX,
+            double destinationY, double[] searchLimits, PathChecker checker) {
+
+        double step = WalkOutside.NEIGHBOR_DISTANCE;
+
+        // Determine the grid cells within the search limits.
+        int minI = (int) Math.ceil((searchLimits[1] - startX) / step);
+        int maxI = (int) Math.floor((searchLimits[0] - startX) / step);
+        int minJ = (int) Math.ceil((searchLimits[3] - startY) / step);
+        int maxJ = (int) Math.floor((searchLimits[2] - startY) / step);
+        int width = maxI - minI + 1;
+        int height = maxJ - minJ + 1;
+        if ((width <= 0) || (height <= 0) || ((long) width * height > MAX_GRID_SIZE)) {
+            return null;
+        }
+
+        SearchContext context = contexts.get();
+        context.reset(width * height);
+
+        int startNode = (-minJ * width) - minI;
+        context.open(startNode, 0D, Point2D.distance(startX, startY, destinationX, destinationY), -1);
+
+        while (context.heapSize > 0) {
+
+            // Get location with lowest fScore value.
+            int currentNode = context.poll();
+            int currentI = (currentNode % width) + minI;
+            int currentJ = (currentNode / width) + minJ;
+            double currentX = startX + (currentI * step);
+            double currentY = startY + (currentJ * step);
+
+            // Check if clear path to destination.
+            if (checker.isPathClear(currentX, currentY, destinationX, destinationY)) {
+                return createPath(context, currentNode, width, minI, minJ, startX, startY,
+                        destinationX, destinationY);
+            }
+
+            double tentativeGScore = context.gScores[currentNode] + step;
+
+            // Go through each reachable neighbor location.
+            for (int x = 0; x < NEIGHBOR_X_STEPS.length; x++) {
+                int neighborI = currentI + NEIGHBOR_X_STEPS[x];
+                int neighborJ = currentJ + NEIGHBOR_Y_STEPS[x];
+                if ((neighborI < minI) || (neighborI > maxI) || (neighborJ < minJ) || (neighborJ > maxJ)) {
+                    continue;
+                }
+
+                int neighborNode = ((neighborJ - minJ) * width) + (neighborI - minI);
+                if (context.isClosed(neighborNode)) {
+                    continue;
+                }
+
+                boolean open = context.isOpen(neighborNode);
+                if (open && (tentativeGScore >= context.gScores[neighborNode])) {
+                    continue;
+                }
+
+                double neighborX = startX + (neighborI * step);
+                double neighborY = startY + (neighborJ * step);
+                if (!checker.isPathClear(currentX, currentY, neighborX, neighborY)) {
+                    continue;
+                }
+
+                double hScore = Point2D.distance(neighborX, neighborY, destinationX, destinationY);
+                context.open(neighborNode, tentativeGScore, tentativeGScore + hScore, currentNode);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a path from the start location through the navigated locations to the destination.
+     * @return path as list of points.
+     */
+    private static List<Point2D> createPath(SearchContext context, int endNode, int width,
+            int minI, int minJ, double startX, double startY, double destinationX, double destinationY) {
+
+        double step = WalkOutside.NEIGHBOR_DISTANCE;
+
+        List<Point2D> result = new ArrayList<Point2D>();
+        result.add(new Point2D.Double(destinationX, destinationY));
+        int node = endNode;
+        while (node >= 0) {
+            int i = (node % width) + minI;
+            int j = (node / width) + minJ;
+            result.add(new Point2D.Double(startX + (i * step), startY + (j * step)));
+            node = context.cameFrom[node];
+        }
+        Collections.reverse(result);
+
+        return result;
+    }
+
+    /**
+     * Gets a cached path between two locations.
+     * The first and last legs of the cached path are checked again for obstacles
+     * since the start and destination may differ within their cache cells.
+     * @param location the coordinate location.
+     * @param startX the starting X location.
+     * @param startY the starting Y location.
+     * @param destinationX the destination X location.
+     * @param destinationY the destination Y location.
+     * @param obstacleVersion the version of the obstacles at the location.
+     * @param checker the obstacle path checker.
+     * @return path from start to destination or null if none cached.
+     */
+    static List<Point2D> getCachedPath(Coordinates location, double startX, double startY,
+            double destinationX, double destinationY, long obstacleVersion, PathChecker checker) {
+
+        if (!pathCacheEnabled) {
+            return null;
+        }
+
+        CachedPath cached = null;
+        PathKey key = new PathKey(location, startX, startY, destinationX, destinationY);
+        synchronized (pathCache) {
+            cached = pathCache.get(key);
+        }
+        if ((cached == null) || (cached.obstacleVersion != obstacleVersion)) {
+            return null;
+        }
+
+        List<Point2D> result = new ArrayList<Point2D>(cached.waypoints.size() + 2);
+        result.add(new Point2D.Double(startX, startY));
+        for (Point2D waypoint : cached.waypoints) {
+            result.add(new Point2D.Double(waypoint.getX(), waypoint.getY()));
+        }
+        result.add(new Point2D.Double(destinationX, destinationY));
+
+        Point2D second = result.get(1);
+        Point2D secondLast = result.get(result.size() - 2);
+        if (!checker.isPathClear(startX, startY, second.getX(), second.getY()) ||
+                !checker.isPathClear(secondLast.getX(), secondLast.getY(), destinationX, destinationY)) {
+            return null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Caches a path between two locations.
+     * @param location the coordinate location.
+     * @param path the path from start to destination.
+     * @param obstacleVersion the version of the obstacles at the location.
+     */
+    static void cachePath(Coordinates location, List<Point2D> path, long obstacleVersion) {
+
+        if (!pathCacheEnabled || (path.size() < 2)) {
+            return;
+        }
+
+        Point2D start = path.get(0);
+        Point2D destination = path.get(path.size() - 1);
+        PathKey key = new PathKey(location, start.getX(), start.getY(), destination.getX(),
+                destination.getY());
+        List<Point2D> waypoints = new ArrayList<Point2D>(path.subList(1, path.size() - 1));
+        CachedPath cached = new CachedPath(obstacleVersion, waypoints);
+        synchronized (pathCache) {
+            pathCache.put(key, cached);
+        }
+    }
+
+    /**
+     * Checks if found paths are cached.
+     * @return true if path cache enabled.
+     */
+    static boolean isPathCacheEnabled() {
+        return pathCacheEnabled;
+    }
+
+    /**
+     * Sets if found paths are cached.
+     * @param enabled true if path cache enabled.
+     */
+    static void setPathCacheEnabled(boolean enabled) {
+        pathCacheEnabled = enabled;
+        if (!enabled) {
+            clearPathCache();
+        }
+    }
+
+    /**
+     * Clears all cached paths.
+     */
+    static void clearPathCache() {
+        synchronized (pathCache) {
+            pathCache.clear();
+        }
+    }
+
+    /**
+     * The reusable search state for one thread.
+     * Node state is only valid if the node's search stamp matches the current search,
+     * so arrays don't need to be cleared between searches.
+     */
+    private static final class SearchContext {
+
+        private int search;
+        private int[] stamps = new int[0];
+        private boolean[] closed = new boolean[0];
+        private double[] gScores = new double[0];
+        private double[] fScores = new double[0];
+        private int[] cameFrom = new int[0];
+        /** Heap position of each open node, or -1 if not in the heap. */
+        private int[] heapIndexes = new int[0];
+        private int[] heap = new int[0];
+        private int heapSize;
+
+        /**
+         * Prepares the context for a new search.
+         * @param size the number of grid nodes.
+         */
+        private void reset(int size) {
+            if (stamps.length < size) {
+                stamps = new int[size];
+                closed = new boolean[size];
+                gScores = new double[size];
+                fScores = new double[size];
+                cameFrom = new int[size];
+                heapIndexes = new int[size];
+                heap = new int[size];
+                search = 0;
+            }
+            search++;
+            if (search == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                search = 1;
+            }
+            heapSize = 0;
+        }
+
+        private boolean isOpen(int node) {
+            return (stamps[node] == search) && (heapIndexes[node] >= 0);
+        }
+
+        private boolean isClosed(int node) {
+            return (stamps[node] == search) && closed[node];
+        }
+
+        /**
+         * Adds a node to the open set or lowers its scores if already open.
+         */
+        private void open(int node, double gScore, double fScore, int fromNode) {
+            if (stamps[node] != search) {
+                stamps[node] = search;
+                closed[node] = false;
+                heapIndexes[node] = -1;
+            }
+            gScores[node] = gScore;
+            fScores[node] = fScore;
+            cameFrom[node] = fromNode;
+            if (heapIndexes[node] < 0) {
+                heap[heapSize] = node;
+                heapIndexes[node] = heapSize;
+                heapSize++;
+            }
+            siftUp(heapIndexes[node]);
+        }
+
+        /**
+         * Removes the node with the lowest fScore from the open set and closes it.
+         */
+        private int poll() {
+            int result = heap[0];
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapIndexes[heap[0]] = 0;
+                siftDown(0);
+            }
+            heapIndexes[result] = -1;
+            closed[result] = true;
+            return result;
+        }
+
+        private void siftUp(int index) {
+            int node = heap[index];
+            while (index > 0) {
+                int parentIndex = (index - 1) >>> 1;
+                int parent = heap[parentIndex];
+                if (fScores[node] >= fScores[parent]) {
+                    break;
+                }
+                heap[index] = parent;
+                heapIndexes[parent] = index;
+                index = parentIndex;
+            }
+            heap[index] = node;
+            heapIndexes[node] = index;
+        }
+
+        private void siftDown(int index) {
+            int node = heap[index];
+            int half = heapSize >>> 1;
+            while (index < half) {
+                int childIndex = (index << 1) + 1;
+                int child = heap[childIndex];
+                int rightIndex = childIndex + 1;
+                if ((rightIndex < heapSize) && (fScores[heap[rightIndex]] < fScores[child])) {
+                    childIndex = rightIndex;
+                    child = heap[childIndex];
+                }
+                if (fScores[node] <= fScores[child]) {
+                    break;
+                }
+                heap[index] = child;
+                heapIndexes[child] = index;
+                index = childIndex;
+            }
+            heap[index] = node;
+            heapIndexes[node] = index;
+        }
+    }
+
+    /**
+     * Key for a cached path: the coordinate location and the start and goal cells.
+     */
+    private static final class PathKey {
+
+        private final Coordinates location;
+        private final long startX;
+        private final long startY;
+        private final long destinationX;
+        private final long destinationY;
+
+        private PathKey(Coordinates location, double startX, double startY, double destinationX,
+                double destinationY) {
+            this.location = location;
+            this.startX = Math.round(startX / CACHE_CELL_SIZE);
+            this.startY = Math.round(startY / CACHE_CELL_SIZE);
+            this.destinationX = Math.round(destinationX / CACHE_CELL_SIZE);
+            this.destinationY = Math.round(destinationY / CACHE_CELL_SIZE);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof PathKey)) {
+                return false;
+            }
+            PathKey other = (PathKey) object;
+            return (startX == other.startX) && (startY == other.startY) &&
+                    (destinationX == other.destinationX) && (destinationY == other.destinationY) &&
+                    location.equals(other.location);
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = location.hashCode();
+            hash = (31L * hash) + startX;
+            hash = (31L * hash) + startY;
+            hash = (31L * hash) + destinationX;
+            hash = (31L * hash) + destinationY;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    /**
+     * A cached path's waypoints between start and destination, and the obstacles it avoids.
+     */
+    private static final class CachedPath {
+
+        private final long obstacleVersion;
+        private final List<Point2D> waypoints;
+
+        private CachedPath(long obstacleVersion, List<Point2D> waypoints) {
+            this.obstacleVersion = obstacleVersion;
+            this.waypoints = waypoints;
+        }
+    }
+}
@@ -7,10 +7,7 @@
 package org.mars_sim.msp.core.person.ai.task;
 
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
 import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.RandomUtil;
@@ -22,8 +19,10 @@ import org.mars_sim.msp.core.person.PhysicalCondition;
 import org.mars_sim.msp.core.person.ai.Mind;
 import org.mars_sim.msp.core.person.ai.task.meta.MetaTask;
 import org.mars_sim.msp.core.person.ai.task.meta.MetaTaskUtil;
+import org.mars_sim.msp.core.person.ai.task.meta.TaskProbabilityInput;
 import org.mars_sim.msp.core.robot.Robot;
 import org.mars_sim.msp.core.robot.ai.BotMind;
+import org.mars_sim.msp.core.structure.Settlement;
 import org.mars_sim.msp.core.structure.building.Building;
 import org.mars_sim.msp.core.time.MarsClock;
 import org.mars_sim.msp.core.vehicle.Vehicle;
@@ -34,6 +33,10 @@ import org.mars_sim.msp.core.vehicle.Vehicle;
  * current situation.
  *
  * There is one instance of TaskManager per person.
+ *
+ * A person's task probabilities are cached by meta task ordinal, together with stamps of
+ * the inputs each meta task declares it depends on. Only the probabilities whose inputs
+ * have changed are evaluated again.
  */
 public class TaskManager
 implements Serializable {
@@ -44,6 +47,15 @@ implements Serializable {
 	/** default logger. */
 	private static Logger logger = Logger.getLogger(TaskManager.class.getName());
 
+	/** The stamp of the person's location situation, container, job and mission, always checked. */
+	private static final int LOCATION_STAMP = 0;
+	/** The number of input stamps per meta task, the location and one per tracked input. */
+	private static final int STAMP_COUNT = TaskProbabilityInput.OTHER.ordinal() + 1;
+	/** The input mask bit of meta tasks evaluated every time. */
+	private static final int UNTRACKED_BIT = MetaTaskUtil.getInputBit(TaskProbabilityInput.OTHER);
+	/** The time (millisols) a settlement's state is taken as unchanged, unless its population or buildings change. */
+	private static final int SETTLEMENT_PERIOD = 5;
+
 	// Data members
 	/** The current task the person is doing. */
 	private Task currentTask;
@@ -51,11 +63,19 @@ implements Serializable {
 	private Mind mind;
 	private BotMind botMind;
 
-	// Cache variables.
-	private transient MarsClock timeCache;
+	// Cache variables, indexed by meta task ordinal.
 	private transient double totalProbCache;
-	private transient Map<MetaTask, Double> taskProbCache;
-	private transient List<MetaTask> mtListCache;
+	private transient double[] taskProbCache;
+	private transient boolean[] taskProbValid;
+	/** The input stamps each probability was evaluated with, STAMP_COUNT per ordinal. */
+	private transient long[] inputStampCache;
+	/** The ordinals of the meta tasks currently available. */
+	private transient int[] ordinalCache;
+	private transient long[] currentStamps;
+	/** The time (total millisols) all available probabilities were last brought up to date. */
+	private transient double refreshTime = -1D;
+	/** The number of probabilities evaluated. */
+	private transient long probabilityEvaluations;
 
 	private Person person = null;
 	private Robot robot = null;
@@ -74,8 +94,6 @@ implements Serializable {
 		currentTask = null;
 
 		// Initialize cache values.
-		timeCache = null;
-		taskProbCache = new HashMap<MetaTask, Double>();
 		totalProbCache = 0D;
 	}
 
@@ -88,10 +106,9 @@ implements Serializable {
 		currentTask = null;
 
 		// Initialize cache values.
-		timeCache = null;
-		taskProbCache = new HashMap<MetaTask, Double>(MetaTaskUtil.getRobotMetaTasks().size());
 		totalProbCache = 0D;
 	}
+
 	/**
 	 * Returns true if person has an active task.
 	 * @return true if person has an active task
@@ -432,12 +449,11 @@ implements Serializable {
 	 */
 	public Task getNewTask() {
 		Task result = null;
-		// If cache is not current, calculate the probabilities.
-		if (!useCache()) {
-			calculateProbability();
+		// If the probabilities weren't brought up to date at this time, calculate them.
+		double totalProbability = totalProbCache;
+		if ((ordinalCache == null) || (refreshTime != getCurrentTime())) {
+			totalProbability = getTotalTaskProbability(true);
 		}
-		// Get a random number from 0 to the total weight
-		double totalProbability = getTotalTaskProbability(true);
 
 		if (totalProbability == 0D) {
 
@@ -454,19 +470,18 @@ implements Serializable {
 
 		double r = RandomUtil.getRandomDouble(totalProbability);
 		// Determine which task is selected.
-		MetaTask selectedMetaTask = null;
-		Iterator<MetaTask> i = taskProbCache.keySet().iterator();
-		while (i.hasNext() && (selectedMetaTask == null)) {
-			MetaTask metaTask = i.next();
-			double probWeight = taskProbCache.get(metaTask);
+		int selectedOrdinal = -1;
+		for (int x = 0; (x < ordinalCache.length) && (selectedOrdinal < 0); x++) {
+			int ordinal = ordinalCache[x];
+			double probWeight = taskProbCache[ordinal];
 			if (r <= probWeight) {
-				selectedMetaTask = metaTask;
+				selectedOrdinal = ordinal;
 			}
 			else {
 				r -= probWeight;
 			}
 		}
-		if (selectedMetaTask == null) {
+		if (selectedOrdinal < 0) {
 			if (person != null)
 				throw new IllegalStateException(mind.getPerson() +
 						" could not determine a new task.");
@@ -475,6 +490,7 @@ implements Serializable {
 							" could not determine a new task.");
 
 		}
+		MetaTask selectedMetaTask = MetaTaskUtil.getMetaTask(selectedOrdinal);
 		if (person != null) {
 			// Construct the task
 			result = selectedMetaTask.constructInstance(mind.getPerson());
@@ -486,125 +502,230 @@ implements Serializable {
 			//robot.getTaskSchedule().recordTask(getTaskName(), getTaskDescription());
 		}
 
-		// Clear time cache.
-		timeCache = null;
+		// The selected task changes the person's situation.
+		taskProbValid[selectedOrdinal] = false;
+		refreshTime = -1D;
 		return result;
 	}
 
 	/**
 	 * Determines the total probability weight for available tasks.
+	 * @param useCache true to reuse the probabilities whose inputs haven't changed,
+	 * false to evaluate all of them again.
 	 * @return total probability weight
 	 */
 	public double getTotalTaskProbability(boolean useCache) {
-		// If cache is not current, calculate the probabilities.
-		if (!useCache) {
-			calculateProbability();
+		double time = getCurrentTime();
+		if (person != null) {
+			calculateProbability(!useCache, true, time, getSettlementStamp(person, time));
 		}
+		else if (robot != null) {
+			calculateProbability(true, true, time, 0L);
+		}
+		refreshTime = time;
 		return totalProbCache;
 	}
 
 	/**
-	 * Calculates and caches the probabilities.
+	 * Evaluates the stale task probabilities of the settlement's inhabitants who have no
+	 * active task, in one pass, so they are current when each person next chooses a task.
+	 * Meta tasks that don't declare their inputs are left to be evaluated by the person.
+	 * @param settlement the settlement.
 	 */
-	private void calculateProbability() {
-		if (person != null) {
+	public static void evaluateIdlePeople(Settlement settlement) {
+		double time = getCurrentTime();
+		long settlementStamp = getSettlementStamp(settlement, time);
+		Iterator<Person> i = settlement.getInhabitants().iterator();
+		while (i.hasNext()) {
+			Person person = i.next();
+			TaskManager taskManager = person.getMind().getTaskManager();
+			if (!taskManager.hasActiveTask() && !person.getPhysicalCondition().isDead()) {
+				taskManager.calculateProbability(false, false, time, settlementStamp);
+			}
+		}
+	}
 
-		    List<MetaTask> mtList = null;
+	/**
+	 * Calculates and caches the probabilities.
+	 * @param force true to evaluate every probability again.
+	 * @param untracked true to evaluate the meta tasks that don't declare their inputs.
+	 * @param time the current time (total millisols).
+	 * @param settlementStamp the stamp of the person's settlement or vehicle state.
+	 */
+	private void calculateProbability(boolean force, boolean untracked, double time, long settlementStamp) {
+		if (taskProbCache == null) {
+			int count = MetaTaskUtil.getMetaTaskCount();
+			taskProbCache = new double[count];
+			taskProbValid = new boolean[count];
+			inputStampCache = new long[count * STAMP_COUNT];
+			currentStamps = new long[STAMP_COUNT];
+		}
 
-		    //String shiftType = person.getTaskSchedule().getShiftType();
+		if (person != null) {
 
-		    if (timeCache == null)
-		    	timeCache = Simulation.instance().getMasterClock().getMarsClock();
-		    int millisols =  (int) timeCache.getMillisol();
-		    boolean isShiftHour = person.getTaskSchedule().isShiftHour(millisols);
+			MarsClock clock = Simulation.instance().getMasterClock().getMarsClock();
+			int millisols = (int) clock.getMillisol();
+			boolean isShiftHour = person.getTaskSchedule().isShiftHour(millisols);
 
-		    if (isShiftHour) {
-		    	mtList = MetaTaskUtil.getWorkHourTasks();
-		    }
-		    else {
-		    	mtList = MetaTaskUtil.getNonWorkHourTasks();
-		    }
-
-			if (taskProbCache == null) {
-		    	taskProbCache = new HashMap<MetaTask, Double>(mtList.size());
+			if (isShiftHour) {
+				ordinalCache = MetaTaskUtil.getWorkHourOrdinals();
+			}
+			else {
+				ordinalCache = MetaTaskUtil.getNonWorkHourOrdinals();
 			}
 
-
-		    if (mtListCache == null || !mtListCache.equals(mtList)) {
-		    	//System.out.println("!mtListCache.equals(mtList)");
-		    	taskProbCache = null;
-		    	mtListCache = mtList;
-		    	taskProbCache = new HashMap<MetaTask, Double>(mtListCache.size());
-		    }
-
-		    //System.out.println("mtListCache is "+ mtListCache);
+			updateStamps(time, settlementStamp);
 
 			// Clear total probabilities.
 			totalProbCache = 0D;
 			// Determine probabilities.
-			Iterator<MetaTask> i = mtListCache.iterator();
-
-			while (i.hasNext()) {
-				MetaTask metaTask = i.next();
-				double probability = 0;
-
-				probability = metaTask.getProbability(person);
-
-				if ((probability >= 0D) && (!Double.isNaN(probability)) && (!Double.isInfinite(probability))) {
-					taskProbCache.put(metaTask, probability);
-					totalProbCache += probability;
+			for (int ordinal : ordinalCache) {
+				int mask = MetaTaskUtil.getInputMask(ordinal);
+				boolean stale;
+				if ((mask & UNTRACKED_BIT) != 0) {
+					stale = untracked;
 				}
 				else {
-					taskProbCache.put(metaTask, 0D);
+					stale = force || isStale(ordinal, mask);
+				}
 
-						logger.severe(mind.getPerson().getName() + " bad task probability: " +  metaTask.getName() +
-								" probability: " + probability);
+				if (stale) {
+					taskProbCache[ordinal] = checkProbability(ordinal,
+							MetaTaskUtil.getMetaTask(ordinal).getProbability(person));
+					taskProbValid[ordinal] = true;
+					System.arraycopy(currentStamps, 0, inputStampCache, ordinal * STAMP_COUNT, STAMP_COUNT);
+					probabilityEvaluations++;
 				}
+				totalProbCache += taskProbCache[ordinal];
 			}
 		}
 
 		else if (robot != null) {
 
-			List<MetaTask> mtList = MetaTaskUtil.getRobotMetaTasks();
-
-			if (taskProbCache == null)
-				taskProbCache = new HashMap<MetaTask, Double>(mtList.size());
+			ordinalCache = MetaTaskUtil.getRobotOrdinals();
 
 			// Clear total probabilities.
 			totalProbCache = 0D;
 			// Determine probabilities.
-			Iterator<MetaTask> i = mtList.iterator();
-
-			while (i.hasNext()) {
-				MetaTask metaTask = i.next();
-				double probability = 0;
+			for (int ordinal : ordinalCache) {
+				taskProbCache[ordinal] = checkProbability(ordinal,
+						MetaTaskUtil.getMetaTask(ordinal).getProbability(robot));
+				taskProbValid[ordinal] = true;
+				probabilityEvaluations++;
+				totalProbCache += taskProbCache[ordinal];
+			}
+		}
+	}
 
-				probability = metaTask.getProbability(robot);
+	/**
+	 * Gets the number of task probabilities evaluated, rather than reused from the cache.
+	 * @return number of evaluations.
+	 */
+	public long getProbabilityEvaluations() {
+		return probabilityEvaluations;
+	}
 
-				if ((probability >= 0D) && (!Double.isNaN(probability)) && (!Double.isInfinite(probability))) {
-					taskProbCache.put(metaTask, probability);
-					totalProbCache += probability;
-				}
-				else {
-					taskProbCache.put(metaTask, 0D);
+	/**
+	 * Checks a probability is valid.
+	 * @return the probability, or zero if it isn't valid.
+	 */
+	private double checkProbability(int ordinal, double probability) {
+		if ((probability >= 0D) && (!Double.isNaN(probability)) && (!Double.isInfinite(probability))) {
+			return probability;
+		}
+		else {
+			String name = (person != null) ? person.getName() : robot.getName();
+			logger.severe(name + " bad task probability: " +  MetaTaskUtil.getMetaTask(ordinal).getName() +
+					" probability: " + probability);
+			return 0D;
+		}
+	}
 
-					logger.severe(botMind.getRobot().getName() + " bad task probability: " +  metaTask.getName() +
-								" probability: " + probability);
-				}
+	/**
+	 * Checks if a cached probability is stale.
+	 * @param ordinal the meta task ordinal.
+	 * @param mask the meta task's input mask.
+	 * @return true if the probability must be evaluated again.
+	 */
+	private boolean isStale(int ordinal, int mask) {
+		if (!taskProbValid[ordinal]) {
+			return true;
+		}
+		int offset = ordinal * STAMP_COUNT;
+		if (inputStampCache[offset + LOCATION_STAMP] != currentStamps[LOCATION_STAMP]) {
+			return true;
+		}
+		// Input stamps follow the location stamp in input order.
+		for (int stamp = 1; stamp < STAMP_COUNT; stamp++) {
+			if (((mask & (1 << (stamp - 1))) != 0)
+					&& (inputStampCache[offset + stamp] != currentStamps[stamp])) {
+				return true;
 			}
 		}
-		
-		// Set the time cache to the current time.
-		timeCache = (MarsClock) Simulation.instance().getMasterClock().getMarsClock().clone();
+		return false;
+	}
+
+	/**
+	 * Updates the current stamps of the person's probability inputs.
+	 * Continuous values are quantized so small changes don't make every probability stale.
+	 */
+	private void updateStamps(double time, long settlementStamp) {
+		PhysicalCondition condition = person.getPhysicalCondition();
+
+		long location = person.getLocationSituation().ordinal();
+		location = mix(location, System.identityHashCode(person.getContainerUnit()));
+		location = mix(location, System.identityHashCode(mind.getJob()));
+		location = mix(location, System.identityHashCode(mind.getMission()));
+		currentStamps[LOCATION_STAMP] = location;
+
+		currentStamps[TaskProbabilityInput.TIME_OF_DAY.ordinal() + 1] = (long) time;
+		currentStamps[TaskProbabilityInput.SETTLEMENT.ordinal() + 1] = settlementStamp;
+		currentStamps[TaskProbabilityInput.BUILDING.ordinal() + 1] = System.identityHashCode(person.getBuildingLocation());
+
+		long health = (long) (person.getPerformanceRating() * 100D);
+		health = mix(health, (long) (condition.getFatigue() / 10D));
+		health = mix(health, (long) (condition.getHunger() / 10D));
+		health = mix(health, (long) (condition.getStress() / 2D));
+		health = mix(health, (long) (condition.getEnergy() / 100D));
+		health = mix(health, condition.getProblems().size());
+		currentStamps[TaskProbabilityInput.HEALTH.ordinal() + 1] = health;
+	}
+
+	/**
+	 * Gets the current simulation time.
+	 * @return total millisols.
+	 */
+	private static double getCurrentTime() {
+		return MarsClock.getTotalMillisols(Simulation.instance().getMasterClock().getMarsClock());
+	}
+
+	/**
+	 * Gets the stamp of the state of a person's settlement or vehicle.
+	 */
+	private static long getSettlementStamp(Person person, double time) {
+		Settlement settlement = person.getSettlement();
+		if (settlement != null) {
+			return getSettlementStamp(settlement, time);
+		}
+		long period = (long) time / SETTLEMENT_PERIOD;
+		return mix(System.identityHashCode(person.getVehicle()), period);
 	}
 
 	/**
-	 * Checks if task probability cache should be used.
-	 * @return true if cache should be used.
+	 * Gets the stamp of the state of a settlement.
+	 * It changes with the settlement's population and number of buildings, and every
+	 * settlement period for everything else.
 	 */
-	private boolean useCache() {
-		MarsClock currentTime = Simulation.instance().getMasterClock().getMarsClock();
-		return currentTime.equals(timeCache);
+	private static long getSettlementStamp(Settlement settlement, double time) {
+		long result = System.identityHashCode(settlement);
+		result = mix(result, (long) time / SETTLEMENT_PERIOD);
+		result = mix(result, settlement.getCurrentPopulationNum());
+		result = mix(result, settlement.getBuildingManager().getBuildingNum());
+		return result;
+	}
+
+	private static long mix(long hash, long value) {
+		return (hash * 0x9E3779B97F4A7C15L) ^ value;
 	}
 
 	/**
@@ -618,10 +739,9 @@ implements Serializable {
 		botMind = null;
 		person = null;
 		robot = null;
-		timeCache = null;
-		if (taskProbCache != null) {
-			taskProbCache.clear();
-			taskProbCache = null;
-		}
+		taskProbCache = null;
+		taskProbValid = null;
+		inputStampCache = null;
+		ordinalCache = null;
 	}
 }
\ No newline at end of file
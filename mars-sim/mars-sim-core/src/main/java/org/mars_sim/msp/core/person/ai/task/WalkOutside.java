@@ -11,12 +11,8 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.logging.Logger;
 
 import org.mars_sim.msp.core.Coordinates;
@@ -213,120 +209,34 @@ implements Serializable {
      */
     List<Point2D> determineObstacleAvoidancePath() {
 
-        List<Point2D> result = null;
-
-        Point2D startLoc = new Point2D.Double(startXLocation, startYLocation);
-        Point2D endLoc = new Point2D.Double(destinationXLocation, destinationYLocation);
+        Coordinates location = getLocation();
 
         // Check if start or destination locations are within obstacles.
         // Return null if either are within obstacles.
-        boolean startLocWithinObstacle = false;
-        boolean destinationLocWithinObstacle = false;
-
-		if (person != null) {
-	        startLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(startXLocation,
-	                startYLocation, person.getCoordinates());
-	        destinationLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(destinationXLocation,
-	                destinationYLocation, person.getCoordinates());
-
-		}
-		else if (robot != null) {
-	        startLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(startXLocation,
-	                startYLocation, robot.getCoordinates());
-	        destinationLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(destinationXLocation,
-	                destinationYLocation, robot.getCoordinates());
-		}
-
+        boolean startLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(startXLocation,
+                startYLocation, location);
+        boolean destinationLocWithinObstacle = !LocalAreaUtil.checkLocationCollision(destinationXLocation,
+                destinationYLocation, location);
 
         if (startLocWithinObstacle || destinationLocWithinObstacle) {
             return null;
         }
 
-        // Using A* path planning algorithm, testing out neighbor locations in a 1m x 1m grid.
-        // http://en.wikipedia.org/wiki/A*
+        ObstacleAvoidancePathFinder.PathChecker checker = (x1, y1, x2, y2) ->
+                LocalAreaUtil.checkLinePathCollision(new Line2D.Double(x1, y1, x2, y2), location, true);
 
-        // The set of locations already evaluated.
-        Set<Point2D> closedSet = new HashSet<Point2D>();
+        // Use a cached path if the obstacles at the location haven't changed.
+        long obstacleVersion = LocalAreaUtil.getObstacleVersion(location);
+        List<Point2D> result = ObstacleAvoidancePathFinder.getCachedPath(location, startXLocation,
+                startYLocation, destinationXLocation, destinationYLocation, obstacleVersion, checker);
 
-        // The set of tentative locations to be evaluated
-        Set<Point2D> openSet = new HashSet<Point2D>();
-
-        // Initially add starting location to openSet.
-        openSet.add(startLoc);
-
-        // The map of navigated locations.
-        Map<Point2D, Point2D> cameFrom = new HashMap<Point2D, Point2D>();
-
-        // Check each location in openSet.
-        while (openSet.size() > 0) {
-
-            // Find loc in openSet with lowest fScore value.
-            // FScore is distance (m) from start through currentLoc to destination.
-            Point2D currentLoc = getLowestFScore(openSet);
-
-            // Check if clear path to destination.
-            if (checkClearPathToDestination(currentLoc, endLoc)) {
-
-                // Create path from currentLoc.
-                List<Point2D> path = recreatePath(cameFrom, currentLoc);
+        if (result == null) {
+            // Using A* path planning algorithm, testing out neighbor locations in a grid.
+            List<Point2D> path = ObstacleAvoidancePathFinder.findPath(startXLocation, startYLocation,
+                    destinationXLocation, destinationYLocation, getObstacleSearchLimits(), checker);
+            if (path != null) {
                 result = optimizePath(path);
-                break;
-            }
-
-            // Remove currentLoc from openSet.
-            openSet.remove(currentLoc);
-
-            // Add currentLoc to closedSet.
-            closedSet.add(currentLoc);
-
-            double currentGScore = getGScore(currentLoc);
-
-            // Go through each reachable neighbor location.
-            Iterator<Point2D> i = getNeighbors(currentLoc).iterator();
-            while (i.hasNext()) {
-
-                Point2D neighborLoc = i.next();
-
-                if (closedSet.contains(neighborLoc)) {
-                    continue;
-                }
-
-                double tentativeGScore = currentGScore + NEIGHBOR_DISTANCE;
-                double neighborGScore = getGScore(neighborLoc);
-                if ((!openSet.contains(neighborLoc) || (tentativeGScore < neighborGScore)) &&
-                        withinObstacleSearch(neighborLoc)) {
-
-                    // Map neighbor location from current location in cameFrom.
-                    cameFrom.put(neighborLoc, currentLoc);
-
-                    // Add neighbor location to openSet.
-                    if (!openSet.contains(neighborLoc)) {
-                        openSet.add(neighborLoc);
-                    }
-                }
-            }
-        }
-
-        return result;
-    }
-
-    /**
-     * Find location in openSet with lowest fScore value.
-     * The fScore value is the distance (m) from start through location to destination.
-     * @param openSet a set of locations.
-     * @return location with lowest fScore value.
-     */
-    private Point2D getLowestFScore(Set<Point2D> openSet) {
-
-        double lowestFScore = Double.POSITIVE_INFINITY;
-        Point2D result = null;
-        Iterator<Point2D> i = openSet.iterator();
-        while (i.hasNext()) {
-            Point2D loc = i.next();
-            double fScore = getFScore(loc);
-            if (fScore < lowestFScore) {
-                result = loc;
-                lowestFScore = fScore;
+                ObstacleAvoidancePathFinder.cachePath(location, result, obstacleVersion);
             }
         }
 
@@ -356,38 +266,6 @@ implements Serializable {
 		 return result;
     }
 
-    /**
-     * Recreate a path from the cameFromMap.
-     * @param cameFromMap a map of locations and their previous locations.
-     * @param endLocation the last location in a path (not destination location).
-     * @return path as list of points.
-     */
-    private List<Point2D> recreatePath(Map<Point2D, Point2D> cameFromMap, Point2D endLocation) {
-
-        List<Point2D> result = new ArrayList<Point2D>();
-
-        // Add destination location to end of path.
-        result.add(new Point2D.Double(destinationXLocation, destinationYLocation));
-
-        // Add endLocation location to start of path.
-        result.add(0, endLocation);
-
-        Point2D currentLoc = endLocation;
-        while (cameFromMap.containsKey(currentLoc)) {
-            Point2D cameFromLoc = cameFromMap.get(currentLoc);
-
-            // Add came from location to start of path.
-            result.add(0, cameFromLoc);
-
-            // Remove currentLoc key from cameFromMap to prevent endless loops.
-            cameFromMap.remove(currentLoc);
-
-            currentLoc = cameFromLoc;
-        }
-
-        return result;
-    }
-
     /**
      * Optimizes a path by removing unnecessary locations.
      * @param initialPath the initial path to optimize.
@@ -429,115 +307,6 @@ implements Serializable {
         return optimizedPath;
     }
 
-    /**
-     * Gets the gScore value for a location.
-     * The gScore value is the distance (m) from the starting location to this location.
-     * @param loc the location.
-     * @return gScore value.
-     */
-    private double getGScore(Point2D loc) {
-        return Point2D.distance(startXLocation, startYLocation, loc.getX(), loc.getY());
-    }
-
-    /**
-     * Gets the fScore value for a location.
-     * The fScore value is the total distance (m) from the starting location to this location
-     * and then to the destination location.
-     * @param loc the location.
-     * @return the fScore value.
-     */
-    private double getFScore(Point2D loc) {
-        double gScore = getGScore(loc);
-        double fScore = gScore + Point2D.distance(loc.getX(), loc.getY(), destinationXLocation,
-                destinationYLocation);
-        return fScore;
-    }
-
-    /**
-     * Get search location neighbors to a given location.
-     * This method gets a set of four locations at 1m distance North, South, East and West of the
-     * current location.
-     * @param currentLoc the current location.
-     * @return set of neighbor locations.
-     */
-    private Set<Point2D> getNeighbors(Point2D currentLoc) {
-
-        Set<Point2D> result = new HashSet<Point2D>(8);
-
-        // Get location North of currentLoc.
-        Point2D northLoc = new Point2D.Double(currentLoc.getX(), currentLoc.getY() + NEIGHBOR_DISTANCE);
-        Line2D northLine = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), northLoc.getX(),
-                northLoc.getY());
-		if (person != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(northLine, person.getCoordinates(), true)) {
-	            result.add(northLoc);
-	        }
-		}
-		else if (robot != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(northLine, robot.getCoordinates(), true)) {
-	            result.add(northLoc);
-	        }
-		}
-
-
-
-        // Get location East of currentLoc.
-        Point2D eastLoc = new Point2D.Double(currentLoc.getX() - NEIGHBOR_DISTANCE, currentLoc.getY());
-        Line2D eastLine = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), eastLoc.getX(),
-                eastLoc.getY());
-		if (person != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(eastLine, person.getCoordinates(), true)) {
-	            result.add(eastLoc);
-	        }
-		}
-		else if (robot != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(eastLine, robot.getCoordinates(), true)) {
-	            result.add(eastLoc);
-	        }
-		}
-
-
-
-
-        // Get location South of currentLoc.
-        Point2D southLoc = new Point2D.Double(currentLoc.getX(), currentLoc.getY() - NEIGHBOR_DISTANCE);
-        Line2D southLine = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), southLoc.getX(),
-                southLoc.getY());
-
-		if (person != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(southLine, person.getCoordinates(), true)) {
-	            result.add(southLoc);
-	        }
-		}
-		else if (robot != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(southLine, robot.getCoordinates(), true)) {
-	            result.add(southLoc);
-	        }
-		}
-
-
-
-        // Get location West of currentLoc.
-        Point2D westLoc = new Point2D.Double(currentLoc.getX() + NEIGHBOR_DISTANCE, currentLoc.getY());
-        Line2D westLine = new Line2D.Double(currentLoc.getX(), currentLoc.getY(), westLoc.getX(),
-                westLoc.getY());
-
-		if (person != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(westLine, person.getCoordinates(), true)) {
-	            result.add(westLoc);
-	        }
-		}
-		else if (robot != null) {
-	        if (LocalAreaUtil.checkLinePathCollision(westLine, robot.getCoordinates(), true)) {
-	            result.add(westLoc);
-	        }
-		}
-
-
-
-        return result;
-    }
-
     /**
      * Gets the local obstacle path search limits for a coordinate location.
      * @param location the coordinate location.
@@ -616,49 +385,27 @@ implements Serializable {
     }
 
     /**
-     * Check if point location is within the obstacle search limits.
-     * @param location the location.
-     * @return true if location is within search limits.
+     * Gets the obstacle path search limits for the walker's location.
+     * @return array of four double values representing X max, X min, Y max, and Y min.
      */
-    private boolean withinObstacleSearch(Point2D location) {
-
-		if (person != null) {
-	        if (obstacleSearchLimits == null) {
-	            obstacleSearchLimits = getLocalObstacleSearchLimits(person.getCoordinates());
-	        }
-		}
-		else if (robot != null) {
-	        if (obstacleSearchLimits == null) {
-	            obstacleSearchLimits = getLocalObstacleSearchLimits(robot.getCoordinates());
-	        }
-		}
-
-
-
-
-        boolean result = true;
-
-        // Check if X value is larger than X max limit.
-        if (location.getX() > obstacleSearchLimits[0]) {
-            result = false;
-        }
-
-        // Check if X value is smaller than X min limit.
-        if (location.getX() < obstacleSearchLimits[1]) {
-            result = false;
+    private double[] getObstacleSearchLimits() {
+        if (obstacleSearchLimits == null) {
+            obstacleSearchLimits = getLocalObstacleSearchLimits(getLocation());
         }
+        return obstacleSearchLimits;
+    }
 
-        // Check if Y value is larger than Y max limit.
-        if (location.getY() > obstacleSearchLimits[2]) {
-            result = false;
+    /**
+     * Gets the coordinate location of the person or robot walking.
+     * @return coordinates.
+     */
+    private Coordinates getLocation() {
+        if (person != null) {
+            return person.getCoordinates();
         }
-
-        // Check if Y value is smaller thank Y min limit.
-        if (location.getY() < obstacleSearchLimits[3]) {
-            result = false;
+        else {
+            return robot.getCoordinates();
         }
-
-        return result;
     }
 
     /**
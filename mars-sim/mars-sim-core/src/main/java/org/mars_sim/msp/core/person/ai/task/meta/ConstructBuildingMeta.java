@@ -40,8 +40,6 @@ public class ConstructBuildingMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(ConstructBuildingMeta.class.getName());
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -82,8 +80,7 @@ public class ConstructBuildingMeta implements MetaTask, Serializable {
         }
 
         // Check if it is night time.
-        if (surface == null)
-            surface = Simulation.instance().getMars().getSurfaceFeatures();
+        SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
 
         if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
             if (!surface.inDarkPolarRegion(person.getCoordinates())) {
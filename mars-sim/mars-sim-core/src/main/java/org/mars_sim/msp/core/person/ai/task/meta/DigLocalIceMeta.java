@@ -46,8 +46,6 @@ public class DigLocalIceMeta implements MetaTask, Serializable {
     /** Ice value probability modifier. */
     private static double ICE_VALUE_MODIFIER = 10D;
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -105,9 +103,7 @@ public class DigLocalIceMeta implements MetaTask, Serializable {
             }
 
             // Check if it is night time.
-            if (surface == null) {
-                surface = Simulation.instance().getMars().getSurfaceFeatures();
-            }
+            SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
             if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
                 if (!surface.inDarkPolarRegion(person.getCoordinates())) {
                     result = 0D;
@@ -41,8 +41,6 @@ public class LoadVehicleEVAMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(LoadVehicleEVAMeta.class.getName());
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -89,9 +87,7 @@ public class LoadVehicleEVAMeta implements MetaTask, Serializable {
             }
 
             // Check if it is night time.
-            if (surface == null) {
-                surface = Simulation.instance().getMars().getSurfaceFeatures();
-            }
+            SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
             if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
                 if (!surface.inDarkPolarRegion(person.getCoordinates())) {
                     result = 0D;
@@ -36,8 +36,6 @@ public class MaintainGroundVehicleEVAMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.maintainGroundVehicleEVA"); //$NON-NLS-1$
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -80,9 +78,7 @@ public class MaintainGroundVehicleEVAMeta implements MetaTask, Serializable {
                 }
 
                 // Check if it is night time.
-                if (surface == null) {
-                    surface = Simulation.instance().getMars().getSurfaceFeatures();
-                }
+                SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
                 if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
                     if (!surface.inDarkPolarRegion(person.getCoordinates())) {
                         result = 0D;
@@ -46,8 +46,6 @@ public class MaintenanceEVAMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(MaintenanceEVAMeta.class.getName());
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -103,9 +101,7 @@ public class MaintenanceEVAMeta implements MetaTask, Serializable {
             }
 
             // Check if it is night time.
-            if (surface == null) {
-                surface = Simulation.instance().getMars().getSurfaceFeatures();
-            }
+            SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
             if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
                 if (!surface.inDarkPolarRegion(person.getCoordinates())) {
                     result = 0D;
@@ -7,9 +7,12 @@
 package org.mars_sim.msp.core.person.ai.task.meta;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -18,113 +21,53 @@ import java.util.Set;
 public class MetaTaskUtil {
 
     // Static values.
-    private static List<MetaTask> metaTasks = null;
+    private static volatile List<MetaTask> metaTasks = null;
     private static List<MetaTask> workHourTasks = null;
     private static List<MetaTask> nonWorkHourTasks = null;
     private static List<MetaTask> allHourTasks = null;
 
     private static List<MetaTask> robotMetaTasks = null;
+
+    /** The meta task instances by class. */
+    private static Map<Class<? extends MetaTask>, MetaTask> instances = null;
+    /** The meta task ordinals by meta task. */
+    private static Map<MetaTask, Integer> ordinals = null;
+    /** The probability inputs by meta task class. */
+    private static Map<Class<? extends MetaTask>, Set<TaskProbabilityInput>> probabilityInputs = null;
+    /** The probability input masks by ordinal. */
+    private static int[] inputMasks = null;
+
+    private static int[] workHourOrdinals = null;
+    private static int[] nonWorkHourOrdinals = null;
+    private static int[] robotOrdinals = null;
+
     /**
      * Private constructor for utility class.
      */
     private MetaTaskUtil() {};
 
     /**
-     * Lazy initialization of metaTasks list.
-     */
-    private static void initializeMetaTasks() {
-
-        metaTasks = new ArrayList<MetaTask>();
-
-        initWorkHourTasks();
-        initNonWorkHourTasks();
-        initAllHourTasks();
-
-        Set<MetaTask> s = new HashSet<>();
-
-        s.addAll(workHourTasks);
-        s.addAll(nonWorkHourTasks);
-        s.addAll(allHourTasks);
-
-        metaTasks.addAll(s);
-
-        //metaTasks = ListUtils.union(workHourTasks, nonWorkHourTasks);
-        //metaTasks = ListUtils.union(metaTasks, allHourTasks);
-
-/*
-        // Populate metaTasks list with all meta tasks.
-        metaTasks.add(new AssistScientificStudyResearcherMeta());
-        metaTasks.add(new CompileScientificStudyResultsMeta());
-        metaTasks.add(new ConnectWithEarthMeta());
-        metaTasks.add(new ConsolidateContainersMeta());
-        metaTasks.add(new ConstructBuildingMeta());
-        metaTasks.add(new CookMealMeta());
-        metaTasks.add(new DigLocalIceMeta());
-        metaTasks.add(new DigLocalRegolithMeta());
-        metaTasks.add(new EatMealMeta());
-        metaTasks.add(new InviteStudyCollaboratorMeta());
-        metaTasks.add(new LoadVehicleEVAMeta());
-        metaTasks.add(new LoadVehicleGarageMeta());
-        metaTasks.add(new MaintainGroundVehicleEVAMeta());
-        metaTasks.add(new MaintainGroundVehicleGarageMeta());
-        metaTasks.add(new MaintenanceEVAMeta());
-        metaTasks.add(new MaintenanceMeta());
-        metaTasks.add(new ManufactureConstructionMaterialsMeta());
-        metaTasks.add(new ManufactureGoodMeta());
-        metaTasks.add(new ObserveAstronomicalObjectsMeta());
-        metaTasks.add(new PeerReviewStudyPaperMeta());
-        metaTasks.add(new PerformLaboratoryExperimentMeta());
-        metaTasks.add(new PerformLaboratoryResearchMeta());
-        metaTasks.add(new PerformMathematicalModelingMeta());
-        metaTasks.add(new PrepareDessertMeta());
-        metaTasks.add(new PrescribeMedicationMeta());
-        metaTasks.add(new ProduceFoodMeta());
-        metaTasks.add(new ProposeScientificStudyMeta());
-		metaTasks.add(new ReadMeta());
-        metaTasks.add(new RelaxMeta());
-        metaTasks.add(new RepairEVAMalfunctionMeta());
-        metaTasks.add(new RepairMalfunctionMeta());
-        metaTasks.add(new RequestMedicalTreatmentMeta());
-        metaTasks.add(new RespondToStudyInvitationMeta());
-        metaTasks.add(new RestingMedicalRecoveryMeta());
-        metaTasks.add(new ReviewJobReassignmentMeta());
-        metaTasks.add(new ReturnLightUtilityVehicleMeta());
-        metaTasks.add(new SalvageBuildingMeta());
-        metaTasks.add(new SalvageGoodMeta());
-        metaTasks.add(new SelfTreatHealthProblemMeta());
-        metaTasks.add(new SleepMeta());
-        metaTasks.add(new StudyFieldSamplesMeta());
-        metaTasks.add(new TeachMeta());
-        metaTasks.add(new TendGreenhouseMeta());
-        metaTasks.add(new ToggleFuelPowerSourceMeta());
-        metaTasks.add(new ToggleResourceProcessMeta());
-        metaTasks.add(new TreatMedicalPatientMeta());
-        metaTasks.add(new UnloadVehicleEVAMeta());
-        metaTasks.add(new UnloadVehicleGarageMeta());
-        metaTasks.add(new WalkMeta());
-        metaTasks.add(new WorkoutMeta());
-        metaTasks.add(new WriteReportMeta());
-        metaTasks.add(new YogaMeta());
-*/
-    }
-
-
-    /**
-     * Lazy initialization of work hour metaTasks list.
+     * Lazy initialization of all meta task lists.
+     * There is one instance of each meta task, in order of its ordinal.
      */
-    private static void initWorkHourTasks() {
+    private static synchronized void initializeMetaTasks() {
 
-        workHourTasks = new ArrayList<MetaTask>();
+        if (metaTasks != null) {
+            return;
+        }
 
-    	List<MetaTask> tasks = new ArrayList<MetaTask>();
+        List<MetaTask> tasks = new ArrayList<MetaTask>();
 
+        // Populate tasks list with all meta tasks.
         tasks.add(new AssistScientificStudyResearcherMeta());
         tasks.add(new CompileScientificStudyResultsMeta());
+        tasks.add(new ConnectWithEarthMeta());
         tasks.add(new ConsolidateContainersMeta());
         tasks.add(new ConstructBuildingMeta());
         tasks.add(new CookMealMeta());
         tasks.add(new DigLocalIceMeta());
         tasks.add(new DigLocalRegolithMeta());
+        tasks.add(new EatMealMeta());
         tasks.add(new InviteStudyCollaboratorMeta());
         tasks.add(new LoadVehicleEVAMeta());
         tasks.add(new LoadVehicleGarageMeta());
@@ -134,6 +77,7 @@ public class MetaTaskUtil {
         tasks.add(new MaintenanceMeta());
         tasks.add(new ManufactureConstructionMaterialsMeta());
         tasks.add(new ManufactureGoodMeta());
+        tasks.add(new ObserveAstronomicalObjectsMeta());
         tasks.add(new PeerReviewStudyPaperMeta());
         tasks.add(new PerformLaboratoryExperimentMeta());
         tasks.add(new PerformLaboratoryResearchMeta());
@@ -142,11 +86,19 @@ public class MetaTaskUtil {
         tasks.add(new PrescribeMedicationMeta());
         tasks.add(new ProduceFoodMeta());
         tasks.add(new ProposeScientificStudyMeta());
+        tasks.add(new ReadMeta());
+        tasks.add(new RelaxMeta());
+        tasks.add(new RepairEVAMalfunctionMeta());
+        tasks.add(new RepairMalfunctionMeta());
+        tasks.add(new RequestMedicalTreatmentMeta());
         tasks.add(new RespondToStudyInvitationMeta());
+        tasks.add(new RestingMedicalRecoveryMeta());
         tasks.add(new ReturnLightUtilityVehicleMeta());
         tasks.add(new ReviewJobReassignmentMeta());
         tasks.add(new SalvageBuildingMeta());
         tasks.add(new SalvageGoodMeta());
+        tasks.add(new SelfTreatHealthProblemMeta());
+        tasks.add(new SleepMeta());
         tasks.add(new StudyFieldSamplesMeta());
         tasks.add(new TeachMeta());
         tasks.add(new TendGreenhouseMeta());
@@ -155,176 +107,411 @@ public class MetaTaskUtil {
         tasks.add(new TreatMedicalPatientMeta());
         tasks.add(new UnloadVehicleEVAMeta());
         tasks.add(new UnloadVehicleGarageMeta());
+        tasks.add(new WalkMeta());
+        tasks.add(new WorkoutMeta());
         tasks.add(new WriteReportMeta());
+        tasks.add(new YogaMeta());
+
+        instances = new HashMap<Class<? extends MetaTask>, MetaTask>(tasks.size());
+        ordinals = new HashMap<MetaTask, Integer>(tasks.size());
+        inputMasks = new int[tasks.size()];
+        for (int x = 0; x < tasks.size(); x++) {
+            MetaTask metaTask = tasks.get(x);
+            instances.put(metaTask.getClass(), metaTask);
+            ordinals.put(metaTask, x);
+        }
+
+        initProbabilityInputs();
+        for (int x = 0; x < tasks.size(); x++) {
+            Set<TaskProbabilityInput> inputs = probabilityInputs.get(tasks.get(x).getClass());
+            if (inputs == null) {
+                inputs = EnumSet.of(TaskProbabilityInput.OTHER);
+            }
+            for (TaskProbabilityInput input : inputs) {
+                inputMasks[x] |= getInputBit(input);
+            }
+        }
 
         initAllHourTasks();
+        initWorkHourTasks();
+        initNonWorkHourTasks();
+        initializeRobotMetaTasks();
 
-        Set<MetaTask> s = new HashSet<>();
+        workHourOrdinals = getOrdinals(workHourTasks);
+        nonWorkHourOrdinals = getOrdinals(nonWorkHourTasks);
+        robotOrdinals = getOrdinals(robotMetaTasks);
 
-        s.addAll(tasks);
-        s.addAll(allHourTasks);
+        metaTasks = tasks;
+    }
 
-        workHourTasks.addAll(s);
+    /**
+     * Initialization of the inputs the probabilities of meta tasks depend on.
+     * Meta tasks that aren't listed, such as those depending on missions or science
+     * studies or with side effects, have their probabilities evaluated every time.
+     */
+    private static void initProbabilityInputs() {
+
+        probabilityInputs = new HashMap<Class<? extends MetaTask>, Set<TaskProbabilityInput>>();
+
+        Set<TaskProbabilityInput> place = EnumSet.of(TaskProbabilityInput.HEALTH,
+                TaskProbabilityInput.SETTLEMENT, TaskProbabilityInput.BUILDING);
+        Set<TaskProbabilityInput> placeAndTime = EnumSet.of(TaskProbabilityInput.TIME_OF_DAY,
+                TaskProbabilityInput.HEALTH, TaskProbabilityInput.SETTLEMENT, TaskProbabilityInput.BUILDING);
+        Set<TaskProbabilityInput> health = EnumSet.of(TaskProbabilityInput.HEALTH,
+                TaskProbabilityInput.SETTLEMENT);
+        Set<TaskProbabilityInput> settlement = EnumSet.of(TaskProbabilityInput.SETTLEMENT);
+
+        probabilityInputs.put(ConnectWithEarthMeta.class, place);
+        probabilityInputs.put(ConsolidateContainersMeta.class, place);
+        probabilityInputs.put(CookMealMeta.class, placeAndTime);
+        probabilityInputs.put(DigLocalIceMeta.class, placeAndTime);
+        probabilityInputs.put(DigLocalRegolithMeta.class, placeAndTime);
+        probabilityInputs.put(EatMealMeta.class, placeAndTime);
+        probabilityInputs.put(MaintainGroundVehicleEVAMeta.class, placeAndTime);
+        probabilityInputs.put(MaintainGroundVehicleGarageMeta.class, place);
+        probabilityInputs.put(MaintenanceEVAMeta.class, placeAndTime);
+        probabilityInputs.put(MaintenanceMeta.class, place);
+        probabilityInputs.put(PrepareDessertMeta.class, placeAndTime);
+        probabilityInputs.put(PrescribeMedicationMeta.class, place);
+        probabilityInputs.put(ReadMeta.class, place);
+        probabilityInputs.put(RelaxMeta.class, placeAndTime);
+        probabilityInputs.put(RepairEVAMalfunctionMeta.class, placeAndTime);
+        probabilityInputs.put(RepairMalfunctionMeta.class, place);
+        probabilityInputs.put(RequestMedicalTreatmentMeta.class, health);
+        probabilityInputs.put(RestingMedicalRecoveryMeta.class, health);
+        probabilityInputs.put(ReturnLightUtilityVehicleMeta.class, settlement);
+        probabilityInputs.put(ReviewJobReassignmentMeta.class, place);
+        probabilityInputs.put(SelfTreatHealthProblemMeta.class, health);
+        probabilityInputs.put(SleepMeta.class, placeAndTime);
+        probabilityInputs.put(TeachMeta.class, EnumSet.of(TaskProbabilityInput.SETTLEMENT,
+                TaskProbabilityInput.BUILDING));
+        probabilityInputs.put(TendGreenhouseMeta.class, place);
+        probabilityInputs.put(ToggleFuelPowerSourceMeta.class, placeAndTime);
+        probabilityInputs.put(ToggleResourceProcessMeta.class, placeAndTime);
+        probabilityInputs.put(TreatMedicalPatientMeta.class, place);
+        probabilityInputs.put(WalkMeta.class, settlement);
+        probabilityInputs.put(WorkoutMeta.class, place);
+        probabilityInputs.put(WriteReportMeta.class, place);
+        probabilityInputs.put(YogaMeta.class, place);
     }
 
     /**
-     * Lazy initialization of work hour metaTasks list.
+     * Gets the instance of a meta task class.
      */
-    private static void initNonWorkHourTasks() {
+    private static MetaTask get(Class<? extends MetaTask> metaTaskClass) {
+        return instances.get(metaTaskClass);
+    }
 
-    	nonWorkHourTasks = new ArrayList<MetaTask>();
+    /**
+     * Gets the sorted ordinals of a list of meta tasks.
+     */
+    private static int[] getOrdinals(List<MetaTask> tasks) {
+        int[] result = new int[tasks.size()];
+        for (int x = 0; x < result.length; x++) {
+            result[x] = ordinals.get(tasks.get(x));
+        }
+        Arrays.sort(result);
+        return result;
+    }
 
-    	List<MetaTask> tasks = new ArrayList<MetaTask>();
+    /**
+     * Initialization of work hour metaTasks list.
+     */
+    private static void initWorkHourTasks() {
 
-    	tasks.add(new ReadMeta());
-    	tasks.add(new ConnectWithEarthMeta());
-        tasks.add(new SleepMeta());
-        tasks.add(new WalkMeta());
-        tasks.add(new WorkoutMeta());
-        tasks.add(new YogaMeta());
+        workHourTasks = new ArrayList<MetaTask>();
 
-        initAllHourTasks();
+        workHourTasks.add(get(AssistScientificStudyResearcherMeta.class));
+        workHourTasks.add(get(CompileScientificStudyResultsMeta.class));
+        workHourTasks.add(get(ConsolidateContainersMeta.class));
+        workHourTasks.add(get(ConstructBuildingMeta.class));
+        workHourTasks.add(get(CookMealMeta.class));
+        workHourTasks.add(get(DigLocalIceMeta.class));
+        workHourTasks.add(get(DigLocalRegolithMeta.class));
+        workHourTasks.add(get(InviteStudyCollaboratorMeta.class));
+        workHourTasks.add(get(LoadVehicleEVAMeta.class));
+        workHourTasks.add(get(LoadVehicleGarageMeta.class));
+        workHourTasks.add(get(MaintainGroundVehicleEVAMeta.class));
+        workHourTasks.add(get(MaintainGroundVehicleGarageMeta.class));
+        workHourTasks.add(get(MaintenanceEVAMeta.class));
+        workHourTasks.add(get(MaintenanceMeta.class));
+        workHourTasks.add(get(ManufactureConstructionMaterialsMeta.class));
+        workHourTasks.add(get(ManufactureGoodMeta.class));
+        workHourTasks.add(get(PeerReviewStudyPaperMeta.class));
+        workHourTasks.add(get(PerformLaboratoryExperimentMeta.class));
+        workHourTasks.add(get(PerformLaboratoryResearchMeta.class));
+        workHourTasks.add(get(PerformMathematicalModelingMeta.class));
+        workHourTasks.add(get(PrepareDessertMeta.class));
+        workHourTasks.add(get(PrescribeMedicationMeta.class));
+        workHourTasks.add(get(ProduceFoodMeta.class));
+        workHourTasks.add(get(ProposeScientificStudyMeta.class));
+        workHourTasks.add(get(RespondToStudyInvitationMeta.class));
+        workHourTasks.add(get(ReturnLightUtilityVehicleMeta.class));
+        workHourTasks.add(get(ReviewJobReassignmentMeta.class));
+        workHourTasks.add(get(SalvageBuildingMeta.class));
+        workHourTasks.add(get(SalvageGoodMeta.class));
+        workHourTasks.add(get(StudyFieldSamplesMeta.class));
+        workHourTasks.add(get(TeachMeta.class));
+        workHourTasks.add(get(TendGreenhouseMeta.class));
+        workHourTasks.add(get(ToggleFuelPowerSourceMeta.class));
+        workHourTasks.add(get(ToggleResourceProcessMeta.class));
+        workHourTasks.add(get(TreatMedicalPatientMeta.class));
+        workHourTasks.add(get(UnloadVehicleEVAMeta.class));
+        workHourTasks.add(get(UnloadVehicleGarageMeta.class));
+        workHourTasks.add(get(WriteReportMeta.class));
+
+        for (MetaTask metaTask : allHourTasks) {
+            if (!workHourTasks.contains(metaTask)) {
+                workHourTasks.add(metaTask);
+            }
+        }
+    }
 
-        Set<MetaTask> s = new HashSet<>();
+    /**
+     * Initialization of non work hour metaTasks list.
+     */
+    private static void initNonWorkHourTasks() {
 
-        s.addAll(tasks);
-        s.addAll(allHourTasks);
+        nonWorkHourTasks = new ArrayList<MetaTask>();
 
-        nonWorkHourTasks.addAll(s);
-    }
+        nonWorkHourTasks.add(get(ReadMeta.class));
+        nonWorkHourTasks.add(get(ConnectWithEarthMeta.class));
+        nonWorkHourTasks.add(get(SleepMeta.class));
+        nonWorkHourTasks.add(get(WalkMeta.class));
+        nonWorkHourTasks.add(get(WorkoutMeta.class));
+        nonWorkHourTasks.add(get(YogaMeta.class));
 
+        for (MetaTask metaTask : allHourTasks) {
+            if (!nonWorkHourTasks.contains(metaTask)) {
+                nonWorkHourTasks.add(metaTask);
+            }
+        }
+    }
 
     /**
-     * Lazy initialization of work hour metaTasks list.
+     * Initialization of all hour metaTasks list.
      */
     private static void initAllHourTasks() {
 
         allHourTasks = new ArrayList<MetaTask>();
 
-        allHourTasks.add(new EatMealMeta());
-        allHourTasks.add(new ObserveAstronomicalObjectsMeta());
-        allHourTasks.add(new RelaxMeta());
-        allHourTasks.add(new RepairEVAMalfunctionMeta());
-        allHourTasks.add(new RepairMalfunctionMeta());
-        allHourTasks.add(new RequestMedicalTreatmentMeta());
-        allHourTasks.add(new RestingMedicalRecoveryMeta());
-        allHourTasks.add(new SelfTreatHealthProblemMeta());
+        allHourTasks.add(get(EatMealMeta.class));
+        allHourTasks.add(get(ObserveAstronomicalObjectsMeta.class));
+        allHourTasks.add(get(RelaxMeta.class));
+        allHourTasks.add(get(RepairEVAMalfunctionMeta.class));
+        allHourTasks.add(get(RepairMalfunctionMeta.class));
+        allHourTasks.add(get(RequestMedicalTreatmentMeta.class));
+        allHourTasks.add(get(RestingMedicalRecoveryMeta.class));
+        allHourTasks.add(get(SelfTreatHealthProblemMeta.class));
     }
 
-
-
-   private static void initializeRobotMetaTasks() {
+    /**
+     * Initialization of robot metaTasks list.
+     */
+    private static void initializeRobotMetaTasks() {
 
         robotMetaTasks = new ArrayList<MetaTask>();
 
         // Populate robotMetaTasks list with all robotMeta tasks.
-        robotMetaTasks.add(new CookMealMeta());
-        robotMetaTasks.add(new ConsolidateContainersMeta());
-        robotMetaTasks.add(new ConstructBuildingMeta());
-        robotMetaTasks.add(new LoadVehicleEVAMeta());
-        robotMetaTasks.add(new LoadVehicleGarageMeta());
-        robotMetaTasks.add(new MaintenanceEVAMeta());
-        robotMetaTasks.add(new MaintenanceMeta());
-        robotMetaTasks.add(new ManufactureGoodMeta());
-        robotMetaTasks.add(new PrepareDessertMeta());
-        robotMetaTasks.add(new PrescribeMedicationMeta());
-        robotMetaTasks.add(new ProduceFoodMeta());
-        robotMetaTasks.add(new RepairEVAMalfunctionMeta());
-        robotMetaTasks.add(new RepairMalfunctionMeta());
-        robotMetaTasks.add(new ReturnLightUtilityVehicleMeta());
-        robotMetaTasks.add(new SalvageBuildingMeta());
-        robotMetaTasks.add(new SleepMeta());
-        robotMetaTasks.add(new TendGreenhouseMeta());
-        robotMetaTasks.add(new UnloadVehicleEVAMeta());
-        robotMetaTasks.add(new UnloadVehicleGarageMeta());
-        robotMetaTasks.add(new WalkMeta());
+        robotMetaTasks.add(get(CookMealMeta.class));
+        robotMetaTasks.add(get(ConsolidateContainersMeta.class));
+        robotMetaTasks.add(get(ConstructBuildingMeta.class));
+        robotMetaTasks.add(get(LoadVehicleEVAMeta.class));
+        robotMetaTasks.add(get(LoadVehicleGarageMeta.class));
+        robotMetaTasks.add(get(MaintenanceEVAMeta.class));
+        robotMetaTasks.add(get(MaintenanceMeta.class));
+        robotMetaTasks.add(get(ManufactureGoodMeta.class));
+        robotMetaTasks.add(get(PrepareDessertMeta.class));
+        robotMetaTasks.add(get(PrescribeMedicationMeta.class));
+        robotMetaTasks.add(get(ProduceFoodMeta.class));
+        robotMetaTasks.add(get(RepairEVAMalfunctionMeta.class));
+        robotMetaTasks.add(get(RepairMalfunctionMeta.class));
+        robotMetaTasks.add(get(ReturnLightUtilityVehicleMeta.class));
+        robotMetaTasks.add(get(SalvageBuildingMeta.class));
+        robotMetaTasks.add(get(SleepMeta.class));
+        robotMetaTasks.add(get(TendGreenhouseMeta.class));
+        robotMetaTasks.add(get(UnloadVehicleEVAMeta.class));
+        robotMetaTasks.add(get(UnloadVehicleGarageMeta.class));
+        robotMetaTasks.add(get(WalkMeta.class));
+    }
 
+    /**
+     * Gets a list of all meta tasks.
+     * @return list of meta tasks.
+     */
+    public static List<MetaTask> getMetaTasks() {
+
+        // Lazy initialize meta tasks list if necessary.
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+
+        // Return copy of meta task list.
+        return new ArrayList<MetaTask>(metaTasks);
+    }
+
+    /**
+     * Gets a list of all work hour meta tasks.
+     * @return list of work hour meta tasks.
+     */
+    public static List<MetaTask> getWorkHourTasks() {
+
+        // Lazy initialize work hour meta tasks list if necessary.
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+
+        // Return copy of work hour meta task list.
+        return new ArrayList<MetaTask>(workHourTasks);
     }
 
-   /**
-    * Gets a list of all meta tasks.
-    * @return list of meta tasks.
-    */
-   public static List<MetaTask> getMetaTasks() {
-
-       // Lazy initialize meta tasks list if necessary.
-       if (metaTasks == null) {
-           initializeMetaTasks();
-       }
-
-       // Return copy of meta task list.
-       return new ArrayList<MetaTask>(metaTasks);
-   }
-
-   /**
-    * Gets a list of all work hour meta tasks.
-    * @return list of work hour meta tasks.
-    */
-   public static List<MetaTask> getWorkHourTasks() {
-
-       // Lazy initialize work hour meta tasks list if necessary.
-       if (workHourTasks == null) {
-           initWorkHourTasks();
-       }
-
-       // Return copy of work hour meta task list.
-       return new ArrayList<MetaTask>(workHourTasks);
-   }
-
-   /**
-    * Gets a list of all non work hour meta tasks.
-    * @return list of work hour meta tasks.
-    */
-   public static List<MetaTask> getNonWorkHourTasks() {
-
-       // Lazy initialize non work hour meta tasks list if necessary.
-       if (nonWorkHourTasks == null) {
-           initNonWorkHourTasks();
-       }
-
-       // Return copy of non work hour meta task list.
-       return new ArrayList<MetaTask>(nonWorkHourTasks);
-   }
-
-   /**
-    * Gets a list of all hour meta tasks.
-    * @return list of all hour meta tasks.
-    */
-   public static List<MetaTask> getAllWorkHourTasks() {
-
-       // Lazy initialize all hour meta tasks list if necessary.
-       if (allHourTasks == null) {
-           initAllHourTasks();
-       }
-
-       // Return copy of all hour meta task list.
-       return new ArrayList<MetaTask>(allHourTasks);
-   }
+    /**
+     * Gets a list of all non work hour meta tasks.
+     * @return list of work hour meta tasks.
+     */
+    public static List<MetaTask> getNonWorkHourTasks() {
+
+        // Lazy initialize non work hour meta tasks list if necessary.
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+
+        // Return copy of non work hour meta task list.
+        return new ArrayList<MetaTask>(nonWorkHourTasks);
+    }
+
+    /**
+     * Gets a list of all hour meta tasks.
+     * @return list of all hour meta tasks.
+     */
+    public static List<MetaTask> getAllWorkHourTasks() {
+
+        // Lazy initialize all hour meta tasks list if necessary.
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+
+        // Return copy of all hour meta task list.
+        return new ArrayList<MetaTask>(allHourTasks);
+    }
 
     /**
      * Converts a task name in String to Metatask
      * @return meta tasks.
      */
     public static MetaTask getMetaTask(String name) {
-    	MetaTask metaTask = null;
-    	Iterator<MetaTask> i = getMetaTasks().iterator();
-    	while (i.hasNext()) {
-    		MetaTask t = i.next();
-    		if (t.getClass().getSimpleName().equals(name)) {
-    			metaTask = t;
-    		}
-    	}
-    	return metaTask;
+        MetaTask metaTask = null;
+        Iterator<MetaTask> i = getMetaTasks().iterator();
+        while (i.hasNext()) {
+            MetaTask t = i.next();
+            if (t.getClass().getSimpleName().equals(name)) {
+                metaTask = t;
+            }
+        }
+        return metaTask;
     }
 
     public static List<MetaTask> getRobotMetaTasks() {
 
         // Lazy initialize meta tasks list if necessary.
-        if (robotMetaTasks == null) {
-            initializeRobotMetaTasks();
+        if (metaTasks == null) {
+            initializeMetaTasks();
         }
 
         // Return copy of meta task list.
         return new ArrayList<MetaTask>(robotMetaTasks);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the number of meta tasks, one more than the highest ordinal.
+     * @return number of meta tasks.
+     */
+    public static int getMetaTaskCount() {
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+        return metaTasks.size();
+    }
+
+    /**
+     * Gets the meta task with an ordinal.
+     * @param ordinal the ordinal.
+     * @return meta task.
+     */
+    public static MetaTask getMetaTask(int ordinal) {
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+        return metaTasks.get(ordinal);
+    }
+
+    /**
+     * Gets the ordinal of a meta task.
+     * @param metaTask the meta task.
+     * @return ordinal, or -1 if it isn't one of the meta task instances.
+     */
+    public static int getOrdinal(MetaTask metaTask) {
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+        Integer result = ordinals.get(metaTask);
+        return (result != null) ? result : -1;
+    }
+
+    /**
+     * Gets the ordinals of the work hour meta tasks, in ascending order.
+     * The array is shared and must not be modified.
+     * @return array of ordinals.
+     */
+    public static int[] getWorkHourOrdinals() {
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+        return workHourOrdinals;
+    }
+
+    /**
+     * Gets the ordinals of the non work hour meta tasks, in ascending order.
+     * The array is shared and must not be modified.
+     * @return array of ordinals.
+     */
+    public static int[] getNonWorkHourOrdinals() {
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+        return nonWorkHourOrdinals;
+    }
+
+    /**
+     * Gets the ordinals of the robot meta tasks, in ascending order.
+     * The array is shared and must not be modified.
+     * @return array of ordinals.
+     */
+    public static int[] getRobotOrdinals() {
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+        return robotOrdinals;
+    }
+
+    /**
+     * Gets the probability inputs of a meta task as a bit mask.
+     * @param ordinal the meta task ordinal.
+     * @return mask of {@link #getInputBit(TaskProbabilityInput)} bits.
+     */
+    public static int getInputMask(int ordinal) {
+        if (metaTasks == null) {
+            initializeMetaTasks();
+        }
+        return inputMasks[ordinal];
+    }
+
+    /**
+     * Gets the bit of a probability input in an input mask.
+     * @param input the probability input.
+     * @return bit.
+     */
+    public static int getInputBit(TaskProbabilityInput input) {
+        return 1 << input.ordinal();
+    }
+}
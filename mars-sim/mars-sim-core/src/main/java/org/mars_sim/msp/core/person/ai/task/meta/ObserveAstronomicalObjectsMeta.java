@@ -38,8 +38,6 @@ public class ObserveAstronomicalObjectsMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(ObserveAstronomicalObjectsMeta.class.getName());
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -60,8 +58,7 @@ public class ObserveAstronomicalObjectsMeta implements MetaTask, Serializable {
         if (observatory != null) {
 
             // Check if it is completely dark outside.
-            if (surface == null)
-            	surface = Simulation.instance().getMars().getSurfaceFeatures();
+            SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
 
             double sunlight = surface.getSolarIrradiance(person.getCoordinates());
 
@@ -35,8 +35,6 @@ public class RepairEVAMalfunctionMeta implements MetaTask, Serializable {
     private static final String NAME = Msg.getString(
             "Task.description.repairEVAMalfunction"); //$NON-NLS-1$
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -97,9 +95,7 @@ public class RepairEVAMalfunctionMeta implements MetaTask, Serializable {
             }
 
         // Check if it is night time.
-        if (surface == null) {
-            surface = Simulation.instance().getMars().getSurfaceFeatures();
-        }
+        SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
         if (surface.getSolarIrradiance(person.getCoordinates()) == 0) {
             if (!surface.inDarkPolarRegion(person.getCoordinates())) {
                 result = 0D;
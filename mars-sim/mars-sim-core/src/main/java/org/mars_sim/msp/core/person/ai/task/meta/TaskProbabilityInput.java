@@ -0,0 +1,26 @@
+/**
+ * Mars Simulation Project
+ * TaskProbabilityInput.java
+ * @version 3.08 2015-08-02
+ */
+package org.mars_sim.msp.core.person.ai.task.meta;
+
+/**
+ * The inputs a meta task's probability depends on.
+ * A person's cached task probability is reused until one of the inputs of its meta task,
+ * set in {@link MetaTaskUtil}, has changed. The person's location situation, container and job are always
+ * checked as well.
+ */
+public enum TaskProbabilityInput {
+
+    /** The time of day, to the millisol. */
+    TIME_OF_DAY,
+    /** The state of the person's settlement or vehicle. */
+    SETTLEMENT,
+    /** The building the person is in. */
+    BUILDING,
+    /** The person's own health and performance. */
+    HEALTH,
+    /** Anything else, so the probability is evaluated every time. */
+    OTHER;
+}
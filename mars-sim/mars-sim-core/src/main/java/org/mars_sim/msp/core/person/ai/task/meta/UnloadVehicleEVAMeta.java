@@ -38,8 +38,6 @@ public class UnloadVehicleEVAMeta implements MetaTask, Serializable {
     /** default logger. */
     private static Logger logger = Logger.getLogger(UnloadVehicleEVAMeta.class.getName());
 
-    private SurfaceFeatures surface;
-
     @Override
     public String getName() {
         return NAME;
@@ -81,9 +79,7 @@ public class UnloadVehicleEVAMeta implements MetaTask, Serializable {
             }
 
             // Check if it is night time.
-            if (surface == null) {
-                surface = Simulation.instance().getMars().getSurfaceFeatures();
-            }
+            SurfaceFeatures surface = Simulation.instance().getMars().getSurfaceFeatures();
             if (surface.getSolarIrradiance(person.getCoordinates()) == 0D) {
                 if (!surface.inDarkPolarRegion(person.getCoordinates())) {
                     result = 0D;
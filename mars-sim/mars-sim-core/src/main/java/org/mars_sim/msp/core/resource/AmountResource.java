@@ -7,6 +7,8 @@
 
 package org.mars_sim.msp.core.resource;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +31,8 @@ implements Serializable {
 	private static final long serialVersionUID = 12L;
 
 	// Data members
+	/** The registry ID, or -1 if not yet assigned. */
+	private transient int id = -1;
 	private Phase phase;
 	private boolean lifeSupport;
 	private int hashcode = -1;
@@ -69,6 +73,32 @@ implements Serializable {
 		return name;
 	}
 
+	/**
+	 * Gets the resource's ID in the amount resource registry.
+	 * IDs are dense, starting at 0, and can be used to index arrays
+	 * of size {@link #getNumAmountResources()}.
+	 * @return resource ID.
+	 * @throws IllegalStateException if the resource is not registered.
+	 */
+	public int getID() {
+		if (id < 0) {
+			AmountResource registered = getResourceConfig().findAmountResource(name);
+			if ((registered == null) || !phase.equals(registered.phase)) {
+				throw new IllegalStateException("Resource: " + name + " is not registered.");
+			}
+			id = registered.getID();
+		}
+		return id;
+	}
+
+	/**
+	 * Sets the resource's ID in the amount resource registry.
+	 * @param id the resource ID.
+	 */
+	void setID(int id) {
+		this.id = id;
+	}
+
 	/**
 	 * Gets the resource's description.
 	 * @return description of resource.
@@ -111,25 +141,42 @@ implements Serializable {
 	 * @throws ResourceException if resource could not be found.
 	 */
 	public static AmountResource findAmountResource(String name) {
-		AmountResource result = null;
-		Iterator<AmountResource> i = getAmountResources().iterator();
-		while (i.hasNext()) {
-			AmountResource resource = i.next();
-			if (resource.getName().equals(name.toLowerCase())) result = resource;
-		}
+		AmountResource result = getResourceConfig().findAmountResource(name);
 		if (result != null) return result;
 		else throw new IllegalStateException("Resource: " + name + " could not be found.");
 	}
 
+	/**
+	 * Gets an amount resource by its registry ID.
+	 * @param id the resource ID.
+	 * @return resource
+	 */
+	public static AmountResource getAmountResource(int id) {
+		return getResourceConfig().getAmountResource(id);
+	}
+
+	/**
+	 * Gets the number of amount resources in the registry.
+	 * @return number of resources.
+	 */
+	public static int getNumAmountResources() {
+		return getResourceConfig().getNumAmountResources();
+	}
+
+	/**
+	 * Gets the amount resource configuration.
+	 * @return resource config.
+	 */
+	private static AmountResourceConfig getResourceConfig() {
+		return SimulationConfig.instance().getResourceConfiguration();
+	}
+
 	/**
 	 * Gets a ummutable set of all the amount resources.
 	 * @return set of amount resources.
 	 */
 	public static Set<AmountResource> getAmountResources() {
-		Set<AmountResource> set = SimulationConfig
-		.instance()
-		.getResourceConfiguration()
-		.getAmountResources();
+		Set<AmountResource> set = getResourceConfig().getAmountResources();
 		return Collections.unmodifiableSet(set);
 	}
 
@@ -139,10 +186,7 @@ implements Serializable {
 	 * @return {@link Map}<{@link String},{@link AmountResource}>
 	 */
 	public static Map<String,AmountResource> getAmountResourcesMap() {
-		return SimulationConfig
-		.instance()
-		.getResourceConfiguration()
-		.getAmountResourcesMap();
+		return getResourceConfig().getAmountResourcesMap();
 	}
 
 	/**
@@ -166,9 +210,11 @@ implements Serializable {
 	 */
 	@Override
 	public boolean equals(Object object) {
+		if (this == object) return true;
 		if (object instanceof AmountResource) {
 			AmountResource otherObject = (AmountResource) object;
-			if ((getName().toLowerCase().equals(otherObject.getName().toLowerCase())) && (phase.equals(otherObject.phase)))
+			// Names are lowercased on construction.
+			if (name.equals(otherObject.name) && (phase.equals(otherObject.phase)))
 				return true;
 		}
 		return false;
@@ -180,4 +226,18 @@ implements Serializable {
 	public int hashCode() {
 		return hashcode;
 	}
+
+	/**
+	 * Implementing readObject method for serialization.
+	 * The registry ID is assigned again by the loaded {@link AmountResourceConfig}.
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		in.defaultReadObject();
+
+		id = -1;
+	}
 }
\ No newline at end of file
@@ -7,6 +7,8 @@
 
 package org.mars_sim.msp.core.resource;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
@@ -38,6 +40,11 @@ public class AmountResourceConfig implements Serializable {
 	// Data members.
 	private Set<AmountResource> resources = new TreeSet<AmountResource>();
 
+	/** Resources indexed by their registry ID. */
+	private transient AmountResource[] resourceIDs;
+	/** Resources by their (lowercase) name. */
+	private transient Map<String, AmountResource> resourceNames;
+
 	/**
 	 * Constructor
 	 * @param amountResourceDoc the amount resource XML document.
@@ -45,6 +52,7 @@ public class AmountResourceConfig implements Serializable {
 	 */
 	public AmountResourceConfig(Document amountResourceDoc) {
 		loadAmountResources(amountResourceDoc);
+		registerAmountResources();
 	}
 
 	/**
@@ -81,6 +89,52 @@ public class AmountResourceConfig implements Serializable {
 		}
 	}
 
+	/**
+	 * Assigns each resource a dense ID in alphabetical order and
+	 * builds the ID and name lookup tables.
+	 */
+	private void registerAmountResources() {
+		resourceIDs = new AmountResource[resources.size()];
+		resourceNames = new HashMap<String, AmountResource>(resources.size() * 2);
+		int id = 0;
+		for (AmountResource resource : resources) {
+			resource.setID(id);
+			resourceIDs[id] = resource;
+			resourceNames.put(resource.getName(), resource);
+			id++;
+		}
+	}
+
+	/**
+	 * Finds an amount resource by name.
+	 * @param name the name of the resource (case insensitive).
+	 * @return resource or null if none found.
+	 */
+	public AmountResource findAmountResource(String name) {
+		AmountResource result = resourceNames.get(name);
+		if (result == null) {
+			result = resourceNames.get(name.toLowerCase());
+		}
+		return result;
+	}
+
+	/**
+	 * Gets an amount resource by its registry ID.
+	 * @param id the resource ID.
+	 * @return resource
+	 */
+	public AmountResource getAmountResource(int id) {
+		return resourceIDs[id];
+	}
+
+	/**
+	 * Gets the number of registered amount resources.
+	 * @return number of resources.
+	 */
+	public int getNumAmountResources() {
+		return resourceIDs.length;
+	}
+
 	/**
 	 * Gets a set of all amount resources.
 	 * @return set of resources.
@@ -101,4 +155,18 @@ public class AmountResourceConfig implements Serializable {
 		return map;
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Implementing readObject method for serialization.
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		in.defaultReadObject();
+
+		// Assign IDs to the loaded resources.
+		registerAmountResources();
+	}
+}
@@ -10,14 +10,16 @@ package org.mars_sim.msp.core.resource;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * Storage for phases of amount resource.
+ * Capacities and stored resources are kept in arrays indexed by phase ordinal.
  */
 class AmountResourcePhaseStorage implements Serializable {
 
@@ -27,18 +29,51 @@ class AmountResourcePhaseStorage implements Serializable {
 	/** Comparison to indicate a small but non-zero amount. */
 	private static final double SMALL_AMOUNT_COMPARISON = .0000001D;
 
+	/**
+	 * The serialized form is kept as the phase maps used by earlier versions
+	 * so saved simulations remain compatible.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("amountResourcePhaseCapacities", Map.class),
+		new ObjectStreamField("amountResourcePhaseStored", Map.class)
+	};
+
 	// Data members
 
-	/** Capacity for each phase of amount resource. */
-	private Map<Phase, Double> amountResourcePhaseCapacities = null;
+	/** Capacity for each phase of amount resource, indexed by phase ordinal. */
+	private transient double[] capacities;
+
+	/** True for each phase that has capacity, indexed by phase ordinal. */
+	private transient boolean[] hasCapacity;
+
+	/** The resource stored in each phase (or null if none), indexed by phase ordinal. */
+	private transient AmountResource[] storedResources;
 
-	/** Stored resources by phase. */
-	private Map<Phase, StoredPhase> amountResourcePhaseStored = null;
+	/** The amount stored in each phase, indexed by phase ordinal. */
+	private transient double[] storedAmounts;
 
 	/** The cache value for the total amount phase resources stored. (kg) */
 	private transient double totalStoredCache = 0D;
 	private transient boolean totalStoredCacheDirty = true;
 
+	/**
+	 * Constructor.
+	 */
+	AmountResourcePhaseStorage() {
+		initializeArrays();
+	}
+
+	/**
+	 * Creates the phase arrays.
+	 */
+	private void initializeArrays() {
+		int size = Phase.values().length;
+		capacities = new double[size];
+		hasCapacity = new boolean[size];
+		storedResources = new AmountResource[size];
+		storedAmounts = new double[size];
+	}
+
     /**
      * Adds capacity for a resource phase.
      * @param phase the phase
@@ -51,17 +86,8 @@ class AmountResourcePhaseStorage implements Serializable {
             throw new IllegalStateException("Cannot add negative phase capacity: " + capacity);
         }
 
-        if (amountResourcePhaseCapacities == null) {
-            amountResourcePhaseCapacities = new HashMap<Phase, Double>();
-        }
-
-        if (hasAmountResourcePhaseCapacity(phase)) {
-            double current = amountResourcePhaseCapacities.get(phase);
-            amountResourcePhaseCapacities.put(phase, (current + capacity));
-        }
-        else {
-            amountResourcePhaseCapacities.put(phase, capacity);
-        }
+        capacities[phase.ordinal()] += capacity;
+        hasCapacity[phase.ordinal()] = true;
     }
 
     /**
@@ -70,14 +96,7 @@ class AmountResourcePhaseStorage implements Serializable {
      * @return true if capacity in phase.
      */
     boolean hasAmountResourcePhaseCapacity(Phase phase) {
-
-        boolean result = false;
-
-        if (amountResourcePhaseCapacities != null) {
-            result = amountResourcePhaseCapacities.containsKey(phase);
-        }
-
-        return result;
+        return hasCapacity[phase.ordinal()];
     }
 
     /**
@@ -86,14 +105,7 @@ class AmountResourcePhaseStorage implements Serializable {
      * @return the capacity (kg).
      */
     double getAmountResourcePhaseCapacity(Phase phase) {
-
-        double result = 0D;
-
-        if (hasAmountResourcePhaseCapacity(phase)) { 
-            result = amountResourcePhaseCapacities.get(phase);
-        }
-
-        return result;
+        return capacities[phase.ordinal()];
     }
 
     /**
@@ -102,31 +114,7 @@ class AmountResourcePhaseStorage implements Serializable {
      * @return amount stored (kg)
      */
     double getAmountResourcePhaseStored(Phase phase) {
-
-        double result = 0D;
-
-        StoredPhase stored = getAmountResourcePhaseStoredObject(phase);
-        if (stored != null) {
-            result = stored.amount;
-        }
-
-        return result;
-    }
-
-    /**
-     * Gets the amount of a resource phase stored.
-     * @param phase the resource phase.
-     * @return stored amount as StoredPhase object.
-     */
-    private StoredPhase getAmountResourcePhaseStoredObject(Phase phase) {
-
-        StoredPhase result = null;
-
-        if (amountResourcePhaseStored != null) {
-            result = amountResourcePhaseStored.get(phase);
-        }
-
-        return result;
+        return storedAmounts[phase.ordinal()];
     }
 
     /**
@@ -150,12 +138,8 @@ class AmountResourcePhaseStorage implements Serializable {
 
         double totalAmount = 0D;
 
-        if (amountResourcePhaseStored != null) {
-            Map<Phase, StoredPhase> tempMap = Collections.unmodifiableMap(amountResourcePhaseStored);
-            Iterator<Phase> i = tempMap.keySet().iterator();
-            while (i.hasNext()) {
-                totalAmount += tempMap.get(i.next()).amount;
-            }
+        for (int x = 0; x < storedAmounts.length; x++) {
+            totalAmount += storedAmounts[x];
         }
 
         totalStoredCache = totalAmount;
@@ -184,17 +168,7 @@ class AmountResourcePhaseStorage implements Serializable {
      * @return the resource stored.
      */
     AmountResource getAmountResourcePhaseType(Phase phase) {
-
-        AmountResource result = null;
-
-        if (amountResourcePhaseStored != null) {
-            StoredPhase stored = amountResourcePhaseStored.get(phase);
-            if (stored != null) {
-                result = stored.resource;
-            }
-        }
-
-        return result;
+        return storedResources[phase.ordinal()];
     }
 
     /**
@@ -216,7 +190,7 @@ class AmountResourcePhaseStorage implements Serializable {
 
             if (getAmountResourcePhaseRemainingCapacity(resourcePhase) >= amount) {
 
-                if ((getAmountResourcePhaseStored(resourcePhase) == 0D) || 
+                if ((getAmountResourcePhaseStored(resourcePhase) == 0D) ||
                         (resource.equals(getAmountResourcePhaseType(resourcePhase)))) {
                     storable = true;
                 }
@@ -227,17 +201,11 @@ class AmountResourcePhaseStorage implements Serializable {
                 // Set total stored cache to dirty since value is changing.
                 totalStoredCacheDirty = true;
 
-                if (amountResourcePhaseStored == null) {
-                    amountResourcePhaseStored = new HashMap<Phase, StoredPhase>();
-                }
-
-                StoredPhase stored = getAmountResourcePhaseStoredObject(resourcePhase);
-                if (stored != null) {
-                    stored.amount += amount;
-                }
-                else {
-                    amountResourcePhaseStored.put(resourcePhase, new StoredPhase(resource, amount));
+                int index = resourcePhase.ordinal();
+                if (storedResources[index] == null) {
+                    storedResources[index] = resource;
                 }
+                storedAmounts[index] += amount;
             }
             else {
                 throw new IllegalStateException("Amount resource could not be added in phase storage.");
@@ -254,30 +222,28 @@ class AmountResourcePhaseStorage implements Serializable {
     void retrieveAmountResourcePhase(Phase phase, double amount) {
 
         if (amount < 0D) {
-            throw new IllegalStateException("Cannot retrieve negative amount of phase: " + amount); 
+            throw new IllegalStateException("Cannot retrieve negative amount of phase: " + amount);
         }
 
         if (amount > 0D) {
             boolean retrievable = false;
-            if (getAmountResourcePhaseStored(phase) >= amount) {
-
-                StoredPhase stored = amountResourcePhaseStored.get(phase);
-                if (stored != null) {
+            int index = phase.ordinal();
+            if ((storedResources[index] != null) && (storedAmounts[index] >= amount)) {
 
-                    // Set total stored cache to dirty since value is changing.
-                    totalStoredCacheDirty = true;
+                // Set total stored cache to dirty since value is changing.
+                totalStoredCacheDirty = true;
 
-                    stored.amount -= amount;
+                storedAmounts[index] -= amount;
 
-                    retrievable = true;
+                retrievable = true;
 
-                    if (stored.amount <= SMALL_AMOUNT_COMPARISON) {
-                        amountResourcePhaseStored.remove(phase);
-                    }
+                if (storedAmounts[index] <= SMALL_AMOUNT_COMPARISON) {
+                    storedResources[index] = null;
+                    storedAmounts[index] = 0D;
                 }
             }
             if (!retrievable) {
-                throw new IllegalStateException("Amount resource (" + phase.getName() +  ":" + 
+                throw new IllegalStateException("Amount resource (" + phase.getName() +  ":" +
                         amount + ") could not be retrieved from phase storage");
             }
         }
@@ -285,6 +251,7 @@ class AmountResourcePhaseStorage implements Serializable {
 
 	/**
 	 * Internal class for a stored phase.
+	 * Only used in the serialized form.
 	 */
 	private static class StoredPhase implements Serializable {
 		/** default serial id. */
@@ -303,23 +270,65 @@ class AmountResourcePhaseStorage implements Serializable {
      * Prepare object for garbage collection
      */
     public void destroy() {
-        if (amountResourcePhaseCapacities != null) amountResourcePhaseCapacities.clear();
-        amountResourcePhaseCapacities = null;
-        if (amountResourcePhaseStored != null) amountResourcePhaseStored.clear();
-        amountResourcePhaseStored = null;
+        capacities = null;
+        hasCapacity = null;
+        storedResources = null;
+        storedAmounts = null;
     }
-    
+
+    /**
+     * Implementing writeObject method for serialization.
+     * @param out the output stream.
+     * @throws IOException if error writing to output stream.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+
+        Map<Phase, Double> capacityMap = new HashMap<Phase, Double>();
+        Map<Phase, StoredPhase> storedMap = new HashMap<Phase, StoredPhase>();
+        for (Phase phase : Phase.values()) {
+            int index = phase.ordinal();
+            if (hasCapacity[index]) {
+                capacityMap.put(phase, capacities[index]);
+            }
+            if (storedResources[index] != null) {
+                storedMap.put(phase, new StoredPhase(storedResources[index], storedAmounts[index]));
+            }
+        }
+
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("amountResourcePhaseCapacities", capacityMap);
+        fields.put("amountResourcePhaseStored", storedMap);
+        out.writeFields();
+    }
+
     /**
      * Implementing readObject method for serialization.
      * @param in the input stream.
      * @throws IOException if error reading from input stream.
      * @throws ClassNotFoundException if error creating class.
      */
+    @SuppressWarnings("unchecked")
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        
-        in.defaultReadObject();
+
+        ObjectInputStream.GetField fields = in.readFields();
+        Map<Phase, Double> capacityMap = (Map<Phase, Double>) fields.get("amountResourcePhaseCapacities", null);
+        Map<Phase, StoredPhase> storedMap = (Map<Phase, StoredPhase>) fields.get("amountResourcePhaseStored", null);
+
+        initializeArrays();
+        if (capacityMap != null) {
+            for (Entry<Phase, Double> entry : capacityMap.entrySet()) {
+                capacities[entry.getKey().ordinal()] = entry.getValue();
+                hasCapacity[entry.getKey().ordinal()] = true;
+            }
+        }
+        if (storedMap != null) {
+            for (Entry<Phase, StoredPhase> entry : storedMap.entrySet()) {
+                storedResources[entry.getKey().ordinal()] = entry.getValue().resource;
+                storedAmounts[entry.getKey().ordinal()] = entry.getValue().amount;
+            }
+        }
 
         // Initialize transient variables that need it.
         totalStoredCacheDirty = true;
     }
-}
\ No newline at end of file
+}
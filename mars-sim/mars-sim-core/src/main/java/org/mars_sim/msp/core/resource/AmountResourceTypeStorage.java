@@ -10,34 +10,83 @@ package org.mars_sim.msp.core.resource;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 /**
  * Storage for types of amount resource.
+ * Capacities and stored amounts are kept in arrays indexed by the resource's registry ID.
  */
 class AmountResourceTypeStorage implements Serializable {
 
 	/** default serial id. */
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The serialized form is kept as the resource maps used by earlier versions
+	 * so saved simulations remain compatible.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("amountResourceTypeCapacities", Map.class),
+		new ObjectStreamField("amountResourceTypeStored", Map.class)
+	};
+
 	// Data members
 
-	/** Capacity for each type of amount resource. */
-	private Map<AmountResource, ResourceAmount> amountResourceTypeCapacities = null;
+	/** Capacity for each type of amount resource, indexed by resource ID. */
+	private transient double[] capacities;
+
+	/** True for each type of amount resource that has capacity, indexed by resource ID. */
+	private transient boolean[] hasCapacity;
 
-	/** Stored resources by type. */
-	private Map<AmountResource, ResourceAmount> amountResourceTypeStored = null;
+	/** Stored resources by type, indexed by resource ID. */
+	private transient double[] stored;
 
 	/** Cache value for the total amount of resources stored. */
 	private transient double totalAmountCache = 0D;
 	private transient boolean totalAmountCacheDirty = true;
 
+	/**
+	 * Constructor.
+	 */
+	AmountResourceTypeStorage() {
+		initializeArrays(AmountResource.getNumAmountResources());
+	}
+
+	/**
+	 * Creates the resource arrays.
+	 * @param size the number of resource IDs.
+	 */
+	private void initializeArrays(int size) {
+		capacities = new double[size];
+		hasCapacity = new boolean[size];
+		stored = new double[size];
+	}
+
+	/**
+	 * Gets the array index for a resource, growing the arrays if the
+	 * resource registry has grown since they were created.
+	 * @param resource the resource.
+	 * @return resource ID.
+	 */
+	private int getIndex(AmountResource resource) {
+		int id = resource.getID();
+		if (id >= capacities.length) {
+			int size = Math.max(id + 1, AmountResource.getNumAmountResources());
+			capacities = Arrays.copyOf(capacities, size);
+			hasCapacity = Arrays.copyOf(hasCapacity, size);
+			stored = Arrays.copyOf(stored, size);
+		}
+		return id;
+	}
+
     /**
      * Adds capacity for a resource type.
      * @param resource the resource.
@@ -49,50 +98,35 @@ class AmountResourceTypeStorage implements Serializable {
             throw new IllegalStateException("Cannot add negative type capacity: " + capacity);
         }
 
-        if (amountResourceTypeCapacities == null) {
-            amountResourceTypeCapacities = new HashMap<AmountResource, ResourceAmount>();
-        }
-
-        if (hasAmountResourceTypeCapacity(resource)) {
-            ResourceAmount existingCapacity = amountResourceTypeCapacities.get(resource);
-            existingCapacity.setAmount(existingCapacity.getAmount() + capacity);
-        }
-        else {
-            amountResourceTypeCapacities.put(resource, new ResourceAmount(capacity));
-        }
+        int id = getIndex(resource);
+        capacities[id] += capacity;
+        hasCapacity[id] = true;
     }
-    
+
     /**
      * Removes capacity for a resource type.
      * @param resource the resource.
      * @param capacity the capacity amount (kg).
      */
     void removeAmountResourceTypeCapacity(AmountResource resource, double capacity) {
-        
+
         if (capacity < 0D) {
             throw new IllegalStateException("Cannot remove negative type capacity: " + capacity);
         }
-        
-        if (amountResourceTypeCapacities == null) {
-            amountResourceTypeCapacities = new HashMap<AmountResource, ResourceAmount>();
-        }
-        
-        double existingCapacity = getAmountResourceTypeCapacity(resource);
+
+        int id = getIndex(resource);
+        double existingCapacity = capacities[id];
         double newCapacity = existingCapacity - capacity;
         if (newCapacity > 0D) {
-            if (hasAmountResourceTypeCapacity(resource)) {
-                ResourceAmount existingCapacityAmount = amountResourceTypeCapacities.get(resource);
-                existingCapacityAmount.setAmount(newCapacity);
-            }
-            else {
-                amountResourceTypeCapacities.put(resource, new ResourceAmount(newCapacity));
-            }
+            capacities[id] = newCapacity;
+            hasCapacity[id] = true;
         }
         else if (newCapacity == 0D) {
-            amountResourceTypeCapacities.remove(resource);
+            capacities[id] = 0D;
+            hasCapacity[id] = false;
         }
         else {
-            throw new IllegalStateException("Insufficient existing resource type capacity to remove - existing: " + 
+            throw new IllegalStateException("Insufficient existing resource type capacity to remove - existing: " +
                     existingCapacity + ", removed: " + capacity);
         }
     }
@@ -103,14 +137,8 @@ class AmountResourceTypeStorage implements Serializable {
      * @return true if storage capacity.
      */
     boolean hasAmountResourceTypeCapacity(AmountResource resource) {
-
-        boolean result = false;
-
-        if (amountResourceTypeCapacities != null) {
-            result = amountResourceTypeCapacities.containsKey(resource);
-        }
-
-        return result;
+        int id = resource.getID();
+        return (id < hasCapacity.length) && hasCapacity[id];
     }
 
     /**
@@ -119,14 +147,8 @@ class AmountResourceTypeStorage implements Serializable {
      * @return capacity amount (kg).
      */
     double getAmountResourceTypeCapacity(AmountResource resource) {
-
-        double result = 0D;
-
-        if (hasAmountResourceTypeCapacity(resource)) {
-            result = (amountResourceTypeCapacities.get(resource)).getAmount();
-        }
-
-        return result;
+        int id = resource.getID();
+        return (id < capacities.length) ? capacities[id] : 0D;
     }
 
     /**
@@ -135,31 +157,8 @@ class AmountResourceTypeStorage implements Serializable {
      * @return stored amount (kg).
      */
     double getAmountResourceTypeStored(AmountResource resource) {
-
-        double result = 0D;
-
-        ResourceAmount storedAmount = getAmountResourceTypeStoredObject(resource);
-        if (storedAmount != null) {
-            result = storedAmount.getAmount();
-        }
-
-        return result;
-    }
-
-    /**
-     * Gets the amount of a resource type stored.
-     * @param resource the resource.
-     * @return stored amount as ResourceAmount object.
-     */
-    private ResourceAmount getAmountResourceTypeStoredObject(AmountResource resource) {
-
-        ResourceAmount result = null;
-
-        if (amountResourceTypeStored != null) {
-            result = amountResourceTypeStored.get(resource);
-        }
-
-        return result;
+        int id = resource.getID();
+        return (id < stored.length) ? stored[id] : 0D;
     }
 
     /**
@@ -184,12 +183,8 @@ class AmountResourceTypeStorage implements Serializable {
 
         double totalAmount = 0D;
 
-        if (amountResourceTypeStored != null) {
-            Map<AmountResource, ResourceAmount> tempMap = Collections.unmodifiableMap(amountResourceTypeStored);
-            Iterator<AmountResource> i = tempMap.keySet().iterator();
-            while (i.hasNext()) {
-                totalAmount += tempMap.get(i.next()).getAmount();
-            }
+        for (int x = 0; x < stored.length; x++) {
+            totalAmount += stored[x];
         }
 
         totalAmountCache = totalAmount;
@@ -202,21 +197,13 @@ class AmountResourceTypeStorage implements Serializable {
      */
     Set<AmountResource> getAllAmountResourcesStored() {
 
-        Set<AmountResource> result = null;
+        Set<AmountResource> result = new HashSet<AmountResource>();
 
-        if (amountResourceTypeStored != null) {
-            result = new HashSet<AmountResource>(amountResourceTypeStored.size());
-            Iterator<AmountResource> i = amountResourceTypeStored.keySet().iterator();
-            while (i.hasNext()) {
-                AmountResource resource = i.next();
-                if (getAmountResourceTypeStored(resource) > 0D) {
-                    result.add(resource);
-                }
+        for (int x = 0; x < stored.length; x++) {
+            if (stored[x] > 0D) {
+                result.add(AmountResource.getAmountResource(x));
             }
         }
-        else {
-            result = new HashSet<AmountResource>(0);
-        }
 
         return result;
     }
@@ -254,17 +241,7 @@ class AmountResourceTypeStorage implements Serializable {
                 // Set total amount cache to dirty since value is changing.
                 totalAmountCacheDirty = true;
 
-                if (amountResourceTypeStored == null) {
-                    amountResourceTypeStored = new HashMap<AmountResource, ResourceAmount>();
-                }
-
-                ResourceAmount stored = getAmountResourceTypeStoredObject(resource);
-                if (stored != null) {
-                    stored.setAmount(stored.getAmount() + amount);
-                }
-                else {
-                    amountResourceTypeStored.put(resource, new ResourceAmount(amount));
-                }
+                stored[getIndex(resource)] += amount;
             }
             else throw new IllegalStateException("Amount resource could not be added in type storage.");
         }
@@ -278,7 +255,7 @@ class AmountResourceTypeStorage implements Serializable {
     void retrieveAmountResourceType(AmountResource resource, double amount) {
 
         if (amount < 0D) {
-            throw new IllegalStateException("Cannot retrieve negative amount of type: " + amount); 
+            throw new IllegalStateException("Cannot retrieve negative amount of type: " + amount);
         }
 
         if (amount > 0D) {
@@ -287,11 +264,10 @@ class AmountResourceTypeStorage implements Serializable {
                 // Set total amount cache to dirty since value is changing.
                 totalAmountCacheDirty = true;
 
-                ResourceAmount stored = getAmountResourceTypeStoredObject(resource);
-                stored.setAmount(stored.getAmount() - amount);
+                stored[getIndex(resource)] -= amount;
             }
             else {
-                throw new IllegalStateException("Amount resource (" + resource.getName() +  
+                throw new IllegalStateException("Amount resource (" + resource.getName() +
                         ":" + amount + ") could not be retrieved from type storage");
             }
         }
@@ -299,6 +275,7 @@ class AmountResourceTypeStorage implements Serializable {
 
     /**
      * Internal class for storing type resource amounts.
+     * Only used in the serialized form.
      */
     private static class ResourceAmount implements Serializable {
 
@@ -308,10 +285,6 @@ class AmountResourceTypeStorage implements Serializable {
             this.amount = amount;
         }
 
-        private void setAmount(double amount) {
-            this.amount = amount;
-        }
-
         private double getAmount() {
             return amount;
         }
@@ -321,23 +294,65 @@ class AmountResourceTypeStorage implements Serializable {
      * Prepare object for garbage collection.
      */
     public void destroy() {
-        if (amountResourceTypeCapacities != null) amountResourceTypeCapacities.clear();
-        amountResourceTypeCapacities = null;
-        if (amountResourceTypeStored != null) amountResourceTypeStored.clear();
-        amountResourceTypeStored = null;
+        capacities = null;
+        hasCapacity = null;
+        stored = null;
+    }
+
+    /**
+     * Implementing writeObject method for serialization.
+     * @param out the output stream.
+     * @throws IOException if error writing to output stream.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+
+        Map<AmountResource, ResourceAmount> capacityMap = new HashMap<AmountResource, ResourceAmount>();
+        Map<AmountResource, ResourceAmount> storedMap = new HashMap<AmountResource, ResourceAmount>();
+        for (int x = 0; x < stored.length; x++) {
+            if (hasCapacity[x]) {
+                capacityMap.put(AmountResource.getAmountResource(x), new ResourceAmount(capacities[x]));
+            }
+            if (stored[x] != 0D) {
+                storedMap.put(AmountResource.getAmountResource(x), new ResourceAmount(stored[x]));
+            }
+        }
+
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("amountResourceTypeCapacities", capacityMap);
+        fields.put("amountResourceTypeStored", storedMap);
+        out.writeFields();
     }
-    
+
     /**
      * Implementing readObject method for serialization.
      * @param in the input stream.
      * @throws IOException if error reading from input stream.
      * @throws ClassNotFoundException if error creating class.
      */
+    @SuppressWarnings("unchecked")
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        
-        in.defaultReadObject();
+
+        ObjectInputStream.GetField fields = in.readFields();
+        Map<AmountResource, ResourceAmount> capacityMap =
+                (Map<AmountResource, ResourceAmount>) fields.get("amountResourceTypeCapacities", null);
+        Map<AmountResource, ResourceAmount> storedMap =
+                (Map<AmountResource, ResourceAmount>) fields.get("amountResourceTypeStored", null);
+
+        initializeArrays(AmountResource.getNumAmountResources());
+        if (capacityMap != null) {
+            for (Entry<AmountResource, ResourceAmount> entry : capacityMap.entrySet()) {
+                int id = getIndex(entry.getKey());
+                capacities[id] = entry.getValue().getAmount();
+                hasCapacity[id] = true;
+            }
+        }
+        if (storedMap != null) {
+            for (Entry<AmountResource, ResourceAmount> entry : storedMap.entrySet()) {
+                stored[getIndex(entry.getKey())] = entry.getValue().getAmount();
+            }
+        }
 
         // Initialize transient variables that need it.
         totalAmountCacheDirty = true;
     }
-}
\ No newline at end of file
+}
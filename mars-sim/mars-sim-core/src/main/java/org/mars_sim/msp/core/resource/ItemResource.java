@@ -7,9 +7,10 @@
 
 package org.mars_sim.msp.core.resource;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -27,6 +28,8 @@ implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	// Data members
+	/** The registry ID, or -1 if not yet assigned. */
+	private transient int id = -1;
 	private double massPerItem;
 	private String name;
 	private String description;
@@ -45,6 +48,32 @@ implements Serializable {
 		return description;
 	}
 
+	/**
+	 * Gets the resource's ID in the item resource registry.
+	 * IDs are dense, starting at 0, and can be used to index arrays
+	 * of size {@link #getNumItemResources()}.
+	 * @return resource ID.
+	 * @throws IllegalStateException if the resource is not registered.
+	 */
+	public int getID() {
+		if (id < 0) {
+			ItemResource registered = getPartConfig().findItemResource(name);
+			if (!equals(registered)) {
+				throw new IllegalStateException("Resource: " + name + " is not registered.");
+			}
+			id = registered.getID();
+		}
+		return id;
+	}
+
+	/**
+	 * Sets the resource's ID in the item resource registry.
+	 * @param id the resource ID.
+	 */
+	void setID(int id) {
+		this.id = id;
+	}
+
 	/*
 	 * Default private constructor
 	 *
@@ -106,34 +135,47 @@ implements Serializable {
 	 * @throws ResourceException if resource could not be found.
 	 */
 	public static ItemResource findItemResource(String name) {
-		ItemResource result = null;
-		Iterator<Part> i = getItemResources().iterator();
-		while (i.hasNext()) {
-			ItemResource resource = i.next();
-			//2014-12-01 Added equalsIgnoreCase()
-			if (resource.getName().equalsIgnoreCase(name)) result = resource;
-		}
+		ItemResource result = getPartConfig().findItemResource(name);
 		if (result != null) return result;
 		else throw new UnknownResourceName(name);
 	}
 
+	/**
+	 * Gets an item resource by its registry ID.
+	 * @param id the resource ID.
+	 * @return resource
+	 */
+	public static ItemResource getItemResource(int id) {
+		return getPartConfig().getItemResource(id);
+	}
+
+	/**
+	 * Gets the number of item resources in the registry.
+	 * @return number of resources.
+	 */
+	public static int getNumItemResources() {
+		return getPartConfig().getNumItemResources();
+	}
+
+	/**
+	 * Gets the part configuration.
+	 * @return part config.
+	 */
+	private static PartConfig getPartConfig() {
+		return SimulationConfig.instance().getPartConfiguration();
+	}
+
 	/**
 	 * Gets a ummutable collection of all the item resources.
 	 * @return collection of item resources.
 	 */
 	public static Set<Part> getItemResources() {
-		Set<Part> set = SimulationConfig
-				.instance()
-				.getPartConfiguration()
-				.getItemResources();
+		Set<Part> set = getPartConfig().getItemResources();
 		return Collections.unmodifiableSet(set);
 	}
 
 	public static TreeMap<String,Part> getItemResourcesMap() {
-		return SimulationConfig
-				.instance()
-				.getPartConfiguration()
-				.getItemResourcesMap();
+		return getPartConfig().getItemResourcesMap();
 	}
 
 	public static ItemResource createItemResource(
@@ -144,6 +186,20 @@ implements Serializable {
 		return new ItemResource(resourceName,description,massPerItem);
 	}
 
+	/**
+	 * Implementing readObject method for serialization.
+	 * The registry ID is assigned again by the loaded {@link PartConfig}.
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		in.defaultReadObject();
+
+		id = -1;
+	}
+
 	private static class UnknownResourceName
 	extends RuntimeException {
 
@@ -7,9 +7,13 @@
  */
 package org.mars_sim.msp.core.resource;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -37,6 +41,11 @@ public final class PartConfig implements Serializable {
 	// Data members.
 	private Set<Part> itemResources = new HashSet<Part>();
 
+	/** Parts indexed by their registry ID. */
+	private transient Part[] partIDs;
+	/** Parts by their lowercase name. */
+	private transient Map<String, Part> partNames;
+
     /**
      * Constructor
      * @param itemResourceDoc the item resource XML document.
@@ -44,6 +53,7 @@ public final class PartConfig implements Serializable {
      */
     public PartConfig(Document itemResourceDoc) {
         loadItemResources(itemResourceDoc);
+        registerItemResources();
         //System.out.println("done with PartConfig constructor");
     }
 
@@ -96,6 +106,49 @@ public final class PartConfig implements Serializable {
         }
     }
 
+    /**
+     * Assigns each part a dense ID in alphabetical order and
+     * builds the ID and name lookup tables.
+     */
+    private void registerItemResources() {
+        Map<String, Part> sortedParts = getItemResourcesMap();
+        partIDs = new Part[sortedParts.size()];
+        partNames = new HashMap<String, Part>(sortedParts.size() * 2);
+        int id = 0;
+        for (Part part : sortedParts.values()) {
+            part.setID(id);
+            partIDs[id] = part;
+            partNames.put(part.getName().toLowerCase(), part);
+            id++;
+        }
+    }
+
+	/**
+	 * Finds an item resource by name.
+	 * @param name the name of the resource (case insensitive).
+	 * @return resource or null if none found.
+	 */
+	public Part findItemResource(String name) {
+		return partNames.get(name.toLowerCase());
+	}
+
+	/**
+	 * Gets an item resource by its registry ID.
+	 * @param id the resource ID.
+	 * @return resource
+	 */
+	public Part getItemResource(int id) {
+		return partIDs[id];
+	}
+
+	/**
+	 * Gets the number of registered item resources.
+	 * @return number of resources.
+	 */
+	public int getNumItemResources() {
+		return partIDs.length;
+	}
+
 	/**
 	 * Gets a collection of all item resources.
 	 * @return collection of item resources.
@@ -116,4 +169,18 @@ public final class PartConfig implements Serializable {
 		}
 		return map;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Implementing readObject method for serialization.
+	 * @param in the input stream.
+	 * @throws IOException if error reading from input stream.
+	 * @throws ClassNotFoundException if error creating class.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		in.defaultReadObject();
+
+		// Assign IDs to the loaded parts.
+		registerItemResources();
+	}
+}
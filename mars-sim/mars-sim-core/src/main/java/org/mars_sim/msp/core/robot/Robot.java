@@ -22,6 +22,7 @@ import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.SimulationConfig;
 import org.mars_sim.msp.core.Unit;
 import org.mars_sim.msp.core.UnitEventType;
+import org.mars_sim.msp.core.UnitManager;
 import org.mars_sim.msp.core.equipment.Equipment;
 import org.mars_sim.msp.core.malfunction.MalfunctionManager;
 import org.mars_sim.msp.core.malfunction.Malfunctionable;
@@ -575,6 +576,10 @@ implements Salvagable,  Malfunctionable, VehicleOperator, MissionMember, Seriali
         if (associatedSettlement != newSettlement) {
             Settlement oldSettlement = associatedSettlement;
             associatedSettlement = newSettlement;
+            UnitManager unitManager = getUnitManager();
+            if (unitManager != null) {
+                unitManager.updateAssociatedSettlement(this, oldSettlement, newSettlement);
+            }
             fireUnitUpdate(UnitEventType.ASSOCIATED_SETTLEMENT_EVENT, associatedSettlement);
             if (oldSettlement != null) {
                 oldSettlement.fireUnitUpdate(UnitEventType.REMOVE_ASSOCIATED_ROBOT_EVENT, this);
@@ -0,0 +1,298 @@
+/**
+ * Mars Simulation Project
+ * AutosaveWriter.java
+ * @version 3.08 2015-07-30
+ */
+package org.mars_sim.msp.core.save;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import org.mars_sim.msp.core.time.SystemDateTime;
+
+/**
+ * Writes autosave snapshots to disk on a background thread.
+ * A snapshot is the serialized simulation captured in memory while the clock is
+ * briefly paused. Encoding and writing it to a file happens here while the
+ * simulation keeps running. Older autosaves in the autosave directory are rotated out;
+ * other files there, and files elsewhere, are never deleted.
+ */
+public class AutosaveWriter {
+
+    private static Logger logger = Logger.getLogger(AutosaveWriter.class.getName());
+
+    /** The default number of autosave files kept. */
+    public static final int DEFAULT_MAX_AUTOSAVES = 5;
+
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    /** The part of an autosave file name between the date and time and the build. */
+    private static final String BUILD_SEPARATOR = "_Build_";
+
+    /** Autosave file names: date, time with an AM/PM marker, then the build. */
+    private static final String AUTOSAVE_NAME = "\\d{2}-\\d{2}-\\d{4}_\\d{6}[^_]*" + BUILD_SEPARATOR + ".*";
+
+    // Data members
+    private File directory;
+    private String extension;
+    private Pattern autosaveName;
+    private int maxAutosaves;
+    private ExecutorService executor;
+    private volatile Future<?> pendingWrite;
+    private volatile long lastPauseTime;
+    private volatile long lastWriteTime;
+    private volatile long lastFileSize;
+    private volatile int autosaveCount;
+    private volatile int skippedCount;
+
+    /**
+     * Constructor.
+     * @param directory the autosave directory.
+     * @param extension the save file extension.
+     * @param maxAutosaves the number of autosave files kept in the directory.
+     */
+    public AutosaveWriter(File directory, String extension, int maxAutosaves) {
+        if (maxAutosaves < 1) {
+            throw new IllegalArgumentException("maxAutosaves must be at least 1: " + maxAutosaves);
+        }
+        this.directory = directory;
+        this.extension = extension;
+        autosaveName = Pattern.compile(AUTOSAVE_NAME + Pattern.quote(extension));
+        this.maxAutosaves = maxAutosaves;
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "autosave-writer");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Gets a new autosave file in the autosave directory, named after the current
+     * date and time and the build.
+     * @param build the build of the simulation.
+     * @return autosave file.
+     */
+    public File getAutosaveFile(String build) {
+        return new File(directory, new SystemDateTime().getDateTimeStr() + BUILD_SEPARATOR + build + extension);
+    }
+
+    /**
+     * Checks if a file is named as an autosave.
+     * @param file the file.
+     * @return true if the file name is an autosave file name.
+     */
+    public boolean isAutosaveFile(File file) {
+        return autosaveName.matcher(file.getName()).matches();
+    }
+
+    /**
+     * Checks if a snapshot is still being written.
+     * @return true if writing.
+     */
+    public boolean isWriting() {
+        Future<?> write = pendingWrite;
+        return (write != null) && !write.isDone();
+    }
+
+    /**
+     * Queues a snapshot to be written to a file in the background.
+     * @param snapshot the serialized simulation.
+     * @param file the autosave file.
+     * @param format the save format to write the file in.
+     * @param pauseTime the time the simulation was paused to take the snapshot (ms).
+     * @return true if queued, false if a previous snapshot is still being written.
+     */
+    public synchronized boolean write(final ByteArrayOutputStream snapshot, final File file,
+            final SaveFormat format, long pauseTime) {
+        if (isWriting()) {
+            skip(file);
+            return false;
+        }
+
+        lastPauseTime = pauseTime;
+        pendingWrite = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                writeSnapshot(snapshot, file, format);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Records an autosave skipped because the previous snapshot is still being written.
+     * @param file the skipped autosave file.
+     */
+    public void skip(File file) {
+        skippedCount++;
+        logger.warning("Skipping autosave " + file.getName() + " as the previous autosave is still being written.");
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, then renames it so a partly written
+     * autosave is never mistaken for a complete one.
+     * @param snapshot the serialized simulation.
+     * @param file the autosave file.
+     * @param format the save format.
+     */
+    private void writeSnapshot(ByteArrayOutputStream snapshot, File file, SaveFormat format) {
+        long startTime = System.nanoTime();
+        File tempFile = new File(file.getPath() + TEMP_EXTENSION);
+        try {
+            OutputStream out = format.createOutputStream(new FileOutputStream(tempFile));
+            try {
+                snapshot.writeTo(out);
+            }
+            finally {
+                out.close();
+            }
+
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not replace " + file.getPath());
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Could not rename " + tempFile.getPath() + " to " + file.getName());
+            }
+
+            lastWriteTime = (System.nanoTime() - startTime) / 1000000L;
+            lastFileSize = file.length();
+            autosaveCount++;
+            logger.info("Autosaved " + format.getName() + " format file " + file.getName() + " ("
+                    + (lastFileSize / 1024L) + " KB): paused " + lastPauseTime + " ms, wrote in "
+                    + lastWriteTime + " ms");
+
+            rotate();
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not autosave the simulation with file = " + file.getPath(), e);
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Waits for a pending snapshot to be written.
+     * @param timeout the maximum time to wait (ms).
+     * @return true if no write is pending.
+     */
+    public boolean awaitCompletion(long timeout) {
+        Future<?> write = pendingWrite;
+        if (write == null) {
+            return true;
+        }
+        try {
+            write.get(timeout, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        catch (Exception e) {
+            return write.isDone();
+        }
+    }
+
+    /**
+     * Gets the time the simulation was paused for the last snapshot.
+     * @return pause time (ms).
+     */
+    public long getLastPauseTime() {
+        return lastPauseTime;
+    }
+
+    /**
+     * Gets the time taken to encode and write the last snapshot.
+     * @return write time (ms).
+     */
+    public long getLastWriteTime() {
+        return lastWriteTime;
+    }
+
+    /**
+     * Gets the size of the last autosave file.
+     * @return file size (bytes).
+     */
+    public long getLastFileSize() {
+        return lastFileSize;
+    }
+
+    /**
+     * Gets the number of autosaves written.
+     * @return number of autosaves.
+     */
+    public int getAutosaveCount() {
+        return autosaveCount;
+    }
+
+    /**
+     * Gets the number of autosaves skipped because the previous one was still being written.
+     * @return number of skipped autosaves.
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Deletes the oldest autosave files in the autosave directory so at most the
+     * number of autosaves kept remain. Files not named as autosaves are kept.
+     * @return list of deleted files.
+     */
+    public List<File> rotate() {
+        List<File> deleted = new ArrayList<File>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return deleted;
+        }
+
+        List<File> saves = new ArrayList<File>(files.length);
+        for (File file : Arrays.asList(files)) {
+            if (file.isFile() && isAutosaveFile(file)) {
+                saves.add(file);
+            }
+        }
+
+        // Newest first, by modification time then name.
+        Collections.sort(saves, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                int result = Long.compare(f2.lastModified(), f1.lastModified());
+                if (result == 0) {
+                    result = f2.getName().compareTo(f1.getName());
+                }
+                return result;
+            }
+        });
+
+        for (int x = maxAutosaves; x < saves.size(); x++) {
+            File file = saves.get(x);
+            if (file.delete()) {
+                deleted.add(file);
+                logger.config("Rotated out autosave " + file.getName());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Stops the background writer once pending snapshots are written.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
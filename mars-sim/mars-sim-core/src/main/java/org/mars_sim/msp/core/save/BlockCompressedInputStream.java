@@ -0,0 +1,178 @@
+/**
+ * Mars Simulation Project
+ * BlockCompressedInputStream.java
+ * @version 3.08 2015-07-29
+ */
+package org.mars_sim.msp.core.save;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * An input stream reading blocks written by a BlockCompressedOutputStream.
+ * Blocks are read ahead and decompressed in parallel.
+ */
+public class BlockCompressedInputStream extends InputStream {
+
+    // Data members
+    private DataInputStream in;
+    private ExecutorService executor;
+    private int maxPendingBlocks;
+    private Deque<Future<byte[]>> pending;
+    private boolean endOfBlocks;
+    private boolean closed;
+
+    private byte[] block;
+    private int position;
+
+    /**
+     * Constructor.
+     * @param in the underlying input stream.
+     * @param executor the executor blocks are decompressed on.
+     * @param maxPendingBlocks the most blocks read ahead.
+     */
+    public BlockCompressedInputStream(InputStream in, ExecutorService executor, int maxPendingBlocks) {
+        this.in = new DataInputStream(in);
+        this.executor = executor;
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+        pending = new ArrayDeque<Future<byte[]>>(this.maxPendingBlocks);
+        block = new byte[0];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if ((position == block.length) && !nextBlock()) {
+            return -1;
+        }
+        return block[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if ((position == block.length) && !nextBlock()) {
+            return -1;
+        }
+        int copy = Math.min(len, block.length - position);
+        System.arraycopy(block, position, b, off, copy);
+        position += copy;
+        return copy;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return block.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            for (Future<byte[]> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+            in.close();
+        }
+    }
+
+    /**
+     * Moves to the next decompressed block.
+     * @return false if there are no more blocks.
+     */
+    private boolean nextBlock() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+
+        do {
+            // Keep reading ahead.
+            while (!endOfBlocks && (pending.size() < maxPendingBlocks)) {
+                readBlock();
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            block = getBlock(pending.poll());
+            position = 0;
+        } while (block.length == 0);
+
+        return true;
+    }
+
+    /**
+     * Reads the next stored block and submits it for decompression.
+     */
+    private void readBlock() throws IOException {
+        final int rawLength;
+        try {
+            rawLength = in.readInt();
+        }
+        catch (EOFException e) {
+            throw new IOException("Save data is truncated.", e);
+        }
+        if (rawLength == 0) {
+            endOfBlocks = true;
+            return;
+        }
+
+        int stored = in.readInt();
+        final int checksum = in.readInt();
+        final boolean compressed = stored > 0;
+        final int storedLength = Math.abs(stored);
+        if ((rawLength < 0) || (storedLength > LZBlockCodec.getMaxCompressedLength(rawLength)) ||
+                (!compressed && (storedLength != rawLength))) {
+            throw new IOException("Corrupt save block header.");
+        }
+        final byte[] data = new byte[storedLength];
+        in.readFully(data);
+
+        pending.add(executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+                byte[] result = data;
+                if (compressed) {
+                    result = new byte[rawLength];
+                    LZBlockCodec.decompress(data, 0, storedLength, result, 0, rawLength);
+                }
+                CRC32 crc = new CRC32();
+                crc.update(result, 0, rawLength);
+                if ((int) crc.getValue() != checksum) {
+                    throw new IOException("Save block checksum mismatch.");
+                }
+                return result;
+            }
+        }));
+    }
+
+    /**
+     * Waits for a block to be decompressed.
+     */
+    private byte[] getBlock(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted decompressing save block.");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error decompressing save block.", e.getCause());
+        }
+    }
+}
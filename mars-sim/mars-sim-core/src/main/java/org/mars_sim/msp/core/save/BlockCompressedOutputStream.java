@@ -0,0 +1,223 @@
+/**
+ * Mars Simulation Project
+ * BlockCompressedOutputStream.java
+ * @version 3.08 2015-07-29
+ */
+package org.mars_sim.msp.core.save;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * An output stream that splits data into fixed size blocks and compresses the blocks
+ * in parallel with the LZBlockCodec, writing them in order.
+ * Each block is written as its uncompressed length, its stored length (negative if stored
+ * uncompressed), a CRC32 checksum of the uncompressed data and the stored bytes.
+ * A zero length block ends the stream.
+ */
+public class BlockCompressedOutputStream extends OutputStream {
+
+    // Data members
+    private DataOutputStream out;
+    private ExecutorService executor;
+    private int maxPendingBlocks;
+    private byte[] buffer;
+    private int count;
+    private Deque<Future<CompressedBlock>> pending;
+    private boolean closed;
+
+    private long uncompressedBytes;
+    private long compressedBytes;
+
+    /**
+     * Constructor.
+     * @param out the underlying output stream.
+     * @param blockSize the uncompressed block size (bytes).
+     * @param executor the executor blocks are compressed on.
+     * @param maxPendingBlocks the most blocks being compressed at once.
+     */
+    public BlockCompressedOutputStream(OutputStream out, int blockSize, ExecutorService executor,
+            int maxPendingBlocks) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.out = new DataOutputStream(out);
+        this.executor = executor;
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+        buffer = new byte[blockSize];
+        pending = new ArrayDeque<Future<CompressedBlock>>(this.maxPendingBlocks + 1);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            submitBlock();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffer.length) {
+                submitBlock();
+            }
+            int copy = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, copy);
+            count += copy;
+            off += copy;
+            len -= copy;
+        }
+    }
+
+    /**
+     * Compresses and writes all buffered data.
+     * Blocks are only full size if flush isn't called.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (count > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeBlock(pending.poll());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+            out.writeInt(0);
+            out.flush();
+        }
+        finally {
+            closed = true;
+            pending.clear();
+            out.close();
+        }
+    }
+
+    /**
+     * Gets the number of uncompressed bytes written so far.
+     * @return bytes.
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * Gets the number of compressed bytes written so far.
+     * @return bytes.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Submits the buffered data for compression, writing completed blocks to limit memory use.
+     */
+    private void submitBlock() throws IOException {
+        final byte[] data = buffer;
+        final int length = count;
+        buffer = new byte[buffer.length];
+        count = 0;
+
+        pending.add(executor.submit(new Callable<CompressedBlock>() {
+            @Override
+            public CompressedBlock call() {
+                return CompressedBlock.compress(data, length);
+            }
+        }));
+
+        while (pending.size() > maxPendingBlocks) {
+            writeBlock(pending.poll());
+        }
+    }
+
+    /**
+     * Waits for a block to be compressed and writes it.
+     */
+    private void writeBlock(Future<CompressedBlock> future) throws IOException {
+        CompressedBlock block;
+        try {
+            block = future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted compressing save block.");
+        }
+        catch (ExecutionException e) {
+            throw new IOException("Error compressing save block.", e.getCause());
+        }
+
+        out.writeInt(block.rawLength);
+        out.writeInt(block.compressed ? block.storedLength : -block.storedLength);
+        out.writeInt(block.checksum);
+        out.write(block.data, 0, block.storedLength);
+
+        uncompressedBytes += block.rawLength;
+        compressedBytes += block.storedLength + 12;
+    }
+
+    /**
+     * A compressed block of data.
+     */
+    private static final class CompressedBlock {
+
+        private int rawLength;
+        private int storedLength;
+        private int checksum;
+        private boolean compressed;
+        private byte[] data;
+
+        /**
+         * Compresses data, storing it uncompressed if that is smaller.
+         * @param raw the raw data.
+         * @param length the raw data length.
+         * @return block.
+         */
+        private static CompressedBlock compress(byte[] raw, int length) {
+            CompressedBlock result = new CompressedBlock();
+            result.rawLength = length;
+
+            CRC32 crc = new CRC32();
+            crc.update(raw, 0, length);
+            result.checksum = (int) crc.getValue();
+
+            byte[] compressedData = new byte[LZBlockCodec.getMaxCompressedLength(length)];
+            int compressedLength = LZBlockCodec.compress(raw, 0, length, compressedData, 0);
+            if (compressedLength < length) {
+                result.compressed = true;
+                result.data = compressedData;
+                result.storedLength = compressedLength;
+            }
+            else {
+                result.data = raw;
+                result.storedLength = length;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Mars Simulation Project
+ * BlockSaveFormat.java
+ * @version 3.08 2015-07-29
+ */
+package org.mars_sim.msp.core.save;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A fast save format: serialized data split into blocks that are compressed and
+ * decompressed in parallel with the LZBlockCodec.
+ * The file starts with a magic header, a format version and the block size.
+ */
+public class BlockSaveFormat implements SaveFormat {
+
+    /** The format name. */
+    public static final String NAME = "block";
+
+    /** The default uncompressed block size (bytes). */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final byte[] MAGIC = new byte[] { 'M', 'S', 'P', 'S', 'A', 'V', 'E' };
+
+    private static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Data members
+    private int blockSize;
+    private ExecutorService executor;
+    private int maxPendingBlocks;
+
+    /**
+     * Constructor using the default block size and the common fork join pool.
+     */
+    public BlockSaveFormat() {
+        this(DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     * @param blockSize the uncompressed block size (bytes).
+     * @param executor the executor blocks are compressed and decompressed on.
+     */
+    public BlockSaveFormat(int blockSize, ExecutorService executor) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.executor = executor;
+        maxPendingBlocks = Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isFormatOf(byte[] header, int length) {
+        return (length >= MAGIC.length) && Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length));
+    }
+
+    /**
+     * Gets the number of header bytes needed to detect the format.
+     * @return number of bytes.
+     */
+    static int getHeaderLength() {
+        return MAGIC.length;
+    }
+
+    @Override
+    public OutputStream createOutputStream(OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        DataOutputStream header = new DataOutputStream(buffered);
+        header.write(MAGIC);
+        header.writeByte(VERSION);
+        header.writeInt(blockSize);
+        return new BlockCompressedOutputStream(buffered, blockSize, executor, maxPendingBlocks);
+    }
+
+    @Override
+    public InputStream createInputStream(InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        byte[] magic = new byte[MAGIC.length];
+        header.readFully(magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Not a " + NAME + " format save file.");
+        }
+        int version = header.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported " + NAME + " save format version: " + version);
+        }
+        // Block size is informational; each block records its own length.
+        header.readInt();
+        return new BlockCompressedInputStream(header, executor, maxPendingBlocks);
+    }
+}
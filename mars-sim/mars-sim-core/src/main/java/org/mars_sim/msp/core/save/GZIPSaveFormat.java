@@ -0,0 +1,44 @@
+/**
+ * Mars Simulation Project
+ * GZIPSaveFormat.java
+ * @version 3.08 2015-07-29
+ */
+package org.mars_sim.msp.core.save;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The original save format: serialized data compressed with GZIP.
+ */
+public class GZIPSaveFormat implements SaveFormat {
+
+    /** The format name. */
+    public static final String NAME = "gzip";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isFormatOf(byte[] header, int length) {
+        return (length >= 2) && ((header[0] & 0xFF) == 0x1F) && ((header[1] & 0xFF) == 0x8B);
+    }
+
+    @Override
+    public OutputStream createOutputStream(OutputStream out) throws IOException {
+        return new BufferedOutputStream(new GZIPOutputStream(out, BUFFER_SIZE), BUFFER_SIZE);
+    }
+
+    @Override
+    public InputStream createInputStream(InputStream in) throws IOException {
+        return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Mars Simulation Project
+ * LZBlockCodec.java
+ * @version 3.08 2015-07-29
+ */
+package org.mars_sim.msp.core.save;
+
+import java.io.IOException;
+
+/**
+ * A fast LZ77 block compressor in the style of LZ4.
+ * A compressed block is a series of sequences, each a token byte holding the literal
+ * and match lengths, any extra length bytes, the literal bytes, a two byte match offset and
+ * any extra match length bytes. The last sequence has only literals.
+ * Compression favors speed over ratio: matches are found through a single hash table
+ * of the last position each four byte sequence was seen at.
+ */
+public final class LZBlockCodec {
+
+    /** The shortest match encoded. */
+    private static final int MIN_MATCH = 4;
+
+    /** The number of bytes at the end of a block always stored as literals. */
+    private static final int LAST_LITERALS = 5;
+
+    /** The furthest back a match can be. */
+    private static final int MAX_OFFSET = 65535;
+
+    private static final int HASH_LOG = 14;
+
+    /** Blocks shorter than this are stored as literals only. */
+    private static final int MIN_BLOCK_LENGTH = MIN_MATCH + LAST_LITERALS + 4;
+
+    /**
+     * Private constructor for utility class.
+     */
+    private LZBlockCodec() {
+    }
+
+    /**
+     * Gets the largest compressed size of a block.
+     * @param length the uncompressed length.
+     * @return maximum compressed length.
+     */
+    public static int getMaxCompressedLength(int length) {
+        return length + (length / 255) + 16;
+    }
+
+    /**
+     * Compresses a block.
+     * @param src the source bytes.
+     * @param srcOff the source offset.
+     * @param srcLen the number of source bytes.
+     * @param dest the destination, with at least getMaxCompressedLength(srcLen) bytes from destOff.
+     * @param destOff the destination offset.
+     * @return the compressed length.
+     */
+    public static int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+
+        int srcEnd = srcOff + srcLen;
+        int anchor = srcOff;
+        int d = destOff;
+
+        if (srcLen >= MIN_BLOCK_LENGTH) {
+            // Positions are stored plus one so zero is empty.
+            int[] table = new int[1 << HASH_LOG];
+            int matchLimit = srcEnd - LAST_LITERALS;
+            int i = srcOff;
+
+            while (i < matchLimit - MIN_MATCH) {
+                int sequence = readInt(src, i);
+                int h = hash(sequence);
+                int ref = table[h] - 1;
+                table[h] = i + 1;
+
+                if ((ref >= 0) && ((i - ref) <= MAX_OFFSET) && (readInt(src, ref) == sequence)) {
+                    int matchLength = MIN_MATCH;
+                    while (((i + matchLength) < matchLimit) && (src[ref + matchLength] == src[i + matchLength])) {
+                        matchLength++;
+                    }
+
+                    d = writeSequence(src, anchor, i - anchor, i - ref, matchLength, dest, d);
+                    i += matchLength;
+                    anchor = i;
+
+                    // Index the position before the next search so runs are found.
+                    if (i < matchLimit - MIN_MATCH) {
+                        table[hash(readInt(src, i - 2))] = i - 1;
+                    }
+                }
+                else {
+                    // Skip faster through incompressible data.
+                    i += 1 + ((i - anchor) >>> 6);
+                }
+            }
+        }
+
+        // Last literals.
+        int literalLength = srcEnd - anchor;
+        d = writeToken(dest, d, literalLength, 0);
+        System.arraycopy(src, anchor, dest, d, literalLength);
+        d += literalLength;
+
+        return d - destOff;
+    }
+
+    /**
+     * Decompresses a block.
+     * @param src the compressed bytes.
+     * @param srcOff the compressed offset.
+     * @param srcLen the compressed length.
+     * @param dest the destination.
+     * @param destOff the destination offset.
+     * @param destLen the uncompressed length.
+     * @throws IOException if the block is corrupt.
+     */
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen)
+            throws IOException {
+
+        int s = srcOff;
+        int srcEnd = srcOff + srcLen;
+        int d = destOff;
+        int destEnd = destOff + destLen;
+
+        try {
+            while (true) {
+                int token = src[s++] & 0xFF;
+
+                // Literals.
+                int literalLength = token >>> 4;
+                if (literalLength == 15) {
+                    int b;
+                    do {
+                        b = src[s++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                if (((s + literalLength) > srcEnd) || ((d + literalLength) > destEnd)) {
+                    throw new IOException("Corrupt block: literals out of bounds.");
+                }
+                System.arraycopy(src, s, dest, d, literalLength);
+                s += literalLength;
+                d += literalLength;
+
+                if (s == srcEnd) {
+                    break;
+                }
+
+                // Match.
+                int offset = (src[s] & 0xFF) | ((src[s + 1] & 0xFF) << 8);
+                s += 2;
+                int matchLength = token & 0x0F;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src[s++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+
+                int ref = d - offset;
+                if ((offset == 0) || (ref < destOff) || ((d + matchLength) > destEnd)) {
+                    throw new IOException("Corrupt block: match out of bounds.");
+                }
+                if (offset >= matchLength) {
+                    System.arraycopy(dest, ref, dest, d, matchLength);
+                    d += matchLength;
+                }
+                else {
+                    // Overlapping match repeats the last bytes.
+                    for (int x = 0; x < matchLength; x++) {
+                        dest[d++] = dest[ref++];
+                    }
+                }
+            }
+        }
+        catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt block: truncated.", e);
+        }
+
+        if (d != destEnd) {
+            throw new IOException("Corrupt block: expected " + destLen + " bytes but got " + (d - destOff));
+        }
+    }
+
+    /**
+     * Writes a sequence of literals followed by a match.
+     * @return the new destination position.
+     */
+    private static int writeSequence(byte[] src, int literalOff, int literalLength, int offset,
+            int matchLength, byte[] dest, int d) {
+
+        int matchCode = matchLength - MIN_MATCH;
+        d = writeToken(dest, d, literalLength, matchCode);
+        System.arraycopy(src, literalOff, dest, d, literalLength);
+        d += literalLength;
+
+        dest[d++] = (byte) offset;
+        dest[d++] = (byte) (offset >>> 8);
+
+        if (matchCode >= 15) {
+            d = writeExtraLength(dest, d, matchCode - 15);
+        }
+        return d;
+    }
+
+    /**
+     * Writes a token and any extra literal length bytes.
+     * @return the new destination position.
+     */
+    private static int writeToken(byte[] dest, int d, int literalLength, int matchCode) {
+        int token = (Math.min(literalLength, 15) << 4) | Math.min(matchCode, 15);
+        dest[d++] = (byte) token;
+        if (literalLength >= 15) {
+            d = writeExtraLength(dest, d, literalLength - 15);
+        }
+        return d;
+    }
+
+    /**
+     * Writes an extra length as a run of 255 bytes and a remainder byte.
+     * @return the new destination position.
+     */
+    private static int writeExtraLength(byte[] dest, int d, int length) {
+        while (length >= 255) {
+            dest[d++] = (byte) 255;
+            length -= 255;
+        }
+        dest[d++] = (byte) length;
+        return d;
+    }
+
+    private static int readInt(byte[] buf, int i) {
+        return (buf[i] & 0xFF) | ((buf[i + 1] & 0xFF) << 8) | ((buf[i + 2] & 0xFF) << 16) | (buf[i + 3] << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
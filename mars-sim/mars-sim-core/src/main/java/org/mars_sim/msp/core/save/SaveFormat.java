@@ -0,0 +1,48 @@
+/**
+ * Mars Simulation Project
+ * SaveFormat.java
+ * @version 3.08 2015-07-29
+ */
+package org.mars_sim.msp.core.save;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A file format that simulation save data is encoded in.
+ * The simulation object graph is written to the stream a format creates, so formats
+ * differ in how the serialized data is framed and compressed.
+ */
+public interface SaveFormat {
+
+    /**
+     * Gets the name of the format.
+     * @return name.
+     */
+    public String getName();
+
+    /**
+     * Checks if a save file starts with this format's header.
+     * @param header the first bytes of the file.
+     * @param length the number of header bytes read.
+     * @return true if the file is in this format.
+     */
+    public boolean isFormatOf(byte[] header, int length);
+
+    /**
+     * Creates a stream encoding save data to a file.
+     * @param out the file output stream.
+     * @return save data output stream.
+     * @throws IOException if error writing the format header.
+     */
+    public OutputStream createOutputStream(OutputStream out) throws IOException;
+
+    /**
+     * Creates a stream decoding save data from a file.
+     * @param in the file input stream, positioned at the start of the file.
+     * @return save data input stream.
+     * @throws IOException if error reading the format header.
+     */
+    public InputStream createInputStream(InputStream in) throws IOException;
+}
@@ -0,0 +1,119 @@
+/**
+ * Mars Simulation Project
+ * SaveFormats.java
+ * @version 3.08 2015-07-29
+ */
+package org.mars_sim.msp.core.save;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The save formats known to the simulation.
+ * Saves are written in the default format, and loaded in whichever known format
+ * the file header matches, so older GZIP saves can still be loaded.
+ */
+public final class SaveFormats {
+
+    private static final int HEADER_LENGTH = 16;
+
+    private static final List<SaveFormat> formats = new CopyOnWriteArrayList<SaveFormat>();
+
+    private static volatile SaveFormat defaultFormat;
+
+    static {
+        defaultFormat = new BlockSaveFormat();
+        formats.add(defaultFormat);
+        formats.add(new GZIPSaveFormat());
+    }
+
+    /**
+     * Private constructor for utility class.
+     */
+    private SaveFormats() {
+    }
+
+    /**
+     * Gets the format new saves are written in.
+     * @return save format.
+     */
+    public static SaveFormat getDefaultFormat() {
+        return defaultFormat;
+    }
+
+    /**
+     * Sets the format new saves are written in, registering it if needed.
+     * @param format the save format.
+     */
+    public static void setDefaultFormat(SaveFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("format is null.");
+        }
+        registerFormat(format);
+        defaultFormat = format;
+    }
+
+    /**
+     * Registers a format so files in it can be loaded.
+     * @param format the save format.
+     */
+    public static void registerFormat(SaveFormat format) {
+        if (!formats.contains(format)) {
+            formats.add(0, format);
+        }
+    }
+
+    /**
+     * Gets a registered format by name.
+     * @param name the format name.
+     * @return save format or null if none.
+     */
+    public static SaveFormat getFormat(String name) {
+        for (SaveFormat format : formats) {
+            if (format.getName().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets all registered formats.
+     * @return list of save formats.
+     */
+    public static List<SaveFormat> getFormats() {
+        return Collections.unmodifiableList(new ArrayList<SaveFormat>(formats));
+    }
+
+    /**
+     * Detects the format of save data from its header without consuming it.
+     * @param in the input stream, which must support mark and reset.
+     * @return save format.
+     * @throws IOException if error reading or the format is unknown.
+     */
+    public static SaveFormat detectFormat(InputStream in) throws IOException {
+        if (!in.markSupported()) {
+            throw new IllegalArgumentException("Input stream must support mark.");
+        }
+
+        byte[] header = new byte[Math.max(HEADER_LENGTH, BlockSaveFormat.getHeaderLength())];
+        in.mark(header.length);
+        int length = 0;
+        int read = 0;
+        while ((length < header.length) && ((read = in.read(header, length, header.length - length)) > 0)) {
+            length += read;
+        }
+        in.reset();
+
+        for (SaveFormat format : formats) {
+            if (format.isFormatOf(header, length)) {
+                return format;
+            }
+        }
+        throw new IOException("Unknown save file format.");
+    }
+}
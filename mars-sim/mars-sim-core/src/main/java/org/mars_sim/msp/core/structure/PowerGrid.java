@@ -8,6 +8,7 @@
 package org.mars_sim.msp.core.structure;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Level;
@@ -46,6 +47,17 @@ implements Serializable {
 	private Settlement settlement;
 	private double powerValue;
 
+	/** The building manager's power change count when the fixed power requirements were totaled. */
+	private transient int powerChangeCount;
+	/** The buildings with variable power requirements, read every time pulse. */
+	private transient Building[] variableBuildings;
+	/** The total full-power requirement of the other buildings. */
+	private transient double fixedFullPowerRequired;
+	/** The total power-down requirement of the other buildings. */
+	private transient double fixedPoweredDownPowerRequired;
+	/** The power mode all buildings are in, or null if the buildings need their power mode set. */
+	private transient PowerMode buildingPowerMode;
+
 	/**
 	 * Constructor.
 	 */
@@ -182,12 +194,9 @@ implements Serializable {
 		// update the total power generated in the grid.
 		updateTotalPowerGenerated();
 
-		// Update the total power stored in the grid.
+		// Update the total power stored and power storage capacity in the grid.
 		updateTotalStoredPower();
 
-		// Update the total power storage capacity in the grid.
-		updateTotalPowerStorageCapacity();
-
 		// Determine total power required in the grid.
 		updateTotalRequiredPower();
 
@@ -198,7 +207,7 @@ implements Serializable {
 			// Store excess power in power storage buildings.
 			double timeHr = MarsClock.convertMillisolsToSeconds(time) / 60D / 60D;
 			double excessPower = (powerGenerated - powerRequired) * timeHr;
-			storeExcessPower(excessPower);
+			exchangeStoredPower(excessPower);
 		}
 		else {
 			sufficientPower = false;
@@ -207,11 +216,13 @@ implements Serializable {
 			// Retrieve power from power storage buildings.
 			double timeHr = MarsClock.convertMillisolsToSeconds(time) / 60D / 60D;
 			double neededPowerHr = neededPower * timeHr;
-			neededPowerHr = retrieveStoredPower(neededPowerHr);
+			neededPowerHr = -exchangeStoredPower(-neededPowerHr);
 			neededPower = neededPowerHr / timeHr;
 
 			BuildingManager manager = settlement.getBuildingManager();
 			List<Building> buildings = manager.getBuildings();
+			// Power modes are set below, so reset them all the next time pulse.
+			buildingPowerMode = null;
 
 			// Reduce each building's power mode to low power until
 			// required power reduction is met.
@@ -289,19 +300,22 @@ implements Serializable {
 	}
 
 	/**
-	 * Updates the total power stored in the grid.
+	 * Updates the total power stored and the total power storage capacity in the grid.
 	 * @throws BuildingException if error determining total power stored.
 	 */
 	private void updateTotalStoredPower() {
 		double tempPowerStored = 0D;
+		double tempPowerStorageCapacity = 0D;
 		BuildingManager manager = settlement.getBuildingManager();
 		Iterator<Building> iStore = manager.getBuildings(BuildingFunction.POWER_STORAGE).iterator();
 		while (iStore.hasNext()) {
 			Building building = iStore.next();
 			PowerStorage store = (PowerStorage) building.getFunction(BuildingFunction.POWER_STORAGE);
 			tempPowerStored += store.getPowerStored();
+			tempPowerStorageCapacity += store.getPowerStorageCapacity();
 		}
 		setStoredPower(tempPowerStored);
+		setStoredPowerCapacity(tempPowerStorageCapacity);
 
 		if(logger.isLoggable(Level.FINE)) {
 			logger.fine(
@@ -310,48 +324,49 @@ implements Serializable {
 					Double.toString(powerStored)
 				)
 			);
+			logger.fine(
+				Msg.getString(
+					"PowerGrid.log.totalPowerStorageCapacity", //$NON-NLS-1$
+					Double.toString(powerStorageCapacity)
+				)
+			);
 		}
 	}
 
 	/**
-	 * Updates the toal power required in the grid.
+	 * Updates the total power required in the grid, and sets the buildings' power mode
+	 * to the grid's.
+	 * Only the buildings with variable power requirements are read every time pulse.
+	 * The requirements of the others are totaled again when the building manager's
+	 * power change count changes.
 	 * @throws BuildingException if error determining total power required.
 	 */
 	private void updateTotalRequiredPower() {
-		double tempPowerRequired = 0D;
 		boolean powerUp = powerMode == PowerMode.POWER_UP;
 		BuildingManager manager = settlement.getBuildingManager();
-		List<Building> buildings = manager.getBuildings();
-		Iterator<Building> iUsed = buildings.iterator();
-		while (iUsed.hasNext()) {
-			Building building = iUsed.next();
-			if (powerUp) {
-				building.setPowerMode(PowerMode.FULL_POWER);
-				tempPowerRequired += building.getFullPowerRequired();
-				if(logger.isLoggable(Level.FINE)) {
-					logger.fine(
-						Msg.getString(
-							"PowerGrid.log.buildingFullPowerUsed", //$NON-NLS-1$
-							building.getNickName(),
-							Double.toString(building.getFullPowerRequired())
-						)
-					);
-				}
-			}
-			else {
-				building.setPowerMode(PowerMode.POWER_DOWN);
-				tempPowerRequired += building.getPoweredDownPowerRequired();
-
-				if(logger.isLoggable(Level.FINE)) {
-					logger.fine(
-						Msg.getString(
-							"PowerGrid.log.buildingPowerDownPowerUsed", //$NON-NLS-1$
-							building.getNickName(),
-							Double.toString(building.getPoweredDownPowerRequired())
-						)
-					);
-				}
+		int changeCount = manager.getPowerChangeCount();
+		if ((variableBuildings == null) || (changeCount != powerChangeCount)) {
+			powerChangeCount = changeCount;
+			updateFixedRequiredPower(manager);
+			// New buildings need their power mode set.
+			buildingPowerMode = null;
+		}
+
+		PowerMode newBuildingPowerMode = powerUp ? PowerMode.FULL_POWER : PowerMode.POWER_DOWN;
+		if (buildingPowerMode != newBuildingPowerMode) {
+			Iterator<Building> i = manager.getBuildings().iterator();
+			while (i.hasNext()) {
+				i.next().setPowerMode(newBuildingPowerMode);
 			}
+			buildingPowerMode = newBuildingPowerMode;
+		}
+
+		double tempPowerRequired = powerUp ? fixedFullPowerRequired : fixedPoweredDownPowerRequired;
+		for (Building building : variableBuildings) {
+			double buildingPowerRequired = powerUp ? building.getFullPowerRequired() :
+				building.getPoweredDownPowerRequired();
+			tempPowerRequired += buildingPowerRequired;
+			logBuildingPowerRequired(building, powerUp, buildingPowerRequired);
 		}
 		setRequiredPower(tempPowerRequired);
 
@@ -366,25 +381,42 @@ implements Serializable {
 	}
 
 	/**
-	 * Updates the total power storage capacity in the grid.
-	 * @throws BuildingException if error determining total power storage capacity.
+	 * Totals the power required by the buildings without variable power requirements,
+	 * and finds the buildings with them.
+	 * @param manager the building manager.
 	 */
-	private void updateTotalPowerStorageCapacity() {
-		double tempPowerStorageCapacity = 0D;
-		BuildingManager manager = settlement.getBuildingManager();
-		Iterator<Building> iStore = manager.getBuildings(BuildingFunction.POWER_STORAGE).iterator();
-		while (iStore.hasNext()) {
-			Building building = iStore.next();
-			PowerStorage store = (PowerStorage) building.getFunction(BuildingFunction.POWER_STORAGE);
-			tempPowerStorageCapacity += store.getPowerStorageCapacity();
+	private void updateFixedRequiredPower(BuildingManager manager) {
+		double tempFullPowerRequired = 0D;
+		double tempPoweredDownPowerRequired = 0D;
+		List<Building> tempVariableBuildings = new ArrayList<Building>();
+		Iterator<Building> i = manager.getBuildings().iterator();
+		while (i.hasNext()) {
+			Building building = i.next();
+			if (building.isPowerRequirementVariable()) {
+				tempVariableBuildings.add(building);
+			}
+			else {
+				double fullPowerRequired = building.getFullPowerRequired();
+				double poweredDownPowerRequired = building.getPoweredDownPowerRequired();
+				tempFullPowerRequired += fullPowerRequired;
+				tempPoweredDownPowerRequired += poweredDownPowerRequired;
+				logBuildingPowerRequired(building, true, fullPowerRequired);
+				logBuildingPowerRequired(building, false, poweredDownPowerRequired);
+			}
 		}
-		setStoredPowerCapacity(tempPowerStorageCapacity);
+		fixedFullPowerRequired = tempFullPowerRequired;
+		fixedPoweredDownPowerRequired = tempPoweredDownPowerRequired;
+		variableBuildings = tempVariableBuildings.toArray(new Building[tempVariableBuildings.size()]);
+	}
 
+	private void logBuildingPowerRequired(Building building, boolean fullPower, double power) {
 		if(logger.isLoggable(Level.FINE)) {
 			logger.fine(
 				Msg.getString(
-					"PowerGrid.log.totalPowerStorageCapacity", //$NON-NLS-1$
-					Double.toString(powerStorageCapacity)
+					fullPower ? "PowerGrid.log.buildingFullPowerUsed" : //$NON-NLS-1$
+						"PowerGrid.log.buildingPowerDownPowerUsed", //$NON-NLS-1$
+					building.getNickName(),
+					Double.toString(power)
 				)
 			);
 		}
@@ -415,46 +447,38 @@ implements Serializable {
 	}
 
 	/**
-	 * Stores any excess grid power in power storage buildings if possible.
-	 * @param excessPower excess grid power (in kW hr).
-	 * @throws BuildingException if error storing excess power.
+	 * Stores excess grid power in power storage buildings, or retrieves needed power
+	 * from them, in one pass over the buildings.
+	 * @param power the excess power to store if positive, or the needed power to retrieve
+	 * if negative (kW hr).
+	 * @return the power left over that could not be stored or retrieved (kW hr).
+	 * @throws BuildingException if error storing or retrieving power.
 	 */
-	private void storeExcessPower(double excessPower) {
-		BuildingManager manager = settlement.getBuildingManager();
-		Iterator<Building> i = manager.getBuildings(BuildingFunction.POWER_STORAGE).iterator();
-		while (i.hasNext()) {
-			Building building = i.next();
-			PowerStorage storage = (PowerStorage) building.getFunction(BuildingFunction.POWER_STORAGE);
-			double remainingCapacity = storage.getPowerStorageCapacity() - storage.getPowerStored();
-			if (remainingCapacity > 0D) {
-				double powerToStore = excessPower;
-				if (remainingCapacity < powerToStore) powerToStore = remainingCapacity;
-				storage.setPowerStored(storage.getPowerStored() + powerToStore);
-				excessPower -= powerToStore;
-			}
+	private double exchangeStoredPower(double power) {
+		// Skip the buildings when they are all full or all empty.
+		if ((power > 0D) ? (powerStored >= powerStorageCapacity) : (powerStored <= 0D)) {
+			return power;
 		}
-	}
 
-	/**
-	 * Retrieves stored power for the grid.
-	 * @param neededPower the power needed (kW hr).
-	 * @return stored power retrieved (kW hr).
-	 * @throws BuildingException if error retrieving power.
-	 */
-	private double retrieveStoredPower(double neededPower) {
 		BuildingManager manager = settlement.getBuildingManager();
 		Iterator<Building> i = manager.getBuildings(BuildingFunction.POWER_STORAGE).iterator();
-		while (i.hasNext()) {
+		while (i.hasNext() && (power != 0D)) {
 			Building building = i.next();
 			PowerStorage storage = (PowerStorage) building.getFunction(BuildingFunction.POWER_STORAGE);
-			if ((storage.getPowerStored() > 0D) && (neededPower > 0D)) {
-				double retrievedPower = neededPower;
-				if (storage.getPowerStored() < retrievedPower) retrievedPower = storage.getPowerStored();
-				storage.setPowerStored(storage.getPowerStored() - retrievedPower);
-				neededPower -= retrievedPower;
+			double stored = storage.getPowerStored();
+			double exchangedPower;
+			if (power > 0D) {
+				exchangedPower = Math.min(power, storage.getPowerStorageCapacity() - stored);
+			}
+			else {
+				exchangedPower = Math.max(power, -stored);
+			}
+			if (exchangedPower != 0D) {
+				storage.setPowerStored(stored + exchangedPower);
+				power -= exchangedPower;
 			}
 		}
-		return neededPower;
+		return power;
 	}
 
 	/**
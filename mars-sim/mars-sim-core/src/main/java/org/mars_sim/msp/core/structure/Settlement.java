@@ -22,13 +22,17 @@ import org.mars_sim.msp.core.Inventory;
 import org.mars_sim.msp.core.LifeSupportType;
 import org.mars_sim.msp.core.RandomUtil;
 import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.UnitIndex;
 import org.mars_sim.msp.core.person.Person;
 import org.mars_sim.msp.core.person.PhysicalCondition;
 import org.mars_sim.msp.core.person.ai.mission.Mission;
+import org.mars_sim.msp.core.person.ai.mission.MissionManager;
 import org.mars_sim.msp.core.person.ai.mission.VehicleMission;
 import org.mars_sim.msp.core.person.ai.task.Maintenance;
 import org.mars_sim.msp.core.person.ai.task.Repair;
 import org.mars_sim.msp.core.person.ai.task.Task;
+import org.mars_sim.msp.core.person.ai.task.TaskManager;
 import org.mars_sim.msp.core.resource.AmountResource;
 import org.mars_sim.msp.core.resource.Part;
 import org.mars_sim.msp.core.robot.Robot;
@@ -116,6 +120,11 @@ implements LifeSupportType {
 
     private Inventory inv;
 
+    /** The people in the settlement, rebuilt from its inventory when null. */
+    private transient volatile UnitIndex<Person> inhabitantIndex;
+    /** The robots in the settlement, rebuilt from its inventory when null. */
+    private transient volatile UnitIndex<Robot> robotIndex;
+
     private ChainOfCommand chainOfCommand;
     /** The settlement's achievement in scientific fields. */
     private Map<ScienceType, Double> scientificAchievement;
@@ -250,15 +259,88 @@ implements LifeSupportType {
      * @return the number of inhabitants
      */
     public int getCurrentPopulationNum() {
-        return getInhabitants().size();
+        return getInhabitantIndex().size();
     }
 
     /**
      * Gets a collection of the inhabitants of the settlement.
-     * @return Collection of inhabitants
+     * @return read-only Collection of inhabitants
      */
     public Collection<Person> getInhabitants() {
-        return CollectionUtils.getPerson(getInventory().getContainedUnits());
+        return getInhabitantIndex().getView();
+    }
+
+    /**
+     * Gets the index of the people in the settlement, building it if needed.
+     * @return index of inhabitants.
+     */
+    private UnitIndex<Person> getInhabitantIndex() {
+        UnitIndex<Person> result = inhabitantIndex;
+        if (result == null) {
+            indexContainedUnits();
+            result = inhabitantIndex;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index of the robots in the settlement, building it if needed.
+     * @return index of robots.
+     */
+    private UnitIndex<Robot> getRobotIndex() {
+        UnitIndex<Robot> result = robotIndex;
+        if (result == null) {
+            indexContainedUnits();
+            result = robotIndex;
+        }
+        return result;
+    }
+
+    /**
+     * Builds the indexes of the people and robots in the settlement from its inventory.
+     * They are then kept up to date as units are stored and retrieved.
+     */
+    private synchronized void indexContainedUnits() {
+        if (inhabitantIndex == null) {
+            UnitIndex<Person> people = new UnitIndex<Person>();
+            UnitIndex<Robot> robots = new UnitIndex<Robot>();
+            Iterator<Unit> i = getInventory().getContainedUnits().iterator();
+            while (i.hasNext()) {
+                Unit unit = i.next();
+                if (unit instanceof Person) {
+                    people.add((Person) unit);
+                }
+                else if (unit instanceof Robot) {
+                    robots.add((Robot) unit);
+                }
+            }
+            robotIndex = robots;
+            inhabitantIndex = people;
+        }
+    }
+
+    @Override
+    protected synchronized void unitStored(Unit unit) {
+        if (inhabitantIndex != null) {
+            if (unit instanceof Person) {
+                inhabitantIndex.add((Person) unit);
+            }
+            else if (unit instanceof Robot) {
+                robotIndex.add((Robot) unit);
+            }
+        }
+    }
+
+    @Override
+    protected synchronized void unitRetrieved(Unit unit) {
+        if (inhabitantIndex != null) {
+            if (unit instanceof Person) {
+                inhabitantIndex.remove(unit);
+            }
+            else if (unit instanceof Robot) {
+                robotIndex.remove(unit);
+            }
+        }
     }
 
     /**
@@ -316,15 +398,15 @@ implements LifeSupportType {
      * @return the number of robots
      */
     public int getCurrentNumOfRobots() {
-        return getRobots().size();
+        return getRobotIndex().size();
     }
 
     /**
      * Gets a collection of the number of robots of the settlement.
-     * @return Collection of robots
+     * @return read-only Collection of robots
      */
     public Collection<Robot> getRobots() {
-        return CollectionUtils.getRobot(getInventory().getContainedUnits());
+        return getRobotIndex().getView();
     }
 
     /**
@@ -517,6 +599,16 @@ implements LifeSupportType {
      */
     public void timePassing(double time) {
 
+        // Bring the task probabilities of inhabitants about to choose a task up to date.
+        TaskManager.evaluateIdlePeople(this);
+
+        // Refresh some of the settlement's mission opportunities.
+        MissionManager missionManager = Simulation.instance().getMissionManager();
+        if ((missionManager != null) && (Simulation.instance().getMasterClock() != null)) {
+            missionManager.getPlanner().refresh(this, MarsClock.getTotalMillisols(
+                    Simulation.instance().getMasterClock().getMarsClock()));
+        }
+
         // If settlement is overcrowded, increase inhabitant's stress.
     	// TODO: should the number of robots be accounted for here?
         int overCrowding = getCurrentPopulationNum() - getPopulationCapacity();
@@ -707,10 +799,7 @@ implements LifeSupportType {
         	inv.clearAmountDemandTotalRequestMap();
         	inv.clearAmountDemandMetRequestMap();
 
-        	// 2015-03-06 Added clearing of weather data map
-        	Simulation.instance().getMars().getWeather().clearMap();
-
-        	logger.info("Just compacted supply & demand data map and cleared weather data maps");
+        	logger.info("Just compacted supply & demand data map");
         }
 
 
@@ -967,36 +1056,18 @@ implements LifeSupportType {
 
     /**
      * Gets all people associated with this settlement, even if they are out on missions.
-     * @return collection of associated people.
+     * @return read-only collection of associated people.
      */
     public Collection<Person> getAllAssociatedPeople() {
-        Collection<Person> result = new ConcurrentLinkedQueue<Person>();
-
-        Iterator<Person> i = Simulation.instance().getUnitManager().getPeople().iterator();
-        while (i.hasNext()) {
-            Person person = i.next();
-            if (person.getAssociatedSettlement() == this)
-                result.add(person);
-        }
-
-        return result;
+        return Simulation.instance().getUnitManager().getPeople(this);
     }
 
     /**
      * Gets all Robots associated with this settlement, even if they are out on missions.
-     * @return collection of associated Robots.
+     * @return read-only collection of associated Robots.
      */
     public Collection<Robot> getAllAssociatedRobots() {
-        Collection<Robot> result = new ConcurrentLinkedQueue<Robot>();
-
-        Iterator<Robot> i = Simulation.instance().getUnitManager().getRobots().iterator();
-        while (i.hasNext()) {
-        	Robot robot = i.next();
-            if (robot.getAssociatedSettlement() == this)
-                result.add(robot);
-        }
-
-        return result;
+        return Simulation.instance().getUnitManager().getRobots(this);
     }
 
     /**
@@ -55,6 +55,11 @@ implements Serializable {
 	private Settlement settlement;
 	private PowerGrid powerGrid;
 
+	/** The building manager's power change count when the heat required was totaled. */
+	private transient int heatChangeCount;
+	/** True if the heat required is the current total for the heat-up mode. */
+	private transient boolean heatRequiredTotaled;
+
 	//private ThermalGeneration heater;
 
 	/**
@@ -239,8 +244,6 @@ implements Serializable {
 		// update the total heat generated in the heating system.
 		updateTotalHeatGenerated();
 
-		updateTotalPowerGenerated();
-
 		// Update the total heat stored in the heating system.
 		//updateTotalStoredHeat();
 
@@ -326,22 +329,26 @@ implements Serializable {
 	}
 
 	/**
-	 * Updates the total heat generated in the heating system.
+	 * Updates the total heat generated in the heating system, and the total power
+	 * generated by the solar heat engine system.
 	 * @throws BuildingException if error determining total heat generated.
 	 */
 	private void updateTotalHeatGenerated() {
 		double tempHeatGenerated = 0D;
+		double tempPowerGenerated = 0D;
 
-		// Add the heat generated by all heat generation buildings.
+		// Add the heat and power generated by all heat generation buildings.
 		BuildingManager manager = settlement.getBuildingManager();
 		Iterator<Building> iHeat = manager.getBuildings(BuildingFunction.THERMAL_GENERATION).iterator();
 		while (iHeat.hasNext()) {
 			Building building = iHeat.next();
 			ThermalGeneration gen = (ThermalGeneration) building.getFunction(BuildingFunction.THERMAL_GENERATION);
 			tempHeatGenerated += gen.getGeneratedHeat();
+			tempPowerGenerated += gen.calculateGeneratedPower();
 			// logger.info(((Building) gen).getName() + " generated: " + gen.getGeneratedHeat());
 		}
 		setGeneratedHeat(tempHeatGenerated);
+		setGeneratedPower(tempPowerGenerated);
 
 		if(logger.isLoggable(Level.FINE)) {
 			logger.fine(
@@ -350,29 +357,6 @@ implements Serializable {
 					Double.toString(heatGenerated)
 				)
 			);
-		}
-	}
-
-
-	/**
-	 * Updates the total power generated by the solar heat engine system.
-	 * @throws BuildingException if error determining total heat generated.
-	 */
-	private void updateTotalPowerGenerated() {
-		double tempPowerGenerated = 0D;
-
-		// Add the heat generated by all heat generation buildings.
-		BuildingManager manager = settlement.getBuildingManager();
-		Iterator<Building> iHeat = manager.getBuildings(BuildingFunction.THERMAL_GENERATION).iterator();
-		while (iHeat.hasNext()) {
-			Building building = iHeat.next();
-			ThermalGeneration gen = (ThermalGeneration) building.getFunction(BuildingFunction.THERMAL_GENERATION);
-			tempPowerGenerated += gen.calculateGeneratedPower();
-			// logger.info(((Building) gen).getName() + " generated: " + gen.getGeneratedHeat());
-		}
-		setGeneratedPower(tempPowerGenerated);
-
-		if(logger.isLoggable(Level.FINE)) {
 			logger.fine(
 				Msg.getString(
 					"ThermalSystem.log.totalPowerGenerated", //$NON-NLS-1$
@@ -409,12 +393,21 @@ implements Serializable {
  */
 	/**
 	 * Updates the total heat required in the heating system.
+	 * In the heat-up mode, the heat required is only totaled again when the building
+	 * manager's power change count changes.
 	 * @throws BuildingException if error determining total heat required.
 	 */
 	private void updateTotalRequiredHeat() {
 		double tempHeatRequired = 0D;
 		boolean heatUp = heatMode == HeatMode.POWER_UP;
 		BuildingManager manager = settlement.getBuildingManager();
+		int changeCount = manager.getPowerChangeCount();
+		if (heatUp && heatRequiredTotaled && (changeCount == heatChangeCount)) {
+			return;
+		}
+		heatChangeCount = changeCount;
+		heatRequiredTotaled = heatUp;
+
 		List<Building> buildings = manager.getBuildings();
 		Iterator<Building> iUsed = buildings.iterator();
 		while (iUsed.hasNext()) {
@@ -11,6 +11,7 @@ import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -137,6 +138,8 @@ LocalBoundedObject, InsidePathLocation {
 	protected String description = "Stay tuned";
 
 	protected List<Function> functions;
+	/** The building's functions indexed by function ordinal, rebuilt from the function list when null. */
+	private transient volatile Function[] functionTable;
 	//private List<BuildingKit> buildingKit;
 	private Map<Integer, ItemResource> itemMap = new HashMap<Integer, ItemResource>();
 
@@ -448,12 +451,7 @@ LocalBoundedObject, InsidePathLocation {
 	 * @return true if function.
 	 */
 	public boolean hasFunction(BuildingFunction function) {
-		boolean result = false;
-		Iterator<Function> i = functions.iterator();
-		while (i.hasNext()) {
-			if (i.next().getFunction() == function) result = true;
-		}
-		return result;
+		return getFunctionTable()[function.ordinal()] != null;
 	}
 
 	/**
@@ -463,17 +461,69 @@ LocalBoundedObject, InsidePathLocation {
 	 * @throws BuildingException if building doesn't have the function.
 	 */
 	public Function getFunction(BuildingFunction functionType) {
-		Function result = null;
-		Iterator<Function> i = functions.iterator();
-		while (i.hasNext()) {
-			Function function = i.next();
-			if (function.getFunction() == functionType) result = function;
+		return getFunctionTable()[functionType.ordinal()];
+	}
+
+	/**
+	 * Gets the function table, building it from the function list if needed.
+	 * If the building has more than one function of a type, the last one is used.
+	 * @return functions indexed by function ordinal.
+	 */
+	private Function[] getFunctionTable() {
+		Function[] result = functionTable;
+		if (result == null) {
+			result = new Function[BuildingFunction.values().length];
+			if (functions != null) {
+				Iterator<Function> i = functions.iterator();
+				while (i.hasNext()) {
+					Function function = i.next();
+					result[function.getFunction().ordinal()] = function;
+				}
+			}
+			functionTable = result;
 		}
-		//if (result != null) return result;
-		//else throw new IllegalStateException(buildingType + " does not have " + functionType);
 		return result;
 	}
 
+	/**
+	 * Sets the building's functions.
+	 * @param functions the list of functions.
+	 */
+	protected void setFunctions(List<Function> functions) {
+		this.functions = functions;
+		functionsChanged();
+	}
+
+	/**
+	 * Adds a function to the building.
+	 * @param function the function.
+	 */
+	protected void addFunction(Function function) {
+		functions.add(function);
+		functionsChanged();
+	}
+
+	/**
+	 * Removes a function from the building.
+	 * @param function the function.
+	 */
+	protected void removeFunction(Function function) {
+		if (functions.remove(function)) {
+			functionsChanged();
+		}
+	}
+
+	/**
+	 * Rebuilds the function table and updates the building manager's function index after
+	 * the function list has changed.
+	 */
+	private void functionsChanged() {
+		functionTable = null;
+		if (manager != null) {
+			manager.functionsChanged(this);
+		}
+	}
+
 	/**
 	 * Remove the building's functions from the settlement.
 	 */
@@ -581,6 +631,29 @@ LocalBoundedObject, InsidePathLocation {
         return baseLevel;
     }
 
+	/**
+	 * Checks if the power the building requires can change from one time pulse to the
+	 * next without {@link #powerRequirementChanged()} being called.
+	 * @return true if any function has a variable power requirement.
+	 */
+	public boolean isPowerRequirementVariable() {
+		Iterator<Function> i = functions.iterator();
+		while (i.hasNext()) {
+			if (i.next().isPowerRequirementVariable()) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Tells the building manager the power or heat the building requires has changed,
+	 * so the power grid and thermal system total the requirements again.
+	 */
+	public void powerRequirementChanged() {
+		if (manager != null) {
+			manager.powerRequirementChanged();
+		}
+	}
+
 	/**
 	 * Gets the power this building currently requires for full-power mode.
 	 * @return power in kW.
@@ -704,7 +777,11 @@ LocalBoundedObject, InsidePathLocation {
 	        num = ((EVA) getFunction(BuildingFunction.EVA)).getAirlock().getOccupants().size();
 			//if (num > 0) System.out.println("num is " + num);
 		//}
-	        powerNeededForEVAheater = num * 1D; // set to 1kW for each person
+	        double powerNeeded = num * 1D; // set to 1kW for each person
+	        if (powerNeeded != powerNeededForEVAheater) {
+	        	powerNeededForEVAheater = powerNeeded;
+	        	powerRequirementChanged();
+	        }
         return num;
 /*
         List<Building> evaBuildings = manager.getBuildings(BuildingFunction.EVA);
@@ -895,7 +972,7 @@ LocalBoundedObject, InsidePathLocation {
 	}
 
 	public List<Function> getFunctions() {
-		return functions;
+		return Collections.unmodifiableList(functions);
 	}
 
 	public Map<Integer, ItemResource> getItemMap() {
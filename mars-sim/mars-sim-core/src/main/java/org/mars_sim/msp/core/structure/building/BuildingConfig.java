@@ -7,21 +7,20 @@
 package org.mars_sim.msp.core.structure.building;
 
 import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 //import java.util.logging.Logger;
 
-
-
-
-
-import org.jdom.DataConversionException;
+import org.jdom.Attribute;
 import org.jdom.Document;
 import org.jdom.Element;
 import org.mars_sim.msp.core.resource.AmountResource;
@@ -41,7 +40,9 @@ import org.mars_sim.msp.core.structure.building.function.WindPowerSource;
 
 /**
  * Provides configuration information about settlement buildings.
- * Uses a DOM document to get the information. 
+ * The DOM document is compiled into a {@link BuildingSpec} of typed values for each
+ * building type when the configuration is loaded, so the getters are map lookups
+ * rather than walks of the document, and the document isn't kept.
  */
 public class BuildingConfig implements Serializable {
     
@@ -169,7 +170,10 @@ public class BuildingConfig implements Serializable {
     private static final String WIND_POWER_SOURCE = "Wind Power Source";
     private static final String AREOTHERMAL_POWER_SOURCE = "Areothermal Power Source";
 	
-	private Document buildingDoc;
+	/** The compiled building types, by type. */
+	private Map<String, BuildingSpec> buildingSpecs;
+	/** The compiled building types, by lower case type. */
+	private Map<String, BuildingSpec> lowerCaseBuildingSpecs;
 	private Set<String> buildingTypes;
 	
 	/**
@@ -177,51 +181,85 @@ public class BuildingConfig implements Serializable {
 	 * @param buildingDoc DOM document with building configuration
 	 */
 	public BuildingConfig(Document buildingDoc) {
-		this.buildingDoc = buildingDoc;	
+		compile(buildingDoc);
+	}
+
+	/**
+	 * Compiles the building configuration document.
+	 * @param buildingDoc DOM document with building configuration
+	 */
+	@SuppressWarnings("unchecked")
+	private void compile(Document buildingDoc) {
+		buildingSpecs = new HashMap<String, BuildingSpec>();
+		lowerCaseBuildingSpecs = new HashMap<String, BuildingSpec>();
+		buildingTypes = new HashSet<String>();
+		
+		Element root = buildingDoc.getRootElement();
+		List<Element> buildingNodes = root.getChildren(BUILDING);
+		for (Element buildingElement : buildingNodes) {
+			String buildingType = buildingElement.getAttributeValue(BUILDING_TYPE);
+			buildingTypes.add(buildingType);
+			// The first building element of a type is used.
+			String lowerCaseType = buildingType.toLowerCase();
+			if (!lowerCaseBuildingSpecs.containsKey(lowerCaseType)) {
+				BuildingSpec spec = new BuildingSpec(buildingElement);
+				lowerCaseBuildingSpecs.put(lowerCaseType, spec);
+				buildingSpecs.put(buildingType, spec);
+			}
+		}
+	}
+	
+	/**
+	 * Reads the configuration, compiling the document of a configuration saved before
+	 * it was compiled.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		if (fields.getObjectStreamClass().getField("buildingDoc") != null) {
+			compile((Document) fields.get("buildingDoc", null));
+			return;
+		}
+		buildingSpecs = (Map<String, BuildingSpec>) fields.get("buildingSpecs", null);
+		lowerCaseBuildingSpecs = (Map<String, BuildingSpec>) fields.get("lowerCaseBuildingSpecs", null);
+		buildingTypes = (Set<String>) fields.get("buildingTypes", null);
 	}
 	
 	/**
 	 * Gets a set of all building types.
 	 * @return set of building types.
 	 */
-	@SuppressWarnings("unchecked")
 	public Set<String> getBuildingTypes() {
-	    
-	    if (buildingTypes == null) {
-	        buildingTypes = new HashSet<String>();
-	        Element root = buildingDoc.getRootElement();
-	        List<Element> buildingNodes = root.getChildren(BUILDING);
-	        for (Element buildingElement : buildingNodes) {
-	            buildingTypes.add(buildingElement.getAttributeValue(BUILDING_TYPE));
-	        }
-	    }
-	    
 	    return buildingTypes;
 	}
 	
 	/**
-	 * Gets a building DOM element for a particular building type.
-	 * @param buildingType the building type
-	 * @return building element
-	 * @throws Exception if building type could not be found.
+	 * Gets the compiled configuration of a building type.
+	 * @param buildingType the building type, in any case.
+	 * @return building spec
+	 * @throws IllegalStateException if building type could not be found.
 	 */
-    @SuppressWarnings("unchecked")
-	private Element getBuildingElement(String buildingType) {
-		Element result = null;
-		
-		Element root = buildingDoc.getRootElement();
-		List<Element> buildingNodes = root.getChildren(BUILDING);
-		for (Element buildingElement : buildingNodes) {
-			String buidingType = buildingElement.getAttributeValue(BUILDING_TYPE);
-			if (buildingType.equalsIgnoreCase(buidingType)) { 
-				result = buildingElement;
-				break;
-			}
+	private BuildingSpec getBuildingSpec(String buildingType) {
+		BuildingSpec result = buildingSpecs.get(buildingType);
+		if (result == null) {
+			result = lowerCaseBuildingSpecs.get(buildingType.toLowerCase());
+			if (result == null) throw new IllegalStateException("Building type: " + buildingType +
+				" could not be found in buildings.xml.");
 		}
-		
+		return result;
+	}
+	
+	/**
+	 * Gets the compiled configuration of a building function.
+	 * @param buildingType the building type, in any case.
+	 * @param functionName the function element name.
+	 * @return function spec
+	 * @throws IllegalStateException if building type or function could not be found.
+	 */
+	private FunctionSpec getFunctionSpec(String buildingType, String functionName) {
+		FunctionSpec result = getBuildingSpec(buildingType).functions.get(functionName);
 		if (result == null) throw new IllegalStateException("Building type: " + buildingType +
-			" could not be found in buildings.xml.");
-		
+			" has no " + functionName + " function in buildings.xml.");
 		return result;
 	}
     
@@ -232,10 +270,7 @@ public class BuildingConfig implements Serializable {
      * @throws Exception if building type cannot be found or XML parsing error.
      */
     public double getWidth(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        double width = Double.parseDouble(buildingElement.getAttributeValue(WIDTH));
-        	//logger.info("calling getWidth() : width is "+ width); 
-        return width;
+        return getBuildingSpec(buildingType).getValue(WIDTH);
     }
     
     /**
@@ -245,10 +280,7 @@ public class BuildingConfig implements Serializable {
      * @throws Exception if building type cannot be found or XML parsing error.
      */
     public double getLength(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        double length = Double.parseDouble(buildingElement.getAttributeValue(LENGTH));
-        	//logger.info("calling getLength() : length is "+ length); 
-        return length;
+        return getBuildingSpec(buildingType).getValue(LENGTH);
     }
     
     /**
@@ -257,26 +289,22 @@ public class BuildingConfig implements Serializable {
      * @return -1 for in-ground, 0 for above-ground.
      */
     public int getBaseLevel(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        return Integer.parseInt(buildingElement.getAttributeValue(BASE_LEVEL));
+        return getBuildingSpec(buildingType).getIntegerValue(BASE_LEVEL);
     }
 	
     // 2015-03-12 Added getWearLifeTime()
     public int getWearLifeTime(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        return Integer.parseInt(buildingElement.getAttributeValue(WEAR_LIFETIME));
+        return getBuildingSpec(buildingType).getIntegerValue(WEAR_LIFETIME);
     }    
     
     // 2015-03-12 Added getMaintenanceTime
     public int getMaintenanceTime(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        return Integer.parseInt(buildingElement.getAttributeValue(MAINTENANCE_TIME));
+        return getBuildingSpec(buildingType).getIntegerValue(MAINTENANCE_TIME);
     }   
     
     // 2015-03-12 Added getRoomTemperature
     public double getRoomTemperature(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        return Double.parseDouble(buildingElement.getAttributeValue(ROOM_TEMPERATURE));
+        return getBuildingSpec(buildingType).getValue(ROOM_TEMPERATURE);
     }       
 	/**
 	 * Gets the description of the building.
@@ -286,13 +314,7 @@ public class BuildingConfig implements Serializable {
 	 */
     // 2014-11-27 Added getDescription()
 	public String getDescription(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        Element descriptionElement = buildingElement.getChild(DESCRIPTION);
-        //Element textElement = descriptionElement.getChild(buildingType);
-        String str = descriptionElement.getValue().trim();
-        //str = str.replaceAll("\\t\\t", "").replaceAll("\\t", "").replaceAll("\\n", "").replaceAll("  ", " ");
-        str = str.replaceAll("\\t+", "").replaceAll("\\s+", " ").replaceAll("   ", " ").replaceAll("  ", " ");
-        return str;
+        return getBuildingSpec(buildingType).description;
 	}
 	
 	/**
@@ -302,9 +324,7 @@ public class BuildingConfig implements Serializable {
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
 	public double getBaseHeatRequirement(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        Element heatElement = buildingElement.getChild(HEAT_REQUIRED);
-        return Double.parseDouble(heatElement.getAttributeValue(BASE_HEAT));
+        return getBuildingSpec(buildingType).getRequirement(HEAT_REQUIRED, BASE_HEAT);
 	}
 	
 	/**
@@ -314,9 +334,7 @@ public class BuildingConfig implements Serializable {
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
 	public double getBasePowerDownHeatRequirement(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        Element heatElement = buildingElement.getChild(HEAT_REQUIRED);
-        return Double.parseDouble(heatElement.getAttributeValue(BASE_POWER_DOWN_HEAT));
+        return getBuildingSpec(buildingType).getRequirement(HEAT_REQUIRED, BASE_POWER_DOWN_HEAT);
 	}
 	
     
@@ -327,9 +345,7 @@ public class BuildingConfig implements Serializable {
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
 	public double getBasePowerRequirement(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        Element powerElement = buildingElement.getChild(POWER_REQUIRED);
-        return Double.parseDouble(powerElement.getAttributeValue(BASE_POWER));
+        return getBuildingSpec(buildingType).getRequirement(POWER_REQUIRED, BASE_POWER);
 	}
 	
 	/**
@@ -339,9 +355,7 @@ public class BuildingConfig implements Serializable {
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
 	public double getBasePowerDownPowerRequirement(String buildingType) {
-        Element buildingElement = getBuildingElement(buildingType);
-        Element powerElement = buildingElement.getChild(POWER_REQUIRED);
-        return Double.parseDouble(powerElement.getAttributeValue(BASE_POWER_DOWN_POWER));
+        return getBuildingSpec(buildingType).getRequirement(POWER_REQUIRED, BASE_POWER_DOWN_POWER);
 	}
 	
 	/**
@@ -462,20 +476,8 @@ public class BuildingConfig implements Serializable {
 	 * @return list of research specialties as {@link ScienceType}.
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
-	@SuppressWarnings("unchecked")
 	public List<ScienceType> getResearchSpecialties(String buildingType) {
-	    List<ScienceType> result = new ArrayList<ScienceType>();
-	    Element buildingElement = getBuildingElement(buildingType);
-	    Element functionsElement = buildingElement.getChild(FUNCTIONS);
-	    Element researchElement = functionsElement.getChild(RESEARCH);
-	    List<Element> researchSpecialities = researchElement.getChildren(RESEARCH_SPECIALTY);
-
-	    for (Element researchSpecialityElement : researchSpecialities ) {
-	        String value = researchSpecialityElement.getAttributeValue(NAME);
-	        // take care that entries in buildings.xml conform to enum values of {@link ScienceType}
-	        result.add(ScienceType.valueOf(ScienceType.class, value.toUpperCase().replace(" ","_")));
-	    }
-	    return result;
+	    return getScienceTypes(getFunctionSpec(buildingType, RESEARCH).specialties);
 	}
 	
 	
@@ -515,16 +517,16 @@ public class BuildingConfig implements Serializable {
 	 * @return list of waste specialties as {@link ScienceType}.
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
-	@SuppressWarnings("unchecked")
 	public List<ScienceType> getWasteSpecialties(String buildingType) {
-	    List<ScienceType> result = new ArrayList<ScienceType>();
-	    Element buildingElement = getBuildingElement(buildingType);
-	    Element functionsElement = buildingElement.getChild(FUNCTIONS);
-	    Element wasteElement = functionsElement.getChild(WASTE_DISPOSAL);
-	    List<Element> wasteSpecialities = wasteElement.getChildren(WASTE_SPECIALTY);
-
-	    for (Element wasteSpecialityElement : wasteSpecialities ) {
-	        String value = wasteSpecialityElement.getAttributeValue(NAME);
+	    return getScienceTypes(getFunctionSpec(buildingType, WASTE_DISPOSAL).specialties);
+	}
+	
+	/**
+	 * Gets the science types of specialty names.
+	 */
+	private static List<ScienceType> getScienceTypes(List<String> specialties) {
+	    List<ScienceType> result = new ArrayList<ScienceType>(specialties.size());
+	    for (String value : specialties) {
 	        // take care that entries in buildings.xml conform to enum values of {@link ScienceType}
 	        result.add(ScienceType.valueOf(ScienceType.class, value.toUpperCase().replace(" ","_")));
 	    }
@@ -680,49 +682,13 @@ public class BuildingConfig implements Serializable {
 	 * @return a list of resource processes.
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
-    @SuppressWarnings("unchecked")
 	public List<ResourceProcess> getResourceProcesses(String buildingType) {
-		List<ResourceProcess> resourceProcesses = new ArrayList<ResourceProcess>();
-		Element buildingElement = getBuildingElement(buildingType);
-		Element functionsElement = buildingElement.getChild(FUNCTIONS);
-		Element resourceProcessingElement = functionsElement.getChild(RESOURCE_PROCESSING);
-		List<Element> resourceProcessNodes = resourceProcessingElement.getChildren(PROCESS);
-		
-		for (Element processElement : resourceProcessNodes) {
-	
-			String defaultString = processElement.getAttributeValue(DEFAULT);
-			boolean defaultOn = true;
-			if (defaultString.equals("off")) defaultOn = false;
-            
-            double powerRequired = Double.parseDouble(processElement.getAttributeValue(POWER_REQUIRED));
-			
-			ResourceProcess process = new ResourceProcess(processElement.getAttributeValue(NAME), 
-                    powerRequired, defaultOn);
-			
-			// Get input resources.
-			List<Element> inputNodes = processElement.getChildren(INPUT);
-			
-			for (Element inputElement : inputNodes) {
-				String resourceName = inputElement.getAttributeValue(RESOURCE).toLowerCase();
-				AmountResource resource = AmountResource.findAmountResource(resourceName);
-				double rate = Double.parseDouble(inputElement.getAttributeValue(RATE)) / 1000D;
-				boolean ambient = Boolean.valueOf(inputElement.getAttributeValue(AMBIENT));
-				process.addMaxInputResourceRate(resource, rate, ambient);
-			}
-			
-			// Get output resources.
-			List<Element> outputNodes = processElement.getChildren(OUTPUT);
-			for (Element outputElement : outputNodes) {
-				String resourceName = outputElement.getAttributeValue(RESOURCE).toLowerCase();
-				AmountResource resource = AmountResource.findAmountResource(resourceName);
-				double rate = Double.parseDouble(outputElement.getAttributeValue(RATE)) / 1000D;
-				boolean ambient = Boolean.valueOf(outputElement.getAttributeValue(AMBIENT));
-				process.addMaxOutputResourceRate(resource, rate, ambient);
-			}
-			
-			resourceProcesses.add(process);
+		List<ProcessSpec> processSpecs = getFunctionSpec(buildingType, RESOURCE_PROCESSING).processes;
+		List<ResourceProcess> resourceProcesses = new ArrayList<ResourceProcess>(processSpecs.size());
+		for (ProcessSpec processSpec : processSpecs) {
+			// Each building gets its own processes, as they hold their state.
+			resourceProcesses.add(processSpec.createProcess());
 		}
-		
 		return resourceProcesses;
 	}
 	
@@ -742,20 +708,8 @@ public class BuildingConfig implements Serializable {
 	 * @return list of storage capacities
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
-    @SuppressWarnings("unchecked")
 	public Map<AmountResource, Double> getStorageCapacities(String buildingType) {
-		Map<AmountResource, Double> capacities = new HashMap<AmountResource, Double>();
-		Element buildingElement = getBuildingElement(buildingType);
-		Element functionsElement = buildingElement.getChild(FUNCTIONS);
-		Element storageElement = functionsElement.getChild(STORAGE);
-		List<Element> resourceStorageNodes = storageElement.getChildren(RESOURCE_STORAGE);		
-		for (Element resourceStorageElement : resourceStorageNodes) {
-			String resourceName = resourceStorageElement.getAttributeValue(RESOURCE).toLowerCase();
-            AmountResource resource = AmountResource.findAmountResource(resourceName);
-			Double capacity = new Double(resourceStorageElement.getAttributeValue(CAPACITY));
-			capacities.put(resource, capacity);
-		}
-		return capacities;
+		return getResourceMap(getFunctionSpec(buildingType, STORAGE).storageCapacities);
 	}
 	
 	/**
@@ -785,22 +739,19 @@ public class BuildingConfig implements Serializable {
 	 * @return map of initial resources
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
-    @SuppressWarnings("unchecked")
 	public Map<AmountResource, Double> getInitialStorage(String buildingType) {
-		Map<AmountResource, Double> resourceMap = new HashMap<AmountResource, Double>();
-		Element buildingElement = getBuildingElement(buildingType);
-		Element functionsElement = buildingElement.getChild(FUNCTIONS);
-		Element storageElement = functionsElement.getChild(STORAGE);
-		List<Element> resourceInitialNodes = storageElement.getChildren(RESOURCE_INITIAL);
-		for (Element resourceInitialElement : resourceInitialNodes) {
-			String resourceName = resourceInitialElement.getAttributeValue(RESOURCE).toLowerCase();
-			//System.out.println("getInitialStorage() : resourceName : " + resourceName); 
-            AmountResource resource = AmountResource.findAmountResource(resourceName);
-			Double amount = new Double(resourceInitialElement.getAttributeValue(AMOUNT));
-			//System.out.println("getInitialStorage() : amount : " + amount);
-			resourceMap.put(resource, amount);
+		return getResourceMap(getFunctionSpec(buildingType, STORAGE).initialStorage);
+	}
+	
+	/**
+	 * Gets a map of amount resources from a map of resource names.
+	 */
+	private static Map<AmountResource, Double> getResourceMap(Map<String, Double> amounts) {
+		Map<AmountResource, Double> result = new HashMap<AmountResource, Double>();
+		for (Map.Entry<String, Double> entry : amounts.entrySet()) {
+			result.put(AmountResource.findAmountResource(entry.getKey()), entry.getValue());
 		}
-		return resourceMap;
+		return result;
 	}
 	
 	/**
@@ -819,36 +770,20 @@ public class BuildingConfig implements Serializable {
 	 * @return list of heat sources
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
-    @SuppressWarnings("unchecked")
 	public List<HeatSource> getHeatSources(String buildingType) {
-		List<HeatSource> heatSourceList = new ArrayList<HeatSource>();
-		Element buildingElement = getBuildingElement(buildingType);
-		Element functionsElement = buildingElement.getChild(FUNCTIONS);
-		Element thermalGenerationElement = functionsElement.getChild(THERMAL_GENERATION);
-			//logger.info("getHeatSources() : just finished reading heat-generation");
-		List<Element> heatSourceNodes = thermalGenerationElement.getChildren(HEAT_SOURCE);	
-			//logger.info("getHeatSources() : just finished reading heat-source");
-		for (Element heatSourceElement : heatSourceNodes) {
-			String type = heatSourceElement.getAttributeValue(TYPE);			
-				//logger.info("getHeatSources() : finished reading type");
-			double heat = Double.parseDouble(heatSourceElement.getAttributeValue(CAPACITY));			
-				//logger.info("getHeatSources() : finished reading capacity");
+		List<SourceSpec> sourceSpecs = getFunctionSpec(buildingType, THERMAL_GENERATION).sources;
+		List<HeatSource> heatSourceList = new ArrayList<HeatSource>(sourceSpecs.size());
+		for (SourceSpec sourceSpec : sourceSpecs) {
 			HeatSource heatSource = null;
-			if (type.equalsIgnoreCase(ELECTRIC_HEAT_SOURCE)) {
-				heatSource = new ElectricHeatSource(heat);	
-				//logger.info("getHeatSources() : just called ElectricHeatSource");
-			} else if (type.equalsIgnoreCase(SOLAR_HEAT_SOURCE)) {
-				heatSource = new SolarHeatSource(heat);
-				//logger.info("getHeatSources() : just called SolarHeatSource");
-			} else if (type.equalsIgnoreCase(FUEL_HEAT_SOURCE)) {
-				    boolean toggleStafe = Boolean.parseBoolean(heatSourceElement.getAttributeValue(TOGGLE));
-				    String fuelType = heatSourceElement.getAttributeValue(FUEL_TYPE);
-				    double consumptionSpeed = Double.parseDouble(heatSourceElement.getAttributeValue(COMSUMPTION_RATE));
-				    heatSource = new FuelHeatSource(heat ,toggleStafe, fuelType, consumptionSpeed);
-			} else throw new IllegalStateException("Heat source: " + type + " not a valid heat source.");
-				//logger.info("getHeatSources() : finished reading electric heat source and solar heat source");
+			if (sourceSpec.type.equalsIgnoreCase(ELECTRIC_HEAT_SOURCE)) {
+				heatSource = new ElectricHeatSource(sourceSpec.capacity);	
+			} else if (sourceSpec.type.equalsIgnoreCase(SOLAR_HEAT_SOURCE)) {
+				heatSource = new SolarHeatSource(sourceSpec.capacity);
+			} else if (sourceSpec.type.equalsIgnoreCase(FUEL_HEAT_SOURCE)) {
+				    heatSource = new FuelHeatSource(sourceSpec.capacity, sourceSpec.toggle, sourceSpec.fuelType,
+				    		sourceSpec.consumptionRate);
+			} else throw new IllegalStateException("Heat source: " + sourceSpec.type + " not a valid heat source.");
 			heatSourceList.add(heatSource); 
-				//logger.info("getHeatSources() : just added that heatSource");
 		}
 		return heatSourceList;
 	}
@@ -893,26 +828,19 @@ public class BuildingConfig implements Serializable {
 	 * @return list of power sources
 	 * @throws Exception if building type cannot be found or XML parsing error.
 	 */
-    @SuppressWarnings("unchecked")
 	public List<PowerSource> getPowerSources(String buildingType) {
-		List<PowerSource> powerSourceList = new ArrayList<PowerSource>();
-		Element buildingElement = getBuildingElement(buildingType);
-		Element functionsElement = buildingElement.getChild(FUNCTIONS);
-		Element powerGenerationElement = functionsElement.getChild(POWER_GENERATION);
-		List<Element> powerSourceNodes = powerGenerationElement.getChildren(POWER_SOURCE);
-		for (Element powerSourceElement : powerSourceNodes) {
-			String type = powerSourceElement.getAttributeValue(TYPE);
-			double power = Double.parseDouble(powerSourceElement.getAttributeValue(POWER));
+		List<SourceSpec> sourceSpecs = getFunctionSpec(buildingType, POWER_GENERATION).sources;
+		List<PowerSource> powerSourceList = new ArrayList<PowerSource>(sourceSpecs.size());
+		for (SourceSpec sourceSpec : sourceSpecs) {
+			String type = sourceSpec.type;
+			double power = sourceSpec.capacity;
 			PowerSource powerSource = null;
 			if (type.equalsIgnoreCase(STANDARD_POWER_SOURCE)) powerSource = new StandardPowerSource(power);
 
 			else if (type.equalsIgnoreCase(SOLAR_POWER_SOURCE)) powerSource = new SolarPowerSource(power);
             else if (type.equalsIgnoreCase(SOLAR_THERMAL_POWER_SOURCE)) powerSource = new SolarThermalPowerSource(power);
 			else if (type.equalsIgnoreCase(FUEL_POWER_SOURCE)) {
-			    boolean toggleStafe = Boolean.parseBoolean(powerSourceElement.getAttributeValue(TOGGLE));
-			    String fuelType = powerSourceElement.getAttributeValue(FUEL_TYPE);
-			    double consumptionSpeed = Double.parseDouble(powerSourceElement.getAttributeValue(COMSUMPTION_RATE));
-			    powerSource = new FuelPowerSource(power ,toggleStafe, fuelType, consumptionSpeed);
+			    powerSource = new FuelPowerSource(power, sourceSpec.toggle, sourceSpec.fuelType, sourceSpec.consumptionRate);
 			}
             else if (type.equalsIgnoreCase(WIND_POWER_SOURCE)) powerSource = new WindPowerSource(power);
             else if (type.equalsIgnoreCase(AREOTHERMAL_POWER_SOURCE)) powerSource = new AreothermalPowerSource(power);
@@ -1070,10 +998,7 @@ public class BuildingConfig implements Serializable {
 	 * @return number of parking locations.
 	 */
 	public int getParkingLocationNumber(String buildingType) {
-	    Element buildingElement = getBuildingElement(buildingType);
-	    Element functionsElement = buildingElement.getChild(FUNCTIONS);
-        Element groundVehicleMaintenanceElement = functionsElement.getChild(GROUND_VEHICLE_MAINTENANCE);
-        return groundVehicleMaintenanceElement.getChildren(PARKING_LOCATION).size();
+	    return getFunctionSpec(buildingType, GROUND_VEHICLE_MAINTENANCE).parkingLocations.length;
 	}
 	
 	/**
@@ -1083,22 +1008,9 @@ public class BuildingConfig implements Serializable {
 	 * @return Point object containing the relative X & Y position from the building center.
 	 */
 	public Point2D.Double getParkingLocation(String buildingType, int parkingIndex) {
-	    Element buildingElement = getBuildingElement(buildingType);
-        Element functionsElement = buildingElement.getChild(FUNCTIONS);
-        Element groundVehicleMaintenanceElement = functionsElement.getChild(GROUND_VEHICLE_MAINTENANCE);
-        List<?> parkingLocations = groundVehicleMaintenanceElement.getChildren(PARKING_LOCATION);
-        if ((parkingIndex >= 0) && (parkingIndex < parkingLocations.size())) {
-            Element parkingLocation = (Element) parkingLocations.get(parkingIndex);
-            try {
-                Point2D.Double point = new Point2D.Double();
-                double xLocation = parkingLocation.getAttribute(X_LOCATION).getDoubleValue();
-                double yLocation = parkingLocation.getAttribute(Y_LOCATION).getDoubleValue();
-                point.setLocation(xLocation, yLocation);
-                return point;
-            }
-            catch (DataConversionException e) {
-                throw new IllegalStateException(e);
-            }
+	    double[][] parkingLocations = getFunctionSpec(buildingType, GROUND_VEHICLE_MAINTENANCE).parkingLocations;
+        if ((parkingIndex >= 0) && (parkingIndex < parkingLocations.length)) {
+            return new Point2D.Double(parkingLocations[parkingIndex][0], parkingLocations[parkingIndex][1]);
         }
         else {
             return null;
@@ -1449,75 +1361,319 @@ public class BuildingConfig implements Serializable {
     public List<Point2D> getRoboticStationActivitySpots(String buildingType) {
         return getActivitySpots(buildingType, ROBOTIC_STATION);
     }
-	/**
-	 * Checks if the building function has activity spots.
-	 * @param buildingType the type of the building.
-	 * @param functionName the type of the building function.
-	 * @return true if building function has activity spots.
-	 */
-	private boolean hasActivitySpots(String buildingType, String functionName) {
-	    Element buildingElement = getBuildingElement(buildingType);
-        Element functionsElement = buildingElement.getChild(FUNCTIONS);
-        Element functionElement = functionsElement.getChild(functionName);
-        List<?> activityElements = functionElement.getChildren(ACTIVITY);
-        return (activityElements.size() > 0);
-	}
-	
 	/**
 	 * Gets a list of activity spots for a building's function.
 	 * @param buildingType the type of the building.
 	 * @param functionName the type of the building function.
 	 * @return list of activity spots as Point2D objects.
 	 */
-	@SuppressWarnings("unchecked")
 	private List<Point2D> getActivitySpots(String buildingType, String functionName) {
-	    List<Point2D> result = new ArrayList<Point2D>();
-	    
-	    if (hasActivitySpots(buildingType, functionName)) {
-	        Element buildingElement = getBuildingElement(buildingType);
-	        Element functionsElement = buildingElement.getChild(FUNCTIONS);
-	        Element functionElement = functionsElement.getChild(functionName);
-	        Element activityElement = functionElement.getChild(ACTIVITY);
-	        Iterator<Element> i = activityElement.getChildren(ACTIVITY_SPOT).iterator();
-	        while (i.hasNext()) {
-	            Element activitySpot = i.next();
-	            double xLocation = Double.parseDouble(activitySpot.getAttributeValue(X_LOCATION));
-	            double yLocation = Double.parseDouble(activitySpot.getAttributeValue(Y_LOCATION));
-	            result.add(new Point2D.Double(xLocation, yLocation));
-	        }
+	    double[][] activitySpots = getFunctionSpec(buildingType, functionName).activitySpots;
+	    List<Point2D> result = new ArrayList<Point2D>(activitySpots.length);
+	    for (double[] activitySpot : activitySpots) {
+	        result.add(new Point2D.Double(activitySpot[0], activitySpot[1]));
 	    }
-	    
 	    return result;
 	}
 	
 	private int getValueAsInteger(String buildingType, String child, 
 			                      String subchild, String param){
-		Element element1 = getBuildingElement(buildingType);
-		Element element2 = element1.getChild(child);
-		Element element3 = element2.getChild(subchild);
-		return Integer.parseInt(element3.getAttributeValue(param));
+		return getFunctionSpec(buildingType, subchild).getIntegerValue(buildingType, param);
 	}
 	
 	private double getValueAsDouble(String buildingType, String child, 
             String subchild, String param) {
-		Element element1 = getBuildingElement(buildingType);
-		Element element2 = element1.getChild(child);
-		Element element3 = element2.getChild(subchild);
-		return Double.parseDouble(element3.getAttributeValue(param));
+		return getFunctionSpec(buildingType, subchild).getValue(buildingType, param);
 	}
 	
-    @SuppressWarnings("unchecked")
 	private boolean hasElements(String buildingType, String child, String children) {
-		Element element1 = getBuildingElement(buildingType);
-		Element element2 = element1.getChild(child);
-		List<Element> elements = element2.getChildren(children);
-		return (elements.size() > 0);
+		return getBuildingSpec(buildingType).functions.containsKey(children);
 	}
     
     /**
      * Prepare object for garbage collection.
      */
     public void destroy() {
-       buildingDoc = null; 
+       buildingSpecs = null;
+       lowerCaseBuildingSpecs = null;
+       buildingTypes = null;
+    }
+
+    /**
+     * Gets the numeric attributes of an element.
+     * @return unmodifiable map of values by attribute name.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Double> getValues(Element element) {
+        Map<String, Double> result = new HashMap<String, Double>();
+        for (Attribute attribute : (List<Attribute>) element.getAttributes()) {
+            try {
+                result.put(attribute.getName(), Double.valueOf(attribute.getValue().trim()));
+            }
+            catch (NumberFormatException e) {
+                // Not a numeric attribute.
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Gets the x and y locations of child elements.
+     * @return array of locations, each an array of x and y.
+     */
+    @SuppressWarnings("unchecked")
+    private static double[][] getLocations(Element element, String childName) {
+        List<Element> children = (element != null) ? element.getChildren(childName) : new ArrayList<Element>(0);
+        double[][] result = new double[children.size()][];
+        for (int x = 0; x < result.length; x++) {
+            Element child = children.get(x);
+            result[x] = new double[] { Double.parseDouble(child.getAttributeValue(X_LOCATION)),
+                    Double.parseDouble(child.getAttributeValue(Y_LOCATION)) };
+        }
+        return result;
+    }
+
+    /**
+     * The compiled configuration of a building type.
+     */
+    private static final class BuildingSpec implements Serializable {
+
+        /** default serial id. */
+        private static final long serialVersionUID = 1L;
+
+        private final String type;
+        private final String description;
+        /** The numeric attributes of the building. */
+        private final Map<String, Double> values;
+        /** The numeric attributes of the power-required and heat-required elements. */
+        private final Map<String, Map<String, Double>> requirements;
+        /** The functions, by element name. */
+        private final Map<String, FunctionSpec> functions;
+
+        @SuppressWarnings("unchecked")
+        private BuildingSpec(Element buildingElement) {
+            type = buildingElement.getAttributeValue(BUILDING_TYPE);
+            values = getValues(buildingElement);
+
+            Element descriptionElement = buildingElement.getChild(DESCRIPTION);
+            if (descriptionElement != null) {
+                String str = descriptionElement.getValue().trim();
+                description = str.replaceAll("\\t+", "").replaceAll("\\s+", " ").replaceAll("   ", " ").replaceAll("  ", " ");
+            }
+            else description = null;
+
+            requirements = new HashMap<String, Map<String, Double>>();
+            for (String requirement : new String[] { POWER_REQUIRED, HEAT_REQUIRED }) {
+                Element requirementElement = buildingElement.getChild(requirement);
+                if (requirementElement != null) requirements.put(requirement, getValues(requirementElement));
+            }
+
+            functions = new LinkedHashMap<String, FunctionSpec>();
+            Element functionsElement = buildingElement.getChild(FUNCTIONS);
+            if (functionsElement != null) {
+                for (Element functionElement : (List<Element>) functionsElement.getChildren()) {
+                    // The first element of a function is used.
+                    if (!functions.containsKey(functionElement.getName()))
+                        functions.put(functionElement.getName(), new FunctionSpec(functionElement));
+                }
+            }
+        }
+
+        private double getValue(String param) {
+            Double result = values.get(param);
+            if (result == null) throw new IllegalStateException("Building type: " + type +
+                    " has no numeric " + param + " in buildings.xml.");
+            return result;
+        }
+
+        private int getIntegerValue(String param) {
+            return (int) getValue(param);
+        }
+
+        private double getRequirement(String requirement, String param) {
+            Map<String, Double> requirementValues = requirements.get(requirement);
+            Double result = (requirementValues != null) ? requirementValues.get(param) : null;
+            if (result == null) throw new IllegalStateException("Building type: " + type +
+                    " has no " + requirement + " " + param + " in buildings.xml.");
+            return result;
+        }
+    }
+
+    /**
+     * The compiled configuration of a building function.
+     * Only the parts of the function element it has are filled in.
+     */
+    private static final class FunctionSpec implements Serializable {
+
+        /** default serial id. */
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        /** The numeric attributes of the function. */
+        private final Map<String, Double> values;
+        /** The activity spots, each an array of x and y. */
+        private final double[][] activitySpots;
+        /** The parking locations, each an array of x and y. */
+        private final double[][] parkingLocations;
+        /** The names of the research or waste specialties. */
+        private final List<String> specialties;
+        /** The power or heat sources. */
+        private final List<SourceSpec> sources;
+        /** The resource processes. */
+        private final List<ProcessSpec> processes;
+        /** The storage capacities, by resource name. */
+        private final Map<String, Double> storageCapacities;
+        /** The initial amounts stored, by resource name. */
+        private final Map<String, Double> initialStorage;
+
+        @SuppressWarnings("unchecked")
+        private FunctionSpec(Element functionElement) {
+            name = functionElement.getName();
+            values = getValues(functionElement);
+            activitySpots = getLocations(functionElement.getChild(ACTIVITY), ACTIVITY_SPOT);
+            parkingLocations = getLocations(functionElement, PARKING_LOCATION);
+
+            List<String> specialtyList = new ArrayList<String>();
+            for (String specialtyName : new String[] { RESEARCH_SPECIALTY, WASTE_SPECIALTY }) {
+                for (Element specialtyElement : (List<Element>) functionElement.getChildren(specialtyName)) {
+                    specialtyList.add(specialtyElement.getAttributeValue(NAME));
+                }
+            }
+            specialties = Collections.unmodifiableList(specialtyList);
+
+            List<SourceSpec> sourceList = new ArrayList<SourceSpec>();
+            for (Element sourceElement : (List<Element>) functionElement.getChildren(POWER_SOURCE)) {
+                sourceList.add(new SourceSpec(sourceElement, POWER));
+            }
+            for (Element sourceElement : (List<Element>) functionElement.getChildren(HEAT_SOURCE)) {
+                sourceList.add(new SourceSpec(sourceElement, CAPACITY));
+            }
+            sources = Collections.unmodifiableList(sourceList);
+
+            List<ProcessSpec> processList = new ArrayList<ProcessSpec>();
+            for (Element processElement : (List<Element>) functionElement.getChildren(PROCESS)) {
+                processList.add(new ProcessSpec(processElement));
+            }
+            processes = Collections.unmodifiableList(processList);
+
+            storageCapacities = getAmounts(functionElement, RESOURCE_STORAGE, CAPACITY);
+            initialStorage = getAmounts(functionElement, RESOURCE_INITIAL, AMOUNT);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Double> getAmounts(Element functionElement, String childName, String amountName) {
+            Map<String, Double> result = new LinkedHashMap<String, Double>();
+            for (Element child : (List<Element>) functionElement.getChildren(childName)) {
+                result.put(child.getAttributeValue(RESOURCE).toLowerCase(),
+                        Double.valueOf(child.getAttributeValue(amountName)));
+            }
+            return Collections.unmodifiableMap(result);
+        }
+
+        private double getValue(String buildingType, String param) {
+            Double result = values.get(param);
+            if (result == null) throw new IllegalStateException("Building type: " + buildingType +
+                    " has no numeric " + param + " in its " + name + " function in buildings.xml.");
+            return result;
+        }
+
+        private int getIntegerValue(String buildingType, String param) {
+            return (int) getValue(buildingType, param);
+        }
+    }
+
+    /**
+     * The compiled configuration of a power or heat source.
+     */
+    private static final class SourceSpec implements Serializable {
+
+        /** default serial id. */
+        private static final long serialVersionUID = 1L;
+
+        private final String type;
+        /** The power or heat capacity. */
+        private final double capacity;
+        private final boolean toggle;
+        private final String fuelType;
+        private final double consumptionRate;
+
+        private SourceSpec(Element sourceElement, String capacityName) {
+            type = sourceElement.getAttributeValue(TYPE);
+            capacity = Double.parseDouble(sourceElement.getAttributeValue(capacityName));
+            toggle = Boolean.parseBoolean(sourceElement.getAttributeValue(TOGGLE));
+            fuelType = sourceElement.getAttributeValue(FUEL_TYPE);
+            String rate = sourceElement.getAttributeValue(COMSUMPTION_RATE);
+            consumptionRate = (rate != null) ? Double.parseDouble(rate) : 0D;
+        }
+    }
+
+    /**
+     * The compiled configuration of a resource process.
+     */
+    private static final class ProcessSpec implements Serializable {
+
+        /** default serial id. */
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final double powerRequired;
+        private final boolean defaultOn;
+        private final ProcessResourceSpec[] inputs;
+        private final ProcessResourceSpec[] outputs;
+
+        private ProcessSpec(Element processElement) {
+            name = processElement.getAttributeValue(NAME);
+            powerRequired = Double.parseDouble(processElement.getAttributeValue(POWER_REQUIRED));
+            defaultOn = !processElement.getAttributeValue(DEFAULT).equals("off");
+            inputs = getResources(processElement, INPUT);
+            outputs = getResources(processElement, OUTPUT);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static ProcessResourceSpec[] getResources(Element processElement, String childName) {
+            List<Element> children = processElement.getChildren(childName);
+            ProcessResourceSpec[] result = new ProcessResourceSpec[children.size()];
+            for (int x = 0; x < result.length; x++) {
+                result[x] = new ProcessResourceSpec(children.get(x));
+            }
+            return result;
+        }
+
+        /**
+         * Creates a new resource process from the configuration.
+         * @return resource process.
+         */
+        private ResourceProcess createProcess() {
+            ResourceProcess process = new ResourceProcess(name, powerRequired, defaultOn);
+            for (ProcessResourceSpec input : inputs) {
+                process.addMaxInputResourceRate(AmountResource.findAmountResource(input.resourceName),
+                        input.rate, input.ambient);
+            }
+            for (ProcessResourceSpec output : outputs) {
+                process.addMaxOutputResourceRate(AmountResource.findAmountResource(output.resourceName),
+                        output.rate, output.ambient);
+            }
+            return process;
+        }
+    }
+
+    /**
+     * The compiled configuration of a resource process input or output.
+     */
+    private static final class ProcessResourceSpec implements Serializable {
+
+        /** default serial id. */
+        private static final long serialVersionUID = 1L;
+
+        private final String resourceName;
+        /** The rate (kg/millisol). */
+        private final double rate;
+        private final boolean ambient;
+
+        private ProcessResourceSpec(Element resourceElement) {
+            resourceName = resourceElement.getAttributeValue(RESOURCE).toLowerCase();
+            rate = Double.parseDouble(resourceElement.getAttributeValue(RATE)) / 1000D;
+            ambient = Boolean.valueOf(resourceElement.getAttributeValue(AMBIENT));
+        }
     }
 }
\ No newline at end of file
@@ -10,13 +10,15 @@ package org.mars_sim.msp.core.structure.building;
 import java.awt.geom.Point2D;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import org.mars_sim.msp.core.LocalAreaUtil;
 import org.mars_sim.msp.core.RandomUtil;
@@ -95,6 +97,12 @@ public class BuildingManager implements Serializable {
 	private double probabilityOfImpactPerSQMPerSol;
 
     private List<Building> buildings;
+    /** The buildings with each function, in settlement order, rebuilt from the buildings when null. */
+    private transient volatile Map<BuildingFunction, List<Building>> functionBuildings;
+    /** Unmodifiable views of the buildings with each function. */
+    private transient volatile Map<BuildingFunction, List<Building>> functionBuildingViews;
+    /** Counts changes to the buildings and to power requirements the power grid doesn't read every time pulse. */
+    private transient volatile int powerChangeCount;
     // 2014-10-29 Added buildingsNickNames
     // A list of the settlement's buildings with their nicknames.
     private List<Building> buildingsNickNames;
@@ -192,6 +200,9 @@ public class BuildingManager implements Serializable {
     public void addBuilding(Building newBuilding, boolean createBuildingConnections) {
         if (!buildings.contains(newBuilding)) {
             buildings.add(newBuilding);
+            addToFunctionIndex(newBuilding);
+            powerRequirementChanged();
+            LocalAreaUtil.clearObstacleCache(settlement.getCoordinates());
     		//logger.info("addBuilding() : a new building has just been added");
             // Create new building connections if needed.
             if (createBuildingConnections) {
@@ -217,6 +228,9 @@ public class BuildingManager implements Serializable {
             oldBuilding.removeFunctionsFromSettlement();
 
             buildings.remove(oldBuilding);
+            removeFromFunctionIndex(oldBuilding);
+            powerRequirementChanged();
+            LocalAreaUtil.clearObstacleCache(settlement.getCoordinates());
     		logger.info("removeBuilding() : a new building has just been removed");
 
             settlement.fireUnitUpdate(UnitEventType.REMOVE_BUILDING_EVENT, oldBuilding);
@@ -280,14 +294,7 @@ public class BuildingManager implements Serializable {
      */
 	//2015-05-08 Added getBuildingsWithPower()
     public List<Building> getBuildingsWithPower() {
-    	// Using JavaFX/8 Stream
-		List<Building> buildings = getBuildings();
-    	List<Building> buildingsWithPower =
-    		buildings.parallelStream()
-    	        .filter(s -> buildingConfig.hasPowerGeneration(s.getBuildingType()) == true)
-    	        .collect(Collectors.toList());
-
-    	return buildingsWithPower;
+    	return new ArrayList<Building>(getBuildings(BuildingFunction.POWER_GENERATION));
     }
 
     /**
@@ -296,34 +303,7 @@ public class BuildingManager implements Serializable {
      */
 	//2015-04-02 Added getBuildingsWithThermal()
     public List<Building> getBuildingsWithThermal() {
-    	// Using JavaFX/8 Stream
-		List<Building> buildings = getBuildings();
-    	List<Building> buildingsWithThermal =
-    		buildings.parallelStream()
-    	        .filter(s -> buildingConfig.hasThermalGeneration(s.getBuildingType()) == true)
-    	        .collect(Collectors.toList());
-/*
-    	//List<Building> buildings = getBuildings();
-    	//List<Building> buildingsWithThermal = new ArrayList<Building>();
-    	Iterator<Building> i = buildings.iterator();
-		while (i.hasNext()) {
-			Building b = i.next();
-			String buildingType = b.getBuildingType();
-			//if (config.hasThermalGeneration(buildingType) && !buildingType.equals("Hallway") && !buildingType.equals("Tunnel") ) {
-			if (config.hasThermalGeneration(buildingType)) {
-				buildingsWithThermal.add(b);
-			}
-		}
-*/
-/*		// Using internal iterator in lambda expression
-    	buildings.forEach(b -> {
-			String buildingType = b.getBuildingType();
-			if (config.hasThermalGeneration(buildingType)) {
-				buildingsWithThermal.add(b);
-			}
-		});
-*/
-    	return buildingsWithThermal;
+    	return new ArrayList<Building>(getBuildings(BuildingFunction.THERMAL_GENERATION));
     }
 
 
@@ -359,18 +339,13 @@ public class BuildingManager implements Serializable {
     /**
      * Gets the buildings in a settlement that has a given function.
      * @param function {@link BuildingFunction} the function of the building.
-     * @return list of buildings.
+     * @return unmodifiable list of buildings, which reflects buildings added and removed later.
      */
     public List<Building> getBuildings(BuildingFunction function) {
-        List<Building> functionBuildings = new ArrayList<Building>();
-        Iterator<Building> i = buildings.iterator();
-        while (i.hasNext()) {
-            Building building = i.next();
-            if (building.hasFunction(function)) {
-                functionBuildings.add(building);
-            }
+        if (functionBuildingViews == null) {
+            buildFunctionIndex();
         }
-        return functionBuildings;
+        return functionBuildingViews.get(function);
     }
 
     /**
@@ -379,15 +354,28 @@ public class BuildingManager implements Serializable {
      * @return list of buildings.
      */
     public List<Building> getBuildings(BuildingFunction[] functions) {
+        if (functions.length == 1) {
+            return getBuildings(functions[0]);
+        }
 
-        List<Building> functionBuildings = new ArrayList<Building>();
-        Iterator<Building> i = buildings.iterator();
+        // Check the buildings with the rarest of the functions.
+        List<Building> candidates = buildings;
+        for (int x = 0; x < functions.length; x++) {
+            List<Building> withFunction = getBuildings(functions[x]);
+            if (withFunction.size() < candidates.size()) {
+                candidates = withFunction;
+            }
+        }
+
+        List<Building> functionBuildings = new ArrayList<Building>(candidates.size());
+        Iterator<Building> i = candidates.iterator();
         while (i.hasNext()) {
             Building building = i.next();
             boolean hasFunctions = true;
             for (int x = 0; x < functions.length; x++) {
                 if (!building.hasFunction(functions[x])) {
                     hasFunctions = false;
+                    break;
                 }
             }
             if (hasFunctions) {
@@ -397,6 +385,112 @@ public class BuildingManager implements Serializable {
         return functionBuildings;
     }
 
+    /**
+     * Builds the index of buildings by function.
+     */
+    private synchronized void buildFunctionIndex() {
+        if (functionBuildingViews != null) {
+            return;
+        }
+        Map<BuildingFunction, List<Building>> index =
+                new EnumMap<BuildingFunction, List<Building>>(BuildingFunction.class);
+        Map<BuildingFunction, List<Building>> views =
+                new EnumMap<BuildingFunction, List<Building>>(BuildingFunction.class);
+        for (BuildingFunction function : BuildingFunction.values()) {
+            // Buildings are rarely added or removed, and the lists are iterated every time pulse,
+            // so copy on write lets them be iterated while a building is added.
+            List<Building> list = new CopyOnWriteArrayList<Building>();
+            Iterator<Building> i = buildings.iterator();
+            while (i.hasNext()) {
+                Building building = i.next();
+                if (building.hasFunction(function)) {
+                    list.add(building);
+                }
+            }
+            index.put(function, list);
+            views.put(function, Collections.unmodifiableList(list));
+        }
+        functionBuildings = index;
+        functionBuildingViews = views;
+    }
+
+    /**
+     * Adds a new building to the function index.
+     * @param building the building.
+     */
+    private synchronized void addToFunctionIndex(Building building) {
+        if (functionBuildings != null) {
+            for (BuildingFunction function : BuildingFunction.values()) {
+                if (building.hasFunction(function)) {
+                    functionBuildings.get(function).add(building);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a building from the function index.
+     * @param building the building.
+     */
+    private synchronized void removeFromFunctionIndex(Building building) {
+        if (functionBuildings != null) {
+            Iterator<List<Building>> i = functionBuildings.values().iterator();
+            while (i.hasNext()) {
+                i.next().remove(building);
+            }
+        }
+    }
+
+    /**
+     * Updates the function index after a building's functions have changed.
+     * @param building the building.
+     */
+    synchronized void functionsChanged(Building building) {
+        powerRequirementChanged();
+        if ((functionBuildings == null) || !buildings.contains(building)) {
+            return;
+        }
+        for (BuildingFunction function : BuildingFunction.values()) {
+            List<Building> list = functionBuildings.get(function);
+            boolean indexed = list.contains(building);
+            if (building.hasFunction(function) && !indexed) {
+                // Keep the list in settlement order.
+                int index = 0;
+                Iterator<Building> i = buildings.iterator();
+                while (i.hasNext()) {
+                    Building previous = i.next();
+                    if (previous == building) {
+                        break;
+                    }
+                    if (previous.hasFunction(function)) {
+                        index++;
+                    }
+                }
+                list.add(index, building);
+            }
+            else if (!building.hasFunction(function) && indexed) {
+                list.remove(building);
+            }
+        }
+    }
+
+    /**
+     * Records that the power or heat a building requires has changed.
+     */
+    void powerRequirementChanged() {
+        powerChangeCount++;
+    }
+
+    /**
+     * Gets the count of changes to the buildings and to the power and heat they require,
+     * other than of buildings with {@link Building#isPowerRequirementVariable() variable}
+     * requirements. The power grid and thermal system total the requirements again when it changes.
+     * @return change count.
+     */
+    public int getPowerChangeCount() {
+        return powerChangeCount;
+    }
+
     /**
      * Gets the buildings in the settlement with a given building type.
      * @param buildingType the building type.
@@ -1370,6 +1464,8 @@ public class BuildingManager implements Serializable {
         }
         buildings.clear();
         buildings = null;
+        functionBuildings = null;
+        functionBuildingViews = null;
         buildingValuesNewCache.clear();
         buildingValuesNewCache = null;
         buildingValuesOldCache.clear();
@@ -687,6 +687,11 @@ implements Serializable {
     }
 
 
+    @Override
+    public boolean isPowerRequirementVariable() {
+        return true;
+    }
+
     /**
      * Gets the amount of power required when function is at power down level.
      * @return power (kW)
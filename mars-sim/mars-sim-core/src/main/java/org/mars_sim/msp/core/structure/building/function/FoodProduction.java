@@ -277,6 +277,11 @@ implements Serializable {
         return result;
     }
 
+    @Override
+    public boolean isPowerRequirementVariable() {
+        return true;
+    }
+
     @Override
     public double getPoweredDownPowerRequired() {
         double result = 0D;
@@ -103,6 +103,16 @@ implements Serializable {
      * @return power (kW)
   */
     public abstract double getPoweredDownPowerRequired();
+
+    /**
+     * Checks if the power the function requires can change from one time pulse to the next,
+     * such as with the processes it runs or the people using it. The power grid reads the
+     * requirements of buildings with such functions every time pulse.
+     * @return true if the power required is variable.
+     */
+    public boolean isPowerRequirementVariable() {
+        return false;
+    }
    
     /**
      * Perform any actions needed when removing this building function from
@@ -402,6 +402,11 @@ implements Serializable {
         return result;
     }
 
+    @Override
+    public boolean isPowerRequirementVariable() {
+        return true;
+    }
+
     @Override
     public double getPoweredDownPowerRequired() {
         double result = 0D;
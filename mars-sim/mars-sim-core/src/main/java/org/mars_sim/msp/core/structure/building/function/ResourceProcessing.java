@@ -183,6 +183,11 @@ implements Serializable {
 		return result;
 	}
 
+	@Override
+	public boolean isPowerRequirementVariable() {
+		return true;
+	}
+
 	/**
 	 * Gets the amount of power required when function is at power down level.
 	 * @return power (kW)
@@ -605,6 +605,11 @@ implements Serializable {
         return getNumCooks() * 10D;
     }
 
+    @Override
+    public boolean isPowerRequirementVariable() {
+        return true;
+    }
+
     /**
      * Gets the amount of power required when function is at power down level.
      * @return power (kW)
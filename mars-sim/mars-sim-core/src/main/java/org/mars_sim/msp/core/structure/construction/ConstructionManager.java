@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.mars_sim.msp.core.LocalAreaUtil;
 import org.mars_sim.msp.core.UnitEventType;
 import org.mars_sim.msp.core.person.Person;
 import org.mars_sim.msp.core.resource.AmountResource;
@@ -157,6 +158,7 @@ implements Serializable {
 	public ConstructionSite createNewConstructionSite() {
 		ConstructionSite result = new ConstructionSite();
 		sites.add(result);
+		LocalAreaUtil.clearObstacleCache(settlement.getCoordinates());
 		settlement.fireUnitUpdate(UnitEventType.START_CONSTRUCTION_SITE_EVENT, result);
 		return result;
 	}
@@ -169,6 +171,7 @@ implements Serializable {
 	public void removeConstructionSite(ConstructionSite site) {
 		if (sites.contains(site)) {
 			sites.remove(site);
+			LocalAreaUtil.clearObstacleCache(settlement.getCoordinates());
 		}
 		else throw new IllegalStateException("Construction site doesn't exist.");
 	}
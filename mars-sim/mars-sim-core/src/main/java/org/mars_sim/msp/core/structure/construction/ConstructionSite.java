@@ -7,6 +7,7 @@
 
 package org.mars_sim.msp.core.structure.construction;
 
+import org.mars_sim.msp.core.LocalAreaUtil;
 import org.mars_sim.msp.core.LocalBoundedObject;
 import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.structure.building.Building;
@@ -78,6 +79,8 @@ public class ConstructionSite implements Serializable, LocalBoundedObject {
      */
     public void setWidth(double width) {
         this.width = width;
+        // Sites don't know their settlement's location so clear all locations.
+        LocalAreaUtil.clearObstacleCache();
     }
     
     @Override
@@ -91,6 +94,7 @@ public class ConstructionSite implements Serializable, LocalBoundedObject {
      */
     public void setLength(double length) {
         this.length = length;
+        LocalAreaUtil.clearObstacleCache();
     }
     
     @Override
@@ -104,6 +108,7 @@ public class ConstructionSite implements Serializable, LocalBoundedObject {
      */
     public void setXLocation(double xLocation) {
         this.xLocation = xLocation;
+        LocalAreaUtil.clearObstacleCache();
     }
     
     @Override
@@ -117,6 +122,7 @@ public class ConstructionSite implements Serializable, LocalBoundedObject {
      */
     public void setYLocation(double yLocation) {
         this.yLocation = yLocation;
+        LocalAreaUtil.clearObstacleCache();
     }
     
     @Override
@@ -130,6 +136,7 @@ public class ConstructionSite implements Serializable, LocalBoundedObject {
      */
     public void setFacing(double facing) {
         this.facing = facing;
+        LocalAreaUtil.clearObstacleCache();
     }
     
     /**
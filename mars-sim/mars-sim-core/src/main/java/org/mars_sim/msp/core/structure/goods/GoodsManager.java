@@ -6,14 +6,20 @@
  */
 package org.mars_sim.msp.core.structure.goods;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -47,6 +53,7 @@ import org.mars_sim.msp.core.person.ai.job.Architect;
 import org.mars_sim.msp.core.person.ai.job.Areologist;
 import org.mars_sim.msp.core.person.ai.job.Biologist;
 import org.mars_sim.msp.core.person.ai.job.Driver;
+import org.mars_sim.msp.core.person.ai.job.Job;
 import org.mars_sim.msp.core.person.ai.job.Trader;
 import org.mars_sim.msp.core.person.ai.mission.CollectIce;
 import org.mars_sim.msp.core.person.ai.mission.CollectRegolith;
@@ -128,6 +135,11 @@ public class GoodsManager implements Serializable {
     private static final double CONSTRUCTION_SITE_REQUIRED_PART_FACTOR = 100D;
     private static final double REGOLITH_INPUT_FACTOR = 1000D;
 
+    /** Relative change in a good's supply or real demand that triggers revaluing it. */
+    private static final double INPUT_CHANGE_THRESHOLD = .01D;
+    /** Relative change in a good's value that triggers revaluing the goods depending on it. */
+    private static final double VALUE_CHANGE_THRESHOLD = .01D;
+
     public final int SOL_PER_REFRESH = Settlement.SOL_PER_REFRESH;
 
     // 2015-02-13 Added four MAXIMUM/MINIMUM for computing VP
@@ -150,6 +162,16 @@ public class GoodsManager implements Serializable {
     private Map<Part, Double> partsDemandCache;
     private boolean initialized = false;
 
+    // Inputs of the last valuation, used to only revalue goods whose inputs have changed.
+    private transient Map<Good, Double> goodsSupplyCache;
+    private transient Map<Good, Double> goodsRealDemandCache;
+    private transient long demandInputSignature;
+    private transient int fullUpdateSol = -1;
+    private transient int fullUpdates;
+    private transient int partialUpdates;
+    private transient int goodsRevalued;
+    private transient volatile long valuesVersion;
+
     private Inventory inv;
 	//private static int count = 0;
 
@@ -179,7 +201,8 @@ public class GoodsManager implements Serializable {
      */
     private void populateGoodsValues() {
         List<Good> goods = GoodsUtil.getGoodsList();
-        goodsValues = new TreeMap<Good, Double>();
+        // Other settlements read values concurrently when settlements are updated in parallel.
+        goodsValues = new ConcurrentSkipListMap<Good, Double>();
         goodsDemandCache = new TreeMap<Good, Double>();
         goodsTradeCache = new TreeMap<Good, Double>();
 
@@ -203,6 +226,17 @@ public class GoodsManager implements Serializable {
         // Create vehicle caches.
         vehicleBuyValueCache = new HashMap<String, Double>();
         vehicleSellValueCache = new HashMap<String, Double>();
+
+        populateInputCaches();
+    }
+
+    /**
+     * Creates the empty valuation input caches.
+     */
+    private void populateInputCaches() {
+        goodsSupplyCache = new HashMap<Good, Double>(goodsValues.size());
+        goodsRealDemandCache = new HashMap<Good, Double>();
+        fullUpdateSol = -1;
     }
 
     /**
@@ -234,9 +268,33 @@ public class GoodsManager implements Serializable {
     }
 
     /**
-     * Updates the values for all the goods at the settlement.
+     * Updates the values for the goods at the settlement.
+     * All goods are revalued once per sol or when the settlement's population, buildings,
+     * ongoing processes, construction sites, vehicles or malfunctions change.
+     * Otherwise only goods whose supply or real demand changed beyond a threshold are revalued,
+     * followed by any goods whose demand depends on a value that changed.
      */
     public void updateGoodsValues() {
+        long signature = getDemandInputSignature();
+        int sol = MarsClock.getSolOfYear(Simulation.instance().getMasterClock().getMarsClock());
+
+        if (!initialized || (signature != demandInputSignature) || (sol != fullUpdateSol)) {
+            updateAllGoodsValues();
+            demandInputSignature = signature;
+            fullUpdateSol = sol;
+        }
+        else {
+            updateChangedGoodsValues();
+        }
+        settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT);
+
+        initialized = true;
+    }
+
+    /**
+     * Revalues all the goods at the settlement.
+     */
+    private void updateAllGoodsValues() {
         // Clear parts demand cache.
         partsDemandCache.clear();
 
@@ -246,9 +304,206 @@ public class GoodsManager implements Serializable {
 
         Iterator<Good> i = goodsValues.keySet().iterator();
         while (i.hasNext()) updateGoodValue(i.next(), true);
-        settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT);
 
-        initialized = true;
+        fullUpdates++;
+        goodsRevalued += goodsValues.size();
+    }
+
+    /**
+     * Revalues the goods whose valuation inputs have changed since they were last valued,
+     * and the goods whose demand depends on them.
+     */
+    private void updateChangedGoodsValues() {
+        Deque<Good> changed = new ArrayDeque<Good>();
+        Map<Good, Double> supplies = new HashMap<Good, Double>();
+
+        Iterator<Good> i = goodsValues.keySet().iterator();
+        while (i.hasNext()) {
+            Good good = i.next();
+            double supply = getNumberOfGoodForSettlement(good);
+            supplies.put(good, supply);
+            // Only amount resources have a real demand recorded.
+            if (hasChanged(goodsSupplyCache.get(good), supply, INPUT_CHANGE_THRESHOLD) ||
+                    ((GoodType.AMOUNT_RESOURCE == good.getCategory()) &&
+                    hasChanged(goodsRealDemandCache.get(good), getRealDemand(good), INPUT_CHANGE_THRESHOLD))) {
+                changed.add(good);
+            }
+        }
+
+        // Revalue each good at most once so dependency cycles end.
+        Set<Good> revalued = new HashSet<Good>();
+        while (!changed.isEmpty()) {
+            Good good = changed.poll();
+            if (!revalued.add(good)) {
+                continue;
+            }
+
+            double oldValue = goodsValues.get(good);
+            double newValue = determineGoodValue(good, supplies.get(good), false);
+            goodsValues.put(good, newValue);
+            recordInputs(good, supplies.get(good));
+
+            if (hasChanged(oldValue, newValue, VALUE_CHANGE_THRESHOLD)) {
+                valuesVersion++;
+                Iterator<Good> j = GoodsUtil.getValueDependents(good).iterator();
+                while (j.hasNext()) {
+                    Good dependent = j.next();
+                    if (!revalued.contains(dependent) && goodsValues.containsKey(dependent)) {
+                        changed.add(dependent);
+                    }
+                }
+            }
+        }
+
+        partialUpdates++;
+        goodsRevalued += revalued.size();
+    }
+
+    /**
+     * Checks if a valuation input has changed beyond a relative threshold.
+     * @param oldValue the previous value (null if none).
+     * @param newValue the current value.
+     * @param threshold the relative change threshold.
+     * @return true if changed.
+     */
+    private static boolean hasChanged(Double oldValue, double newValue, double threshold) {
+        if (oldValue == null) {
+            return true;
+        }
+        double difference = Math.abs(newValue - oldValue);
+        return difference > (threshold * Math.max(Math.abs(oldValue), 1D));
+    }
+
+    /**
+     * Records the valuation inputs used for a good.
+     * @param good the good.
+     * @param supply the supply used.
+     */
+    private void recordInputs(Good good, double supply) {
+        goodsSupplyCache.put(good, supply);
+        if (GoodType.AMOUNT_RESOURCE == good.getCategory()) {
+            goodsRealDemandCache.put(good, getRealDemand(good));
+        }
+    }
+
+    /**
+     * Gets the real (met) demand recorded by the settlement's inventory for a good.
+     * @param good the good.
+     * @return demand amount (kg) for amount resources, otherwise zero.
+     */
+    private double getRealDemand(Good good) {
+        if (GoodType.AMOUNT_RESOURCE == good.getCategory()) {
+            return inv.getAmountDemandAmount(good.getName().toLowerCase());
+        }
+        return 0D;
+    }
+
+    /**
+     * Gets a signature of the settlement state that goods demand is projected from.
+     * The signature changes when the population or jobs, buildings, ongoing manufacturing
+     * and food production processes, construction stages, associated vehicles or
+     * malfunctions change.
+     * @return signature value.
+     */
+    private long getDemandInputSignature() {
+        long result = 0L;
+
+        Iterator<Person> i = settlement.getAllAssociatedPeople().iterator();
+        while (i.hasNext()) {
+            Person person = i.next();
+            Job job = person.getMind().getJob();
+            result += mixSignature(System.identityHashCode(person), (job != null) ? job.getClass().hashCode() : 0);
+        }
+
+        Iterator<Building> j = settlement.getBuildingManager().getBuildings().iterator();
+        while (j.hasNext()) {
+            Building building = j.next();
+            result += mixSignature(System.identityHashCode(building),
+                    building.getMalfunctionManager().getMalfunctions().size());
+
+            Manufacture workshop = (Manufacture) building.getFunction(BuildingFunction.MANUFACTURE);
+            if (workshop != null) {
+                Iterator<ManufactureProcess> k = workshop.getProcesses().iterator();
+                while (k.hasNext()) {
+                    result += mixSignature(System.identityHashCode(k.next().getInfo()), 1L);
+                }
+            }
+
+            FoodProduction kitchen = (FoodProduction) building.getFunction(BuildingFunction.FOOD_PRODUCTION);
+            if (kitchen != null) {
+                Iterator<FoodProductionProcess> k = kitchen.getProcesses().iterator();
+                while (k.hasNext()) {
+                    result += mixSignature(System.identityHashCode(k.next().getInfo()), 2L);
+                }
+            }
+        }
+
+        Iterator<ConstructionSite> l = settlement.getConstructionManager().getConstructionSites().iterator();
+        while (l.hasNext()) {
+            ConstructionSite site = l.next();
+            ConstructionStage stage = site.getCurrentConstructionStage();
+            if (stage != null) {
+                double remaining = 0D;
+                Iterator<Double> m = stage.getRemainingResources().values().iterator();
+                while (m.hasNext()) remaining += m.next();
+                Iterator<Integer> n = stage.getRemainingParts().values().iterator();
+                while (n.hasNext()) remaining += n.next();
+                result += mixSignature(System.identityHashCode(stage), Double.doubleToLongBits(remaining));
+            }
+        }
+
+        Iterator<Vehicle> o = getAssociatedVehicles().iterator();
+        while (o.hasNext()) {
+            Vehicle vehicle = o.next();
+            result += mixSignature(System.identityHashCode(vehicle),
+                    vehicle.getMalfunctionManager().getMalfunctions().size());
+        }
+
+        return result;
+    }
+
+    /**
+     * Mixes an identity and a state into a signature term.
+     * Terms are summed so the signature doesn't depend on iteration order.
+     */
+    private static long mixSignature(long identity, long state) {
+        long hash = (identity * 0x9E3779B97F4A7C15L) + state;
+        hash ^= (hash >>> 31);
+        return hash * 0xBF58476D1CE4E5B9L;
+    }
+
+    /**
+     * Gets the number of times all goods have been revalued.
+     * @return number of full updates.
+     */
+    public int getFullUpdates() {
+        return fullUpdates;
+    }
+
+    /**
+     * Gets the number of times only changed goods have been revalued.
+     * @return number of partial updates.
+     */
+    public int getPartialUpdates() {
+        return partialUpdates;
+    }
+
+    /**
+     * Gets the total number of good valuations performed by updates.
+     * @return number of goods revalued.
+     */
+    public int getGoodsRevalued() {
+        return goodsRevalued;
+    }
+
+    /**
+     * Gets the version of the settlement's good values. It changes whenever a good's value
+     * changes beyond the revaluation threshold, so values derived from the good values
+     * only need to be recomputed when it has changed.
+     * @return values version.
+     */
+    public long getValuesVersion() {
+        return valuesVersion;
     }
 
     /**
@@ -258,7 +513,11 @@ public class GoodsManager implements Serializable {
      */
     public void updateGoodValue(Good good, boolean collectiveUpdate) {
         if (good != null) {
-            goodsValues.put(good, determineGoodValue(good, getNumberOfGoodForSettlement(good), false));
+            double supply = getNumberOfGoodForSettlement(good);
+            double newValue = determineGoodValue(good, supply, false);
+            Double oldValue = goodsValues.put(good, newValue);
+            recordInputs(good, supply);
+            if (hasChanged(oldValue, newValue, VALUE_CHANGE_THRESHOLD)) valuesVersion++;
             if (!collectiveUpdate) settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT, good);
         }
         else throw new IllegalArgumentException("Good is null.");
@@ -2567,6 +2826,25 @@ public class GoodsManager implements Serializable {
         }
     }
 
+    /**
+     * Implementing readObject method for serialization.
+     * @param in the input stream.
+     * @throws IOException if error reading from input stream.
+     * @throws ClassNotFoundException if error creating class.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+        in.defaultReadObject();
+
+        // Older saves have a TreeMap of values.
+        if (!(goodsValues instanceof ConcurrentSkipListMap)) {
+            goodsValues = new ConcurrentSkipListMap<Good, Double>(goodsValues);
+        }
+
+        // Revalue all goods on the next update.
+        populateInputCaches();
+    }
+
     /**
      * Prepare the goods manager for a vehicle load calculation.
      */
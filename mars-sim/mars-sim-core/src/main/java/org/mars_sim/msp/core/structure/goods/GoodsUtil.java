@@ -9,13 +9,23 @@ package org.mars_sim.msp.core.structure.goods;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.mars_sim.msp.core.SimulationConfig;
 import org.mars_sim.msp.core.Unit;
 import org.mars_sim.msp.core.equipment.Equipment;
 import org.mars_sim.msp.core.equipment.EquipmentFactory;
+import org.mars_sim.msp.core.foodProduction.FoodProductionProcessInfo;
+import org.mars_sim.msp.core.foodProduction.FoodProductionProcessItem;
+import org.mars_sim.msp.core.foodProduction.FoodProductionUtil;
+import org.mars_sim.msp.core.manufacture.ManufactureProcessInfo;
+import org.mars_sim.msp.core.manufacture.ManufactureProcessItem;
+import org.mars_sim.msp.core.manufacture.ManufactureUtil;
 import org.mars_sim.msp.core.resource.AmountResource;
 import org.mars_sim.msp.core.resource.ItemResource;
 import org.mars_sim.msp.core.resource.Part;
@@ -31,6 +41,7 @@ public class GoodsUtil {
 
 	// Data members
 	private static List<Good> goodsList;
+	private static Map<Good, Set<Good>> valueDependents;
 
 	/**
 	 * Private constructor for utility class.
@@ -61,6 +72,110 @@ public class GoodsUtil {
 		}
 
 		goodsList = null;
+
+		synchronized (GoodsUtil.class) {
+			valueDependents = null;
+		}
+	}
+
+	/**
+	 * Gets the goods whose demand at a settlement is derived from the value of a good.
+	 * The inputs of a manufacturing or food production process are in demand for the value
+	 * of the process outputs, and equipment and vehicles are in demand for collecting ice and regolith.
+	 * @param good the good.
+	 * @return unmodifiable set of dependent goods (may be empty).
+	 */
+	public static synchronized Set<Good> getValueDependents(Good good) {
+		if (valueDependents == null) {
+			valueDependents = new HashMap<Good, Set<Good>>();
+			populateValueDependents();
+		}
+
+		Set<Good> result = valueDependents.get(good);
+		if (result == null) {
+			result = Collections.emptySet();
+		}
+		return result;
+	}
+
+	/**
+	 * Populates the value dependents of all goods.
+	 */
+	private static void populateValueDependents() {
+
+		Iterator<ManufactureProcessInfo> i = ManufactureUtil.getAllManufactureProcesses().iterator();
+		while (i.hasNext()) {
+			ManufactureProcessInfo process = i.next();
+			Set<Good> inputs = new HashSet<Good>();
+			Iterator<ManufactureProcessItem> j = process.getInputList().iterator();
+			while (j.hasNext()) {
+				addGood(inputs, ManufactureUtil.getGood(j.next()));
+			}
+			Iterator<ManufactureProcessItem> k = process.getOutputList().iterator();
+			while (k.hasNext()) {
+				addValueDependents(ManufactureUtil.getGood(k.next()), inputs);
+			}
+		}
+
+		Iterator<FoodProductionProcessInfo> l = FoodProductionUtil.getAllFoodProductionProcesses().iterator();
+		while (l.hasNext()) {
+			FoodProductionProcessInfo process = l.next();
+			Set<Good> inputs = new HashSet<Good>();
+			Iterator<FoodProductionProcessItem> j = process.getInputList().iterator();
+			while (j.hasNext()) {
+				addGood(inputs, FoodProductionUtil.getGood(j.next()));
+			}
+			Iterator<FoodProductionProcessItem> k = process.getOutputList().iterator();
+			while (k.hasNext()) {
+				addValueDependents(FoodProductionUtil.getGood(k.next()), inputs);
+			}
+		}
+
+		// Equipment and vehicle demand includes the value of collected ice and regolith.
+		Set<Good> collectors = new HashSet<Good>();
+		Iterator<Good> m = getGoodsList().iterator();
+		while (m.hasNext()) {
+			Good good = m.next();
+			if ((GoodType.EQUIPMENT == good.getCategory()) || (GoodType.VEHICLE == good.getCategory())) {
+				collectors.add(good);
+			}
+		}
+		addValueDependents(getResourceGood(AmountResource.findAmountResource("ice")), collectors);
+		addValueDependents(getResourceGood(AmountResource.findAmountResource("regolith")), collectors);
+
+		// Make the sets read only.
+		Iterator<Good> n = valueDependents.keySet().iterator();
+		while (n.hasNext()) {
+			Good good = n.next();
+			valueDependents.put(good, Collections.unmodifiableSet(valueDependents.get(good)));
+		}
+	}
+
+	/**
+	 * Adds a good to a set if it isn't null.
+	 */
+	private static void addGood(Set<Good> goods, Good good) {
+		if (good != null) {
+			goods.add(good);
+		}
+	}
+
+	/**
+	 * Adds dependents to a good's value dependents.
+	 * @param good the good (may be null).
+	 * @param dependents the goods whose demand depends on the good's value.
+	 */
+	private static void addValueDependents(Good good, Set<Good> dependents) {
+		if ((good == null) || dependents.isEmpty()) {
+			return;
+		}
+		Set<Good> goodDependents = valueDependents.get(good);
+		if (goodDependents == null) {
+			goodDependents = new HashSet<Good>();
+			valueDependents.put(good, goodDependents);
+		}
+		goodDependents.addAll(dependents);
+		goodDependents.remove(good);
 	}
 
 	/**
@@ -427,6 +427,36 @@ public class MarsClock implements Serializable {
         return result;
     }
 
+    /** Returns the time at a given total number of millisols.
+     *  @param totalMillisols the total number of millisols, as given by getTotalMillisols.
+     *  @return new MarsClock at the time.
+     */
+    public static MarsClock getMarsClock(double totalMillisols) {
+        if (totalMillisols < 0D) throw new IllegalArgumentException("Invalid total millisols: " + totalMillisols);
+
+        // Remove millisols of whole orbits.
+        int orbit = 1;
+        while (true) {
+            double orbitMillisols = SOLS_IN_ORBIT_NON_LEAPYEAR * 1000D;
+            if (MarsClock.isLeapOrbit(orbit)) orbitMillisols = SOLS_IN_ORBIT_LEAPYEAR * 1000D;
+            if (totalMillisols < orbitMillisols) break;
+            totalMillisols -= orbitMillisols;
+            orbit++;
+        }
+
+        // Remove millisols of whole months.
+        int month = 1;
+        while ((month < MONTHS_IN_ORBIT) && (totalMillisols >= MarsClock.getSolsInMonth(month, orbit) * 1000D)) {
+            totalMillisols -= MarsClock.getSolsInMonth(month, orbit) * 1000D;
+            month++;
+        }
+
+        int sol = (int) (totalMillisols / 1000D) + 1;
+        double millisol = totalMillisols - ((sol - 1) * 1000D);
+
+        return new MarsClock(orbit, month, sol, millisol);
+    }
+
     /** Returns the name of the current month.
      *  @return name of the current month
      */
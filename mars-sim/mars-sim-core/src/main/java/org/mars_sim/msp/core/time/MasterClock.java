@@ -17,7 +17,9 @@ import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -56,6 +58,8 @@ public class MasterClock implements Serializable { // Runnable,
 	private static final long PERIOD = 40_000_000L; //in nanoseconds (25 FPS)
 	private static final int NO_DELAYS_PER_YIELD = 16;
 	private static final int MAX_FRAME_SKIPS = 10;
+	/** The longest time to wait for a background autosave when exiting (ms). */
+	private static final long EXIT_AUTOSAVE_WAIT = 60_000L;
 
 	// Data members
 	/** Runnable flag. */
@@ -267,9 +271,7 @@ public class MasterClock implements Serializable { // Runnable,
     }
 
     /**
-     * Sets the autosave simulation flag and the file to save to.
-     *
-     * @param file autosave to file or null if default file.
+     * Sets the autosave simulation flag. Autosaves go to a new file in the autosave directory.
      */
     // 2015-01-08 Added autosaveSimulation
     public void autosaveSimulation() {
@@ -486,11 +488,11 @@ public class MasterClock implements Serializable { // Runnable,
         else if (autosaveSimulation) {
             // Autosave the simulation to a file.
             try {
-                Simulation.instance().saveSimulation(file, true);
+                // Not the file last loaded or saved, which autosave rotation could delete.
+                Simulation.instance().saveSimulation(null, true);
             } catch (IOException e) {
 
-                logger.log(Level.SEVERE, "Could not autosave the simulation with file = "
-                        + (file == null ? "null" : file.getPath()), e);
+                logger.log(Level.SEVERE, "Could not autosave the simulation", e);
                 e.printStackTrace();
             }
             autosaveSimulation = false;
@@ -511,6 +513,8 @@ public class MasterClock implements Serializable { // Runnable,
         // Exit program if exitProgram flag is true.
         if (exitProgram) {
             exitProgram = false;
+            // Let a background autosave finish writing.
+            Simulation.instance().getAutosaveWriter().awaitCompletion(EXIT_AUTOSAVE_WAIT);
             System.exit(0);
         }
 
@@ -769,6 +773,28 @@ public class MasterClock implements Serializable { // Runnable,
 //Executors.newSingleThreadExecutor();// Executors.newFixedThreadPool(1); // newCachedThreadPool(); //
     }
 
+    /**
+     * Runs a task between clock pulses, once the clock listeners have finished
+     * the pulses already fired. Used to take a consistent snapshot of the simulation.
+     * @param task the task.
+     * @return the task result.
+     * @throws Exception if the task fails.
+     */
+    public <T> T runAtPulseBoundary(Callable<T> task) throws Exception {
+        ThreadPoolExecutor executor = clockListenerExecutor;
+        if ((executor == null) || executor.isShutdown()) {
+            return task.call();
+        }
+        // Clock listener tasks run in order on a single thread.
+        try {
+            return executor.submit(task).get();
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof Exception) ? (Exception) cause : e;
+        }
+    }
+
     /**
      * Shuts down clock listener thread pool executor
      */
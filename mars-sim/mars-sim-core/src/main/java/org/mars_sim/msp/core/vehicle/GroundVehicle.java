@@ -7,6 +7,7 @@
 package org.mars_sim.msp.core.vehicle;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -175,8 +176,8 @@ implements Serializable {
 
 		// If settlement has garages, place vehicle near a random garage.
 		// Otherwise place vehicle near settlement center.
-		List<Building> garageList = settlement.getBuildingManager().getBuildings(
-				BuildingFunction.GROUND_VEHICLE_MAINTENANCE);
+		List<Building> garageList = new ArrayList<Building>(settlement.getBuildingManager().getBuildings(
+				BuildingFunction.GROUND_VEHICLE_MAINTENANCE));
 		if (garageList.size() >= 1) {
 			Collections.shuffle(garageList);
 			Building garage = garageList.get(0);
@@ -27,6 +27,7 @@ import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.SimulationConfig;
 import org.mars_sim.msp.core.Unit;
 import org.mars_sim.msp.core.UnitEventType;
+import org.mars_sim.msp.core.UnitManager;
 import org.mars_sim.msp.core.malfunction.MalfunctionManager;
 import org.mars_sim.msp.core.malfunction.Malfunctionable;
 import org.mars_sim.msp.core.manufacture.Salvagable;
@@ -254,6 +255,7 @@ public abstract class Vehicle extends Unit implements Serializable,
 	    this.xLocParked = xLocation;
 	    this.yLocParked = yLocation;
 	    this.facingParked = facing;
+	    LocalAreaUtil.clearObstacleCache(getCoordinates());
 	        
 	    // Set the human crew locations to the vehicle's new parked location.
 	    setCrewPositions(currentCrewPositions);
@@ -262,6 +264,14 @@ public abstract class Vehicle extends Unit implements Serializable,
 	    setRobotCrewPositions(currentRobotCrewPositions);
     }
     
+    @Override
+    public void setCoordinates(Coordinates newLocation) {
+        // The vehicle leaves the obstacles at its old location and joins those at its new one.
+        LocalAreaUtil.clearObstacleCache(getCoordinates());
+        super.setCoordinates(newLocation);
+        LocalAreaUtil.clearObstacleCache(newLocation);
+    }
+    
     /**
      * Gets all human crew member positions relative to within the vehicle.
      * @return map of crew members and their relative vehicle positions.
@@ -768,6 +778,8 @@ public abstract class Vehicle extends Unit implements Serializable,
     public void startSalvage(SalvageProcessInfo info, Settlement settlement) {
         salvageInfo = new SalvageInfo(this, info, settlement);
         isSalvaged = true;
+        UnitManager unitManager = getUnitManager();
+        if (unitManager != null) unitManager.updateSalvagedUnit(this);
     }
     
     /**
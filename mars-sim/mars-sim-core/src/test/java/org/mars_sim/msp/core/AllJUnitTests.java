@@ -23,23 +23,43 @@ public class AllJUnitTests extends TestCase {
 	public static Test suite() {
 		TestSuite suite = new TestSuite(AllJUnitTests.class);
 
+		suite.addTestSuite(org.mars_sim.msp.core.TestConfigCache.class);
 		suite.addTestSuite(org.mars_sim.msp.core.TestCoordinates.class);
 		suite.addTestSuite(org.mars_sim.msp.core.TestInventory.class);
+		suite.addTestSuite(org.mars_sim.msp.core.TestLocalAreaIndex.class);
 		suite.addTestSuite(org.mars_sim.msp.core.TestLocalAreaUtil.class);
+		suite.addTestSuite(org.mars_sim.msp.core.TestRandomUtil.class);
+		suite.addTestSuite(org.mars_sim.msp.core.TestUnitEventBus.class);
+		suite.addTestSuite(org.mars_sim.msp.core.TestUnitUpdateEngine.class);
+		suite.addTestSuite(org.mars_sim.msp.core.batch.TestBatchRunner.class);
 		suite.addTestSuite(org.mars_sim.msp.core.equipment.JUnitTests.class);
 		suite.addTestSuite(org.mars_sim.msp.core.events.JUnitTests.class);
+		suite.addTestSuite(org.mars_sim.msp.core.events.TestHistoricalEventManager.class);
 		suite.addTestSuite(org.mars_sim.msp.core.malfunction.TestMalfunctionManager.class);
+		suite.addTestSuite(org.mars_sim.msp.core.mars.TestWeatherGrid.class);
+		suite.addTestSuite(org.mars_sim.msp.core.mars.TestMineralRaster.class);
 		suite.addTestSuite(org.mars_sim.msp.core.person.JUnitTests.class);
+		suite.addTestSuite(org.mars_sim.msp.core.person.TestPersonConfig.class);
 		suite.addTestSuite(org.mars_sim.msp.core.person.ai.JUnitTests.class);
 		suite.addTestSuite(org.mars_sim.msp.core.person.ai.mission.JUnitTests.class);
+		suite.addTestSuite(org.mars_sim.msp.core.person.ai.mission.TestMissionPlanner.class);
+		suite.addTestSuite(org.mars_sim.msp.core.person.ai.mission.TestTradeMatrix.class);
+		suite.addTestSuite(org.mars_sim.msp.core.person.ai.social.TestRelationshipGraph.class);
 		suite.addTest(org.mars_sim.msp.core.person.ai.task.JUnitTests.suite());
+		suite.addTestSuite(org.mars_sim.msp.core.person.ai.task.meta.MetaTaskUtilTest.class);
 		suite.addTestSuite(org.mars_sim.msp.core.person.medical.JUnitTests.class);
+		suite.addTestSuite(org.mars_sim.msp.core.save.TestAutosaveWriter.class);
+		suite.addTestSuite(org.mars_sim.msp.core.save.TestSaveFormats.class);
 		suite.addTestSuite(org.mars_sim.msp.core.resource.TestAmountResourceStorage.class);
 		suite.addTestSuite(org.mars_sim.msp.core.resource.TestAmountResourcePhaseStorage.class);
 		suite.addTestSuite(org.mars_sim.msp.core.resource.TestAmountResourceTypeStorage.class);
 		suite.addTestSuite(org.mars_sim.msp.core.resource.TestItemResource.class);
 		suite.addTestSuite(org.mars_sim.msp.core.structure.JUnitTests.class);
+		suite.addTestSuite(org.mars_sim.msp.core.structure.TestPowerGrid.class);
+		suite.addTestSuite(org.mars_sim.msp.core.structure.TestSettlement.class);
 		suite.addTestSuite(org.mars_sim.msp.core.structure.building.JUnitTests.class);
+		suite.addTestSuite(org.mars_sim.msp.core.structure.building.TestBuildingConfig.class);
+		suite.addTestSuite(org.mars_sim.msp.core.structure.building.TestBuildingManager.class);
 		suite.addTest(org.mars_sim.msp.core.structure.building.connection.JUnitTests.suite());
 		suite.addTest(org.mars_sim.msp.core.structure.construction.JUnitTests.suite());
 		suite.addTestSuite(org.mars_sim.msp.core.structure.goods.TestGoods.class);
@@ -0,0 +1,104 @@
+/**
+ * Mars Simulation Project
+ * ConfigGetterBenchmark.java
+ * @version 3.08 2015-08-11
+ */
+
+package org.mars_sim.msp.core;
+
+import java.util.List;
+
+import org.jdom.Document;
+import org.jdom.Element;
+import org.mars_sim.msp.core.person.PersonConfig;
+import org.mars_sim.msp.core.structure.building.BuildingConfig;
+
+/**
+ * A benchmark of the configuration getters called every time pulse, comparing the
+ * compiled person and building configuration with walking the XML documents the way
+ * the getters used to.
+ * Run with: java org.mars_sim.msp.core.ConfigGetterBenchmark [calls]
+ */
+public class ConfigGetterBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+
+    public static void main(String[] args) throws Exception {
+
+        final int calls = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+
+        SimulationConfig.loadConfig();
+        PersonConfig personConfig = SimulationConfig.instance().getPersonConfiguration();
+        BuildingConfig buildingConfig = SimulationConfig.instance().getBuildingConfiguration();
+        Document personDoc = SimulationConfig.parseXMLFileAsJDOMDocument(SimulationConfig.PEOPLE_FILE, true);
+        Document buildingDoc = SimulationConfig.parseXMLFileAsJDOMDocument(SimulationConfig.BUILDING_FILE, true);
+        String[] types = buildingConfig.getBuildingTypes().toArray(new String[0]);
+
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            boolean print = (round == WARMUP_ROUNDS);
+
+            long startTime = System.nanoTime();
+            double sum = 0D;
+            for (int x = 0; x < calls; x++) {
+                sum += personConfig.getOxygenConsumptionRate();
+            }
+            report(print, "person oxygen rate, compiled", calls, startTime, sum);
+
+            startTime = System.nanoTime();
+            sum = 0D;
+            for (int x = 0; x < calls; x++) {
+                Element element = personDoc.getRootElement().getChild("oxygen-consumption-rate");
+                sum += Double.parseDouble(element.getAttributeValue("value"));
+            }
+            report(print, "person oxygen rate, DOM     ", calls, startTime, sum);
+
+            startTime = System.nanoTime();
+            sum = 0D;
+            for (int x = 0; x < calls; x++) {
+                String type = types[x % types.length];
+                sum += buildingConfig.getBasePowerRequirement(type) + buildingConfig.getWidth(type);
+                if (buildingConfig.hasLifeSupport(type)) {
+                    sum += buildingConfig.getLifeSupportPowerRequirement(type);
+                }
+            }
+            report(print, "building power, compiled    ", calls, startTime, sum);
+
+            startTime = System.nanoTime();
+            sum = 0D;
+            for (int x = 0; x < calls; x++) {
+                Element building = getBuildingElement(buildingDoc, types[x % types.length]);
+                sum += Double.parseDouble(building.getChild("power-required").getAttributeValue("base-power"))
+                        + Double.parseDouble(building.getAttributeValue("width"));
+                Element lifeSupport = building.getChild("functions").getChild("life-support");
+                if (lifeSupport != null) {
+                    sum += Double.parseDouble(lifeSupport.getAttributeValue("power-required"));
+                }
+            }
+            report(print, "building power, DOM         ", calls, startTime, sum);
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * Finds a building element by a scan of the document, as the building getters did.
+     */
+    @SuppressWarnings("unchecked")
+    private static Element getBuildingElement(Document buildingDoc, String type) {
+        List<Element> buildings = buildingDoc.getRootElement().getChildren("building");
+        for (Element building : buildings) {
+            if (type.equalsIgnoreCase(building.getAttributeValue("type"))) return building;
+        }
+        throw new IllegalStateException(type);
+    }
+
+    private static void report(boolean print, String name, int calls, long startTime, double check) {
+        long time = System.nanoTime() - startTime;
+        if (check < 0D) {
+            System.out.println(check);
+        }
+        if (print) {
+            System.out.println(String.format("%s %8.1f ns/call", name, time / (double) calls));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Mars Simulation Project
+ * LocalAreaIndexBenchmark.java
+ * @version 3.08 2015-07-28
+ */
+
+package org.mars_sim.msp.core;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A benchmark comparing line path collision checks using the LocalAreaIndex with
+ * intersecting the union area of all obstacles, as LocalAreaUtil previously did.
+ * Run with: java org.mars_sim.msp.core.LocalAreaIndexBenchmark [obstacles] [lines]
+ */
+public class LocalAreaIndexBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+
+        int numObstacles = (args.length > 0) ? Integer.parseInt(args[0]) : 60;
+        int numLines = (args.length > 1) ? Integer.parseInt(args[1]) : 2000;
+
+        Random random = new Random(42L);
+        List<LocalBoundedObject> obstacles = new ArrayList<LocalBoundedObject>(numObstacles);
+        for (int x = 0; x < numObstacles; x++) {
+            obstacles.add(new MockLocalBoundedObject(random.nextDouble() * 300D - 150D,
+                    random.nextDouble() * 300D - 150D, 5D + random.nextDouble() * 15D,
+                    5D + random.nextDouble() * 25D, random.nextDouble() * 360D));
+        }
+
+        // Short walking legs, like obstacle avoidance path checks.
+        double[][] lines = new double[numLines][];
+        for (int x = 0; x < numLines; x++) {
+            lines[x] = new double[] { random.nextDouble() * 300D - 150D, random.nextDouble() * 300D - 150D,
+                    random.nextDouble() * 20D, random.nextDouble() * 360D };
+        }
+
+        System.out.println(numObstacles + " obstacles, " + numLines + " line checks per round");
+        for (int x = 0; x < WARMUP_ROUNDS; x++) {
+            runArea(obstacles, lines);
+            runIndex(obstacles, lines);
+        }
+
+        long areaTime = 0L;
+        long indexTime = 0L;
+        int areaFree = 0;
+        int indexFree = 0;
+        for (int x = 0; x < ROUNDS; x++) {
+            long start = System.nanoTime();
+            areaFree = runArea(obstacles, lines);
+            areaTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            indexFree = runIndex(obstacles, lines);
+            indexTime += System.nanoTime() - start;
+        }
+
+        System.out.println("Area union:   " + (areaTime / ROUNDS / numLines) + " ns/check, " +
+                areaFree + " free");
+        System.out.println("Local index:  " + (indexTime / ROUNDS / numLines) + " ns/check, " +
+                indexFree + " free");
+        System.out.println("Speedup:      " + ((double) areaTime / (double) indexTime));
+    }
+
+    /**
+     * Builds the union obstacle area and checks each line against it.
+     * @return number of free lines.
+     */
+    private static int runArea(List<LocalBoundedObject> obstacles, double[][] lines) {
+        Area obstacleArea = new Area();
+        for (LocalBoundedObject obstacle : obstacles) {
+            obstacleArea.add(new Area(getPath(obstacle.getXLocation(), obstacle.getYLocation(),
+                    obstacle.getWidth(), obstacle.getLength(), obstacle.getFacing())));
+        }
+        Rectangle2D obstacleBounds = obstacleArea.getBounds2D();
+
+        int result = 0;
+        for (double[] line : lines) {
+            Path2D path = getPath(line[0], line[1], .001D, line[2], line[3]);
+            boolean free = true;
+            if (path.getBounds2D().intersects(obstacleBounds)) {
+                Area collide = new Area(path);
+                collide.intersect(obstacleArea);
+                free = collide.isEmpty();
+            }
+            if (free) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the local area index and checks each line against it.
+     * @return number of free lines.
+     */
+    private static int runIndex(List<LocalBoundedObject> obstacles, double[][] lines) {
+        LocalAreaIndex index = new LocalAreaIndex(obstacles);
+
+        int result = 0;
+        for (double[] line : lines) {
+            if (index.isPolygonFree(null, LocalAreaIndex.getCorners(line[0], line[1], .001D, line[2], line[3]))) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static Path2D getPath(double xLoc, double yLoc, double width, double length, double facing) {
+        Rectangle2D rect = new Rectangle2D.Double(xLoc - (width / 2D), yLoc - (length / 2D), width, length);
+        AffineTransform at = AffineTransform.getRotateInstance(Math.toRadians(facing), xLoc, yLoc);
+        return new Path2D.Double(rect, at);
+    }
+}
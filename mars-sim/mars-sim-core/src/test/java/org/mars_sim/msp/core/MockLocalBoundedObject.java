@@ -0,0 +1,53 @@
+/**
+ * Mars Simulation Project
+ * MockLocalBoundedObject.java
+ * @version 3.08 2015-07-28
+ */
+
+package org.mars_sim.msp.core;
+
+/**
+ * A mock local bounded object used for unit testing.
+ */
+public class MockLocalBoundedObject implements LocalBoundedObject {
+
+    private double xLocation;
+    private double yLocation;
+    private double width;
+    private double length;
+    private double facing;
+
+    public MockLocalBoundedObject(double xLocation, double yLocation, double width, double length,
+            double facing) {
+        this.xLocation = xLocation;
+        this.yLocation = yLocation;
+        this.width = width;
+        this.length = length;
+        this.facing = facing;
+    }
+
+    @Override
+    public double getXLocation() {
+        return xLocation;
+    }
+
+    @Override
+    public double getYLocation() {
+        return yLocation;
+    }
+
+    @Override
+    public double getWidth() {
+        return width;
+    }
+
+    @Override
+    public double getLength() {
+        return length;
+    }
+
+    @Override
+    public double getFacing() {
+        return facing;
+    }
+}
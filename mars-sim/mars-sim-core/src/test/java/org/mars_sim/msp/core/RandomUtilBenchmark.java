@@ -0,0 +1,127 @@
+/**
+ * Mars Simulation Project
+ * RandomUtilBenchmark.java
+ * @version 3.08 2015-08-01
+ */
+
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A benchmark of random draw throughput under 1, 4 and 16 threads, comparing
+ * RandomUtil's thread and unit streams with a single generator shared under a lock.
+ * Run with: java org.mars_sim.msp.core.RandomUtilBenchmark [draws per thread]
+ */
+public class RandomUtilBenchmark {
+
+    private static final int[] THREADS = new int[] { 1, 4, 16 };
+    private static final int WARMUP_ROUNDS = 2;
+
+    private static final MersenneTwisterFast shared = new MersenneTwisterFast(42L);
+
+    public static void main(String[] args) throws Exception {
+
+        final int draws = (args.length > 0) ? Integer.parseInt(args[0]) : 5000000;
+
+        for (int threads : THREADS) {
+            final List<Unit> units = new ArrayList<Unit>(threads);
+            for (int x = 0; x < threads; x++) {
+                units.add(new Unit("Benchmark Unit " + x, new Coordinates(0D, 0D)) {
+                    private static final long serialVersionUID = 1L;
+                });
+            }
+
+            double sharedRate = 0D;
+            double threadRate = 0D;
+            double unitRate = 0D;
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                sharedRate = run(threads, draws, new Drawer() {
+                    @Override
+                    public double draw(int thread, int draws) {
+                        double sum = 0D;
+                        for (int x = 0; x < draws; x++) {
+                            synchronized (shared) {
+                                sum += shared.nextDouble();
+                            }
+                        }
+                        return sum;
+                    }
+                });
+
+                threadRate = run(threads, draws, new Drawer() {
+                    @Override
+                    public double draw(int thread, int draws) {
+                        double sum = 0D;
+                        for (int x = 0; x < draws; x++) {
+                            sum += RandomUtil.getRandomDouble(1D);
+                        }
+                        return sum;
+                    }
+                });
+
+                unitRate = run(threads, draws, new Drawer() {
+                    @Override
+                    public double draw(int thread, int draws) {
+                        MersenneTwisterFast previous = RandomUtil.bindStream(units.get(thread));
+                        try {
+                            double sum = 0D;
+                            for (int x = 0; x < draws; x++) {
+                                sum += RandomUtil.getRandomDouble(1D);
+                            }
+                            return sum;
+                        }
+                        finally {
+                            RandomUtil.restoreStream(previous);
+                        }
+                    }
+                });
+            }
+
+            System.out.println(String.format("%2d threads  shared locked %8.1f  thread streams %8.1f  unit streams %8.1f  (M draws/s)",
+                    threads, sharedRate, threadRate, unitRate));
+        }
+    }
+
+    /**
+     * Runs draws on a number of threads.
+     * @return millions of draws per second over all threads.
+     */
+    private static double run(int threads, final int draws, final Drawer drawer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Double>> tasks = new ArrayList<Callable<Double>>(threads);
+            for (int x = 0; x < threads; x++) {
+                final int thread = x;
+                tasks.add(new Callable<Double>() {
+                    @Override
+                    public Double call() {
+                        return drawer.draw(thread, draws);
+                    }
+                });
+            }
+            long startTime = System.nanoTime();
+            double check = 0D;
+            for (Future<Double> future : executor.invokeAll(tasks)) {
+                check += future.get();
+            }
+            long time = System.nanoTime() - startTime;
+            if (check < 0D) {
+                System.out.println(check);
+            }
+            return (threads * (double) draws) / (time / 1000D);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface Drawer {
+        double draw(int thread, int draws);
+    }
+}
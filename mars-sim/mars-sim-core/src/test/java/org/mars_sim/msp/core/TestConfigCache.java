@@ -0,0 +1,105 @@
+package org.mars_sim.msp.core;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the ConfigCache class.
+ */
+public class TestConfigCache extends TestCase {
+
+	private static final String[] FILES = new String[] {
+		SimulationConfig.SIMULATION_FILE, SimulationConfig.PEOPLE_FILE, SimulationConfig.BUILDING_FILE
+	};
+
+	private File cacheDir;
+
+	@Override
+	protected void setUp() throws Exception {
+		SimulationConfig.loadConfig();
+		cacheDir = File.createTempFile("config", "");
+		cacheDir.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		File[] files = cacheDir.listFiles();
+		if (files != null) for (File file : files) file.delete();
+		cacheDir.delete();
+	}
+
+	/**
+	 * Test that a cached configuration is read back.
+	 */
+	public void testReadWrite() throws Exception {
+		byte[] key = ConfigCache.getKey(FILES);
+		assertNull(ConfigCache.read(cacheDir, key));
+
+		SimulationConfig config = SimulationConfig.instance();
+		ConfigCache.write(cacheDir, key, config);
+		SimulationConfig cached = ConfigCache.read(cacheDir, key);
+		assertNotNull(cached);
+		assertNotSame(config, cached);
+		assertEquals(config.getSimulationTimeRatio(), cached.getSimulationTimeRatio());
+		assertEquals(config.getPersonConfiguration().getOxygenConsumptionRate(),
+				cached.getPersonConfiguration().getOxygenConsumptionRate());
+		assertEquals(config.getBuildingConfiguration().getBuildingTypes(),
+				cached.getBuildingConfiguration().getBuildingTypes());
+	}
+
+	/**
+	 * Test that the configuration is cached only in the cache directory set.
+	 */
+	public void testCacheDirectory() throws Exception {
+		assertNull(SimulationConfig.getCacheDirectory());
+		assertFalse(cacheDir.exists());
+
+		SimulationConfig.setCacheDirectory(cacheDir);
+		try {
+			SimulationConfig.loadConfig();
+			assertEquals(1, cacheDir.listFiles().length);
+			double oxygenRate = SimulationConfig.instance().getPersonConfiguration().getOxygenConsumptionRate();
+
+			// Loaded from the cache.
+			SimulationConfig.loadConfig();
+			assertEquals(1, cacheDir.listFiles().length);
+			assertEquals(oxygenRate, SimulationConfig.instance().getPersonConfiguration().getOxygenConsumptionRate());
+		}
+		finally {
+			SimulationConfig.setCacheDirectory(null);
+		}
+	}
+
+	/**
+	 * Test that the key depends on the files, and a cache file for other files isn't read.
+	 */
+	public void testKey() throws Exception {
+		byte[] key = ConfigCache.getKey(FILES);
+		assertTrue(Arrays.equals(key, ConfigCache.getKey(FILES)));
+		byte[] otherKey = ConfigCache.getKey(new String[] { SimulationConfig.SIMULATION_FILE });
+		assertFalse(Arrays.equals(key, otherKey));
+
+		// A cache file with the same name but another key.
+		byte[] sameNameKey = key.clone();
+		sameNameKey[key.length - 1]++;
+		ConfigCache.write(cacheDir, sameNameKey, SimulationConfig.instance());
+		assertNull(ConfigCache.read(cacheDir, key));
+	}
+
+	/**
+	 * Test that a damaged cache file isn't read.
+	 */
+	public void testDamaged() throws Exception {
+		byte[] key = ConfigCache.getKey(FILES);
+		ConfigCache.write(cacheDir, key, SimulationConfig.instance());
+		File[] files = cacheDir.listFiles();
+		assertEquals(1, files.length);
+		RandomAccessFile raf = new RandomAccessFile(files[0], "rw");
+		raf.setLength(raf.length() / 2L);
+		raf.close();
+		assertNull(ConfigCache.read(cacheDir, key));
+	}
+}
@@ -0,0 +1,128 @@
+package org.mars_sim.msp.core;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the LocalAreaIndex class.
+ */
+public class TestLocalAreaIndex extends TestCase {
+
+    /**
+     * Test point location checks against rotated objects.
+     */
+    public void testIsLocationFree() {
+
+        List<LocalBoundedObject> objects = new ArrayList<LocalBoundedObject>();
+        objects.add(new MockLocalBoundedObject(0D, 0D, 10D, 10D, 0D));
+        objects.add(new MockLocalBoundedObject(50D, 0D, 10D, 10D, 45D));
+        LocalAreaIndex index = new LocalAreaIndex(objects);
+
+        assertFalse(index.isLocationFree(0D, 0D));
+        assertFalse(index.isLocationFree(4.9D, 4.9D));
+        assertTrue(index.isLocationFree(5.1D, 0D));
+        assertTrue(index.isLocationFree(-100D, 0D));
+        assertTrue(index.isLocationFree(100D, 100D));
+
+        // Inside the rotated object's bounding rectangle but outside the object.
+        assertFalse(index.isLocationFree(50D, 7D));
+        assertTrue(index.isLocationFree(54.5D, 4.5D));
+    }
+
+    /**
+     * Test polygon checks, including touching edges and excluded objects.
+     */
+    public void testIsPolygonFree() {
+
+        LocalBoundedObject box = new MockLocalBoundedObject(0D, 0D, 10D, 10D, 0D);
+        LocalAreaIndex index = new LocalAreaIndex(Collections.singleton(box));
+
+        double[] crossing = LocalAreaIndex.getCorners(0D, 0D, .001D, 20D, 90D);
+        assertFalse(index.isPolygonFree(null, crossing));
+        assertTrue(index.isPolygonFree(box, crossing));
+
+        double[] touching = LocalAreaIndex.getCorners(new Rectangle2D.Double(5D, -5D, 10D, 10D));
+        assertTrue(index.isPolygonFree(null, touching));
+
+        double[] overlapping = LocalAreaIndex.getCorners(new Rectangle2D.Double(4.9D, -5D, 10D, 10D));
+        assertFalse(index.isPolygonFree(null, overlapping));
+
+        double[] away = LocalAreaIndex.getCorners(20D, 20D, 2D, 2D, 30D);
+        assertTrue(index.isPolygonFree(null, away));
+    }
+
+    /**
+     * Test that an empty index has no collisions.
+     */
+    public void testEmptyIndex() {
+
+        LocalAreaIndex index = new LocalAreaIndex(new ArrayList<LocalBoundedObject>());
+
+        assertTrue(index.getObjects().isEmpty());
+        assertTrue(index.isLocationFree(0D, 0D));
+        assertTrue(index.isPolygonFree(null, LocalAreaIndex.getCorners(0D, 0D, 10D, 10D, 0D)));
+    }
+
+    /**
+     * Test that each new index has a new version.
+     */
+    public void testVersion() {
+
+        List<LocalBoundedObject> objects = new ArrayList<LocalBoundedObject>();
+        LocalAreaIndex index1 = new LocalAreaIndex(objects);
+        LocalAreaIndex index2 = new LocalAreaIndex(objects);
+
+        assertTrue(index1.getVersion() != index2.getVersion());
+    }
+
+    /**
+     * Test that polygon checks match intersecting the union area of all objects.
+     */
+    public void testMatchesAreaIntersection() {
+
+        Random random = new Random(42L);
+        List<LocalBoundedObject> objects = new ArrayList<LocalBoundedObject>();
+        Area obstacleArea = new Area();
+        for (int x = 0; x < 30; x++) {
+            LocalBoundedObject object = new MockLocalBoundedObject(random.nextDouble() * 200D - 100D,
+                    random.nextDouble() * 200D - 100D, 5D + random.nextDouble() * 20D,
+                    5D + random.nextDouble() * 20D, random.nextDouble() * 360D);
+            objects.add(object);
+            obstacleArea.add(new Area(getPath(object.getXLocation(), object.getYLocation(),
+                    object.getWidth(), object.getLength(), object.getFacing())));
+        }
+        LocalAreaIndex index = new LocalAreaIndex(objects);
+
+        for (int x = 0; x < 500; x++) {
+            double xLoc = random.nextDouble() * 240D - 120D;
+            double yLoc = random.nextDouble() * 240D - 120D;
+            double length = random.nextDouble() * 50D;
+            double facing = random.nextDouble() * 360D;
+
+            Area pathArea = new Area(getPath(xLoc, yLoc, .001D, length, facing));
+            pathArea.intersect(obstacleArea);
+            boolean expected = pathArea.isEmpty();
+
+            assertEquals(expected, index.isPolygonFree(null,
+                    LocalAreaIndex.getCorners(xLoc, yLoc, .001D, length, facing)));
+            assertEquals(obstacleArea.contains(xLoc, yLoc), !index.isLocationFree(xLoc, yLoc));
+        }
+    }
+
+    /**
+     * Gets the path of a rectangle rotated about its center.
+     */
+    private Path2D getPath(double xLoc, double yLoc, double width, double length, double facing) {
+        Rectangle2D rect = new Rectangle2D.Double(xLoc - (width / 2D), yLoc - (length / 2D), width, length);
+        AffineTransform at = AffineTransform.getRotateInstance(Math.toRadians(facing), xLoc, yLoc);
+        return new Path2D.Double(rect, at);
+    }
+}
@@ -0,0 +1,163 @@
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the RandomUtil class.
+ */
+public class TestRandomUtil extends TestCase {
+
+    private static final int DRAWS = 1000;
+
+    /**
+     * Test that the same seed repeats the same numbers.
+     */
+    public void testSetSeed() {
+        RandomUtil.setSeed(1L);
+        List<Integer> first = draw(100);
+        RandomUtil.setSeed(1L);
+        List<Integer> second = draw(100);
+        RandomUtil.setSeed(2L);
+        List<Integer> third = draw(100);
+
+        assertEquals(first, second);
+        assertFalse(first.equals(third));
+    }
+
+    /**
+     * Test that a unit's numbers don't depend on draws from other units.
+     */
+    public void testUnitStreamsIndependent() {
+        Unit unit1 = new MockUnit1();
+        Unit unit2 = new MockUnit2();
+
+        RandomUtil.setSeed(5L);
+        List<Integer> unit1Draws = drawFrom(unit1, 50);
+        List<Integer> unit2Draws = drawFrom(unit2, 50);
+        assertFalse(unit1Draws.equals(unit2Draws));
+
+        RandomUtil.setSeed(5L);
+        List<Integer> unit1Interleaved = new ArrayList<Integer>();
+        List<Integer> unit2Interleaved = new ArrayList<Integer>();
+        for (int x = 0; x < 50; x++) {
+            unit2Interleaved.addAll(drawFrom(unit2, 1));
+            draw(3);
+            unit1Interleaved.addAll(drawFrom(unit1, 1));
+        }
+
+        assertEquals(unit1Draws, unit1Interleaved);
+        assertEquals(unit2Draws, unit2Interleaved);
+    }
+
+    /**
+     * Test that binding and restoring streams nests.
+     */
+    public void testBindStream() {
+        Unit unit1 = new MockUnit1();
+        Unit unit2 = new MockUnit2();
+
+        MersenneTwisterFast previous1 = RandomUtil.bindStream(unit1);
+        MersenneTwisterFast previous2 = RandomUtil.bindStream(unit2);
+        assertSame(RandomUtil.getStream(unit1), previous2);
+        RandomUtil.restoreStream(previous2);
+        RandomUtil.restoreStream(previous1);
+        assertNull(previous1);
+        assertSame(RandomUtil.getStream(unit1), RandomUtil.getStream(unit1));
+    }
+
+    /**
+     * Test that units draw the same numbers regardless of the number of threads.
+     */
+    public void testThreadCountIndependent() throws Exception {
+        List<Unit> units = new ArrayList<Unit>();
+        for (int x = 0; x < 16; x++) {
+            units.add(new Unit("Test Unit " + x, new Coordinates(0D, 0D)) {
+                private static final long serialVersionUID = 1L;
+            });
+        }
+
+        RandomUtil.setSeed(42L);
+        List<List<Integer>> oneThread = drawInParallel(units, 1);
+        RandomUtil.setSeed(42L);
+        List<List<Integer>> fourThreads = drawInParallel(units, 4);
+
+        assertEquals(oneThread, fourThreads);
+        assertFalse(oneThread.get(0).equals(oneThread.get(1)));
+    }
+
+    /**
+     * Test that threads with the same name draw different numbers.
+     */
+    public void testSameThreadNames() throws Exception {
+        final List<List<Integer>> draws = new ArrayList<List<Integer>>();
+        Thread[] threads = new Thread[2];
+        for (int x = 0; x < threads.length; x++) {
+            final int index = x;
+            draws.add(null);
+            threads[x] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    draws.set(index, draw(100));
+                }
+            }, "same-name");
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, draws.get(0).size());
+        assertEquals(100, draws.get(1).size());
+        assertFalse(draws.get(0).equals(draws.get(1)));
+    }
+
+    private List<List<Integer>> drawInParallel(List<Unit> units, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<Future<List<Integer>>>();
+            for (final Unit unit : units) {
+                futures.add(executor.submit(new Callable<List<Integer>>() {
+                    @Override
+                    public List<Integer> call() {
+                        return drawFrom(unit, DRAWS);
+                    }
+                }));
+            }
+            List<List<Integer>> result = new ArrayList<List<Integer>>();
+            for (Future<List<Integer>> future : futures) {
+                result.add(future.get());
+            }
+            return result;
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Integer> drawFrom(Unit unit, int draws) {
+        MersenneTwisterFast previous = RandomUtil.bindStream(unit);
+        try {
+            return draw(draws);
+        }
+        finally {
+            RandomUtil.restoreStream(previous);
+        }
+    }
+
+    private static List<Integer> draw(int draws) {
+        List<Integer> result = new ArrayList<Integer>(draws);
+        for (int x = 0; x < draws; x++) {
+            result.add(RandomUtil.getRandomInt(1000000));
+        }
+        return result;
+    }
+}
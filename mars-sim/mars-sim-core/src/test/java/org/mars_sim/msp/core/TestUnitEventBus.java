@@ -0,0 +1,178 @@
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the UnitEventBus class.
+ */
+public class TestUnitEventBus extends TestCase {
+
+	/**
+	 * A listener recording the batches it receives.
+	 */
+	private static class RecordingListener implements UnitBatchListener {
+
+		private List<List<UnitEvent>> batches = new ArrayList<List<UnitEvent>>();
+		private CountDownLatch latch;
+
+		RecordingListener(int expectedBatches) {
+			latch = new CountDownLatch(expectedBatches);
+		}
+
+		@Override
+		public synchronized void unitUpdates(List<UnitEvent> events) {
+			batches.add(events);
+			latch.countDown();
+		}
+
+		synchronized List<List<UnitEvent>> getBatches() {
+			return new ArrayList<List<UnitEvent>>(batches);
+		}
+	}
+
+	/**
+	 * An executor running tasks only when asked.
+	 */
+	private static class ManualExecutor implements Executor {
+
+		private List<Runnable> tasks = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		void runAll() {
+			List<Runnable> toRun = new ArrayList<Runnable>(tasks);
+			tasks.clear();
+			for (Runnable task : toRun) task.run();
+		}
+	}
+
+	private static final Executor DIRECT = new Executor() {
+		@Override
+		public void execute(Runnable task) {
+			task.run();
+		}
+	};
+
+	/**
+	 * Test that only the last event of each unit and event type is kept, in first posted order.
+	 */
+	public void testCoalescing() {
+		Unit unit1 = new MockUnit1();
+		Unit unit2 = new MockUnit2();
+		RecordingListener listener = new RecordingListener(1);
+		UnitEventBus bus = new UnitEventBus(listener, DIRECT, 1D);
+
+		bus.post(new UnitEvent(unit1, UnitEventType.NAME_EVENT, "a"));
+		bus.post(new UnitEvent(unit2, UnitEventType.NAME_EVENT, "b"));
+		bus.post(new UnitEvent(unit1, UnitEventType.MASS_EVENT, null));
+		bus.post(new UnitEvent(unit1, UnitEventType.NAME_EVENT, "c"));
+		assertEquals(3, bus.getPendingCount());
+
+		List<UnitEvent> events = bus.drain();
+		assertEquals(3, events.size());
+		assertSame(unit1, events.get(0).getSource());
+		assertEquals("c", events.get(0).getTarget());
+		assertSame(unit2, events.get(1).getSource());
+		assertEquals(UnitEventType.MASS_EVENT, events.get(2).getType());
+		assertEquals(0, bus.getPendingCount());
+		bus.destroy();
+	}
+
+	/**
+	 * Test that a frame is delivered as one batch, and that events posted while a batch
+	 * waits to be delivered are held for the next frame.
+	 */
+	public void testBatchDelivery() {
+		Unit unit = new MockUnit1();
+		RecordingListener listener = new RecordingListener(2);
+		ManualExecutor executor = new ManualExecutor();
+		UnitEventBus bus = new UnitEventBus(listener, executor, 1D);
+
+		bus.post(new UnitEvent(unit, UnitEventType.NAME_EVENT, "a"));
+		bus.post(new UnitEvent(unit, UnitEventType.MASS_EVENT, null));
+		bus.flush();
+		assertEquals(0, bus.getPendingCount());
+
+		bus.post(new UnitEvent(unit, UnitEventType.NAME_EVENT, "b"));
+		bus.flush();
+		assertEquals(1, bus.getPendingCount());
+		assertTrue(listener.getBatches().isEmpty());
+
+		executor.runAll();
+		assertEquals(1, listener.getBatches().size());
+		assertEquals(2, listener.getBatches().get(0).size());
+
+		bus.flush();
+		executor.runAll();
+		assertEquals(2, listener.getBatches().size());
+		assertEquals("b", listener.getBatches().get(1).get(0).getTarget());
+		bus.destroy();
+	}
+
+	/**
+	 * Test that posted events are delivered by the frame timer.
+	 */
+	public void testTimedDelivery() throws InterruptedException {
+		Unit unit = new MockUnit1();
+		RecordingListener listener = new RecordingListener(1);
+		UnitEventBus bus = new UnitEventBus(listener, DIRECT, 100D);
+
+		unit.addUnitListener(bus);
+		for (int x = 0; x < 100; x++) {
+			unit.setName("Unit " + x);
+		}
+
+		assertTrue(listener.latch.await(5L, TimeUnit.SECONDS));
+		long deadline = System.currentTimeMillis() + 5000L;
+		while ((bus.getPendingCount() > 0) && (System.currentTimeMillis() < deadline)) {
+			Thread.sleep(10L);
+		}
+		Thread.sleep(50L);
+		List<List<UnitEvent>> batches = listener.getBatches();
+		assertTrue(batches.size() <= 100);
+		for (List<UnitEvent> batch : batches) {
+			assertEquals(1, batch.size());
+		}
+		assertEquals("Unit 99", batches.get(batches.size() - 1).get(0).getTarget());
+		unit.removeUnitListener(bus);
+		bus.destroy();
+	}
+
+	/**
+	 * Test that a destroyed bus drops its events.
+	 */
+	public void testDestroy() {
+		RecordingListener listener = new RecordingListener(1);
+		UnitEventBus bus = new UnitEventBus(listener, DIRECT, 1D);
+		bus.destroy();
+		bus.post(new UnitEvent(new MockUnit1(), UnitEventType.NAME_EVENT, "a"));
+		bus.flush();
+		assertEquals(0, bus.getPendingCount());
+		assertTrue(listener.getBatches().isEmpty());
+	}
+
+	/**
+	 * Test that the refresh rate must be positive.
+	 */
+	public void testRefreshRate() {
+		UnitEventBus bus = new UnitEventBus(new RecordingListener(1), DIRECT, 30D);
+		assertEquals(30D, bus.getRefreshRate());
+		try {
+			bus.setRefreshRate(0D);
+			fail("Zero refresh rate accepted.");
+		}
+		catch (IllegalArgumentException e) {
+			// Expected.
+		}
+		bus.destroy();
+	}
+}
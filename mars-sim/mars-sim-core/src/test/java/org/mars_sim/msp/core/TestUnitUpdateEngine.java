@@ -0,0 +1,107 @@
+package org.mars_sim.msp.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the UnitUpdateEngine class.
+ */
+public class TestUnitUpdateEngine extends TestCase {
+
+	private static final int NUM_UNITS = 50;
+
+	/**
+	 * A mock unit counting its time pulses.
+	 */
+	private static class CountingUnit extends Unit {
+
+		private static final long serialVersionUID = 1L;
+
+		private AtomicInteger pulses = new AtomicInteger();
+		private double time;
+
+		CountingUnit(String name) {
+			super(name, new Coordinates(0D, 0D));
+		}
+
+		@Override
+		public void timePassing(double time) {
+			this.time += time;
+			pulses.incrementAndGet();
+		}
+	}
+
+	private List<Unit> createUnits() {
+		List<Unit> units = new ArrayList<Unit>();
+		for (int x = 0; x < NUM_UNITS; x++) {
+			units.add(new CountingUnit("Counting Unit " + x));
+		}
+		return units;
+	}
+
+	/**
+	 * Test that sequential mode passes time to every unit once per pulse.
+	 */
+	public void testSequentialTimePassing() {
+		List<Unit> units = createUnits();
+		UnitUpdateEngine engine = new UnitUpdateEngine(false, 0);
+
+		engine.timePassing(units, 1D);
+		engine.timePassing(units, 2D);
+
+		for (Unit unit : units) {
+			CountingUnit countingUnit = (CountingUnit) unit;
+			assertEquals(2, countingUnit.pulses.get());
+			assertEquals(3D, countingUnit.time, 0D);
+		}
+		assertEquals(2L, engine.getPulses());
+		engine.destroy();
+	}
+
+	/**
+	 * Test that parallel mode passes time to every unit once per pulse.
+	 */
+	public void testParallelTimePassing() {
+		List<Unit> units = createUnits();
+		UnitUpdateEngine engine = new UnitUpdateEngine(true, 4);
+
+		for (int x = 0; x < 10; x++) {
+			engine.timePassing(units, 1D);
+		}
+
+		for (Unit unit : units) {
+			assertEquals(10, ((CountingUnit) unit).pulses.get());
+		}
+		engine.destroy();
+	}
+
+	/**
+	 * Test that contained units are partitioned by their top container unit.
+	 */
+	public void testPartitionKey() {
+		Unit container = new MockUnit1();
+		Unit contained = new CountingUnit("Contained Unit");
+		contained.setContainerUnit(container);
+
+		assertSame(container, UnitUpdateEngine.getPartitionKey(contained));
+		assertSame(container, UnitUpdateEngine.getPartitionKey(container));
+	}
+
+	/**
+	 * Test that phase times are recorded.
+	 */
+	public void testPhaseTimes() {
+		UnitUpdateEngine engine = new UnitUpdateEngine(false, 0);
+		assertEquals(0D, engine.getAveragePhaseTime(UnitUpdatePhase.EQUIPMENT), 0D);
+
+		engine.timePassing(createUnits(), 1D);
+		for (UnitUpdatePhase phase : UnitUpdatePhase.values()) {
+			assertTrue(engine.getLastPhaseTime(phase) >= 0D);
+			assertEquals(engine.getTotalPhaseTime(phase), engine.getAveragePhaseTime(phase), 0.000001D);
+		}
+		engine.destroy();
+	}
+}
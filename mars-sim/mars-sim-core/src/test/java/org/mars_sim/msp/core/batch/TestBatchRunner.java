@@ -0,0 +1,52 @@
+package org.mars_sim.msp.core.batch;
+
+import org.mars_sim.msp.core.time.MarsClock;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the BatchRunner class.
+ */
+public class TestBatchRunner extends TestCase {
+
+    private static final long SEED = 42L;
+
+    /**
+     * Test a seeded headless run of one sol.
+     */
+    public void testRun() throws Exception {
+        BatchRunner runner = new BatchRunner(SEED, 10D);
+        runner.createSimulation();
+
+        BatchReport report = runner.run(1);
+
+        assertEquals(SEED, report.getSeed());
+        assertEquals(100L, report.getPulses());
+        assertEquals(MarsClock.convertMillisolsToSeconds(1000D), report.getSimSeconds(), .001D);
+        assertTrue(report.getSimSecondsPerWallSecond() > 0D);
+        assertEquals(5, report.getSubsystemTimes().size());
+        assertTrue(report.getSubsystemTimes().containsKey("units"));
+        assertNotNull(report.toString());
+    }
+
+    /**
+     * Test that invalid runs are rejected.
+     */
+    public void testInvalidRun() {
+        try {
+            new BatchRunner(SEED, 0D);
+            fail("Zero time pulse was accepted.");
+        }
+        catch (IllegalArgumentException e) {
+            // Expected.
+        }
+
+        try {
+            new BatchRunner().run(0);
+            fail("Zero sols was accepted.");
+        }
+        catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+}
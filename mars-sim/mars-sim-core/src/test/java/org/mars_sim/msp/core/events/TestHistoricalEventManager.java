@@ -0,0 +1,289 @@
+package org.mars_sim.msp.core.events;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mars_sim.msp.core.MockUnit1;
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.person.EventType;
+import org.mars_sim.msp.core.structure.MockSettlement;
+import org.mars_sim.msp.core.structure.Settlement;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the HistoricalEventManager and HistoricalEventArchive classes.
+ */
+public class TestHistoricalEventManager extends TestCase {
+
+	private static final int CAPACITY = 10;
+
+	/**
+	 * A historical event for testing.
+	 */
+	private static class MockEvent extends HistoricalEvent {
+
+		MockEvent(HistoricalEventCategory category, Object source, String description) {
+			super(category, EventType.TASK_START, source, description);
+		}
+	}
+
+	/**
+	 * A listener counting events added and removed.
+	 */
+	private static class CountingListener implements HistoricalEventListener {
+
+		private int added;
+		private int removed;
+
+		@Override
+		public void eventAdded(int index, HistoricalEvent event) {
+			assertEquals(0, index);
+			added++;
+		}
+
+		@Override
+		public void eventsRemoved(int startIndex, int endIndex) {
+			assertEquals(CAPACITY - 1, startIndex);
+			assertEquals(CAPACITY, endIndex);
+			removed++;
+		}
+	}
+
+	private File archiveDir;
+
+	@Override
+	protected void setUp() throws Exception {
+		SimulationConfig.loadConfig();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (archiveDir != null) {
+			File[] files = archiveDir.listFiles();
+			if (files != null) for (File file : files) file.delete();
+			archiveDir.delete();
+		}
+	}
+
+	/**
+	 * Test that the most recent events are kept, most recent first.
+	 */
+	public void testRingBuffer() {
+		HistoricalEventManager manager = new HistoricalEventManager(CAPACITY);
+		CountingListener listener = new CountingListener();
+		manager.addListener(listener);
+
+		for (int x = 0; x < 25; x++) {
+			manager.registerNewEvent(new MockEvent(HistoricalEventCategory.TASK, null, "Event " + x));
+		}
+
+		assertEquals(CAPACITY, manager.size());
+		assertEquals(25L, manager.getRegisteredNum());
+		for (int x = 0; x < CAPACITY; x++) {
+			assertEquals("Event " + (24 - x), manager.getEvent(x).getDescription());
+			assertEquals(24L - x, manager.getEvent(x).getSequence());
+		}
+		assertEquals(25, listener.added);
+		assertEquals(15, listener.removed);
+
+		try {
+			manager.getEvent(CAPACITY);
+			fail("Event outside the buffer returned.");
+		}
+		catch (IndexOutOfBoundsException e) {
+			// Expected.
+		}
+	}
+
+	/**
+	 * Test that the category, settlement and unit indexes follow the stored events.
+	 */
+	public void testIndexes() {
+		HistoricalEventManager manager = new HistoricalEventManager(CAPACITY);
+		Settlement settlement = new MockSettlement();
+		Unit unit = new MockUnit1();
+
+		for (int x = 0; x < 14; x++) {
+			HistoricalEventCategory category = ((x % 2) == 0) ? HistoricalEventCategory.MEDICAL :
+				HistoricalEventCategory.MALFUNCTION;
+			Object source = ((x % 3) == 0) ? settlement : unit;
+			manager.registerNewEvent(new MockEvent(category, source, "Event " + x));
+		}
+
+		// Events 4 to 13 are stored.
+		List<HistoricalEvent> medical = manager.getEvents(HistoricalEventCategory.MEDICAL);
+		assertEquals(5, medical.size());
+		assertEquals("Event 12", medical.get(0).getDescription());
+		assertEquals("Event 4", medical.get(4).getDescription());
+
+		List<HistoricalEvent> settlementEvents = manager.getEvents(settlement);
+		assertEquals(3, settlementEvents.size());
+		assertEquals("Event 12", settlementEvents.get(0).getDescription());
+		assertEquals("Event 6", settlementEvents.get(2).getDescription());
+
+		assertEquals(7, manager.getEvents(unit).size());
+		assertTrue(manager.getEvents(HistoricalEventCategory.TRANSPORT).isEmpty());
+	}
+
+	/**
+	 * Test that archived events can be paged back, and that the archive is reopened.
+	 */
+	public void testArchive() throws Exception {
+		archiveDir = File.createTempFile("events", "");
+		archiveDir.delete();
+
+		HistoricalEventManager manager = new HistoricalEventManager(CAPACITY);
+		HistoricalEventArchive archive = new HistoricalEventArchive(archiveDir, 1024);
+		manager.setArchive(archive);
+		Unit unit = new MockUnit1();
+		for (int x = 0; x < 100; x++) {
+			manager.registerNewEvent(new MockEvent(HistoricalEventCategory.MISSION, unit, "Event " + x));
+		}
+
+		assertEquals(100L, archive.size());
+		assertTrue(archive.getSegmentNum() > 1);
+		ArchivedEvent oldest = archive.getEvent(99L);
+		assertEquals("Event 0", oldest.getDescription());
+		assertEquals(unit.getName(), oldest.getSource());
+		assertEquals(HistoricalEventCategory.MISSION, oldest.getCategory());
+		assertEquals(EventType.TASK_START, oldest.getType());
+
+		List<ArchivedEvent> page = archive.getEvents(20L, 30);
+		assertEquals(30, page.size());
+		assertEquals("Event 79", page.get(0).getDescription());
+		assertEquals("Event 50", page.get(29).getDescription());
+		archive.close();
+
+		HistoricalEventArchive reopened = new HistoricalEventArchive(archiveDir, 1024);
+		assertEquals(100L, reopened.size());
+		reopened.append(new MockEvent(HistoricalEventCategory.TASK, null, "Event 100"));
+		assertEquals("Event 100", reopened.getEvent(0L).getDescription());
+		assertEquals("Event 99", reopened.getEvent(1L).getDescription());
+		List<String> descriptions = new ArrayList<String>();
+		for (ArchivedEvent event : reopened.getEvents(0L, 200)) descriptions.add(event.getDescription());
+		assertEquals(101, descriptions.size());
+		assertEquals("Event 0", descriptions.get(100));
+		reopened.close();
+	}
+
+	/**
+	 * Test that the archived events no longer stored are paged from the manager, including
+	 * those stored before the archive was set.
+	 */
+	public void testArchivedEvents() throws Exception {
+		archiveDir = File.createTempFile("events", "");
+		archiveDir.delete();
+
+		HistoricalEventManager manager = new HistoricalEventManager(CAPACITY);
+		Unit unit = new MockUnit1();
+		for (int x = 0; x < 5; x++) {
+			manager.registerNewEvent(new MockEvent(HistoricalEventCategory.MISSION, unit, "Event " + x));
+		}
+		assertEquals(0L, manager.getArchivedNum());
+		assertTrue(manager.getArchivedEvents(0L, 10).isEmpty());
+
+		HistoricalEventArchive archive = new HistoricalEventArchive(archiveDir, 1024);
+		manager.setArchive(archive);
+		assertEquals(5L, archive.size());
+		for (int x = 5; x < 25; x++) {
+			manager.registerNewEvent(new MockEvent(HistoricalEventCategory.MISSION, unit, "Event " + x));
+		}
+
+		// Events 15 to 24 are stored.
+		assertEquals(15L, manager.getArchivedNum());
+		List<ArchivedEvent> page = manager.getArchivedEvents(0L, 5);
+		assertEquals(5, page.size());
+		assertEquals("Event 14", page.get(0).getDescription());
+		assertEquals("Event 10", page.get(4).getDescription());
+		page = manager.getArchivedEvents(10L, 10);
+		assertEquals(5, page.size());
+		assertEquals("Event 0", page.get(4).getDescription());
+		archive.close();
+
+		HistoricalEventArchive.delete(archiveDir);
+		assertEquals(0L, new HistoricalEventArchive(archiveDir, 1024).size());
+	}
+
+	/**
+	 * Test that a reloaded manager doesn't archive its events again, and that loading an
+	 * earlier save removes the events archived after it.
+	 */
+	public void testReload() throws Exception {
+		archiveDir = File.createTempFile("events", "");
+		archiveDir.delete();
+
+		HistoricalEventManager manager = new HistoricalEventManager(CAPACITY);
+		HistoricalEventArchive archive = new HistoricalEventArchive(archiveDir, 1024);
+		manager.setArchive(archive);
+		for (int x = 0; x < 30; x++) {
+			manager.registerNewEvent(new MockEvent(HistoricalEventCategory.TASK, null, "Event " + x));
+		}
+		byte[] saved = save(manager);
+		archive.close();
+
+		// Loaded twice, as loading a save again.
+		for (int x = 0; x < 2; x++) {
+			HistoricalEventManager reloaded = load(saved);
+			assertEquals(manager.getRunId(), reloaded.getRunId());
+			assertEquals(30L, reloaded.getRegisteredNum());
+			archive = new HistoricalEventArchive(archiveDir, 1024);
+			reloaded.setArchive(archive);
+			assertEquals(30L, archive.size());
+			archive.close();
+		}
+
+		// Running on from the save, then loading the save again.
+		HistoricalEventManager reloaded = load(saved);
+		archive = new HistoricalEventArchive(archiveDir, 1024);
+		reloaded.setArchive(archive);
+		for (int x = 30; x < 100; x++) {
+			reloaded.registerNewEvent(new MockEvent(HistoricalEventCategory.TASK, null, "Later event " + x));
+		}
+		assertEquals(100L, archive.size());
+		assertTrue(archive.getSegmentNum() > 1);
+		archive.close();
+
+		reloaded = load(saved);
+		archive = new HistoricalEventArchive(archiveDir, 1024);
+		reloaded.setArchive(archive);
+		assertEquals(30L, archive.size());
+		reloaded.registerNewEvent(new MockEvent(HistoricalEventCategory.TASK, null, "Event 30"));
+		assertEquals(30L, reloaded.getEvent(0).getSequence());
+		assertEquals(31L, archive.size());
+		archive.close();
+
+		archive = new HistoricalEventArchive(archiveDir, 1024);
+		assertEquals(31L, archive.size());
+		for (int x = 0; x <= 30; x++) {
+			assertEquals("Event " + (30 - x), archive.getEvent(x).getDescription());
+		}
+		archive.close();
+
+		assertFalse(new HistoricalEventManager().getRunId().equals(manager.getRunId()));
+	}
+
+	private static byte[] save(HistoricalEventManager manager) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(manager);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static HistoricalEventManager load(byte[] saved) throws Exception {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(saved));
+		try {
+			return (HistoricalEventManager) in.readObject();
+		}
+		finally {
+			in.close();
+		}
+	}
+}
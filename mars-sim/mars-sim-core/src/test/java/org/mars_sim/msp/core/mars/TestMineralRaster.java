@@ -0,0 +1,111 @@
+package org.mars_sim.msp.core.mars;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.mars_sim.msp.core.Coordinates;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the MineralRaster class.
+ */
+public class TestMineralRaster extends TestCase {
+
+	private static final String[] NAMES = { "Hematite", "Olivine" };
+	private static final int[] MINERALS = { 0, 0, 1 };
+	private static final double[] PHIS = { Math.PI / 2D, Math.PI / 2D + .005D, .3D };
+	private static final double[] THETAS = { .001D, .002D, 1D };
+	private static final double[] CONCENTRATIONS = { 60D, 30D, 80D };
+
+	private File cacheDir;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (cacheDir != null) {
+			File[] files = cacheDir.listFiles();
+			if (files != null) for (File file : files) file.delete();
+			cacheDir.delete();
+		}
+	}
+
+	private static MineralRaster createRaster() {
+		return MineralRaster.create(NAMES, MINERALS, PHIS, THETAS, CONCENTRATIONS, MineralRaster.DEFAULT_RESOLUTION);
+	}
+
+	/**
+	 * Gets the concentration the old per location computation gives.
+	 */
+	private static double getExpected(int mineral, double phi, double theta) {
+		Coordinates location = new Coordinates(phi, theta);
+		double result = 0D;
+		for (int x = 0; x < MINERALS.length; x++) {
+			if (MINERALS[x] != mineral) continue;
+			double distance = location.getDistance(new Coordinates(PHIS[x], THETAS[x]));
+			if (distance < CONCENTRATIONS[x]) result += (1D - (distance / CONCENTRATIONS[x])) * CONCENTRATIONS[x];
+		}
+		return Math.min(100D, result);
+	}
+
+	/**
+	 * Test that the raster follows the concentrations, including across theta 0.
+	 */
+	public void testConcentrations() {
+		MineralRaster raster = createRaster();
+		assertEquals(2, raster.getMineralNum());
+		assertEquals(1, raster.getMineralIndex("olivine"));
+		assertEquals(-1, raster.getMineralIndex("Gold"));
+
+		double[][] locations = {
+			{ Math.PI / 2D, .001D }, { Math.PI / 2D + .003D, 2D * Math.PI - .002D },
+			{ Math.PI / 2D - .01D, .01D }, { .3D, 1D }, { .305D, 1.004D },
+		};
+		for (double[] location : locations) {
+			for (int mineral = 0; mineral < NAMES.length; mineral++) {
+				double expected = getExpected(mineral, location[0], location[1]);
+				// Within the interpolation error of a cell of about 6 km, as concentrations fall by 1% a km.
+				assertEquals(expected, raster.getConcentration(mineral, location[0], location[1]), 5D);
+			}
+		}
+
+		assertTrue(raster.getConcentration(0, Math.PI / 2D, -.001D) > 50D);
+		assertEquals(0D, raster.getConcentration(0, 1D, 3D), 0D);
+		assertEquals(0D, raster.getConcentration(1, Math.PI / 2D, 0D), 0D);
+		// Only the tiles near the three concentrations are stored.
+		assertTrue(raster.getStoredTileNum() <= 16);
+	}
+
+	/**
+	 * Test that a raster is cached and read back.
+	 */
+	public void testCache() throws Exception {
+		cacheDir = File.createTempFile("minerals", "");
+		cacheDir.delete();
+
+		MineralRaster raster = MineralRaster.getRaster(cacheDir, NAMES, MINERALS, PHIS, THETAS,
+				CONCENTRATIONS, MineralRaster.DEFAULT_RESOLUTION);
+		File[] files = cacheDir.listFiles();
+		assertEquals(1, files.length);
+
+		MineralRaster cached = MineralRaster.getRaster(cacheDir, NAMES, MINERALS, PHIS, THETAS,
+				CONCENTRATIONS, MineralRaster.DEFAULT_RESOLUTION);
+		assertEquals(raster.getStoredTileNum(), cached.getStoredTileNum());
+		assertEquals("Olivine", cached.getMineralName(1));
+		for (double theta = 0D; theta < .02D; theta += .001D) {
+			assertEquals(raster.getConcentration(0, Math.PI / 2D, theta),
+					cached.getConcentration(0, Math.PI / 2D, theta), 0D);
+		}
+
+		// Other concentrations have another key.
+		double[] concentrations = CONCENTRATIONS.clone();
+		concentrations[0] = 10D;
+		long key = MineralRaster.getKey(NAMES, MINERALS, PHIS, THETAS, concentrations, MineralRaster.DEFAULT_RESOLUTION);
+		try {
+			MineralRaster.read(files[0], key);
+			fail("Raster read for other concentrations.");
+		}
+		catch (IOException e) {
+			// Expected.
+		}
+	}
+}
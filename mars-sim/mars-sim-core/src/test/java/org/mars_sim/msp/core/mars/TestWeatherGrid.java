@@ -0,0 +1,143 @@
+package org.mars_sim.msp.core.mars;
+
+import org.mars_sim.msp.core.Coordinates;
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.SimulationConfig;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the WeatherGrid class.
+ */
+public class TestWeatherGrid extends TestCase {
+
+	private static final double DELTA = .0001D;
+
+	/**
+	 * Test the grid dimensions and the positions of the grid nodes.
+	 */
+	public void testDimensions() {
+		WeatherGrid grid = new WeatherGrid(2D);
+		assertEquals(91, grid.getRowNum());
+		assertEquals(180, grid.getColumnNum());
+		assertEquals(91 * 180, grid.getCellNum());
+		assertEquals(grid.getCellNum(), grid.createField(1F).length);
+		assertEquals(0D, grid.getPhi(0), DELTA);
+		assertEquals(Math.PI, grid.getPhi(90), DELTA);
+		assertEquals(Math.PI, grid.getTheta(90), DELTA);
+
+		try {
+			new WeatherGrid(0D);
+			fail("Zero resolution accepted.");
+		}
+		catch (IllegalArgumentException e) {
+			// Expected.
+		}
+	}
+
+	/**
+	 * Test that values are interpolated between the grid nodes, across the
+	 * zero longitude and up to the poles.
+	 */
+	public void testInterpolation() {
+		WeatherGrid grid = new WeatherGrid(10D);
+		float[] field = grid.createField(0F);
+		for (int row = 0; row < grid.getRowNum(); row++) {
+			for (int column = 0; column < grid.getColumnNum(); column++) {
+				field[grid.getCell(row, column)] = row * 100 + column;
+			}
+		}
+
+		// At a node.
+		assertEquals(305D, grid.getValue(field, grid.getPhi(3), grid.getTheta(5)), DELTA);
+		// Between nodes.
+		double phi = (grid.getPhi(3) + grid.getPhi(4)) / 2D;
+		double theta = (grid.getTheta(5) + grid.getTheta(6)) / 2D;
+		assertEquals(355.5D, grid.getValue(field, phi, theta), DELTA);
+		// Between the last column and the first.
+		int last = grid.getColumnNum() - 1;
+		theta = (grid.getTheta(last) + 2D * Math.PI) / 2D;
+		assertEquals(300D + last / 2D, grid.getValue(field, grid.getPhi(3), theta), DELTA);
+		assertEquals(300D + last / 2D, grid.getValue(field, grid.getPhi(3), theta - 2D * Math.PI), DELTA);
+		// At the south pole.
+		int south = grid.getRowNum() - 1;
+		assertEquals(south * 100D + 5D, grid.getValue(field, new Coordinates(Math.PI, grid.getTheta(5))), DELTA);
+	}
+
+	/**
+	 * Test finding the nearest grid node to a location.
+	 */
+	public void testNearestCell() {
+		WeatherGrid grid = new WeatherGrid(10D);
+		Coordinates location = new Coordinates(grid.getPhi(4) + .01D, grid.getTheta(7) - .01D);
+		int cell = grid.getNearestCell(location);
+		assertEquals(grid.getCell(4, 7), cell);
+		Coordinates node = grid.getCoordinates(cell);
+		assertEquals(grid.getPhi(4), node.getPhi(), DELTA);
+		assertEquals(grid.getTheta(7), node.getTheta(), DELTA);
+
+		location = new Coordinates(grid.getPhi(2), 2D * Math.PI - .01D);
+		assertEquals(grid.getCell(2, 0), grid.getNearestCell(location));
+	}
+
+	/**
+	 * Test that every row is updated once.
+	 */
+	public void testUpdate() {
+		WeatherGrid grid = new WeatherGrid(1D);
+		final float[] field = grid.createField(0F);
+		final int columnNum = grid.getColumnNum();
+		grid.update(row -> {
+			for (int column = 0; column < columnNum; column++) {
+				field[row * columnNum + column] += 1F;
+			}
+		});
+		for (float value : field) {
+			assertEquals(1F, value);
+		}
+	}
+
+	/**
+	 * Test that the noise is repeatable and in range.
+	 */
+	public void testNoise() {
+		double sum = 0D;
+		for (int cell = 0; cell < 10000; cell++) {
+			double noise = WeatherGrid.getNoise(42L, cell);
+			assertTrue((noise >= 0D) && (noise < 1D));
+			assertEquals(noise, WeatherGrid.getNoise(42L, cell));
+			double difference = WeatherGrid.getNoiseDifference(42L, cell);
+			assertTrue((difference > -1D) && (difference < 1D));
+			sum += noise;
+		}
+		assertEquals(.5D, sum / 10000D, .02D);
+		assertFalse(WeatherGrid.getNoise(42L, 1) == WeatherGrid.getNoise(43L, 1));
+	}
+
+	/**
+	 * Test that noise seeds can be drawn repeatedly.
+	 */
+	public void testNoiseSeed() {
+		for (int x = 0; x < 1000; x++) {
+			assertTrue(WeatherGrid.createNoiseSeed() >= 0L);
+		}
+	}
+
+	/**
+	 * Test that the surface features and weather fields are updated as time passes.
+	 */
+	public void testTimePassing() {
+		SimulationConfig.loadConfig();
+		Simulation.createNewSimulation();
+		Mars mars = Simulation.instance().getMars();
+		Coordinates location = new Coordinates(Math.PI / 2D, 0D);
+
+		mars.getSurfaceFeatures().timePassing(1D);
+		mars.getWeather().timePassing(1D);
+		mars.getSurfaceFeatures().timePassing(1D);
+
+		double irradiance = mars.getSurfaceFeatures().getSolarIrradiance(location);
+		assertTrue(irradiance >= 0D);
+		assertFalse(Double.isNaN(mars.getWeather().getTemperature(location)));
+	}
+}
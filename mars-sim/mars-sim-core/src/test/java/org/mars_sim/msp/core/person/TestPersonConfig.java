@@ -0,0 +1,205 @@
+package org.mars_sim.msp.core.person;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.jdom.Document;
+import org.jdom.Element;
+import org.mars_sim.msp.core.SimulationConfig;
+
+/**
+ * Unit test suite for the PersonConfig class.
+ */
+public class TestPersonConfig extends TestCase {
+
+	private static final String[] VALUES = new String[] {
+		"oxygen-consumption-rate", "water-consumption-rate", "food-consumption-rate",
+		"dessert-consumption-rate", "oxygen-deprivation-time", "water-deprivation-time",
+		"food-deprivation-time", "starvation-start-time", "min-air-pressure", "decompression-time",
+		"min-temperature", "max-temperature", "freezing-time", "stress-breakdown-chance"
+	};
+
+	private Document personDoc;
+
+	@Override
+	protected void setUp() throws Exception {
+		SimulationConfig.loadConfig();
+		personDoc = SimulationConfig.parseXMLFileAsJDOMDocument(SimulationConfig.PEOPLE_FILE, true);
+	}
+
+	/**
+	 * Test that the compiled getters return the values in the people configuration file.
+	 */
+	public void testGetters() {
+		checkConfig(SimulationConfig.instance().getPersonConfiguration());
+	}
+
+	/**
+	 * Test that a configuration saved with its document, before the configuration was
+	 * compiled, is compiled when read.
+	 */
+	public void testReadDocument() throws Exception {
+		LegacyPersonConfig legacy = new LegacyPersonConfig(personDoc);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(legacy);
+		out.close();
+
+		byte[] saved = rename(bytes.toByteArray(), LegacyPersonConfig.class.getName(), PersonConfig.class.getName());
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(saved));
+		PersonConfig config = (PersonConfig) in.readObject();
+		in.close();
+
+		checkConfig(config);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void checkConfig(PersonConfig config) {
+		Element root = personDoc.getRootElement();
+		double[] values = new double[] {
+			config.getOxygenConsumptionRate(), config.getWaterConsumptionRate(), config.getFoodConsumptionRate(),
+			config.getDessertConsumptionRate(), config.getOxygenDeprivationTime(), config.getWaterDeprivationTime(),
+			config.getFoodDeprivationTime(), config.getStarvationStartTime(), config.getMinAirPressure(),
+			config.getDecompressionTime(), config.getMinTemperature(), config.getMaxTemperature(),
+			config.getFreezingTime(), config.getStressBreakdownChance()
+		};
+		for (int x = 0; x < VALUES.length; x++) {
+			assertEquals(VALUES[x], getValue(root, VALUES[x]), values[x]);
+		}
+		assertEquals(getValue(root, "gender-male-percentage") / 100D, config.getGenderRatio());
+
+		// The last entry of a name gives its gender.
+		List<String> names = new ArrayList<String>();
+		Map<String, String> genders = new HashMap<String, String>();
+		for (Element element : (List<Element>) root.getChild("person-name-list").getChildren("person-name")) {
+			names.add(element.getAttributeValue("value"));
+			genders.put(element.getAttributeValue("value"), element.getAttributeValue("gender"));
+		}
+		assertEquals(names, config.getPersonNameList());
+		for (String name : names) {
+			assertEquals(PersonGender.valueOfIgnoreCase(genders.get(name)), config.getPersonGender(name));
+		}
+
+		// The first entry of a personality type gives its percentage.
+		Map<String, Double> percentages = new HashMap<String, Double>();
+		for (Element element : (List<Element>) root.getChild("personality-types").getChildren("mbti")) {
+			String type = element.getAttributeValue("type");
+			if (!percentages.containsKey(type)) {
+				percentages.put(type, Double.valueOf(element.getAttributeValue("percentage")));
+			}
+		}
+		assertFalse(percentages.isEmpty());
+		for (String type : percentages.keySet()) {
+			assertEquals(percentages.get(type), config.getPersonalityTypePercentage(type));
+		}
+
+		List<Element> people = root.getChild("person-list").getChildren("person");
+		assertEquals(people.size(), config.getNumberOfConfiguredPeople());
+		for (int x = 0; x < people.size(); x++) {
+			Element person = people.get(x);
+			assertEquals(person.getAttributeValue("name"), config.getConfiguredPersonName(x));
+			assertEquals(PersonGender.valueOfIgnoreCase(person.getAttributeValue("gender")),
+					config.getConfiguredPersonGender(x));
+			assertEquals(person.getAttributeValue("personality-type"), config.getConfiguredPersonPersonalityType(x));
+			assertEquals(person.getAttributeValue("settlement"), config.getConfiguredPersonSettlement(x));
+			assertEquals(person.getAttributeValue("job"), config.getConfiguredPersonJob(x));
+			assertEquals(person.getAttributeValue("favorite-main-dish"), config.getFavoriteMainDish(x));
+			assertEquals(person.getAttributeValue("favorite-side-dish"), config.getFavoriteSideDish(x));
+			assertEquals(person.getAttributeValue("favorite-dessert"), config.getFavoriteDessert(x));
+			assertEquals(person.getAttributeValue("favorite-activity"), config.getFavoriteActivity(x));
+			assertEquals(getIntegerMap(person, "natural-attribute-list", "natural-attribute", "name", "value"),
+					config.getNaturalAttributeMap(x));
+			assertEquals(getIntegerMap(person, "skill-list", "skill", "name", "level"), config.getSkillMap(x));
+			assertEquals(getIntegerMap(person, "relationship-list", "relationship", "person-name", "opinion"),
+					config.getRelationshipMap(x));
+		}
+	}
+
+	private static double getValue(Element root, String child) {
+		return Double.parseDouble(root.getChild(child).getAttributeValue("value"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Integer> getIntegerMap(Element person, String listName, String entryName,
+			String keyName, String valueName) {
+		Map<String, Integer> result = new HashMap<String, Integer>();
+		Element list = person.getChild(listName);
+		if (list != null) {
+			for (Element entry : (List<Element>) list.getChildren(entryName)) {
+				result.put(entry.getAttributeValue(keyName), Integer.valueOf(entry.getAttributeValue(valueName)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Replaces a class name written in serialized bytes with another class name.
+	 */
+	private static byte[] rename(byte[] bytes, String oldName, String newName) throws Exception {
+		byte[] oldBytes = toUTF(oldName);
+		byte[] newBytes = toUTF(newName);
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		int x = 0;
+		while (x < bytes.length) {
+			if (startsWith(bytes, x, oldBytes)) {
+				result.write(newBytes);
+				x += oldBytes.length;
+			}
+			else {
+				result.write(bytes[x++]);
+			}
+		}
+		return result.toByteArray();
+	}
+
+	private static byte[] toUTF(String name) {
+		byte[] bytes = name.getBytes();
+		byte[] result = new byte[bytes.length + 2];
+		result[0] = (byte) (bytes.length >> 8);
+		result[1] = (byte) bytes.length;
+		System.arraycopy(bytes, 0, result, 2, bytes.length);
+		return result;
+	}
+
+	private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+		if (offset + prefix.length > bytes.length) return false;
+		for (int x = 0; x < prefix.length; x++) {
+			if (bytes[offset + x] != prefix[x]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The person configuration as saved before it was compiled, with the same fields as
+	 * the PersonConfig class had.
+	 */
+	private static class LegacyPersonConfig implements Serializable {
+
+		/** default serial id. */
+		private static final long serialVersionUID = 1L;
+
+		private List<String> alphaCrewName;
+		private List<String> alphaCrewGender;
+		private List<String> alphaCrewPersonality;
+		private List<String> alphaCrewJob;
+		private List<String> alphaCrewFavoriteMainDish;
+		private List<String> alphaCrewFavoriteSideDish;
+		private List<String> alphaCrewFavoriteDessert;
+		private List<String> alphaCrewFavoriteActivity;
+		private Document personDoc;
+		private List<String> nameList;
+
+		private LegacyPersonConfig(Document personDoc) {
+			this.personDoc = personDoc;
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package org.mars_sim.msp.core.person.ai.legacy;
+
+import java.io.Serializable;
+
+import org.mars_sim.msp.core.person.Person;
+
+/**
+ * The relationship as saved before the relationships were held in adjacency arrays,
+ * with the same fields as the social package's class had, for writing old saves in tests.
+ */
+class Relationship implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	private Person person1;
+	private double person1Opinion;
+	private Person person2;
+	private double person2Opinion;
+
+	Relationship(Person person1, double person1Opinion, Person person2, double person2Opinion) {
+		this.person1 = person1;
+		this.person1Opinion = person1Opinion;
+		this.person2 = person2;
+		this.person2Opinion = person2Opinion;
+	}
+}
@@ -0,0 +1,52 @@
+package org.mars_sim.msp.core.person.ai.legacy;
+
+import java.io.Serializable;
+
+import org.mars_sim.msp.core.person.Person;
+
+import com.phoenixst.plexus.DefaultGraph;
+import com.phoenixst.plexus.Graph;
+
+/**
+ * The relationship manager as saved before the relationships were held in adjacency arrays,
+ * with the same fields as the social package's class had, for writing old saves in tests.
+ * Its package name has the same length as the social package, so the class names can be
+ * replaced in the saved bytes.
+ */
+public class RelationshipManager implements Serializable {
+
+	/** default serial id. */
+	private static final long serialVersionUID = 1L;
+
+	/** The relationship graph. */
+	private Graph relationshipGraph;
+	int count = 0;
+
+	/**
+	 * Constructor.
+	 */
+	public RelationshipManager() {
+		relationshipGraph = new DefaultGraph();
+	}
+
+	/**
+	 * Adds a person.
+	 * @param person the person.
+	 */
+	public void addPerson(Person person) {
+		relationshipGraph.addNode(person);
+	}
+
+	/**
+	 * Adds a relationship between two people.
+	 * @param person1 the first person.
+	 * @param person1Opinion person 1's opinion of person 2.
+	 * @param person2 the second person.
+	 * @param person2Opinion person 2's opinion of person 1.
+	 */
+	public void addRelationship(Person person1, double person1Opinion, Person person2, double person2Opinion) {
+		Relationship relationship = new Relationship(person1, person1Opinion, person2, person2Opinion);
+		relationshipGraph.addEdge(relationship, person1, person2, false);
+		count++;
+	}
+}
@@ -0,0 +1,153 @@
+package org.mars_sim.msp.core.person.ai.mission;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.person.ai.mission.meta.MetaMission;
+import org.mars_sim.msp.core.robot.Robot;
+import org.mars_sim.msp.core.structure.MockSettlement;
+import org.mars_sim.msp.core.structure.Settlement;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the MissionPlanner class.
+ */
+public class TestMissionPlanner extends TestCase {
+
+    private CountingMetaMission planned1;
+    private CountingMetaMission planned2;
+    private CountingMetaMission unplanned;
+    private MissionPlanner planner;
+    private Settlement settlement;
+
+    @Override
+    protected void setUp() throws Exception {
+        SimulationConfig.loadConfig();
+        planned1 = new CountingMetaMission(true, 1D);
+        planned2 = new CountingMetaMission(true, 2D);
+        unplanned = new CountingMetaMission(false, 0D);
+        List<MetaMission> metaMissions = new ArrayList<MetaMission>();
+        metaMissions.add(planned1);
+        metaMissions.add(unplanned);
+        metaMissions.add(planned2);
+        planner = new MissionPlanner(metaMissions);
+        settlement = new MockSettlement();
+    }
+
+    /**
+     * Test that only meta missions with settlement probabilities are planned.
+     */
+    public void testPlanned() {
+        assertTrue(planner.isPlanned(planned1));
+        assertTrue(planner.isPlanned(planned2));
+        assertFalse(planner.isPlanned(unplanned));
+    }
+
+    /**
+     * Test that the refresh settings are read from the simulation configuration.
+     */
+    public void testConfiguration() {
+        SimulationConfig config = SimulationConfig.instance();
+        MissionPlanner configuredPlanner = new MissionPlanner();
+        assertEquals(config.getMissionPlannerRefreshBudget(), configuredPlanner.getRefreshBudget());
+        assertEquals(config.getMissionPlannerRefreshInterval(), configuredPlanner.getRefreshInterval());
+    }
+
+    /**
+     * Test that refreshing keeps within the budget and interval.
+     */
+    public void testRefreshBudget() {
+        planner.setRefreshBudget(1);
+        planner.setRefreshInterval(100D);
+
+        planner.refresh(settlement, 0D);
+        assertEquals(1, planned1.count + planned2.count);
+        planner.refresh(settlement, 1D);
+        assertEquals(1, planned1.count);
+        assertEquals(1, planned2.count);
+
+        // Nothing is due until the interval has passed.
+        planner.refresh(settlement, 50D);
+        assertEquals(2, planner.getRefreshCount());
+        planner.refresh(settlement, 100D);
+        assertEquals(3, planner.getRefreshCount());
+
+        planner.setRefreshBudget(0);
+        planner.refresh(settlement, 500D);
+        assertEquals(3, planner.getRefreshCount());
+    }
+
+    /**
+     * Test that reading the table only evaluates missing or invalidated opportunities.
+     */
+    public void testGetSettlementProbability() {
+        assertEquals(2D, planner.getSettlementProbability(settlement, planned2, 0D));
+        assertEquals(2D, planner.getSettlementProbability(settlement, planned2, 10D));
+        assertEquals(1, planned2.count);
+
+        planned2.probability = 3D;
+        planner.invalidate(settlement);
+        assertEquals(3D, planner.getSettlementProbability(settlement, planned2, 20D));
+        assertEquals(2, planned2.count);
+        assertEquals(0, planned1.count);
+
+        try {
+            planner.getSettlementProbability(settlement, unplanned, 20D);
+            fail("Unplanned meta mission read from the table.");
+        }
+        catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+    private static class CountingMetaMission implements MetaMission {
+
+        private boolean hasSettlementProbability;
+        private double probability;
+        private int count;
+
+        private CountingMetaMission(boolean hasSettlementProbability, double probability) {
+            this.hasSettlementProbability = hasSettlementProbability;
+            this.probability = probability;
+        }
+
+        @Override
+        public String getName() {
+            return "Counting";
+        }
+
+        @Override
+        public Mission constructInstance(Person person) {
+            return null;
+        }
+
+        @Override
+        public Mission constructInstance(Robot robot) {
+            return null;
+        }
+
+        @Override
+        public double getProbability(Person person) {
+            return 0D;
+        }
+
+        @Override
+        public double getProbability(Robot robot) {
+            return 0D;
+        }
+
+        @Override
+        public boolean hasSettlementProbability() {
+            return hasSettlementProbability;
+        }
+
+        @Override
+        public double getSettlementProbability(Settlement settlement) {
+            count++;
+            return probability;
+        }
+    }
+}
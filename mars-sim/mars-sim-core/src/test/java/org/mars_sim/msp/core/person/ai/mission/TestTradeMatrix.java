@@ -0,0 +1,106 @@
+package org.mars_sim.msp.core.person.ai.mission;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.person.ai.mission.TradeMatrix.PairRefresh;
+import org.mars_sim.msp.core.structure.MockSettlement;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.goods.Good;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the TradeMatrix class.
+ */
+public class TestTradeMatrix extends TestCase {
+
+    private TradeMatrix matrix;
+    private Settlement settlement1;
+    private Settlement settlement2;
+
+    @Override
+    protected void setUp() throws Exception {
+        SimulationConfig.loadConfig();
+        matrix = new TradeMatrix(1);
+        matrix.setMinAge(100D);
+        matrix.setMaxAge(1000D);
+        settlement1 = new MockSettlement();
+        settlement2 = new MockSettlement();
+    }
+
+    /**
+     * Test that an opportunity is reused until its inputs change and it is the minimum age.
+     */
+    public void testStaleWhenInputsChange() {
+        TradeOpportunity opportunity = createOpportunity(10D, 3L, 5L, 0);
+
+        assertFalse(matrix.isStale(opportunity, null, 3L, 5L, 0, 50D));
+        assertFalse(matrix.isStale(opportunity, null, 4L, 6L, TradeUtil.CREDIT_BUY_LIMIT, 50D));
+        assertFalse(matrix.isStale(opportunity, null, 3L, 5L, 0, 500D));
+        assertTrue(matrix.isStale(opportunity, null, 4L, 5L, 0, 200D));
+        assertTrue(matrix.isStale(opportunity, null, 3L, 6L, 0, 200D));
+        assertTrue(matrix.isStale(opportunity, null, 3L, 5L, TradeUtil.CREDIT_SELL_LIMIT, 200D));
+    }
+
+    /**
+     * Test that an opportunity is stale at the maximum age regardless of its inputs.
+     */
+    public void testStaleAtMaxAge() {
+        TradeOpportunity opportunity = createOpportunity(10D, 3L, 5L, 0);
+
+        assertFalse(matrix.isStale(opportunity, null, 3L, 5L, 0, 1009D));
+        assertTrue(matrix.isStale(opportunity, null, 3L, 5L, 0, 1010D));
+    }
+
+    /**
+     * Test the credit limits reached between settlements.
+     */
+    public void testCreditLimit() {
+        assertEquals(0, TradeUtil.getCreditLimit(0D));
+        assertEquals(TradeUtil.CREDIT_BUY_LIMIT, TradeUtil.getCreditLimit(TradeUtil.SELL_CREDIT_LIMIT * -1D));
+        assertEquals(TradeUtil.CREDIT_SELL_LIMIT, TradeUtil.getCreditLimit(TradeUtil.SELL_CREDIT_LIMIT));
+    }
+
+    /**
+     * Test that refresh rounds cover every pair without a settlement in two pairs of a round.
+     */
+    public void testScheduleRounds() {
+        List<Settlement> settlements = new ArrayList<Settlement>();
+        for (int x = 0; x < 5; x++) {
+            settlements.add(new MockSettlement());
+        }
+        List<PairRefresh> pairs = new ArrayList<PairRefresh>();
+        for (int x = 0; x < settlements.size(); x++) {
+            for (int y = x + 1; y < settlements.size(); y++) {
+                pairs.add(new PairRefresh(settlements.get(x), settlements.get(y)));
+            }
+        }
+
+        List<List<PairRefresh>> rounds = TradeMatrix.scheduleRounds(pairs);
+
+        Set<PairRefresh> scheduled = new HashSet<PairRefresh>();
+        for (List<PairRefresh> round : rounds) {
+            assertFalse(round.isEmpty());
+            assertTrue(round.size() <= settlements.size() / 2);
+            Set<Settlement> roundSettlements = new HashSet<Settlement>();
+            for (PairRefresh pair : round) {
+                assertTrue(scheduled.add(pair));
+                assertTrue(roundSettlements.add(pair.getSettlement1()));
+                assertTrue(roundSettlements.add(pair.getSettlement2()));
+            }
+        }
+        assertEquals(pairs.size(), scheduled.size());
+        assertSame(pairs.get(0), rounds.get(0).get(0));
+        assertTrue(TradeMatrix.scheduleRounds(new ArrayList<PairRefresh>()).isEmpty());
+    }
+
+    private TradeOpportunity createOpportunity(double time, long version1, long version2, int creditLimit) {
+        return new TradeOpportunity(settlement1, settlement2, null, new HashMap<Good, Integer>(),
+                new HashMap<Good, Integer>(), 100D, 40D, time, version1, version2, creditLimit);
+    }
+}
@@ -0,0 +1,213 @@
+package org.mars_sim.msp.core.person.ai.social;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.person.PersonGender;
+import org.mars_sim.msp.core.structure.MockSettlement;
+import org.mars_sim.msp.core.structure.Settlement;
+import org.mars_sim.msp.core.structure.building.MockBuilding;
+import org.mars_sim.msp.core.structure.building.function.BuildingAirlock;
+import org.mars_sim.msp.core.structure.building.function.EVA;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the RelationshipGraph and RelationshipManager classes.
+ */
+public class TestRelationshipGraph extends TestCase {
+
+	private List<Person> people;
+
+	@Override
+	protected void setUp() throws Exception {
+		SimulationConfig.loadConfig();
+		Settlement settlement = new MockSettlement();
+		MockBuilding building = new MockBuilding(settlement.getBuildingManager());
+		building.addFunction(new EVA(building, new BuildingAirlock(building, 1, 0D, 0D, 0D, 0D, 0D, 0D)));
+		settlement.getBuildingManager().addBuilding(building, false);
+		people = new ArrayList<Person>();
+		for (int x = 0; x < 5; x++) {
+			people.add(new Person("Test Person " + x, PersonGender.MALE, "Earth", settlement));
+		}
+	}
+
+	/**
+	 * Test adding people and relationships.
+	 */
+	public void testAddRelationship() {
+		RelationshipGraph graph = new RelationshipGraph();
+		for (Person person : people) graph.addPerson(person);
+		assertEquals(people.size(), graph.getPersonNum());
+		assertEquals(2, graph.addPerson(people.get(2)));
+
+		assertTrue(graph.addRelationship(people.get(3), people.get(0), 60D, 70D));
+		assertTrue(graph.addRelationship(people.get(0), people.get(1), 20D, 30D));
+		assertFalse(graph.addRelationship(people.get(1), people.get(0), 0D, 0D));
+		assertFalse(graph.addRelationship(people.get(1), people.get(1), 0D, 0D));
+		assertEquals(2, graph.getRelationshipNum());
+
+		assertTrue(graph.hasRelationship(people.get(0), people.get(3)));
+		assertFalse(graph.hasRelationship(people.get(1), people.get(3)));
+		assertEquals(60D, graph.getOpinion(people.get(3), people.get(0), 50D));
+		assertEquals(70D, graph.getOpinion(people.get(0), people.get(3), 50D));
+		assertEquals(50D, graph.getOpinion(people.get(1), people.get(3), 50D));
+
+		// Neighbours are sorted by ID.
+		int id = graph.getId(people.get(0));
+		assertEquals(2, graph.getDegree(id));
+		assertEquals(graph.getId(people.get(1)), graph.getNeighbour(id, 0));
+		assertEquals(20D, graph.getNeighbourOpinion(id, 0));
+		assertEquals(graph.getId(people.get(3)), graph.getNeighbour(id, 1));
+		assertEquals(70D, graph.getNeighbourOpinion(id, 1));
+		assertEquals(people.get(1), graph.getNeighbours(people.get(0)).get(0));
+	}
+
+	/**
+	 * Test that opinions are limited to 0 to 100.
+	 */
+	public void testSetOpinion() {
+		RelationshipGraph graph = new RelationshipGraph();
+		for (Person person : people) graph.addPerson(person);
+		graph.addRelationship(people.get(0), people.get(1), 150D, -10D);
+		assertEquals(100D, graph.getOpinion(people.get(0), people.get(1), 50D));
+		assertEquals(0D, graph.getOpinion(people.get(1), people.get(0), 50D));
+
+		assertTrue(graph.setOpinion(people.get(1), people.get(0), 40D));
+		assertEquals(40D, graph.getOpinion(people.get(1), people.get(0), 50D));
+		assertEquals(100D, graph.getOpinion(people.get(0), people.get(1), 50D));
+		assertFalse(graph.setOpinion(people.get(1), people.get(2), 40D));
+	}
+
+	/**
+	 * Test that many relationships keep each person's neighbours sorted.
+	 */
+	public void testManyRelationships() {
+		RelationshipGraph graph = new RelationshipGraph();
+		for (Person person : people) graph.addPerson(person);
+		for (int x = people.size() - 1; x >= 0; x--) {
+			for (int y = 0; y < x; y++) {
+				graph.addRelationship(people.get(x), people.get(y), x * 10D + y, y * 10D + x);
+			}
+		}
+		assertEquals(10, graph.getRelationshipNum());
+		for (int x = 0; x < people.size(); x++) {
+			int id = graph.getId(people.get(x));
+			assertEquals(people.size() - 1, graph.getDegree(id));
+			for (int y = 1; y < graph.getDegree(id); y++) {
+				assertTrue(graph.getNeighbour(id, y - 1) < graph.getNeighbour(id, y));
+			}
+			for (int y = 0; y < people.size(); y++) {
+				if (x != y) assertEquals(x * 10D + y, graph.getOpinion(people.get(x), people.get(y), 50D));
+			}
+		}
+	}
+
+	/**
+	 * Test that the graph is saved and loaded with its people and opinions.
+	 */
+	public void testSerialization() throws Exception {
+		RelationshipGraph graph = new RelationshipGraph();
+		for (Person person : people) graph.addPerson(person);
+		graph.addRelationship(people.get(4), people.get(0), 10D, 20D);
+		graph.addRelationship(people.get(2), people.get(4), 30D, 40D);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(people);
+		out.writeObject(graph);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		@SuppressWarnings("unchecked")
+		List<Person> loadedPeople = (List<Person>) in.readObject();
+		RelationshipGraph loaded = (RelationshipGraph) in.readObject();
+		in.close();
+
+		assertEquals(5, loaded.getPersonNum());
+		assertEquals(2, loaded.getRelationshipNum());
+		assertEquals(10D, loaded.getOpinion(loadedPeople.get(4), loadedPeople.get(0), 50D));
+		assertEquals(20D, loaded.getOpinion(loadedPeople.get(0), loadedPeople.get(4), 50D));
+		assertEquals(30D, loaded.getOpinion(loadedPeople.get(2), loadedPeople.get(4), 50D));
+		assertEquals(40D, loaded.getOpinion(loadedPeople.get(4), loadedPeople.get(2), 50D));
+		assertFalse(loaded.hasRelationship(loadedPeople.get(0), loadedPeople.get(2)));
+	}
+
+	/**
+	 * Test the relationship manager's relationships are backed by the graph.
+	 */
+	public void testRelationshipManager() {
+		RelationshipManager manager = new RelationshipManager();
+		manager.addNewImmigrant(people.get(0), people.subList(0, 3));
+		manager.addNewImmigrant(people.get(1), people.subList(0, 3));
+		manager.addRelationship(people.get(1), people.get(3), Relationship.COMMUNICATION_MEETING);
+
+		assertTrue(manager.hasRelationship(people.get(0), people.get(1)));
+		assertFalse(manager.hasRelationship(people.get(0), people.get(2)));
+		assertFalse(manager.hasRelationship(people.get(1), people.get(3)));
+		assertEquals(1, manager.getAllKnownPeople(people.get(0)).size());
+		assertEquals(50D, manager.getOpinionOfPerson(people.get(0), people.get(2)));
+
+		Relationship relationship = manager.getRelationship(people.get(1), people.get(0));
+		relationship.setPersonOpinion(people.get(0), 75D);
+		assertEquals(75D, manager.getOpinionOfPerson(people.get(0), people.get(1)));
+		assertEquals(75D, manager.getRelationship(people.get(0), people.get(1)).getPersonOpinion(people.get(0)));
+		assertEquals(1, manager.getAllRelationships(people.get(1)).size());
+		assertNull(manager.getRelationship(people.get(0), people.get(2)));
+	}
+
+	/**
+	 * Test that a relationship manager saved with a plexus graph is loaded into a relationship graph.
+	 */
+	public void testLoadPlexusGraph() throws Exception {
+		org.mars_sim.msp.core.person.ai.legacy.RelationshipManager oldManager =
+				new org.mars_sim.msp.core.person.ai.legacy.RelationshipManager();
+		for (Person person : people) oldManager.addPerson(person);
+		oldManager.addRelationship(people.get(4), 10D, people.get(0), 20D);
+		oldManager.addRelationship(people.get(2), 30D, people.get(4), 40D);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(people);
+		out.writeObject(oldManager);
+		out.close();
+		byte[] saved = replace(bytes.toByteArray(), ".ai.legacy.", ".ai.social.");
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(saved));
+		@SuppressWarnings("unchecked")
+		List<Person> loadedPeople = (List<Person>) in.readObject();
+		RelationshipManager manager = (RelationshipManager) in.readObject();
+		in.close();
+
+		assertEquals(10D, manager.getOpinionOfPerson(loadedPeople.get(4), loadedPeople.get(0)));
+		assertEquals(20D, manager.getOpinionOfPerson(loadedPeople.get(0), loadedPeople.get(4)));
+		assertEquals(30D, manager.getOpinionOfPerson(loadedPeople.get(2), loadedPeople.get(4)));
+		assertEquals(40D, manager.getOpinionOfPerson(loadedPeople.get(4), loadedPeople.get(2)));
+		assertEquals(2, manager.getAllKnownPeople(loadedPeople.get(4)).size());
+		assertFalse(manager.hasRelationship(loadedPeople.get(0), loadedPeople.get(2)));
+
+		// People without relationships are still in the graph.
+		manager.addRelationship(loadedPeople.get(1), loadedPeople.get(3), Relationship.FIRST_IMPRESSION);
+		assertTrue(manager.hasRelationship(loadedPeople.get(1), loadedPeople.get(3)));
+	}
+
+	/**
+	 * Replaces each occurrence of a string of the same length in saved bytes.
+	 */
+	private static byte[] replace(byte[] bytes, String target, String replacement) throws Exception {
+		byte[] from = target.getBytes("UTF-8");
+		byte[] to = replacement.getBytes("UTF-8");
+		assertEquals(from.length, to.length);
+		byte[] result = bytes.clone();
+		for (int x = 0; x <= result.length - from.length; x++) {
+			int y = 0;
+			while ((y < from.length) && (result[x + y] == from[y])) y++;
+			if (y == from.length) System.arraycopy(to, 0, result, x, to.length);
+		}
+		return result;
+	}
+}
@@ -56,6 +56,8 @@ public class JUnitTests extends TestCase {
 	    suite.addTestSuite(WalkingStepsTest.class);
 	    suite.addTestSuite(WalkInteriorTest.class);
 	    suite.addTestSuite(WalkOutsideTest.class);
+	    suite.addTestSuite(ObstacleAvoidancePathFinderTest.class);
+	    suite.addTestSuite(TaskManagerTest.class);
 	    
 		return suite;
 	}
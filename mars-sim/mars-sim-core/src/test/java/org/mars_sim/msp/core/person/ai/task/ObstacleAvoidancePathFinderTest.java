@@ -0,0 +1,56 @@
+package org.mars_sim.msp.core.person.ai.task;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * A unit test suite for the ObstacleAvoidancePathFinder class.
+ */
+public class ObstacleAvoidancePathFinderTest
+extends TestCase {
+
+	/** A 10m x 40m wall centered between start and destination. */
+	private static final Rectangle2D WALL = new Rectangle2D.Double(-5D, -20D, 10D, 40D);
+
+	private static final double[] SEARCH_LIMITS = new double[] { 50D, -50D, 50D, -50D };
+
+	private static final ObstacleAvoidancePathFinder.PathChecker WALL_CHECKER =
+			(x1, y1, x2, y2) -> !WALL.intersectsLine(new Line2D.Double(x1, y1, x2, y2));
+
+	/**
+	 * Test that a path is found around an obstacle and that each leg is clear.
+	 */
+	public void testFindPath() {
+
+		List<Point2D> path = ObstacleAvoidancePathFinder.findPath(-30D, 0D, 30D, 0D,
+				SEARCH_LIMITS, WALL_CHECKER);
+
+		assertNotNull(path);
+		assertTrue(path.size() > 2);
+		assertEquals(new Point2D.Double(-30D, 0D), path.get(0));
+		assertEquals(new Point2D.Double(30D, 0D), path.get(path.size() - 1));
+		for (int x = 1; x < path.size(); x++) {
+			Point2D prev = path.get(x - 1);
+			Point2D next = path.get(x);
+			assertTrue(WALL_CHECKER.isPathClear(prev.getX(), prev.getY(), next.getX(), next.getY()));
+		}
+	}
+
+	/**
+	 * Test that no path is found when the destination is walled off within the search limits.
+	 */
+	public void testFindPathBlocked() {
+
+		ObstacleAvoidancePathFinder.PathChecker blocked =
+				(x1, y1, x2, y2) -> (x1 < 0D) && (x2 < 0D);
+
+		assertNull(ObstacleAvoidancePathFinder.findPath(-30D, 0D, 30D, 0D, SEARCH_LIMITS, blocked));
+
+		// Search context is reused for the next search.
+		assertNotNull(ObstacleAvoidancePathFinder.findPath(-30D, 0D, 30D, 0D, SEARCH_LIMITS, WALL_CHECKER));
+	}
+}
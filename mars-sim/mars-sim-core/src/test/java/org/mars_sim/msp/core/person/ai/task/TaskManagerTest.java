@@ -0,0 +1,90 @@
+package org.mars_sim.msp.core.person.ai.task;
+
+import junit.framework.TestCase;
+
+import org.mars_sim.msp.core.Simulation;
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.person.PhysicalCondition;
+import org.mars_sim.msp.core.person.ai.task.meta.MetaTaskUtil;
+import org.mars_sim.msp.core.person.ai.task.meta.TaskProbabilityInput;
+import org.mars_sim.msp.core.structure.Settlement;
+
+/**
+ * A unit test suite for the TaskManager's cache of task probabilities.
+ */
+public class TaskManagerTest extends TestCase {
+
+    private Person person;
+    private TaskManager taskManager;
+    private int[] ordinals;
+
+    @Override
+    public void setUp() throws Exception {
+        SimulationConfig.loadConfig();
+        Simulation.createNewSimulation();
+
+        Settlement settlement = Simulation.instance().getUnitManager().getSettlements().iterator().next();
+        person = settlement.getInhabitants().iterator().next();
+        taskManager = person.getMind().getTaskManager();
+
+        int millisols = (int) Simulation.instance().getMasterClock().getMarsClock().getMillisol();
+        if (person.getTaskSchedule().isShiftHour(millisols)) {
+            ordinals = MetaTaskUtil.getWorkHourOrdinals();
+        }
+        else {
+            ordinals = MetaTaskUtil.getNonWorkHourOrdinals();
+        }
+    }
+
+    /**
+     * Test that cached probabilities are reused while their inputs are unchanged.
+     */
+    public void testReuseProbabilities() {
+        taskManager.getTotalTaskProbability(true);
+        long evaluations = taskManager.getProbabilityEvaluations();
+        assertEquals(ordinals.length, evaluations);
+
+        // Only the meta tasks without tracked inputs are evaluated again.
+        taskManager.getTotalTaskProbability(true);
+        assertEquals(evaluations + countOrdinals(TaskProbabilityInput.OTHER),
+                taskManager.getProbabilityEvaluations());
+
+        // Without the cache, all are evaluated again.
+        evaluations = taskManager.getProbabilityEvaluations();
+        taskManager.getTotalTaskProbability(false);
+        assertEquals(evaluations + ordinals.length, taskManager.getProbabilityEvaluations());
+    }
+
+    /**
+     * Test that probabilities are evaluated again after an input they depend on changes.
+     */
+    public void testStaleProbabilities() {
+        taskManager.getTotalTaskProbability(true);
+        long evaluations = taskManager.getProbabilityEvaluations();
+
+        PhysicalCondition condition = person.getPhysicalCondition();
+        condition.setFatigue(condition.getFatigue() + 500D);
+
+        taskManager.getTotalTaskProbability(true);
+        assertEquals(evaluations + countOrdinals(TaskProbabilityInput.OTHER)
+                + countOrdinals(TaskProbabilityInput.HEALTH), taskManager.getProbabilityEvaluations());
+    }
+
+    /**
+     * Counts the available meta tasks depending on an input, other than those evaluated
+     * every time unless counting them.
+     */
+    private int countOrdinals(TaskProbabilityInput input) {
+        int other = MetaTaskUtil.getInputBit(TaskProbabilityInput.OTHER);
+        int bit = MetaTaskUtil.getInputBit(input);
+        int result = 0;
+        for (int ordinal : ordinals) {
+            int mask = MetaTaskUtil.getInputMask(ordinal);
+            if (((mask & bit) != 0) && ((bit == other) || ((mask & other) == 0))) {
+                result++;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+package org.mars_sim.msp.core.person.ai.task.meta;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * A unit test suite for the MetaTaskUtil class.
+ */
+public class MetaTaskUtilTest extends TestCase {
+
+    /**
+     * Test that there is one instance of each meta task and ordinals match the list.
+     */
+    public void testOrdinals() {
+        List<MetaTask> metaTasks = MetaTaskUtil.getMetaTasks();
+        assertEquals(metaTasks.size(), MetaTaskUtil.getMetaTaskCount());
+
+        Set<Class<?>> classes = new HashSet<Class<?>>();
+        for (int x = 0; x < metaTasks.size(); x++) {
+            MetaTask metaTask = metaTasks.get(x);
+            assertTrue(classes.add(metaTask.getClass()));
+            assertSame(metaTask, MetaTaskUtil.getMetaTask(x));
+            assertEquals(x, MetaTaskUtil.getOrdinal(metaTask));
+        }
+        assertEquals(-1, MetaTaskUtil.getOrdinal(new SleepMeta()));
+    }
+
+    /**
+     * Test that the ordinal arrays cover the same meta tasks as the lists.
+     */
+    public void testOrdinalLists() {
+        checkOrdinals(MetaTaskUtil.getWorkHourTasks(), MetaTaskUtil.getWorkHourOrdinals());
+        checkOrdinals(MetaTaskUtil.getNonWorkHourTasks(), MetaTaskUtil.getNonWorkHourOrdinals());
+        checkOrdinals(MetaTaskUtil.getRobotMetaTasks(), MetaTaskUtil.getRobotOrdinals());
+
+        for (MetaTask metaTask : MetaTaskUtil.getAllWorkHourTasks()) {
+            assertTrue(MetaTaskUtil.getWorkHourTasks().contains(metaTask));
+            assertTrue(MetaTaskUtil.getNonWorkHourTasks().contains(metaTask));
+        }
+    }
+
+    /**
+     * Test that the input masks match the inputs set for the meta tasks.
+     */
+    public void testInputMasks() {
+        int other = MetaTaskUtil.getInputBit(TaskProbabilityInput.OTHER);
+
+        int sleep = MetaTaskUtil.getOrdinal(MetaTaskUtil.getMetaTask("SleepMeta"));
+        int sleepMask = MetaTaskUtil.getInputMask(sleep);
+        assertEquals(0, sleepMask & other);
+        assertTrue((sleepMask & MetaTaskUtil.getInputBit(TaskProbabilityInput.HEALTH)) != 0);
+        assertTrue((sleepMask & MetaTaskUtil.getInputBit(TaskProbabilityInput.TIME_OF_DAY)) != 0);
+
+        int manufacture = MetaTaskUtil.getOrdinal(MetaTaskUtil.getMetaTask("ManufactureGoodMeta"));
+        assertEquals(other, MetaTaskUtil.getInputMask(manufacture));
+    }
+
+    private void checkOrdinals(List<MetaTask> metaTasks, int[] ordinals) {
+        assertEquals(metaTasks.size(), ordinals.length);
+        for (int x = 0; x < ordinals.length; x++) {
+            assertTrue(metaTasks.contains(MetaTaskUtil.getMetaTask(ordinals[x])));
+            if (x > 0) {
+                assertTrue(ordinals[x - 1] < ordinals[x]);
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package org.mars_sim.msp.core.resource;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Set;
 
 import junit.framework.TestCase;
@@ -200,4 +204,41 @@ public class TestAmountResourceTypeStorage extends TestCase {
         assertTrue("All resources contains carbon dioxide.", allResources.contains(carbonDioxide));
         assertTrue("All resources contains oxygen.", allResources.contains(oxygen));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that capacities and stored amounts survive serialization.
+     */
+    public void testSerialization() throws Exception {
+        AmountResourceTypeStorage storage = new AmountResourceTypeStorage();
+        AmountResource carbonDioxide = AmountResource.findAmountResource(CARBON_DIOXIDE);
+        AmountResource oxygen = AmountResource.findAmountResource(OXYGEN);
+        storage.addAmountResourceTypeCapacity(carbonDioxide, 100D);
+        storage.addAmountResourceTypeCapacity(oxygen, 0D);
+        storage.storeAmountResourceType(carbonDioxide, 10D);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(storage);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        AmountResourceTypeStorage loaded = (AmountResourceTypeStorage) in.readObject();
+        in.close();
+
+        assertEquals(100D, loaded.getAmountResourceTypeCapacity(carbonDioxide), 0D);
+        assertEquals(10D, loaded.getAmountResourceTypeStored(carbonDioxide), 0D);
+        assertTrue(loaded.hasAmountResourceTypeCapacity(oxygen));
+        assertEquals(10D, loaded.getTotalAmountResourceTypesStored(false), 0D);
+    }
+
+    /**
+     * Test the resource registry IDs and name lookup.
+     */
+    public void testResourceIDs() throws Exception {
+        AmountResource carbonDioxide = AmountResource.findAmountResource(CARBON_DIOXIDE);
+        int id = carbonDioxide.getID();
+        assertTrue(id >= 0);
+        assertTrue(id < AmountResource.getNumAmountResources());
+        assertSame(carbonDioxide, AmountResource.getAmountResource(id));
+        assertSame(carbonDioxide, AmountResource.findAmountResource("Carbon Dioxide"));
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Mars Simulation Project
+ * SaveFormatBenchmark.java
+ * @version 3.08 2015-07-29
+ */
+
+package org.mars_sim.msp.core.save;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A benchmark comparing save and load times and file sizes of the save formats
+ * for synthetic colony object graphs of increasing population.
+ * Run with: java org.mars_sim.msp.core.save.SaveFormatBenchmark [population...]
+ */
+public class SaveFormatBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+
+        int[] populations = new int[] { 100, 1000, 5000 };
+        if (args.length > 0) {
+            populations = new int[args.length];
+            for (int x = 0; x < args.length; x++) {
+                populations[x] = Integer.parseInt(args[x]);
+            }
+        }
+
+        for (int population : populations) {
+            Serializable colony = createColony(population, new Random(42L));
+            for (SaveFormat format : SaveFormats.getFormats()) {
+                for (int x = 0; x < WARMUP_ROUNDS; x++) {
+                    load(format, save(format, colony));
+                }
+
+                long saveTime = 0L;
+                long loadTime = 0L;
+                int size = 0;
+                for (int x = 0; x < ROUNDS; x++) {
+                    long start = System.nanoTime();
+                    byte[] saved = save(format, colony);
+                    saveTime += System.nanoTime() - start;
+                    start = System.nanoTime();
+                    load(format, saved);
+                    loadTime += System.nanoTime() - start;
+                    size = saved.length;
+                }
+
+                System.out.println(String.format("population %6d  %-6s save %8.1f ms  load %8.1f ms  size %8d KB",
+                        population, format.getName(), saveTime / (ROUNDS * 1000000D),
+                        loadTime / (ROUNDS * 1000000D), size / 1024));
+            }
+        }
+    }
+
+    private static byte[] save(SaveFormat format, Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(format.createOutputStream(bytes));
+        oos.writeObject(object);
+        oos.close();
+        return bytes.toByteArray();
+    }
+
+    private static Object load(SaveFormat format, byte[] saved) throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = new ObjectInputStream(format.createInputStream(new ByteArrayInputStream(saved)));
+        try {
+            return ois.readObject();
+        }
+        finally {
+            ois.close();
+        }
+    }
+
+    private static Serializable createColony(int population, Random random) {
+        int numSettlements = Math.max(1, population / 24);
+        List<MockSettlement> settlements = new ArrayList<MockSettlement>(numSettlements);
+        for (int x = 0; x < numSettlements; x++) {
+            MockSettlement settlement = new MockSettlement("Settlement " + x);
+            for (int y = 0; y < 40; y++) {
+                settlement.resources.put("resource " + y, random.nextDouble() * 1000D);
+            }
+            settlements.add(settlement);
+        }
+
+        for (int x = 0; x < population; x++) {
+            MockSettlement settlement = settlements.get(x % numSettlements);
+            MockPerson person = new MockPerson("Person " + x, settlement);
+            for (int y = 0; y < 30; y++) {
+                person.attributes.put("attribute " + y, random.nextInt(100));
+            }
+            for (int y = 0; y < 200; y++) {
+                person.history[y] = random.nextDouble();
+            }
+            settlement.people.add(person);
+        }
+
+        // Relationships refer to people by identifier, as deep reference chains
+        // would overflow the serialization stack.
+        for (MockSettlement settlement : settlements) {
+            for (MockPerson person : settlement.people) {
+                for (int y = 0; y < 5; y++) {
+                    person.friends.add(random.nextInt(population));
+                }
+            }
+        }
+
+        return new ArrayList<MockSettlement>(settlements);
+    }
+
+    private static class MockSettlement implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String name;
+        Map<String, Double> resources = new HashMap<String, Double>();
+        List<MockPerson> people = new ArrayList<MockPerson>();
+
+        MockSettlement(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class MockPerson implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String name;
+        MockSettlement settlement;
+        Map<String, Integer> attributes = new HashMap<String, Integer>();
+        List<Integer> friends = new ArrayList<Integer>();
+        double[] history = new double[200];
+
+        MockPerson(String name, MockSettlement settlement) {
+            this.name = name;
+            this.settlement = settlement;
+        }
+    }
+}
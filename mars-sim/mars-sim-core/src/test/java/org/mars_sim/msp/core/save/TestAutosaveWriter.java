@@ -0,0 +1,151 @@
+package org.mars_sim.msp.core.save;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the AutosaveWriter class.
+ */
+public class TestAutosaveWriter extends TestCase {
+
+    private static final String EXTENSION = ".sim";
+
+    private File root;
+    private File directory;
+    private File otherDirectory;
+
+    @Override
+    protected void setUp() throws Exception {
+        root = File.createTempFile("autosave", "");
+        root.delete();
+        directory = new File(root, "autosave");
+        directory.mkdirs();
+        otherDirectory = new File(root, "saved");
+        otherDirectory.mkdirs();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(root);
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Test that a snapshot is written in the background and loads.
+     */
+    public void testWriteSnapshot() throws Exception {
+        AutosaveWriter writer = new AutosaveWriter(directory, EXTENSION, 3);
+        SaveFormat format = new BlockSaveFormat();
+        File file = writer.getAutosaveFile("test");
+        assertEquals(directory, file.getParentFile());
+        assertTrue(writer.isAutosaveFile(file));
+
+        assertTrue(writer.write(createSnapshot("snapshot"), file, format, 12L));
+        assertTrue(writer.awaitCompletion(10000L));
+        writer.shutdown();
+
+        assertFalse(writer.isWriting());
+        assertEquals(1, writer.getAutosaveCount());
+        assertEquals(12L, writer.getLastPauseTime());
+        assertEquals(file.length(), writer.getLastFileSize());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        ObjectInputStream ois = new ObjectInputStream(format.createInputStream(new FileInputStream(file)));
+        try {
+            assertEquals("snapshot", ois.readObject());
+        }
+        finally {
+            ois.close();
+        }
+    }
+
+    /**
+     * Test that only the newest autosaves are kept, and other files in the autosave
+     * directory are not deleted.
+     */
+    public void testRotate() throws Exception {
+        File[] autosaves = new File[6];
+        for (int x = 0; x < autosaves.length; x++) {
+            autosaves[x] = createSave(directory, getAutosaveName(x), x);
+        }
+        File manual = createSave(directory, "mysave" + EXTENSION, -1);
+        File other = createSave(directory, "notes.txt", -1);
+
+        AutosaveWriter writer = new AutosaveWriter(directory, EXTENSION, 4);
+        assertFalse(writer.isAutosaveFile(manual));
+        List<File> deleted = writer.rotate();
+        writer.shutdown();
+
+        assertEquals(2, deleted.size());
+        assertFalse(autosaves[0].exists());
+        assertFalse(autosaves[1].exists());
+        assertTrue(autosaves[2].exists());
+        assertTrue(autosaves[5].exists());
+        assertTrue(manual.exists());
+        assertTrue(other.exists());
+    }
+
+    /**
+     * Test that saves in another directory survive rotation, even when an autosave
+     * is written there.
+     */
+    public void testRotateOtherDirectory() throws Exception {
+        File[] saves = new File[3];
+        for (int x = 0; x < saves.length; x++) {
+            saves[x] = createSave(otherDirectory, getAutosaveName(x), x);
+        }
+        File manual = createSave(otherDirectory, "mysave" + EXTENSION, -1);
+
+        AutosaveWriter writer = new AutosaveWriter(directory, EXTENSION, 1);
+        File file = new File(otherDirectory, getAutosaveName(3));
+        assertTrue(writer.write(createSnapshot("snapshot"), file, new BlockSaveFormat(), 0L));
+        assertTrue(writer.awaitCompletion(10000L));
+        writer.shutdown();
+
+        assertEquals(1, writer.getAutosaveCount());
+        assertTrue(file.exists());
+        for (File save : saves) {
+            assertTrue(save.exists());
+        }
+        assertTrue(manual.exists());
+    }
+
+    private static String getAutosaveName(int x) {
+        return "01-0" + x + "-2015_10000" + x + "AM_Build_test" + EXTENSION;
+    }
+
+    /**
+     * Creates an empty save file.
+     * @param age the order the file was modified in, oldest first, or -1 for older than all.
+     */
+    private static File createSave(File directory, String name, int age) throws IOException {
+        File file = new File(directory, name);
+        assertTrue(file.createNewFile());
+        file.setLastModified(1000000000000L + (age * 1000L));
+        return file;
+    }
+
+    private ByteArrayOutputStream createSnapshot(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bytes);
+        oos.writeObject(object);
+        oos.close();
+        return bytes;
+    }
+}
@@ -0,0 +1,183 @@
+package org.mars_sim.msp.core.save;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the save formats and block codec.
+ */
+public class TestSaveFormats extends TestCase {
+
+    private ExecutorService executor;
+
+    @Override
+    protected void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test that blocks of different kinds of data decompress to the original data.
+     */
+    public void testCodecRoundTrip() throws IOException {
+        Random random = new Random(7L);
+
+        byte[] randomData = new byte[100000];
+        random.nextBytes(randomData);
+        assertRoundTrip(randomData);
+
+        byte[] repetitive = new byte[100000];
+        for (int x = 0; x < repetitive.length; x++) {
+            repetitive[x] = (byte) "Mars Simulation Project ".charAt(x % 24);
+        }
+        assertRoundTrip(repetitive);
+
+        byte[] run = new byte[70000];
+        Arrays.fill(run, (byte) 42);
+        assertRoundTrip(run);
+
+        assertRoundTrip(new byte[0]);
+        assertRoundTrip(new byte[] { 1, 2, 3 });
+        assertRoundTrip("abcdabcdabcdabcd".getBytes("UTF-8"));
+    }
+
+    /**
+     * Test that repetitive data is compressed.
+     */
+    public void testCodecCompresses() {
+        byte[] repetitive = new byte[100000];
+        for (int x = 0; x < repetitive.length; x++) {
+            repetitive[x] = (byte) (x % 100);
+        }
+        byte[] compressed = new byte[LZBlockCodec.getMaxCompressedLength(repetitive.length)];
+        int length = LZBlockCodec.compress(repetitive, 0, repetitive.length, compressed, 0);
+        assertTrue(length < (repetitive.length / 10));
+    }
+
+    /**
+     * Test that corrupt blocks are detected.
+     */
+    public void testCodecCorruptBlock() {
+        byte[] data = "Corrupt data corrupt data corrupt data".getBytes();
+        byte[] compressed = new byte[LZBlockCodec.getMaxCompressedLength(data.length)];
+        int length = LZBlockCodec.compress(data, 0, data.length, compressed, 0);
+        try {
+            LZBlockCodec.decompress(compressed, 0, length - 3, new byte[data.length], 0, data.length);
+            fail("Truncated block was decompressed.");
+        }
+        catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Test that an object graph saved in the block format loads with shared references intact.
+     */
+    public void testBlockFormatRoundTrip() throws Exception {
+        SaveFormat format = new BlockSaveFormat(4096, executor);
+        Map<String, List<Integer>> graph = createGraph();
+
+        byte[] saved = save(format, graph);
+        assertSame(format, detect(saved, format));
+
+        @SuppressWarnings("unchecked")
+        Map<String, List<Integer>> loaded = (Map<String, List<Integer>>) load(format, saved);
+        assertEquals(graph, loaded);
+        assertSame(loaded.get("shared"), loaded.get("alias"));
+    }
+
+    /**
+     * Test that the GZIP format is detected and loads.
+     */
+    public void testGZIPFormatRoundTrip() throws Exception {
+        SaveFormat format = new GZIPSaveFormat();
+        Map<String, List<Integer>> graph = createGraph();
+
+        byte[] saved = save(format, graph);
+        SaveFormat detected = SaveFormats.detectFormat(new java.io.BufferedInputStream(
+                new ByteArrayInputStream(saved)));
+        assertEquals(GZIPSaveFormat.NAME, detected.getName());
+        assertEquals(graph, load(detected, saved));
+    }
+
+    /**
+     * Test that corrupt block format data fails to load.
+     */
+    public void testBlockFormatChecksum() throws Exception {
+        SaveFormat format = new BlockSaveFormat(4096, executor);
+        byte[] saved = save(format, createGraph());
+        saved[saved.length / 2] ^= 0x55;
+        try {
+            load(format, saved);
+            fail("Corrupt save was loaded.");
+        }
+        catch (IOException e) {
+            // Expected.
+        }
+    }
+
+    private Map<String, List<Integer>> createGraph() {
+        Map<String, List<Integer>> result = new HashMap<String, List<Integer>>();
+        List<Integer> shared = new ArrayList<Integer>();
+        for (int x = 0; x < 5000; x++) {
+            shared.add(x % 37);
+        }
+        result.put("shared", shared);
+        result.put("alias", shared);
+        for (int x = 0; x < 100; x++) {
+            result.put("list " + x, new ArrayList<Integer>(Arrays.asList(x, x * 2, x * 3)));
+        }
+        return result;
+    }
+
+    private byte[] save(SaveFormat format, Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = format.createOutputStream(bytes);
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeObject(object);
+        oos.close();
+        return bytes.toByteArray();
+    }
+
+    private Object load(SaveFormat format, byte[] saved) throws IOException, ClassNotFoundException {
+        InputStream in = format.createInputStream(new ByteArrayInputStream(saved));
+        ObjectInputStream ois = new ObjectInputStream(in);
+        try {
+            return ois.readObject();
+        }
+        finally {
+            ois.close();
+        }
+    }
+
+    private SaveFormat detect(byte[] saved, SaveFormat format) throws IOException {
+        return format.isFormatOf(saved, saved.length) ? format : null;
+    }
+
+    private void assertRoundTrip(byte[] data) throws IOException {
+        byte[] compressed = new byte[LZBlockCodec.getMaxCompressedLength(data.length) + 3];
+        int length = LZBlockCodec.compress(data, 0, data.length, compressed, 3);
+        byte[] result = new byte[data.length + 2];
+        LZBlockCodec.decompress(compressed, 3, length, result, 2, data.length);
+        assertTrue(Arrays.equals(data, Arrays.copyOfRange(result, 2, result.length)));
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Mars Simulation Project
+ * PowerThermalBenchmark.java
+ * @version 3.08 2015-08-04
+ */
+
+package org.mars_sim.msp.core.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.structure.building.Building;
+import org.mars_sim.msp.core.structure.building.BuildingManager;
+
+/**
+ * A benchmark of the power grid and thermal system time pulses on a settlement with
+ * 100 buildings, cycling through the configured building types.
+ * Run with: java org.mars_sim.msp.core.structure.PowerThermalBenchmark [pulses]
+ */
+public class PowerThermalBenchmark {
+
+    private static final int BUILDINGS = 100;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final double TIME_PULSE = 1D;
+
+    public static void main(String[] args) throws Exception {
+
+        int pulses = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+
+        SimulationConfig.loadConfig();
+        MockSettlement settlement = new MockSettlement();
+        BuildingManager manager = settlement.getBuildingManager();
+        List<String> buildingTypes = new ArrayList<String>();
+        for (String buildingType : SimulationConfig.instance().getBuildingConfiguration().getBuildingTypes()) {
+            // Without a running simulation, only some building types can be constructed and powered.
+            try {
+                MockSettlement scratch = new MockSettlement();
+                scratch.getBuildingManager().addBuilding(
+                        createBuilding(scratch.getBuildingManager(), buildingType, 0), false);
+                new PowerGrid(scratch).timePassing(TIME_PULSE);
+                new ThermalSystem(scratch).timePassing(TIME_PULSE);
+                buildingTypes.add(buildingType);
+            }
+            catch (RuntimeException e) {
+                // Building type needs the clock or surface features.
+            }
+        }
+        for (int x = 0; manager.getBuildingNum() < BUILDINGS; x++) {
+            manager.addBuilding(createBuilding(manager, buildingTypes.get(x % buildingTypes.size()), x), false);
+        }
+
+        PowerGrid powerGrid = new PowerGrid(settlement);
+        ThermalSystem thermalSystem = new ThermalSystem(settlement);
+
+        double powerRate = 0D;
+        double thermalRate = 0D;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long startTime = System.nanoTime();
+            for (int x = 0; x < pulses; x++) {
+                powerGrid.timePassing(TIME_PULSE);
+            }
+            powerRate = pulses / ((System.nanoTime() - startTime) / 1000000000D);
+
+            startTime = System.nanoTime();
+            for (int x = 0; x < pulses; x++) {
+                thermalSystem.timePassing(TIME_PULSE);
+            }
+            thermalRate = pulses / ((System.nanoTime() - startTime) / 1000000000D);
+        }
+
+        System.out.println(String.format("%d building types", buildingTypes.size()));
+        System.out.println(String.format("%d buildings  power grid %10.0f pulses/s  thermal system %10.0f pulses/s",
+                manager.getBuildingNum(), powerRate, thermalRate));
+        System.exit(0);
+    }
+
+    private static Building createBuilding(BuildingManager manager, String buildingType, int number) {
+        BuildingTemplate template = new BuildingTemplate(manager.getUniqueBuildingIDNumber(), null,
+                buildingType, buildingType + " " + number, -1D, -1D, number * 20D, 0D, 0D);
+        return new Building(template, manager);
+    }
+}
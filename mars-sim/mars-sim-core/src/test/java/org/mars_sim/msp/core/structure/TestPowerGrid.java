@@ -0,0 +1,80 @@
+package org.mars_sim.msp.core.structure;
+
+import java.util.Iterator;
+
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.structure.building.Building;
+import org.mars_sim.msp.core.structure.building.BuildingManager;
+import org.mars_sim.msp.core.structure.building.MockBuilding;
+import org.mars_sim.msp.core.structure.building.function.PowerMode;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the power grid's totals of the power buildings require.
+ */
+public class TestPowerGrid extends TestCase {
+
+	private static final double DELTA = 0.0000001D;
+
+	private MockSettlement settlement;
+	private BuildingManager manager;
+	private PowerGrid powerGrid;
+
+	@Override
+	protected void setUp() throws Exception {
+		SimulationConfig.loadConfig();
+		settlement = new MockSettlement();
+		manager = settlement.getBuildingManager();
+		powerGrid = settlement.getPowerGrid();
+	}
+
+	/**
+	 * Test that the required power follows buildings added and removed.
+	 */
+	public void testAddRemoveBuilding() {
+		// Each mock building requires 1 kW for life support.
+		powerGrid.timePassing(1D);
+		assertEquals(1D, powerGrid.getRequiredPower(), DELTA);
+
+		Building building = new MockBuilding(manager);
+		manager.addBuilding(building, false);
+		powerGrid.timePassing(1D);
+		assertEquals(2D, powerGrid.getRequiredPower(), DELTA);
+
+		manager.removeBuilding(building);
+		powerGrid.timePassing(1D);
+		assertEquals(1D, powerGrid.getRequiredPower(), DELTA);
+	}
+
+	/**
+	 * Test that the buildings follow the power grid's mode.
+	 */
+	public void testPowerMode() {
+		manager.addBuilding(new MockBuilding(manager), false);
+		powerGrid.setPowerMode(PowerMode.POWER_DOWN);
+		powerGrid.timePassing(1D);
+		assertEquals(0D, powerGrid.getRequiredPower(), DELTA);
+		assertTrue(powerGrid.isSufficientPower());
+		assertBuildingPowerMode(PowerMode.POWER_DOWN);
+
+		// A building added while powered down.
+		manager.addBuilding(new MockBuilding(manager), false);
+		powerGrid.timePassing(1D);
+		assertBuildingPowerMode(PowerMode.POWER_DOWN);
+
+		// Without power generation, the buildings are powered down again.
+		powerGrid.setPowerMode(PowerMode.POWER_UP);
+		powerGrid.timePassing(1D);
+		assertEquals(3D, powerGrid.getRequiredPower(), DELTA);
+		assertFalse(powerGrid.isSufficientPower());
+		assertBuildingPowerMode(PowerMode.POWER_DOWN);
+	}
+
+	private void assertBuildingPowerMode(PowerMode powerMode) {
+		Iterator<Building> i = manager.getBuildings().iterator();
+		while (i.hasNext()) {
+			assertEquals(powerMode, i.next().getPowerMode());
+		}
+	}
+}
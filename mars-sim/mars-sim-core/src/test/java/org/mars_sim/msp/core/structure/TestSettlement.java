@@ -0,0 +1,67 @@
+package org.mars_sim.msp.core.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.person.Person;
+import org.mars_sim.msp.core.person.PersonGender;
+import org.mars_sim.msp.core.structure.building.MockBuilding;
+import org.mars_sim.msp.core.structure.building.function.BuildingAirlock;
+import org.mars_sim.msp.core.structure.building.function.EVA;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the settlement's index of inhabitants.
+ */
+public class TestSettlement extends TestCase {
+
+	private Settlement settlement;
+	private List<Person> people;
+
+	@Override
+	protected void setUp() throws Exception {
+		SimulationConfig.loadConfig();
+		settlement = new MockSettlement();
+		MockBuilding building = new MockBuilding(settlement.getBuildingManager());
+		building.addFunction(new EVA(building, new BuildingAirlock(building, 1, 0D, 0D, 0D, 0D, 0D, 0D)));
+		settlement.getBuildingManager().addBuilding(building, false);
+		people = new ArrayList<Person>();
+		for (int x = 0; x < 3; x++) {
+			people.add(new Person("Test Person " + x, PersonGender.MALE, "Earth", settlement));
+		}
+	}
+
+	/**
+	 * Test that the inhabitants follow people stored in and retrieved from the settlement.
+	 */
+	public void testInhabitants() {
+		assertEquals(3, settlement.getCurrentPopulationNum());
+		assertTrue(settlement.getInhabitants().containsAll(people));
+
+		Person person = people.get(0);
+		settlement.getInventory().retrieveUnit(person);
+		assertEquals(2, settlement.getCurrentPopulationNum());
+		assertFalse(settlement.getInhabitants().contains(person));
+
+		settlement.getInventory().storeUnit(person);
+		assertEquals(3, settlement.getCurrentPopulationNum());
+		assertTrue(settlement.getInhabitants().contains(person));
+		assertEquals(0, settlement.getCurrentNumOfRobots());
+	}
+
+	/**
+	 * Test that the inhabitants can't be changed through the collection returned.
+	 */
+	public void testInhabitantsReadOnly() {
+		try {
+			settlement.getInhabitants().remove(people.get(0));
+			fail("Inhabitants should be read-only.");
+		}
+		catch (UnsupportedOperationException e) {
+			// Expected.
+		}
+		assertEquals(3, settlement.getCurrentPopulationNum());
+	}
+}
@@ -18,16 +18,16 @@ public class MockBuilding extends Building {
 		buildingType = "Mock Building";
 		this.manager = manager;
 		malfunctionManager = new MalfunctionManager(this, 0D, 0D);
-		functions = new ArrayList<Function>();
-		functions.add(new LifeSupport(this, 10, 1));
+		setFunctions(new ArrayList<Function>());
+		addFunction(new LifeSupport(this, 10, 1));
 	}
 	public MockBuilding(BuildingTemplate template, BuildingManager manager)  {
 		super(template, manager);
 		buildingType = "Mock Building";
 		this.manager = manager;
 		malfunctionManager = new MalfunctionManager(this, 0D, 0D);
-		functions = new ArrayList<Function>();
-		functions.add(new LifeSupport(this, 10, 1));
+		setFunctions(new ArrayList<Function>());
+		addFunction(new LifeSupport(this, 10, 1));
 	}
 	
 	public void setID(int id) {
@@ -59,12 +59,10 @@ public class MockBuilding extends Building {
 	}
 	
 	public void addFunction(Function function) {
-	    functions.add(function);
+	    super.addFunction(function);
 	}
 	
 	public void removeFunction(Function function) {
-	    if (functions.contains(function)) {
-	        functions.remove(function);
-	    }
+	    super.removeFunction(function);
 	}
 }
\ No newline at end of file
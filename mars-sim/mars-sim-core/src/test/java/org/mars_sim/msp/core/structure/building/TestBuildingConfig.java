@@ -0,0 +1,179 @@
+package org.mars_sim.msp.core.structure.building;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jdom.Document;
+import org.jdom.Element;
+import org.mars_sim.msp.core.SimulationConfig;
+
+/**
+ * Unit test suite for the BuildingConfig class.
+ */
+public class TestBuildingConfig extends TestCase {
+
+	private Document buildingDoc;
+
+	@Override
+	protected void setUp() throws Exception {
+		SimulationConfig.loadConfig();
+		buildingDoc = SimulationConfig.parseXMLFileAsJDOMDocument(SimulationConfig.BUILDING_FILE, true);
+	}
+
+	/**
+	 * Test that the compiled getters return the values in the buildings configuration file.
+	 */
+	public void testGetters() {
+		checkConfig(SimulationConfig.instance().getBuildingConfiguration());
+	}
+
+	/**
+	 * Test that a configuration saved with its document, before the configuration was
+	 * compiled, is compiled when read.
+	 */
+	public void testReadDocument() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(new LegacyBuildingConfig(buildingDoc));
+		out.close();
+
+		byte[] saved = rename(bytes.toByteArray(), LegacyBuildingConfig.class.getName(),
+				BuildingConfig.class.getName());
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(saved));
+		BuildingConfig config = (BuildingConfig) in.readObject();
+		in.close();
+
+		checkConfig(config);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void checkConfig(BuildingConfig config) {
+		Set<String> types = new HashSet<String>();
+		List<Element> buildings = buildingDoc.getRootElement().getChildren("building");
+		for (Element building : buildings) {
+			String type = building.getAttributeValue("type");
+			// The first building element of a type is used.
+			if (!types.add(type)) continue;
+
+			assertEquals(getValue(building, "width"), config.getWidth(type));
+			assertEquals(getValue(building, "length"), config.getLength(type));
+			assertEquals((int) getValue(building, "base-level"), config.getBaseLevel(type));
+			assertEquals(getValue(building.getChild("power-required"), "base-power"),
+					config.getBasePowerRequirement(type));
+			assertEquals(getValue(building.getChild("power-required"), "base-power-down-power"),
+					config.getBasePowerDownPowerRequirement(type));
+			// Lookup ignores the case of the type.
+			assertEquals(config.getWidth(type), config.getWidth(type.toUpperCase()));
+
+			Element functions = building.getChild("functions");
+			Element lifeSupport = functions.getChild("life-support");
+			assertEquals(lifeSupport != null, config.hasLifeSupport(type));
+			if (lifeSupport != null) {
+				assertEquals((int) getValue(lifeSupport, "capacity"), config.getLifeSupportCapacity(type));
+				assertEquals(getValue(lifeSupport, "power-required"), config.getLifeSupportPowerRequirement(type));
+			}
+
+			Element research = functions.getChild("research");
+			assertEquals(research != null, config.hasResearchLab(type));
+			if (research != null) {
+				assertEquals((int) getValue(research, "tech-level"), config.getResearchTechLevel(type));
+				assertEquals((int) getValue(research, "capacity"), config.getResearchCapacity(type));
+				assertEquals(research.getChildren("research-specialty").size(),
+						config.getResearchSpecialties(type).size());
+			}
+
+			Element eva = functions.getChild("EVA");
+			assertEquals(eva != null, config.hasEVA(type));
+			if (eva != null) {
+				assertEquals((int) getValue(eva, "airlock-capacity"), config.getAirlockCapacity(type));
+				assertEquals(getValue(eva, "xloc"), config.getAirlockXLoc(type));
+				assertEquals(getValue(eva, "interior-yloc"), config.getAirlockInteriorYLoc(type));
+			}
+
+			Element processing = functions.getChild("resource-processing");
+			assertEquals(processing != null, config.hasResourceProcessing(type));
+			if (processing != null) {
+				assertEquals(processing.getChildren("process").size(), config.getResourceProcesses(type).size());
+			}
+
+			Element maintenance = functions.getChild("ground-vehicle-maintenance");
+			assertEquals(maintenance != null, config.hasGroundVehicleMaintenance(type));
+			if (maintenance != null) {
+				List<Element> locations = maintenance.getChildren("parking-location");
+				assertEquals(locations.size(), config.getParkingLocationNumber(type));
+				for (int x = 0; x < locations.size(); x++) {
+					assertEquals(getValue(locations.get(x), "xloc"), config.getParkingLocation(type, x).getX());
+					assertEquals(getValue(locations.get(x), "yloc"), config.getParkingLocation(type, x).getY());
+				}
+			}
+		}
+		assertEquals(types, config.getBuildingTypes());
+	}
+
+	private static double getValue(Element element, String attribute) {
+		return Double.parseDouble(element.getAttributeValue(attribute));
+	}
+
+	/**
+	 * Replaces a class name written in serialized bytes with another class name.
+	 */
+	private static byte[] rename(byte[] bytes, String oldName, String newName) throws Exception {
+		byte[] oldBytes = toUTF(oldName);
+		byte[] newBytes = toUTF(newName);
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		int x = 0;
+		while (x < bytes.length) {
+			if (startsWith(bytes, x, oldBytes)) {
+				result.write(newBytes);
+				x += oldBytes.length;
+			}
+			else {
+				result.write(bytes[x++]);
+			}
+		}
+		return result.toByteArray();
+	}
+
+	private static byte[] toUTF(String name) {
+		byte[] bytes = name.getBytes();
+		byte[] result = new byte[bytes.length + 2];
+		result[0] = (byte) (bytes.length >> 8);
+		result[1] = (byte) bytes.length;
+		System.arraycopy(bytes, 0, result, 2, bytes.length);
+		return result;
+	}
+
+	private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+		if (offset + prefix.length > bytes.length) return false;
+		for (int x = 0; x < prefix.length; x++) {
+			if (bytes[offset + x] != prefix[x]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The building configuration as saved before it was compiled, with the same fields as
+	 * the BuildingConfig class had.
+	 */
+	private static class LegacyBuildingConfig implements Serializable {
+
+		/** default serial id. */
+		private static final long serialVersionUID = 1L;
+
+		private Document buildingDoc;
+		private Set<String> buildingTypes;
+
+		private LegacyBuildingConfig(Document buildingDoc) {
+			this.buildingDoc = buildingDoc;
+			buildingTypes = new HashSet<String>();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package org.mars_sim.msp.core.structure.building;
+
+import java.util.List;
+
+import org.mars_sim.msp.core.SimulationConfig;
+import org.mars_sim.msp.core.structure.MockSettlement;
+import org.mars_sim.msp.core.structure.building.function.BuildingAirlock;
+import org.mars_sim.msp.core.structure.building.function.BuildingFunction;
+import org.mars_sim.msp.core.structure.building.function.EVA;
+import org.mars_sim.msp.core.structure.building.function.Function;
+import org.mars_sim.msp.core.structure.building.function.LifeSupport;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the building manager's function index and the building's function table.
+ */
+public class TestBuildingManager extends TestCase {
+
+    private BuildingManager manager;
+
+    @Override
+    protected void setUp() throws Exception {
+        SimulationConfig.loadConfig();
+        manager = new MockSettlement().getBuildingManager();
+    }
+
+    /**
+     * Test that a building finds its functions.
+     */
+    public void testBuildingFunctions() {
+        MockBuilding building = new MockBuilding(manager);
+        assertTrue(building.hasFunction(BuildingFunction.LIFE_SUPPORT));
+        assertTrue(building.getFunction(BuildingFunction.LIFE_SUPPORT) instanceof LifeSupport);
+        assertFalse(building.hasFunction(BuildingFunction.EVA));
+        assertNull(building.getFunction(BuildingFunction.EVA));
+
+        Function eva = new EVA(building, new BuildingAirlock(building, 1, 0D, 0D, 0D, 0D, 0D, 0D));
+        building.addFunction(eva);
+        assertSame(eva, building.getFunction(BuildingFunction.EVA));
+
+        building.removeFunction(eva);
+        assertFalse(building.hasFunction(BuildingFunction.EVA));
+    }
+
+    /**
+     * Test that the function lists follow buildings added and removed.
+     */
+    public void testAddRemoveBuilding() {
+        List<Building> lifeSupport = manager.getBuildings(BuildingFunction.LIFE_SUPPORT);
+        int initial = lifeSupport.size();
+        assertTrue(manager.getBuildings(BuildingFunction.EVA).isEmpty());
+
+        MockBuilding building = new MockBuilding(manager);
+        manager.addBuilding(building, false);
+        assertEquals(initial + 1, lifeSupport.size());
+        assertSame(building, lifeSupport.get(initial));
+
+        manager.removeBuilding(building);
+        assertEquals(initial, lifeSupport.size());
+        assertFalse(lifeSupport.contains(building));
+    }
+
+    /**
+     * Test that the function lists follow functions added to a building in the settlement.
+     */
+    public void testFunctionAdded() {
+        MockBuilding building = new MockBuilding(manager);
+        manager.addBuilding(building, false);
+        assertTrue(manager.getBuildings(BuildingFunction.EVA).isEmpty());
+
+        building.addFunction(new EVA(building, new BuildingAirlock(building, 1, 0D, 0D, 0D, 0D, 0D, 0D)));
+        List<Building> evaBuildings = manager.getBuildings(BuildingFunction.EVA);
+        assertEquals(1, evaBuildings.size());
+        assertSame(building, evaBuildings.get(0));
+
+        List<Building> both = manager.getBuildings(new BuildingFunction[] {
+                BuildingFunction.LIFE_SUPPORT, BuildingFunction.EVA });
+        assertEquals(1, both.size());
+        assertSame(building, both.get(0));
+    }
+
+    /**
+     * Test that the function lists can't be modified.
+     */
+    public void testUnmodifiable() {
+        try {
+            manager.getBuildings(BuildingFunction.LIFE_SUPPORT).add(new MockBuilding(manager));
+            fail("Function list was modifiable.");
+        }
+        catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+    }
+}
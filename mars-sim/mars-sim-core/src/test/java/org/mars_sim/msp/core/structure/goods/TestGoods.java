@@ -1,14 +1,27 @@
 package org.mars_sim.msp.core.structure.goods;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import junit.framework.TestCase;
 
+import org.mars_sim.msp.core.Inventory;
 import org.mars_sim.msp.core.LifeSupportType;
+import org.mars_sim.msp.core.Simulation;
 import org.mars_sim.msp.core.SimulationConfig;
 import org.mars_sim.msp.core.equipment.Bag;
+import org.mars_sim.msp.core.manufacture.ManufactureProcessInfo;
+import org.mars_sim.msp.core.manufacture.ManufactureProcessItem;
+import org.mars_sim.msp.core.manufacture.ManufactureUtil;
 import org.mars_sim.msp.core.resource.AmountResource;
 import org.mars_sim.msp.core.resource.ItemResource;
+import org.mars_sim.msp.core.structure.Settlement;
 
 public class TestGoods extends TestCase {
 
@@ -58,4 +71,91 @@ public class TestGoods extends TestCase {
 		Good falseRoverGood = GoodsUtil.getVehicleGood("False Rover");
 		assertTrue( !GoodsUtil.containsGood(falseRoverGood));
 	}
-}
\ No newline at end of file
+
+	public void testIceValueDependents() {
+		Good iceGood = GoodsUtil.getResourceGood(AmountResource.findAmountResource("ice"));
+		Set<Good> dependents = GoodsUtil.getValueDependents(iceGood);
+		assertTrue(dependents.contains(GoodsUtil.getEquipmentGood(Bag.class)));
+		assertTrue(dependents.contains(GoodsUtil.getVehicleGood("Transport Rover")));
+	}
+
+	public void testManufactureValueDependents() {
+		ManufactureProcessInfo process = ManufactureUtil.getAllManufactureProcesses().get(0);
+		Good output = ManufactureUtil.getGood(process.getOutputList().get(0));
+		Set<Good> dependents = GoodsUtil.getValueDependents(output);
+		for (ManufactureProcessItem input : process.getInputList()) {
+			Good inputGood = ManufactureUtil.getGood(input);
+			if (!inputGood.equals(output)) {
+				assertTrue(dependents.contains(inputGood));
+			}
+		}
+	}
+
+	/**
+	 * Test that a partial update only revalues the goods whose inputs changed,
+	 * and the goods depending on them.
+	 */
+	public void testPartialUpdate() {
+		Simulation.createNewSimulation();
+		// Destroying an earlier simulation clears the goods list.
+		goodsList = GoodsUtil.getGoodsList();
+		Settlement settlement = Simulation.instance().getUnitManager().getSettlements().iterator().next();
+		GoodsManager manager = settlement.getGoodsManager();
+		manager.updateGoodsValues();
+		assertEquals(1, manager.getFullUpdates());
+
+		Map<Good, Double> values = new HashMap<Good, Double>();
+		Iterator<Good> i = goodsList.iterator();
+		while (i.hasNext()) {
+			Good good = i.next();
+			values.put(good, manager.getGoodValuePerItem(good));
+		}
+
+		// Nothing is revalued while nothing changes.
+		int goodsRevalued = manager.getGoodsRevalued();
+		manager.updateGoodsValues();
+		assertEquals(1, manager.getPartialUpdates());
+		assertEquals(goodsRevalued, manager.getGoodsRevalued());
+
+		// Change the supply of ice.
+		AmountResource ice = AmountResource.findAmountResource("ice");
+		Good iceGood = GoodsUtil.getResourceGood(ice);
+		Inventory inv = settlement.getInventory();
+		double amount = inv.getAmountResourceStored(ice, false) + 1000D;
+		inv.addAmountResourceTypeCapacity(ice, amount);
+		inv.storeAmountResource(ice, amount, true);
+
+		manager.updateGoodsValues();
+		assertEquals(1, manager.getFullUpdates());
+		assertEquals(2, manager.getPartialUpdates());
+		assertTrue(manager.getGoodsRevalued() > goodsRevalued);
+		assertTrue(manager.getGoodsRevalued() - goodsRevalued < goodsList.size());
+		assertFalse(values.get(iceGood).equals(manager.getGoodValuePerItem(iceGood)));
+
+		// Goods not depending on ice keep their values.
+		Set<Good> affected = getValueDependentClosure(iceGood);
+		i = goodsList.iterator();
+		while (i.hasNext()) {
+			Good good = i.next();
+			if (!affected.contains(good)) {
+				assertEquals(good.getName(), values.get(good), manager.getGoodValuePerItem(good));
+			}
+		}
+	}
+
+	/**
+	 * Gets a good and all the goods depending on its value, directly or not.
+	 */
+	private static Set<Good> getValueDependentClosure(Good good) {
+		Set<Good> result = new HashSet<Good>();
+		Deque<Good> queue = new ArrayDeque<Good>();
+		queue.add(good);
+		while (!queue.isEmpty()) {
+			Good next = queue.poll();
+			if (result.add(next)) {
+				queue.addAll(GoodsUtil.getValueDependents(next));
+			}
+		}
+		return result;
+	}
+}
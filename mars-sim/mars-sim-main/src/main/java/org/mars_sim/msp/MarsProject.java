@@ -280,6 +280,9 @@ public class MarsProject {
             }
         }
 
+        // Cache the configuration, and the data computed from it, between starts.
+        SimulationConfig.setCacheDirectory(new File(Simulation.CACHE_DIR));
+
         // general text antialiasing
         System.setProperty("swing.aatext", "true");
         System.setProperty("awt.useSystemAAFontSettings","lcd"); // for newer VMs
@@ -325,6 +325,9 @@ public class MarsProjectFX extends Application  {
     	//logger.info("MarsProjectFX's main() is in " + Thread.currentThread().getName() + " Thread");
     	MarsProjectFX.args = args;
 
+        // Cache the configuration, and the data computed from it, between starts.
+        SimulationConfig.setCacheDirectory(new File(Simulation.CACHE_DIR));
+
         //HelloNode app = new HelloNode();
         //app.setShowSettings(false);
         //app.start();
@@ -14,15 +14,17 @@ import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * A map that uses integer data stored in files to represent colors.
+ * The colors are decoded once into a memory-mapped cache file, see {@link MapColorStore}.
+ * Map images are drawn from a table of the location of each image pixel relative to the
+ * map center, which only needs to be computed again when the center latitude changes.
  */
 abstract class IntegerMapData implements MapData {
 
@@ -37,19 +39,40 @@ abstract class IntegerMapData implements MapData {
     private static final double TWO_PI = Math.PI * 2D;
     
     // Data members.
-    private List<int[]> mapColors = null;
+    private MapColorStore mapColors = null;
+    /** The number of columns per radian of theta in each row. */
+    private double[] columnScales;
+    /** The projection table of the last map image. */
+    private volatile ProjectionTable projectionTable;
     
     /**
      * Constructor
      * @param indexFileName the index data file name.
      * @param mapFileName the map data file name.
+     * @param cacheDirectory the directory to cache the decoded map colors in, or null for none.
      */
-    public IntegerMapData(String indexFileName, String mapFileName) {
+    public IntegerMapData(String indexFileName, String mapFileName, File cacheDirectory) {
+        this(IntegerMapData.class.getClassLoader(), indexFileName, mapFileName, cacheDirectory);
+    }
+    
+    /**
+     * Constructor
+     * @param loader the class loader of the data files.
+     * @param indexFileName the index data file name.
+     * @param mapFileName the map data file name.
+     * @param cacheDirectory the directory to cache the decoded map colors in, or null for none.
+     */
+    IntegerMapData(ClassLoader loader, String indexFileName, String mapFileName, File cacheDirectory) {
         
         // Load data files
         try {
-            int[] index = loadIndexData(indexFileName);
-            mapColors = loadMapData(mapFileName, index);
+            int[] index = loadIndexData(loader, indexFileName);
+            long startTime = System.currentTimeMillis();
+            mapColors = MapColorStore.load(loader, index, mapFileName, cacheDirectory);
+            logger.fine("Loaded " + mapFileName + " in " + (System.currentTimeMillis() - startTime) + " ms");
+            
+            columnScales = new double[index.length];
+            for (int x = 0; x < index.length; x++) columnScales[x] = (double) index[x] / TWO_PI;
         }
         catch (IOException e) {
             logger.log(Level.SEVERE,"Could not find map data files.", e) ;
@@ -59,14 +82,14 @@ abstract class IntegerMapData implements MapData {
     /**
      * Loads the index data from a file.
      *
+     * @param loader the class loader of the file
      * @param file name
      * @return array of index data
      * @throws IOException if file cannot be loaded.
      */
-    private int[] loadIndexData(String filename) throws IOException {
+    private static int[] loadIndexData(ClassLoader loader, String filename) throws IOException {
     
         // Load index data from map_data jar file.
-        ClassLoader loader = getClass().getClassLoader();
         InputStream indexStream = loader.getResourceAsStream(filename);
         if (indexStream == null) throw new IOException("Can not load " + filename);
 
@@ -81,125 +104,34 @@ abstract class IntegerMapData implements MapData {
         return index;
     }
     
-    /** 
-     * Loads the map data from a file.
-     *
-     * @param filename the map data file
-     * @param index the index array
-     * @return array list of map data
-     * @throws IOException if map data cannot be loaded.
-     */
-    private ArrayList<int[]> loadMapData(String filename, int[] index) throws IOException {
-     
-        // Load map data from map_data jar file.
-        ClassLoader loader = getClass().getClassLoader();
-        InputStream mapStream = loader.getResourceAsStream(filename);
-        if (mapStream == null) throw new IOException("Can not load " + filename);
-        
-        // Read stream into an array.
-        BufferedInputStream mapBuff = new BufferedInputStream(mapStream);
-        DataInputStream mapReader = new DataInputStream(mapBuff);
-        
-        // Create map colors array list.
-        ArrayList<int[]> mapColors = new ArrayList<int[]>(MAP_HEIGHT);
-        
-        // Create an array of colors for each pixel in map height.
-        for (int x=0; x < MAP_HEIGHT; x++) {
-            int[] colors = new int[index[x]];
-            for (int y=0; y < colors.length; y++) {
-                int red = mapReader.readByte();
-                red <<= 16;
-                red &= 0x00FF0000;
-                int green = mapReader.readByte();
-                green <<= 8;
-                green &= 0x0000FF00;
-                int blue = mapReader.readByte();
-                blue &= 0x000000FF;
-                int totalColor = 0xFF000000 | red | green | blue;
-                colors[y] = (new Color(totalColor)).getRGB();
-            }
-            mapColors.add(colors);
-        }
-       
-        return mapColors;
-    }
-    
     @Override
     public Image getMapImage(double centerPhi, double centerTheta) {
         
         // Create a new buffered image to draw the map on.
         BufferedImage result = new BufferedImage(IMAGE_WIDTH, IMAGE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
         
-        // The map data is PI offset from the center theta.    
-        double correctedTheta = centerTheta - Math.PI;
-        while (correctedTheta < 0D) correctedTheta += TWO_PI;
-        while (correctedTheta > TWO_PI) correctedTheta -= TWO_PI;
+        // Get the projection table for the center phi.
+        ProjectionTable table = projectionTable;
+        if ((table == null) || (table.centerPhi != centerPhi)) {
+            table = new ProjectionTable(centerPhi);
+            projectionTable = table;
+        }
         
         // Create an array of int RGB color values to create the map image from. 
         int[] mapArray = new int[IMAGE_WIDTH * IMAGE_HEIGHT];
         
-        // Determine phi iteration angle.
-        double phiIterationPadding = 1.26D; //Derived from testing.
-        double phiIterationAngle = Math.PI / ((double) MAP_HEIGHT * phiIterationPadding);
-        
-        // Determine phi range.
-        double phiPadding = 1.46D; // Derived from testing.
-        double phiRange = ((double) IMAGE_HEIGHT / (double) MAP_HEIGHT) * Math.PI * phiPadding;
-        
-        // Determine starting and ending phi values.
-        double startPhi = centerPhi - (phiRange / 2D);
-        if (startPhi < 0D) startPhi = 0D;
-        double endPhi = centerPhi + (phiRange / 2D);
-        if (endPhi > Math.PI) endPhi = Math.PI;
-        
-        // Loop through each phi value.
-        for (double x = startPhi; x <= endPhi; x+= phiIterationAngle) {
-            
-            // Determine theta iteration angle.
-            double thetaIterationPadding = 1.46D; // Derived from testing.
-            double thetaIterationAngle = TWO_PI / (((double) MAP_WIDTH * Math.sin(x) * thetaIterationPadding) + 1D);
-            
-            // Determine theta range.
-            double minThetaPadding = 1.02D;  // Derived from testing.
-            double minThetaDisplay = TWO_PI * ((double) IMAGE_WIDTH / (double) MAP_WIDTH) * minThetaPadding;          
-            double thetaRange = ((1D - Math.sin(x)) * TWO_PI) + minThetaDisplay;
-            double polarCapRange = Math.PI / 6.54D; // Polar cap phi values must display 2 PI theta range. (derived from testing)
-            if ((x < polarCapRange) || (x > (Math.PI - polarCapRange))) thetaRange = TWO_PI;
-            if (thetaRange > TWO_PI) thetaRange = TWO_PI;
+        for (int x = 0; x < mapArray.length; x++) {
+            int row = table.rows[x];
+            if (row < 0) continue;
             
-            // Determine the theta starting and ending values.
-            double startTheta = centerTheta - (thetaRange / 2D);
-            double endTheta = centerTheta + (thetaRange / 2D);
+            // The map data is PI offset from the center theta, which is in the table.
+            double theta = table.thetas[x] + centerTheta;
+            while (theta < 0D) theta += TWO_PI;
+            while (theta >= TWO_PI) theta -= TWO_PI;
             
-            // Loop through each theta value.
-            for (double y = startTheta; y <= endTheta; y+= thetaIterationAngle) {
-               
-                // Correct y value to make sure it is within bounds. (0 to 2PI)
-                double yCorrected = y;
-                while (yCorrected < 0) yCorrected+= TWO_PI;
-                while (yCorrected > TWO_PI) yCorrected-= TWO_PI;
-               
-                // Determine the rectangular offset of the pixel in the image.
-                Point location = findRectPosition(centerPhi, centerTheta, x, yCorrected, 1440D / Math.PI, 720, 720 - 150);
-                
-                // Determine the display x and y coordinates for the pixel in the image.
-                int displayX = IMAGE_WIDTH - location.x;
-                int displayY = IMAGE_HEIGHT - location.y;
-                
-                // Check that the x and y coordinates are within the display area.
-                boolean leftBounds = displayX >= 0;
-                boolean rightBounds = displayX < IMAGE_WIDTH;
-                boolean topBounds = displayY >= 0;
-                boolean bottomBounds = displayY < IMAGE_HEIGHT;
-                if (leftBounds && rightBounds && topBounds && bottomBounds) {
-                    
-                    // Determine array index for the display location.
-                    int index = (IMAGE_WIDTH - displayX) + ((IMAGE_HEIGHT - displayY) * IMAGE_WIDTH);
-                    
-                    // Put color in array at index.
-                    if ((index >= 0) && (index < mapArray.length)) mapArray[index] = getRGBColorInt(x, yCorrected);
-                }
-            }
+            int column = (int) Math.round(theta * columnScales[row]);
+            if (column == mapColors.getRowLength(row)) column--;
+            mapArray[x] = mapColors.getColor(row, column);
         }
         
         // Create new map image.
@@ -231,14 +163,23 @@ abstract class IntegerMapData implements MapData {
         while (theta > TWO_PI) theta-= TWO_PI;
         while (theta < 0) theta+= TWO_PI;
         
-        int row = (int) Math.round(phi * (MAP_HEIGHT / Math.PI));
-        if (row == mapColors.size()) row--;
+        int row = getRow(phi);
         
-        int[] colorRow = mapColors.get(row);
-        int column = (int) Math.round(theta * ((double) colorRow.length / TWO_PI));
-        if (column == colorRow.length) column--;
+        int column = (int) Math.round(theta * columnScales[row]);
+        if (column == mapColors.getRowLength(row)) column--;
         
-        return colorRow[column];
+        return mapColors.getColor(row, column);
+    }
+    
+    /**
+     * Gets the map data row of a phi location.
+     * @param phi the phi location (0 to PI).
+     * @return the row.
+     */
+    private static int getRow(double phi) {
+        int row = (int) Math.round(phi * (MAP_HEIGHT / Math.PI));
+        if (row == MAP_HEIGHT) row--;
+        return row;
     }
     
     /**
@@ -263,4 +204,49 @@ abstract class IntegerMapData implements MapData {
                 (rho * Math.cos(newPhi) * (0D - Math.sin(oldPhi)))) + half_map) - low_edge;
         return new Point(buff_x, buff_y);
     }
-}
\ No newline at end of file
+    
+    /**
+     * The map data location shown at each pixel of a map image for a center phi.
+     * This is the inverse of {@link #findRectPosition(double, double, double, double, double, int, int)},
+     * with the pixel offsets rotated back to the map center. As the image only spans
+     * a part of the near side of Mars, every pixel shows a location.
+     */
+    private static final class ProjectionTable {
+        
+        /** The center phi of the map image. */
+        private final double centerPhi;
+        /** The map data row of each pixel, or -1 if off the planet. */
+        private final int[] rows;
+        /** The theta of each pixel relative to the center theta, plus the PI map data offset. */
+        private final float[] thetas;
+        
+        private ProjectionTable(double centerPhi) {
+            this.centerPhi = centerPhi;
+            rows = new int[IMAGE_WIDTH * IMAGE_HEIGHT];
+            thetas = new float[rows.length];
+            
+            double sinPhi = Math.sin(centerPhi);
+            double cosPhi = Math.cos(centerPhi);
+            for (int y = 0; y < IMAGE_HEIGHT; y++) {
+                double rectY = (double) (y - (IMAGE_HEIGHT / 2)) / PIXEL_RHO;
+                for (int x = 0; x < IMAGE_WIDTH; x++) {
+                    int index = x + (y * IMAGE_WIDTH);
+                    double rectX = (double) (x - (IMAGE_WIDTH / 2)) / PIXEL_RHO;
+                    double depthSquared = 1D - (rectX * rectX) - (rectY * rectY);
+                    if (depthSquared < 0D) {
+                        rows[index] = -1;
+                        continue;
+                    }
+                    double depth = Math.sqrt(depthSquared);
+                    
+                    // Rotate from the image to the center meridian.
+                    double meridianX = (rectY * cosPhi) + (depth * sinPhi);
+                    double meridianZ = (depth * cosPhi) - (rectY * sinPhi);
+                    double phi = Math.acos(Math.max(-1D, Math.min(1D, meridianZ)));
+                    rows[index] = getRow(phi);
+                    thetas[index] = (float) (Math.atan2(rectX, meridianX) + Math.PI);
+                }
+            }
+        }
+    }
+}
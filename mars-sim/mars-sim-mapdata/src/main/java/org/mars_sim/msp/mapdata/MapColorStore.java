@@ -0,0 +1,261 @@
+/**
+ * Mars Simulation Project
+ * MapColorStore.java
+ * @version 3.08 2015-08-10
+ */
+
+package org.mars_sim.msp.mapdata;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The decoded ARGB colors of a map, row by row.
+ * The map data files hold 3 bytes a pixel, with a varying number of pixels in each row.
+ * They are decoded once into a raw ARGB file in a cache directory, which is then
+ * memory-mapped, so later runs start without decoding and the colors aren't copied
+ * onto the heap.
+ */
+final class MapColorStore {
+
+    // Static members.
+    private static Logger logger = Logger.getLogger(MapColorStore.class.getName());
+
+    private static final String CACHE_SUFFIX = ".argb";
+    private static final int MAGIC = 0x4D415243;
+    private static final int VERSION = 1;
+    /** The number of rows converted at once when writing the cache file. */
+    private static final int ROWS_PER_WRITE = 32;
+
+    // Data members.
+    /** The colors of all rows, one after the other. */
+    private IntBuffer colors;
+    /** The position of each row in the colors. */
+    private int[] rowOffsets;
+    /** The number of colors in each row. */
+    private int[] rowLengths;
+
+    /**
+     * Constructor.
+     * @param colors the colors of all rows.
+     * @param rowLengths the number of colors in each row.
+     */
+    private MapColorStore(IntBuffer colors, int[] rowLengths) {
+        this.colors = colors;
+        this.rowLengths = rowLengths;
+        rowOffsets = new int[rowLengths.length];
+        int offset = 0;
+        for (int x = 0; x < rowLengths.length; x++) {
+            rowOffsets[x] = offset;
+            offset += rowLengths[x];
+        }
+    }
+
+    /**
+     * Loads the colors of a map, from the cache directory if they were already decoded.
+     * If the cache cannot be used, the map data is decoded onto the heap.
+     * @param loader the class loader of the map data resources.
+     * @param rowLengths the number of colors in each row, from the index file.
+     * @param mapFileName the map data resource.
+     * @param cacheDirectory the cache directory, or null for none.
+     * @return the colors.
+     * @throws IOException if the map data cannot be loaded.
+     */
+    static MapColorStore load(ClassLoader loader, int[] rowLengths, String mapFileName,
+            File cacheDirectory) throws IOException {
+
+        URL mapURL = loader.getResource(mapFileName);
+        if (mapURL == null) throw new IOException("Can not load " + mapFileName);
+
+        if (cacheDirectory != null) {
+            long key = getKey(mapURL, rowLengths);
+            File file = new File(cacheDirectory, mapFileName + CACHE_SUFFIX);
+            try {
+                if (file.isFile()) {
+                    MapColorStore store = map(file, key, rowLengths);
+                    if (store != null) return store;
+                }
+
+                // Decode straight into the cache file, then map it.
+                if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs())
+                    throw new IOException("Cannot create cache directory " + cacheDirectory);
+                File tempFile = new File(cacheDirectory, file.getName() + ".tmp");
+                write(mapURL, key, rowLengths, tempFile);
+                if (file.exists()) file.delete();
+                if (!tempFile.renameTo(file)) {
+                    tempFile.delete();
+                    throw new IOException("Cannot rename " + tempFile + " to " + file);
+                }
+                MapColorStore store = map(file, key, rowLengths);
+                if (store != null) return store;
+            }
+            catch (IOException e) {
+                logger.log(Level.WARNING, "Cannot cache map colors in " + cacheDirectory
+                        + ", decoding them in memory.", e);
+            }
+        }
+
+        return decode(mapURL, rowLengths);
+    }
+
+    /**
+     * Gets the key of a map data resource, to check a cache file was decoded from it.
+     */
+    private static long getKey(URL mapURL, int[] rowLengths) throws IOException {
+        URLConnection connection = mapURL.openConnection();
+        long result = (31L * connection.getContentLengthLong()) + connection.getLastModified();
+        connection.getInputStream().close();
+        for (int length : rowLengths) result = (31L * result) + length;
+        return result;
+    }
+
+    /**
+     * Gets the size of the cache file header.
+     */
+    private static int getHeaderSize(int rowNum) {
+        // Magic number, version, key, row number and row lengths.
+        return 4 + 4 + 8 + 4 + (4 * rowNum);
+    }
+
+    private static long getColorNum(int[] rowLengths) {
+        long result = 0L;
+        for (int length : rowLengths) result += length;
+        return result;
+    }
+
+    /**
+     * Memory-maps a cache file.
+     * @return the colors, or null if the file is for other map data.
+     */
+    private static MapColorStore map(File file, long key, int[] rowLengths) throws IOException {
+        int headerSize = getHeaderSize(rowLengths.length);
+        long size = headerSize + (4L * getColorNum(rowLengths));
+        if (file.length() != size) return null;
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION) || (buffer.getLong() != key)
+                    || (buffer.getInt() != rowLengths.length)) return null;
+            for (int length : rowLengths) {
+                if (buffer.getInt() != length) return null;
+            }
+            buffer.position(headerSize);
+            return new MapColorStore(buffer.slice().asIntBuffer(), rowLengths);
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Decodes map data into a cache file.
+     */
+    private static void write(URL mapURL, long key, int[] rowLengths, File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(mapURL.openStream()));
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(0L);
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(getHeaderSize(rowLengths.length));
+            header.putInt(MAGIC).putInt(VERSION).putLong(key).putInt(rowLengths.length);
+            for (int length : rowLengths) header.putInt(length);
+            header.flip();
+            while (header.hasRemaining()) channel.write(header);
+
+            int maxLength = 0;
+            for (int length : rowLengths) maxLength = Math.max(maxLength, length);
+            byte[] bytes = new byte[3 * maxLength];
+            ByteBuffer buffer = ByteBuffer.allocate(4 * maxLength * ROWS_PER_WRITE);
+            for (int row = 0; row < rowLengths.length; row++) {
+                int length = rowLengths[row];
+                in.readFully(bytes, 0, 3 * length);
+                for (int x = 0; x < length; x++) buffer.putInt(toARGB(bytes, x));
+                if (((row + 1) % ROWS_PER_WRITE == 0) || (row == rowLengths.length - 1)) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                    buffer.clear();
+                }
+            }
+        }
+        finally {
+            raf.close();
+            in.close();
+        }
+    }
+
+    /**
+     * Decodes map data onto the heap.
+     */
+    private static MapColorStore decode(URL mapURL, int[] rowLengths) throws IOException {
+        long colorNum = getColorNum(rowLengths);
+        if (colorNum > Integer.MAX_VALUE) throw new IOException("Map data too large: " + colorNum);
+        int[] colors = new int[(int) colorNum];
+
+        InputStream mapStream = mapURL.openStream();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(mapStream));
+        try {
+            byte[] bytes = new byte[0];
+            int offset = 0;
+            for (int length : rowLengths) {
+                if (bytes.length < 3 * length) bytes = new byte[3 * length];
+                in.readFully(bytes, 0, 3 * length);
+                for (int x = 0; x < length; x++) colors[offset++] = toARGB(bytes, x);
+            }
+        }
+        finally {
+            in.close();
+        }
+        return new MapColorStore(IntBuffer.wrap(colors), rowLengths);
+    }
+
+    /**
+     * Gets the opaque ARGB color of a pixel in a row of map data.
+     */
+    private static int toARGB(byte[] bytes, int pixel) {
+        int offset = 3 * pixel;
+        return 0xFF000000 | ((bytes[offset] & 0xFF) << 16) | ((bytes[offset + 1] & 0xFF) << 8)
+                | (bytes[offset + 2] & 0xFF);
+    }
+
+    /**
+     * Gets the number of rows.
+     * @return number of rows.
+     */
+    int getRowNum() {
+        return rowLengths.length;
+    }
+
+    /**
+     * Gets the number of colors in a row.
+     * @param row the row.
+     * @return number of colors.
+     */
+    int getRowLength(int row) {
+        return rowLengths[row];
+    }
+
+    /**
+     * Gets a color.
+     * @param row the row.
+     * @param column the column in the row.
+     * @return the ARGB color.
+     */
+    int getColor(int row, int column) {
+        return colors.get(rowOffsets[row] + column);
+    }
+}
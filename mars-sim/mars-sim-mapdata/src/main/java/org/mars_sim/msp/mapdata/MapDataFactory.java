@@ -8,6 +8,8 @@
 
 package org.mars_sim.msp.mapdata;
 
+import java.io.File;
+
 /**
  * A factory for map data.
  */
@@ -20,6 +22,7 @@ class MapDataFactory {
     // Data members.
     private MapData surfaceMapData;
     private MapData topoMapData;
+    private File cacheDirectory;
     
     /**
      * Constructor.
@@ -28,6 +31,14 @@ class MapDataFactory {
         
     }
     
+    /**
+     * Sets the directory to cache the decoded map colors in.
+     * @param cacheDirectory the cache directory, or null for none.
+     */
+    void setCacheDirectory(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+    
     /**
      * Gets map data of the requested type.
      * @param mapType the map type.
@@ -56,7 +67,7 @@ class MapDataFactory {
     private MapData getSurfaceMapData() {
         // Create surface map data if it doesn't exist.
         if (surfaceMapData == null) {
-            surfaceMapData = new SurfaceMapData();
+            surfaceMapData = new SurfaceMapData(cacheDirectory);
         }
         return surfaceMapData;
     }
@@ -68,7 +79,7 @@ class MapDataFactory {
     private MapData getTopoMapData() {
         // Create topo map data if it doesn't exist.
         if (topoMapData == null) {
-            topoMapData = new TopoMapData();
+            topoMapData = new TopoMapData(cacheDirectory);
         }
         return topoMapData;
     }
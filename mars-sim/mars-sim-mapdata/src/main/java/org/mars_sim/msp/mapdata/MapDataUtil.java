@@ -8,6 +8,8 @@
 
 package org.mars_sim.msp.mapdata;
 
+import java.io.File;
+
 /**
  * Static utility class for accessing Mars map data.
  */
@@ -35,6 +37,16 @@ public final class MapDataUtil {
         return instance;
     }
     
+    /**
+     * Sets the directory to cache the decoded map colors in.
+     * This only applies to map data not yet loaded, and the colors are decoded
+     * in memory if it isn't set.
+     * @param cacheDirectory the cache directory, or null for none.
+     */
+    public void setCacheDirectory(File cacheDirectory) {
+        mapDataFactory.setCacheDirectory(cacheDirectory);
+    }
+    
     /**
      * Get the surface map data.
      * @return surface map data.
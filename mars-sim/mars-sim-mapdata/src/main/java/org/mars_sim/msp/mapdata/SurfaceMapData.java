@@ -8,6 +8,8 @@
 
 package org.mars_sim.msp.mapdata;
 
+import java.io.File;
+
 /**
  * Surface map data.
  */
@@ -19,8 +21,9 @@ public class SurfaceMapData extends IntegerMapData {
     
     /**
      * Constructor
+     * @param cacheDirectory the directory to cache the decoded map colors in, or null for none.
      */
-    public SurfaceMapData() {
-        super(INDEX_FILE, MAP_FILE);
+    public SurfaceMapData(File cacheDirectory) {
+        super(INDEX_FILE, MAP_FILE, cacheDirectory);
     }
 }
\ No newline at end of file
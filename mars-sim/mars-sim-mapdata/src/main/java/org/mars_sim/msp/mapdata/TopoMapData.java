@@ -8,6 +8,8 @@
 
 package org.mars_sim.msp.mapdata;
 
+import java.io.File;
+
 /**
  * Topographical map data.
  */
@@ -19,8 +21,9 @@ public class TopoMapData extends IntegerMapData {
     
     /**
      * Constructor
+     * @param cacheDirectory the directory to cache the decoded map colors in, or null for none.
      */
-    public TopoMapData() {
-        super(INDEX_FILE, MAP_FILE);
+    public TopoMapData(File cacheDirectory) {
+        super(INDEX_FILE, MAP_FILE, cacheDirectory);
     }
 }
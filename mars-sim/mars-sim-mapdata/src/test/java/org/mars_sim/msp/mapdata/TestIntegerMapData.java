@@ -0,0 +1,208 @@
+package org.mars_sim.msp.mapdata;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the IntegerMapData and MapColorStore classes.
+ * The map data is generated with the map row and column in each color, so the
+ * location shown at each pixel of a map image can be checked.
+ */
+public class TestIntegerMapData extends TestCase {
+
+	private static final String INDEX_FILE = "SurfaceMarsMap.index";
+	private static final String MAP_FILE = "TestMarsMap.dat";
+	private static final int IMAGE_SIZE = 300;
+	private static final double TWO_PI = Math.PI * 2D;
+
+	private File directory;
+	private int[] index;
+	private ClassLoader loader;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = File.createTempFile("mapdata", "");
+		directory.delete();
+		directory.mkdirs();
+
+		index = new int[IntegerMapData.MAP_HEIGHT];
+		InputStream indexStream = getClass().getClassLoader().getResourceAsStream(INDEX_FILE);
+		DataInputStream in = new DataInputStream(indexStream);
+		try {
+			for (int x = 0; x < index.length; x++) index[x] = in.readInt();
+		}
+		finally {
+			in.close();
+		}
+
+		writeMap(0);
+		loader = new URLClassLoader(new URL[] { directory.toURI().toURL() }, getClass().getClassLoader());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(directory);
+	}
+
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) for (File child : files) delete(child);
+		file.delete();
+	}
+
+	/**
+	 * Writes the map data, with the row and column in each color, plus an offset.
+	 */
+	private void writeMap(int offset) throws Exception {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(new File(directory, MAP_FILE))));
+		try {
+			for (int row = 0; row < index.length; row++) {
+				for (int column = 0; column < index[row]; column++) {
+					int color = getColor(row, column, offset);
+					out.writeByte(color >> 16);
+					out.writeByte(color >> 8);
+					out.writeByte(color);
+				}
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private static int getColor(int row, int column, int offset) {
+		return (((row << 12) | column) + offset) & 0xFFFFFF;
+	}
+
+	/**
+	 * Test that map images show the same locations, within a few map pixels, as drawing
+	 * each location at its rectangular position.
+	 */
+	public void testMapImage() {
+		IntegerMapData mapData = new IntegerMapData(loader, INDEX_FILE, MAP_FILE, null) {};
+		double[] centerPhis = { Math.PI / 2D, Math.PI / 4D, 0.3D, 2.5D };
+		double[] centerThetas = { 0D, 1D, 4D };
+		for (double centerPhi : centerPhis) {
+			for (double centerTheta : centerThetas) {
+				BufferedImage image = (BufferedImage) mapData.getMapImage(centerPhi, centerTheta);
+				int[] expected = getRectPositionImage(mapData, centerPhi, centerTheta);
+				int compared = 0;
+				for (int x = 0; x < expected.length; x++) {
+					// The old drawing wrapped the pixels right of the image into the first column.
+					if ((expected[x] == 0) || ((x % IMAGE_SIZE) == 0)) continue;
+					int color = image.getRGB(x % IMAGE_SIZE, x / IMAGE_SIZE);
+					assertTrue(getDistance(expected[x], color) <= (3D * Math.PI / IntegerMapData.MAP_HEIGHT));
+					compared++;
+				}
+				assertTrue(compared > (expected.length * 9 / 10));
+			}
+		}
+	}
+
+	/**
+	 * Draws a map image the way map images were drawn before the projection table,
+	 * by going through the map locations near the center and drawing each at its
+	 * rectangular position.
+	 */
+	private static int[] getRectPositionImage(IntegerMapData mapData, double centerPhi, double centerTheta) {
+		int[] mapArray = new int[IMAGE_SIZE * IMAGE_SIZE];
+		double phiIterationAngle = Math.PI / ((double) IntegerMapData.MAP_HEIGHT * 1.26D);
+		double phiRange = ((double) IMAGE_SIZE / (double) IntegerMapData.MAP_HEIGHT) * Math.PI * 1.46D;
+		double startPhi = Math.max(0D, centerPhi - (phiRange / 2D));
+		double endPhi = Math.min(Math.PI, centerPhi + (phiRange / 2D));
+		for (double x = startPhi; x <= endPhi; x += phiIterationAngle) {
+			double thetaIterationAngle = TWO_PI / (((double) IntegerMapData.MAP_WIDTH * Math.sin(x) * 1.46D) + 1D);
+			double minThetaDisplay = TWO_PI * ((double) IMAGE_SIZE / (double) IntegerMapData.MAP_WIDTH) * 1.02D;
+			double thetaRange = ((1D - Math.sin(x)) * TWO_PI) + minThetaDisplay;
+			double polarCapRange = Math.PI / 6.54D;
+			if ((x < polarCapRange) || (x > (Math.PI - polarCapRange)) || (thetaRange > TWO_PI)) thetaRange = TWO_PI;
+			double startTheta = centerTheta - (thetaRange / 2D);
+			double endTheta = centerTheta + (thetaRange / 2D);
+			for (double y = startTheta; y <= endTheta; y += thetaIterationAngle) {
+				double yCorrected = y;
+				while (yCorrected < 0) yCorrected += TWO_PI;
+				while (yCorrected > TWO_PI) yCorrected -= TWO_PI;
+				Point location = mapData.findRectPosition(centerPhi, centerTheta, x, yCorrected,
+						IntegerMapData.PIXEL_RHO, 720, 720 - 150);
+				if ((location.x > 0) && (location.x <= IMAGE_SIZE) && (location.y > 0) && (location.y <= IMAGE_SIZE)) {
+					int arrayIndex = location.x + (location.y * IMAGE_SIZE);
+					if (arrayIndex < mapArray.length) mapArray[arrayIndex] = mapData.getRGBColor(x, yCorrected).getRGB();
+				}
+			}
+		}
+		return mapArray;
+	}
+
+	/**
+	 * Gets the distance between the map locations in two colors.
+	 * @return distance (radians on the surface).
+	 */
+	private double getDistance(int color1, int color2) {
+		int row1 = (color1 & 0xFFFFFF) >> 12;
+		int row2 = (color2 & 0xFFFFFF) >> 12;
+		double theta1 = TWO_PI * (color1 & 0xFFF) / index[row1];
+		double theta2 = TWO_PI * (color2 & 0xFFF) / index[row2];
+		double phi = Math.PI * (row1 + row2) / (2D * IntegerMapData.MAP_HEIGHT);
+		double thetaDifference = Math.abs(theta1 - theta2);
+		if (thetaDifference > Math.PI) thetaDifference = TWO_PI - thetaDifference;
+		double phiDifference = Math.PI * (row1 - row2) / IntegerMapData.MAP_HEIGHT;
+		return Math.hypot(phiDifference, thetaDifference * Math.sin(phi));
+	}
+
+	/**
+	 * Test that the cache file is reused, and written again when the map data changes
+	 * or the cache file is damaged.
+	 */
+	public void testCacheFile() throws Exception {
+		File cacheDirectory = new File(directory, "cache");
+		File cacheFile = new File(cacheDirectory, MAP_FILE + ".argb");
+		MapColorStore colors = MapColorStore.load(loader, index, MAP_FILE, cacheDirectory);
+		assertTrue(cacheFile.isFile());
+		assertColors(colors, 0);
+
+		// Unchanged map data uses the cache file.
+		long cacheTime = cacheFile.lastModified() - 10000L;
+		cacheFile.setLastModified(cacheTime);
+		assertColors(MapColorStore.load(loader, index, MAP_FILE, cacheDirectory), 0);
+		assertEquals(cacheTime, cacheFile.lastModified());
+
+		// Changed map data of the same size is decoded again.
+		File mapFile = new File(directory, MAP_FILE);
+		long mapTime = mapFile.lastModified();
+		writeMap(1);
+		mapFile.setLastModified(mapTime + 10000L);
+		assertColors(MapColorStore.load(loader, index, MAP_FILE, cacheDirectory), 1);
+		assertTrue(cacheFile.lastModified() != cacheTime);
+
+		// A damaged cache file is written again.
+		RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw");
+		raf.setLength(raf.length() / 2L);
+		raf.close();
+		assertColors(MapColorStore.load(loader, index, MAP_FILE, cacheDirectory), 1);
+
+		// Without a cache directory, the colors are decoded in memory.
+		assertColors(MapColorStore.load(loader, index, MAP_FILE, null), 1);
+	}
+
+	private void assertColors(MapColorStore colors, int offset) {
+		assertEquals(index.length, colors.getRowNum());
+		for (int row = 0; row < index.length; row += 97) {
+			assertEquals(index[row], colors.getRowLength(row));
+			for (int column = 0; column < index[row]; column += 13) {
+				assertEquals(0xFF000000 | getColor(row, column, offset), colors.getColor(row, column));
+			}
+		}
+	}
+}
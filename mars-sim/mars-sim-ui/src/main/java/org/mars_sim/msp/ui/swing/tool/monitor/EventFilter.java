@@ -12,6 +12,7 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
+import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JInternalFrame;
 import javax.swing.JPanel;
@@ -39,6 +40,7 @@ implements ActionListener {
 	private JCheckBox missionCheck;
 	private JCheckBox taskCheck;
 	private JCheckBox transportCheck;
+	private JButton olderEventsButton;
 
 	/**
 	 * Constructor.
@@ -94,6 +96,17 @@ implements ActionListener {
 		transportCheck.addActionListener(this);
 		categoryPane.add(transportCheck);
 
+		// Create older events button, to page in archived events.
+		olderEventsButton = new JButton(Msg.getString("EventFilter.button.olderEvents")); //$NON-NLS-1$
+		olderEventsButton.setEnabled(model.hasMoreArchivedEvents());
+		olderEventsButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				EventFilter.this.model.loadArchivedEvents();
+				olderEventsButton.setEnabled(EventFilter.this.model.hasMoreArchivedEvents());
+			}
+		});
+		mainPane.add(olderEventsButton, BorderLayout.SOUTH);
+
 		pack();
 		desktop.add(this);
 	}
@@ -8,6 +8,8 @@ package org.mars_sim.msp.ui.swing.tool.monitor;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import javafx.application.Platform;
@@ -19,6 +21,7 @@ import javax.swing.table.AbstractTableModel;
 import org.controlsfx.control.Notifications;
 import org.mars_sim.msp.core.Msg;
 import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.events.ArchivedEvent;
 import org.mars_sim.msp.core.events.HistoricalEvent;
 import org.mars_sim.msp.core.events.HistoricalEventCategory;
 import org.mars_sim.msp.core.events.HistoricalEventListener;
@@ -53,6 +56,9 @@ implements MonitorModel, HistoricalEventListener, ClockListener {
 	private static final int DESC = 4;
 	private static final int COLUMNCOUNT = 5;
 
+	/** The number of archived events paged in at a time. */
+	private static final int ARCHIVE_PAGE_SIZE = 500;
+
 	// 2014-12-17 Added Timer and isPaused
 	//private Timer timer;
 	private boolean isPaused = false;
@@ -94,6 +100,9 @@ implements MonitorModel, HistoricalEventListener, ClockListener {
 	private boolean displayTask = false;
 	private boolean displayTransport = false;
 
+	/** The number of archived events, no longer in the manager, to display. */
+	private int archivedNum = 0;
+
 	/**
 	 * constructor.
 	 * Create a new Event model based on the specified event manager.
@@ -124,25 +133,34 @@ implements MonitorModel, HistoricalEventListener, ClockListener {
 		cachedEvents = new ArrayList<HistoricalEvent>();
 
 
-		// Filter events based on category.
-		for (int x = 0; x < manager.size(); x++) {
-			HistoricalEvent event = manager.getEvent(x);
-			HistoricalEventCategory category = event.getCategory();
+		// Filter events based on category, from the manager's category index.
+		if (displayMalfunction)
+			cachedEvents.addAll(manager.getEvents(HistoricalEventCategory.MALFUNCTION));
+
+		if (displayMedical)
+			cachedEvents.addAll(manager.getEvents(HistoricalEventCategory.MEDICAL));
 
-			if (category.equals(HistoricalEventCategory.MALFUNCTION) && displayMalfunction)
-				cachedEvents.add(event);
+		if (displayMission)
+			cachedEvents.addAll(manager.getEvents(HistoricalEventCategory.MISSION));
 
-			if (category.equals(HistoricalEventCategory.MEDICAL) && displayMedical)
-				cachedEvents.add(event);
+		if (displayTask)
+			cachedEvents.addAll(manager.getEvents(HistoricalEventCategory.TASK));
 
-			if (category.equals(HistoricalEventCategory.MISSION) && displayMission)
-				cachedEvents.add(event);
+		if (displayTransport)
+			cachedEvents.addAll(manager.getEvents(HistoricalEventCategory.TRANSPORT));
 
-			if (category.equals(HistoricalEventCategory.TASK) && displayTask)
-				cachedEvents.add(event);
+		// Most recent first.
+		Collections.sort(cachedEvents, new Comparator<HistoricalEvent>() {
+			public int compare(HistoricalEvent event1, HistoricalEvent event2) {
+				return Long.compare(event2.getSequence(), event1.getSequence());
+			}
+		});
 
-			if (category.equals(HistoricalEventCategory.TRANSPORT) && displayTransport)
-				cachedEvents.add(event);
+		// Then the archived events paged in, which are older than those in the manager.
+		if (archivedNum > 0) {
+			for (ArchivedEvent event : manager.getArchivedEvents(0L, archivedNum)) {
+				if (isDisplayed(event.getCategory())) cachedEvents.add(event);
+			}
 		}
 
 		// Update all table listeners.
@@ -155,6 +173,34 @@ implements MonitorModel, HistoricalEventListener, ClockListener {
 
 	}
 
+	/**
+	 * Checks if events of a category are to be displayed.
+	 */
+	private boolean isDisplayed(HistoricalEventCategory category) {
+		if (category == HistoricalEventCategory.MALFUNCTION) return displayMalfunction;
+		else if (category == HistoricalEventCategory.MEDICAL) return displayMedical;
+		else if (category == HistoricalEventCategory.MISSION) return displayMission;
+		else if (category == HistoricalEventCategory.TASK) return displayTask;
+		else if (category == HistoricalEventCategory.TRANSPORT) return displayTransport;
+		else return false;
+	}
+
+	/**
+	 * Checks if there are archived events not yet paged in.
+	 * @return true if more archived events.
+	 */
+	public boolean hasMoreArchivedEvents() {
+		return manager.getArchivedNum() > archivedNum;
+	}
+
+	/**
+	 * Pages in the next archived events, older than those displayed.
+	 */
+	public void loadArchivedEvents() {
+		archivedNum += ARCHIVE_PAGE_SIZE;
+		updateCachedEvents();
+	}
+
 	/**
 	 * Return the number of columns
 	 * @return column count.
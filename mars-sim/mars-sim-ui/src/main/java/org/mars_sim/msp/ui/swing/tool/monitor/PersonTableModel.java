@@ -15,7 +15,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
-import javax.swing.SwingUtilities;
 
 import org.mars_sim.msp.core.Msg;
 import org.mars_sim.msp.core.Simulation;
@@ -355,7 +354,7 @@ extends UnitTableModel {
 	 * @param event the unit event.
 	 */
 	public void unitUpdate(UnitEvent event) {
-		SwingUtilities.invokeLater(new PersonTableUpdater(event, this));
+		postUnitUpdate(event);
 		/*
 		String eventType = event.getType();
 
@@ -381,6 +380,11 @@ extends UnitTableModel {
 		 */
 	}
 
+	@Override
+	protected boolean updateUnit(UnitEvent event) {
+		return new PersonTableUpdater(event, this).update();
+	}
+
 	/**
 	 * Return the value of a Cell
 	 * @param rowIndex Row index of the cell.
@@ -614,8 +618,7 @@ extends UnitTableModel {
 	/**
 	 * Inner class for updating the person table.
 	 */
-	private static class PersonTableUpdater
-	implements Runnable {
+	private static class PersonTableUpdater {
 
 		static final Map<UnitEventType, Integer> EVENT_COLUMN_MAPPING;//= new HashMap<String, Integer>(12);
 
@@ -648,8 +651,11 @@ extends UnitTableModel {
 			this.tableModel = tableModel;
 		}
 
-		@Override
-		public void run() {
+		/**
+		 * Updates the table model for the event.
+		 * @return true if the unit's row needs repainting.
+		 */
+		private boolean update() {
 			UnitEventType eventType = event.getType();
 
 			Integer column = EVENT_COLUMN_MAPPING.get(eventType);
@@ -696,7 +702,7 @@ extends UnitTableModel {
 			        Map<Integer, String> performanceItemMap = tableModel.performanceValueCache.get(person);
 			        String oldHungerString = performanceItemMap.get(HUNGER);
 			        if (hungerString.equals(oldHungerString)) {
-			            return;
+			            return false;
 			        }
 			        else {
 			            performanceItemMap.put(HUNGER, hungerString);
@@ -712,7 +718,7 @@ extends UnitTableModel {
                     Map<Integer, String> performanceItemMap = tableModel.performanceValueCache.get(person);
                     String oldFatigueString = performanceItemMap.get(FATIGUE);
                     if (fatigueString.equals(oldFatigueString)) {
-                        return;
+                        return false;
                     }
                     else {
                         performanceItemMap.put(FATIGUE, fatigueString);
@@ -728,7 +734,7 @@ extends UnitTableModel {
                     Map<Integer, String> performanceItemMap = tableModel.performanceValueCache.get(person);
                     String oldStressString = performanceItemMap.get(STRESS);
                     if (stressString.equals(oldStressString)) {
-                        return;
+                        return false;
                     }
                     else {
                         performanceItemMap.put(STRESS, stressString);
@@ -744,7 +750,7 @@ extends UnitTableModel {
                     Map<Integer, String> performanceItemMap = tableModel.performanceValueCache.get(person);
                     String oldStressString = performanceItemMap.get(PERFORMANCE);
                     if (performanceString.equals(oldStressString)) {
-                        return;
+                        return false;
                     }
                     else {
                         performanceItemMap.put(PERFORMANCE, performanceString);
@@ -752,10 +758,7 @@ extends UnitTableModel {
                 }
             }
 
-			if (column != null && column> -1) {
-				Unit unit = (Unit) event.getSource();
-				tableModel.fireTableCellUpdated(tableModel.getUnitIndex(unit), column);
-			}
+			return (column != null && column > -1);
 		}
 	}
 
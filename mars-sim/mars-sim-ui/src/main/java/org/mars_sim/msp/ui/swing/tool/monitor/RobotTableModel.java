@@ -14,7 +14,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
-import javax.swing.SwingUtilities;
 
 import org.mars_sim.msp.core.Msg;
 import org.mars_sim.msp.core.Simulation;
@@ -284,7 +283,12 @@ extends UnitTableModel {
 	 * @param event the unit event.
 	 */
 	public void unitUpdate(UnitEvent event) {
-		SwingUtilities.invokeLater(new RobotTableUpdater(event, this));
+		postUnitUpdate(event);
+	}
+
+	@Override
+	protected boolean updateUnit(UnitEvent event) {
+		return new RobotTableUpdater(event, this).update();
 	}
 
 	/**
@@ -501,8 +505,7 @@ extends UnitTableModel {
 	/**
 	 * Inner class for updating the robot table.
 	 */
-	private static class RobotTableUpdater
-	implements Runnable {
+	private static class RobotTableUpdater {
 
 		static final Map<UnitEventType, Integer> EVENT_COLUMN_MAPPING;//= new HashMap<String, Integer>(12);
 
@@ -534,8 +537,11 @@ extends UnitTableModel {
 			this.tableModel = tableModel;
 		}
 
-		@Override
-		public void run() {
+		/**
+		 * Updates the table model for the event.
+		 * @return true if the unit's row needs repainting.
+		 */
+		private boolean update() {
 			UnitEventType eventType = event.getType();
 
 			Integer column = EVENT_COLUMN_MAPPING.get(eventType);
@@ -575,10 +581,7 @@ extends UnitTableModel {
 			}
 			*/
 
-			if (column != null && column> -1) {
-				Unit unit = (Unit) event.getSource();
-				tableModel.fireTableCellUpdated(tableModel.getUnitIndex(unit), column);
-			}
+			return (column != null && column > -1);
 		}
 	}
 
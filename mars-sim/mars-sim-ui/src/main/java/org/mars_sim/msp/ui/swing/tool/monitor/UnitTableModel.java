@@ -8,14 +8,21 @@
 package org.mars_sim.msp.ui.swing.tool.monitor;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 
 import javax.swing.SwingUtilities;
 import javax.swing.table.AbstractTableModel;
 
 import org.mars_sim.msp.core.Msg;
 import org.mars_sim.msp.core.Unit;
+import org.mars_sim.msp.core.UnitBatchListener;
+import org.mars_sim.msp.core.UnitEvent;
+import org.mars_sim.msp.core.UnitEventBus;
 import org.mars_sim.msp.core.UnitListener;
 
 /**
@@ -42,6 +49,8 @@ implements MonitorModel, UnitListener {
 	private Class<?>  columnTypes[];
 	private int size = -1;
 	private boolean refreshSize = true;
+	/** Coalesces unit events into batches for the event dispatch thread. */
+	private UnitEventBus eventBus;
 
 	/**
 	 * Constructor.
@@ -242,6 +251,62 @@ implements MonitorModel, UnitListener {
 		return false;
 	}
 
+	/**
+	 * Posts a unit event to be handled with the other events of the current frame
+	 * on the event dispatch thread.
+	 * @param event the unit event.
+	 */
+	protected void postUnitUpdate(UnitEvent event) {
+		UnitEventBus bus;
+		synchronized (this) {
+			if (eventBus == null) {
+				eventBus = new UnitEventBus(new UnitBatchListener() {
+					public void unitUpdates(List<UnitEvent> events) {
+						updateUnits(events);
+					}
+				}, new Executor() {
+					public void execute(Runnable command) {
+						SwingUtilities.invokeLater(command);
+					}
+				});
+			}
+			bus = eventBus;
+		}
+		bus.post(event);
+	}
+
+	/**
+	 * Handles a batch of unit events on the event dispatch thread, then repaints
+	 * the rows of the changed units, finding them in one pass over the units.
+	 * @param events the unit events.
+	 */
+	private void updateUnits(List<UnitEvent> events) {
+		if (units == null) return;
+
+		Set<Object> changedUnits = new HashSet<Object>();
+		for (UnitEvent event : events) {
+			if (updateUnit(event)) changedUnits.add(event.getSource());
+		}
+		if (changedUnits.isEmpty()) return;
+
+		int row = 0;
+		Iterator<Unit> i = units.iterator();
+		while (i.hasNext() && !changedUnits.isEmpty()) {
+			if (changedUnits.remove(i.next())) fireTableRowsUpdated(row, row);
+			row++;
+		}
+	}
+
+	/**
+	 * Handles a unit event posted with {@link #postUnitUpdate(UnitEvent)}.
+	 * Called on the event dispatch thread.
+	 * @param event the unit event.
+	 * @return true if the unit's row needs repainting.
+	 */
+	protected boolean updateUnit(UnitEvent event) {
+		return false;
+	}
+
 	/**
 	 * Get the unit at the specified row.
 	 * @param index Index of the row.
@@ -297,6 +362,12 @@ implements MonitorModel, UnitListener {
 			clear();
 		}
 		units = null;
+		synchronized (this) {
+			if (eventBus != null) {
+				eventBus.destroy();
+				eventBus = null;
+			}
+		}
 	}
 
 	@Override
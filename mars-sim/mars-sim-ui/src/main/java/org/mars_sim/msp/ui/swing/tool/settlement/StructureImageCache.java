@@ -0,0 +1,385 @@
+/**
+ * Mars Simulation Project
+ * StructureImageCache.java
+ * @version 3.08 2015-08-13
+ */
+package org.mars_sim.msp.ui.swing.tool.settlement;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.batik.gvt.GraphicsNode;
+
+/**
+ * A cache of structure images rasterized from their SVG images, shared by the settlement maps.
+ * Images are rasterized at a small set of mip levels, the map scale rounded up to the next
+ * half power of two, and drawn scaled to the map scale, so zooming doesn't rasterize every
+ * structure again at each scale. Missing images are rasterized on a background thread, and
+ * the least recently used images are evicted when their total size goes over a limit.
+ */
+public final class StructureImageCache {
+
+    // Static members.
+    private static Logger logger = Logger.getLogger(StructureImageCache.class.getName());
+
+    /** The default limit of the total size of the images (bytes). */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+    /** The number of mip levels each time the scale doubles. */
+    private static final int LEVELS_PER_DOUBLING = 2;
+    /** How many mip levels away an image of the structure is looked for while it is rasterized. */
+    private static final int MAX_FALLBACK_LEVELS = 6;
+
+    private static StructureImageCache instance;
+
+    // Data members.
+    private final long maxBytes;
+    /** The images, in least recently used order. */
+    private final LinkedHashMap<ImageKey, BufferedImage> images;
+    /** The images being rasterized. */
+    private final Set<ImageKey> pending;
+    private ExecutorService rasterizer;
+    private long bytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructor.
+     * @param maxBytes the limit of the total size of the images (bytes).
+     */
+    StructureImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        images = new LinkedHashMap<ImageKey, BufferedImage>(64, 0.75F, true);
+        pending = new HashSet<ImageKey>();
+    }
+
+    /**
+     * Gets the cache shared by the settlement maps.
+     * @return image cache.
+     */
+    public static synchronized StructureImageCache getInstance() {
+        if (instance == null) {
+            instance = new StructureImageCache(DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the mip level of a map scale, the scale rounded up to the next level.
+     * @param scale the map scale (pixels per meter).
+     * @return mip level.
+     */
+    static int getLevel(double scale) {
+        return (int) Math.ceil(LEVELS_PER_DOUBLING * Math.log(scale) / Math.log(2D) - 0.000001D);
+    }
+
+    /**
+     * Gets the scale images are rasterized at for a mip level.
+     * @param level the mip level.
+     * @return scale (pixels per meter).
+     */
+    static double getLevelScale(int level) {
+        return Math.pow(2D, level / (double) LEVELS_PER_DOUBLING);
+    }
+
+    /**
+     * Gets the image of a structure for a map scale.
+     * If it isn't cached, it is rasterized on a background thread, then the observer is
+     * repainted. Until then, an image of the structure at another mip level is returned if
+     * one is cached.
+     * @param svg the SVG graphics node.
+     * @param patternSVG the pattern SVG graphics node (null if no pattern).
+     * @param width the structure width (meters).
+     * @param length the structure length (meters).
+     * @param scale the map scale (pixels per meter).
+     * @param observer the component to repaint when the image is rasterized (may be null).
+     * @return the image, to draw scaled to the structure size, or null if none is cached yet.
+     */
+    synchronized BufferedImage getImage(GraphicsNode svg, GraphicsNode patternSVG,
+            double width, double length, double scale, Component observer) {
+        int level = getLevel(scale);
+        ImageKey key = new ImageKey(svg, patternSVG, width, length, level);
+        BufferedImage result = images.get(key);
+        if (result != null) {
+            hitCount++;
+            return result;
+        }
+
+        // A miss is counted once, while the image is rasterized.
+        if (pending.add(key)) {
+            missCount++;
+            rasterize(key, observer);
+        }
+
+        // Use the nearest other level while the image is rasterized.
+        for (int x = 1; (x <= MAX_FALLBACK_LEVELS) && (result == null); x++) {
+            result = images.get(new ImageKey(svg, patternSVG, width, length, level + x));
+            if (result == null) {
+                result = images.get(new ImageKey(svg, patternSVG, width, length, level - x));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rasterizes an image on the background thread.
+     */
+    private void rasterize(final ImageKey key, final Component observer) {
+        if (rasterizer == null) {
+            rasterizer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Structure image rasterizer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        // One thread, as the SVG graphics nodes are transformed to paint them.
+        rasterizer.execute(new Runnable() {
+            @Override
+            public void run() {
+                BufferedImage image = null;
+                try {
+                    image = createBufferedImage(key.svg, key.width, key.length, key.patternSVG,
+                            getLevelScale(key.level));
+                }
+                catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Cannot rasterize structure image", e);
+                }
+                put(key, image);
+                if ((image != null) && (observer != null)) {
+                    observer.repaint();
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a rasterized image, evicting the least recently used images over the size limit.
+     * @param key the image key.
+     * @param image the image, or null if it couldn't be rasterized.
+     */
+    synchronized void put(ImageKey key, BufferedImage image) {
+        pending.remove(key);
+        if (image == null) {
+            return;
+        }
+        BufferedImage oldImage = images.put(key, image);
+        if (oldImage != null) {
+            bytes -= getBytes(oldImage);
+        }
+        bytes += getBytes(image);
+
+        // Keep the new image even if it alone is over the limit.
+        Iterator<Map.Entry<ImageKey, BufferedImage>> i = images.entrySet().iterator();
+        while ((bytes > maxBytes) && (images.size() > 1)) {
+            Map.Entry<ImageKey, BufferedImage> eldest = i.next();
+            bytes -= getBytes(eldest.getValue());
+            i.remove();
+            evictionCount++;
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            logger.fine(toString());
+        }
+    }
+
+    /**
+     * Gets the size of an image.
+     */
+    private static long getBytes(BufferedImage image) {
+        // 4 bytes a pixel for TYPE_INT_ARGB.
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Creates a buffered image from a SVG graphics node.
+     * @param svg the SVG graphics node.
+     * @param width the structure width (meters).
+     * @param length the structure length (meters).
+     * @param patternSVG the pattern SVG graphics node (null if no pattern).
+     * @param scale the scale to rasterize at (pixels per meter).
+     * @return the created buffered image.
+     */
+    static BufferedImage createBufferedImage(GraphicsNode svg, double width, double length,
+            GraphicsNode patternSVG, double scale) {
+
+        int imageWidth = (int) (width * scale);
+        if (imageWidth <= 0) {
+            imageWidth = 1;
+        }
+        int imageLength = (int) (length * scale);
+        if (imageLength <= 0) {
+            imageLength = 1;
+        }
+        BufferedImage bufferedImage = new BufferedImage(
+                imageWidth, imageLength,
+                BufferedImage.TYPE_INT_ARGB
+                );
+
+        // Determine bounds.
+        Rectangle2D bounds = svg.getBounds();
+
+        // Determine transform information.
+        double scalingWidth = width / bounds.getWidth() * scale;
+        double scalingLength = length / bounds.getHeight() * scale;
+
+        // Draw the SVG image on the buffered image.
+        Graphics2D g2d = (Graphics2D) bufferedImage.getGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        svg.setTransform(AffineTransform.getScaleInstance(scalingWidth, scalingLength));
+        svg.paint(g2d);
+
+        // Draw repeating pattern SVG image on the buffered image.
+        if (patternSVG != null) {
+            double patternScaling = 0D;
+            double patternWidth = 0D;
+            double patternLength = 0D;
+
+            double originalProportions = bounds.getWidth() / bounds.getHeight();
+            double finalProportions = width / length;
+            Rectangle2D patternBounds = patternSVG.getBounds();
+            if ((finalProportions / originalProportions) >= 1D) {
+                patternScaling = scalingLength;
+                patternLength = length * (patternBounds.getHeight() / bounds.getHeight());
+                patternWidth = patternLength * (patternBounds.getWidth() / patternBounds.getHeight());
+            }
+            else {
+                patternScaling = scalingWidth;
+                patternWidth = width * (patternBounds.getWidth() / bounds.getWidth());
+                patternLength = patternWidth * (patternBounds.getHeight() / patternBounds.getWidth());
+            }
+
+            AffineTransform patternTransform = new AffineTransform();
+            patternTransform.scale(patternScaling, patternScaling);
+            for (double x = 0D; x < length; x += patternLength) {
+                patternTransform.translate(0D, x * bounds.getHeight());
+                double y = 0D;
+                for (; y < width; y += patternWidth) {
+                    patternTransform.translate(y * bounds.getWidth(), 0D);
+                    patternSVG.setTransform(patternTransform);
+                    patternSVG.paint(g2d);
+                    patternTransform.translate(y * bounds.getWidth() * -1D, 0D);
+                }
+                patternTransform.translate(0D, x * bounds.getHeight() * -1D);
+            }
+        }
+
+        // Cleanup and return image
+        g2d.dispose();
+
+        return bufferedImage;
+    }
+
+    /**
+     * Gets the number of images found in the cache.
+     * @return hit count.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of images not found in the cache, each counted once while it is rasterized.
+     * @return miss count.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of images evicted from the cache.
+     * @return eviction count.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of images in the cache.
+     * @return number of images.
+     */
+    public synchronized int getImageNum() {
+        return images.size();
+    }
+
+    /**
+     * Gets the total size of the images in the cache.
+     * @return size (bytes).
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Removes all images from the cache.
+     */
+    public synchronized void clear() {
+        images.clear();
+        bytes = 0L;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Structure images: %d, %d kB of %d kB, hits %d, misses %d, evictions %d",
+                images.size(), bytes / 1024L, maxBytes / 1024L, hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * Inner class to serve as map key for structure images.
+     */
+    static class ImageKey {
+
+        private final GraphicsNode svg;
+        private final GraphicsNode patternSVG;
+        private final double width;
+        private final double length;
+        private final int level;
+
+        ImageKey(GraphicsNode svg, GraphicsNode patternSVG, double width, double length, int level) {
+            this.svg = svg;
+            this.patternSVG = patternSVG;
+            this.width = width;
+            this.length = length;
+            this.level = level;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+
+            boolean result = false;
+            if (object instanceof ImageKey) {
+                ImageKey imageKeyObject = (ImageKey) object;
+                if (
+                        svg.equals(imageKeyObject.svg) &&
+                        (patternSVG == imageKeyObject.patternSVG) &&
+                        (width == imageKeyObject.width) &&
+                        (length == imageKeyObject.length) &&
+                        (level == imageKeyObject.level)) {
+                    result = true;
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return svg.hashCode() + (int) ((width + length) * 10D) + (31 * level);
+        }
+    }
+}
@@ -14,9 +14,7 @@ import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import org.apache.batik.gvt.GraphicsNode;
 import org.mars_sim.msp.core.LocalAreaUtil;
@@ -40,7 +38,7 @@ public class StructureMapLayer implements SettlementMapLayer {
 
     // Data members
     private SettlementMapPanel mapPanel;
-    private Map<Double, Map<BuildingKey, BufferedImage>> svgImageCache;
+    private StructureImageCache imageCache;
     private double scale;
     
  // 2014-11-04 Added building
@@ -56,7 +54,7 @@ public class StructureMapLayer implements SettlementMapLayer {
 
         // Initialize data members.
         this.mapPanel = mapPanel;
-        svgImageCache = new HashMap<Double, Map<BuildingKey, BufferedImage>>(21);
+        imageCache = StructureImageCache.getInstance();
 
         // Set Apache Batik library system property so that it doesn't output: 
         // "Graphics2D from BufferedImage lacks BUFFERED_IMAGE hint" in system err.
@@ -72,7 +70,7 @@ public class StructureMapLayer implements SettlementMapLayer {
     		System.out.println("StructureMapLayer() : building is "+ building);
         // Initialize data members.
         this.mapPanel = mapPanel;
-        svgImageCache = new HashMap<Double, Map<BuildingKey, BufferedImage>>(21);
+        imageCache = StructureImageCache.getInstance();
 
         // Set Apache Batik library system property so that it doesn't output: 
         // "Graphics2D from BufferedImage lacks BUFFERED_IMAGE hint" in system err.
@@ -83,7 +81,7 @@ public class StructureMapLayer implements SettlementMapLayer {
 
         // Initialize data members.
        
-        svgImageCache = new HashMap<Double, Map<BuildingKey, BufferedImage>>(21);
+        imageCache = StructureImageCache.getInstance();
 
         // Set Apache Batik library system property so that it doesn't output: 
         // "Graphics2D from BufferedImage lacks BUFFERED_IMAGE hint" in system err.
@@ -444,11 +442,20 @@ public class StructureMapLayer implements SettlementMapLayer {
         newTransform.rotate(facingRadian, centerX + boundsPosX, centerY + boundsPosY);
 
         if (isSVG) {
-            // Draw buffered image of structure.
-            BufferedImage image = getBufferedImage(svg, width, length, patternSVG);
-            if (image != null) {
-                g2d.transform(newTransform);
-                g2d.drawImage(image, 0, 0, mapPanel);
+            // Draw buffered image of structure, if it is in view.
+            g2d.transform(newTransform);
+            if (g2d.hitClip(0, 0, (int) Math.ceil(width * scale) + 1, (int) Math.ceil(length * scale) + 1)) {
+                BufferedImage image = imageCache.getImage(svg, patternSVG, width, length, scale, mapPanel);
+                if (image != null) {
+                    // The image is rasterized at the scale's mip level, so scale it to the structure size.
+                    Object saveInterpolation = g2d.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+                    g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    g2d.scale(width * scale / image.getWidth(), length * scale / image.getHeight());
+                    g2d.drawImage(image, 0, 0, mapPanel);
+                    if (saveInterpolation != null) {
+                        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, saveInterpolation);
+                    }
+                }
             }
         }
         else {
@@ -500,165 +507,8 @@ public class StructureMapLayer implements SettlementMapLayer {
         g2d.setTransform(saveTransform);
     }
 
-    /**
-     * Gets a buffered image for a given graphics node.
-     * @param svg the SVG graphics node.
-     * @param width the structure width (meters).
-     * @param length the structure length (meters).
-     * @param patternSVG the pattern SVG graphics node (null if no pattern).
-     * @return buffered image.
-     */
-    private BufferedImage getBufferedImage(
-            GraphicsNode svg, double width, double length, 
-            GraphicsNode patternSVG) {
-
-        // Get image cache for current scale or create it if it doesn't exist.
-        Map<BuildingKey, BufferedImage> imageCache = null;
-        if (svgImageCache.containsKey(scale)) {
-            imageCache = svgImageCache.get(scale);
-        }
-        else {
-            imageCache = new HashMap<BuildingKey, BufferedImage>(100);
-            svgImageCache.put(scale, imageCache);
-        }
-
-        // Get image from image cache or create it if it doesn't exist.
-        BufferedImage image = null;
-        BuildingKey buildingKey = new BuildingKey(svg, width, length);
-        if (imageCache.containsKey(buildingKey)) {
-            image = imageCache.get(buildingKey);
-        }
-        else {
-            image = createBufferedImage(svg, width, length, patternSVG);
-            imageCache.put(buildingKey, image);
-        }
-
-        return image;
-    }
-
-    /**
-     * Creates a buffered image from a SVG graphics node.
-     * @param svg the SVG graphics node.
-     * @param width the structure width (meters).
-     * @param length the structure length (meters).
-     * @param patternSVG the pattern SVG graphics node (null if no pattern).
-     * @return the created buffered image.
-     */
-    private BufferedImage createBufferedImage(GraphicsNode svg, double width, double length, 
-            GraphicsNode patternSVG) {
-
-        int imageWidth = (int) (width * scale);
-        if (imageWidth <= 0) {
-            imageWidth = 1;
-        }
-        int imageLength = (int) (length * scale);
-        if (imageLength <= 0) {
-            imageLength = 1;
-        }
-        BufferedImage bufferedImage = new BufferedImage(
-                imageWidth, imageLength, 
-                BufferedImage.TYPE_INT_ARGB
-                );
-
-        // Determine bounds.
-        Rectangle2D bounds = svg.getBounds();
-
-        // Determine transform information.
-        double scalingWidth = width / bounds.getWidth() * scale;
-        double scalingLength = length / bounds.getHeight() * scale;
-
-        // Draw the SVG image on the buffered image.
-        Graphics2D g2d = (Graphics2D) bufferedImage.getGraphics();
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        svg.setTransform(AffineTransform.getScaleInstance(scalingWidth, scalingLength));
-        svg.paint(g2d);
-
-        // Draw repeating pattern SVG image on the buffered image.
-        if (patternSVG != null) {
-            double patternScaling = 0D;
-            double patternWidth = 0D;
-            double patternLength = 0D;
-
-            double originalProportions = bounds.getWidth() / bounds.getHeight();
-            double finalProportions = width / length;
-            Rectangle2D patternBounds = patternSVG.getBounds();
-            if ((finalProportions / originalProportions) >= 1D) {
-                patternScaling = scalingLength;
-                patternLength = length * (patternBounds.getHeight() / bounds.getHeight());
-                patternWidth = patternLength * (patternBounds.getWidth() / patternBounds.getHeight());
-            }
-            else {
-                patternScaling = scalingWidth;
-                patternWidth = width * (patternBounds.getWidth() / bounds.getWidth());
-                patternLength = patternWidth * (patternBounds.getHeight() / patternBounds.getWidth());
-            }
-
-            AffineTransform patternTransform = new AffineTransform();
-            patternTransform.scale(patternScaling, patternScaling);
-            for (double x = 0D; x < length; x += patternLength) {
-                patternTransform.translate(0D, x * bounds.getHeight());
-                double y = 0D;
-                for (; y < width; y += patternWidth) {
-                    patternTransform.translate(y * bounds.getWidth(), 0D);
-                    patternSVG.setTransform(patternTransform);
-                    patternSVG.paint(g2d);
-                    patternTransform.translate(y * bounds.getWidth() * -1D, 0D);
-                }
-                patternTransform.translate(0D, x * bounds.getHeight() * -1D);
-            }
-        }
-
-        // Cleanup and return image
-        g2d.dispose();
-
-        return bufferedImage;
-    }
-
     @Override
     public void destroy() {
-        // Clear all buffered image caches.
-        Iterator<Map<BuildingKey, BufferedImage>> i = svgImageCache.values().iterator();
-        while (i.hasNext()) {
-            i.next().clear();
-        }
-        svgImageCache.clear();
-    }
-
-    /**
-     * Inner class to serve as map key for building images.
-     */
-    private class BuildingKey {
-
-        private GraphicsNode svg;
-        private double width;
-        private double length;
-
-        BuildingKey(GraphicsNode svg, double width, double length) {
-            this.svg = svg;
-            this.width = width;
-            this.length = length;
-        }
-
-        @Override
-        public boolean equals(Object object) {
-
-            boolean result = false;
-            if (object instanceof BuildingKey) {
-                BuildingKey buildingKeyObject = (BuildingKey) object;
-                if (
-                        svg.equals(buildingKeyObject.svg) &&
-                        (width == buildingKeyObject.width) && 
-                        (length == buildingKeyObject.length)) {
-                    result = true;
-                }
-            }
-
-            return result;
-        }
-
-        @Override
-        public int hashCode() {
-            return svg.hashCode() + (int) ((width + length) * 10D);
-        }
+        // The image cache is shared by the settlement maps and bounded in size, so it isn't cleared.
     }
-}
\ No newline at end of file
+}
@@ -17,6 +17,7 @@ import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -72,7 +73,7 @@ extends TabPanel {
 		);
 
 		Settlement settlement = (Settlement) unit;
-		processingBuildings = settlement.getBuildingManager().getBuildings(BuildingFunction.RESOURCE_PROCESSING);
+		processingBuildings = new ArrayList<Building>(settlement.getBuildingManager().getBuildings(BuildingFunction.RESOURCE_PROCESSING));
 
 		// Prepare resource processes label panel.
 		JPanel resourceProcessesLabelPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
@@ -143,7 +144,7 @@ extends TabPanel {
 	public void update() {
 		// Check if building list has changed.
 		Settlement settlement = (Settlement) unit;
-		List<Building> tempBuildings = settlement.getBuildingManager().getBuildings(BuildingFunction.RESOURCE_PROCESSING);
+		List<Building> tempBuildings = new ArrayList<Building>(settlement.getBuildingManager().getBuildings(BuildingFunction.RESOURCE_PROCESSING));
 		if (!tempBuildings.equals(processingBuildings)) {
 			// Populate process list.
 			processingBuildings = tempBuildings;
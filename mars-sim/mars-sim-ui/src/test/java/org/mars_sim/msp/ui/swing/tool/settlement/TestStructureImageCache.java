@@ -0,0 +1,117 @@
+package org.mars_sim.msp.ui.swing.tool.settlement;
+
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import junit.framework.TestCase;
+
+import org.apache.batik.gvt.CompositeGraphicsNode;
+import org.apache.batik.gvt.GraphicsNode;
+
+/**
+ * Unit test suite for the StructureImageCache class.
+ * The images are put in the cache directly, so no SVG image is rasterized.
+ */
+public class TestStructureImageCache extends TestCase {
+
+    private static final double DELTA = 0.0000001D;
+    /** The size of a 10 x 10 image (bytes). */
+    private static final long IMAGE_BYTES = 400L;
+
+    private GraphicsNode svg;
+
+    @Override
+    public void setUp() throws Exception {
+        svg = new CompositeGraphicsNode() {
+            @Override
+            public Rectangle2D getBounds() {
+                return new Rectangle2D.Double(0D, 0D, 10D, 10D);
+            }
+        };
+    }
+
+    /**
+     * Test that map scales are rounded up to the next mip level.
+     */
+    public void testLevels() {
+        assertEquals(0, StructureImageCache.getLevel(1D));
+        assertEquals(1, StructureImageCache.getLevel(1.4D));
+        assertEquals(2, StructureImageCache.getLevel(1.5D));
+        assertEquals(2, StructureImageCache.getLevel(2D));
+        assertEquals(-2, StructureImageCache.getLevel(0.5D));
+        assertEquals(Math.sqrt(2D), StructureImageCache.getLevelScale(1), DELTA);
+
+        for (int level = -6; level <= 12; level++) {
+            assertEquals(level, StructureImageCache.getLevel(StructureImageCache.getLevelScale(level)));
+        }
+        double[] scales = { 0.3D, 0.45D, 1.1D, 3D, 5D, 10D, 55D };
+        for (double scale : scales) {
+            int level = StructureImageCache.getLevel(scale);
+            assertTrue(StructureImageCache.getLevelScale(level) >= scale);
+            assertTrue(StructureImageCache.getLevelScale(level - 1) < scale);
+        }
+    }
+
+    /**
+     * Test that the least recently used images are evicted when over the size limit.
+     */
+    public void testEviction() {
+        StructureImageCache cache = new StructureImageCache(3L * IMAGE_BYTES);
+        for (int x = 1; x <= 3; x++) {
+            cache.put(getKey(x, 0), createImage(10));
+        }
+        assertEquals(3, cache.getImageNum());
+        assertEquals(3L * IMAGE_BYTES, cache.getBytes());
+
+        // Using the first image makes the second the least recently used.
+        assertNotNull(cache.getImage(svg, null, 1D, 1D, 1D, null));
+        cache.put(getKey(4, 0), createImage(10));
+        assertEquals(1L, cache.getEvictionCount());
+        assertEquals(3, cache.getImageNum());
+        assertEquals(3L * IMAGE_BYTES, cache.getBytes());
+        for (int x : new int[] { 1, 3, 4 }) {
+            assertNotNull(cache.getImage(svg, null, x, 1D, 1D, null));
+        }
+        assertEquals(4L, cache.getHitCount());
+        assertEquals(0L, cache.getMissCount());
+
+        // Replacing an image counts its size once.
+        cache.put(getKey(4, 0), createImage(10));
+        assertEquals(3L * IMAGE_BYTES, cache.getBytes());
+
+        // An image alone over the limit is kept.
+        cache.put(getKey(5, 0), createImage(40));
+        assertEquals(1, cache.getImageNum());
+        assertEquals(16L * IMAGE_BYTES, cache.getBytes());
+        assertEquals(4L, cache.getEvictionCount());
+    }
+
+    /**
+     * Test that a missing image is counted as a miss once while it is rasterized, and an
+     * image at another mip level is used meanwhile.
+     */
+    public void testMiss() {
+        StructureImageCache cache = new StructureImageCache(StructureImageCache.DEFAULT_MAX_BYTES);
+        BufferedImage otherLevelImage = createImage(10);
+
+        // Holding the cache keeps the rasterized image from being put.
+        synchronized (cache) {
+            assertNull(cache.getImage(svg, null, 1D, 1D, 1D, null));
+            assertNull(cache.getImage(svg, null, 1D, 1D, 1D, null));
+            assertEquals(1L, cache.getMissCount());
+
+            cache.put(getKey(1, 2), otherLevelImage);
+            assertSame(otherLevelImage, cache.getImage(svg, null, 1D, 1D, 1D, null));
+            assertEquals(1L, cache.getMissCount());
+            assertEquals(0L, cache.getHitCount());
+        }
+    }
+
+    private StructureImageCache.ImageKey getKey(double width, int level) {
+        return new StructureImageCache.ImageKey(svg, null, width, 1D, level);
+    }
+
+    private static BufferedImage createImage(int size) {
+        return new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    }
+}